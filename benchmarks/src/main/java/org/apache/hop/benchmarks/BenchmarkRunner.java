@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the Hop benchmarks and writes the results in JSON format so they can be compared between
+ * releases. All the regular JMH command line options are accepted, for example:
+ *
+ * <pre>
+ * java -jar hop-benchmarks.jar RowMeta -rff target/rowmeta.json
+ * </pre>
+ *
+ * Unless specified otherwise with -rf and -rff the results are written to jmh-result.json.
+ */
+public class BenchmarkRunner {
+
+  public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+    OptionsBuilder builder = new OptionsBuilder();
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+    }
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLineOptions.getResult().hasValue()) {
+      builder.result(DEFAULT_RESULT_FILE);
+    }
+    Options options = builder.parent(commandLineOptions).build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.benchmarks;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMeta;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMetaFunction;
+import org.apache.hop.pipeline.transforms.calculator.CalculatorMetaFunction.CalculationType;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.rowgenerator.GeneratorField;
+import org.apache.hop.pipeline.transforms.rowgenerator.RowGeneratorMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a small pipeline end to end with the local pipeline engine: Row Generator, Calculator and
+ * Dummy. This includes the start up and shut down of the transform threads, so it shows the
+ * overhead of the engine as well as the throughput of the row handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PipelineBenchmark {
+
+  @Param({"1000000"})
+  public int nrRows;
+
+  private PipelineMeta pipelineMeta;
+
+  @Setup
+  public void setUp() throws HopException {
+    HopEnvironment.init();
+    registerTransformPlugin(RowGeneratorMeta.class);
+    registerTransformPlugin(CalculatorMeta.class);
+    registerTransformPlugin(DummyMeta.class);
+
+    pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("benchmark");
+
+    RowGeneratorMeta generatorMeta = new RowGeneratorMeta();
+    generatorMeta.setRowLimit(Integer.toString(nrRows));
+    generatorMeta.setFields(
+        Arrays.asList(
+            new GeneratorField("a", "Integer", null, -1, -1, null, null, null, "1", false),
+            new GeneratorField("b", "Integer", null, -1, -1, null, null, null, "2", false)));
+    TransformMeta generator = createTransformMeta("generator", generatorMeta);
+
+    CalculatorMeta calculatorMeta = new CalculatorMeta();
+    calculatorMeta.setFunctions(
+        Arrays.asList(
+            new CalculatorMetaFunction(
+                "c",
+                CalculationType.ADD,
+                "a",
+                "b",
+                null,
+                "Integer",
+                -1,
+                -1,
+                null,
+                null,
+                null,
+                null,
+                false)));
+    TransformMeta calculator = createTransformMeta("calculator", calculatorMeta);
+
+    TransformMeta dummy = createTransformMeta("dummy", new DummyMeta());
+
+    pipelineMeta.addTransform(generator);
+    pipelineMeta.addTransform(calculator);
+    pipelineMeta.addTransform(dummy);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(generator, calculator));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(calculator, dummy));
+  }
+
+  /** Make sure the transform plugin is known, even if the plugin jar index wasn't picked up. */
+  private static void registerTransformPlugin(Class<? extends ITransformMeta> metaClass)
+      throws HopException {
+    PluginRegistry registry = PluginRegistry.getInstance();
+    String pluginId = metaClass.getAnnotation(Transform.class).id();
+    if (registry.getPlugin(TransformPluginType.class, pluginId) == null) {
+      registry.registerPluginClass(metaClass.getName(), TransformPluginType.class, Transform.class);
+    }
+  }
+
+  private TransformMeta createTransformMeta(String name, ITransformMeta meta) {
+    String pluginId = PluginRegistry.getInstance().getPluginId(TransformPluginType.class, meta);
+    return new TransformMeta(pluginId, name, meta);
+  }
+
+  @Benchmark
+  public long generateCalculateDummy() throws HopException {
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.execute();
+    pipeline.waitUntilFinished();
+    if (pipeline.getErrors() > 0) {
+      throw new HopException("The benchmark pipeline finished with errors");
+    }
+    return pipeline.getTransform("dummy", 0).getLinesWritten();
+  }
+}
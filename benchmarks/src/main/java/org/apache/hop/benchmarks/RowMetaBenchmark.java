@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.benchmarks;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/** Measures the row metadata operations executed for about every row in a pipeline. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMetaBenchmark {
+
+  @Param({"10", "100"})
+  public int nrFields;
+
+  private IRowMeta rowMeta;
+  private Object[] row;
+  private Object[] otherRow;
+  private int[] keyFields;
+  private String lastFieldName;
+  private byte[] serializedRow;
+  private ByteArrayOutputStream byteArrayOutputStream;
+
+  @Setup
+  public void setUp() throws HopException {
+    rowMeta = new RowMeta();
+    row = new Object[nrFields];
+    otherRow = new Object[nrFields];
+    for (int i = 0; i < nrFields; i++) {
+      String name = "field" + i;
+      switch (i % 4) {
+        case 0:
+          rowMeta.addValueMeta(new ValueMetaString(name));
+          row[i] = "value " + i;
+          otherRow[i] = "value " + i;
+          break;
+        case 1:
+          rowMeta.addValueMeta(new ValueMetaInteger(name));
+          row[i] = (long) i;
+          otherRow[i] = (long) i;
+          break;
+        case 2:
+          rowMeta.addValueMeta(new ValueMetaNumber(name));
+          row[i] = i * 1.5;
+          otherRow[i] = i * 1.5;
+          break;
+        default:
+          rowMeta.addValueMeta(new ValueMetaDate(name));
+          row[i] = new Date(1_600_000_000_000L + i);
+          otherRow[i] = new Date(1_600_000_000_000L + i + 1);
+          break;
+      }
+    }
+    lastFieldName = "field" + (nrFields - 1);
+    keyFields = new int[] {0, 1, 2, 3};
+
+    byteArrayOutputStream = new ByteArrayOutputStream();
+    rowMeta.writeData(new DataOutputStream(byteArrayOutputStream), row);
+    serializedRow = byteArrayOutputStream.toByteArray();
+  }
+
+  @Benchmark
+  public int indexOfValue() {
+    return rowMeta.indexOfValue(lastFieldName);
+  }
+
+  @Benchmark
+  public Object[] cloneRow() throws HopException {
+    return rowMeta.cloneRow(row);
+  }
+
+  @Benchmark
+  public int writeData() throws HopException {
+    byteArrayOutputStream.reset();
+    rowMeta.writeData(new DataOutputStream(byteArrayOutputStream), row);
+    return byteArrayOutputStream.size();
+  }
+
+  @Benchmark
+  public Object[] readData() throws Exception {
+    return rowMeta.readData(new DataInputStream(new ByteArrayInputStream(serializedRow)));
+  }
+
+  @Benchmark
+  public int compareKeys() throws HopException {
+    return rowMeta.compare(row, otherRow, keyFields);
+  }
+
+  @Benchmark
+  public int compareAll() throws HopException {
+    return rowMeta.compare(row, otherRow);
+  }
+
+  @Benchmark
+  public int hashCodeRow() throws HopException {
+    return rowMeta.hashCode(row);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.benchmarks;
+
+import org.apache.hop.core.BlockingBatchingRowSet;
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.RingBufferRowSet;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the row sets, the buffers between transforms. The producer/consumer
+ * benchmark runs a writing and a reading thread like two transforms do. QueueRowSet is only used
+ * in single threaded pipelines so it's only part of the single threaded benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowSetBenchmark {
+
+  private static final int ROW_SET_SIZE = 10000;
+  private static final int BATCH_SIZE = 100;
+
+  private static IRowSet createRowSet(String type) {
+    switch (type) {
+      case "Queue":
+        return new QueueRowSet();
+      case "Batching":
+        return new BlockingBatchingRowSet(ROW_SET_SIZE);
+      case "RingBuffer":
+        return new RingBufferRowSet(ROW_SET_SIZE);
+      default:
+        return new BlockingRowSet(ROW_SET_SIZE);
+    }
+  }
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    return rowMeta;
+  }
+
+  @State(Scope.Group)
+  public static class ConcurrentState {
+    @Param({"Blocking", "Batching", "RingBuffer"})
+    public String type;
+
+    public IRowSet rowSet;
+    public IRowMeta rowMeta;
+    public Object[] row;
+
+    @Setup
+    public void setUp() {
+      rowSet = createRowSet(type);
+      rowMeta = createRowMeta();
+      row = new Object[] {1L};
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class SingleThreadState {
+    @Param({"Queue", "Blocking", "RingBuffer"})
+    public String type;
+
+    public IRowSet rowSet;
+    public IRowMeta rowMeta;
+    public Object[] row;
+
+    @Setup
+    public void setUp() {
+      rowSet = createRowSet(type);
+      rowMeta = createRowMeta();
+      row = new Object[] {1L};
+    }
+  }
+
+  @Benchmark
+  @Group("producerConsumer")
+  @GroupThreads(1)
+  public boolean put(ConcurrentState state) {
+    return state.rowSet.putRowWait(state.rowMeta, state.row, 100, TimeUnit.MILLISECONDS);
+  }
+
+  @Benchmark
+  @Group("producerConsumer")
+  @GroupThreads(1)
+  public Object[] get(ConcurrentState state) {
+    return state.rowSet.getRowWait(100, TimeUnit.MILLISECONDS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public Object[] putThenGet(SingleThreadState state) {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      state.rowSet.putRow(state.rowMeta, state.row);
+    }
+    Object[] row = null;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      row = state.rowSet.getRowImmediate();
+    }
+    return row;
+  }
+}
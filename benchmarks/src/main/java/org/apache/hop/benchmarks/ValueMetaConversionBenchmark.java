@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.benchmarks;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions between strings and numbers or dates which happen while reading and
+ * writing text files or when a transform converts data types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValueMetaConversionBenchmark {
+
+  private IValueMeta integerMeta;
+  private IValueMeta numberMeta;
+  private IValueMeta dateMeta;
+  private IValueMeta integerStringMeta;
+  private IValueMeta numberStringMeta;
+  private IValueMeta dateStringMeta;
+
+  private Long integerValue;
+  private Double numberValue;
+  private Date dateValue;
+
+  @Setup
+  public void setUp() {
+    integerMeta = new ValueMetaInteger("integer");
+    integerMeta.setConversionMask("#");
+    numberMeta = new ValueMetaNumber("number");
+    numberMeta.setConversionMask("#.##");
+    dateMeta = new ValueMetaDate("date");
+    dateMeta.setConversionMask("yyyy/MM/dd HH:mm:ss");
+
+    integerStringMeta = new ValueMetaString("integerString");
+    integerStringMeta.setConversionMask("#");
+    numberStringMeta = new ValueMetaString("numberString");
+    numberStringMeta.setConversionMask("#.##");
+    dateStringMeta = new ValueMetaString("dateString");
+    dateStringMeta.setConversionMask("yyyy/MM/dd HH:mm:ss");
+
+    integerValue = 1234567L;
+    numberValue = 12345.67;
+    dateValue = new Date(1_600_000_000_000L);
+  }
+
+  @Benchmark
+  public String integerToString() throws HopValueException {
+    return integerMeta.getString(integerValue);
+  }
+
+  @Benchmark
+  public Long stringToInteger() throws HopValueException {
+    return integerStringMeta.getInteger("1234567");
+  }
+
+  @Benchmark
+  public String numberToString() throws HopValueException {
+    return numberMeta.getString(numberValue);
+  }
+
+  @Benchmark
+  public Double stringToNumber() throws HopValueException {
+    return numberStringMeta.getNumber("12345.67");
+  }
+
+  @Benchmark
+  public String dateToString() throws HopValueException {
+    return dateMeta.getString(dateValue);
+  }
+
+  @Benchmark
+  public Date stringToDate() throws HopValueException {
+    return dateStringMeta.getDate("2020/09/13 12:26:40");
+  }
+
+  @Benchmark
+  public Object convertStringToNumber() throws HopValueException {
+    return numberMeta.convertData(numberStringMeta, "12345.67");
+  }
+}
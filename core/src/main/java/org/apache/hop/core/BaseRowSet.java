@@ -39,6 +39,9 @@ abstract class BaseRowSet implements Comparable<IRowSet>, IRowSet {
   protected volatile String remoteHopServerName;
   private ReadWriteLock lock;
 
+  /** Wakes up the reading transform, if any */
+  private volatile DataAvailableNotifier dataAvailableNotifier;
+
   public BaseRowSet() {
     // not done putting data into this IRowSet
     done = new AtomicBoolean(false);
@@ -133,6 +136,20 @@ abstract class BaseRowSet implements Comparable<IRowSet>, IRowSet {
   @Override
   public void setDone() {
     done.set(true);
+    signalDataAvailable();
+  }
+
+  @Override
+  public void setDataAvailableNotifier(DataAvailableNotifier notifier) {
+    this.dataAvailableNotifier = notifier;
+  }
+
+  /** Let the reading transform know that there are new rows or that this row set is done. */
+  protected void signalDataAvailable() {
+    DataAvailableNotifier notifier = dataAvailableNotifier;
+    if (notifier != null) {
+      notifier.signal();
+    }
   }
 
   /*
@@ -102,6 +102,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<IRo
       } catch (InterruptedException e) {
         return false;
       }
+      signalDataAvailable();
     }
 
     return true;
@@ -154,6 +155,37 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<IRo
     return row;
   }
 
+  /**
+   * Only takes rows from batches which are ready to be delivered, never waits for a new batch.
+   *
+   * @see org.apache.hop.core.IRowSet#drainTo(java.lang.Object[][], int, int)
+   */
+  @Override
+  public int drainTo(Object[][] rows, int offset, int maxRows) {
+    int nrRows = 0;
+    while (nrRows < maxRows) {
+      if (outputBuffer == null) {
+        outputBuffer = getArray.poll();
+        if (outputBuffer == null) {
+          break;
+        }
+        getIndex = 0;
+      }
+
+      Object[] row = outputBuffer[getIndex];
+      outputBuffer[getIndex++] = null; // prevent any hold-up to GC
+      if (getIndex == size) {
+        putArray.offer(outputBuffer);
+        outputBuffer = null;
+      }
+      if (row == null) {
+        break; // end of the last buffer
+      }
+      rows[offset + nrRows++] = row;
+    }
+    return nrRows;
+  }
+
   @Override
   public int size() {
     // does BlockingQueue.size() grab a lock? If so, frequent call to this method
@@ -172,6 +204,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<IRo
       getArray.offer(inputBuffer);
     }
     putArray.clear();
+    signalDataAvailable();
   }
 
   @Override
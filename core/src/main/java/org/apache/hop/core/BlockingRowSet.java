@@ -19,6 +19,8 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +35,9 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
   private int timeoutPut;
   private int timeoutGet;
 
+  /** Used by the reading thread to take rows out of the queue in one go */
+  private List<Object[]> drainBuffer;
+
   /**
    * Create new non-blocking-queue with maxSize capacity.
    *
@@ -71,7 +76,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     this.rowMeta = rowMeta;
     try {
 
-      return queArray.offer(rowData, time, tu);
+      if (queArray.offer(rowData, time, tu)) {
+        signalDataAvailable();
+        return true;
+      }
+      return false;
     } catch (InterruptedException | NullPointerException e) {
       return false;
     }
@@ -115,6 +124,24 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     }
   }
 
+  /**
+   * Takes all available rows out of the queue while holding its lock only once.
+   *
+   * @see org.apache.hop.core.IRowSet#drainTo(java.lang.Object[][], int, int)
+   */
+  @Override
+  public int drainTo(Object[][] rows, int offset, int maxRows) {
+    if (drainBuffer == null) {
+      drainBuffer = new ArrayList<>();
+    }
+    int nrRows = queArray.drainTo(drainBuffer, maxRows);
+    for (int i = 0; i < nrRows; i++) {
+      rows[offset + i] = drainBuffer.get(i);
+    }
+    drainBuffer.clear();
+    return nrRows;
+  }
+
   @Override
   public int size() {
     return queArray.size();
@@ -19,9 +19,14 @@ package org.apache.hop.core;
 
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.row.ColumnVector;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.ValueMetaAndData;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.xml.XmlHandler;
 import org.w3c.dom.Node;
@@ -534,6 +539,160 @@ public class Condition implements Cloneable {
     return retval;
   }
 
+  /**
+   * Evaluate the condition for all the rows of a batch. Comparisons of an Integer, Number or Date
+   * field with a constant value of the same type and null checks on these fields are evaluated
+   * directly on the column vectors. Everything else is evaluated row by row.
+   *
+   * @param batch the rows to evaluate the condition for
+   * @param results receives the outcome for every row of the batch
+   */
+  public void evaluate(RowBatch batch, boolean[] results) {
+    int size = batch.size();
+    try {
+      if (isAtomic()) {
+        if (function == FUNC_TRUE) {
+          Arrays.fill(results, 0, size, !negate);
+          return;
+        }
+        if (!evaluateVector(batch, results)) {
+          IRowMeta rowMeta = batch.getRowMeta();
+          for (int r = 0; r < size; r++) {
+            results[r] = evaluate(rowMeta, batch.getRow(r));
+          }
+        }
+      } else {
+        list.get(0).evaluate(batch, results);
+        boolean[] other = new boolean[size];
+        for (int i = 1; i < list.size(); i++) {
+          Condition cb = list.get(i);
+          cb.evaluate(batch, other);
+          for (int r = 0; r < size; r++) {
+            switch (cb.getOperator()) {
+              case Condition.OPERATOR_OR:
+                results[r] = results[r] || other[r];
+                break;
+              case Condition.OPERATOR_AND:
+                results[r] = results[r] && other[r];
+                break;
+              case Condition.OPERATOR_OR_NOT:
+                results[r] = results[r] || !other[r];
+                break;
+              case Condition.OPERATOR_AND_NOT:
+                results[r] = results[r] && !other[r];
+                break;
+              case Condition.OPERATOR_XOR:
+                results[r] = results[r] ^ other[r];
+                break;
+              default:
+                break;
+            }
+          }
+        }
+        if (isNegated()) {
+          for (int r = 0; r < size; r++) {
+            results[r] = !results[r];
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Unexpected error evaluation condition [" + toString() + "]", e);
+    }
+  }
+
+  /**
+   * Evaluate an atomic condition on the column vectors of a batch, if possible.
+   *
+   * @return false if the condition can't be evaluated on the vectors
+   */
+  private boolean evaluateVector(RowBatch batch, boolean[] results) throws HopValueException {
+    if (Utils.isEmpty(leftValuename)) {
+      return false;
+    }
+    IRowMeta rowMeta = batch.getRowMeta();
+    int fieldnr = rowMeta.indexOfValue(leftValuename);
+    if (fieldnr < 0) {
+      return false;
+    }
+    IValueMeta fieldMeta = rowMeta.getValueMeta(fieldnr);
+    Class<?> metaClass = fieldMeta.getClass();
+    if ((metaClass != ValueMetaInteger.class
+            && metaClass != ValueMetaNumber.class
+            && metaClass != ValueMetaDate.class)
+        || fieldMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL
+        || fieldMeta.isSortedDescending()) {
+      return false;
+    }
+    ColumnVector column = batch.getColumn(fieldnr);
+    int size = batch.size();
+
+    if (function == FUNC_NULL || function == FUNC_NOT_NULL) {
+      boolean wanted = function == FUNC_NULL;
+      for (int r = 0; r < size; r++) {
+        results[r] = column.isNull(r) == wanted ^ negate;
+      }
+      return true;
+    }
+    if (function < FUNC_EQUAL || function > FUNC_LARGER_EQUAL) {
+      return false;
+    }
+
+    // Only compare with a constant value of the same type
+    //
+    if (rightExact == null
+        || rightExact.getValueData() == null
+        || rightExact.getValueMeta() == null
+        || rightExact.getValueMeta().getType() != fieldMeta.getType()
+        || rightExact.getValueMeta().getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return false;
+    }
+    Object constant = rightExact.getValueData();
+
+    // Same outcome as ValueMetaBase.compare(): null is smaller than any value
+    //
+    boolean nullResult = function == FUNC_NOT_EQUAL;
+    if (column.getKind() == ColumnVector.Kind.DOUBLE) {
+      double value = fieldMeta.getNumber(constant);
+      double[] doubles = column.getDoubles();
+      for (int r = 0; r < size; r++) {
+        boolean result =
+            column.isNull(r) ? nullResult : compareResult(Double.compare(doubles[r], value));
+        results[r] = result ^ negate;
+      }
+    } else {
+      long value =
+          fieldMeta.getType() == IValueMeta.TYPE_DATE
+              ? fieldMeta.getDate(constant).getTime()
+              : fieldMeta.getInteger(constant);
+      long[] longs = column.getLongs();
+      for (int r = 0; r < size; r++) {
+        boolean result =
+            column.isNull(r) ? nullResult : compareResult(Long.compare(longs[r], value));
+        results[r] = result ^ negate;
+      }
+    }
+    return true;
+  }
+
+  private boolean compareResult(int cmp) {
+    switch (function) {
+      case FUNC_EQUAL:
+        return cmp == 0;
+      case FUNC_NOT_EQUAL:
+        return cmp != 0;
+      case FUNC_SMALLER:
+        return cmp < 0;
+      case FUNC_SMALLER_EQUAL:
+        return cmp <= 0;
+      case FUNC_LARGER:
+        return cmp > 0;
+      default:
+        return cmp >= 0;
+    }
+  }
+
   public void addCondition(Condition cb) {
     if (isAtomic() && getLeftValuename() != null) {
       /*
@@ -600,6 +600,16 @@ public class Const {
           "Set this variable to 'Y' if you want to test a more efficient batching row set.")
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * The memory all transforms which spill rows to disk (sort, join, group by) can use together in
+   * this JVM. Either a percentage of the maximum heap size (e.g. 50%) or a size in MB.
+   */
+  @Variable(
+      value = "50%",
+      description =
+          "The memory all transforms which spill rows to disk can use together: a percentage of the maximum heap size (e.g. 50%) or a size in MB")
+  public static final String HOP_SPILL_MEMORY_LIMIT = "HOP_SPILL_MEMORY_LIMIT";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at
    * one time.
@@ -859,8 +869,8 @@ public class Const {
   public static final String CONNECTION_GROUP = "CONNECTION_GROUP";
 
   /**
-   * This is the default wait time used for DynamicWaitTimes can be overwritten by a runtime
-   * configuration
+   * This is the default maximum time transforms wait for input rows before checking for a stop. It
+   * can be overwritten by a runtime configuration
    */
   @Variable(
       scope = VariableScope.ENGINE,
@@ -869,6 +879,17 @@ public class Const {
   public static final String HOP_DEFAULT_BUFFER_POLLING_WAITTIME =
       "HOP_DEFAULT_BUFFER_POLLING_WAITTIME";
 
+  /**
+   * The maximum number of carrier (platform) threads used to run transforms and actions on virtual
+   * threads. It's only used if the JVM options don't already size the virtual thread scheduler.
+   */
+  @Variable(
+      scope = VariableScope.ENGINE,
+      value = "",
+      description =
+          "The maximum number of carrier threads to run virtual transform and action threads on. Leave empty to use the number of processors.")
+  public static final String HOP_VIRTUAL_THREAD_CARRIERS = "HOP_VIRTUAL_THREAD_CARRIERS";
+
   /**
    * rounds double f to any number of places after decimal point Does arithmetic using BigDecimal
    * class to avoid integer overflow while rounding
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wakes up a reading transform when any of its input row sets receives rows or is flagged as done.
+ * That way a transform with many input row sets can wait for all of them at once instead of
+ * polling them one after the other.
+ *
+ * <p>Every signal increments a sequence number. The reader remembers the sequence before it looks
+ * at its row sets and then waits for the sequence to change. A signal which arrives in between is
+ * therefore never lost. There is exactly one waiting thread: the transform reading the rows.
+ */
+public class DataAvailableNotifier {
+
+  private final AtomicLong sequence;
+
+  private volatile Thread waiter;
+
+  public DataAvailableNotifier() {
+    sequence = new AtomicLong(0L);
+  }
+
+  /** Signal that rows were added to a row set or that a row set is done. */
+  public void signal() {
+    sequence.incrementAndGet();
+    Thread thread = waiter;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /** @return the current sequence, to be passed to {@link #await(long, long, TimeUnit)} */
+  public long getSequence() {
+    return sequence.get();
+  }
+
+  /**
+   * Wait until a signal arrives after the given sequence was read or until the time is up.
+   *
+   * @param seenSequence the sequence read before the row sets were found to be empty
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return true if a signal arrived, false if the time ran out or the thread was interrupted
+   */
+  public boolean await(long seenSequence, long timeout, TimeUnit unit) {
+    if (sequence.get() != seenSequence) {
+      return true;
+    }
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    waiter = Thread.currentThread();
+    try {
+      while (sequence.get() == seenSequence) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+        LockSupport.parkNanos(this, remaining);
+      }
+      return true;
+    } finally {
+      waiter = null;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.util.Utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Describes the kind of threads used to run transform copies and parallel workflow actions.
+ *
+ * <p>Virtual threads are only available on Java 21 or higher. They are created through reflection
+ * so that Hop keeps running on older Java versions, where {@link #Virtual} falls back to regular
+ * platform threads. All row set waits park the waiting thread through {@link
+ * java.util.concurrent.locks.LockSupport} (directly or through the java.util.concurrent locks),
+ * which releases the carrier thread of a virtual thread.
+ */
+public enum ExecutionThreadType {
+  /** One operating system thread per transform copy or parallel action. */
+  Platform,
+
+  /**
+   * One virtual thread per transform copy or parallel action, running on a bounded pool of carrier
+   * threads. See {@link Const#HOP_VIRTUAL_THREAD_CARRIERS}.
+   */
+  Virtual;
+
+  private static final String SCHEDULER_PARALLELISM = "jdk.virtualThreadScheduler.parallelism";
+  private static final String SCHEDULER_MAX_POOL_SIZE = "jdk.virtualThreadScheduler.maxPoolSize";
+
+  /**
+   * Create a new, unstarted thread of this type.
+   *
+   * @param runnable the code to run in the thread
+   * @return the new thread
+   */
+  public Thread newThread(Runnable runnable) {
+    if (this == Virtual && VirtualThreads.UNSTARTED != null) {
+      try {
+        return (Thread) VirtualThreads.UNSTARTED.invoke(VirtualThreads.ofVirtual(), runnable);
+      } catch (Throwable e) {
+        throw new RuntimeException("Unable to create a virtual thread", e);
+      }
+    }
+    return new Thread(runnable);
+  }
+
+  /** @return true if the Java runtime supports virtual threads */
+  public static boolean isVirtualThreadSupported() {
+    return VirtualThreads.UNSTARTED != null;
+  }
+
+  /**
+   * Find the thread type with the given name.
+   *
+   * @param name the name of the thread type (case insensitive)
+   * @param defaultType the type to return in case nothing matches
+   * @return the thread type
+   */
+  public static ExecutionThreadType getTypeForName(String name, ExecutionThreadType defaultType) {
+    for (ExecutionThreadType type : values()) {
+      if (type.name().equalsIgnoreCase(name)) {
+        return type;
+      }
+    }
+    return defaultType;
+  }
+
+  /**
+   * Looks up the virtual thread builder methods the first time a virtual thread is needed. The size
+   * of the carrier thread pool is read by the JVM when the first virtual thread starts so we set it
+   * right before that.
+   */
+  private static final class VirtualThreads {
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle UNSTARTED;
+
+    static {
+      MethodHandle ofVirtual = null;
+      MethodHandle unstarted = null;
+      try {
+        Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        ofVirtual =
+            lookup.findStatic(
+                Thread.class,
+                "ofVirtual",
+                MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+        unstarted =
+            lookup
+                .findVirtual(
+                    builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class))
+                .asType(MethodType.methodType(Thread.class, Object.class, Runnable.class));
+        ofVirtual = ofVirtual.asType(MethodType.methodType(Object.class));
+        configureCarrierThreads();
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // Virtual threads are not supported by this Java runtime
+        ofVirtual = null;
+        unstarted = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      UNSTARTED = unstarted;
+    }
+
+    private static Object ofVirtual() throws Throwable {
+      return OF_VIRTUAL.invoke();
+    }
+
+    private static void configureCarrierThreads() {
+      String carriers = System.getProperty(Const.HOP_VIRTUAL_THREAD_CARRIERS);
+      if (Utils.isEmpty(carriers)) {
+        return;
+      }
+      int nrCarriers = Const.toInt(carriers.trim(), -1);
+      if (nrCarriers <= 0) {
+        return;
+      }
+      if (System.getProperty(SCHEDULER_PARALLELISM) == null) {
+        System.setProperty(SCHEDULER_PARALLELISM, Integer.toString(nrCarriers));
+      }
+      if (System.getProperty(SCHEDULER_MAX_POOL_SIZE) == null) {
+        System.setProperty(SCHEDULER_MAX_POOL_SIZE, Integer.toString(nrCarriers));
+      }
+    }
+
+    private VirtualThreads() {}
+  }
+}
@@ -67,6 +67,84 @@ public interface IRowSet {
    */
   Object[] getRowWait(long timeout, TimeUnit tu);
 
+  /**
+   * Offer a number of rows to this rowset in one go. Rows are added in order, starting with the
+   * first one. If the buffer is full, wait (block) for a small period of time for every row, just
+   * like {@link #putRow(IRowMeta, Object[])}.
+   *
+   * @param rowMeta The description of the row data
+   * @param rows the rows of data
+   * @param nrRows the number of rows from the start of the array to add
+   * @return the number of rows that were added. This is less than nrRows if the buffer stayed
+   *     full.
+   */
+  default int putRows(IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    return putRows(rowMeta, rows, 0, nrRows);
+  }
+
+  /**
+   * Offer a number of rows to this rowset in one go. Rows are added in order, starting with the
+   * row at the given offset.
+   *
+   * @param rowMeta The description of the row data
+   * @param rows the rows of data
+   * @param offset the index of the first row to add
+   * @param nrRows the number of rows to add
+   * @return the number of rows that were added. This is less than nrRows if the buffer stayed
+   *     full.
+   */
+  default int putRows(IRowMeta rowMeta, Object[][] rows, int offset, int nrRows) {
+    for (int i = 0; i < nrRows; i++) {
+      if (!putRow(rowMeta, rows[offset + i])) {
+        return i;
+      }
+    }
+    return nrRows;
+  }
+
+  /**
+   * Move all the rows that are available right now into the given array, up to its length. This
+   * method doesn't wait for new rows to arrive.
+   *
+   * @param rows the array to fill, starting at index 0
+   * @return the number of rows moved into the array
+   */
+  default int drainTo(Object[][] rows) {
+    return drainTo(rows, 0, rows.length);
+  }
+
+  /**
+   * Move the rows that are available right now into the given array. This method doesn't wait for
+   * new rows to arrive.
+   *
+   * @param rows the array to fill
+   * @param offset the index of the first row to fill in
+   * @param maxRows the maximum number of rows to move
+   * @return the number of rows moved into the array
+   */
+  default int drainTo(Object[][] rows, int offset, int maxRows) {
+    int nrRows = 0;
+    while (nrRows < maxRows) {
+      Object[] row = getRowImmediate();
+      if (row == null) {
+        break;
+      }
+      rows[offset + nrRows++] = row;
+    }
+    return nrRows;
+  }
+
+  /**
+   * Set the notifier to signal whenever rows are added to this row set or when it is flagged as
+   * done. Only the transform reading from this row set should do this. Row sets which don't
+   * support it simply ignore the notifier, the reader then notices new rows after a time-out.
+   *
+   * @param notifier the notifier of the reading transform or null to stop signaling
+   */
+  default void setDataAvailableNotifier(DataAvailableNotifier notifier) {
+    // Not supported by default
+  }
+
   /** @return Set indication that there is no more input */
   void setDone();
 
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A lock-free row buffer for exactly one writing thread and one reading thread. This is the
+ * situation for most hops between 2 single copy transforms. Rows are stored in a ring buffer with
+ * a power of 2 capacity. The read and write positions are kept on separate cache lines so that
+ * the producer and consumer don't invalidate each other's caches on every row.
+ *
+ * <p>Putting and getting rows never takes a lock. When the buffer is full (writer) or empty
+ * (reader) the thread waits according to the configured {@link RowSetWaitStrategy}.
+ *
+ * <p>Please note that using this row set with more than one writing or more than one reading
+ * thread will lose or duplicate rows.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  private final Object[][] buffer;
+  private final int capacity;
+  private final int mask;
+
+  /** The position of the next row to read, only written by the reader thread. */
+  private final Sequence head;
+
+  /** The position of the next row to write, only written by the writer thread. */
+  private final Sequence tail;
+
+  /** The last seen value of head, only used by the writer thread. */
+  private long cachedHead;
+
+  /** The last seen value of tail, only used by the reader thread. */
+  private long cachedTail;
+
+  private final RowSetWaitStrategy waitStrategy;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set with the default {@link RowSetWaitStrategy#Park} strategy.
+   *
+   * @param maxSize the minimum capacity, rounded up to the next power of 2
+   */
+  public RingBufferRowSet(int maxSize) {
+    this(maxSize, RowSetWaitStrategy.Park);
+  }
+
+  /**
+   * Create a new ring buffer row set.
+   *
+   * @param maxSize the minimum capacity, rounded up to the next power of 2
+   * @param waitStrategy The way to wait for free space or for new rows
+   */
+  public RingBufferRowSet(int maxSize, RowSetWaitStrategy waitStrategy) {
+    super();
+
+    capacity = nextPowerOfTwo(Math.max(2, maxSize));
+    mask = capacity - 1;
+    buffer = new Object[capacity][];
+
+    head = new Sequence();
+    tail = new Sequence();
+
+    this.waitStrategy = waitStrategy == null ? RowSetWaitStrategy.Park : waitStrategy;
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  private static int nextPowerOfTwo(int value) {
+    int highest = Integer.highestOneBit(value);
+    if (highest == value) {
+      return value;
+    }
+    if (highest >= 1 << 30) {
+      return 1 << 30;
+    }
+    return highest << 1;
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    if (rowData == null) {
+      // Same behavior as the blocking row set
+      return false;
+    }
+    this.rowMeta = rowMeta;
+
+    long position = tail.getPlain();
+    if (!waitForFreeSlot(position, time, tu)) {
+      return false;
+    }
+
+    buffer[(int) position & mask] = rowData;
+    tail.setRelease(position + 1);
+    signalDataAvailable();
+    return true;
+  }
+
+  /**
+   * Adds as many rows as there is room for before publishing them to the reader all at once.
+   *
+   * @see org.apache.hop.core.IRowSet#putRows(org.apache.hop.core.row.IRowMeta, java.lang.Object[][],
+   *     int, int)
+   */
+  @Override
+  public int putRows(IRowMeta rowMeta, Object[][] rows, int offset, int nrRows) {
+    this.rowMeta = rowMeta;
+
+    long position = tail.getPlain();
+    int added = 0;
+    while (added < nrRows) {
+      if (!waitForFreeSlot(position, timeoutPut, TimeUnit.MILLISECONDS)) {
+        break;
+      }
+      long limit = Math.min(cachedHead + capacity, position + nrRows - added);
+      while (position < limit) {
+        Object[] rowData = rows[offset + added];
+        if (rowData == null) {
+          // Same behavior as putRow(): a null row is refused
+          //
+          tail.setRelease(position);
+          signalDataAvailable();
+          return added;
+        }
+        buffer[(int) position & mask] = rowData;
+        position++;
+        added++;
+      }
+      tail.setRelease(position);
+      signalDataAvailable();
+    }
+    return added;
+  }
+
+  /**
+   * Wait until the reader has freed up the slot at the given position.
+   *
+   * @return false if the slot was still taken after the given amount of time
+   */
+  private boolean waitForFreeSlot(long position, long time, TimeUnit tu) {
+    long wrapPoint = position - capacity;
+    if (cachedHead <= wrapPoint) {
+      cachedHead = head.getAcquire();
+      if (cachedHead <= wrapPoint) {
+        long deadline = System.nanoTime() + tu.toNanos(time);
+        int counter = 0;
+        while ((cachedHead = head.getAcquire()) <= wrapPoint) {
+          if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+            return false;
+          }
+          counter = waitStrategy.idle(counter);
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long position = head.getPlain();
+    if (position >= cachedTail) {
+      cachedTail = tail.getAcquire();
+      if (position >= cachedTail) {
+        return null;
+      }
+    }
+    return take(position);
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    long position = head.getPlain();
+    if (position >= cachedTail) {
+      cachedTail = tail.getAcquire();
+      if (position >= cachedTail) {
+        long deadline = System.nanoTime() + tu.toNanos(timeout);
+        int counter = 0;
+        while ((cachedTail = tail.getAcquire()) <= position) {
+          if (isDone()) {
+            // The writer can have added a last row before flagging done.
+            //
+            cachedTail = tail.getAcquire();
+            if (cachedTail <= position) {
+              return null;
+            }
+            break;
+          }
+          if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+            return null;
+          }
+          counter = waitStrategy.idle(counter);
+        }
+      }
+    }
+    return take(position);
+  }
+
+  /**
+   * Takes all rows which are available right now and frees up their slots for the writer at once.
+   *
+   * @see org.apache.hop.core.IRowSet#drainTo(java.lang.Object[][], int, int)
+   */
+  @Override
+  public int drainTo(Object[][] rows, int offset, int maxRows) {
+    long position = head.getPlain();
+    if (position + maxRows > cachedTail) {
+      cachedTail = tail.getAcquire();
+    }
+    int nrRows = (int) Math.min(maxRows, cachedTail - position);
+    if (nrRows <= 0) {
+      return 0;
+    }
+    for (int i = 0; i < nrRows; i++) {
+      int index = (int) (position + i) & mask;
+      rows[offset + i] = buffer[index];
+      buffer[index] = null; // prevent any hold-up to GC
+    }
+    head.setRelease(position + nrRows);
+    return nrRows;
+  }
+
+  private Object[] take(long position) {
+    int index = (int) position & mask;
+    Object[] row = buffer[index];
+    buffer[index] = null; // prevent any hold-up to GC
+    head.setRelease(position + 1);
+    return row;
+  }
+
+  @Override
+  public int size() {
+    long size = tail.getAcquire() - head.getAcquire();
+    return (int) Math.max(0, Math.min(size, capacity));
+  }
+
+  /**
+   * Clear this rowset: remove all rows and remove the "done" flag. This is not safe to do while
+   * another thread is reading or writing.
+   */
+  @Override
+  public void clear() {
+    Arrays.fill(buffer, null);
+    long position = tail.getAcquire();
+    head.setRelease(position);
+    cachedHead = position;
+    cachedTail = position;
+    done.set(false);
+  }
+
+  /** @return the effective capacity of this row set, a power of 2. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** @return the wait strategy used when the buffer is full or empty */
+  public RowSetWaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  // The classes below pad a single volatile long with 7 longs on either side so that it lives on
+  // a cache line of its own. The class hierarchy prevents the JVM from re-ordering the fields.
+  //
+  @SuppressWarnings("unused")
+  private static class LeftPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+  }
+
+  private static class SequenceValue extends LeftPadding {
+    protected volatile long value;
+  }
+
+  @SuppressWarnings("unused")
+  private static class RightPadding extends SequenceValue {
+    protected long p09, p10, p11, p12, p13, p14, p15;
+  }
+
+  private static final class Sequence extends RightPadding {
+    private static final VarHandle VALUE;
+
+    static {
+      try {
+        VALUE =
+            MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    long getPlain() {
+      return (long) VALUE.get(this);
+    }
+
+    long getAcquire() {
+      return (long) VALUE.getAcquire(this);
+    }
+
+    void setRelease(long newValue) {
+      VALUE.setRelease(this, newValue);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+/** The type of row set to allocate between the transforms of a multi-threaded pipeline. */
+public enum RowSetType {
+  /**
+   * Use a lock-free ring buffer for hops with a single writer and a single reader copy and a
+   * blocking row set everywhere else.
+   */
+  Automatic,
+
+  /** Always use a {@link BlockingRowSet} */
+  Blocking,
+
+  /** Always use a {@link BlockingBatchingRowSet} */
+  Batching,
+
+  /**
+   * Use a {@link RingBufferRowSet} wherever there is exactly one producing and one consuming
+   * transform copy.
+   */
+  RingBuffer;
+
+  /**
+   * Find the row set type with the given name.
+   *
+   * @param name the name of the row set type (case insensitive)
+   * @param defaultType the type to return in case nothing matches
+   * @return the row set type
+   */
+  public static RowSetType getTypeForName(String name, RowSetType defaultType) {
+    for (RowSetType type : values()) {
+      if (type.name().equalsIgnoreCase(name)) {
+        return type;
+      }
+    }
+    return defaultType;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Describes how a lock-free row set waits for a free slot (writer) or for a new row (reader).
+ * The strategies trade CPU usage for latency: spinning reacts fastest but keeps a core busy,
+ * parking is the most friendly when there are many more transform threads than cores.
+ */
+public enum RowSetWaitStrategy {
+  /** Busy spin with a CPU hint. Lowest latency, burns a core while waiting. */
+  Spin,
+
+  /** Spin for a short while, then yield the processor to other threads. */
+  Yield,
+
+  /** Spin, yield and then park the thread for a short period of time. */
+  Park;
+
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 200;
+  private static final long PARK_NANOS = 50_000L;
+
+  /**
+   * Wait a little while. Call this in a loop, passing back the returned counter value.
+   *
+   * @param counter the number of times we already waited in the current loop
+   * @return the counter to pass on the next call
+   */
+  public int idle(int counter) {
+    switch (this) {
+      case Spin:
+        Thread.onSpinWait();
+        break;
+      case Yield:
+        if (counter < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+        break;
+      default:
+        if (counter < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else if (counter < YIELD_TRIES) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(PARK_NANOS);
+        }
+        break;
+    }
+    return counter + 1;
+  }
+
+  /**
+   * Find the wait strategy with the given name.
+   *
+   * @param name the name of the strategy (case insensitive)
+   * @param defaultStrategy the strategy to return in case nothing matches
+   * @return the strategy
+   */
+  public static RowSetWaitStrategy getStrategyForName(
+      String name, RowSetWaitStrategy defaultStrategy) {
+    for (RowSetWaitStrategy strategy : values()) {
+      if (strategy.name().equalsIgnoreCase(name)) {
+        return strategy;
+      }
+    }
+    return defaultStrategy;
+  }
+}
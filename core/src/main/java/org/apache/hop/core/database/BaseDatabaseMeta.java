@@ -87,6 +87,99 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
    */
   public static final String ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE = "PRESERVE_RESERVED_WORD_CASE";
 
+  /** A flag to determine if the connections are taken from a connection pool */
+  public static final String ATTRIBUTE_USE_POOLING = "USE_POOLING";
+
+  /** The number of connections opened when the connection pool is created */
+  public static final String ATTRIBUTE_INITIAL_POOL_SIZE = "INITIAL_POOL_SIZE";
+
+  /** The maximum number of connections of the connection pool in use at the same time */
+  public static final String ATTRIBUTE_MAXIMUM_POOL_SIZE = "MAXIMUM_POOL_SIZE";
+
+  /** The prefix for all the connection pool parameter attributes */
+  public static final String ATTRIBUTE_POOLING_PARAMETER_PREFIX = "POOLING_";
+
+  /** The parameters of the connection pool which can be set on top of its size */
+  public static final DatabaseConnectionPoolParameter[] poolingParameters =
+      new DatabaseConnectionPoolParameter[] {
+        new DatabaseConnectionPoolParameter(
+            "defaultAutoCommit", "true", "The default auto-commit state of connections"),
+        new DatabaseConnectionPoolParameter(
+            "defaultReadOnly", null, "The default read-only state of connections"),
+        new DatabaseConnectionPoolParameter(
+            "defaultTransactionIsolation",
+            null,
+            "The default transaction isolation state of connections: NONE, READ_COMMITTED, "
+                + "READ_UNCOMMITTED, REPEATABLE_READ or SERIALIZABLE"),
+        new DatabaseConnectionPoolParameter(
+            "defaultCatalog", null, "The default catalog of connections"),
+        new DatabaseConnectionPoolParameter(
+            "maxIdle",
+            null,
+            "The maximum number of connections that can remain idle in the pool, "
+                + "the maximum pool size by default"),
+        new DatabaseConnectionPoolParameter(
+            "minIdle",
+            "0",
+            "The minimum number of connections that can remain idle in the pool, "
+                + "without extra ones being created"),
+        new DatabaseConnectionPoolParameter(
+            "maxWait",
+            "30000",
+            "The maximum number of milliseconds the pool waits for a connection to be returned "
+                + "when all connections are in use before throwing an exception, "
+                + "-1 to wait indefinitely"),
+        new DatabaseConnectionPoolParameter(
+            "validationQuery",
+            null,
+            "The SQL query used to validate connections, it must return at least one row"),
+        new DatabaseConnectionPoolParameter(
+            "testOnBorrow",
+            "true",
+            "Validate connections before they are borrowed from the pool, "
+                + "only when a validation query is set"),
+        new DatabaseConnectionPoolParameter(
+            "testOnReturn",
+            "false",
+            "Validate connections before they are returned to the pool, "
+                + "only when a validation query is set"),
+        new DatabaseConnectionPoolParameter(
+            "testWhileIdle",
+            "false",
+            "Validate idle connections in the evictor, only when a validation query is set"),
+        new DatabaseConnectionPoolParameter(
+            "timeBetweenEvictionRunsMillis",
+            "60000",
+            "The number of milliseconds between runs of the evictor of idle connections, "
+                + "0 or less to never evict idle connections"),
+        new DatabaseConnectionPoolParameter(
+            "numTestsPerEvictionRun",
+            "3",
+            "The number of idle connections examined by each run of the evictor"),
+        new DatabaseConnectionPoolParameter(
+            "minEvictableIdleTimeMillis",
+            "300000",
+            "The minimum number of milliseconds a connection is idle before it can be evicted"),
+        new DatabaseConnectionPoolParameter(
+            "poolPreparedStatements", "false", "Pool the prepared statements of connections"),
+        new DatabaseConnectionPoolParameter(
+            "maxOpenPreparedStatements",
+            "-1",
+            "The maximum number of open prepared statements per connection, -1 for no limit"),
+        new DatabaseConnectionPoolParameter(
+            "removeAbandoned",
+            "false",
+            "Remove connections which were borrowed longer ago than the abandoned timeout"),
+        new DatabaseConnectionPoolParameter(
+            "removeAbandonedTimeout",
+            "300",
+            "The number of seconds after which a borrowed connection is abandoned"),
+        new DatabaseConnectionPoolParameter(
+            "logAbandoned",
+            "false",
+            "Log the stack trace of the code which abandoned a connection"),
+      };
+
   public static final String SEQUENCE_FOR_BATCH_ID = "SEQUENCE_FOR_BATCH_ID";
   public static final String AUTOINCREMENT_SQL_FOR_BATCH_ID = "AUTOINCREMENT_SQL_FOR_BATCH_ID";
 
@@ -804,6 +897,86 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     attributes.put(ATTRIBUTE_PRESERVE_RESERVED_WORD_CASE, b ? "Y" : "N");
   }
 
+  /** @return true if connections are taken from a connection pool */
+  @Override
+  public boolean isUsingConnectionPool() {
+    String usePool = getAttributeProperty(ATTRIBUTE_USE_POOLING, "N");
+    return "Y".equalsIgnoreCase(usePool);
+  }
+
+  /** @param usePool true if connections should be taken from a connection pool */
+  @Override
+  public void setUsingConnectionPool(boolean usePool) {
+    attributes.put(ATTRIBUTE_USE_POOLING, usePool ? "Y" : "N");
+  }
+
+  /** @return the number of connections opened when the pool is created */
+  @Override
+  public String getInitialPoolSizeString() {
+    return getAttributeProperty(ATTRIBUTE_INITIAL_POOL_SIZE);
+  }
+
+  /** @param initialPoolSize the number of connections opened when the pool is created */
+  @Override
+  public void setInitialPoolSizeString(String initialPoolSize) {
+    if (initialPoolSize == null) {
+      attributes.remove(ATTRIBUTE_INITIAL_POOL_SIZE);
+    } else {
+      attributes.put(ATTRIBUTE_INITIAL_POOL_SIZE, initialPoolSize);
+    }
+  }
+
+  /** @return the maximum number of connections in use at the same time */
+  @Override
+  public String getMaximumPoolSizeString() {
+    return getAttributeProperty(ATTRIBUTE_MAXIMUM_POOL_SIZE);
+  }
+
+  /** @param maximumPoolSize the maximum number of connections in use at the same time */
+  @Override
+  public void setMaximumPoolSizeString(String maximumPoolSize) {
+    if (maximumPoolSize == null) {
+      attributes.remove(ATTRIBUTE_MAXIMUM_POOL_SIZE);
+    } else {
+      attributes.put(ATTRIBUTE_MAXIMUM_POOL_SIZE, maximumPoolSize);
+    }
+  }
+
+  /** @return the extra parameters of the connection pool */
+  @Override
+  public Map<String, String> getConnectionPoolingProperties() {
+    Map<String, String> map = new HashMap<>();
+    for (String attribute : attributes.keySet()) {
+      if (attribute.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX)) {
+        map.put(
+            attribute.substring(ATTRIBUTE_POOLING_PARAMETER_PREFIX.length()),
+            getAttributeProperty(attribute, ""));
+      }
+    }
+    return map;
+  }
+
+  /** @param properties the extra parameters of the connection pool */
+  @Override
+  public void setConnectionPoolingProperties(Map<String, String> properties) {
+    attributes.keySet().removeIf(key -> key.startsWith(ATTRIBUTE_POOLING_PARAMETER_PREFIX));
+    for (Map.Entry<String, String> entry : properties.entrySet()) {
+      attributes.put(ATTRIBUTE_POOLING_PARAMETER_PREFIX + entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * @param columnName the quoted name of the column
+   * @param partitionNr the number of the part to select
+   * @param nrPartitions the number of parts
+   * @return null, the database can't hash column values by default
+   */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return null;
+  }
+
   /**
    * @return true if the database defaults to naming tables and fields in uppercase. True for most
    *     databases except for stuborn stuff like Postgres ;-)
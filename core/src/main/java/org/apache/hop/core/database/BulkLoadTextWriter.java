@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Writes rows in the tab separated text format of PostgreSQL COPY and MySQL LOAD DATA: one line
+ * per row, \N for null and a backslash in front of tabs, line breaks and backslashes in the values.
+ * The text is encoded in UTF-8.
+ */
+public class BulkLoadTextWriter {
+
+  private static final byte[] NULL = {'\\', 'N'};
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final OutputStream outputStream;
+  private final IRowMeta rowMeta;
+  private final boolean hexBinary;
+  private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+  private final StringBuilder text = new StringBuilder();
+
+  /**
+   * @param outputStream the stream to write to
+   * @param rowMeta the layout of the rows
+   * @param hexBinary true to write binary values as \x followed by hex digits, the PostgreSQL
+   *     bytea format, false to write the bytes themselves
+   */
+  public BulkLoadTextWriter(OutputStream outputStream, IRowMeta rowMeta, boolean hexBinary) {
+    this.outputStream = outputStream;
+    this.rowMeta = rowMeta;
+    this.hexBinary = hexBinary;
+  }
+
+  /**
+   * @param row the row to write
+   * @throws HopDatabaseException if a value can't be converted or written
+   */
+  public void writeRow(Object[] row) throws HopDatabaseException {
+    try {
+      for (int i = 0; i < rowMeta.size(); i++) {
+        if (i > 0) {
+          outputStream.write('\t');
+        }
+        IValueMeta valueMeta = rowMeta.getValueMeta(i);
+        if (valueMeta.isNull(row[i])) {
+          outputStream.write(NULL);
+        } else if (valueMeta.isBinary() && !hexBinary) {
+          writeEscaped(valueMeta.getBinary(row[i]));
+        } else {
+          text.setLength(0);
+          appendValue(valueMeta, row[i]);
+          writeEscaped(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      outputStream.write('\n');
+    } catch (IOException | HopValueException e) {
+      throw new HopDatabaseException("Error writing a row for bulk loading", e);
+    }
+  }
+
+  private void appendValue(IValueMeta valueMeta, Object value) throws HopValueException {
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        text.append(valueMeta.getInteger(value).longValue());
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        text.append(valueMeta.getNumber(value).doubleValue());
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        BigDecimal bigNumber = valueMeta.getBigNumber(value);
+        text.append(bigNumber.toPlainString());
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        text.append(Boolean.TRUE.equals(valueMeta.getBoolean(value)) ? '1' : '0');
+        break;
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+        Date date = valueMeta.getDate(value);
+        if (date instanceof Timestamp) {
+          // Keeps the nanoseconds
+          text.append(date.toString());
+        } else {
+          text.append(dateFormat.format(date));
+        }
+        break;
+      case IValueMeta.TYPE_BINARY:
+        text.append("\\x");
+        for (byte b : valueMeta.getBinary(value)) {
+          text.append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+        }
+        break;
+      default:
+        text.append(valueMeta.getString(value));
+        break;
+    }
+  }
+
+  private void writeEscaped(byte[] bytes) throws IOException {
+    int start = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      byte escaped;
+      switch (bytes[i]) {
+        case '\\':
+          escaped = '\\';
+          break;
+        case '\t':
+          escaped = 't';
+          break;
+        case '\n':
+          escaped = 'n';
+          break;
+        case '\r':
+          escaped = 'r';
+          break;
+        case 0:
+          escaped = '0';
+          break;
+        default:
+          continue;
+      }
+      outputStream.write(bytes, start, i - start);
+      outputStream.write('\\');
+      outputStream.write(escaped);
+      start = i + 1;
+    }
+    outputStream.write(bytes, start, bytes.length - start);
+  }
+}
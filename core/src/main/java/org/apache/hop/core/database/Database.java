@@ -22,6 +22,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.*;
 import org.apache.hop.core.database.map.DatabaseConnectionMap;
+import org.apache.hop.core.database.util.ConnectionPoolUtil;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopDatabaseBatchException;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -396,10 +397,10 @@ public class Database implements IVariables, ILoggingObject {
               url += ";instanceName=" + instance;
             }
           }
-          connection = DriverManager.getConnection(url, properties);
+          connection = getConnection(url, properties);
         } else {
           // Perhaps the username is in the URL or no username is required...
-          connection = DriverManager.getConnection(url, properties);
+          connection = getConnection(url, properties);
         }
       } else {
         if (!Utils.isEmpty(username)) {
@@ -409,7 +410,7 @@ public class Database implements IVariables, ILoggingObject {
           properties.put("password", password);
         }
 
-        connection = DriverManager.getConnection(url, properties);
+        connection = getConnection(url, properties);
       }
     } catch (Exception e) {
       throw new HopDatabaseException(
@@ -417,6 +418,21 @@ public class Database implements IVariables, ILoggingObject {
     }
   }
 
+  /**
+   * Open a connection or take one from the pool of the database connection.
+   *
+   * @param url the resolved URL
+   * @param properties the connection properties
+   * @return the connection
+   */
+  private Connection getConnection(String url, Properties properties)
+      throws SQLException, HopDatabaseException {
+    if (databaseMeta.isUsingConnectionPool()) {
+      return ConnectionPoolUtil.getConnection(log, this, databaseMeta, url, properties);
+    }
+    return DriverManager.getConnection(url, properties);
+  }
+
   /** Disconnect from the database and close all open prepared statements. */
   public synchronized void disconnect() {
     if (connection == null) {
@@ -1005,6 +1021,33 @@ public class Database implements IVariables, ILoggingObject {
     return ins.toString();
   }
 
+  /**
+   * Start streaming rows into a table with the native bulk load protocol of the database. The rows
+   * are loaded in the current transaction of this connection.
+   *
+   * @param schemaName the schema of the table or null
+   * @param tableName the table to load
+   * @param fields the layout of the rows to load, the value names are the column names
+   * @return the loader, close it when done
+   * @throws HopDatabaseException if the database doesn't support bulk loading or the load can't
+   *     be started
+   */
+  public IBulkLoader createBulkLoader(String schemaName, String tableName, IRowMeta fields)
+      throws HopDatabaseException {
+    if (!databaseMeta.supportsBulkLoad()) {
+      throw new HopDatabaseException(
+          "Bulk loading is not supported on database connection [" + databaseMeta.getName() + "]");
+    }
+    String schemaTable = databaseMeta.getQuotedSchemaTableCombination(this, schemaName, tableName);
+    String[] columnNames = new String[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      columnNames[i] = databaseMeta.quoteField(fields.getValueMeta(i).getName());
+    }
+    return databaseMeta
+        .getIDatabase()
+        .createBulkLoader(connection, schemaTable, columnNames, fields);
+  }
+
   public void insertRow() throws HopDatabaseException {
     insertRow(prepStatementInsert);
   }
@@ -1811,6 +1811,73 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     iDatabase.setConnectSql(sql);
   }
 
+  /** @return true if connections are taken from a connection pool */
+  public boolean isUsingConnectionPool() {
+    return iDatabase.isUsingConnectionPool();
+  }
+
+  /** @param usePool true if connections should be taken from a connection pool */
+  public void setUsingConnectionPool(boolean usePool) {
+    iDatabase.setUsingConnectionPool(usePool);
+  }
+
+  /** @return the number of connections opened when the pool is created, may contain variables */
+  public String getInitialPoolSizeString() {
+    return iDatabase.getInitialPoolSizeString();
+  }
+
+  /** @param initialPoolSize the number of connections opened when the pool is created */
+  public void setInitialPoolSizeString(String initialPoolSize) {
+    iDatabase.setInitialPoolSizeString(initialPoolSize);
+  }
+
+  /** @return the maximum number of connections in use at the same time, may contain variables */
+  public String getMaximumPoolSizeString() {
+    return iDatabase.getMaximumPoolSizeString();
+  }
+
+  /** @param maximumPoolSize the maximum number of connections in use at the same time */
+  public void setMaximumPoolSizeString(String maximumPoolSize) {
+    iDatabase.setMaximumPoolSizeString(maximumPoolSize);
+  }
+
+  /** @return the extra parameters of the connection pool */
+  public Map<String, String> getConnectionPoolingProperties() {
+    return iDatabase.getConnectionPoolingProperties();
+  }
+
+  /** @param properties the extra parameters of the connection pool */
+  public void setConnectionPoolingProperties(Map<String, String> properties) {
+    iDatabase.setConnectionPoolingProperties(properties);
+  }
+
+  /** @return the maximum number of values in an IN list, 0 if there is no limit */
+  public int getMaxInListSize() {
+    return iDatabase.getMaxInListSize();
+  }
+
+  /** @return the maximum number of parameters in a statement, 0 if there is no limit */
+  public int getMaxQueryParameters() {
+    return iDatabase.getMaxQueryParameters();
+  }
+
+  /** @return true if the database can stream rows into a table with a bulk loader */
+  public boolean supportsBulkLoad() {
+    return iDatabase.supportsBulkLoad();
+  }
+
+  /**
+   * @param columnName the quoted name of the column
+   * @param partitionNr the number of the part to select
+   * @param nrPartitions the number of parts
+   * @return a condition selecting one part of the rows by hashing a column or null if the database
+   *     can't hash column values
+   */
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return iDatabase.getSqlHashPartitionCondition(columnName, partitionNr, nrPartitions);
+  }
+
   /**
    * @return true if the database supports setting the maximum number of return rows in a resultset.
    */
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+
+/**
+ * Streams rows into a table with the native bulk load protocol of a database. A loader is created
+ * with {@link IDatabase#createBulkLoader} and loads the rows in the transaction of its connection:
+ * commit the connection after {@link #finish()}, roll it back after a failure.
+ */
+public interface IBulkLoader extends AutoCloseable {
+
+  /**
+   * Send a row to the database.
+   *
+   * @param row the values of the row, in the layout the loader was created with
+   * @throws HopDatabaseException if the row can't be converted or sent
+   */
+  void addRow(Object[] row) throws HopDatabaseException;
+
+  /**
+   * Send the last rows and wait for the database to load them.
+   *
+   * @return the number of rows loaded
+   * @throws HopDatabaseException if the database rejected the load
+   */
+  long finish() throws HopDatabaseException;
+
+  /** Abort the load if it isn't finished and free the resources of the loader. */
+  @Override
+  void close();
+}
@@ -19,10 +19,12 @@ package org.apache.hop.core.database;
 
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.HopMetadataObject;
 
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -531,6 +533,49 @@ public interface IDatabase extends Cloneable {
   /** @param sql The SQL to execute right after connecting */
   void setConnectSql(String sql);
 
+  /**
+   * @return true if connections are taken from a pool shared by everything connecting to the same
+   *     database with the same credentials
+   */
+  boolean isUsingConnectionPool();
+
+  /** @param usePool true if connections should be taken from a shared pool */
+  void setUsingConnectionPool(boolean usePool);
+
+  /** @return the number of connections opened when the pool is created, may contain variables */
+  String getInitialPoolSizeString();
+
+  /** @param initialPoolSize the number of connections opened when the pool is created */
+  void setInitialPoolSizeString(String initialPoolSize);
+
+  /** @return the maximum number of connections in use at the same time, may contain variables */
+  String getMaximumPoolSizeString();
+
+  /** @param maximumPoolSize the maximum number of connections in use at the same time */
+  void setMaximumPoolSizeString(String maximumPoolSize);
+
+  /**
+   * @return the extra parameters of the connection pool, see {@link
+   *     BaseDatabaseMeta#poolingParameters}
+   */
+  Map<String, String> getConnectionPoolingProperties();
+
+  /** @param properties the extra parameters of the connection pool */
+  void setConnectionPoolingProperties(Map<String, String> properties);
+
+  /**
+   * Get a condition which selects one part of the rows by hashing a column, without reading the
+   * values of the column first. The parts of all partition numbers together hold every row with a
+   * value exactly once. Used to read the result of a query in parallel.
+   *
+   * @param columnName the quoted name of the column, any column type or a row identifier such as
+   *     ROWID
+   * @param partitionNr the number of the part to select, from 0 up to the number of partitions
+   * @param nrPartitions the number of parts
+   * @return the condition or null if the database can't hash column values
+   */
+  String getSqlHashPartitionCondition(String columnName, int partitionNr, int nrPartitions);
+
   /**
    * @return true if the database supports setting the maximum number of return rows in a resultset.
    */
@@ -939,6 +984,38 @@ public interface IDatabase extends Cloneable {
     return "";
   }
 
+  /** @return the maximum number of values in an IN list, 0 if there is no limit */
+  default int getMaxInListSize() {
+    return 0;
+  }
+
+  /** @return the maximum number of parameters in a statement, 0 if there is no limit */
+  default int getMaxQueryParameters() {
+    return 0;
+  }
+
+  /** @return true if the database can stream rows into a table with {@link #createBulkLoader} */
+  default boolean supportsBulkLoad() {
+    return false;
+  }
+
+  /**
+   * Start streaming rows into a table with the native bulk load protocol of the database, such as
+   * COPY or LOAD DATA. The rows are loaded in the current transaction of the connection.
+   *
+   * @param connection the open connection to load over
+   * @param schemaTable the quoted schema and table name
+   * @param columnNames the quoted names of the columns to load
+   * @param rowMeta the layout of the rows to load, the value names are the unquoted column names
+   * @return the loader, close it when done
+   * @throws HopDatabaseException if the load can't be started
+   */
+  default IBulkLoader createBulkLoader(
+      Connection connection, String schemaTable, String[] columnNames, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    throw new HopDatabaseException("Bulk loading is not supported on this database");
+  }
+
   /**
    * Allows to get the column name for JDBC drivers with different behavior for aliases depending on
    * the connector version.
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.database.util;
+
+import org.apache.commons.beanutils.BeanUtils;
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.DatabaseConnectionPoolParameter;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.Metrics;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The connection pools of the database connections which use pooling. There is one pool per
+ * resolved URL, user, password, connect SQL and pool settings: every {@link
+ * org.apache.hop.core.database.Database} connecting with the same settings takes its connections
+ * from the same pool, whichever pipeline or workflow it belongs to. Closing a pooled connection
+ * returns it to the pool.
+ *
+ * <p>The pools are closed when the Hop environment shuts down, or at the latest when the JVM exits.
+ */
+public class ConnectionPoolUtil {
+
+  public static final int DEFAULT_INITIAL_POOL_SIZE = 5;
+  public static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+
+  private static final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<>();
+
+  private static boolean shutdownHookAdded;
+
+  private ConnectionPoolUtil() {}
+
+  /**
+   * Take a connection from the pool of a database connection, the pool is created the first time.
+   *
+   * @param log the log channel of the database, gets the pool metrics
+   * @param variables the variables to resolve the pool settings with
+   * @param databaseMeta the database connection
+   * @param url the resolved URL
+   * @param properties the connection properties, including the user and password if any
+   * @return the connection, close it to return it to the pool
+   * @throws HopDatabaseException if no connection can be taken from the pool
+   */
+  public static Connection getConnection(
+      ILogChannel log,
+      IVariables variables,
+      DatabaseMeta databaseMeta,
+      String url,
+      Properties properties)
+      throws HopDatabaseException {
+    String key = getPoolKey(variables, databaseMeta, url, properties);
+    Pool pool = pools.get(key);
+    if (pool == null) {
+      synchronized (pools) {
+        pool = pools.get(key);
+        if (pool == null) {
+          pool = new Pool(databaseMeta.getName(), url);
+          configureDataSource(pool.dataSource, log, variables, databaseMeta, url, properties);
+          pools.put(key, pool);
+          if (!shutdownHookAdded) {
+            // Close the idle connections properly when the JVM exits
+            Thread closePools = new Thread(ConnectionPoolUtil::closeAll, "Close connection pools");
+            Runtime.getRuntime().addShutdownHook(closePools);
+            shutdownHookAdded = true;
+          }
+          if (log.isDetailed()) {
+            log.logDetailed(
+                "Created connection pool for database connection '"
+                    + databaseMeta.getName()
+                    + "' with a maximum of "
+                    + pool.dataSource.getMaxActive()
+                    + " connections");
+          }
+        }
+      }
+    }
+
+    long startTime = System.currentTimeMillis();
+    Connection connection;
+    try {
+      connection = pool.dataSource.getConnection();
+    } catch (SQLException e) {
+      if (e.getCause() instanceof NoSuchElementException) {
+        throw new HopDatabaseException(
+            "Timed out after "
+                + pool.dataSource.getMaxWait()
+                + " ms waiting for a connection from the pool of database connection '"
+                + databaseMeta.getName()
+                + "': all "
+                + pool.dataSource.getMaxActive()
+                + " connections are in use. Raise the maximum pool size or the maxWait pool "
+                + "parameter, or make sure the connections are closed after use.",
+            e);
+      }
+      throw new HopDatabaseException(
+          "Unable to get a connection from the pool of database connection '"
+              + databaseMeta.getName()
+              + "'",
+          e);
+    }
+    long waitTime = System.currentTimeMillis() - startTime;
+    pool.borrowed.incrementAndGet();
+    pool.waitTime.addAndGet(waitTime);
+
+    if (log.isGatheringMetrics()) {
+      String subject = databaseMeta.getName();
+      log.snap(Metrics.METRIC_DATABASE_POOL_BORROW_COUNT, subject);
+      log.snap(Metrics.METRIC_DATABASE_POOL_WAIT_SUM_TIME, subject, waitTime);
+      log.snap(Metrics.METRIC_DATABASE_POOL_ACTIVE_MAX, subject, pool.dataSource.getNumActive());
+    }
+    return connection;
+  }
+
+  /**
+   * The pool key contains everything which makes connections differ. The password is part of it so
+   * that changing it creates a new pool, the key is never logged or shown.
+   */
+  static String getPoolKey(
+      IVariables variables, DatabaseMeta databaseMeta, String url, Properties properties) {
+    StringBuilder key = new StringBuilder(url);
+    // The properties in a fixed order
+    for (Map.Entry<Object, Object> entry : new TreeMap<>(properties).entrySet()) {
+      key.append('\u0000').append(entry.getKey()).append('=').append(entry.getValue());
+    }
+    key.append('\u0000').append(Const.NVL(variables.resolve(databaseMeta.getConnectSql()), ""));
+    key.append('\u0000').append(getInitialPoolSize(variables, databaseMeta));
+    key.append('\u0000').append(getMaximumPoolSize(variables, databaseMeta));
+    for (Map.Entry<String, String> entry :
+        new TreeMap<>(databaseMeta.getConnectionPoolingProperties()).entrySet()) {
+      key.append('\u0000')
+          .append(entry.getKey())
+          .append('=')
+          .append(variables.resolve(entry.getValue()));
+    }
+    return key.toString();
+  }
+
+  static int getInitialPoolSize(IVariables variables, DatabaseMeta databaseMeta) {
+    return Const.toInt(
+        variables.resolve(databaseMeta.getInitialPoolSizeString()), DEFAULT_INITIAL_POOL_SIZE);
+  }
+
+  static int getMaximumPoolSize(IVariables variables, DatabaseMeta databaseMeta) {
+    return Const.toInt(
+        variables.resolve(databaseMeta.getMaximumPoolSizeString()), DEFAULT_MAXIMUM_POOL_SIZE);
+  }
+
+  static void configureDataSource(
+      BasicDataSource dataSource,
+      ILogChannel log,
+      IVariables variables,
+      DatabaseMeta databaseMeta,
+      String url,
+      Properties properties)
+      throws HopDatabaseException {
+    // The driver is registered with the DriverManager before connecting, the pool finds it by URL
+    dataSource.setUrl(url);
+    for (String name : properties.stringPropertyNames()) {
+      String value = properties.getProperty(name);
+      if ("user".equals(name)) {
+        dataSource.setUsername(value);
+      } else if ("password".equals(name)) {
+        dataSource.setPassword(value);
+      } else {
+        dataSource.addConnectionProperty(name, value);
+      }
+    }
+
+    int maximumSize = getMaximumPoolSize(variables, databaseMeta);
+    int initialSize = Math.min(getInitialPoolSize(variables, databaseMeta), maximumSize);
+    dataSource.setInitialSize(initialSize);
+    dataSource.setMaxActive(maximumSize);
+    dataSource.setMaxIdle(maximumSize);
+
+    // The defaults of the parameters, followed by the parameters of the connection
+    //
+    Map<String, String> parameters = new TreeMap<>();
+    for (DatabaseConnectionPoolParameter parameter : BaseDatabaseMeta.poolingParameters) {
+      if (parameter.getDefaultValue() != null) {
+        parameters.put(parameter.getParameter(), parameter.getDefaultValue());
+      }
+    }
+    for (Map.Entry<String, String> entry :
+        databaseMeta.getConnectionPoolingProperties().entrySet()) {
+      String value = variables.resolve(entry.getValue());
+      if (!Utils.isEmpty(value)) {
+        parameters.put(entry.getKey(), value);
+      }
+    }
+
+    for (Map.Entry<String, String> entry : parameters.entrySet()) {
+      String name = entry.getKey();
+      String value = entry.getValue();
+      if (DatabaseConnectionPoolParameter.findParameter(
+              name, BaseDatabaseMeta.poolingParameters)
+          == null) {
+        log.logError(
+            "Unknown connection pool parameter '"
+                + name
+                + "' of database connection '"
+                + databaseMeta.getName()
+                + "' is ignored");
+        continue;
+      }
+      if ("defaultTransactionIsolation".equals(name)) {
+        value = Integer.toString(getTransactionIsolation(value));
+      }
+      try {
+        BeanUtils.setProperty(dataSource, name, value);
+      } catch (Exception e) {
+        throw new HopDatabaseException(
+            "Unable to set connection pool parameter '" + name + "' to '" + value + "'", e);
+      }
+    }
+  }
+
+  private static int getTransactionIsolation(String value) throws HopDatabaseException {
+    switch (value.toUpperCase()) {
+      case "NONE":
+        return Connection.TRANSACTION_NONE;
+      case "READ_COMMITTED":
+        return Connection.TRANSACTION_READ_COMMITTED;
+      case "READ_UNCOMMITTED":
+        return Connection.TRANSACTION_READ_UNCOMMITTED;
+      case "REPEATABLE_READ":
+        return Connection.TRANSACTION_REPEATABLE_READ;
+      case "SERIALIZABLE":
+        return Connection.TRANSACTION_SERIALIZABLE;
+      default:
+        int isolation = Const.toInt(value, -1);
+        if (isolation < 0) {
+          throw new HopDatabaseException("Unknown transaction isolation '" + value + "'");
+        }
+        return isolation;
+    }
+  }
+
+  /** @return the current state of all connection pools */
+  public static List<PoolStatistics> getPoolStatistics() {
+    List<PoolStatistics> statistics = new ArrayList<>();
+    for (Pool pool : pools.values()) {
+      statistics.add(
+          new PoolStatistics(
+              pool.name,
+              pool.url,
+              pool.dataSource.getNumActive(),
+              pool.dataSource.getNumIdle(),
+              pool.dataSource.getMaxActive(),
+              pool.borrowed.get(),
+              pool.waitTime.get()));
+    }
+    return statistics;
+  }
+
+  /** Close all connection pools. Connections in use are closed once they're returned. */
+  public static void closeAll() {
+    synchronized (pools) {
+      for (Pool pool : pools.values()) {
+        try {
+          pool.dataSource.close();
+        } catch (SQLException e) {
+          // Closing the idle connections failed, nothing else to do
+        }
+      }
+      pools.clear();
+    }
+  }
+
+  private static class Pool {
+    private final String name;
+    private final String url;
+    private final BasicDataSource dataSource = new BasicDataSource();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong waitTime = new AtomicLong();
+
+    private Pool(String name, String url) {
+      this.name = name;
+      this.url = url;
+    }
+  }
+
+  /** The state of a connection pool at one point in time. */
+  public static class PoolStatistics {
+    private final String databaseName;
+    private final String url;
+    private final int active;
+    private final int idle;
+    private final int maximum;
+    private final long borrowed;
+    private final long waitTime;
+
+    public PoolStatistics(
+        String databaseName,
+        String url,
+        int active,
+        int idle,
+        int maximum,
+        long borrowed,
+        long waitTime) {
+      this.databaseName = databaseName;
+      this.url = url;
+      this.active = active;
+      this.idle = idle;
+      this.maximum = maximum;
+      this.borrowed = borrowed;
+      this.waitTime = waitTime;
+    }
+
+    /** @return the name of the database connection which created the pool */
+    public String getDatabaseName() {
+      return databaseName;
+    }
+
+    /** @return the URL of the pooled connections */
+    public String getUrl() {
+      return url;
+    }
+
+    /** @return the number of connections in use */
+    public int getActive() {
+      return active;
+    }
+
+    /** @return the number of open connections waiting in the pool */
+    public int getIdle() {
+      return idle;
+    }
+
+    /** @return the maximum number of connections in use at the same time */
+    public int getMaximum() {
+      return maximum;
+    }
+
+    /** @return the number of times a connection was taken from the pool */
+    public long getBorrowed() {
+      return borrowed;
+    }
+
+    /** @return the total time in ms spent waiting for connections from the pool */
+    public long getWaitTime() {
+      return waitTime;
+    }
+  }
+}
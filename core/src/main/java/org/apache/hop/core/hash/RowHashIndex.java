@@ -0,0 +1,597 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hash index of rows with one or more key fields of any of the common data types.
+ *
+ * <p>The keys and values are serialized one after the other into large byte buffers, the index
+ * itself is an open addressing table with the hash code and the address of each entry in two
+ * primitive arrays. This leaves only a handful of objects per buffer on the heap, rather than a map
+ * entry with a key and a value row per entry. The buffers can be memory mapped temporary files so
+ * that the rows don't take heap space at all.
+ *
+ * <p>The hash code is calculated from the typed key values and a key is compared to the serialized
+ * keys in place, so looking up a key that isn't in the index doesn't allocate anything.
+ *
+ * <p>Keys are equal when {@link IValueMeta#compare(Object, Object)} considers them equal. Use
+ * {@link #isSupported(IRowMeta)} to see if the key fields can be indexed. Once all entries are
+ * added, {@link #get(Object[])} can be called from several threads at the same time.
+ */
+public class RowHashIndex implements AutoCloseable {
+
+  private static final int STANDARD_INDEX_SIZE = 512;
+  private static final float STANDARD_LOAD_FACTOR = 0.7f;
+
+  /** The size of a buffer on the heap */
+  static final int HEAP_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+  /** The size of a memory mapped buffer */
+  static final int MAPPED_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private final IRowMeta keyMeta;
+  private final IRowMeta valueMeta;
+  private final IValueMeta[] keyValueMetas;
+
+  /** The hash codes of the entries */
+  private int[] hashCodes;
+
+  /** The addresses of the entries plus one, 0 is an empty slot */
+  private long[] addresses;
+
+  private int size;
+  private int resizeThreshold;
+
+  private final int segmentSize;
+  private final List<ByteBuffer> segments;
+  private ByteBuffer segment;
+  private long storageSize;
+
+  private File file;
+  private RandomAccessFile randomAccessFile;
+  private FileChannel channel;
+  private long fileLength;
+
+  private final RecordOutputStream record;
+  private final DataOutputStream recordStream;
+
+  /**
+   * Create a hash index with the rows on the heap.
+   *
+   * @param keyMeta the layout of the keys, see {@link #isSupported(IRowMeta)}
+   * @param valueMeta the layout of the values
+   */
+  public RowHashIndex(IRowMeta keyMeta, IRowMeta valueMeta) {
+    this(keyMeta, valueMeta, STANDARD_INDEX_SIZE, HEAP_SEGMENT_SIZE);
+  }
+
+  /**
+   * Create a hash index with the rows in a memory mapped temporary file. The file is removed when
+   * the index is closed.
+   *
+   * @param keyMeta the layout of the keys, see {@link #isSupported(IRowMeta)}
+   * @param valueMeta the layout of the values
+   * @param directory the local directory of the temporary file
+   * @throws HopFileException if the temporary file can't be created
+   */
+  public RowHashIndex(IRowMeta keyMeta, IRowMeta valueMeta, String directory)
+      throws HopFileException {
+    this(keyMeta, valueMeta, STANDARD_INDEX_SIZE, MAPPED_SEGMENT_SIZE);
+    try {
+      file = File.createTempFile("hop-row-index", ".tmp", new File(directory));
+      randomAccessFile = new RandomAccessFile(file, "rw");
+      channel = randomAccessFile.getChannel();
+    } catch (IOException e) {
+      throw new HopFileException(
+          "Unable to create a memory mapped file for the hash index in directory " + directory, e);
+    }
+  }
+
+  RowHashIndex(IRowMeta keyMeta, IRowMeta valueMeta, int indexSize, int segmentSize) {
+    this.keyMeta = keyMeta;
+    this.valueMeta = valueMeta;
+    this.keyValueMetas = keyMeta.getValueMetaList().toArray(new IValueMeta[0]);
+    this.segmentSize = segmentSize;
+    this.segments = new ArrayList<>();
+    this.record = new RecordOutputStream();
+    this.recordStream = new DataOutputStream(record);
+
+    // Find a suitable capacity being a factor of 2:
+    int factor2Size = 1;
+    while (factor2Size < indexSize) {
+      factor2Size <<= 1; // Multiply by 2
+    }
+    hashCodes = new int[factor2Size];
+    addresses = new long[factor2Size];
+    resizeThreshold = (int) (factor2Size * STANDARD_LOAD_FACTOR);
+  }
+
+  /**
+   * @param keyMeta the layout of the keys
+   * @return true if all key fields have a data type the index can handle and are compared on their
+   *     exact value, rather than case insensitive, with a collator or with a custom comparator.
+   */
+  public static boolean isSupported(IRowMeta keyMeta) {
+    if (keyMeta.isEmpty()) {
+      return false;
+    }
+    for (IValueMeta valueMeta : keyMeta.getValueMetaList()) {
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING:
+          if (valueMeta.isCaseInsensitive() || !valueMeta.isCollatorDisabled()) {
+            return false;
+          }
+          break;
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_BIGNUMBER:
+        case IValueMeta.TYPE_BOOLEAN:
+        case IValueMeta.TYPE_BINARY:
+          break;
+        default:
+          return false;
+      }
+      if (valueMeta instanceof ValueMetaBase
+          && ((ValueMetaBase) valueMeta).getComparator() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** @return the number of entries */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** @return the number of bytes in the buffers with the keys and values */
+  public long getStorageSize() {
+    return storageSize;
+  }
+
+  /**
+   * Add an entry, replacing the value if the key is in the index already.
+   *
+   * @param keyData the key
+   * @param valueData the value
+   * @throws HopException if the key or value can't be serialized or stored
+   */
+  public void put(Object[] keyData, Object[] valueData) throws HopException {
+    int hashCode = generateHashCode(keyData);
+    int mask = addresses.length - 1;
+    int indexPointer = hashCode & mask;
+    while (addresses[indexPointer] != 0L) {
+      if (hashCodes[indexPointer] == hashCode
+          && equalsKey(addresses[indexPointer] - 1, keyData)) {
+        // The old entry stays in the buffer, it's no longer referenced
+        addresses[indexPointer] = store(keyData, valueData) + 1;
+        return;
+      }
+      indexPointer = (indexPointer + 1) & mask;
+    }
+
+    hashCodes[indexPointer] = hashCode;
+    addresses[indexPointer] = store(keyData, valueData) + 1;
+    size++;
+    if (size >= resizeThreshold) {
+      resize();
+    }
+  }
+
+  /**
+   * Look up a key.
+   *
+   * @param keyData the key
+   * @return the value or null if the key isn't in the index
+   * @throws HopException if the value can't be read back
+   */
+  public Object[] get(Object[] keyData) throws HopException {
+    int hashCode = generateHashCode(keyData);
+    int mask = addresses.length - 1;
+    int indexPointer = hashCode & mask;
+    long address = addresses[indexPointer];
+    while (address != 0L) {
+      if (hashCodes[indexPointer] == hashCode && equalsKey(address - 1, keyData)) {
+        return readValue(address - 1);
+      }
+      indexPointer = (indexPointer + 1) & mask;
+      address = addresses[indexPointer];
+    }
+    return null;
+  }
+
+  private void resize() {
+    int newSize = 2 * addresses.length;
+    int mask = newSize - 1;
+    int[] newHashCodes = new int[newSize];
+    long[] newAddresses = new long[newSize];
+
+    // The hash codes are kept so the keys don't need to be read again
+    //
+    for (int i = 0; i < addresses.length; i++) {
+      if (addresses[i] != 0L) {
+        int indexPointer = hashCodes[i] & mask;
+        while (newAddresses[indexPointer] != 0L) {
+          indexPointer = (indexPointer + 1) & mask;
+        }
+        newHashCodes[indexPointer] = hashCodes[i];
+        newAddresses[indexPointer] = addresses[i];
+      }
+    }
+
+    hashCodes = newHashCodes;
+    addresses = newAddresses;
+    resizeThreshold = (int) (newSize * STANDARD_LOAD_FACTOR);
+  }
+
+  /**
+   * Calculate the hash code of a key from the typed values, the same way for equal keys.
+   *
+   * @param keyData the key
+   * @return the hash code
+   * @throws HopException if a value can't be converted
+   */
+  public int generateHashCode(Object[] keyData) throws HopException {
+    int hashCode = 1;
+    for (int i = 0; i < keyValueMetas.length; i++) {
+      IValueMeta valueMeta = keyValueMetas[i];
+      Object value = keyData[i];
+      int valueHashCode = 0;
+      if (!valueMeta.isNull(value)) {
+        switch (valueMeta.getType()) {
+          case IValueMeta.TYPE_STRING:
+            valueHashCode = getString(valueMeta, value).hashCode();
+            break;
+          case IValueMeta.TYPE_INTEGER:
+            valueHashCode = Long.hashCode(valueMeta.getInteger(value));
+            break;
+          case IValueMeta.TYPE_NUMBER:
+            valueHashCode = Long.hashCode(Double.doubleToLongBits(valueMeta.getNumber(value)));
+            break;
+          case IValueMeta.TYPE_DATE:
+            valueHashCode = Long.hashCode(valueMeta.getDate(value).getTime());
+            break;
+          case IValueMeta.TYPE_BIGNUMBER:
+            valueHashCode = getBigNumber(valueMeta, value).hashCode();
+            break;
+          case IValueMeta.TYPE_BOOLEAN:
+            valueHashCode = Boolean.hashCode(valueMeta.getBoolean(value));
+            break;
+          case IValueMeta.TYPE_BINARY:
+            valueHashCode = Arrays.hashCode(valueMeta.getBinary(value));
+            break;
+          default:
+            throw new HopException("Unable to index data type " + valueMeta.getTypeDesc());
+        }
+      }
+      hashCode = 31 * hashCode + valueHashCode;
+    }
+
+    // Spread the bits, the lowest bits pick the slot
+    hashCode *= 0x9E3779B9;
+    return hashCode ^ (hashCode >>> 16);
+  }
+
+  /** Write the key and the value to the end of the buffers and return the address of the entry. */
+  private long store(Object[] keyData, Object[] valueData) throws HopException {
+    record.reset();
+    try {
+      // Leave room for the length of the key
+      recordStream.writeInt(0);
+      writeKey(keyData);
+      int keyLength = record.size() - 4;
+      valueMeta.writeData(recordStream, valueData);
+      recordStream.flush();
+      record.setInt(0, keyLength);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to serialize a row for the hash index", e);
+    }
+
+    int length = record.size();
+    if (segment == null || segment.remaining() < length) {
+      segment = allocateSegment(Math.max(segmentSize, length));
+      segments.add(segment);
+    }
+    int offset = segment.position();
+    segment.put(record.getBuffer(), 0, length);
+    storageSize += length;
+    return ((long) (segments.size() - 1) << 32) | offset;
+  }
+
+  private ByteBuffer allocateSegment(int length) throws HopFileException {
+    if (channel == null) {
+      return ByteBuffer.allocate(length);
+    }
+    try {
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, fileLength, length);
+      fileLength += length;
+      return mapped;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to extend memory mapped file " + file, e);
+    }
+  }
+
+  private void writeKey(Object[] keyData) throws IOException, HopException {
+    for (int i = 0; i < keyValueMetas.length; i++) {
+      IValueMeta valueMeta = keyValueMetas[i];
+      Object value = keyData[i];
+      if (valueMeta.isNull(value)) {
+        recordStream.writeBoolean(false);
+        continue;
+      }
+      recordStream.writeBoolean(true);
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING:
+          writeChars(getString(valueMeta, value));
+          break;
+        case IValueMeta.TYPE_INTEGER:
+          recordStream.writeLong(valueMeta.getInteger(value));
+          break;
+        case IValueMeta.TYPE_NUMBER:
+          recordStream.writeLong(Double.doubleToLongBits(valueMeta.getNumber(value)));
+          break;
+        case IValueMeta.TYPE_DATE:
+          recordStream.writeLong(valueMeta.getDate(value).getTime());
+          break;
+        case IValueMeta.TYPE_BIGNUMBER:
+          writeChars(getBigNumber(valueMeta, value).toString());
+          break;
+        case IValueMeta.TYPE_BOOLEAN:
+          recordStream.writeBoolean(valueMeta.getBoolean(value));
+          break;
+        case IValueMeta.TYPE_BINARY:
+          byte[] binary = valueMeta.getBinary(value);
+          recordStream.writeInt(binary.length);
+          recordStream.write(binary);
+          break;
+        default:
+          throw new HopException("Unable to index data type " + valueMeta.getTypeDesc());
+      }
+    }
+  }
+
+  private void writeChars(String string) throws IOException {
+    recordStream.writeInt(string.length());
+    recordStream.writeChars(string);
+  }
+
+  /** Compare a key to the serialized key at an address, without deserializing it. */
+  private boolean equalsKey(long address, Object[] keyData) throws HopException {
+    ByteBuffer buffer = segments.get((int) (address >>> 32));
+    int position = (int) address + 4;
+
+    for (int i = 0; i < keyValueMetas.length; i++) {
+      IValueMeta valueMeta = keyValueMetas[i];
+      Object value = keyData[i];
+      boolean isNull = valueMeta.isNull(value);
+      if (buffer.get(position++) == 0) {
+        if (!isNull) {
+          return false;
+        }
+        continue;
+      }
+      if (isNull) {
+        return false;
+      }
+      switch (valueMeta.getType()) {
+        case IValueMeta.TYPE_STRING:
+          if (!equalsChars(buffer, position, getString(valueMeta, value))) {
+            return false;
+          }
+          position += 4 + 2 * buffer.getInt(position);
+          break;
+        case IValueMeta.TYPE_INTEGER:
+          if (buffer.getLong(position) != valueMeta.getInteger(value)) {
+            return false;
+          }
+          position += 8;
+          break;
+        case IValueMeta.TYPE_NUMBER:
+          if (buffer.getLong(position) != Double.doubleToLongBits(valueMeta.getNumber(value))) {
+            return false;
+          }
+          position += 8;
+          break;
+        case IValueMeta.TYPE_DATE:
+          if (buffer.getLong(position) != valueMeta.getDate(value).getTime()) {
+            return false;
+          }
+          position += 8;
+          break;
+        case IValueMeta.TYPE_BIGNUMBER:
+          if (!equalsChars(buffer, position, getBigNumber(valueMeta, value).toString())) {
+            return false;
+          }
+          position += 4 + 2 * buffer.getInt(position);
+          break;
+        case IValueMeta.TYPE_BOOLEAN:
+          if ((buffer.get(position) != 0) != valueMeta.getBoolean(value)) {
+            return false;
+          }
+          position++;
+          break;
+        case IValueMeta.TYPE_BINARY:
+          byte[] binary = valueMeta.getBinary(value);
+          int length = buffer.getInt(position);
+          if (length != binary.length) {
+            return false;
+          }
+          position += 4;
+          for (int b = 0; b < length; b++) {
+            if (buffer.get(position + b) != binary[b]) {
+              return false;
+            }
+          }
+          position += length;
+          break;
+        default:
+          throw new HopException("Unable to index data type " + valueMeta.getTypeDesc());
+      }
+    }
+    return true;
+  }
+
+  private static boolean equalsChars(ByteBuffer buffer, int position, String string) {
+    int length = buffer.getInt(position);
+    if (length != string.length()) {
+      return false;
+    }
+    int charPosition = position + 4;
+    for (int c = 0; c < length; c++) {
+      if (buffer.getChar(charPosition + 2 * c) != string.charAt(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getString(IValueMeta valueMeta, Object value) throws HopException {
+    String string = valueMeta.getString(value);
+    return valueMeta.isIgnoreWhitespace() ? string.trim() : string;
+  }
+
+  private static BigDecimal getBigNumber(IValueMeta valueMeta, Object value)
+      throws HopException {
+    // 1.0 and 1.00 are equal
+    return valueMeta.getBigNumber(value).stripTrailingZeros();
+  }
+
+  private Object[] readValue(long address) throws HopException {
+    ByteBuffer buffer = segments.get((int) (address >>> 32));
+    int offset = (int) address;
+    int valueOffset = offset + 4 + buffer.getInt(offset);
+    try {
+      return valueMeta.readData(new DataInputStream(new BufferInputStream(buffer, valueOffset)));
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException(e); // Shouldn't happen on buffers
+    }
+  }
+
+  /** @return the layout of the keys */
+  public IRowMeta getKeyMeta() {
+    return keyMeta;
+  }
+
+  /** @return the layout of the values */
+  public IRowMeta getValueMeta() {
+    return valueMeta;
+  }
+
+  /** Release the buffers and remove the memory mapped file, if any. */
+  @Override
+  public void close() {
+    segments.clear();
+    segment = null;
+    hashCodes = new int[1];
+    addresses = new long[1];
+    size = 0;
+    if (channel != null) {
+      try {
+        randomAccessFile.close();
+      } catch (IOException e) {
+        // Nothing left to do
+      }
+      // The mapped buffers are released once they are garbage collected
+      file.delete();
+    }
+  }
+
+  /** A byte array output stream which can patch an int and hands out its buffer. */
+  private static final class RecordOutputStream extends ByteArrayOutputStream {
+    RecordOutputStream() {
+      super(256);
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+
+    void setInt(int position, int value) {
+      buf[position] = (byte) (value >>> 24);
+      buf[position + 1] = (byte) (value >>> 16);
+      buf[position + 2] = (byte) (value >>> 8);
+      buf[position + 3] = (byte) value;
+    }
+  }
+
+  /**
+   * Reads from a position in a buffer with absolute reads, so that several threads can read from
+   * the same buffer.
+   */
+  private static final class BufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+    private int position;
+
+    BufferInputStream(ByteBuffer buffer, int position) {
+      this.buffer = buffer;
+      this.position = position;
+    }
+
+    @Override
+    public int read() {
+      if (position >= buffer.limit()) {
+        return -1;
+      }
+      return buffer.get(position++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      int available = Math.min(length, buffer.limit() - position);
+      if (available <= 0) {
+        return length == 0 ? 0 : -1;
+      }
+      if (buffer.hasArray()) {
+        System.arraycopy(
+            buffer.array(), buffer.arrayOffset() + position, bytes, offset, available);
+      } else {
+        for (int i = 0; i < available; i++) {
+          bytes[offset + i] = buffer.get(position + i);
+        }
+      }
+      position += available;
+      return available;
+    }
+  }
+}
@@ -105,6 +105,22 @@ public class Metrics implements IMetrics {
           "METRIC_DATABASE_GET_ROW_MAX_TIME",
           "Get row from DB (max time)");
 
+  public static Metrics METRIC_DATABASE_POOL_BORROW_COUNT =
+      new Metrics(
+          MetricsSnapshotType.COUNT,
+          "METRIC_DATABASE_POOL_BORROW_COUNT",
+          "Get connection from pool (count)");
+  public static Metrics METRIC_DATABASE_POOL_WAIT_SUM_TIME =
+      new Metrics(
+          MetricsSnapshotType.SUM,
+          "METRIC_DATABASE_POOL_WAIT_SUM_TIME",
+          "Get connection from pool (total time)");
+  public static Metrics METRIC_DATABASE_POOL_ACTIVE_MAX =
+      new Metrics(
+          MetricsSnapshotType.MAX,
+          "METRIC_DATABASE_POOL_ACTIVE_MAX",
+          "Connections in use from pool (max)");
+
   // Pipeline
   //
   public static Metrics METRIC_PIPELINE_EXECUTION_START =
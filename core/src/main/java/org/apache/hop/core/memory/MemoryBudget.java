@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.memory;
+
+/**
+ * The memory a single transform copy uses to keep rows, reserved from the {@link
+ * SpillMemoryManager}. To keep the shared counter of the memory manager out of the way the memory
+ * is taken from it in chunks.
+ *
+ * <p>This class is not thread-safe: it belongs to a single transform copy.
+ */
+public class MemoryBudget implements AutoCloseable {
+
+  /** The amount of memory taken from the memory manager at once */
+  static final long CHUNK_SIZE = 1024L * 1024L;
+
+  private final SpillMemoryManager manager;
+  private final long limit;
+
+  /** The number of bytes in use by the transform */
+  private long used;
+
+  /** The number of bytes taken from the memory manager, at least the used bytes */
+  private long reserved;
+
+  MemoryBudget(SpillMemoryManager manager, long limit) {
+    this.manager = manager;
+    this.limit = limit;
+  }
+
+  /**
+   * Reserve memory if both this budget and the memory manager have enough left.
+   *
+   * @param bytes the number of bytes to reserve
+   * @return true if the memory was reserved, false if the transform should spill to disk
+   */
+  public boolean tryReserve(long bytes) {
+    if (limit > 0 && used + bytes > limit) {
+      return false;
+    }
+    long missing = used + bytes - reserved;
+    if (missing > 0) {
+      long chunk = Math.max(missing, CHUNK_SIZE);
+      if (manager.tryReserve(chunk)) {
+        reserved += chunk;
+      } else if (chunk > missing && manager.tryReserve(missing)) {
+        reserved += missing;
+      } else {
+        return false;
+      }
+    }
+    used += bytes;
+    return true;
+  }
+
+  /**
+   * Reserve memory regardless of the limits, for instance because spilling a handful of rows isn't
+   * worth it.
+   *
+   * @param bytes the number of bytes to reserve
+   */
+  public void forceReserve(long bytes) {
+    long missing = used + bytes - reserved;
+    if (missing > 0) {
+      manager.forceReserve(missing);
+      reserved += missing;
+    }
+    used += bytes;
+  }
+
+  /**
+   * Give back part of the reserved memory, it stays available to this budget.
+   *
+   * @param bytes the number of bytes no longer in use
+   */
+  public void release(long bytes) {
+    used = Math.max(used - bytes, 0L);
+  }
+
+  /**
+   * Give the memory which is reserved but no longer in use back to the memory manager, so other
+   * transforms can have it.
+   */
+  public void releaseUnused() {
+    if (reserved > used) {
+      manager.release(reserved - used);
+      reserved = used;
+    }
+  }
+
+  /** Give back all memory, to the memory manager as well. Call this after spilling to disk. */
+  public void releaseAll() {
+    manager.release(reserved);
+    reserved = 0L;
+    used = 0L;
+  }
+
+  /** @return the number of bytes in use */
+  public long getUsed() {
+    return used;
+  }
+
+  /** @return the maximum number of bytes of this budget, 0 or less if there is none */
+  public long getLimit() {
+    return limit;
+  }
+
+  @Override
+  public void close() {
+    releaseAll();
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.memory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Estimates the number of bytes a row takes on the heap of a 64-bit JVM with compressed object
+ * pointers, the default for heaps up to 32GB. The estimate follows the layout of the objects a row
+ * contains (headers, fields and padding to 8 bytes) rather than sampling the free memory, so it
+ * doesn't depend on when the garbage collector runs.
+ */
+public final class RowSizeEstimator {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  private RowSizeEstimator() {}
+
+  /**
+   * @param row the row
+   * @return the estimated number of bytes of the row and all the values in it
+   */
+  public static long estimateRowSize(Object[] row) {
+    if (row == null) {
+      return 0L;
+    }
+    long size = align(ARRAY_HEADER + (long) REFERENCE * row.length);
+    for (Object value : row) {
+      size += estimateValueSize(value);
+    }
+    return size;
+  }
+
+  /**
+   * @param value a value of a row
+   * @return the estimated number of bytes of the value, 0 for null and shared values
+   */
+  public static long estimateValueSize(Object value) {
+    if (value == null || value instanceof Boolean) {
+      // Boolean.TRUE and Boolean.FALSE are shared
+      return 0L;
+    }
+    if (value instanceof String) {
+      return estimateStringSize((String) value);
+    }
+    if (value instanceof Long || value instanceof Double) {
+      return align(OBJECT_HEADER + 8);
+    }
+    if (value instanceof byte[]) {
+      return align(ARRAY_HEADER + (long) ((byte[]) value).length);
+    }
+    if (value instanceof Timestamp) {
+      // Date fields plus the nanoseconds
+      return align(OBJECT_HEADER + 8 + REFERENCE + 4);
+    }
+    if (value instanceof Date) {
+      // the milliseconds and a reference to the calendar date, usually null
+      return align(OBJECT_HEADER + 8 + REFERENCE);
+    }
+    if (value instanceof BigDecimal) {
+      BigDecimal bigDecimal = (BigDecimal) value;
+      // intVal, scale, precision, stringCache and intCompact
+      long size = align(OBJECT_HEADER + REFERENCE + 4 + 4 + REFERENCE + 8);
+      if (bigDecimal.precision() > 18) {
+        size += estimateBigIntegerSize(bigDecimal.unscaledValue());
+      }
+      return size;
+    }
+    if (value instanceof BigInteger) {
+      return estimateBigIntegerSize((BigInteger) value);
+    }
+    if (value instanceof Object[]) {
+      return estimateRowSize((Object[]) value);
+    }
+    // Integer, InetAddress and other small objects
+    return align(OBJECT_HEADER + 8);
+  }
+
+  private static long estimateStringSize(String string) {
+    // Compact strings store Latin-1 text in a byte per character
+    int bytesPerChar = 1;
+    for (int i = 0; i < string.length(); i++) {
+      if (string.charAt(i) > 0xFF) {
+        bytesPerChar = 2;
+        break;
+      }
+    }
+    // value, hash, coder and hashIsZero
+    return align(OBJECT_HEADER + REFERENCE + 4 + 1 + 1)
+        + align(ARRAY_HEADER + (long) bytesPerChar * string.length());
+  }
+
+  private static long estimateBigIntegerSize(BigInteger bigInteger) {
+    // signum, mag and 4 cached ints
+    long magnitude = align(ARRAY_HEADER + 4L * ((bigInteger.bitLength() + 31) / 32));
+    return align(OBJECT_HEADER + 4 + REFERENCE + 16) + magnitude;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
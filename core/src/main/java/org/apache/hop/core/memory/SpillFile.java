@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.memory;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * A temporary file with rows which didn't fit in the memory budget of a transform, see {@link
+ * SpillMemoryManager}. The rows are written first and read back once, in the same order, after
+ * which the file is deleted. A transform can write its own data in front of the rows through
+ * {@link #getOutputStream()} and read it back through {@link #getInputStream()}.
+ */
+public class SpillFile {
+
+  private static final int BUFFER_SIZE = 65536;
+
+  private final FileObject file;
+  private final int level;
+
+  private DataOutputStream outputStream;
+  private DataInputStream inputStream;
+  private long rowCount;
+
+  /**
+   * Create the temporary file.
+   *
+   * @param directory the directory of the temporary file
+   * @param prefix the prefix of the name of the temporary file
+   * @param level the number of times the rows in this file were spilled before, 0 for input rows
+   * @throws HopFileException if the file can't be created
+   */
+  public SpillFile(String directory, String prefix, int level) throws HopFileException {
+    this.file = HopVfs.createTempFile(prefix, ".tmp", directory);
+    this.level = level;
+    try {
+      outputStream =
+          new DataOutputStream(
+              new BufferedOutputStream(HopVfs.getOutputStream(file, false), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw new HopFileException(e);
+    }
+  }
+
+  /** @return the stream to write to, until {@link #finishWriting()} is called */
+  public DataOutputStream getOutputStream() {
+    return outputStream;
+  }
+
+  public void writeRow(IRowMeta rowMeta, Object[] row) throws HopFileException {
+    rowMeta.writeData(outputStream, row);
+    rowCount++;
+  }
+
+  /** Close the file for writing, the rows can be read once this is done. */
+  public void finishWriting() throws HopFileException {
+    if (outputStream == null) {
+      return;
+    }
+    try {
+      outputStream.close();
+      outputStream = null;
+    } catch (IOException e) {
+      throw new HopFileException(e);
+    }
+  }
+
+  /**
+   * @return the stream to read from once writing is finished, the first call opens the file
+   * @throws HopFileException if the file can't be opened
+   */
+  public DataInputStream getInputStream() throws HopFileException {
+    if (inputStream == null) {
+      try {
+        inputStream =
+            new DataInputStream(new BufferedInputStream(HopVfs.getInputStream(file), BUFFER_SIZE));
+      } catch (FileSystemException e) {
+        throw new HopFileException(e);
+      }
+    }
+    return inputStream;
+  }
+
+  /**
+   * Read the next row, the first call opens the file.
+   *
+   * @param rowMeta the layout of the rows in the file
+   * @return the next row or null if all rows are read
+   * @throws HopFileException if the row can't be read
+   */
+  public Object[] readRow(IRowMeta rowMeta) throws HopFileException {
+    if (rowCount == 0) {
+      return null;
+    }
+    try {
+      Object[] row = rowMeta.readData(getInputStream());
+      rowCount--;
+      return row;
+    } catch (SocketTimeoutException e) {
+      throw new HopFileException(e); // Shouldn't happen on files
+    }
+  }
+
+  /** Close the file and remove it. */
+  public void delete() {
+    IOUtils.closeQuietly(outputStream);
+    IOUtils.closeQuietly(inputStream);
+    outputStream = null;
+    inputStream = null;
+    try {
+      file.delete();
+    } catch (FileSystemException e) {
+      // Nothing left to do, the file stays behind in the temp directory
+    }
+  }
+
+  /** @return the number of rows written to or left to read from this file */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** @return the number of times the rows in this file were spilled before */
+  public int getLevel() {
+    return level;
+  }
+}
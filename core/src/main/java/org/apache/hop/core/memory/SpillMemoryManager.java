@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.memory;
+
+import org.apache.hop.core.Const;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out memory to the transforms which keep rows in memory until they have to spill them to
+ * disk: sort rows, join rows, group by, memory group by... All copies of those transforms in this
+ * JVM share a single limit, set with the {@link Const#HOP_SPILL_MEMORY_LIMIT} variable. A transform
+ * copy reserves the memory it needs through its own {@link MemoryBudget} and spills when a
+ * reservation fails.
+ *
+ * <p>Compared to looking at the free memory of the JVM this doesn't depend on the timing of the
+ * garbage collector and several transforms can't all decide to fill the same free memory.
+ */
+public final class SpillMemoryManager {
+
+  /** The default limit: half of the maximum heap size */
+  public static final String DEFAULT_LIMIT = "50%";
+
+  /** The number of bits of the hash code of a key which pick its spill partition */
+  private static final int SPILL_PARTITION_BITS = 4;
+
+  /** The number of partitions the keys are spilled to at every level */
+  public static final int NR_SPILL_PARTITIONS = 1 << SPILL_PARTITION_BITS;
+
+  /** Every level of spilling uses the next bits of the hash code, deeper there are none left */
+  public static final int MAX_SPILL_LEVEL = Integer.SIZE / SPILL_PARTITION_BITS - 1;
+
+  private static final SpillMemoryManager instance =
+      new SpillMemoryManager(
+          parseLimit(
+              System.getProperty(Const.HOP_SPILL_MEMORY_LIMIT, DEFAULT_LIMIT),
+              Runtime.getRuntime().maxMemory()));
+
+  private final AtomicLong reserved;
+  private volatile long limit;
+
+  SpillMemoryManager(long limit) {
+    this.reserved = new AtomicLong();
+    this.limit = limit;
+  }
+
+  public static SpillMemoryManager getInstance() {
+    return instance;
+  }
+
+  /**
+   * Parse a memory limit.
+   *
+   * @param value a percentage of the maximum memory like "50%" or a number of MB
+   * @param maxMemory the maximum memory in bytes
+   * @return the limit in bytes, half of the maximum memory if the value can't be parsed
+   */
+  static long parseLimit(String value, long maxMemory) {
+    String limit = Const.NVL(value, "").trim();
+    try {
+      if (limit.endsWith("%")) {
+        double percentage = Double.parseDouble(limit.substring(0, limit.length() - 1).trim());
+        return (long) (maxMemory * Math.min(Math.max(percentage, 0.0), 100.0) / 100.0);
+      }
+      return Long.parseLong(limit) * 1024L * 1024L;
+    } catch (NumberFormatException e) {
+      return maxMemory / 2;
+    }
+  }
+
+  /**
+   * Create a budget for a transform copy. Release its memory with {@link MemoryBudget#close()} when
+   * the transform is done.
+   *
+   * @param budgetLimit the maximum number of bytes the transform copy can use or 0 or less if only
+   *     the limit of this memory manager applies
+   * @return the new budget
+   */
+  public MemoryBudget createBudget(long budgetLimit) {
+    return new MemoryBudget(this, budgetLimit);
+  }
+
+  /**
+   * Create a budget for a transform copy from the memory limit of the transform. The copy can use
+   * up to the limit of the transform, as far as the limit shared by all transforms allows.
+   *
+   * @param memoryLimitMb the resolved memory limit of the transform in MB, empty or 0 if only the
+   *     limit of this memory manager applies
+   * @return the new budget
+   * @see #createBudget(long)
+   */
+  public MemoryBudget createBudgetMb(String memoryLimitMb) {
+    long limitMb = Const.toLong(memoryLimitMb, -1L);
+    return createBudget(limitMb > 0 ? limitMb * 1024L * 1024L : -1L);
+  }
+
+  /**
+   * Pick the spill partition of a key. The keys of a partition which is spilled again are spread
+   * over all partitions of the next level.
+   *
+   * @param hashCode the hash code of the key
+   * @param level the level of spilling, 0 for the first one
+   * @return the spill partition of the key at the level
+   */
+  public static int getSpillPartitionNr(int hashCode, int level) {
+    // Scramble the hash code, the keys of a partition share the bits used by the levels before
+    int hash = hashCode * 0x9E3779B9;
+    int shift = Integer.SIZE - SPILL_PARTITION_BITS * (Math.min(level, MAX_SPILL_LEVEL) + 1);
+    return (hash >>> shift) & (NR_SPILL_PARTITIONS - 1);
+  }
+
+  /**
+   * Reserve memory if there is enough left.
+   *
+   * @param bytes the number of bytes to reserve
+   * @return true if the memory was reserved
+   */
+  boolean tryReserve(long bytes) {
+    while (true) {
+      long current = reserved.get();
+      if (current + bytes > limit) {
+        return false;
+      }
+      if (reserved.compareAndSet(current, current + bytes)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Reserve memory even if that exceeds the limit.
+   *
+   * @param bytes the number of bytes to reserve
+   */
+  void forceReserve(long bytes) {
+    reserved.addAndGet(bytes);
+  }
+
+  /** @param bytes the number of previously reserved bytes to give back */
+  void release(long bytes) {
+    reserved.addAndGet(-bytes);
+  }
+
+  /** @return the number of bytes reserved by all transforms */
+  public long getReserved() {
+    return reserved.get();
+  }
+
+  /** @return the number of bytes all transforms can reserve together */
+  public long getLimit() {
+    return limit;
+  }
+
+  /** @param limit the number of bytes all transforms can reserve together */
+  public void setLimit(long limit) {
+    this.limit = limit;
+  }
+}
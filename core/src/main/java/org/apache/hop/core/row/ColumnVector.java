@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * One column of a {@link RowBatch}. Integers, dates and booleans are kept in a primitive long
+ * array, numbers in a primitive double array and strings are dictionary encoded: every distinct
+ * string is stored once and the rows refer to it with an int code. All other values are kept as
+ * objects. Null values are flagged in a bitmap.
+ *
+ * <p>The arrays are re-used when the vector is cleared so that filling the same vector over and
+ * over again doesn't allocate memory. The dictionary is an open addressing hash table of int codes
+ * so that encoding a string doesn't box anything either. Date vectors also keep the original
+ * objects, which means a {@link java.sql.Timestamp} comes back with its nanoseconds.
+ */
+public class ColumnVector {
+
+  /** How the values of a column are stored */
+  public enum Kind {
+    /** Integer, Date (milliseconds) and Boolean (0 or 1) values in a long array */
+    LONG,
+    /** Number values in a double array */
+    DOUBLE,
+    /** Dictionary encoded String values */
+    STRING,
+    /** Any other value as an object */
+    OBJECT
+  }
+
+  private static final int INITIAL_DICTIONARY_SIZE = 16;
+
+  private final Kind kind;
+  private final int valueType;
+
+  private long[] longs;
+  private double[] doubles;
+  private int[] codes;
+  private Object[] objects;
+  private long[] nulls;
+
+  /** The distinct strings by code */
+  private String[] dictionary;
+
+  private int dictionarySize;
+
+  /** The hash table of the dictionary: code + 1 of the string in the slot, 0 for an empty slot */
+  private int[] dictionarySlots;
+
+  /**
+   * Create a vector to hold the values of the given type.
+   *
+   * @param valueMeta the metadata of the values
+   * @param capacity the number of values the vector can hold
+   */
+  public ColumnVector(IValueMeta valueMeta, int capacity) {
+    this.kind = getKind(valueMeta);
+    this.valueType = valueMeta.getType();
+    this.nulls = new long[bitmapSize(capacity)];
+    switch (kind) {
+      case LONG:
+        longs = new long[capacity];
+        if (valueType == IValueMeta.TYPE_DATE) {
+          objects = new Object[capacity];
+        }
+        break;
+      case DOUBLE:
+        doubles = new double[capacity];
+        break;
+      case STRING:
+        codes = new int[capacity];
+        dictionary = new String[INITIAL_DICTIONARY_SIZE];
+        dictionarySlots = new int[INITIAL_DICTIONARY_SIZE * 2];
+        break;
+      default:
+        objects = new Object[capacity];
+        break;
+    }
+  }
+
+  /**
+   * Find out how values with the given metadata are stored in a vector. Only values with normal
+   * storage are kept in primitive form.
+   *
+   * @param valueMeta the value metadata
+   * @return the kind of vector to use
+   */
+  public static Kind getKind(IValueMeta valueMeta) {
+    if (valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return Kind.OBJECT;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_BOOLEAN:
+        return Kind.LONG;
+      case IValueMeta.TYPE_NUMBER:
+        return Kind.DOUBLE;
+      case IValueMeta.TYPE_STRING:
+        return Kind.STRING;
+      default:
+        return Kind.OBJECT;
+    }
+  }
+
+  private static int bitmapSize(int capacity) {
+    return (capacity + 63) >>> 6;
+  }
+
+  /** @return the number of values this vector can hold */
+  public int getCapacity() {
+    switch (kind) {
+      case LONG:
+        return longs.length;
+      case DOUBLE:
+        return doubles.length;
+      case STRING:
+        return codes.length;
+      default:
+        return objects.length;
+    }
+  }
+
+  /**
+   * Check if this vector can hold values with the given metadata without being re-allocated.
+   *
+   * @param valueMeta the value metadata
+   * @param capacity the number of values to hold
+   * @return true if this vector can be re-used
+   */
+  public boolean isCompatible(IValueMeta valueMeta, int capacity) {
+    return valueMeta.getType() == valueType
+        && getKind(valueMeta) == kind
+        && getCapacity() >= capacity;
+  }
+
+  /** Clear the null flags and the string dictionary. */
+  public void clear() {
+    Arrays.fill(nulls, 0L);
+    if (dictionarySize > 0) {
+      Arrays.fill(dictionary, 0, dictionarySize, null);
+      Arrays.fill(dictionarySlots, 0);
+      dictionarySize = 0;
+    }
+    if (objects != null) {
+      Arrays.fill(objects, null);
+    }
+  }
+
+  /**
+   * Store a value in the vector.
+   *
+   * @param index the row index
+   * @param value the value as found in an Object[] row
+   */
+  public void set(int index, Object value) {
+    if (value == null) {
+      setNull(index);
+      return;
+    }
+    nulls[index >>> 6] &= ~(1L << index);
+    switch (kind) {
+      case LONG:
+        if (valueType == IValueMeta.TYPE_DATE) {
+          longs[index] = ((Date) value).getTime();
+          objects[index] = value;
+        } else if (valueType == IValueMeta.TYPE_BOOLEAN) {
+          longs[index] = ((Boolean) value) ? 1L : 0L;
+        } else {
+          longs[index] = (Long) value;
+        }
+        break;
+      case DOUBLE:
+        doubles[index] = (Double) value;
+        break;
+      case STRING:
+        codes[index] = encode((String) value);
+        break;
+      default:
+        objects[index] = value;
+        break;
+    }
+  }
+
+  private int encode(String value) {
+    int slot = findSlot(value);
+    if (dictionarySlots[slot] != 0) {
+      return dictionarySlots[slot] - 1;
+    }
+    int code = dictionarySize++;
+    if (code == dictionary.length) {
+      dictionary = Arrays.copyOf(dictionary, code * 2);
+    }
+    dictionary[code] = value;
+    dictionarySlots[slot] = code + 1;
+    if (dictionarySize * 2 > dictionarySlots.length) {
+      growDictionarySlots();
+    }
+    return code;
+  }
+
+  /** Double the hash table of the dictionary so that it stays at most half full. */
+  private void growDictionarySlots() {
+    dictionarySlots = new int[dictionarySlots.length * 2];
+    int mask = dictionarySlots.length - 1;
+    for (int code = 0; code < dictionarySize; code++) {
+      int slot = slotOf(dictionary[code], mask);
+      while (dictionarySlots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      dictionarySlots[slot] = code + 1;
+    }
+  }
+
+  /** @return the slot of the string in the dictionary hash table or the empty slot to put it in */
+  private int findSlot(String value) {
+    int mask = dictionarySlots.length - 1;
+    int slot = slotOf(value, mask);
+    for (int entry = dictionarySlots[slot]; entry != 0; entry = dictionarySlots[slot]) {
+      if (dictionary[entry - 1].equals(value)) {
+        break;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int slotOf(String value, int mask) {
+    int hash = value.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /**
+   * Get a value in the form used in Object[] rows. This boxes primitive values.
+   *
+   * @param index the row index
+   * @return the value or null
+   */
+  public Object get(int index) {
+    if (isNull(index)) {
+      return null;
+    }
+    switch (kind) {
+      case LONG:
+        if (valueType == IValueMeta.TYPE_DATE) {
+          Object date = objects[index];
+          return date != null ? date : new Date(longs[index]);
+        } else if (valueType == IValueMeta.TYPE_BOOLEAN) {
+          return longs[index] != 0L;
+        } else {
+          return longs[index];
+        }
+      case DOUBLE:
+        return doubles[index];
+      case STRING:
+        return dictionary[codes[index]];
+      default:
+        return objects[index];
+    }
+  }
+
+  /** @param index the row index to flag as null */
+  public void setNull(int index) {
+    nulls[index >>> 6] |= 1L << index;
+    if (objects != null) {
+      objects[index] = null;
+    }
+  }
+
+  /**
+   * @param index the row index
+   * @return true if the value is null
+   */
+  public boolean isNull(int index) {
+    return (nulls[index >>> 6] & (1L << index)) != 0L;
+  }
+
+  /**
+   * @param index the row index
+   * @return the value of a LONG vector. Undefined for null values.
+   */
+  public long getLong(int index) {
+    return longs[index];
+  }
+
+  /**
+   * Store a value in a LONG vector.
+   *
+   * @param index the row index
+   * @param value the value
+   */
+  public void setLong(int index, long value) {
+    nulls[index >>> 6] &= ~(1L << index);
+    longs[index] = value;
+    if (objects != null) {
+      objects[index] = null;
+    }
+  }
+
+  /**
+   * @param index the row index
+   * @return the value of a DOUBLE vector. Undefined for null values.
+   */
+  public double getDouble(int index) {
+    return doubles[index];
+  }
+
+  /**
+   * Store a value in a DOUBLE vector.
+   *
+   * @param index the row index
+   * @param value the value
+   */
+  public void setDouble(int index, double value) {
+    nulls[index >>> 6] &= ~(1L << index);
+    doubles[index] = value;
+  }
+
+  /**
+   * @param index the row index
+   * @return the dictionary code of the value in a STRING vector. Undefined for null values.
+   */
+  public int getCode(int index) {
+    return codes[index];
+  }
+
+  /**
+   * @param value the string to look up
+   * @return the dictionary code of the string in this vector or -1 if no row holds this string
+   */
+  public int getCode(String value) {
+    return dictionarySlots[findSlot(value)] - 1;
+  }
+
+  /** @return the distinct strings of a STRING vector, indexed by their code. This is a view. */
+  public List<String> getDictionary() {
+    return Arrays.asList(dictionary).subList(0, dictionarySize);
+  }
+
+  /**
+   * @return the long values, not a copy. Only for LONG vectors. Use {@link #setLong(int, long)} to
+   *     change a date, the original Date objects take precedence otherwise.
+   */
+  public long[] getLongs() {
+    return longs;
+  }
+
+  /** @return the double values, not a copy. Only for DOUBLE vectors. */
+  public double[] getDoubles() {
+    return doubles;
+  }
+
+  /** @return how the values are stored */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /** @return the value type, one of the IValueMeta.TYPE_ constants */
+  public int getValueType() {
+    return valueType;
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.util.Arrays;
+
+/**
+ * A batch of rows stored column by column: one {@link ColumnVector} per field of the row metadata.
+ * Primitive values are kept unboxed which makes it cheap to evaluate expressions over a lot of rows
+ * at once.
+ *
+ * <p>A batch keeps a reference to the Object[] rows it was loaded from, so a transform which only
+ * decides which rows to pass on (like a filter) can hand over the original rows without converting
+ * anything back. A column is only filled the first time it's asked for, so evaluating a condition
+ * only converts the fields the condition refers to. Batches are meant to be re-used: {@link
+ * #load(IRowMeta, Object[][], int)} only allocates new vectors when the row layout or the number of
+ * rows changes.
+ */
+public class RowBatch {
+
+  private IRowMeta rowMeta;
+  private ColumnVector[] columns;
+  private boolean[] loaded;
+  private Object[][] rows;
+  private int size;
+  private int capacity;
+
+  /** @param capacity the number of rows the batch can hold */
+  public RowBatch(int capacity) {
+    this.capacity = capacity;
+    this.columns = new ColumnVector[0];
+    this.loaded = new boolean[0];
+  }
+
+  /**
+   * Load rows into this batch. The rows are converted to columns when a column is first asked for.
+   *
+   * @param rowMeta the metadata of the rows
+   * @param rows the rows to load
+   * @param nrRows the number of rows to load from the start of the array
+   */
+  public void load(IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    if (nrRows > capacity) {
+      capacity = nrRows;
+    }
+    int nrFields = rowMeta.size();
+    if (columns.length != nrFields) {
+      columns = Arrays.copyOf(columns, nrFields);
+      loaded = new boolean[nrFields];
+    } else {
+      Arrays.fill(loaded, false);
+    }
+    this.rowMeta = rowMeta;
+    this.rows = rows;
+    this.size = nrRows;
+  }
+
+  /**
+   * Fill the vector of a field from the rows. An existing vector is re-used if it can hold the
+   * values.
+   */
+  private ColumnVector loadColumn(int index) {
+    IValueMeta valueMeta = rowMeta.getValueMeta(index);
+    ColumnVector column = columns[index];
+    if (column == null || !column.isCompatible(valueMeta, capacity)) {
+      column = new ColumnVector(valueMeta, capacity);
+      columns[index] = column;
+    } else {
+      column.clear();
+    }
+    for (int r = 0; r < size; r++) {
+      Object[] row = rows[r];
+      column.set(r, index < row.length ? row[index] : null);
+    }
+    loaded[index] = true;
+    return column;
+  }
+
+  /**
+   * Convert the batch back to rows. New row arrays are allocated with room for extra fields. Fields
+   * which were never asked for are copied from the original rows as they are.
+   *
+   * @return the rows in this batch
+   */
+  public Object[][] toRows() {
+    Object[][] result = new Object[size][];
+    int nrFields = columns.length;
+    for (int r = 0; r < size; r++) {
+      Object[] original = rows[r];
+      Object[] row = RowDataUtil.allocateRowData(nrFields);
+      for (int c = 0; c < nrFields; c++) {
+        if (loaded[c]) {
+          row[c] = columns[c].get(r);
+        } else if (c < original.length) {
+          row[c] = original[c];
+        }
+      }
+      result[r] = row;
+    }
+    return result;
+  }
+
+  /**
+   * Get the row the batch was loaded from.
+   *
+   * @param index the row index
+   * @return the original Object[] row
+   */
+  public Object[] getRow(int index) {
+    return rows[index];
+  }
+
+  /**
+   * @param index the field index in the row metadata
+   * @return the vector holding the values of the field
+   */
+  public ColumnVector getColumn(int index) {
+    return loaded[index] ? columns[index] : loadColumn(index);
+  }
+
+  /**
+   * @param fieldName the name of the field
+   * @return the vector holding the values of the field or null if the field doesn't exist
+   */
+  public ColumnVector getColumn(String fieldName) {
+    int index = rowMeta.indexOfValue(fieldName);
+    return index < 0 ? null : getColumn(index);
+  }
+
+  /**
+   * @param index the field index in the row metadata
+   * @return true if the values of the field were converted to a vector since the last load
+   */
+  public boolean isColumnLoaded(int index) {
+    return loaded[index];
+  }
+
+  /** @return the metadata of the rows in the batch */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /** @return the number of rows in the batch */
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of rows the batch can hold without growing */
+  public int getCapacity() {
+    return capacity;
+  }
+}
@@ -42,6 +42,9 @@ public class RowMeta implements IRowMeta {
   List<IValueMeta> valueMetaList;
   List<Integer> needRealClone;
 
+  /** Read-only view of the row metadata, set by {@link #freeze()} and dropped on any change. */
+  private volatile FrozenView frozen;
+
   public RowMeta() {
     this(new ArrayList<>(), new RowMetaCache());
   }
@@ -69,6 +72,34 @@ public class RowMeta implements IRowMeta {
     this.needRealClone = new ArrayList<>();
   }
 
+  /**
+   * Freeze this row metadata: until the next modification, the value metadata is served from an
+   * array together with a pre-computed name to index map, without taking the read lock. This is
+   * meant for row metadata which is no longer changed once rows are being sent with it, like the
+   * metadata a transform hands over to its output row sets.
+   *
+   * <p>Modifying a frozen row metadata object is still allowed: it simply falls back to the
+   * regular, locked behavior. Many transforms add fields to the row metadata they received.
+   *
+   * @return this row metadata object
+   */
+  public RowMeta freeze() {
+    lock.writeLock().lock();
+    try {
+      if (frozen == null) {
+        frozen = new FrozenView(valueMetaList);
+      }
+      return this;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** @return true if this row metadata is frozen and wasn't modified since */
+  public boolean isFrozen() {
+    return frozen != null;
+  }
+
   @Override
   public RowMeta clone() {
     lock.readLock().lock();
@@ -123,6 +154,10 @@ public class RowMeta implements IRowMeta {
   /** @return the list of value metadata */
   @Override
   public List<IValueMeta> getValueMetaList() {
+    FrozenView view = frozen;
+    if (view != null) {
+      return view.list;
+    }
     List<IValueMeta> copy;
 
     lock.readLock().lock();
@@ -140,6 +175,7 @@ public class RowMeta implements IRowMeta {
   public void setValueMetaList(List<IValueMeta> valueMetaList) {
     lock.writeLock().lock();
     try {
+      frozen = null;
       this.valueMetaList = valueMetaList;
       this.cache.invalidate();
       for (int i = 0, len = valueMetaList.size(); i < len; i++) {
@@ -155,6 +191,10 @@ public class RowMeta implements IRowMeta {
   /** @return the number of values in the row */
   @Override
   public int size() {
+    FrozenView view = frozen;
+    if (view != null) {
+      return view.valueMetas.length;
+    }
     lock.readLock().lock();
     try {
       return valueMetaList.size();
@@ -166,6 +206,10 @@ public class RowMeta implements IRowMeta {
   /** @return true if there are no elements in the row metadata */
   @Override
   public boolean isEmpty() {
+    FrozenView view = frozen;
+    if (view != null) {
+      return view.valueMetas.length == 0;
+    }
     lock.readLock().lock();
     try {
       return valueMetaList.isEmpty();
@@ -189,6 +233,7 @@ public class RowMeta implements IRowMeta {
     if (meta != null) {
       lock.writeLock().lock();
       try {
+        frozen = null;
         IValueMeta newMeta;
         Integer existsIdx = cache.findAndCompare(meta.getName(), valueMetaList);
         if (existsIdx == null) {
@@ -218,6 +263,7 @@ public class RowMeta implements IRowMeta {
     if (meta != null) {
       lock.writeLock().lock();
       try {
+        frozen = null;
         IValueMeta newMeta;
         Integer existsIdx = cache.findAndCompare(meta.getName(), valueMetaList);
         if (existsIdx == null) {
@@ -242,6 +288,10 @@ public class RowMeta implements IRowMeta {
    */
   @Override
   public IValueMeta getValueMeta(int index) {
+    FrozenView view = frozen;
+    if (view != null) {
+      return (index >= 0) && (index < view.valueMetas.length) ? view.valueMetas[index] : null;
+    }
     lock.readLock().lock();
     try {
       if ((index >= 0) && (index < valueMetaList.size())) {
@@ -265,6 +315,7 @@ public class RowMeta implements IRowMeta {
     if (valueMeta != null) {
       lock.writeLock().lock();
       try {
+        frozen = null;
         IValueMeta old = valueMetaList.get(index);
         IValueMeta newMeta = valueMeta;
 
@@ -437,6 +488,13 @@ public class RowMeta implements IRowMeta {
    */
   @Override
   public Object[] cloneRow(Object[] objects, Object[] newObjects) throws HopValueException {
+    FrozenView view = frozen;
+    if (view != null) {
+      for (int i : view.needRealClone) {
+        newObjects[i] = view.valueMetas[i].cloneValueData(objects[i]);
+      }
+      return newObjects;
+    }
     List<Integer> list = getOrCreateValuesThatNeedRealClone(valueMetaList);
     lock.readLock().lock();
     try {
@@ -511,6 +569,13 @@ public class RowMeta implements IRowMeta {
     if (valueName == null) {
       return -1;
     }
+    FrozenView view = frozen;
+    if (view != null) {
+      int index = view.indexOf(valueName);
+      if (index >= 0) {
+        return index;
+      }
+    }
 
     lock.readLock().lock();
     try {
@@ -542,6 +607,13 @@ public class RowMeta implements IRowMeta {
    */
   @Override
   public IValueMeta searchValueMeta(String valueName) {
+    FrozenView view = frozen;
+    if (view != null && valueName != null) {
+      int index = view.indexOf(valueName);
+      if (index >= 0) {
+        return view.valueMetas[index];
+      }
+    }
     lock.readLock().lock();
     try {
       Integer index = indexOfValue(valueName);
@@ -585,6 +657,7 @@ public class RowMeta implements IRowMeta {
   public void mergeRowMeta(IRowMeta r, String originTransformName) {
     lock.writeLock().lock();
     try {
+      frozen = null;
       for (int x = 0; x < r.size(); x++) {
         IValueMeta field = r.getValueMeta(x);
         if (searchValueMeta(field.getName()) == null) {
@@ -763,6 +836,7 @@ public class RowMeta implements IRowMeta {
   public void clear() {
     lock.writeLock().lock();
     try {
+      frozen = null;
       valueMetaList.clear();
       cache.invalidate();
       needRealClone = null;
@@ -775,6 +849,7 @@ public class RowMeta implements IRowMeta {
   public void removeValueMeta(String valueName) throws HopValueException {
     lock.writeLock().lock();
     try {
+      frozen = null;
       int index = indexOfValue(valueName);
       if (index < 0) {
         throw new HopValueException(
@@ -790,6 +865,7 @@ public class RowMeta implements IRowMeta {
   public void removeValueMeta(int index) {
     lock.writeLock().lock();
     try {
+      frozen = null;
       valueMetaList.remove(index);
       cache.invalidate();
       needRealClone = null;
@@ -1262,4 +1338,51 @@ public class RowMeta implements IRowMeta {
       return index;
     }
   }
+
+  /**
+   * The immutable state of a frozen row metadata object. Since value metadata objects can still be
+   * renamed after the fact, a name found in the index is verified before it is returned. Anything
+   * not found is looked up the regular way.
+   */
+  private static final class FrozenView {
+    final IValueMeta[] valueMetas;
+    final List<IValueMeta> list;
+    final int[] needRealClone;
+    final Map<String, Integer> exactIndex;
+    final Map<String, Integer> lowerCaseIndex;
+
+    FrozenView(List<IValueMeta> valueMetaList) {
+      valueMetas = valueMetaList.toArray(new IValueMeta[0]);
+      list = Collections.unmodifiableList(Arrays.asList(valueMetas));
+      exactIndex = new HashMap<>();
+      lowerCaseIndex = new HashMap<>();
+      int[] realClone = new int[valueMetas.length];
+      int nrRealClone = 0;
+      for (int i = 0; i < valueMetas.length; i++) {
+        IValueMeta valueMeta = valueMetas[i];
+        if (valueMeta.requiresRealClone()) {
+          realClone[nrRealClone++] = i;
+        }
+        String name = valueMeta.getName();
+        if (name != null) {
+          // The first field with a given name in any case wins, just like in a regular lookup
+          //
+          Integer first = lowerCaseIndex.putIfAbsent(name.toLowerCase(), i);
+          exactIndex.putIfAbsent(name, first == null ? i : first);
+        }
+      }
+      needRealClone = Arrays.copyOf(realClone, nrRealClone);
+    }
+
+    int indexOf(String valueName) {
+      Integer index = exactIndex.get(valueName);
+      if (index == null) {
+        index = lowerCaseIndex.get(valueName.toLowerCase());
+      }
+      if (index != null && valueName.equalsIgnoreCase(valueMetas[index].getName())) {
+        return index;
+      }
+      return -1;
+    }
+  }
 }
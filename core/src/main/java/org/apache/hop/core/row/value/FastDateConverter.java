@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.chrono.IsoChronology;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * An immutable, thread-safe date converter for masks made up of fixed width numeric fields (yyyy,
+ * MM, dd, HH, mm, ss and SSS) and literal separators, like yyyy-MM-dd or yyyy/MM/dd HH:mm:ss.SSS.
+ *
+ * <p>It is compiled from the {@link SimpleDateFormat} of a value metadata object and gives the same
+ * results for the values it handles. Anything else, like dates before 1901 or after 2037 in a time
+ * zone with daylight saving time, local times in a transition, invalid field values or text that
+ * doesn't exactly follow the mask, is not handled: {@link #format(Date)} and {@link
+ * #parse(String)} return null and the caller falls back to the {@link SimpleDateFormat}.
+ */
+final class FastDateConverter {
+
+  private static final int LITERAL = -1;
+  private static final int YEAR = 0;
+  private static final int MONTH = 1;
+  private static final int DAY = 2;
+  private static final int HOUR = 3;
+  private static final int MINUTE = 4;
+  private static final int SECOND = 5;
+  private static final int MILLISECOND = 6;
+
+  private static final char[] FIELD_LETTERS = {'y', 'M', 'd', 'H', 'm', 's', 'S'};
+  private static final int[] FIELD_WIDTHS = {4, 2, 2, 2, 2, 2, 3};
+
+  /**
+   * Time zones in java.time know the local mean time offsets in use before 1900, java.util.TimeZone
+   * doesn't. Older dates are left to SimpleDateFormat, which also uses the Julian calendar before
+   * 1583.
+   */
+  private static final int MIN_YEAR = 1901;
+
+  /**
+   * After 2037 java.util.TimeZone only applies the last known daylight saving time rules while
+   * java.time still knows about explicit transitions of some time zones.
+   */
+  private static final int MAX_YEAR_WITH_RULES = 2037;
+
+  private static final int MAX_YEAR = 9999;
+
+  private final int[] fields;
+  private final char[] literals;
+  private final int length;
+  private final ZoneRules rules;
+  private final int maxYear;
+
+  private FastDateConverter(int[] fields, char[] literals, int length, ZoneRules rules) {
+    this.fields = fields;
+    this.literals = literals;
+    this.length = length;
+    this.rules = rules;
+    this.maxYear = rules.isFixedOffset() ? MAX_YEAR : MAX_YEAR_WITH_RULES;
+  }
+
+  /**
+   * Compile the given date format.
+   *
+   * @param dateFormat the date format to compile
+   * @return the converter or null if the date format is not supported
+   */
+  static FastDateConverter compile(SimpleDateFormat dateFormat) {
+    Calendar calendar = dateFormat.getCalendar();
+    if (!(calendar instanceof GregorianCalendar)
+        || !((GregorianCalendar) calendar)
+            .getGregorianChange()
+            .equals(new GregorianCalendar().getGregorianChange())) {
+      return null;
+    }
+    NumberFormat numberFormat = dateFormat.getNumberFormat();
+    if (!(numberFormat instanceof DecimalFormat)
+        || ((DecimalFormat) numberFormat).getDecimalFormatSymbols().getZeroDigit() != '0') {
+      return null;
+    }
+
+    String pattern = dateFormat.toPattern();
+    List<Integer> fieldList = new ArrayList<>();
+    StringBuilder literalList = new StringBuilder();
+    int length = 0;
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if (c == '\'') {
+        return null;
+      }
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        int count = 1;
+        while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+          count++;
+        }
+        int field = getField(c, count);
+        if (field == LITERAL) {
+          return null;
+        }
+        fieldList.add(field);
+        literalList.append(' ');
+        length += count;
+        i += count;
+      } else {
+        fieldList.add(LITERAL);
+        literalList.append(c);
+        length++;
+        i++;
+      }
+    }
+
+    int[] fields = new int[fieldList.size()];
+    for (int f = 0; f < fields.length; f++) {
+      fields[f] = fieldList.get(f);
+    }
+    return new FastDateConverter(
+        fields,
+        literalList.toString().toCharArray(),
+        length,
+        calendar.getTimeZone().toZoneId().getRules());
+  }
+
+  private static int getField(char letter, int count) {
+    for (int field = 0; field < FIELD_LETTERS.length; field++) {
+      if (FIELD_LETTERS[field] == letter && FIELD_WIDTHS[field] == count) {
+        return field;
+      }
+    }
+    return LITERAL;
+  }
+
+  /**
+   * Format a date.
+   *
+   * @param date the date to format, not null
+   * @return the formatted date or null if the date can't be formatted by this converter
+   */
+  String format(Date date) {
+    Instant instant = Instant.ofEpochMilli(date.getTime());
+    LocalDateTime dateTime =
+        LocalDateTime.ofEpochSecond(
+            instant.getEpochSecond(), instant.getNano(), rules.getOffset(instant));
+    if (dateTime.getYear() < MIN_YEAR || dateTime.getYear() > maxYear) {
+      return null;
+    }
+
+    char[] chars = new char[length];
+    int position = 0;
+    for (int i = 0; i < fields.length; i++) {
+      switch (fields[i]) {
+        case YEAR:
+          position = appendDigits(chars, position, dateTime.getYear(), 4);
+          break;
+        case MONTH:
+          position = appendDigits(chars, position, dateTime.getMonthValue(), 2);
+          break;
+        case DAY:
+          position = appendDigits(chars, position, dateTime.getDayOfMonth(), 2);
+          break;
+        case HOUR:
+          position = appendDigits(chars, position, dateTime.getHour(), 2);
+          break;
+        case MINUTE:
+          position = appendDigits(chars, position, dateTime.getMinute(), 2);
+          break;
+        case SECOND:
+          position = appendDigits(chars, position, dateTime.getSecond(), 2);
+          break;
+        case MILLISECOND:
+          position = appendDigits(chars, position, dateTime.getNano() / 1000000, 3);
+          break;
+        default:
+          chars[position++] = literals[i];
+          break;
+      }
+    }
+    return new String(chars);
+  }
+
+  private static int appendDigits(char[] chars, int position, int value, int width) {
+    for (int i = position + width - 1; i >= position; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return position + width;
+  }
+
+  /**
+   * Parse a date.
+   *
+   * @param string the string to parse, not null
+   * @return the date or null if the string can't be parsed by this converter
+   */
+  Date parse(String string) {
+    if (string.length() != length) {
+      return null;
+    }
+
+    // The same defaults as SimpleDateFormat: January 1st 1970, midnight
+    //
+    int year = 1970;
+    int month = 1;
+    int day = 1;
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int millisecond = 0;
+
+    int position = 0;
+    for (int i = 0; i < fields.length; i++) {
+      int field = fields[i];
+      if (field == LITERAL) {
+        if (string.charAt(position++) != literals[i]) {
+          return null;
+        }
+        continue;
+      }
+      int value = 0;
+      for (int end = position + FIELD_WIDTHS[field]; position < end; position++) {
+        char c = string.charAt(position);
+        if (c < '0' || c > '9') {
+          return null;
+        }
+        value = value * 10 + (c - '0');
+      }
+      switch (field) {
+        case YEAR:
+          year = value;
+          break;
+        case MONTH:
+          month = value;
+          break;
+        case DAY:
+          day = value;
+          break;
+        case HOUR:
+          hour = value;
+          break;
+        case MINUTE:
+          minute = value;
+          break;
+        case SECOND:
+          second = value;
+          break;
+        default:
+          millisecond = value;
+          break;
+      }
+    }
+
+    // Out of range values are rejected or rolled over by SimpleDateFormat depending on leniency
+    //
+    if (year < MIN_YEAR
+        || year > maxYear
+        || month < 1
+        || month > 12
+        || day < 1
+        || day > getDaysInMonth(year, month)
+        || hour > 23
+        || minute > 59
+        || second > 59) {
+      return null;
+    }
+
+    LocalDateTime dateTime =
+        LocalDateTime.of(year, month, day, hour, minute, second, millisecond * 1000000);
+    if (rules.getTransition(dateTime) != null) {
+      // A gap or an overlap in the local time line
+      return null;
+    }
+    ZoneOffset offset = rules.getOffset(dateTime);
+    return new Date(dateTime.toEpochSecond(offset) * 1000L + millisecond);
+  }
+
+  private static int getDaysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        return IsoChronology.INSTANCE.isLeapYear(year) ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+}
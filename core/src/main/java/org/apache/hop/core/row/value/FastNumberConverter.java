@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * An immutable, thread-safe number converter compiled from the {@link DecimalFormat} of a value
+ * metadata object. It handles masks like #.#, 0.00, #,##0.### or ####0;-####0 and gives the same
+ * results as the decimal format for the values it handles:
+ *
+ * <ul>
+ *   <li>Formatting numbers which don't need to be rounded to fit the maximum number of fraction
+ *       digits, and formatting integers.
+ *   <li>Parsing plain numbers: digits with an optional decimal symbol between the prefix and suffix
+ *       of the format, like -12.5
+ * </ul>
+ *
+ * For anything else, like exponents, percentages, currencies, grouping symbols in the text to parse
+ * or numbers which need rounding, null is returned and the caller falls back to the {@link
+ * DecimalFormat}.
+ */
+final class FastNumberConverter {
+
+  /** Up to 18 digits always fit in a long, also when parsed by the decimal format */
+  private static final int MAX_PARSE_DIGITS = 18;
+
+  private final String positivePrefix;
+  private final String positiveSuffix;
+  private final String negativePrefix;
+  private final String negativeSuffix;
+  private final int minimumIntegerDigits;
+  private final int maximumIntegerDigits;
+  private final int minimumFractionDigits;
+  private final int maximumFractionDigits;
+  private final int groupingSize;
+  private final boolean decimalSeparatorAlwaysShown;
+  private final char zeroDigit;
+  private final char groupingSeparator;
+  private final char decimalSeparator;
+  private final boolean parseSupported;
+
+  private FastNumberConverter(DecimalFormat format) {
+    DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+    positivePrefix = format.getPositivePrefix();
+    positiveSuffix = format.getPositiveSuffix();
+    negativePrefix = format.getNegativePrefix();
+    negativeSuffix = format.getNegativeSuffix();
+    minimumIntegerDigits = format.getMinimumIntegerDigits();
+    maximumIntegerDigits = format.getMaximumIntegerDigits();
+    minimumFractionDigits = format.getMinimumFractionDigits();
+    maximumFractionDigits = format.getMaximumFractionDigits();
+    groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+    decimalSeparatorAlwaysShown = format.isDecimalSeparatorAlwaysShown();
+    zeroDigit = symbols.getZeroDigit();
+    groupingSeparator = symbols.getGroupingSeparator();
+    decimalSeparator = symbols.getDecimalSeparator();
+
+    parseSupported =
+        zeroDigit == '0'
+            && !format.isParseIntegerOnly()
+            && decimalSeparator != groupingSeparator
+            && !isDigit(decimalSeparator)
+            && !containsDigitOrSeparator(positivePrefix)
+            && !containsDigitOrSeparator(positiveSuffix)
+            && !containsDigitOrSeparator(negativePrefix)
+            && !containsDigitOrSeparator(negativeSuffix)
+            && !(positivePrefix.equals(negativePrefix) && positiveSuffix.equals(negativeSuffix));
+  }
+
+  /**
+   * Compile the given decimal format.
+   *
+   * @param format the decimal format to compile
+   * @return the converter or null if the decimal format is not supported
+   */
+  static FastNumberConverter compile(DecimalFormat format) {
+    String pattern = format.toPattern();
+    if (format.getMultiplier() != 1
+        || pattern.indexOf('E') >= 0
+        || pattern.indexOf('%') >= 0
+        || pattern.indexOf('\u2030') >= 0
+        || pattern.indexOf('\u00A4') >= 0
+        || pattern.indexOf('\'') >= 0) {
+      return null;
+    }
+    return new FastNumberConverter(format);
+  }
+
+  /**
+   * Format a number.
+   *
+   * @param number the number to format, not null
+   * @return the formatted number or null if the number would need rounding or is not finite
+   */
+  String format(double number) {
+    if (Double.isNaN(number) || Double.isInfinite(number)) {
+      return null;
+    }
+    if (number == 0.0d && 1 / number < 0) {
+      // Negative zero
+      return null;
+    }
+    boolean negative = number < 0;
+    String string = Double.toString(Math.abs(number));
+
+    // Collect the significant digits and the position of the decimal point, like 12.5 -> 125, 2
+    // or 1.0E-5 -> 1, -4
+    //
+    char[] digits = new char[string.length()];
+    int count = 0;
+    int decimalAt = -1;
+    int exponent = 0;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c == '.') {
+        decimalAt = count;
+      } else if (c == 'E') {
+        exponent = Integer.parseInt(string.substring(i + 1));
+        break;
+      } else {
+        digits[count++] = c;
+      }
+    }
+    if (decimalAt < 0) {
+      decimalAt = count;
+    }
+    return format(negative, digits, count, decimalAt + exponent, false);
+  }
+
+  /**
+   * Format an integer.
+   *
+   * @param number the integer to format
+   * @return the formatted integer or null if it can't be formatted by this converter
+   */
+  String format(long number) {
+    if (number == Long.MIN_VALUE) {
+      return null;
+    }
+    char[] digits = Long.toString(Math.abs(number)).toCharArray();
+    return format(number < 0, digits, digits.length, digits.length, true);
+  }
+
+  private String format(
+      boolean negative, char[] digits, int count, int decimalAt, boolean isInteger) {
+    // Strip leading and trailing zeros
+    //
+    int start = 0;
+    while (start < count && digits[start] == '0') {
+      start++;
+      decimalAt--;
+    }
+    while (count > start && digits[count - 1] == '0') {
+      count--;
+    }
+    count -= start;
+    if (count == 0) {
+      decimalAt = 0;
+    }
+
+    int fractionDigits = Math.max(count - decimalAt, 0);
+    if (fractionDigits > maximumFractionDigits || decimalAt > maximumIntegerDigits) {
+      // Rounding or truncation is needed
+      return null;
+    }
+
+    StringBuilder builder = new StringBuilder(count + 16);
+    builder.append(negative ? negativePrefix : positivePrefix);
+
+    int integerDigits = Math.max(minimumIntegerDigits, Math.max(decimalAt, 0));
+    for (int i = integerDigits - 1; i >= 0; i--) {
+      int index = decimalAt - 1 - i;
+      builder.append(index >= 0 && index < count ? localize(digits[start + index]) : zeroDigit);
+      if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+        builder.append(groupingSeparator);
+      }
+    }
+
+    boolean fractionPresent = minimumFractionDigits > 0 || (!isInteger && fractionDigits > 0);
+    if (!fractionPresent && integerDigits == 0) {
+      builder.append(zeroDigit);
+    }
+    if (decimalSeparatorAlwaysShown || fractionPresent) {
+      builder.append(decimalSeparator);
+    }
+    int printedFractionDigits = Math.max(minimumFractionDigits, isInteger ? 0 : fractionDigits);
+    for (int i = 0; i < printedFractionDigits; i++) {
+      int index = decimalAt + i;
+      builder.append(index >= 0 && index < count ? localize(digits[start + index]) : zeroDigit);
+    }
+
+    builder.append(negative ? negativeSuffix : positiveSuffix);
+    return builder.toString();
+  }
+
+  private char localize(char digit) {
+    return (char) (zeroDigit + (digit - '0'));
+  }
+
+  /**
+   * Parse a number.
+   *
+   * @param string the string to parse, not null
+   * @return the number or null if the string can't be parsed by this converter
+   */
+  Double parseNumber(String string) {
+    String plain = toPlainNumber(string, true);
+    if (plain == null) {
+      return null;
+    }
+    return Double.valueOf(Double.parseDouble(plain));
+  }
+
+  /**
+   * Parse an integer.
+   *
+   * @param string the string to parse, not null
+   * @return the integer or null if the string can't be parsed by this converter
+   */
+  Long parseInteger(String string) {
+    String plain = toPlainNumber(string, false);
+    if (plain == null) {
+      return null;
+    }
+    return Long.valueOf(Long.parseLong(plain));
+  }
+
+  /**
+   * Verify that the string is a plain number with the prefix and suffix of the format and convert
+   * it to the format understood by the Java number parsers.
+   */
+  private String toPlainNumber(String string, boolean allowDecimal) {
+    if (!parseSupported) {
+      return null;
+    }
+
+    // Like the decimal format, use the longest matching prefix
+    //
+    boolean positive = string.startsWith(positivePrefix);
+    boolean negative = string.startsWith(negativePrefix);
+    if (positive && negative) {
+      if (positivePrefix.length() == negativePrefix.length()) {
+        return null;
+      }
+      positive = positivePrefix.length() > negativePrefix.length();
+      negative = !positive;
+    }
+    if (!positive && !negative) {
+      return null;
+    }
+    String prefix = negative ? negativePrefix : positivePrefix;
+    String suffix = negative ? negativeSuffix : positiveSuffix;
+    int start = prefix.length();
+    int end = string.length() - suffix.length();
+    if (end < start || !string.endsWith(suffix)) {
+      return null;
+    }
+
+    int nrDigits = 0;
+    int decimalIndex = -1;
+    for (int i = start; i < end; i++) {
+      char c = string.charAt(i);
+      if (isDigit(c)) {
+        nrDigits++;
+      } else if (c == decimalSeparator && allowDecimal && decimalIndex < 0) {
+        decimalIndex = i;
+      } else {
+        return null;
+      }
+    }
+    if (nrDigits == 0 || nrDigits > MAX_PARSE_DIGITS) {
+      return null;
+    }
+    if (!negative
+        && start == 0
+        && end == string.length()
+        && (decimalIndex < 0 || decimalSeparator == '.')) {
+      return string;
+    }
+    StringBuilder plain = new StringBuilder(end - start + 1);
+    if (negative) {
+      plain.append('-');
+    }
+    for (int i = start; i < end; i++) {
+      plain.append(i == decimalIndex ? '.' : string.charAt(i));
+    }
+    return plain.toString();
+  }
+
+  private boolean containsDigitOrSeparator(String affix) {
+    for (int i = 0; i < affix.length(); i++) {
+      char c = affix.charAt(i);
+      if (isDigit(c) || c == decimalSeparator || c == groupingSeparator) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
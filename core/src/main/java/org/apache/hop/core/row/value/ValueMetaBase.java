@@ -139,11 +139,18 @@ public class ValueMetaBase implements IValueMeta {
   protected boolean lenientStringToNumber;
   protected boolean emptyStringAndNullAreDifferent;
 
+  // The changed flags are volatile: the fast converters below are read without the lock
   protected SimpleDateFormat dateFormat;
-  protected boolean dateFormatChanged;
+  protected volatile boolean dateFormatChanged;
 
   protected DecimalFormat decimalFormat;
-  protected boolean decimalFormatChanged;
+  protected volatile boolean decimalFormatChanged;
+
+  /** Lock-free conversions for the common date masks, compiled along with the date format */
+  private volatile FastDateConverter fastDateConverter;
+
+  /** Lock-free conversions for the common number masks, compiled along with the decimal format */
+  private volatile FastNumberConverter fastNumberConverter;
 
   protected IValueMeta storageMetadata;
   protected boolean identicalFormat;
@@ -482,6 +489,8 @@ public class ValueMetaBase implements IValueMeta {
       ValueMetaBase valueMeta = (ValueMetaBase) super.clone();
       valueMeta.dateFormat = null;
       valueMeta.decimalFormat = null;
+      valueMeta.fastDateConverter = null;
+      valueMeta.fastNumberConverter = null;
       if (dateFormatLocale != null) {
         valueMeta.dateFormatLocale = (Locale) dateFormatLocale.clone();
       }
@@ -827,12 +836,22 @@ public class ValueMetaBase implements IValueMeta {
 
   // DATE + STRING
 
-  protected synchronized String convertDateToString(Date date) {
+  protected String convertDateToString(Date date) {
     if (date == null) {
       return null;
     }
 
-    return getDateFormat().format(date);
+    FastDateConverter fastConverter = getFastDateConverter();
+    if (fastConverter != null) {
+      String string = fastConverter.format(date);
+      if (string != null) {
+        return string;
+      }
+    }
+
+    synchronized (this) {
+      return getDateFormat().format(date);
+    }
   }
 
   protected static SimpleDateFormat compatibleDateFormat =
@@ -845,7 +864,7 @@ public class ValueMetaBase implements IValueMeta {
     return compatibleDateFormat.format(date);
   }
 
-  public synchronized Date convertStringToDate(String string) throws HopValueException {
+  public Date convertStringToDate(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -854,6 +873,20 @@ public class ValueMetaBase implements IValueMeta {
       return null;
     }
 
+    FastDateConverter fastConverter = getFastDateConverter();
+    if (fastConverter != null) {
+      Date date = fastConverter.parse(string);
+      if (date != null) {
+        return date;
+      }
+    }
+
+    synchronized (this) {
+      return convertStringToDateWithFormat(string);
+    }
+  }
+
+  private Date convertStringToDateWithFormat(String string) throws HopValueException {
     try {
       ParsePosition pp = new ParsePosition(0);
       Date result = getDateFormat(TYPE_DATE).parse(string, pp);
@@ -911,7 +944,7 @@ public class ValueMetaBase implements IValueMeta {
     return new Date(number.longValue());
   }
 
-  public synchronized String convertNumberToString(Double number) throws HopValueException {
+  public String convertNumberToString(Double number) throws HopValueException {
     if (number == null) {
       if (!outputPaddingEnabled || length < 1) {
         return null;
@@ -929,18 +962,32 @@ public class ValueMetaBase implements IValueMeta {
       }
     }
 
-    try {
-      DecimalFormat format = getDecimalFormat(false);
+    // When conversion masks are different, we must ensure the number precision is not lost
+    boolean keepPrecision =
+        this.conversionMask != null
+            && storageMetadata != null
+            && !this.conversionMask.equals(storageMetadata.getConversionMask());
 
-      // When conversion masks are different, we must ensure the number precision is not lost
-      if (this.conversionMask != null
-          && storageMetadata != null
-          && !this.conversionMask.equals(storageMetadata.getConversionMask())) {
-        format.setMaximumFractionDigits(50);
+    FastNumberConverter fastConverter = keepPrecision ? null : getFastNumberConverter();
+    if (fastConverter != null) {
+      String string = fastConverter.format(number.doubleValue());
+      if (string != null) {
+        return string;
+      }
+    }
+
+    synchronized (this) {
+      try {
+        DecimalFormat format = getDecimalFormat(false);
+        if (keepPrecision) {
+          format.setMaximumFractionDigits(50);
+          // The compiled converter no longer matches the modified decimal format
+          fastNumberConverter = null;
+        }
+        return format.format(number);
+      } catch (Exception e) {
+        throw new HopValueException(toString() + " : couldn't convert Number to String ", e);
       }
-      return format.format(number);
-    } catch (Exception e) {
-      throw new HopValueException(toString() + " : couldn't convert Number to String ", e);
     }
   }
 
@@ -952,7 +999,7 @@ public class ValueMetaBase implements IValueMeta {
     return Double.toString(number);
   }
 
-  protected synchronized Double convertStringToNumber(String string) throws HopValueException {
+  protected Double convertStringToNumber(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -961,6 +1008,20 @@ public class ValueMetaBase implements IValueMeta {
       return null;
     }
 
+    FastNumberConverter fastConverter = getFastNumberConverter();
+    if (fastConverter != null) {
+      Double number = fastConverter.parseNumber(string);
+      if (number != null) {
+        return number;
+      }
+    }
+
+    synchronized (this) {
+      return convertStringToNumberWithFormat(string);
+    }
+  }
+
+  private Double convertStringToNumberWithFormat(String string) throws HopValueException {
     try {
       DecimalFormat format = getDecimalFormat(false);
       Number number;
@@ -1034,6 +1095,7 @@ public class ValueMetaBase implements IValueMeta {
       //
       dateFormat.setLenient(dateFormatLenient);
 
+      fastDateConverter = FastDateConverter.compile(dateFormat);
       dateFormatChanged = false;
     }
 
@@ -1083,12 +1145,34 @@ public class ValueMetaBase implements IValueMeta {
         decimalFormat.applyPattern(decimalPattern);
       }
 
+      fastNumberConverter = FastNumberConverter.compile(decimalFormat);
       decimalFormatChanged = false;
     }
 
     return decimalFormat;
   }
 
+  /**
+   * The compiled date converter is only used for date values: other types don't convert in both
+   * directions with the same mask.
+   *
+   * @return the lock-free date converter or null if the date format needs to be used
+   */
+  private FastDateConverter getFastDateConverter() {
+    if (getType() != TYPE_DATE || conversionMetadata != null || dateFormatChanged) {
+      return null;
+    }
+    return fastDateConverter;
+  }
+
+  /** @return the lock-free number converter or null if the decimal format needs to be used */
+  private FastNumberConverter getFastNumberConverter() {
+    if (conversionMetadata != null || decimalFormatChanged) {
+      return null;
+    }
+    return fastNumberConverter;
+  }
+
   @Override
   public String getFormatMask() {
     return getMask(getType());
@@ -1235,7 +1319,7 @@ public class ValueMetaBase implements IValueMeta {
     return numberPattern.toString();
   }
 
-  protected synchronized String convertIntegerToString(Long integer) throws HopValueException {
+  protected String convertIntegerToString(Long integer) throws HopValueException {
     if (integer == null) {
       if (!outputPaddingEnabled || length < 1) {
         return null;
@@ -1253,10 +1337,20 @@ public class ValueMetaBase implements IValueMeta {
       }
     }
 
-    try {
-      return getDecimalFormat(false).format(integer);
-    } catch (Exception e) {
-      throw new HopValueException(toString() + " : couldn't convert Long to String ", e);
+    FastNumberConverter fastConverter = getFastNumberConverter();
+    if (fastConverter != null) {
+      String string = fastConverter.format(integer.longValue());
+      if (string != null) {
+        return string;
+      }
+    }
+
+    synchronized (this) {
+      try {
+        return getDecimalFormat(false).format(integer);
+      } catch (Exception e) {
+        throw new HopValueException(toString() + " : couldn't convert Long to String ", e);
+      }
     }
   }
 
@@ -1268,7 +1362,7 @@ public class ValueMetaBase implements IValueMeta {
     return Long.toString(integer);
   }
 
-  protected synchronized Long convertStringToInteger(String string) throws HopValueException {
+  protected Long convertStringToInteger(String string) throws HopValueException {
     string = Const.trimToType(string, getTrimType()); // see if trimming needs
     // to be performed before
     // conversion
@@ -1277,6 +1371,20 @@ public class ValueMetaBase implements IValueMeta {
       return null;
     }
 
+    FastNumberConverter fastConverter = getFastNumberConverter();
+    if (fastConverter != null) {
+      Long number = fastConverter.parseInteger(string);
+      if (number != null) {
+        return number;
+      }
+    }
+
+    synchronized (this) {
+      return convertStringToIntegerWithFormat(string);
+    }
+  }
+
+  private Long convertStringToIntegerWithFormat(String string) throws HopValueException {
     try {
       Number number;
       if (lenientStringToNumber) {
@@ -4661,6 +4769,11 @@ public class ValueMetaBase implements IValueMeta {
     this.ignoreWhitespace = ignoreWhitespace;
   }
 
+  /** @return the comparator for non-null values, null if the data type comparison is used */
+  public Comparator<Object> getComparator() {
+    return comparator;
+  }
+
   @SuppressWarnings("fallthrough")
   @Override
   public IValueMeta getValueFromSqlType(
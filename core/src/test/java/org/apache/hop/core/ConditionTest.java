@@ -18,14 +18,17 @@
 package org.apache.hop.core;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueMetaAndData;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.junit.rules.RestoreHopEnvironment;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -78,4 +81,62 @@ public class ConditionTest {
     condition = new Condition(left, Condition.FUNC_SMALLER_EQUAL, null, rightExact);
     assertFalse(condition.evaluate(rowMeta1, new Object[] {null, "test"}));
   }
+
+  @Test
+  public void testBatchEvaluationMatchesRowEvaluation() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+
+    Object[][] rows = {
+      {5L, 1.5, "a"}, {null, null, null}, {-10L, -2.0, "b"}, {7L, 1.5, "a"}, {10L, 0.0, ""}
+    };
+    RowBatch batch = new RowBatch(rows.length);
+    batch.load(rowMeta, rows, rows.length);
+
+    int[] functions = {
+      Condition.FUNC_EQUAL,
+      Condition.FUNC_NOT_EQUAL,
+      Condition.FUNC_SMALLER,
+      Condition.FUNC_SMALLER_EQUAL,
+      Condition.FUNC_LARGER,
+      Condition.FUNC_LARGER_EQUAL,
+      Condition.FUNC_NULL,
+      Condition.FUNC_NOT_NULL,
+      Condition.FUNC_STARTS_WITH
+    };
+    ValueMetaAndData intConstant = new ValueMetaAndData(new ValueMetaInteger("c"), 5L);
+    ValueMetaAndData numConstant = new ValueMetaAndData(new ValueMetaNumber("c"), 1.5);
+    ValueMetaAndData strConstant = new ValueMetaAndData(new ValueMetaString("c"), "a");
+    for (int function : functions) {
+      for (boolean negate : new boolean[] {false, true}) {
+        assertSameResults(
+            rowMeta, rows, batch, new Condition(negate, "int", function, null, intConstant));
+        assertSameResults(
+            rowMeta, rows, batch, new Condition(negate, "num", function, null, numConstant));
+        assertSameResults(
+            rowMeta, rows, batch, new Condition(negate, "str", function, null, strConstant));
+      }
+    }
+
+    ValueMetaAndData zeroInt = new ValueMetaAndData(new ValueMetaInteger("c"), 0L);
+    ValueMetaAndData zeroNum = new ValueMetaAndData(new ValueMetaNumber("c"), 0.0);
+    Condition composite = new Condition("int", Condition.FUNC_LARGER, null, zeroInt);
+    composite.addCondition(
+        new Condition(Condition.OPERATOR_AND, "num", Condition.FUNC_NOT_EQUAL, null, zeroNum));
+    composite.addCondition(
+        new Condition(Condition.OPERATOR_OR, "str", Condition.FUNC_NULL, null, null));
+    assertSameResults(rowMeta, rows, batch, composite);
+  }
+
+  private void assertSameResults(
+      IRowMeta rowMeta, Object[][] rows, RowBatch batch, Condition condition) {
+    boolean[] results = new boolean[rows.length];
+    condition.evaluate(batch, results);
+    for (int r = 0; r < rows.length; r++) {
+      assertEquals(
+          condition.toString() + " row " + r, condition.evaluate(rowMeta, rows[r]), results[r]);
+    }
+  }
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.RowMeta;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DataAvailableNotifierTest {
+
+  @Test
+  public void testSignalBeforeAwaitIsNotLost() {
+    DataAvailableNotifier notifier = new DataAvailableNotifier();
+    long sequence = notifier.getSequence();
+    notifier.signal();
+    assertTrue(notifier.await(sequence, 10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testAwaitTimesOut() {
+    DataAvailableNotifier notifier = new DataAvailableNotifier();
+    assertFalse(notifier.await(notifier.getSequence(), 10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testRowSetSignalsWaiter() throws Exception {
+    DataAvailableNotifier notifier = new DataAvailableNotifier();
+    BlockingRowSet rowSet = new BlockingRowSet(10);
+    rowSet.setDataAvailableNotifier(notifier);
+    long sequence = notifier.getSequence();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                // Ignore
+              }
+              rowSet.putRow(new RowMeta(), new Object[] {1L});
+            });
+    producer.start();
+
+    assertTrue(notifier.await(sequence, 10, TimeUnit.SECONDS));
+    assertNotNull(rowSet.getRowImmediate());
+    producer.join();
+
+    sequence = notifier.getSequence();
+    rowSet.setDone();
+    assertTrue(notifier.await(sequence, 0, TimeUnit.MILLISECONDS));
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ExecutionThreadTypeTest {
+
+  @Test
+  public void testGetTypeForName() {
+    assertEquals(
+        ExecutionThreadType.Virtual,
+        ExecutionThreadType.getTypeForName("virtual", ExecutionThreadType.Platform));
+    assertEquals(
+        ExecutionThreadType.Platform,
+        ExecutionThreadType.getTypeForName(null, ExecutionThreadType.Platform));
+  }
+
+  @Test
+  public void testNewThreadRuns() throws Exception {
+    for (ExecutionThreadType type : ExecutionThreadType.values()) {
+      AtomicBoolean ran = new AtomicBoolean(false);
+      Thread thread = type.newThread(() -> ran.set(true));
+      thread.setName("test " + type.name());
+      assertEquals(Thread.State.NEW, thread.getState());
+      thread.start();
+      thread.join();
+      assertTrue(ran.get());
+    }
+  }
+}
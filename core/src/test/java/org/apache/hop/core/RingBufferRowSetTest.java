@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/** Test class for the lock-free single producer / single consumer row set. */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rm = new RowMeta();
+    rm.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RingBufferRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertEquals(16, set.getCapacity());
+    assertEquals(RowSetWaitStrategy.Park, set.getWaitStrategy());
+  }
+
+  @Test
+  public void testPutGetInOrder() {
+    RingBufferRowSet set = new RingBufferRowSet(4, RowSetWaitStrategy.Spin);
+    IRowMeta rm = createRowMeta();
+
+    assertNull(set.getRowImmediate());
+
+    for (long i = 0; i < 4; i++) {
+      assertTrue(set.putRow(rm, new Object[] {i}));
+    }
+    assertEquals(4, set.size());
+    assertSame(rm, set.getRowMeta());
+
+    // The buffer is full: the put times out
+    //
+    assertFalse(set.putRowWait(rm, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+
+    for (long i = 0; i < 4; i++) {
+      Object[] row = set.getRowImmediate();
+      assertNotNull(row);
+      assertEquals(i, row[0]);
+    }
+    assertEquals(0, set.size());
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testDoneDrainsRemainingRows() {
+    RingBufferRowSet set = new RingBufferRowSet(8);
+    IRowMeta rm = createRowMeta();
+
+    set.putRow(rm, new Object[] {1L});
+    set.setDone();
+    assertTrue(set.isDone());
+
+    Object[] row = set.getRowWait(1, TimeUnit.SECONDS);
+    assertNotNull(row);
+    assertEquals(1L, row[0]);
+
+    // Done and empty: no waiting
+    //
+    long start = System.currentTimeMillis();
+    assertNull(set.getRowWait(10, TimeUnit.SECONDS));
+    assertTrue(System.currentTimeMillis() - start < 5000);
+  }
+
+  @Test
+  public void testNullRowIsRefused() {
+    RingBufferRowSet set = new RingBufferRowSet(8);
+    assertFalse(set.putRow(createRowMeta(), null));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testClear() {
+    RingBufferRowSet set = new RingBufferRowSet(8);
+    IRowMeta rm = createRowMeta();
+    set.putRow(rm, new Object[] {1L});
+    set.putRow(rm, new Object[] {2L});
+    set.setDone();
+
+    set.clear();
+    assertEquals(0, set.size());
+    assertFalse(set.isDone());
+    assertNull(set.getRowImmediate());
+
+    set.putRow(rm, new Object[] {3L});
+    assertEquals(3L, set.getRowImmediate()[0]);
+  }
+
+  @Test
+  public void testPutRowsDrainTo() {
+    RingBufferRowSet set = new RingBufferRowSet(4, RowSetWaitStrategy.Spin);
+    IRowMeta rm = createRowMeta();
+
+    Object[][] rows = new Object[6][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[] {(long) i};
+    }
+
+    // Only 4 rows fit in the buffer
+    //
+    assertEquals(4, set.putRows(rm, rows, rows.length));
+    assertEquals(4, set.size());
+    assertSame(rm, set.getRowMeta());
+
+    Object[][] drained = new Object[3][];
+    assertEquals(3, set.drainTo(drained));
+    assertEquals(1, set.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals((long) i, drained[i][0]);
+    }
+
+    // Wrap around the end of the buffer
+    //
+    assertEquals(2, set.putRows(rm, rows, 4, 2));
+    assertEquals(3, set.drainTo(drained));
+    assertEquals(3L, drained[0][0]);
+    assertEquals(5L, drained[2][0]);
+    assertEquals(0, set.drainTo(drained));
+  }
+
+  @Test
+  public void testConcurrentProducerConsumer() throws Exception {
+    for (RowSetWaitStrategy strategy : RowSetWaitStrategy.values()) {
+      final RingBufferRowSet set = new RingBufferRowSet(16, strategy);
+      final IRowMeta rm = createRowMeta();
+      final int nrRows = 100000;
+      final AtomicReference<Throwable> error = new AtomicReference<>();
+
+      Thread producer =
+          new Thread(
+              () -> {
+                for (long i = 0; i < nrRows; i++) {
+                  Object[] row = new Object[] {i};
+                  while (!set.putRow(rm, row)) {
+                    // retry
+                  }
+                }
+                set.setDone();
+              });
+      producer.start();
+
+      long expected = 0;
+      Object[] row = set.getRow();
+      while (row != null || !set.isDone() || set.size() > 0) {
+        if (row != null) {
+          if ((Long) row[0] != expected) {
+            error.set(new AssertionError("Expected row " + expected + " got " + row[0]));
+            break;
+          }
+          expected++;
+        }
+        row = set.getRow();
+      }
+      producer.join();
+
+      assertNull(error.get());
+      assertEquals(strategy.name(), nrRows, expected);
+    }
+  }
+}
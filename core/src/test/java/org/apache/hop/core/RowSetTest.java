@@ -172,4 +172,30 @@ public class RowSetTest {
     assertEquals(set.toString(), set.getName());
     assertEquals("from.2 - to.3", set.getName());
   }
+
+  /** Putting and draining multiple rows at once. */
+  @Test
+  public void testPutRowsDrainTo() {
+    IRowSet set = new BlockingRowSet(3);
+    IRowMeta rm = createRowMetaInterface();
+
+    Object[][] rows = new Object[][] {{1L}, {2L}, {3L}, {4L}};
+
+    // Only 3 rows fit in the buffer
+    assertEquals(3, set.putRows(rm, rows, 4));
+    assertEquals(3, set.size());
+
+    Object[][] drained = new Object[5][];
+    assertEquals(3, set.drainTo(drained));
+    assertEquals(0, set.size());
+    assertEquals(1L, drained[0][0]);
+    assertEquals(3L, drained[2][0]);
+
+    // Nothing left: no waiting
+    assertEquals(0, set.drainTo(drained));
+
+    assertEquals(1, set.putRows(rm, rows, 3, 1));
+    assertEquals(1, set.drainTo(drained, 4, 1));
+    assertEquals(4L, drained[4][0]);
+  }
 }
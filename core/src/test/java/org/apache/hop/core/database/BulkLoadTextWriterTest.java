@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BulkLoadTextWriterTest {
+
+  private static byte[] writeBytes(IRowMeta rowMeta, boolean hexBinary, Object[]... rows)
+      throws HopDatabaseException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    BulkLoadTextWriter writer = new BulkLoadTextWriter(outputStream, rowMeta, hexBinary);
+    for (Object[] row : rows) {
+      writer.writeRow(row);
+    }
+    return outputStream.toByteArray();
+  }
+
+  private static String write(IRowMeta rowMeta, boolean hexBinary, Object[]... rows)
+      throws HopDatabaseException {
+    return new String(writeBytes(rowMeta, hexBinary, rows), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testValues() throws HopDatabaseException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("big"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("ts"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    Timestamp timestamp = Timestamp.valueOf("2021-03-04 05:06:07.123456789");
+    String text =
+        write(
+            rowMeta,
+            true,
+            new Object[] {1L, 1.5, new BigDecimal("1E+3"), true, timestamp, "caf\u00e9"},
+            new Object[] {null, null, null, false, null, null});
+
+    assertEquals(
+        "1\t1.5\t1000\t1\t2021-03-04 05:06:07.123456789\tcaf\u00e9\n"
+            + "\\N\t\\N\t\\N\t0\t\\N\t\\N\n",
+        text);
+  }
+
+  @Test
+  public void testEscapes() throws HopDatabaseException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    String text = write(rowMeta, true, new Object[] {"a\tb\nc\rd\\e"});
+
+    assertEquals("a\\tb\\nc\\rd\\\\e\n", text);
+  }
+
+  @Test
+  public void testBinary() throws HopDatabaseException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaBinary("data"));
+    Object[] row = {new byte[] {0x01, (byte) 0xab, '\t'}};
+
+    // The hex format starts with \x, the backslash itself is escaped
+    assertEquals("\\\\x01ab09\n", write(rowMeta, true, row));
+    // The bytes themselves, only the special characters are escaped
+    assertArrayEquals(
+        new byte[] {0x01, (byte) 0xab, '\\', 't', '\n'}, writeBytes(rowMeta, false, row));
+  }
+}
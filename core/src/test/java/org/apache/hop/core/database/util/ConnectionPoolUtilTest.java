@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.database.util;
+
+import org.apache.commons.dbcp.BasicDataSource;
+import org.apache.hop.core.database.ConcreteBaseDatabaseMeta;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.variables.Variables;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ConnectionPoolUtilTest {
+
+  private static final String URL = "jdbc:test://localhost/db";
+
+  private DatabaseMeta databaseMeta;
+  private IVariables variables;
+  private ILogChannel log;
+
+  @Before
+  public void setUp() {
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase(new ConcreteBaseDatabaseMeta());
+    databaseMeta.setName("test");
+    databaseMeta.setUsingConnectionPool(true);
+    variables = new Variables();
+    log = mock(ILogChannel.class);
+  }
+
+  private static Properties properties(String password) {
+    Properties properties = new Properties();
+    properties.put("user", "hop");
+    properties.put("password", password);
+    properties.put("ssl", "true");
+    return properties;
+  }
+
+  @Test
+  public void testPoolingAttributes() {
+    assertTrue(databaseMeta.isUsingConnectionPool());
+    databaseMeta.setInitialPoolSizeString("${INITIAL}");
+    databaseMeta.setMaximumPoolSizeString("20");
+    Map<String, String> poolProperties = new HashMap<>();
+    poolProperties.put("validationQuery", "SELECT 1");
+    databaseMeta.setConnectionPoolingProperties(poolProperties);
+
+    assertEquals("${INITIAL}", databaseMeta.getInitialPoolSizeString());
+    assertEquals("20", databaseMeta.getMaximumPoolSizeString());
+    assertEquals(poolProperties, databaseMeta.getConnectionPoolingProperties());
+
+    // Setting the properties replaces the old ones
+    databaseMeta.setConnectionPoolingProperties(new HashMap<>());
+    assertTrue(databaseMeta.getConnectionPoolingProperties().isEmpty());
+    databaseMeta.setUsingConnectionPool(false);
+    assertFalse(databaseMeta.isUsingConnectionPool());
+  }
+
+  @Test
+  public void testConfigureDataSource() throws Exception {
+    variables.setVariable("MAX_POOL", "8");
+    databaseMeta.setInitialPoolSizeString("3");
+    databaseMeta.setMaximumPoolSizeString("${MAX_POOL}");
+    Map<String, String> poolProperties = new HashMap<>();
+    poolProperties.put("validationQuery", "SELECT 1");
+    poolProperties.put("defaultTransactionIsolation", "READ_COMMITTED");
+    poolProperties.put("maxWait", "");
+    poolProperties.put("unknownParameter", "1");
+    databaseMeta.setConnectionPoolingProperties(poolProperties);
+
+    BasicDataSource dataSource = new BasicDataSource();
+    ConnectionPoolUtil.configureDataSource(
+        dataSource, log, variables, databaseMeta, URL, properties("secret"));
+
+    assertEquals(URL, dataSource.getUrl());
+    assertEquals("hop", dataSource.getUsername());
+    assertEquals("secret", dataSource.getPassword());
+    assertEquals(3, dataSource.getInitialSize());
+    assertEquals(8, dataSource.getMaxActive());
+    assertEquals(8, dataSource.getMaxIdle());
+    assertEquals("SELECT 1", dataSource.getValidationQuery());
+    assertEquals(
+        Connection.TRANSACTION_READ_COMMITTED, dataSource.getDefaultTransactionIsolation());
+    // The defaults of the parameters which aren't set
+    assertTrue(dataSource.getTestOnBorrow());
+    assertEquals(60000L, dataSource.getTimeBetweenEvictionRunsMillis());
+    assertEquals(30000L, dataSource.getMaxWait());
+    verify(log).logError(anyString());
+  }
+
+  @Test
+  public void testDefaultPoolSizes() throws Exception {
+    BasicDataSource dataSource = new BasicDataSource();
+    ConnectionPoolUtil.configureDataSource(
+        dataSource, log, variables, databaseMeta, URL, properties("secret"));
+
+    assertEquals(ConnectionPoolUtil.DEFAULT_INITIAL_POOL_SIZE, dataSource.getInitialSize());
+    assertEquals(ConnectionPoolUtil.DEFAULT_MAXIMUM_POOL_SIZE, dataSource.getMaxActive());
+  }
+
+  @Test
+  public void testPoolKey() {
+    String key = ConnectionPoolUtil.getPoolKey(variables, databaseMeta, URL, properties("a"));
+    assertEquals(
+        key, ConnectionPoolUtil.getPoolKey(variables, databaseMeta, URL, properties("a")));
+
+    // Another password, URL or pool size gets another pool
+    assertNotEquals(
+        key, ConnectionPoolUtil.getPoolKey(variables, databaseMeta, URL, properties("b")));
+    assertNotEquals(
+        key, ConnectionPoolUtil.getPoolKey(variables, databaseMeta, URL + "2", properties("a")));
+    databaseMeta.setMaximumPoolSizeString("20");
+    assertNotEquals(
+        key, ConnectionPoolUtil.getPoolKey(variables, databaseMeta, URL, properties("a")));
+  }
+
+  @Test
+  public void testExhaustedPoolTimesOut() throws Exception {
+    Driver driver = new PoolTestDriver();
+    DriverManager.registerDriver(driver);
+    try {
+      databaseMeta.setInitialPoolSizeString("1");
+      databaseMeta.setMaximumPoolSizeString("1");
+      Map<String, String> poolProperties = new HashMap<>();
+      poolProperties.put("maxWait", "10");
+      databaseMeta.setConnectionPoolingProperties(poolProperties);
+
+      Connection connection =
+          ConnectionPoolUtil.getConnection(
+              log, variables, databaseMeta, PoolTestDriver.URL, properties("secret"));
+      try {
+        ConnectionPoolUtil.getConnection(
+            log, variables, databaseMeta, PoolTestDriver.URL, properties("secret"));
+        fail("The only connection of the pool is in use");
+      } catch (HopDatabaseException e) {
+        assertTrue(e.getMessage().contains("Timed out after 10 ms"));
+      }
+
+      // A returned connection can be taken again
+      connection.close();
+      ConnectionPoolUtil.getConnection(
+              log, variables, databaseMeta, PoolTestDriver.URL, properties("secret"))
+          .close();
+    } finally {
+      ConnectionPoolUtil.closeAll();
+      DriverManager.deregisterDriver(driver);
+    }
+    assertTrue(ConnectionPoolUtil.getPoolStatistics().isEmpty());
+  }
+
+  /** Hands out mock connections for one URL. */
+  public static class PoolTestDriver implements Driver {
+    static final String URL = "jdbc:pooltest://localhost/db";
+
+    @Override
+    public Connection connect(String url, Properties info) {
+      return acceptsURL(url) ? mock(Connection.class) : null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return URL.equals(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+      return Logger.getGlobal();
+    }
+  }
+}
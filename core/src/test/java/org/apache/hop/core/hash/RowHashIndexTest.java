@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaInternetAddress;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RowHashIndexTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static IRowMeta createKeyMeta() {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    keyMeta.addValueMeta(new ValueMetaNumber("amount"));
+    keyMeta.addValueMeta(new ValueMetaDate("date"));
+    keyMeta.addValueMeta(new ValueMetaBigNumber("big"));
+    return keyMeta;
+  }
+
+  private static IRowMeta createValueMeta() {
+    IRowMeta valueMeta = new RowMeta();
+    valueMeta.addValueMeta(new ValueMetaString("name"));
+    valueMeta.addValueMeta(new ValueMetaInteger("count"));
+    return valueMeta;
+  }
+
+  private static Object[] key(int i) {
+    return new Object[] {
+      "code" + (i % 100), (long) (i / 100), i * 0.5, new Date(i), BigDecimal.valueOf(i, 2)
+    };
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertTrue(RowHashIndex.isSupported(createKeyMeta()));
+    assertFalse(RowHashIndex.isSupported(new RowMeta()));
+
+    IRowMeta caseInsensitive = new RowMeta();
+    ValueMetaString string = new ValueMetaString("code");
+    string.setCaseInsensitive(true);
+    caseInsensitive.addValueMeta(string);
+    assertFalse(RowHashIndex.isSupported(caseInsensitive));
+
+    IRowMeta internetAddress = new RowMeta();
+    internetAddress.addValueMeta(new ValueMetaInternetAddress("ip"));
+    assertFalse(RowHashIndex.isSupported(internetAddress));
+  }
+
+  @Test
+  public void testGetAndPut() throws HopException {
+    RowHashIndex index = new RowHashIndex(createKeyMeta(), createValueMeta());
+    checkGetAndPut(index);
+  }
+
+  @Test
+  public void testGetAndPutMemoryMapped() throws Exception {
+    RowHashIndex index =
+        new RowHashIndex(
+            createKeyMeta(), createValueMeta(), temporaryFolder.getRoot().getAbsolutePath());
+    checkGetAndPut(index);
+  }
+
+  private void checkGetAndPut(RowHashIndex index) throws HopException {
+    try {
+      assertTrue(index.isEmpty());
+      for (int i = 0; i < 10000; i++) {
+        index.put(key(i), new Object[] {"name" + i, (long) i});
+      }
+      assertEquals(10000, index.getSize());
+
+      // Replace some values
+      for (int i = 0; i < 10000; i += 10) {
+        index.put(key(i), new Object[] {null, -1L});
+      }
+      assertEquals(10000, index.getSize());
+
+      for (int i = 0; i < 10000; i++) {
+        Object[] expected =
+            i % 10 == 0 ? new Object[] {null, -1L} : new Object[] {"name" + i, (long) i};
+        assertArrayEquals(expected, index.get(key(i)));
+      }
+      assertNull(index.get(key(10000)));
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void testKeysEqualAsValues() throws HopException {
+    RowHashIndex index = new RowHashIndex(createKeyMeta(), createValueMeta());
+    index.put(
+        new Object[] {null, null, null, null, new BigDecimal("1.50")}, new Object[] {"a", 1L});
+
+    // An empty string is null and 1.5 equals 1.50
+    assertArrayEquals(
+        new Object[] {"a", 1L},
+        index.get(new Object[] {"", null, null, null, new BigDecimal("1.5")}));
+    assertNull(index.get(new Object[] {null, 0L, null, null, new BigDecimal("1.5")}));
+  }
+}
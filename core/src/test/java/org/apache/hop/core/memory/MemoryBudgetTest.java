@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.memory;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryBudgetTest {
+
+  private static final long MB = 1024L * 1024L;
+
+  @Test
+  public void testParseLimit() {
+    assertEquals(50 * MB, SpillMemoryManager.parseLimit("50%", 100 * MB));
+    assertEquals(25 * MB, SpillMemoryManager.parseLimit(" 25 % ", 100 * MB));
+    assertEquals(100 * MB, SpillMemoryManager.parseLimit("150%", 100 * MB));
+    assertEquals(512 * MB, SpillMemoryManager.parseLimit("512", 100 * MB));
+    assertEquals(50 * MB, SpillMemoryManager.parseLimit("lots", 100 * MB));
+    assertEquals(50 * MB, SpillMemoryManager.parseLimit(null, 100 * MB));
+  }
+
+  @Test
+  public void testBudgetsShareTheManagerLimit() {
+    SpillMemoryManager manager = new SpillMemoryManager(3 * MB);
+    MemoryBudget first = manager.createBudget(0);
+    MemoryBudget second = manager.createBudget(0);
+
+    assertTrue(first.tryReserve(2 * MB));
+    assertTrue(second.tryReserve(MB / 2));
+    // Only half a MB is left: the second budget takes what's missing instead of a whole chunk
+    assertTrue(second.tryReserve(MB / 2));
+    assertFalse(first.tryReserve(1));
+    assertEquals(3 * MB, manager.getReserved());
+
+    first.close();
+    assertEquals(MB, manager.getReserved());
+    assertTrue(second.tryReserve(MB));
+    second.close();
+    assertEquals(0L, manager.getReserved());
+  }
+
+  @Test
+  public void testBudgetLimit() {
+    SpillMemoryManager manager = new SpillMemoryManager(100 * MB);
+    MemoryBudget budget = manager.createBudget(1000);
+
+    assertTrue(budget.tryReserve(600));
+    assertFalse(budget.tryReserve(600));
+    budget.release(200);
+    assertTrue(budget.tryReserve(600));
+    assertEquals(1000, budget.getUsed());
+
+    budget.releaseAll();
+    assertEquals(0L, budget.getUsed());
+    assertEquals(0L, manager.getReserved());
+  }
+
+  @Test
+  public void testReleaseUnusedGoesBackToTheManager() {
+    SpillMemoryManager manager = new SpillMemoryManager(100 * MB);
+    MemoryBudget budget = manager.createBudget(0);
+
+    assertTrue(budget.tryReserve(3 * MB));
+    budget.release(2 * MB);
+    // Released memory stays with the budget until it is given back
+    assertEquals(3 * MB, manager.getReserved());
+    budget.releaseUnused();
+    assertEquals(MB, manager.getReserved());
+    assertEquals(MB, budget.getUsed());
+
+    budget.close();
+    assertEquals(0L, manager.getReserved());
+  }
+
+  @Test
+  public void testForceReserveExceedsTheLimit() {
+    SpillMemoryManager manager = new SpillMemoryManager(MB);
+    MemoryBudget budget = manager.createBudget(0);
+
+    assertFalse(budget.tryReserve(2 * MB));
+    budget.forceReserve(2 * MB);
+    assertEquals(2 * MB, manager.getReserved());
+    budget.close();
+    assertEquals(0L, manager.getReserved());
+  }
+
+  @Test
+  public void testBudgetOfTransformLimitInMb() {
+    SpillMemoryManager manager = new SpillMemoryManager(3 * MB);
+    assertEquals(2 * MB, manager.createBudgetMb("2").getLimit());
+    assertTrue(manager.createBudgetMb("").getLimit() <= 0);
+    assertTrue(manager.createBudgetMb("0").getLimit() <= 0);
+  }
+
+  @Test
+  public void testSpillPartitionsSplitAgainAtNextLevel() {
+    Set<Integer> level0 = new HashSet<>();
+    Set<Integer> level1 = new HashSet<>();
+    for (int hashCode = 0; hashCode < 100000; hashCode++) {
+      int partitionNr = SpillMemoryManager.getSpillPartitionNr(hashCode, 0);
+      level0.add(partitionNr);
+      if (partitionNr == 5) {
+        level1.add(SpillMemoryManager.getSpillPartitionNr(hashCode, 1));
+      }
+      int last =
+          SpillMemoryManager.getSpillPartitionNr(hashCode, SpillMemoryManager.MAX_SPILL_LEVEL + 1);
+      assertTrue(last >= 0 && last < SpillMemoryManager.NR_SPILL_PARTITIONS);
+    }
+    assertEquals(SpillMemoryManager.NR_SPILL_PARTITIONS, level0.size());
+    // The keys of a single partition are spread over all partitions of the next level
+    assertEquals(SpillMemoryManager.NR_SPILL_PARTITIONS, level1.size());
+  }
+}
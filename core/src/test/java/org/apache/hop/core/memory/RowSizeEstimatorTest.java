@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.memory;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RowSizeEstimatorTest {
+
+  @Test
+  public void testValueSizes() {
+    assertEquals(0L, RowSizeEstimator.estimateValueSize(null));
+    assertEquals(0L, RowSizeEstimator.estimateValueSize(Boolean.TRUE));
+    assertEquals(24L, RowSizeEstimator.estimateValueSize(1L));
+    assertEquals(24L, RowSizeEstimator.estimateValueSize(1.5));
+    assertEquals(24L, RowSizeEstimator.estimateValueSize(new Date()));
+    assertEquals(32L, RowSizeEstimator.estimateValueSize(new byte[10]));
+    // 24 bytes for the string, 16 + 5 bytes for the characters
+    assertEquals(48L, RowSizeEstimator.estimateValueSize("hello"));
+    // Characters outside Latin-1 take 2 bytes
+    assertEquals(56L, RowSizeEstimator.estimateValueSize("hell\u0151"));
+  }
+
+  @Test
+  public void testBigNumbers() {
+    long small = RowSizeEstimator.estimateValueSize(new BigDecimal("1.5"));
+    long large = RowSizeEstimator.estimateValueSize(new BigDecimal("12345678901234567890.5"));
+    assertTrue(large > small);
+  }
+
+  @Test
+  public void testRowSize() {
+    Object[] row = new Object[] {"hello", 1L, null};
+    // 16 bytes header plus 3 references, rounded to 32
+    assertEquals(32L + 48L + 24L, RowSizeEstimator.estimateRowSize(row));
+    assertEquals(0L, RowSizeEstimator.estimateRowSize(null));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.core.memory;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SpillFileTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("group"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testRowsAreReadBack() throws HopException {
+    IRowMeta rowMeta = createRowMeta();
+    SpillFile file = new SpillFile(tempFolder.getRoot().getAbsolutePath(), "spill-test", 2);
+    try {
+      file.writeRow(rowMeta, new Object[] {"a", 1L});
+      file.writeRow(rowMeta, new Object[] {null, 2L});
+      file.writeRow(rowMeta, new Object[] {"b", null});
+      file.finishWriting();
+      assertEquals(2, file.getLevel());
+      assertEquals(3L, file.getRowCount());
+
+      assertArrayEquals(new Object[] {"a", 1L}, file.readRow(rowMeta));
+      assertArrayEquals(new Object[] {null, 2L}, file.readRow(rowMeta));
+      assertArrayEquals(new Object[] {"b", null}, file.readRow(rowMeta));
+      assertNull(file.readRow(rowMeta));
+      assertEquals(0L, file.getRowCount());
+    } finally {
+      file.delete();
+    }
+    assertEquals(0, tempFolder.getRoot().list().length);
+  }
+
+  @Test
+  public void testDataInFrontOfTheRows() throws HopException, IOException {
+    IRowMeta rowMeta = createRowMeta();
+    SpillFile file = new SpillFile(tempFolder.getRoot().getAbsolutePath(), "spill-test", 0);
+    try {
+      file.getOutputStream().writeInt(42);
+      file.writeRow(rowMeta, new Object[] {"a", 1L});
+      file.finishWriting();
+
+      assertEquals(42, file.getInputStream().readInt());
+      assertArrayEquals(new Object[] {"a", 1L}, file.readRow(rowMeta));
+      assertNull(file.readRow(rowMeta));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testDeleteWhileWriting() throws HopException {
+    SpillFile file = new SpillFile(tempFolder.getRoot().getAbsolutePath(), "spill-test", 0);
+    file.writeRow(createRowMeta(), new Object[] {"a", 1L});
+    assertEquals(1, tempFolder.getRoot().list().length);
+
+    file.delete();
+    assertEquals(0, tempFolder.getRoot().list().length);
+  }
+}
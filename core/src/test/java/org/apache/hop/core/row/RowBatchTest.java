@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class RowBatchTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("int"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("bool"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("big"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    IRowMeta rowMeta = createRowMeta();
+    Object[][] rows = new Object[130][];
+    for (int r = 0; r < rows.length; r++) {
+      if (r % 7 == 0) {
+        rows[r] = new Object[6];
+      } else {
+        rows[r] =
+            new Object[] {
+              (long) r, r / 2.0, "s" + (r % 3), new Date(r * 1000L), r % 2 == 0, new BigDecimal(r)
+            };
+      }
+    }
+
+    RowBatch batch = new RowBatch(rows.length);
+    batch.load(rowMeta, rows, rows.length);
+    assertEquals(rows.length, batch.size());
+    assertEquals(ColumnVector.Kind.LONG, batch.getColumn("int").getKind());
+    assertEquals(ColumnVector.Kind.DOUBLE, batch.getColumn("num").getKind());
+    assertEquals(ColumnVector.Kind.STRING, batch.getColumn("str").getKind());
+    assertEquals(ColumnVector.Kind.OBJECT, batch.getColumn("big").getKind());
+
+    // Only 3 distinct strings are stored
+    assertEquals(3, batch.getColumn("str").getDictionary().size());
+
+    Object[][] copy = batch.toRows();
+    for (int r = 0; r < rows.length; r++) {
+      assertSame(rows[r], batch.getRow(r));
+      for (int c = 0; c < rowMeta.size(); c++) {
+        assertEquals("row " + r + " column " + c, rows[r][c], copy[r][c]);
+        assertEquals(rows[r][c] == null, batch.getColumn(c).isNull(r));
+      }
+    }
+  }
+
+  @Test
+  public void testReuse() {
+    IRowMeta rowMeta = createRowMeta();
+    RowBatch batch = new RowBatch(10);
+    batch.load(
+        rowMeta,
+        new Object[][] {{1L, 1.0, "a", null, true, null}, {2L, 2.0, "b", null, false, null}},
+        2);
+    ColumnVector intColumn = batch.getColumn(0);
+
+    batch.load(rowMeta, new Object[][] {{null, 3.0, "c", null, null, null}}, 1);
+    assertSame(intColumn, batch.getColumn(0));
+    assertEquals(1, batch.size());
+    assertTrue(intColumn.isNull(0));
+    assertEquals(1, batch.getColumn("str").getDictionary().size());
+    assertEquals(3.0, batch.getColumn(1).getDouble(0), 0.0);
+  }
+
+  @Test
+  public void testColumnsAreLoadedWhenAskedFor() {
+    IRowMeta rowMeta = createRowMeta();
+    // The integer field holds a string: converting it would fail
+    Object[][] rows = {{"not a number", 1.0, "a", null, true, null}};
+    RowBatch batch = new RowBatch(1);
+    batch.load(rowMeta, rows, 1);
+
+    assertEquals(1.0, batch.getColumn("num").getDouble(0), 0.0);
+    assertTrue(batch.isColumnLoaded(1));
+    assertFalse(batch.isColumnLoaded(0));
+    assertFalse(batch.isColumnLoaded(2));
+
+    Object[] copy = batch.toRows()[0];
+    assertNotSame(rows[0], copy);
+    assertEquals("not a number", copy[0]);
+    assertEquals("a", copy[2]);
+
+    batch.load(rowMeta, new Object[][] {{2L, 2.0, "b", null, false, null}}, 1);
+    assertFalse(batch.isColumnLoaded(1));
+  }
+
+  @Test
+  public void testTimestampsKeepNanoseconds() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    Timestamp timestamp = new Timestamp(1000L);
+    timestamp.setNanos(123456789);
+    RowBatch batch = new RowBatch(2);
+    batch.load(rowMeta, new Object[][] {{timestamp}, {new Date(2000L)}}, 2);
+
+    ColumnVector column = batch.getColumn(0);
+    assertEquals(1123L, column.getLong(0));
+    assertEquals(timestamp, batch.toRows()[0][0]);
+    assertEquals(new Date(2000L), batch.toRows()[1][0]);
+
+    column.setLong(0, 3000L);
+    assertEquals(new Date(3000L), batch.toRows()[0][0]);
+  }
+
+  @Test
+  public void testDictionaryGrows() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    Object[][] rows = new Object[1000][];
+    for (int r = 0; r < rows.length; r++) {
+      rows[r] = new Object[] {"s" + (r % 300)};
+    }
+    RowBatch batch = new RowBatch(rows.length);
+    batch.load(rowMeta, rows, rows.length);
+
+    ColumnVector column = batch.getColumn(0);
+    assertEquals(300, column.getDictionary().size());
+    for (int r = 0; r < rows.length; r++) {
+      assertEquals(rows[r][0], column.get(r));
+      assertEquals(column.getCode(r), column.getCode((String) rows[r][0]));
+    }
+    assertEquals(-1, column.getCode("s300"));
+
+    batch.load(rowMeta, new Object[][] {{"x"}}, 1);
+    column = batch.getColumn(0);
+    assertEquals(1, column.getDictionary().size());
+    assertEquals(-1, column.getCode("s1"));
+    assertEquals(0, column.getCode("x"));
+  }
+}
@@ -497,4 +497,73 @@ public class RowMetaTest {
       rowMeta.addValueMeta(i, new ValueMetaInteger(null));
     }
   }
+
+  @Test
+  public void testFrozenRowMetaLookups() throws Exception {
+    RowMeta frozen = ((RowMeta) rowMeta).clone().freeze();
+    assertTrue(frozen.isFrozen());
+    assertFalse(((RowMeta) rowMeta).isFrozen());
+
+    assertEquals(3, frozen.size());
+    assertFalse(frozen.isEmpty());
+    assertEquals(1, frozen.indexOfValue("integer"));
+    assertEquals(1, frozen.indexOfValue("INTEGER"));
+    assertEquals(-1, frozen.indexOfValue("unknown"));
+    assertEquals(-1, frozen.indexOfValue(null));
+    assertEquals("date", frozen.searchValueMeta("Date").getName());
+    assertNull(frozen.searchValueMeta("unknown"));
+    assertNull(frozen.getValueMeta(3));
+    assertEquals(rowMeta.getValueMetaList(), frozen.getValueMetaList());
+
+    // A renamed value is still found the regular way
+    //
+    frozen.getValueMeta(2).setName("renamed");
+    assertEquals(2, frozen.indexOfValue("renamed"));
+    assertEquals(-1, frozen.indexOfValue("date"));
+  }
+
+  @Test
+  public void testFrozenRowMetaFirstMatchWins() throws Exception {
+    RowMeta meta = new RowMeta();
+    meta.setValueMetaList(
+        generateVList(
+            new String[] {"Name", "name"},
+            new int[] {IValueMeta.TYPE_STRING, IValueMeta.TYPE_STRING}));
+    int expected = meta.indexOfValue("name");
+    meta.freeze();
+    assertEquals(expected, meta.indexOfValue("name"));
+    assertEquals(expected, meta.indexOfValue("Name"));
+  }
+
+  @Test
+  public void testFrozenRowMetaThawsOnModification() throws Exception {
+    RowMeta frozen = ((RowMeta) rowMeta).clone().freeze();
+    frozen.addValueMeta(charly);
+    assertFalse(frozen.isFrozen());
+    assertEquals(4, frozen.size());
+    assertEquals(3, frozen.indexOfValue("charly"));
+
+    frozen.freeze();
+    frozen.removeValueMeta("string");
+    assertFalse(frozen.isFrozen());
+    assertEquals(-1, frozen.indexOfValue("string"));
+    assertEquals(0, frozen.indexOfValue("integer"));
+  }
+
+  @Test
+  public void testFrozenRowMetaCloneRow() throws Exception {
+    RowMeta meta = new RowMeta();
+    meta.addValueMeta(string);
+    meta.addValueMeta(bin);
+    meta.freeze();
+
+    byte[] bytes = new byte[] {1, 2, 3};
+    Object[] row = new Object[] {"a", bytes};
+    Object[] copy = meta.cloneRow(row);
+    assertNotSame(row, copy);
+    assertEquals("a", copy[0]);
+    assertNotSame(bytes, copy[1]);
+    assertArrayEquals(bytes, (byte[]) copy[1]);
+    assertFalse(meta.clone().isFrozen());
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import org.junit.Test;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FastDateConverterTest {
+
+  private static final String[] MASKS = {
+    "yyyy-MM-dd", "yyyy/MM/dd HH:mm:ss.SSS", "yyyyMMdd", "dd/MM/yyyy HH:mm", "HH:mm:ss"
+  };
+
+  private static final String[] TIME_ZONES = {
+    "UTC", "Europe/Brussels", "America/New_York", "Asia/Kathmandu", "Australia/Lord_Howe"
+  };
+
+  @Test
+  public void testUnsupportedMasks() {
+    assertNull(FastDateConverter.compile(new SimpleDateFormat("yy-MM-dd")));
+    assertNull(FastDateConverter.compile(new SimpleDateFormat("dd MMM yyyy", Locale.US)));
+    assertNull(FastDateConverter.compile(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm")));
+    assertNull(FastDateConverter.compile(new SimpleDateFormat("yyyy-M-d")));
+    assertNotNull(FastDateConverter.compile(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS")));
+  }
+
+  @Test
+  public void testSameResultsAsSimpleDateFormat() {
+    Random random = new Random(1234L);
+    for (String timeZone : TIME_ZONES) {
+      for (String mask : MASKS) {
+        for (boolean lenient : new boolean[] {false, true}) {
+          SimpleDateFormat dateFormat = new SimpleDateFormat(mask);
+          dateFormat.setTimeZone(TimeZone.getTimeZone(timeZone));
+          dateFormat.setLenient(lenient);
+          FastDateConverter converter = FastDateConverter.compile(dateFormat);
+          assertNotNull(mask, converter);
+
+          for (int i = 0; i < 2000; i++) {
+            // Between 1800 and 2100, outside of the supported range some of the time
+            //
+            long time = -5364662400000L + (long) (random.nextDouble() * 9467280000000L);
+            String expected = dateFormat.format(new Date(time));
+            String formatted = converter.format(new Date(time));
+            if (formatted != null) {
+              assertEquals(expected, formatted);
+            }
+
+            // Parse the formatted value and a mutation with a possibly invalid field value
+            //
+            char[] chars = expected.toCharArray();
+            chars[random.nextInt(chars.length)] = (char) ('0' + random.nextInt(10));
+            for (String string : new String[] {expected, new String(chars)}) {
+              Date parsed = converter.parse(string);
+              if (parsed != null) {
+                ParsePosition position = new ParsePosition(0);
+                Date expectedDate = dateFormat.parse(string, position);
+                assertNotNull(string, expectedDate);
+                assertEquals(string, expectedDate.getTime(), parsed.getTime());
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFallbackCases() {
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+    dateFormat.setTimeZone(TimeZone.getTimeZone("Europe/Brussels"));
+    FastDateConverter converter = FastDateConverter.compile(dateFormat);
+
+    assertNotNull(converter.parse("2021-06-30 12:00"));
+    // Invalid day, daylight saving time gap, trailing text, out of range years
+    assertNull(converter.parse("2021-02-30 12:00"));
+    assertNull(converter.parse("2021-03-28 02:30"));
+    assertNull(converter.parse("2021-06-30 12:00:00"));
+    assertNull(converter.parse("1850-06-30 12:00"));
+    assertNull(converter.parse("2050-06-30 12:00"));
+    assertNull(converter.format(new Date(-5364662400000L)));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row.value;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FastNumberConverterTest {
+
+  private static final String[] MASKS = {
+    "#.#",
+    "0.00",
+    "#,##0.###",
+    "####0;-####0",
+    "####0.0#########;-####0.0#########",
+    " 0000;-0000",
+    "#.00",
+    "#,##0.00;(#,##0.00)"
+  };
+
+  private static DecimalFormat createFormat(String mask, Locale locale) {
+    DecimalFormat format = (DecimalFormat) NumberFormat.getInstance(locale);
+    format.applyPattern(mask);
+    return format;
+  }
+
+  @Test
+  public void testUnsupportedMasks() {
+    assertNull(FastNumberConverter.compile(createFormat("0.00E0", Locale.US)));
+    assertNull(FastNumberConverter.compile(createFormat("#.##%", Locale.US)));
+    assertNull(FastNumberConverter.compile(createFormat("\u00A4#,##0.00", Locale.US)));
+    assertNotNull(FastNumberConverter.compile(createFormat("#.#", Locale.US)));
+  }
+
+  @Test
+  public void testSameResultsAsDecimalFormat() {
+    Random random = new Random(1234L);
+    for (Locale locale : new Locale[] {Locale.US, Locale.GERMANY, Locale.FRANCE}) {
+      for (String mask : MASKS) {
+        DecimalFormat format = createFormat(mask, locale);
+        FastNumberConverter converter = FastNumberConverter.compile(format);
+        assertNotNull(mask, converter);
+
+        for (int i = 0; i < 5000; i++) {
+          double number;
+          switch (i % 4) {
+            case 0:
+              number = (random.nextInt(200000) - 100000) / 100.0;
+              break;
+            case 1:
+              number = random.nextGaussian() * 1e6;
+              break;
+            case 2:
+              number = Math.pow(10, random.nextInt(30) - 15) * random.nextInt(100);
+              break;
+            default:
+              number = random.nextInt(20) - 10;
+              break;
+          }
+          long integer = random.nextBoolean() ? random.nextLong() : random.nextInt(2000) - 1000;
+
+          String expected = format.format(number);
+          String formatted = converter.format(number);
+          if (formatted != null) {
+            assertEquals(mask + " " + number, expected, formatted);
+          }
+          assertEquals(mask + " " + integer, format.format(integer), converter.format(integer));
+
+          for (String string : new String[] {expected, format.format(integer)}) {
+            ParsePosition position = new ParsePosition(0);
+            Number parsed = format.parse(string, position);
+            boolean valid = parsed != null && position.getIndex() == string.length();
+            Double parsedNumber = converter.parseNumber(string);
+            if (parsedNumber != null) {
+              assertTrue(string, valid);
+              assertEquals(string, parsed.doubleValue(), parsedNumber, 0.0d);
+            }
+            Long parsedInteger = converter.parseInteger(string);
+            if (parsedInteger != null) {
+              assertTrue(string, valid);
+              assertEquals(string, parsed.longValue(), parsedInteger.longValue());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testParse() {
+    DecimalFormat format = createFormat("#.#", Locale.US);
+    DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+    symbols.setDecimalSeparator(',');
+    symbols.setGroupingSeparator('.');
+    format.setDecimalFormatSymbols(symbols);
+    FastNumberConverter converter = FastNumberConverter.compile(format);
+
+    assertEquals(Double.valueOf(-12.5d), converter.parseNumber("-12,5"));
+    assertEquals(Long.valueOf(123L), converter.parseInteger("123"));
+    // Grouping symbols, exponents, decimals for integers and too many digits are left to the format
+    assertNull(converter.parseNumber("1.000,5"));
+    assertNull(converter.parseNumber("1E3"));
+    assertNull(converter.parseInteger("12,5"));
+    assertNull(converter.parseInteger("1234567890123456789"));
+  }
+}
@@ -0,0 +1,367 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.DataAvailableNotifier;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RunThread;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the transforms of a pipeline on a fixed number of worker threads instead of giving every
+ * transform copy its own thread. Like the {@link SingleThreadedPipelineExecutor} it drives the
+ * transforms by calling processRow(), but a transform is only picked up when it can make progress
+ * without waiting: it has rows on input (or all its input is done) and there is room in all of its
+ * output row sets, error hops included. Transforms with the fullest input buffers go first so that
+ * rows flow through the pipeline instead of piling up. A transform runs for a short time slice
+ * and is then handed back so other transforms get a turn.
+ *
+ * <p>A transform can still block inside processRow(), for example when it reads an info stream or
+ * writes more rows in one go than there is room for in its output. When all workers are busy and
+ * no progress is made for a while, an extra worker is started. Extra workers stop again once they
+ * run out of work so the number of threads falls back to the configured number.
+ */
+public class CooperativePipelineScheduler {
+
+  /** The maximum number of processRow() calls in one time slice */
+  private static final int MAX_ROWS_PER_SLICE = 1000;
+
+  /** The maximum duration of one time slice */
+  private static final long SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  /** A transform which didn't run for this long goes before the others */
+  private static final long STARVATION_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  /** How long idle workers wait before they look for work again */
+  private static final long IDLE_WAIT_MILLIS = 10;
+
+  /** How often we check that the workers are still making progress */
+  private static final long STALL_CHECK_MILLIS = 200;
+
+  private final Pipeline pipeline;
+  private final ILogChannel log;
+  private final List<TransformTask> tasks;
+  private final int nrWorkers;
+  private final int maxWorkers;
+  private final int capacity;
+
+  private final DataAvailableNotifier workNotifier;
+  private final AtomicInteger nrRunningWorkers;
+  private final AtomicInteger nrBusyWorkers;
+  private final AtomicInteger nrFinishedTasks;
+  private final AtomicLong progress;
+  private final AtomicInteger scanStart;
+  private final AtomicInteger workerNr;
+
+  /**
+   * @param pipeline the pipeline to run the transforms of
+   * @param transforms the transforms to run
+   * @param nrWorkers the number of worker threads, the number of processors if 0 or lower
+   */
+  public CooperativePipelineScheduler(
+      Pipeline pipeline, List<TransformMetaDataCombi> transforms, int nrWorkers) {
+    this.pipeline = pipeline;
+    this.log = pipeline.getLogChannel();
+    this.tasks = new ArrayList<>();
+    for (TransformMetaDataCombi combi : transforms) {
+      tasks.add(new TransformTask(combi));
+    }
+    if (nrWorkers <= 0) {
+      nrWorkers = Runtime.getRuntime().availableProcessors();
+    }
+    this.nrWorkers = Math.max(1, Math.min(nrWorkers, tasks.size()));
+    this.maxWorkers = Math.max(this.nrWorkers, tasks.size());
+    this.capacity = Math.max(1, pipeline.getRowSetSize());
+
+    workNotifier = new DataAvailableNotifier();
+    nrRunningWorkers = new AtomicInteger(0);
+    nrBusyWorkers = new AtomicInteger(0);
+    nrFinishedTasks = new AtomicInteger(0);
+    progress = new AtomicLong(0L);
+    scanStart = new AtomicInteger(0);
+    workerNr = new AtomicInteger(0);
+  }
+
+  /** Start the worker threads. This method returns immediately. */
+  public void start() {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    if (log.isDetailed()) {
+      log.logDetailed(
+          "Running " + tasks.size() + " transform copies on " + nrWorkers + " worker threads");
+    }
+    for (int i = 0; i < nrWorkers; i++) {
+      startWorker(false);
+    }
+    Thread monitor = new Thread(this::monitorProgress);
+    monitor.setName(pipeline.getName() + " - scheduler monitor");
+    monitor.setDaemon(true);
+    monitor.start();
+  }
+
+  private void startWorker(boolean extra) {
+    nrRunningWorkers.incrementAndGet();
+    Thread worker = new Thread(() -> work(extra));
+    worker.setName(pipeline.getName() + " - worker " + workerNr.incrementAndGet());
+    worker.start();
+  }
+
+  /** @return true if all the transforms finished */
+  public boolean isFinished() {
+    return nrFinishedTasks.get() >= tasks.size();
+  }
+
+  /** @return the number of worker threads currently running */
+  public int getNrRunningWorkers() {
+    return nrRunningWorkers.get();
+  }
+
+  private void work(boolean extra) {
+    try {
+      while (!isFinished()) {
+        long sequence = workNotifier.getSequence();
+        TransformTask task = claimNextTask();
+        if (task == null) {
+          if (extra && nrRunningWorkers.get() > nrWorkers) {
+            // Not needed anymore, back to the configured number of workers
+            //
+            return;
+          }
+          workNotifier.await(sequence, IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+          continue;
+        }
+        nrBusyWorkers.incrementAndGet();
+        try {
+          task.runSlice();
+        } finally {
+          nrBusyWorkers.decrementAndGet();
+          task.release();
+        }
+        // The transform produced or consumed rows: other transforms might be able to continue.
+        //
+        workNotifier.signal();
+      }
+    } finally {
+      nrRunningWorkers.decrementAndGet();
+      workNotifier.signal();
+    }
+  }
+
+  /**
+   * Start an extra worker when all the workers are busy but none of them finished a processRow()
+   * call since the last check: they are all blocked.
+   */
+  private void monitorProgress() {
+    long lastProgress = -1L;
+    while (!isFinished()) {
+      try {
+        Thread.sleep(STALL_CHECK_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long currentProgress = progress.get();
+      int busy = nrBusyWorkers.get();
+      if (currentProgress == lastProgress
+          && busy > 0
+          && busy >= nrRunningWorkers.get()
+          && nrRunningWorkers.get() < maxWorkers
+          && !isFinished()) {
+        if (log.isDebug()) {
+          log.logDebug("All scheduler workers are blocked, starting an extra worker");
+        }
+        startWorker(true);
+      }
+      lastProgress = currentProgress;
+    }
+  }
+
+  /**
+   * Find the transform which is most in need of running and claim it.
+   *
+   * @return the claimed transform or null if no transform can run right now
+   */
+  private TransformTask claimNextTask() {
+    long now = System.nanoTime();
+    int size = tasks.size();
+    int start = Math.floorMod(scanStart.getAndIncrement(), size);
+    TransformTask best = null;
+    double bestScore = -1.0;
+    for (int i = 0; i < size; i++) {
+      TransformTask task = tasks.get((start + i) % size);
+      if (!task.claim()) {
+        continue;
+      }
+      double score = task.getScore(now);
+      if (score > bestScore) {
+        if (best != null) {
+          best.release();
+        }
+        best = task;
+        bestScore = score;
+      } else {
+        task.release();
+      }
+    }
+    return best;
+  }
+
+  private class TransformTask {
+    private final ITransform transform;
+    private final RunThread runThread;
+    private final AtomicBoolean claimed;
+    private boolean started;
+    private boolean finished;
+    private long lastRunNanos;
+
+    TransformTask(TransformMetaDataCombi combi) {
+      this.transform = combi.transform;
+      this.runThread = new RunThread(combi);
+      this.claimed = new AtomicBoolean(false);
+      this.lastRunNanos = System.nanoTime();
+    }
+
+    boolean claim() {
+      if (claimed.compareAndSet(false, true)) {
+        if (!finished) {
+          return true;
+        }
+        claimed.set(false);
+      }
+      return false;
+    }
+
+    void release() {
+      claimed.set(false);
+    }
+
+    /**
+     * Only call this on a claimed task.
+     *
+     * @return a negative value if the transform can't run without waiting, otherwise how urgent it
+     *     is to run the transform.
+     */
+    double getScore(long now) {
+      if (transform.isStopped()) {
+        return 2.0;
+      }
+      double inputScore = hasOutputRoom() ? getInputScore() : -1.0;
+      if (inputScore < 0) {
+        // A transform which didn't start yet is still flagged as running, without processing rows
+        //
+        return started ? -1.0 : 0.0;
+      }
+      if (now - lastRunNanos > STARVATION_NANOS) {
+        inputScore += 1.0;
+      }
+      return inputScore;
+    }
+
+    /** @return true if none of the output row sets is full */
+    private boolean hasOutputRoom() {
+      List<IRowSet> outputRowSets = transform.getOutputRowSets();
+      for (int i = 0; i < outputRowSets.size(); i++) {
+        if (outputRowSets.get(i).size() >= capacity) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * @return the fill ratio of the fullest input row set, 0 if there is no input or all input is
+     *     done, -1 if there are no rows to read yet
+     */
+    private double getInputScore() {
+      List<IRowSet> inputRowSets = transform.getInputRowSets();
+      if (inputRowSets.isEmpty()) {
+        return 0.0;
+      }
+      boolean allDone = true;
+      int maxSize = 0;
+      for (int i = 0; i < inputRowSets.size(); i++) {
+        IRowSet rowSet = inputRowSets.get(i);
+        maxSize = Math.max(maxSize, rowSet.size());
+        if (!rowSet.isDone()) {
+          allDone = false;
+        }
+      }
+      if (maxSize > 0) {
+        return Math.min(1.0, (double) maxSize / capacity);
+      }
+      return allDone ? 0.0 : -1.0;
+    }
+
+    /** Call processRow() for a short while. Only call this on a claimed task. */
+    void runSlice() {
+      long sliceStart = System.nanoTime();
+      lastRunNanos = sliceStart;
+      boolean done = false;
+      try {
+        if (!started) {
+          started = true;
+          runThread.startRunning();
+        }
+        if (transform.isStopped() || pipeline.isStopped()) {
+          done = true;
+          return;
+        }
+        // processRow() would block the worker until rows arrive or there is room for them
+        //
+        if (!hasOutputRoom() || getInputScore() < 0) {
+          return;
+        }
+        for (int i = 0; i < MAX_ROWS_PER_SLICE; i++) {
+          boolean more = transform.processRow();
+          progress.incrementAndGet();
+          if (!more || transform.isStopped()) {
+            done = true;
+            return;
+          }
+          if (System.nanoTime() - sliceStart > SLICE_NANOS
+              || !hasOutputRoom()
+              || getInputScore() < 0) {
+            return;
+          }
+        }
+      } catch (Throwable t) {
+        done = true;
+        runThread.handleError(t);
+      } finally {
+        if (done) {
+          finished = true;
+          try {
+            runThread.finishRunning();
+          } finally {
+            nrFinishedTasks.incrementAndGet();
+          }
+        }
+      }
+    }
+  }
+}
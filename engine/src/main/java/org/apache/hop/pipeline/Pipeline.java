@@ -301,6 +301,24 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** The type of row sets to allocate between transforms */
+  protected RowSetType rowSetType;
+
+  /** How the lock-free row sets wait for rows or free space */
+  protected RowSetWaitStrategy rowSetWaitStrategy;
+
+  /** The kind of threads to run the transform copies in */
+  protected ExecutionThreadType executionThreadType;
+
+  /** Run the transforms on a fixed number of worker threads instead of one thread per copy */
+  protected boolean cooperativeScheduling;
+
+  /** The number of worker threads for cooperative scheduling, 0 or lower for the number of cores */
+  protected int schedulerThreads;
+
+  /** The scheduler running the transforms in case of cooperative scheduling */
+  protected CooperativePipelineScheduler scheduler;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -332,6 +350,9 @@ public abstract class Pipeline
     extensionDataMap = new HashMap<>();
 
     rowSetSize = Const.ROWS_IN_ROWSET;
+    rowSetType = RowSetType.Automatic;
+    rowSetWaitStrategy = RowSetWaitStrategy.Park;
+    executionThreadType = ExecutionThreadType.Platform;
   }
 
   /**
@@ -633,19 +654,7 @@ public abstract class Pipeline
             IRowSet rowSet;
             switch (pipelineMeta.getPipelineType()) {
               case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                    ValueMetaString.convertStringToBoolean(
-                        System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet.booleanValue()) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
-                } else {
-                  rowSet = new BlockingRowSet(rowSetSize);
-                }
+                rowSet = createRowSet(dispatchType);
                 break;
 
               case SingleThreaded:
@@ -933,7 +942,7 @@ public abstract class Pipeline
 
       // Put it in a separate thread!
       //
-      threads[i] = new Thread(initThreads[i]);
+      threads[i] = getThreadType().newThread(initThreads[i]);
       threads[i].setName(
           "init of " + sid.transformName + "." + sid.copy + " (" + threads[i].getName() + ")");
 
@@ -1195,9 +1204,6 @@ public abstract class Pipeline
         // Now start all the threads...
         //
         for (final TransformMetaDataCombi combi : transforms) {
-          RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
           ExtensionPointHandler.callExtensionPoint(
               log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
           // Call an extension point at the end of the transform
@@ -1213,7 +1219,18 @@ public abstract class Pipeline
                 }
               });
 
-          thread.start();
+          if (!cooperativeScheduling) {
+            RunThread runThread = new RunThread(combi);
+            Thread thread = getThreadType().newThread(runThread);
+            thread.setName(getName() + " - " + combi.transformName);
+            thread.start();
+          }
+        }
+        if (cooperativeScheduling) {
+          // The transforms share a fixed number of worker threads
+          //
+          scheduler = new CooperativePipelineScheduler(this, transforms, schedulerThreads);
+          scheduler.start();
         }
         break;
 
@@ -3229,6 +3246,10 @@ public abstract class Pipeline
             metrics.setComponentMetric(
                 combi.transform, METRIC_REJECTED, combi.transform.getLinesRejected());
             metrics.setComponentMetric(combi.transform, METRIC_ERROR, combi.transform.getErrors());
+            for (Map.Entry<IEngineMetric, Long> entry :
+                combi.transform.getTransformMetrics().entrySet()) {
+              metrics.setComponentMetric(combi.transform, entry.getKey(), entry.getValue());
+            }
 
             long inputBufferSize = 0;
             for (IRowSet rowSet : transform.getInputRowSets()) {
@@ -3397,6 +3418,45 @@ public abstract class Pipeline
     executionFinishedListeners.add(listener);
   }
 
+  /**
+   * Allocate a row set for a hop between 2 copies of transforms in a normal, multi-threaded
+   * pipeline.
+   *
+   * @param dispatchType the type of dispatching between the source and target transform copies
+   * @return a new row set
+   */
+  protected IRowSet createRowSet(int dispatchType) {
+    // This is a temporary patch until the batching rowset has proven
+    // to be working in all situations.
+    // Currently there are stalling problems when dealing with small
+    // amounts of rows.
+    //
+    Boolean batchingRowSet =
+        ValueMetaString.convertStringToBoolean(System.getProperty(Const.HOP_BATCHING_ROWSET));
+    if (batchingRowSet != null && batchingRowSet.booleanValue()) {
+      return new BlockingBatchingRowSet(rowSetSize);
+    }
+
+    RowSetType type = rowSetType == null ? RowSetType.Blocking : rowSetType;
+    switch (type) {
+      case Automatic:
+        // A hop between 2 single copy transforms has exactly one writer and one reader thread.
+        //
+        if (dispatchType == TYPE_DISP_1_1) {
+          return new RingBufferRowSet(rowSetSize, rowSetWaitStrategy);
+        }
+        return new BlockingRowSet(rowSetSize);
+      case RingBuffer:
+        // Every one of these row sets connects a single source copy to a single target copy.
+        //
+        return new RingBufferRowSet(rowSetSize, rowSetWaitStrategy);
+      case Batching:
+        return new BlockingBatchingRowSet(rowSetSize);
+      default:
+        return new BlockingRowSet(rowSetSize);
+    }
+  }
+
   /**
    * Gets rowSetSize
    *
@@ -3411,6 +3471,80 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public RowSetType getRowSetType() {
+    return rowSetType;
+  }
+
+  /** @param rowSetType The rowSetType to set */
+  public void setRowSetType(RowSetType rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets rowSetWaitStrategy
+   *
+   * @return value of rowSetWaitStrategy
+   */
+  public RowSetWaitStrategy getRowSetWaitStrategy() {
+    return rowSetWaitStrategy;
+  }
+
+  /** @param rowSetWaitStrategy The rowSetWaitStrategy to set */
+  public void setRowSetWaitStrategy(RowSetWaitStrategy rowSetWaitStrategy) {
+    this.rowSetWaitStrategy = rowSetWaitStrategy;
+  }
+
+  private ExecutionThreadType getThreadType() {
+    return executionThreadType == null ? ExecutionThreadType.Platform : executionThreadType;
+  }
+
+  /**
+   * Gets executionThreadType
+   *
+   * @return value of executionThreadType
+   */
+  public ExecutionThreadType getExecutionThreadType() {
+    return executionThreadType;
+  }
+
+  /** @param executionThreadType The executionThreadType to set */
+  public void setExecutionThreadType(ExecutionThreadType executionThreadType) {
+    this.executionThreadType = executionThreadType;
+  }
+
+  /**
+   * Gets cooperativeScheduling
+   *
+   * @return value of cooperativeScheduling
+   */
+  public boolean isCooperativeScheduling() {
+    return cooperativeScheduling;
+  }
+
+  /** @param cooperativeScheduling The cooperativeScheduling to set */
+  public void setCooperativeScheduling(boolean cooperativeScheduling) {
+    this.cooperativeScheduling = cooperativeScheduling;
+  }
+
+  /**
+   * Gets schedulerThreads
+   *
+   * @return value of schedulerThreads
+   */
+  public int getSchedulerThreads() {
+    return schedulerThreads;
+  }
+
+  /** @param schedulerThreads The schedulerThreads to set */
+  public void setSchedulerThreads(int schedulerThreads) {
+    this.schedulerThreads = schedulerThreads;
+  }
+
   /**
    * Gets feedbackShown
    *
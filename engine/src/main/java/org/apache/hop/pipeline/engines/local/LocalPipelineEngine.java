@@ -18,8 +18,11 @@
 package org.apache.hop.pipeline.engines.local;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.ExecutionThreadType;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.Result;
+import org.apache.hop.core.RowSetType;
+import org.apache.hop.core.RowSetWaitStrategy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.map.DatabaseConnectionMap;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -98,6 +101,16 @@ public class LocalPipelineEngine extends Pipeline implements IPipelineEngine<Pip
 
     int sizeRowsSet = Const.toInt(resolve(config.getRowSetSize()), Const.ROWS_IN_ROWSET);
     setRowSetSize(sizeRowsSet);
+    setRowSetType(
+        RowSetType.getTypeForName(resolve(config.getRowSetType()), RowSetType.Automatic));
+    setRowSetWaitStrategy(
+        RowSetWaitStrategy.getStrategyForName(
+            resolve(config.getRowSetWaitStrategy()), RowSetWaitStrategy.Park));
+    setExecutionThreadType(
+        ExecutionThreadType.getTypeForName(
+            resolve(config.getExecutionThreadType()), ExecutionThreadType.Platform));
+    setCooperativeScheduling(config.isCooperativeScheduling());
+    setSchedulerThreads(Const.toInt(resolve(config.getSchedulerThreads()), 0));
     setSafeModeEnabled(config.isSafeModeEnabled());
     setSortingTransformsTopologically(config.isSortingTransformsTopologically());
     setGatheringMetrics(config.isGatheringMetrics());
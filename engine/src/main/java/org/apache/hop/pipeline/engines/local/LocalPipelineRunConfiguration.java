@@ -18,6 +18,9 @@
 package org.apache.hop.pipeline.engines.local;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.ExecutionThreadType;
+import org.apache.hop.core.RowSetType;
+import org.apache.hop.core.RowSetWaitStrategy;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
@@ -46,6 +49,69 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "rowset_size")
   protected String rowSetSize;
 
+  @GuiWidgetElement(
+      id = "rowSetType",
+      order = "012",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.ToolTip",
+      comboValuesMethod = "getRowSetTypes")
+  @HopMetadataProperty(key = "rowset_type")
+  protected String rowSetType;
+
+  @GuiWidgetElement(
+      id = "rowSetWaitStrategy",
+      order = "014",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetWaitStrategy.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetWaitStrategy.ToolTip",
+      comboValuesMethod = "getRowSetWaitStrategies")
+  @HopMetadataProperty(key = "rowset_wait_strategy")
+  protected String rowSetWaitStrategy;
+
+  @GuiWidgetElement(
+      id = "executionThreadType",
+      order = "016",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.ExecutionThreadType.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.ExecutionThreadType.ToolTip",
+      comboValuesMethod = "getExecutionThreadTypes")
+  @HopMetadataProperty(key = "execution_thread_type")
+  protected String executionThreadType;
+
+  @GuiWidgetElement(
+      id = "cooperativeScheduling",
+      order = "017",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.CooperativeScheduling.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.CooperativeScheduling.ToolTip")
+  @HopMetadataProperty(key = "cooperative_scheduling")
+  protected boolean cooperativeScheduling;
+
+  @GuiWidgetElement(
+      id = "schedulerThreads",
+      order = "018",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.SchedulerThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.SchedulerThreads.ToolTip")
+  @HopMetadataProperty(key = "scheduler_threads")
+  protected String schedulerThreads;
+
   @GuiWidgetElement(
       id = "safeModeEnabled",
       order = "020",
@@ -154,6 +220,9 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public LocalPipelineRunConfiguration() {
     super();
     this.rowSetSize = Integer.toString(Const.ROWS_IN_ROWSET);
+    this.rowSetType = RowSetType.Automatic.name();
+    this.rowSetWaitStrategy = RowSetWaitStrategy.Park.name();
+    this.executionThreadType = ExecutionThreadType.Platform.name();
     this.feedbackShown = false;
     this.feedbackSize = Integer.toString(Const.ROWS_UPDATE);
     this.waitTime = EnvUtil.getSystemProperty(Const.HOP_DEFAULT_BUFFER_POLLING_WAITTIME, "20");
@@ -165,6 +234,11 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
     super(config);
     this.rowSetSize = config.rowSetSize;
+    this.rowSetType = config.rowSetType;
+    this.rowSetWaitStrategy = config.rowSetWaitStrategy;
+    this.executionThreadType = config.executionThreadType;
+    this.cooperativeScheduling = config.cooperativeScheduling;
+    this.schedulerThreads = config.schedulerThreads;
     this.feedbackShown = config.feedbackShown;
     this.feedbackSize = config.feedbackSize;
     this.waitTime = config.waitTime;
@@ -188,6 +262,33 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     }
     return list;
   }
+
+  public List<String> getRowSetTypes(ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (RowSetType type : RowSetType.values()) {
+      list.add(type.name());
+    }
+    return list;
+  }
+
+  public List<String> getRowSetWaitStrategies(
+      ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (RowSetWaitStrategy strategy : RowSetWaitStrategy.values()) {
+      list.add(strategy.name());
+    }
+    return list;
+  }
+
+  public List<String> getExecutionThreadTypes(
+      ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (ExecutionThreadType type : ExecutionThreadType.values()) {
+      list.add(type.name());
+    }
+    return list;
+  }
+
   /**
    * Gets rowSetSize
    *
@@ -204,6 +305,80 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public String getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(String rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets rowSetWaitStrategy
+   *
+   * @return value of rowSetWaitStrategy
+   */
+  public String getRowSetWaitStrategy() {
+    return rowSetWaitStrategy;
+  }
+
+  /**
+   * @param rowSetWaitStrategy The rowSetWaitStrategy to set
+   */
+  public void setRowSetWaitStrategy(String rowSetWaitStrategy) {
+    this.rowSetWaitStrategy = rowSetWaitStrategy;
+  }
+
+  /**
+   * Gets executionThreadType
+   *
+   * @return value of executionThreadType
+   */
+  public String getExecutionThreadType() {
+    return executionThreadType;
+  }
+
+  /** @param executionThreadType The executionThreadType to set */
+  public void setExecutionThreadType(String executionThreadType) {
+    this.executionThreadType = executionThreadType;
+  }
+
+  /**
+   * Gets cooperativeScheduling
+   *
+   * @return value of cooperativeScheduling
+   */
+  public boolean isCooperativeScheduling() {
+    return cooperativeScheduling;
+  }
+
+  /** @param cooperativeScheduling The cooperativeScheduling to set */
+  public void setCooperativeScheduling(boolean cooperativeScheduling) {
+    this.cooperativeScheduling = cooperativeScheduling;
+  }
+
+  /**
+   * Gets schedulerThreads
+   *
+   * @return value of schedulerThreads
+   */
+  public String getSchedulerThreads() {
+    return schedulerThreads;
+  }
+
+  /** @param schedulerThreads The schedulerThreads to set */
+  public void setSchedulerThreads(String schedulerThreads) {
+    this.schedulerThreads = schedulerThreads;
+  }
+
   /**
    * Gets safeModeEnabled
    *
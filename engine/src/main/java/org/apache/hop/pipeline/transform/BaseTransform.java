@@ -29,7 +29,9 @@ import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.logging.*;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.util.EnvUtil;
@@ -185,7 +187,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   /** the rowsets on the output, size() == nr of target transforms */
   private List<IRowSet> outputRowSets;
 
-  private DynamicWaitTimes.SingleStreamStatus waitingTime;
+  /** Signaled by the input row sets when they receive rows or when they are done */
+  private final DataAvailableNotifier inputNotifier = new DataAvailableNotifier();
+
+  /** The maximum time in ms to wait for rows before checking for stops and pauses */
+  private Integer waitingTime;
 
   private final ReadWriteLock outputRowSetsLock = new ReentrantReadWriteLock();
 
@@ -272,8 +278,14 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private static final int NR_OF_ROWS_IN_BLOCK = 500;
 
+  /** The number of rows transforms typically ask for with {@link #getRows(int)} */
+  protected static final int NR_OF_ROWS_IN_BATCH = 100;
+
   private int blockPointer;
 
+  /** Re-used to hand over the input rows in columnar form, see {@link #getRowBatch(int)} */
+  private RowBatch rowBatch;
+
   private List<ITransformFinishedListener> transformFinishedListeners;
   private List<ITransformStartedListener> transformStartedListeners;
 
@@ -627,6 +639,19 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * Increments the number of lines read from previous transforms
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesRead(long nrLines) {
+    synchronized (statusCountersLock) {
+      linesRead += nrLines;
+      return linesRead;
+    }
+  }
+
   /**
    * Decrements the number of lines read from previous transforms by one
    *
@@ -741,6 +766,19 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * Increments the number of lines written to next transforms
+   *
+   * @param nrLines the number of lines to add
+   * @return Returns the new value
+   */
+  public long incrementLinesWritten(long nrLines) {
+    synchronized (statusCountersLock) {
+      linesWritten += nrLines;
+      return linesWritten;
+    }
+  }
+
   /**
    * Decrements the number of lines written to next transforms by one
    *
@@ -957,6 +995,47 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    verifyFieldNamesAndTypes(rowMeta);
+    getRowHandler().putRow(rowMeta, row);
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  /**
+   * Put a number of rows on the destination rowsets in one go. The rows are handled exactly like
+   * they would be by calling {@link #putRow(IRowMeta, Object[])} for each of them. However, when
+   * there is only one target row set, checking for pauses or stops and locking the output row sets
+   * is only done once for the whole batch.
+   *
+   * @param rowMeta The row meta-data of all the rows
+   * @param rows The rows to put to the destination rowset(s)
+   * @param nrRows The number of rows from the start of the array to put
+   * @throws HopTransformException
+   */
+  public void putRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws HopTransformException {
+    if (nrRows <= 0) {
+      return;
+    }
+    if (nrRows == 1) {
+      putRow(rowMeta, rows[0]);
+      return;
+    }
+    verifyFieldNamesAndTypes(rowMeta);
+    getRowHandler().putRows(rowMeta, rows, nrRows);
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  private void verifyFieldNamesAndTypes(IRowMeta rowMeta) throws HopTransformException {
     if (rowMeta != null) {
       if (!allowEmptyFieldNamesAndTypes) {
         // check row meta for empty field name (BACKLOG-18004)
@@ -974,16 +1053,110 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
       }
     }
-    getRowHandler().putRow(rowMeta, row);
+  }
 
-    // This transform is not reading data, only writing
+  private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    if (!waitToPutRows()) {
+      return;
+    }
+
+    // call all row listeners...
     //
-    if (firstRowReadDate == null) {
-      firstRowReadDate = new Date();
+    for (IRowListener listener : rowListeners) {
+      listener.rowWrittenEvent(rowMeta, row);
+    }
+
+    // Keep adding to terminator_rows buffer...
+    //
+    if (terminator && terminatorRows != null) {
+      try {
+        terminatorRows.add(rowMeta.cloneRow(row));
+      } catch (HopValueException e) {
+        throw new HopTransformException(
+            "Unable to clone row while adding rows to the terminator rows.", e);
+      }
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.isEmpty()) {
+        // No more output rowsets!
+        // Still update the nr of lines written.
+        //
+        incrementLinesWritten();
+
+        return; // we're done here!
+      }
+
+      putRowToOutputRowSets(rowMeta, row);
+    } finally {
+      outputRowSetsLock.readLock().unlock();
     }
   }
 
-  private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+  private void handlePutRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws HopTransformException {
+    if (!waitToPutRows()) {
+      return;
+    }
+
+    for (int i = 0; i < nrRows; i++) {
+      Object[] row = rows[i];
+
+      // call all row listeners...
+      //
+      for (IRowListener listener : rowListeners) {
+        listener.rowWrittenEvent(rowMeta, row);
+      }
+
+      // Keep adding to terminator_rows buffer...
+      //
+      if (terminator && terminatorRows != null) {
+        try {
+          terminatorRows.add(rowMeta.cloneRow(row));
+        } catch (HopValueException e) {
+          throw new HopTransformException(
+              "Unable to clone row while adding rows to the terminator rows.", e);
+        }
+      }
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if (outputRowSets.isEmpty()) {
+        // No more output rowsets!
+        // Still update the nr of lines written.
+        //
+        incrementLinesWritten(nrRows);
+
+        return; // we're done here!
+      }
+
+      // Only a single target without partitioning or a plugin defined row distribution can take
+      // the rows in one go.  Everything else still goes row by row.
+      //
+      if (outputRowSets.size() > 1
+          || repartitioning != TransformPartitioningMeta.PARTITIONING_METHOD_NONE
+          || (distributed && rowDistribution != null)) {
+        for (int i = 0; i < nrRows; i++) {
+          putRowToOutputRowSets(rowMeta, rows[i]);
+        }
+        return;
+      }
+
+      putRowsToRowSet(outputRowSets.get(0), rowMeta, rows, nrRows);
+      incrementLinesWritten(nrRows);
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Wait while the transform is paused and until the pipeline is running.
+   *
+   * @return false if the transform is stopped and no rows should be written anymore
+   */
+  private boolean waitToPutRows() throws HopTransformException {
     // Are we pausing the transform? If so, stall forever...
     //
     while (paused.get() && !stopped.get()) {
@@ -1002,7 +1175,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         logDebug(BaseMessages.getString(PKG, "BaseTransform.Log.StopPuttingARow"));
       }
       stopAll();
-      return;
+      return false;
     }
 
     // Have all threads started?
@@ -1025,57 +1198,31 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       }
       this.checkPipelineRunning = true;
     }
+    return true;
+  }
 
-    // call all row listeners...
+  /** Send a row to the output row sets. The caller holds the output row sets read lock. */
+  private void putRowToOutputRowSets(IRowMeta rowMeta, Object[] row)
+      throws HopTransformException {
+    // Repartitioning happens when the current transform is not partitioned, but the next one is.
+    // That means we need to look up the partitioning information in the next transform..
+    // If there are multiple transforms, we need to look at the first (they should be all the
+    // same)
     //
-    for (IRowListener listener : rowListeners) {
-      listener.rowWrittenEvent(rowMeta, row);
-    }
+    switch (repartitioning) {
+      case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
+        noPartitioning(rowMeta, row);
+        break;
 
-    // Keep adding to terminator_rows buffer...
-    //
-    if (terminator && terminatorRows != null) {
-      try {
-        terminatorRows.add(rowMeta.cloneRow(row));
-      } catch (HopValueException e) {
+      case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
+        specialPartitioning(rowMeta, row);
+        break;
+      case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
+        mirrorPartitioning(rowMeta, row);
+        break;
+      default:
         throw new HopTransformException(
-            "Unable to clone row while adding rows to the terminator rows.", e);
-      }
-    }
-
-    outputRowSetsLock.readLock().lock();
-    try {
-      if (outputRowSets.isEmpty()) {
-        // No more output rowsets!
-        // Still update the nr of lines written.
-        //
-        incrementLinesWritten();
-
-        return; // we're done here!
-      }
-
-      // Repartitioning happens when the current transform is not partitioned, but the next one is.
-      // That means we need to look up the partitioning information in the next transform..
-      // If there are multiple transforms, we need to look at the first (they should be all the
-      // same)
-      //
-      switch (repartitioning) {
-        case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
-          noPartitioning(rowMeta, row);
-          break;
-
-        case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
-          specialPartitioning(rowMeta, row);
-          break;
-        case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
-          mirrorPartitioning(rowMeta, row);
-          break;
-        default:
-          throw new HopTransformException(
-              "Internal error: invalid repartitioning type: " + repartitioning);
-      }
-    } finally {
-      outputRowSetsLock.readLock().unlock();
+            "Internal error: invalid repartitioning type: " + repartitioning);
     }
   }
 
@@ -1229,12 +1376,44 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * The row metadata handed to an output row set doesn't change once rows are sent with it. A
+   * frozen copy lets the reading transform look up fields for every row without any locking.
+   */
+  private static IRowMeta frozenClone(IRowMeta rowMeta) {
+    IRowMeta clone = rowMeta.clone();
+    if (clone instanceof RowMeta) {
+      ((RowMeta) clone).freeze();
+    }
+    return clone;
+  }
+
+  private void putRowsToRowSet(IRowSet rs, IRowMeta rowMeta, Object[][] rows, int nrRows) {
+    IRowMeta toBeSent;
+    IRowMeta metaFromRs = rs.getRowMeta();
+    if (metaFromRs == null) {
+      // IRowSet is not initialised so far
+      toBeSent = frozenClone(rowMeta);
+    } else {
+      // use the existing
+      toBeSent = metaFromRs;
+    }
+
+    int offset = 0;
+    while (offset < nrRows) {
+      offset += rs.putRows(toBeSent, rows, offset, nrRows - offset);
+      if (offset < nrRows && isStopped() && !safeStopped.get()) {
+        return;
+      }
+    }
+  }
+
   private void putRowToRowSet(IRowSet rs, IRowMeta rowMeta, Object[] row) {
     IRowMeta toBeSent;
     IRowMeta metaFromRs = rs.getRowMeta();
     if (metaFromRs == null) {
       // IRowSet is not initialised so far
-      toBeSent = rowMeta.clone();
+      toBeSent = frozenClone(rowMeta);
     } else {
       // use the existing
       toBeSent = metaFromRs;
@@ -1442,6 +1621,28 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * @return the maximum time in ms to wait for input rows before checking if the transform was
+   *     stopped. This is the wait time of the local run configuration or the value of variable
+   *     HOP_DEFAULT_BUFFER_POLLING_WAITTIME.
+   */
+  private int getWaitingTime() {
+    if (waitingTime == null) {
+      int waitTime =
+          Const.toInt(EnvUtil.getSystemProperty(Const.HOP_DEFAULT_BUFFER_POLLING_WAITTIME), 20);
+      if (pipeline.getPipelineRunConfiguration() != null
+          && pipeline.getPipelineRunConfiguration().getEngineRunConfiguration()
+              instanceof LocalPipelineRunConfiguration) {
+        LocalPipelineRunConfiguration runconfig =
+            (LocalPipelineRunConfiguration)
+                pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+        waitTime = Const.toInt(runconfig.getWaitTime(), waitTime);
+      }
+      waitingTime = waitTime;
+    }
+    return waitingTime;
+  }
+
   /** Find the next not-finished input-stream... in_handling says which one... */
   private void nextInputStream() {
     blockPointer = 0;
@@ -1498,6 +1699,81 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * Read a number of rows from the previous transforms in one go. This waits for the first row
+   * exactly like {@link #getRow()}. After that it only picks up the rows which are already waiting
+   * in the same input row set, without any further checks for pauses, stops or rejection rates.
+   * All returned rows are described by {@link #getInputRowMeta()}.
+   *
+   * @param maxRows The maximum number of rows to return
+   * @return between 1 and maxRows rows, or null if there is no more input
+   * @throws HopException
+   */
+  public Object[][] getRows(int maxRows) throws HopException {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    if (maxRows <= 1 || !(getRowHandler() instanceof DefaultRowHandler)) {
+      return new Object[][] {row};
+    }
+
+    Object[][] rows = new Object[maxRows][];
+    rows[0] = row;
+    int nrRows = 1;
+
+    inputRowSetsLock.readLock().lock();
+    try {
+      // The first row came from the current input row set.
+      // The rows waiting behind it share the same row metadata.
+      //
+      if (currentInputRowSetNr < inputRowSets.size() && !isStopped()) {
+        nrRows += currentInputStream().drainTo(rows, 1, maxRows - 1);
+      }
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    if (nrRows > 1) {
+      incrementLinesRead(nrRows - 1);
+      blockPointer += nrRows - 1;
+
+      for (int i = 1; i < nrRows; i++) {
+        for (IRowListener listener : rowListeners) {
+          listener.rowReadEvent(inputRowMeta, rows[i]);
+        }
+      }
+    }
+    if (nrRows < maxRows) {
+      rows = Arrays.copyOf(rows, nrRows);
+    }
+    return rows;
+  }
+
+  /**
+   * Read a number of rows like {@link #getRows(int)} and hand them over column by column.
+   * Transforms which evaluate something over all the rows of a batch can opt in to this to work on
+   * primitive values instead of boxed ones. The original rows are still available with {@link
+   * RowBatch#getRow(int)}.
+   *
+   * <p>The same batch instance is returned on every call so don't hold on to it.
+   *
+   * @param maxRows The maximum number of rows to return
+   * @return a batch with between 1 and maxRows rows, or null if there is no more input
+   * @throws HopException
+   */
+  public RowBatch getRowBatch(int maxRows) throws HopException {
+    Object[][] rows = getRows(maxRows);
+    if (rows == null) {
+      return null;
+    }
+    if (rowBatch == null) {
+      rowBatch = new RowBatch(maxRows);
+    }
+    rowBatch.load(getInputRowMeta(), rows, rows.length);
+    return rowBatch;
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -1554,18 +1830,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         inputRowSet = currentInputStream();
       }
 
-      // To reduce stress on the locking system we are going to allow
-      // The buffer to grow beyond "a few" entries.
-      // We'll only do that if the previous transform has not ended...
-
-      if (!inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped()) {
-        try {
-          Thread.sleep(0, 1);
-        } catch (InterruptedException e) {
-          // Ignore sleep interruption exception
-        }
-      }
-
       // See if this transform is receiving partitioned data...
       // In that case it might be the case that one input row set is receiving
       // all data and
@@ -1576,40 +1840,31 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       // alternatively.
       // So in THIS particular case it is safe to just read 100 rows from one
       // rowset, then switch to another etc.
-      // We can use timeouts to switch from one to another...
       //
-      if (waitingTime == null) {
-        Integer waitTime =
-            Const.toInt(EnvUtil.getSystemProperty(Const.HOP_DEFAULT_BUFFER_POLLING_WAITTIME), 20);
-        ;
-        if (pipeline.getPipelineRunConfiguration().getEngineRunConfiguration()
-            instanceof LocalPipelineRunConfiguration) {
-          LocalPipelineRunConfiguration runconfig =
-              (LocalPipelineRunConfiguration)
-                  pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
-          waitTime = Const.toInt(runconfig.getWaitTime(), waitTime);
-        }
-        waitingTime = DynamicWaitTimes.build(inputRowSets, this::getCurrentInputRowSetNr, waitTime);
-      }
+      // When none of the row sets has a row we wait until one of them signals new rows or that
+      // it's done. The waiting time only limits how long it takes to notice a stop.
+      //
+      int waitTime = getWaitingTime();
+      int emptyRowSets = 0;
+      long sequence = 0L;
       while (row == null && !isStopped()) {
-        // Get a row from the input in row set ...
-        // Timeout immediately if nothing is there to read.
-        // We will then switch to the next row set to read from...
-        //
-        row = inputRowSet.getRowWait(waitingTime.get(), TimeUnit.MILLISECONDS);
-        boolean timeout = false;
+        if (emptyRowSets == 0) {
+          // Remember the signals seen before looking at the row sets
+          //
+          sequence = inputNotifier.getSequence();
+        }
+        row = inputRowSet.getRowImmediate();
         if (row != null) {
           incrementLinesRead();
           blockPointer++;
-          waitingTime.reset();
         } else {
-          // Try once more...
-          // If row is still empty and the row set is done, we remove the row
-          // set from
-          // the input stream and move on to the next one...
+          // If the row set is done we try once more, to make sure that we don't miss
+          // a last row which was added right before.
+          // If row is still empty we remove the row set from the input stream and
+          // move on to the next one...
           //
           if (inputRowSet.isDone()) {
-            row = inputRowSet.getRowWait(1, TimeUnit.MILLISECONDS);
+            row = inputRowSet.getRowImmediate();
             if (row == null) {
 
               // Must release the read lock before acquisition of the write lock to prevent
@@ -1632,17 +1887,23 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
                 inputRowSetsLock.readLock().lock(); // downgrade to read lock
                 inputRowSetsLock.writeLock().unlock();
               }
+              emptyRowSets = 0;
             } else {
               incrementLinesRead();
             }
           } else {
-            timeout = true;
+            emptyRowSets++;
+            if (emptyRowSets >= inputRowSets.size()) {
+              // All the input row sets are empty: wait for any of them to receive a row.
+              //
+              inputNotifier.await(sequence, waitTime, TimeUnit.MILLISECONDS);
+              emptyRowSets = 0;
+            }
+          }
+          if (row == null) {
+            nextInputStream();
+            inputRowSet = currentInputStream();
           }
-          nextInputStream();
-          inputRowSet = currentInputStream();
-          // only change delay time when input stream don't switch.
-          // else switch active stream and reset min delay time
-          waitingTime.adjust(timeout, inputRowSet);
         }
       }
 
@@ -1907,20 +2168,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       //
       rowData = rowSet.getRow();
       if (rowData == null) {
-        Integer waitTime = 20;
-        if (pipeline.getPipelineRunConfiguration().getEngineRunConfiguration()
-            instanceof LocalPipelineRunConfiguration) {
-          LocalPipelineRunConfiguration runconfig =
-              (LocalPipelineRunConfiguration)
-                  pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
-          waitTime = Integer.parseInt(runconfig.getWaitTime());
-        }
-        if (waitTime == null) waitTime = 20;
-
-        if (waitingTime == null) {
-          waitingTime =
-              DynamicWaitTimes.build(inputRowSets, this::getCurrentInputRowSetNr, waitTime);
-        }
         // Must release the read lock before acquisition of the write lock to prevent deadlocks.
         //
         // But #handleGetRowFrom() can be called either from outside or from handleGetRow().
@@ -2284,6 +2531,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
               break;
           }
           if (rowSet != null) {
+            rowSet.setDataAvailableNotifier(inputNotifier);
             inputRowSets.add(rowSet);
             if (log.isDetailed()) {
               logDetailed(
@@ -2590,6 +2838,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   @Override
   public void stopAll() {
     stopped.set(true);
+    inputNotifier.signal(); // don't keep waiting for input rows
     pipeline.stopAll();
   }
 
@@ -2631,6 +2880,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   @Override
   public void setStopped(boolean stopped) {
     this.stopped.set(stopped);
+    if (stopped) {
+      inputNotifier.signal(); // don't keep waiting for input rows
+    }
   }
 
   @Override
@@ -2926,6 +3178,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   public void addRowSetToInputRowSets(IRowSet rowSet) {
     inputRowSetsLock.writeLock().lock();
     try {
+      rowSet.setDataAvailableNotifier(inputNotifier);
       inputRowSets.add(rowSet);
     } finally {
       inputRowSetsLock.writeLock().unlock();
@@ -2934,7 +3187,6 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
 
   private void removeRowSetFromInputRowSets(IRowSet rowSet) {
     inputRowSets.remove(rowSet);
-    waitingTime.remove(rowSet);
     if (currentInputRowSetNr > 0) {
       currentInputRowSetNr--;
     }
@@ -2983,6 +3235,11 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     inputRowSetsLock.writeLock().lock();
     try {
       this.inputRowSets = inputRowSets;
+      if (inputRowSets != null) {
+        for (IRowSet rowSet : inputRowSets) {
+          rowSet.setDataAvailableNotifier(inputNotifier);
+        }
+      }
     } finally {
       inputRowSetsLock.writeLock().unlock();
     }
@@ -3764,6 +4021,12 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       handlePutRow(rowMeta, row);
     }
 
+    @Override
+    public void putRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+        throws HopTransformException {
+      handlePutRows(rowMeta, rows, nrRows);
+    }
+
     @Override
     public void putError(
         IRowMeta rowMeta,
@@ -38,6 +38,17 @@ public interface IRowHandler {
 
   void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException;
 
+  /**
+   * Put a number of rows with the same row metadata in one go. By default this simply calls {@link
+   * #putRow(IRowMeta, Object[])} for every row.
+   */
+  default void putRows(IRowMeta rowMeta, Object[][] rows, int nrRows)
+      throws HopTransformException {
+    for (int i = 0; i < nrRows; i++) {
+      putRow(rowMeta, rows[i]);
+    }
+  }
+
   void putError(
       IRowMeta rowMeta,
       Object[] row,
@@ -30,6 +30,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 import java.util.*;
@@ -329,6 +330,16 @@ public interface ITransform
     return Collections.emptyList();
   }
 
+  /**
+   * Get the metrics specific to this transform, shown next to the standard metrics of the pipeline.
+   * For example the hits and misses of a cache.
+   *
+   * @return the metrics of this transform, empty by default
+   */
+  default Map<IEngineMetric, Long> getTransformMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
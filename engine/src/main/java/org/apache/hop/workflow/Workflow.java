@@ -147,6 +147,9 @@ public abstract class Workflow extends Variables
 
   protected boolean initializingVariablesOnStart;
 
+  /** The kind of threads to run actions in parallel with */
+  protected ExecutionThreadType executionThreadType;
+
   /**
    * This enum stores bit masks which are used to manipulate with statuses over field {@link
    * Workflow#status}
@@ -190,6 +193,7 @@ public abstract class Workflow extends Variables
     startActionResult = null;
 
     initializingVariablesOnStart = true;
+    executionThreadType = ExecutionThreadType.Platform;
   }
 
   public Workflow(WorkflowMeta workflowMeta) {
@@ -749,7 +753,10 @@ public abstract class Workflow extends Variables
                   threadResults.add(threadResult);
                 }
               };
-          Thread thread = new Thread(runnable);
+          ExecutionThreadType threadType =
+              executionThreadType == null ? ExecutionThreadType.Platform : executionThreadType;
+          Thread thread = threadType.newThread(runnable);
+          thread.setName(getWorkflowName() + " - " + nextAction.getName());
           threads.add(thread);
           thread.start();
           if (log.isBasic()) {
@@ -1627,4 +1634,18 @@ public abstract class Workflow extends Variables
   public void setInitializingVariablesOnStart(boolean initializingVariablesOnStart) {
     this.initializingVariablesOnStart = initializingVariablesOnStart;
   }
+
+  /**
+   * Gets executionThreadType
+   *
+   * @return value of executionThreadType
+   */
+  public ExecutionThreadType getExecutionThreadType() {
+    return executionThreadType;
+  }
+
+  /** @param executionThreadType The executionThreadType to set */
+  public void setExecutionThreadType(ExecutionThreadType executionThreadType) {
+    this.executionThreadType = executionThreadType;
+  }
 }
@@ -18,6 +18,7 @@
 package org.apache.hop.workflow.engines.local;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.ExecutionThreadType;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.database.Database;
@@ -87,6 +88,10 @@ public class LocalWorkflowEngine extends Workflow implements IWorkflowEngine<Wor
     LocalWorkflowRunConfiguration config =
         (LocalWorkflowRunConfiguration) workflowRunConfiguration.getEngineRunConfiguration();
 
+    setExecutionThreadType(
+        ExecutionThreadType.getTypeForName(
+            resolve(config.getExecutionThreadType()), ExecutionThreadType.Platform));
+
     // See if we need to enable transactions...
     //
     IExtensionData parentExtensionData = getParentPipeline();
@@ -17,14 +17,20 @@
 
 package org.apache.hop.workflow.engines.local;
 
+import org.apache.hop.core.ExecutionThreadType;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.workflow.config.IWorkflowEngineRunConfiguration;
 import org.apache.hop.workflow.config.WorkflowRunConfiguration;
 import org.apache.hop.workflow.engines.empty.EmptyWorkflowRunConfiguration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @GuiPlugin(description = "Local workflow run configuration widgets")
 public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
     implements IWorkflowEngineRunConfiguration {
@@ -38,6 +44,19 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   @HopMetadataProperty(key = "safe_mode")
   protected boolean safeModeEnabled;
 
+  @GuiWidgetElement(
+      id = "executionThreadType",
+      order = "030",
+      parentId = WorkflowRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.ExecutionThreadType.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.ExecutionThreadType.ToolTip",
+      comboValuesMethod = "getExecutionThreadTypes")
+  @HopMetadataProperty(key = "execution_thread_type")
+  protected String executionThreadType;
+
   @GuiWidgetElement(
       id = "transactional",
       order = "090",
@@ -53,12 +72,14 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   public LocalWorkflowRunConfiguration() {
     super();
     safeModeEnabled = false;
+    executionThreadType = ExecutionThreadType.Platform.name();
   }
 
   public LocalWorkflowRunConfiguration(LocalWorkflowRunConfiguration config) {
     super(config);
     this.safeModeEnabled = config.safeModeEnabled;
     this.transactional = config.transactional;
+    this.executionThreadType = config.executionThreadType;
   }
 
   @Override
@@ -66,6 +87,15 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
     return new LocalWorkflowRunConfiguration(this);
   }
 
+  public List<String> getExecutionThreadTypes(
+      ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (ExecutionThreadType type : ExecutionThreadType.values()) {
+      list.add(type.name());
+    }
+    return list;
+  }
+
   /**
    * Gets safeModeEnabled
    *
@@ -93,4 +123,18 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets executionThreadType
+   *
+   * @return value of executionThreadType
+   */
+  public String getExecutionThreadType() {
+    return executionThreadType;
+  }
+
+  /** @param executionThreadType The executionThreadType to set */
+  public void setExecutionThreadType(String executionThreadType) {
+    this.executionThreadType = executionThreadType;
+  }
 }
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.BlockingRowSet;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CooperativePipelineSchedulerTest {
+
+  private static final int NR_ROWS = 1000;
+  private static final int ROW_SET_SIZE = 10;
+
+  private Pipeline pipeline;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setUp() {
+    pipeline = mock(Pipeline.class);
+    when(pipeline.getLogChannel()).thenReturn(mock(ILogChannel.class));
+    when(pipeline.getRowSetSize()).thenReturn(ROW_SET_SIZE);
+    when(pipeline.getName()).thenReturn("test");
+    rowMeta = new RowMeta();
+  }
+
+  /** Three transforms in a row with buffers far too small to hold all rows, one worker thread. */
+  @Test
+  public void testChainRunsOnSingleWorker() throws Exception {
+    IRowSet first = new BlockingRowSet(ROW_SET_SIZE);
+    IRowSet second = new BlockingRowSet(ROW_SET_SIZE);
+    AtomicInteger produced = new AtomicInteger();
+    AtomicInteger consumed = new AtomicInteger();
+
+    ITransform producer =
+        mockTransform(
+            Collections.emptyList(),
+            Collections.singletonList(first),
+            () -> {
+              if (produced.get() >= NR_ROWS) {
+                first.setDone();
+                return false;
+              }
+              first.putRow(rowMeta, new Object[] {(long) produced.incrementAndGet()});
+              return true;
+            });
+    ITransform passThrough =
+        mockTransform(
+            Collections.singletonList(first),
+            Collections.singletonList(second),
+            () -> {
+              Object[] row = first.getRowImmediate();
+              if (row != null) {
+                second.putRow(rowMeta, row);
+                return true;
+              }
+              if (first.isDone() && first.size() == 0) {
+                second.setDone();
+                return false;
+              }
+              return true;
+            });
+    ITransform consumer =
+        mockTransform(
+            Collections.singletonList(second),
+            Collections.emptyList(),
+            () -> {
+              Object[] row = second.getRowImmediate();
+              if (row != null) {
+                consumed.incrementAndGet();
+                return true;
+              }
+              return !(second.isDone() && second.size() == 0);
+            });
+
+    // Deliberately in the wrong order
+    //
+    CooperativePipelineScheduler scheduler =
+        new CooperativePipelineScheduler(
+            pipeline, Arrays.asList(combi(consumer), combi(passThrough), combi(producer)), 1);
+    scheduler.start();
+
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!scheduler.isFinished() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(scheduler.isFinished());
+    assertEquals(NR_ROWS, consumed.get());
+    verify(producer).markStop();
+    verify(passThrough).markStop();
+    verify(consumer).markStop();
+  }
+
+  /**
+   * Transforms reading input row sets which stay empty for a while. A real transform blocks in
+   * getRow() until rows arrive, it must not be handed a worker before that or the stall monitor
+   * starts a worker for every transform.
+   */
+  @Test
+  public void testTransformsWaitingForInputKeepTheWorkerCount() throws Exception {
+    TransformMockHelper<ITransformMeta, ITransformData> helper =
+        new TransformMockHelper<>("reader", ITransformMeta.class, ITransformData.class);
+    try {
+      when(helper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+          .thenReturn(helper.iLogChannel);
+      when(helper.pipeline.isRunning()).thenReturn(true);
+
+      AtomicInteger read = new AtomicInteger();
+      List<IRowSet> inputs = new ArrayList<>();
+      List<TransformMetaDataCombi> combis = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        IRowSet input = new BlockingRowSet(ROW_SET_SIZE);
+        ReadingTransform transform = new ReadingTransform(helper, i, read);
+        transform.addRowSetToInputRowSets(input);
+        inputs.add(input);
+        combis.add(combi(transform));
+      }
+
+      CooperativePipelineScheduler scheduler =
+          new CooperativePipelineScheduler(pipeline, combis, 1);
+      scheduler.start();
+
+      // Long enough for several checks of the stall monitor
+      //
+      Thread.sleep(1000);
+      assertEquals(1, scheduler.getNrRunningWorkers());
+
+      for (IRowSet input : inputs) {
+        input.putRow(rowMeta, new Object[] {1L});
+        input.setDone();
+      }
+      long deadline = System.currentTimeMillis() + 30000;
+      while (!scheduler.isFinished() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertTrue(scheduler.isFinished());
+      assertEquals(4, read.get());
+    } finally {
+      helper.cleanUp();
+    }
+  }
+
+  /** Counts the rows it reads */
+  private static class ReadingTransform extends BaseTransform<ITransformMeta, ITransformData> {
+    private final AtomicInteger read;
+
+    ReadingTransform(
+        TransformMockHelper<ITransformMeta, ITransformData> helper,
+        int copyNr,
+        AtomicInteger read) {
+      super(
+          helper.transformMeta,
+          helper.iTransformMeta,
+          helper.iTransformData,
+          copyNr,
+          helper.pipelineMeta,
+          helper.pipeline);
+      this.read = read;
+    }
+
+    @Override
+    public boolean processRow() throws HopException {
+      Object[] row = getRow();
+      if (row == null) {
+        setOutputDone();
+        return false;
+      }
+      read.incrementAndGet();
+      return true;
+    }
+  }
+
+  private interface ProcessRow {
+    boolean processRow() throws Exception;
+  }
+
+  private ITransform mockTransform(
+      List<IRowSet> inputRowSets, List<IRowSet> outputRowSets, ProcessRow processRow)
+      throws Exception {
+    ITransform transform = mock(ITransform.class);
+    when(transform.getLogChannel()).thenReturn(mock(ILogChannel.class));
+    when(transform.getInputRowSets()).thenReturn(new ArrayList<>(inputRowSets));
+    when(transform.getOutputRowSets()).thenReturn(new ArrayList<>(outputRowSets));
+    when(transform.processRow()).thenAnswer(invocation -> processRow.processRow());
+    return transform;
+  }
+
+  private TransformMetaDataCombi combi(ITransform transform) {
+    TransformMetaDataCombi combi = new TransformMetaDataCombi();
+    combi.transform = transform;
+    combi.transformName = "transform";
+    return combi;
+  }
+}
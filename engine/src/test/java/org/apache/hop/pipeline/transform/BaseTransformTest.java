@@ -262,6 +262,54 @@ public class BaseTransformTest {
     verify(rowHandler, times(1)).putRow(iRowMeta, objects);
   }
 
+  @Test
+  public void putRowsWithRowHandler() throws HopException {
+    BaseTransform baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setRowHandler(rowHandler);
+
+    IRowMeta iRowMeta = mock(IRowMeta.class);
+    Object[][] rows = new Object[][] {{"foo"}, {"bar"}, {"baz"}};
+    baseTransform.putRows(iRowMeta, rows, 2);
+    verify(rowHandler, times(1)).putRows(iRowMeta, rows, 2);
+  }
+
+  @Test
+  public void putRowsToSingleRowSet() throws Exception {
+    IRowSet rowSet = new BlockingRowSet(10);
+
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setStopped(false);
+    baseTransform.setRepartitioning(TransformPartitioningMeta.PARTITIONING_METHOD_NONE);
+    baseTransform.setOutputRowSets(Arrays.asList(rowSet));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+
+    baseTransform.putRows(rowMeta, new Object[][] {{1L}, {2L}, {3L}, {4L}}, 3);
+
+    assertEquals(3, rowSet.size());
+    assertEquals(3, baseTransform.getLinesWritten());
+    assertNotNull(rowSet.getRowMeta());
+    assertEquals(1L, rowSet.getRowImmediate()[0]);
+    assertEquals(2L, rowSet.getRowImmediate()[0]);
+    assertEquals(3L, rowSet.getRowImmediate()[0]);
+  }
+
   @Test
   public void putErrorWithRowHandler() throws HopException {
     BaseTransform baseTransform =
@@ -27,4 +27,18 @@ import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
  */
 @DatabaseMetaPlugin(type = "COCKROACHDB", typeDescription = "CockroachDB", documentationUrl = "/database/databases/postgresql.html")
 @GuiPlugin(id = "GUI-CockroachDatabaseMeta")
-public class CockroachDatabaseMeta extends PostgreSqlDatabaseMeta implements IDatabase {}
+public class CockroachDatabaseMeta extends PostgreSqlDatabaseMeta implements IDatabase {
+
+  /** CockroachDB has no hashtext, fnv32 returns a positive 32 bit hash of the text. */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return "fnv32(" + columnName + "::text) % " + nrPartitions + " = " + partitionNr;
+  }
+
+  /** CockroachDB copies rows in the text format. */
+  @Override
+  protected boolean supportsBinaryCopy() {
+    return false;
+  }
+}
@@ -22,4 +22,11 @@ import org.apache.hop.databases.mysql.MySqlDatabaseMeta;
 
 @DatabaseMetaPlugin(type = "DORIS", typeDescription = "Apache Doris", documentationUrl = "/database/databases/doris.html")
 @GuiPlugin(id = "GUI-DorisDatabaseMeta")
-public class DorisDatabaseMeta extends MySqlDatabaseMeta {}
+public class DorisDatabaseMeta extends MySqlDatabaseMeta {
+
+  /** Doris loads data with its own load jobs rather than LOAD DATA LOCAL INFILE. */
+  @Override
+  public boolean supportsBulkLoad() {
+    return false;
+  }
+}
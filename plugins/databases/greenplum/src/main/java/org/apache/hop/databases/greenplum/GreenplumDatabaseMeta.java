@@ -44,4 +44,10 @@ public class GreenplumDatabaseMeta extends PostgreSqlDatabaseMeta implements IDa
   public boolean IsSupportsErrorHandlingOnBatchUpdates() {
     return false;
   }
+
+  /** Greenplum only copies rows in the text and CSV formats. */
+  @Override
+  protected boolean supportsBinaryCopy() {
+    return false;
+  }
 }
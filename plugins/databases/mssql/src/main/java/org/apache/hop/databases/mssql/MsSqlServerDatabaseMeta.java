@@ -831,6 +831,18 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
     return String.format("SELECT NEXT VALUE FOR %s", sequenceName);
   }
 
+  /** CHECKSUM returns a signed integer, it's made positive as a BIGINT to avoid overflows. */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return "ABS(CAST(CHECKSUM("
+        + columnName
+        + ") AS BIGINT)) % "
+        + nrPartitions
+        + " = "
+        + partitionNr;
+  }
+
   @Override
   public String getSqlCurrentSequenceValue(String sequenceName) {
     return String.format("SELECT current_value FROM sys.sequences WHERE name = '%s'", sequenceName);
@@ -898,4 +910,10 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
   public String getEndQuote() {
     return "";
   }
+
+  /** A request holds at most 2100 parameters */
+  @Override
+  public int getMaxQueryParameters() {
+    return 2100;
+  }
 }
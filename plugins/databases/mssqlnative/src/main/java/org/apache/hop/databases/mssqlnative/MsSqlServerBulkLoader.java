@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.mssqlnative;
+
+import org.apache.hop.core.database.IBulkLoader;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams rows into a table with SQLServerBulkCopy of the Microsoft JDBC driver.
+ *
+ * <p>The bulk copy pulls the rows from a bulk record while writeToServer() runs, so it runs in a
+ * thread of its own which takes the rows from a bounded queue. The driver comes with the
+ * connection and isn't a dependency of this plugin, its classes are used through reflection.
+ */
+public class MsSqlServerBulkLoader implements IBulkLoader {
+
+  private static final String DRIVER_PACKAGE = "com.microsoft.sqlserver.jdbc.";
+  private static final Object[] END_OF_ROWS = new Object[0];
+  private static final int QUEUE_SIZE = 10000;
+
+  /** The precision of nvarchar(max) and varbinary(max) */
+  private static final int MAX_PRECISION = Integer.MAX_VALUE;
+
+  private final String schemaTable;
+  private final IRowMeta rowMeta;
+  private final int[] sqlTypes;
+  private final int[] precisions;
+  private final int[] scales;
+  private final BlockingQueue<Object[]> rowQueue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+  private final Thread loadThread;
+
+  /** The row the bulk copy reads, only used by the load thread */
+  private Object[] currentRow;
+
+  private volatile long nrRows;
+  private volatile boolean aborted;
+  private volatile Throwable loadException;
+  private boolean finished;
+
+  /**
+   * @param connection the open connection of the Microsoft driver
+   * @param schemaTable the quoted schema and table name
+   * @param rowMeta the layout of the rows, the value names are the column names
+   * @throws HopDatabaseException if the bulk copy can't be started
+   */
+  public MsSqlServerBulkLoader(Connection connection, String schemaTable, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    this(connection, schemaTable, rowMeta, DRIVER_PACKAGE);
+  }
+
+  /**
+   * @param connection the open connection of the driver
+   * @param schemaTable the quoted schema and table name
+   * @param rowMeta the layout of the rows, the value names are the column names
+   * @param driverPackage the package of the driver classes, followed by a dot
+   * @throws HopDatabaseException if the bulk copy can't be started
+   */
+  MsSqlServerBulkLoader(
+      Connection connection, String schemaTable, IRowMeta rowMeta, String driverPackage)
+      throws HopDatabaseException {
+    this.schemaTable = schemaTable;
+    this.rowMeta = rowMeta;
+    this.sqlTypes = new int[rowMeta.size()];
+    this.precisions = new int[rowMeta.size()];
+    this.scales = new int[rowMeta.size()];
+    for (int i = 0; i < rowMeta.size(); i++) {
+      setColumnType(i, rowMeta.getValueMeta(i));
+    }
+
+    Object bulkCopy;
+    Method writeToServer;
+    Object record;
+    try {
+      ClassLoader classLoader = connection.getClass().getClassLoader();
+      Class<?> connectionClass =
+          loadDriverClass(classLoader, driverPackage + "SQLServerConnection");
+      Class<?> bulkCopyClass = loadDriverClass(classLoader, driverPackage + "SQLServerBulkCopy");
+      Class<?> recordClass = loadDriverClass(classLoader, driverPackage + "ISQLServerBulkRecord");
+
+      bulkCopy =
+          bulkCopyClass
+              .getConstructor(Connection.class)
+              .newInstance(connection.unwrap(connectionClass));
+      bulkCopyClass
+          .getMethod("setDestinationTableName", String.class)
+          .invoke(bulkCopy, schemaTable);
+      Method addColumnMapping =
+          bulkCopyClass.getMethod("addColumnMapping", int.class, String.class);
+      for (int i = 0; i < rowMeta.size(); i++) {
+        addColumnMapping.invoke(bulkCopy, i + 1, rowMeta.getValueMeta(i).getName());
+      }
+
+      // Newer drivers take the super interface ISQLServerBulkData
+      writeToServer = null;
+      for (Method method : bulkCopyClass.getMethods()) {
+        if (method.getName().equals("writeToServer")
+            && method.getParameterCount() == 1
+            && method.getParameterTypes()[0].isAssignableFrom(recordClass)) {
+          writeToServer = method;
+        }
+      }
+      if (writeToServer == null) {
+        throw new NoSuchMethodException("writeToServer(" + recordClass.getName() + ")");
+      }
+      record =
+          Proxy.newProxyInstance(
+              recordClass.getClassLoader(),
+              new Class<?>[] {recordClass},
+              (proxy, method, args) -> invokeRecord(proxy, method, args));
+    } catch (SQLException | ReflectiveOperationException e) {
+      throw new HopDatabaseException("Error starting the bulk copy into " + schemaTable, e);
+    }
+
+    Object finalBulkCopy = bulkCopy;
+    Method finalWriteToServer = writeToServer;
+    Object finalRecord = record;
+    loadThread =
+        new Thread(
+            () -> load(finalBulkCopy, finalWriteToServer, finalRecord),
+            "Bulk copy " + schemaTable);
+    loadThread.setDaemon(true);
+    loadThread.start();
+  }
+
+  private static Class<?> loadDriverClass(ClassLoader classLoader, String className)
+      throws ClassNotFoundException {
+    try {
+      return Class.forName(className, true, classLoader);
+    } catch (ClassNotFoundException e) {
+      // The connection can be wrapped by a pool, try the driver on the class path
+      return Class.forName(className);
+    }
+  }
+
+  private void setColumnType(int index, IValueMeta valueMeta) {
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        sqlTypes[index] = Types.BIGINT;
+        precisions[index] = 19;
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        sqlTypes[index] = Types.DOUBLE;
+        precisions[index] = 15;
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        sqlTypes[index] = Types.DECIMAL;
+        precisions[index] = 38;
+        scales[index] = valueMeta.getPrecision() >= 0 ? valueMeta.getPrecision() : 18;
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        sqlTypes[index] = Types.BIT;
+        precisions[index] = 1;
+        break;
+      case IValueMeta.TYPE_DATE:
+        sqlTypes[index] = Types.TIMESTAMP;
+        precisions[index] = 23;
+        scales[index] = 3;
+        break;
+      case IValueMeta.TYPE_TIMESTAMP:
+        sqlTypes[index] = Types.TIMESTAMP;
+        precisions[index] = 27;
+        scales[index] = 7;
+        break;
+      case IValueMeta.TYPE_BINARY:
+        sqlTypes[index] = Types.VARBINARY;
+        precisions[index] = MAX_PRECISION;
+        break;
+      default:
+        // nvarchar(4000) unless the values can be longer
+        sqlTypes[index] = Types.NVARCHAR;
+        int length = valueMeta.getLength();
+        precisions[index] = length > 0 && length <= 4000 ? 4000 : MAX_PRECISION;
+        break;
+    }
+  }
+
+  private void load(Object bulkCopy, Method writeToServer, Object record) {
+    try {
+      writeToServer.invoke(bulkCopy, record);
+    } catch (InvocationTargetException e) {
+      loadException = e.getCause();
+    } catch (Exception e) {
+      loadException = e;
+    } finally {
+      // A failed bulk copy stops reading, the rows added after that fail instead of waiting
+      rowQueue.clear();
+    }
+  }
+
+  private Object invokeRecord(Object proxy, Method method, Object[] args)
+      throws InterruptedException {
+    switch (method.getName()) {
+      case "getColumnOrdinals":
+        Set<Integer> ordinals = new LinkedHashSet<>();
+        for (int i = 1; i <= rowMeta.size(); i++) {
+          ordinals.add(i);
+        }
+        return ordinals;
+      case "getColumnName":
+        return rowMeta.getValueMeta((Integer) args[0] - 1).getName();
+      case "getColumnType":
+        return sqlTypes[(Integer) args[0] - 1];
+      case "getPrecision":
+        return precisions[(Integer) args[0] - 1];
+      case "getScale":
+        return scales[(Integer) args[0] - 1];
+      case "next":
+        return nextRow();
+      case "getRowData":
+        return currentRow;
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+      case "toString":
+        return "Bulk copy rows of " + schemaTable;
+      default:
+        // isAutoIncrement() and the setters of the bulk record
+        if (method.getReturnType() == boolean.class) {
+          return false;
+        }
+        return null;
+    }
+  }
+
+  private boolean nextRow() throws InterruptedException {
+    Object[] row = rowQueue.take();
+    if (aborted) {
+      throw new IllegalStateException("The bulk copy is aborted");
+    }
+    if (row == END_OF_ROWS) {
+      return false;
+    }
+    currentRow = row;
+    nrRows++;
+    return true;
+  }
+
+  @Override
+  public void addRow(Object[] row) throws HopDatabaseException {
+    Object[] values = new Object[rowMeta.size()];
+    try {
+      for (int i = 0; i < values.length; i++) {
+        values[i] = getValue(rowMeta.getValueMeta(i), row[i]);
+      }
+    } catch (HopValueException e) {
+      throw new HopDatabaseException("Error converting a row for the bulk copy", e);
+    }
+    put(values);
+  }
+
+  private static Object getValue(IValueMeta valueMeta, Object value) throws HopValueException {
+    if (valueMeta.isNull(value)) {
+      return null;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return valueMeta.getInteger(value);
+      case IValueMeta.TYPE_NUMBER:
+        return valueMeta.getNumber(value);
+      case IValueMeta.TYPE_BIGNUMBER:
+        return valueMeta.getBigNumber(value);
+      case IValueMeta.TYPE_BOOLEAN:
+        return valueMeta.getBoolean(value);
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+        Date date = valueMeta.getDate(value);
+        return date instanceof Timestamp ? date : new Timestamp(date.getTime());
+      case IValueMeta.TYPE_BINARY:
+        return valueMeta.getBinary(value);
+      default:
+        return valueMeta.getString(value);
+    }
+  }
+
+  private void put(Object[] values) throws HopDatabaseException {
+    try {
+      while (!rowQueue.offer(values, 1, TimeUnit.SECONDS)) {
+        checkLoad();
+        if (!loadThread.isAlive()) {
+          throw new HopDatabaseException("The bulk copy into " + schemaTable + " stopped");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopDatabaseException("Interrupted sending rows to the bulk copy", e);
+    }
+  }
+
+  private void checkLoad() throws HopDatabaseException {
+    if (loadException != null) {
+      throw new HopDatabaseException(
+          "Error in the bulk copy into " + schemaTable, new Exception(loadException));
+    }
+  }
+
+  @Override
+  public long finish() throws HopDatabaseException {
+    put(END_OF_ROWS);
+    try {
+      loadThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopDatabaseException("Interrupted waiting for the bulk copy", e);
+    }
+    checkLoad();
+    finished = true;
+    return nrRows;
+  }
+
+  @Override
+  public void close() {
+    if (finished) {
+      return;
+    }
+    // The next row fails the bulk copy instead of loading the rows sent so far
+    aborted = true;
+    rowQueue.clear();
+    rowQueue.offer(END_OF_ROWS);
+    try {
+      loadThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finished = true;
+  }
+}
@@ -21,9 +21,12 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkLoader;
+import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.databases.mssql.MsSqlServerDatabaseMeta;
 import org.apache.hop.metadata.api.HopMetadataProperty;
@@ -32,6 +35,7 @@ import org.apache.hop.ui.core.gui.IGuiPluginCompositeWidgetsListener;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Control;
 
+import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -154,6 +158,19 @@ public class MsSqlServerNativeDatabaseMeta extends MsSqlServerDatabaseMeta
     return true;
   }
 
+  @Override
+  public boolean supportsBulkLoad() {
+    return true;
+  }
+
+  /** Streams the rows with the bulk copy of the Microsoft driver. */
+  @Override
+  public IBulkLoader createBulkLoader(
+      Connection connection, String schemaTable, String[] columnNames, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return new MsSqlServerBulkLoader(connection, schemaTable, rowMeta);
+  }
+
   @Override
   public String getStartQuote() {
     return "[";
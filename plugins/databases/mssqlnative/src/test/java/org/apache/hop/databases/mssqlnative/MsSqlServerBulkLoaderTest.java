@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.databases.mssqlnative;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.databases.mssqlnative.fakedriver.SQLServerBulkCopy;
+import org.apache.hop.databases.mssqlnative.fakedriver.SQLServerConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MsSqlServerBulkLoaderTest {
+
+  /** The stand-ins of the driver classes, kept out of the package of the real driver */
+  private static final String FAKE_DRIVER_PACKAGE =
+      SQLServerBulkCopy.class.getPackage().getName() + ".";
+
+  private IRowMeta rowMeta;
+  private Connection connection;
+
+  @Before
+  public void setUp() throws SQLException {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name", 50, -1));
+    rowMeta.addValueMeta(new ValueMetaDate("created"));
+
+    connection = mock(Connection.class);
+    when(connection.unwrap(SQLServerConnection.class)).thenReturn(mock(SQLServerConnection.class));
+  }
+
+  @After
+  public void tearDown() {
+    SQLServerBulkCopy.lastBulkCopy = null;
+    SQLServerBulkCopy.failure = null;
+  }
+
+  private MsSqlServerBulkLoader createLoader() throws HopDatabaseException {
+    return new MsSqlServerBulkLoader(connection, "[customer]", rowMeta, FAKE_DRIVER_PACKAGE);
+  }
+
+  @Test
+  public void testRowsAreReadThroughTheRecord() throws Exception {
+    Date created = new Date(1000000L);
+
+    MsSqlServerBulkLoader loader = createLoader();
+    loader.addRow(new Object[] {1L, "a", created});
+    loader.addRow(new Object[] {null, null, null});
+    assertEquals(2L, loader.finish());
+    loader.close();
+
+    SQLServerBulkCopy bulkCopy = SQLServerBulkCopy.lastBulkCopy;
+    assertEquals("[customer]", bulkCopy.destinationTableName);
+    assertEquals(Arrays.asList("id", "name", "created"), bulkCopy.columnNames);
+    assertEquals(
+        Arrays.asList(Types.BIGINT, Types.NVARCHAR, Types.TIMESTAMP), bulkCopy.columnTypes);
+    assertEquals(2, bulkCopy.rows.size());
+    assertArrayEquals(
+        new Object[] {1L, "a", new Timestamp(1000000L)}, bulkCopy.rows.get(0));
+    assertTrue(bulkCopy.rows.get(0)[2] instanceof Timestamp);
+    assertArrayEquals(new Object[] {null, null, null}, bulkCopy.rows.get(1));
+    assertNull(bulkCopy.recordError);
+  }
+
+  @Test
+  public void testCloseStopsTheBulkCopy() throws Exception {
+    MsSqlServerBulkLoader loader = createLoader();
+    loader.addRow(new Object[] {1L, "a", null});
+    loader.close();
+
+    // close() waits for the bulk copy, which fails instead of loading the row
+    SQLServerBulkCopy bulkCopy = SQLServerBulkCopy.lastBulkCopy;
+    assertTrue(bulkCopy.recordError instanceof IllegalStateException);
+  }
+
+  @Test
+  public void testFailedBulkCopyFailsFinish() throws Exception {
+    SQLServerBulkCopy.failure = new SQLException("Violation of PRIMARY KEY constraint");
+
+    MsSqlServerBulkLoader loader = createLoader();
+    try {
+      loader.addRow(new Object[] {1L, "a", null});
+      loader.finish();
+      fail("The failed bulk copy should fail finish()");
+    } catch (HopDatabaseException e) {
+      // expected
+    } finally {
+      loader.close();
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.mssqlnative.fakedriver;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stands in for the bulk copy of the Microsoft driver: it reads the rows of the bulk record and
+ * remembers them.
+ */
+public class SQLServerBulkCopy {
+
+  /** The bulk copy created last */
+  public static volatile SQLServerBulkCopy lastBulkCopy;
+
+  /** The error the next bulk copy fails with, null to load the rows */
+  public static volatile SQLException failure;
+
+  public final Connection connection;
+  public String destinationTableName;
+  public final List<String> columnNames = new ArrayList<>();
+  public final List<Integer> columnTypes = new ArrayList<>();
+  public final List<Object[]> rows = new ArrayList<>();
+  public volatile RuntimeException recordError;
+
+  public SQLServerBulkCopy(Connection connection) {
+    this.connection = connection;
+    lastBulkCopy = this;
+  }
+
+  public void setDestinationTableName(String tableName) {
+    this.destinationTableName = tableName;
+  }
+
+  public void addColumnMapping(int sourceColumn, String destinationColumn) {
+    columnNames.add(sourceColumn - 1, destinationColumn);
+  }
+
+  public void writeToServer(ISQLServerBulkRecord record) throws SQLException {
+    for (int column : record.getColumnOrdinals()) {
+      columnTypes.add(record.getColumnType(column));
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    try {
+      while (record.next()) {
+        rows.add(record.getRowData().clone());
+      }
+    } catch (RuntimeException e) {
+      recordError = e;
+      throw e;
+    }
+  }
+}
@@ -15,15 +15,9 @@
  * limitations under the License.
  */
 
-package org.apache.hop.pipeline.transforms.sort;
+package org.apache.hop.databases.mssqlnative.fakedriver;
 
-/** Keeps track of which temporary file a row is coming from */
-public class RowTempFile {
-  public Object[] row;
-  public int fileNumber;
+import java.sql.Connection;
 
-  public RowTempFile(Object[] row, int fileNumber) {
-    this.row = row;
-    this.fileNumber = fileNumber;
-  }
-}
+/** Stands in for the connection of the Microsoft driver, which isn't a dependency of the tests. */
+public interface SQLServerConnection extends Connection {}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.mysql;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.apache.hop.core.database.BulkLoadTextWriter;
+import org.apache.hop.core.database.IBulkLoader;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Streams rows into a table with LOAD DATA LOCAL INFILE, the driver reads the file from a stream.
+ *
+ * <p>The driver reads the rows while the statement runs, so the statement runs in a thread of its
+ * own which gets the rows through a pipe. MySQL Connector/J and the MariaDB driver both take the
+ * stream with setLocalInfileInputStream(). The server and the connection must allow local files,
+ * for the connection with the option allowLoadLocalInfile=true.
+ *
+ * <p>LOAD DATA LOCAL skips rows with a duplicate key or a value which can't be converted, the
+ * number of rows returned by {@link #finish()} tells how many rows were actually loaded.
+ */
+public class MySqlBulkLoader implements IBulkLoader {
+
+  private static final int PIPE_SIZE = 65536;
+
+  /** The statement class of the MariaDB driver, which isn't a dependency of this plugin */
+  private static final String MARIADB_STATEMENT = "org.mariadb.jdbc.MariaDbStatement";
+
+  private final String sql;
+  private final Statement statement;
+  private final PipedInputStream pipeInput;
+  private final OutputStream pipeOutput;
+  private final BulkLoadTextWriter textWriter;
+  private final Thread loadThread;
+
+  private volatile boolean aborted;
+  private volatile long nrRows;
+  private volatile Exception loadException;
+  private boolean finished;
+
+  /**
+   * @param connection the open connection
+   * @param schemaTable the quoted schema and table name
+   * @param columnNames the quoted names of the columns
+   * @param rowMeta the layout of the rows
+   * @throws HopDatabaseException if the load can't be started
+   */
+  public MySqlBulkLoader(
+      Connection connection, String schemaTable, String[] columnNames, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    sql =
+        "LOAD DATA LOCAL INFILE 'hop-bulk-load.txt' INTO TABLE "
+            + schemaTable
+            + " CHARACTER SET utf8mb4"
+            + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ("
+            + String.join(", ", columnNames)
+            + ")";
+    try {
+      pipeInput = new PipedInputStream(PIPE_SIZE);
+      pipeOutput = new BufferedOutputStream(new PipedOutputStream(pipeInput), PIPE_SIZE);
+      statement = connection.createStatement();
+      setLocalInfileInputStream(statement, new AbortableInputStream(pipeInput));
+    } catch (IOException | SQLException e) {
+      throw new HopDatabaseException("Error starting " + sql, e);
+    } catch (ReflectiveOperationException e) {
+      throw new HopDatabaseException(
+          "The JDBC driver can't read LOAD DATA LOCAL INFILE from a stream", e);
+    }
+    textWriter = new BulkLoadTextWriter(pipeOutput, rowMeta, false);
+
+    loadThread = new Thread(this::load, "LOAD DATA " + schemaTable);
+    loadThread.setDaemon(true);
+    loadThread.start();
+  }
+
+  /**
+   * Hand the stream to the statement of the driver. A statement of a connection pool wraps the
+   * statement of the driver, it is unwrapped first.
+   */
+  static void setLocalInfileInputStream(Statement statement, InputStream inputStream)
+      throws SQLException, ReflectiveOperationException {
+    if (statement.isWrapperFor(JdbcStatement.class)) {
+      statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(inputStream);
+      return;
+    }
+    Class<?> statementClass = findMariaDbStatementClass(statement);
+    if (statementClass != null && statement.isWrapperFor(statementClass)) {
+      Object driverStatement = statement.unwrap(statementClass);
+      statementClass
+          .getMethod("setLocalInfileInputStream", InputStream.class)
+          .invoke(driverStatement, inputStream);
+      return;
+    }
+    statement
+        .getClass()
+        .getMethod("setLocalInfileInputStream", InputStream.class)
+        .invoke(statement, inputStream);
+  }
+
+  private static Class<?> findMariaDbStatementClass(Statement statement) {
+    ClassLoader[] classLoaders = {
+      statement.getClass().getClassLoader(),
+      MySqlBulkLoader.class.getClassLoader(),
+      Thread.currentThread().getContextClassLoader()
+    };
+    for (ClassLoader classLoader : classLoaders) {
+      if (classLoader != null) {
+        try {
+          return Class.forName(MARIADB_STATEMENT, false, classLoader);
+        } catch (ClassNotFoundException e) {
+          // Try the next class loader
+        }
+      }
+    }
+    return null;
+  }
+
+  private void load() {
+    try {
+      nrRows = statement.executeUpdate(sql);
+    } catch (Exception e) {
+      loadException = e;
+    } finally {
+      try {
+        // A failed load stops reading, the rows written after that fail instead of waiting
+        pipeInput.close();
+      } catch (IOException e) {
+        // Nothing is read from the pipe anymore
+      }
+    }
+  }
+
+  @Override
+  public void addRow(Object[] row) throws HopDatabaseException {
+    try {
+      textWriter.writeRow(row);
+    } catch (HopDatabaseException e) {
+      checkLoad();
+      throw e;
+    }
+  }
+
+  @Override
+  public long finish() throws HopDatabaseException {
+    try {
+      pipeOutput.close();
+      loadThread.join();
+    } catch (IOException e) {
+      checkLoad();
+      throw new HopDatabaseException("Error sending the last rows to " + sql, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopDatabaseException("Interrupted waiting for " + sql, e);
+    }
+    checkLoad();
+    finished = true;
+    closeStatement();
+    return nrRows;
+  }
+
+  private void checkLoad() throws HopDatabaseException {
+    if (loadException != null) {
+      throw new HopDatabaseException("Error executing " + sql, loadException);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!finished) {
+      // The end of the stream fails the statement instead of loading the rows sent so far
+      aborted = true;
+      try {
+        pipeOutput.close();
+        loadThread.join();
+      } catch (IOException e) {
+        // The load thread stopped reading already
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      finished = true;
+    }
+    closeStatement();
+  }
+
+  private void closeStatement() {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // The connection is rolled back or closed afterwards
+    }
+  }
+
+  /** Fails the statement once the load is aborted */
+  private class AbortableInputStream extends FilterInputStream {
+
+    AbortableInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      checkAborted();
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      checkAborted();
+      return n;
+    }
+
+    private void checkAborted() throws IOException {
+      if (aborted) {
+        throw new IOException("The load is aborted");
+      }
+    }
+  }
+}
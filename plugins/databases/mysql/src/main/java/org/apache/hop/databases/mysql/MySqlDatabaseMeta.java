@@ -22,18 +22,21 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkLoader;
 import org.apache.hop.core.database.IDatabase;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
 import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.metadata.api.HopMetadataProperty;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 
+import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
@@ -105,6 +108,26 @@ public class MySqlDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return " LIMIT " + nrRows;
   }
 
+  /** CRC32 hashes the text of the value to an unsigned 32 bit integer. */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return "CRC32(" + columnName + ") % " + nrPartitions + " = " + partitionNr;
+  }
+
+  @Override
+  public boolean supportsBulkLoad() {
+    return true;
+  }
+
+  /** Streams the rows with LOAD DATA LOCAL INFILE, the connection needs allowLoadLocalInfile. */
+  @Override
+  public IBulkLoader createBulkLoader(
+      Connection connection, String schemaTable, String[] columnNames, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return new MySqlBulkLoader(connection, schemaTable, columnNames, rowMeta);
+  }
+
   /**
    * Returns the minimal SQL to launch in order to determine the layout of the resultset for a given
    * database table
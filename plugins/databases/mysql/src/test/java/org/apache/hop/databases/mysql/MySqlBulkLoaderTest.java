@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.databases.mysql;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MySqlBulkLoaderTest {
+
+  private IRowMeta rowMeta;
+  private Connection connection;
+  private Statement statement;
+  private final AtomicReference<InputStream> inputStream = new AtomicReference<>();
+
+  @Before
+  public void setUp() throws SQLException {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+
+    // The statement of a connection pool, wrapping the statement of the driver
+    statement = mock(Statement.class);
+    JdbcStatement driverStatement = mock(JdbcStatement.class);
+    when(statement.isWrapperFor(JdbcStatement.class)).thenReturn(true);
+    when(statement.unwrap(JdbcStatement.class)).thenReturn(driverStatement);
+    doAnswer(
+            invocation -> {
+              inputStream.set(invocation.getArgument(0));
+              return null;
+            })
+        .when(driverStatement)
+        .setLocalInfileInputStream(any());
+
+    connection = mock(Connection.class);
+    when(connection.createStatement()).thenReturn(statement);
+  }
+
+  private MySqlBulkLoader createLoader() throws HopDatabaseException {
+    return new MySqlBulkLoader(connection, "`customer`", new String[] {"`id`", "`name`"}, rowMeta);
+  }
+
+  private static String readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[100];
+    int n;
+    while ((n = in.read(buffer, 0, buffer.length)) >= 0) {
+      bytes.write(buffer, 0, n);
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testRowsArePipedToTheUnwrappedStatement() throws Exception {
+    AtomicReference<String> sql = new AtomicReference<>();
+    AtomicReference<String> text = new AtomicReference<>();
+    when(statement.executeUpdate(anyString()))
+        .thenAnswer(
+            invocation -> {
+              sql.set(invocation.getArgument(0));
+              text.set(readAll(inputStream.get()));
+              return 2;
+            });
+
+    MySqlBulkLoader loader = createLoader();
+    loader.addRow(new Object[] {1L, "a\tb"});
+    loader.addRow(new Object[] {2L, null});
+    assertEquals(2L, loader.finish());
+    loader.close();
+
+    assertTrue(sql.get().startsWith("LOAD DATA LOCAL INFILE "));
+    assertTrue(
+        sql.get()
+            .endsWith(
+                " INTO TABLE `customer` CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t'"
+                    + " ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (`id`, `name`)"));
+    assertEquals("1\ta\\tb\n2\t\\N\n", text.get());
+    verify(statement, atLeastOnce()).close();
+  }
+
+  @Test
+  public void testCloseAbortsTheLoad() throws Exception {
+    AtomicBoolean aborted = new AtomicBoolean();
+    AtomicBoolean loaded = new AtomicBoolean();
+    when(statement.executeUpdate(anyString()))
+        .thenAnswer(
+            invocation -> {
+              try {
+                readAll(inputStream.get());
+                loaded.set(true);
+                return 1;
+              } catch (IOException e) {
+                aborted.set(true);
+                throw new SQLException(e);
+              }
+            });
+
+    MySqlBulkLoader loader = createLoader();
+    loader.addRow(new Object[] {1L, "a"});
+    loader.close();
+
+    assertTrue(aborted.get());
+    assertFalse(loaded.get());
+    verify(statement, atLeastOnce()).close();
+  }
+
+  @Test
+  public void testFailedLoadFailsFinish() throws Exception {
+    when(statement.executeUpdate(anyString())).thenThrow(new SQLException("Duplicate entry"));
+
+    MySqlBulkLoader loader = createLoader();
+    try {
+      loader.addRow(new Object[] {1L, "a"});
+      loader.finish();
+      fail("The failed load should fail finish()");
+    } catch (HopDatabaseException e) {
+      // expected
+    } finally {
+      loader.close();
+    }
+    verify(statement, atLeastOnce()).close();
+  }
+}
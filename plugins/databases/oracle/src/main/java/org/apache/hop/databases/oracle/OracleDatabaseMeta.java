@@ -214,6 +214,16 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return "SELECT " + sequenceName + ".nextval FROM DUAL";
   }
 
+  /**
+   * ORA_HASH spreads the values over the buckets 0 up to the number of partitions. Hashing ROWID
+   * doesn't need a column of the table.
+   */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return "ORA_HASH(" + columnName + ", " + (nrPartitions - 1) + ") = " + partitionNr;
+  }
+
   @Override
   public boolean isSupportsSequenceNoMaxValueOption() {
     return true;
@@ -750,4 +760,10 @@ public class OracleDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
   public String getEndQuote() {
     return "\"";
   }
+
+  /** An IN list holds at most 1000 expressions (ORA-01795) */
+  @Override
+  public int getMaxInListSize() {
+    return 1000;
+  }
 }
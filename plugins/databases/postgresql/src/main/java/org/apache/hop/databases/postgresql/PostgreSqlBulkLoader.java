@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.postgresql;
+
+import org.apache.hop.core.database.BulkLoadTextWriter;
+import org.apache.hop.core.database.IBulkLoader;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Streams rows into a table with COPY ... FROM STDIN.
+ *
+ * <p>The binary format is used when the server can take every column in it: the values are then
+ * converted to the exact column types here and the server doesn't parse any text. Other column
+ * types, such as json or uuid, make the whole load fall back to the text format.
+ */
+public class PostgreSqlBulkLoader implements IBulkLoader {
+
+  private static final byte[] BINARY_HEADER = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0
+  };
+
+  /** The column types which are written in the binary format */
+  private static final Set<String> BINARY_TYPES =
+      new HashSet<>(
+          Arrays.asList(
+              "int2", "int4", "int8", "float4", "float8", "numeric", "bool", "text", "varchar",
+              "bpchar", "name", "date", "timestamp", "timestamptz", "bytea"));
+
+  private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+  private static final Instant POSTGRES_EPOCH_INSTANT = POSTGRES_EPOCH.toInstant(ZoneOffset.UTC);
+
+  private final IRowMeta rowMeta;
+  private final String[] columnTypes;
+  private final PGCopyOutputStream copyStream;
+  private final DataOutputStream binaryStream;
+  private final BulkLoadTextWriter textWriter;
+  private boolean finished;
+
+  /**
+   * @param connection the open connection
+   * @param schemaTable the quoted schema and table name
+   * @param columnNames the quoted names of the columns
+   * @param rowMeta the layout of the rows
+   * @param binaryAllowed false to always use the text format
+   * @throws HopDatabaseException if the COPY can't be started
+   */
+  public PostgreSqlBulkLoader(
+      Connection connection,
+      String schemaTable,
+      String[] columnNames,
+      IRowMeta rowMeta,
+      boolean binaryAllowed)
+      throws HopDatabaseException {
+    this.rowMeta = rowMeta;
+    String columnList = String.join(", ", columnNames);
+    this.columnTypes =
+        binaryAllowed ? getBinaryColumnTypes(connection, schemaTable, columnList) : null;
+
+    String sql = "COPY " + schemaTable + " (" + columnList + ") FROM STDIN";
+    if (columnTypes != null) {
+      sql += " (FORMAT binary)";
+    }
+    try {
+      copyStream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql, 65536);
+      if (columnTypes != null) {
+        binaryStream = new DataOutputStream(copyStream);
+        binaryStream.write(BINARY_HEADER);
+        binaryStream.writeInt(0); // flags
+        binaryStream.writeInt(0); // header extension length
+        textWriter = null;
+      } else {
+        binaryStream = null;
+        textWriter = new BulkLoadTextWriter(copyStream, rowMeta, true);
+      }
+    } catch (SQLException | IOException e) {
+      throw new HopDatabaseException("Error starting " + sql, e);
+    }
+  }
+
+  /**
+   * Look up the types of the columns, without reading any rows.
+   *
+   * @return the type names or null if a column can't be written in the binary format
+   */
+  private static String[] getBinaryColumnTypes(
+      Connection connection, String schemaTable, String columnList) {
+    String sql = "SELECT " + columnList + " FROM " + schemaTable + " WHERE 1=0";
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      ResultSetMetaData metaData = statement.getMetaData();
+      String[] types = new String[metaData.getColumnCount()];
+      for (int i = 0; i < types.length; i++) {
+        types[i] = metaData.getColumnTypeName(i + 1);
+        if (!BINARY_TYPES.contains(types[i])) {
+          return null;
+        }
+      }
+      return types;
+    } catch (SQLException e) {
+      // The text format doesn't need the types, the COPY itself reports a real problem
+      return null;
+    }
+  }
+
+  /** @return true if the rows are sent in the binary format */
+  public boolean isBinary() {
+    return columnTypes != null;
+  }
+
+  @Override
+  public void addRow(Object[] row) throws HopDatabaseException {
+    if (textWriter != null) {
+      textWriter.writeRow(row);
+      return;
+    }
+    try {
+      binaryStream.writeShort(columnTypes.length);
+      for (int i = 0; i < columnTypes.length; i++) {
+        writeValue(binaryStream, columnTypes[i], rowMeta.getValueMeta(i), row[i]);
+      }
+    } catch (IOException | HopValueException e) {
+      throw new HopDatabaseException("Error sending a row to COPY", e);
+    }
+  }
+
+  /**
+   * Write a value in the binary COPY format of a column type: the length followed by the value.
+   *
+   * @param out the stream to write to
+   * @param type the name of the column type
+   * @param valueMeta the metadata of the value
+   * @param value the value
+   */
+  static void writeValue(DataOutputStream out, String type, IValueMeta valueMeta, Object value)
+      throws IOException, HopValueException {
+    if (valueMeta.isNull(value)) {
+      out.writeInt(-1);
+      return;
+    }
+    switch (type) {
+      case "int2":
+        out.writeInt(2);
+        out.writeShort((short) getInteger(valueMeta, value, Short.MIN_VALUE, Short.MAX_VALUE));
+        break;
+      case "int4":
+        out.writeInt(4);
+        out.writeInt((int) getInteger(valueMeta, value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        break;
+      case "int8":
+        out.writeInt(8);
+        out.writeLong(valueMeta.getInteger(value));
+        break;
+      case "float4":
+        out.writeInt(4);
+        out.writeFloat(valueMeta.getNumber(value).floatValue());
+        break;
+      case "float8":
+        out.writeInt(8);
+        out.writeDouble(valueMeta.getNumber(value));
+        break;
+      case "numeric":
+        writeNumeric(out, valueMeta.getBigNumber(value));
+        break;
+      case "bool":
+        out.writeInt(1);
+        out.writeByte(Boolean.TRUE.equals(valueMeta.getBoolean(value)) ? 1 : 0);
+        break;
+      case "date":
+        out.writeInt(4);
+        out.writeInt(
+            (int) ChronoUnit.DAYS.between(
+                POSTGRES_EPOCH.toLocalDate(), toLocalDateTime(valueMeta.getDate(value))));
+        break;
+      case "timestamp":
+        out.writeInt(8);
+        out.writeLong(
+            ChronoUnit.MICROS.between(POSTGRES_EPOCH, toLocalDateTime(valueMeta.getDate(value))));
+        break;
+      case "timestamptz":
+        // Timestamp.toInstant() keeps the nanoseconds
+        Instant instant = valueMeta.getDate(value).toInstant();
+        out.writeInt(8);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH_INSTANT, instant));
+        break;
+      case "bytea":
+        writeBytes(out, valueMeta.getBinary(value));
+        break;
+      default:
+        writeBytes(out, valueMeta.getString(value).getBytes(StandardCharsets.UTF_8));
+        break;
+    }
+  }
+
+  private static long getInteger(IValueMeta valueMeta, Object value, long min, long max)
+      throws HopValueException {
+    long integer = valueMeta.getInteger(value);
+    if (integer < min || integer > max) {
+      throw new HopValueException(
+          "Value " + integer + " of field [" + valueMeta.getName() + "] is out of range");
+    }
+    return integer;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static LocalDateTime toLocalDateTime(Date date) {
+    if (date instanceof Timestamp) {
+      return ((Timestamp) date).toLocalDateTime();
+    }
+    return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+  }
+
+  /**
+   * Write a numeric value: digits in base 10000 with the weight of the first digit, the sign and
+   * the number of decimals.
+   */
+  static void writeNumeric(DataOutputStream out, BigDecimal value) throws IOException {
+    BigDecimal number = value.abs();
+    if (number.scale() < 0) {
+      number = number.setScale(0);
+    }
+    String plain = number.toPlainString();
+    int point = plain.indexOf('.');
+    String integerPart = point < 0 ? plain : plain.substring(0, point);
+    String fractionPart = point < 0 ? "" : plain.substring(point + 1);
+
+    // Align both parts on groups of 4 decimal digits
+    StringBuilder digits = new StringBuilder();
+    for (int i = integerPart.length() % 4; i > 0 && i < 4; i++) {
+      digits.append('0');
+    }
+    digits.append(integerPart);
+    int weight = digits.length() / 4 - 1;
+    digits.append(fractionPart);
+    while (digits.length() % 4 != 0) {
+      digits.append('0');
+    }
+
+    short[] groups = new short[digits.length() / 4];
+    for (int i = 0; i < groups.length; i++) {
+      groups[i] = Short.parseShort(digits.substring(i * 4, i * 4 + 4));
+    }
+    int first = 0;
+    while (first < groups.length && groups[first] == 0) {
+      first++;
+      weight--;
+    }
+    int last = groups.length;
+    while (last > first && groups[last - 1] == 0) {
+      last--;
+    }
+    if (first == last) {
+      weight = 0;
+    }
+
+    out.writeInt(8 + 2 * (last - first));
+    out.writeShort(last - first);
+    out.writeShort(weight);
+    out.writeShort(value.signum() < 0 ? 0x4000 : 0);
+    out.writeShort(number.scale());
+    for (int i = first; i < last; i++) {
+      out.writeShort(groups[i]);
+    }
+  }
+
+  @Override
+  public long finish() throws HopDatabaseException {
+    try {
+      if (binaryStream != null) {
+        binaryStream.writeShort(-1);
+        binaryStream.flush();
+      }
+      long nrRows = copyStream.endCopy();
+      finished = true;
+      return nrRows;
+    } catch (SQLException | IOException e) {
+      throw new HopDatabaseException("Error finishing COPY", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!finished && copyStream.isActive()) {
+      try {
+        copyStream.cancelCopy();
+      } catch (SQLException e) {
+        // The connection is rolled back or closed afterwards
+      }
+    }
+    finished = true;
+  }
+}
@@ -21,10 +21,15 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkLoader;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
+import java.sql.Connection;
+
 /**
  * Contains PostgreSQL specific information through static final members
  */
@@ -155,6 +160,43 @@ public class PostgreSqlDatabaseMeta extends BaseDatabaseMeta implements IDatabas
     return "SELECT nextval('" + sequenceName + "')";
   }
 
+  /** The protocol sends the number of parameters as a 16 bit value */
+  @Override
+  public int getMaxQueryParameters() {
+    return 32767;
+  }
+
+  @Override
+  public boolean supportsBulkLoad() {
+    return true;
+  }
+
+  /** Streams the rows with COPY FROM STDIN, in the binary format if the column types allow it. */
+  @Override
+  public IBulkLoader createBulkLoader(
+      Connection connection, String schemaTable, String[] columnNames, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return new PostgreSqlBulkLoader(
+        connection, schemaTable, columnNames, rowMeta, supportsBinaryCopy());
+  }
+
+  /** @return true if COPY takes rows in the binary format */
+  protected boolean supportsBinaryCopy() {
+    return true;
+  }
+
+  /** The hash of the text of the value, made positive before taking the remainder. */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return "(hashtext("
+        + columnName
+        + "::text) & 2147483647) % "
+        + nrPartitions
+        + " = "
+        + partitionNr;
+  }
+
   /**
    * Get the SQL to get the next value of a sequence. (PostgreSQL version)
    *
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.postgresql;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertEquals;
+
+public class PostgreSqlBulkLoaderTest {
+
+  private static DataInputStream writeNumeric(String value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PostgreSqlBulkLoader.writeNumeric(new DataOutputStream(bytes), new BigDecimal(value));
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  /** Check the length, number of digits, weight, sign, scale and the base 10000 digits */
+  private static void assertNumeric(String value, int weight, int sign, int scale, int... digits)
+      throws IOException {
+    DataInputStream in = writeNumeric(value);
+    assertEquals(8 + 2 * digits.length, in.readInt());
+    assertEquals(digits.length, in.readShort());
+    assertEquals(weight, in.readShort());
+    assertEquals(sign, in.readShort());
+    assertEquals(scale, in.readShort());
+    for (int digit : digits) {
+      assertEquals(digit, in.readShort());
+    }
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testWriteNumeric() throws IOException {
+    assertNumeric("12345.678", 1, 0, 3, 1, 2345, 6780);
+    assertNumeric("-12345.678", 1, 0x4000, 3, 1, 2345, 6780);
+    assertNumeric("0.0001", -1, 0, 4, 1);
+    assertNumeric("100000000", 2, 0, 0, 1);
+    assertNumeric("1E+3", 0, 0, 0, 1000);
+    assertNumeric("0.00", 0, 0, 2);
+  }
+
+  @Test
+  public void testWriteValue() throws IOException, HopValueException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    PostgreSqlBulkLoader.writeValue(out, "int4", new ValueMetaInteger("id"), 42L);
+    PostgreSqlBulkLoader.writeValue(out, "int8", new ValueMetaInteger("id"), null);
+    PostgreSqlBulkLoader.writeValue(out, "bool", new ValueMetaBoolean("flag"), true);
+    PostgreSqlBulkLoader.writeValue(out, "text", new ValueMetaString("name"), "h\u00e9");
+    PostgreSqlBulkLoader.writeValue(
+        out,
+        "timestamp",
+        new ValueMetaTimestamp("ts"),
+        Timestamp.valueOf("2000-01-02 00:00:00.000001"));
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(4, in.readInt());
+    assertEquals(42, in.readInt());
+    assertEquals(-1, in.readInt());
+    assertEquals(1, in.readInt());
+    assertEquals(1, in.readByte());
+    // UTF-8
+    assertEquals(3, in.readInt());
+    assertEquals('h', in.readByte());
+    assertEquals((byte) 0xc3, in.readByte());
+    assertEquals((byte) 0xa9, in.readByte());
+    // Microseconds since 2000-01-01
+    assertEquals(8, in.readInt());
+    assertEquals(86400000001L, in.readLong());
+    assertEquals(0, in.available());
+  }
+}
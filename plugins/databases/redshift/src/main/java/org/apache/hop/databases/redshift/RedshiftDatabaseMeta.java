@@ -76,4 +76,17 @@ public class RedshiftDatabaseMeta extends PostgreSqlDatabaseMeta {
   public boolean isSupportsSetMaxRows() {
     return false;
   }
+
+  /** FNV_HASH returns a 64 bit hash of any value. */
+  @Override
+  public String getSqlHashPartitionCondition(
+      String columnName, int partitionNr, int nrPartitions) {
+    return "ABS(FNV_HASH(" + columnName + ") % " + nrPartitions + ") = " + partitionNr;
+  }
+
+  /** Redshift only copies from files, for example on S3, not from the connection. */
+  @Override
+  public boolean supportsBulkLoad() {
+    return false;
+  }
 }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+
+/**
+ * Loads the input rows into a table with the native bulk load protocol of the database, for
+ * example COPY FROM STDIN on PostgreSQL. The rows are streamed to the database as they arrive and
+ * committed every so many rows.
+ */
+public class BulkTableOutput extends BaseTransform<BulkTableOutputMeta, BulkTableOutputData> {
+
+  private static final Class<?> PKG = BulkTableOutputMeta.class; // For Translator
+
+  public BulkTableOutput(
+      TransformMeta transformMeta,
+      BulkTableOutputMeta meta,
+      BulkTableOutputData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  @Override
+  public boolean processRow() throws HopException {
+    Object[] r = getRow();
+    if (r == null) {
+      finishLoad();
+      setOutputDone();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+
+      data.loadRowMeta = meta.getLoadRowMeta(getInputRowMeta());
+      data.fieldNrs = new int[data.loadRowMeta.size()];
+      for (int i = 0; i < data.fieldNrs.length; i++) {
+        String streamName =
+            meta.getFields().isEmpty()
+                ? data.loadRowMeta.getValueMeta(i).getName()
+                : meta.getFields().get(i).getStreamName();
+        data.fieldNrs[i] = getInputRowMeta().indexOfValue(streamName);
+      }
+    }
+
+    if (data.loader == null) {
+      data.loader = data.db.createBulkLoader(data.schemaName, data.tableName, data.loadRowMeta);
+    }
+
+    Object[] loadRow = new Object[data.fieldNrs.length];
+    for (int i = 0; i < data.fieldNrs.length; i++) {
+      loadRow[i] = r[data.fieldNrs[i]];
+    }
+    data.loader.addRow(loadRow);
+    data.rowsInLoad++;
+
+    putRow(getInputRowMeta(), r);
+    incrementLinesOutput();
+
+    if (data.rowsPerLoad > 0 && data.rowsInLoad >= data.rowsPerLoad) {
+      finishLoad();
+    }
+
+    if (checkFeedback(getLinesRead()) && log.isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "BulkTableOutput.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  /**
+   * Finish the running load and commit the rows. A database can skip rows without failing the load,
+   * MySQL does so for duplicate keys with LOAD DATA LOCAL. The load is rolled back when fewer rows
+   * were loaded than sent.
+   */
+  private void finishLoad() throws HopDatabaseException {
+    if (data.loader == null) {
+      return;
+    }
+    try {
+      long rows = data.loader.finish();
+      if (rows < data.rowsInLoad) {
+        throw new HopDatabaseException(
+            BaseMessages.getString(
+                PKG, "BulkTableOutput.Exception.RowsNotLoaded", rows, data.rowsInLoad));
+      }
+      data.db.commit();
+      if (log.isDetailed()) {
+        logDetailed(BaseMessages.getString(PKG, "BulkTableOutput.Log.RowsLoaded", rows));
+      }
+    } catch (HopDatabaseException e) {
+      rollback();
+      throw e;
+    } finally {
+      data.loader.close();
+      data.loader = null;
+      data.rowsInLoad = 0;
+    }
+  }
+
+  private void rollback() {
+    try {
+      data.db.rollback();
+    } catch (HopDatabaseException e) {
+      logError(BaseMessages.getString(PKG, "BulkTableOutput.Log.ErrorRollback"), e);
+    }
+  }
+
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+    try {
+      if (meta.getDatabaseMeta() == null) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoConnection"));
+      }
+      if (!meta.getDatabaseMeta().supportsBulkLoad()) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG,
+                "BulkTableOutputMeta.CheckResult.BulkLoadNotSupported",
+                meta.getDatabaseMeta().getPluginName()));
+      }
+      data.schemaName = resolve(meta.getSchemaName());
+      data.tableName = resolve(meta.getTableName());
+      if (Utils.isEmpty(data.tableName)) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoTable"));
+      }
+      data.rowsPerLoad = Const.toLong(resolve(meta.getRowsPerLoad()), 0L);
+
+      data.db = new Database(this, this, meta.getDatabaseMeta());
+      data.db.connect();
+      // The loads are committed by this transform
+      data.db.setAutoCommit(false);
+
+      // Only the first copy truncates, all copies are initialized before any row is loaded
+      if (meta.isTruncateTable() && (getCopy() == 0 || !Utils.isEmpty(getPartitionId()))) {
+        data.db.truncateTable(data.schemaName, data.tableName);
+        data.db.commit();
+      }
+      return true;
+    } catch (HopException e) {
+      logError(BaseMessages.getString(PKG, "BulkTableOutput.Log.ErrorInit"), e);
+      setErrors(1);
+      stopAll();
+      return false;
+    }
+  }
+
+  @Override
+  public void dispose() {
+    if (data.db != null) {
+      try {
+        if (data.loader != null) {
+          // A load which didn't finish is aborted, none of its rows are committed
+          data.loader.close();
+          data.loader = null;
+          rollback();
+        }
+      } finally {
+        data.db.disconnect();
+        data.db = null;
+      }
+    }
+    super.dispose();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.IBulkLoader;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transform.BaseTransformData;
+import org.apache.hop.pipeline.transform.ITransformData;
+
+public class BulkTableOutputData extends BaseTransformData implements ITransformData {
+  public Database db;
+
+  public String schemaName;
+  public String tableName;
+
+  /** The layout of the loaded rows, the names are the column names */
+  public IRowMeta loadRowMeta;
+
+  /** The indexes of the loaded fields in the input rows */
+  public int[] fieldNrs;
+
+  /** The number of rows loaded and committed at once, 0 for all rows */
+  public long rowsPerLoad;
+
+  /** The running load or null */
+  public IBulkLoader loader;
+
+  /** The number of rows sent to the running load */
+  public long rowsInLoad;
+
+  public BulkTableOutputData() {
+    super();
+  }
+}
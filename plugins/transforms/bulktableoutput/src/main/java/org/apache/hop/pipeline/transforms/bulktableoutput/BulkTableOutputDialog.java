@@ -0,0 +1,551 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.DbCache;
+import org.apache.hop.core.SourceToTargetMapping;
+import org.apache.hop.core.SqlStatement;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransformMeta;
+import org.apache.hop.pipeline.transform.ITransformDialog;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.ui.core.database.dialog.DatabaseExplorerDialog;
+import org.apache.hop.ui.core.database.dialog.SqlEditor;
+import org.apache.hop.ui.core.dialog.BaseDialog;
+import org.apache.hop.ui.core.dialog.EnterMappingDialog;
+import org.apache.hop.ui.core.dialog.ErrorDialog;
+import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.MetaSelectionLine;
+import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
+import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.FocusAdapter;
+import org.eclipse.swt.events.FocusEvent;
+import org.eclipse.swt.events.FocusListener;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.layout.FormAttachment;
+import org.eclipse.swt.layout.FormData;
+import org.eclipse.swt.layout.FormLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.MessageBox;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkTableOutputDialog extends BaseTransformDialog implements ITransformDialog {
+  private static final Class<?> PKG = BulkTableOutputMeta.class; // For Translator
+
+  private MetaSelectionLine<DatabaseMeta> wConnection;
+  private TextVar wSchema;
+  private TextVar wTable;
+  private Button wTruncate;
+  private TextVar wRowsPerLoad;
+  private TableView wFields;
+
+  private ColumnInfo[] ciFields;
+
+  private final BulkTableOutputMeta input;
+
+  public BulkTableOutputDialog(
+      Shell parent, IVariables variables, Object in, PipelineMeta pipelineMeta, String sname) {
+    super(parent, variables, (BaseTransformMeta) in, pipelineMeta, sname);
+    input = (BulkTableOutputMeta) in;
+  }
+
+  @Override
+  public String open() {
+    Shell parent = getParent();
+
+    shell = new Shell(parent, SWT.DIALOG_TRIM | SWT.RESIZE | SWT.MAX | SWT.MIN);
+    props.setLook(shell);
+    setShellImage(shell, input);
+
+    ModifyListener lsMod = e -> input.setChanged();
+    FocusListener lsFocusLost =
+        new FocusAdapter() {
+          @Override
+          public void focusLost(FocusEvent arg0) {
+            setTableFieldCombo();
+          }
+        };
+    changed = input.hasChanged();
+
+    FormLayout formLayout = new FormLayout();
+    formLayout.marginWidth = Const.FORM_MARGIN;
+    formLayout.marginHeight = Const.FORM_MARGIN;
+
+    shell.setLayout(formLayout);
+    shell.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.Shell.Title"));
+
+    int middle = props.getMiddlePct();
+    int margin = Const.MARGIN;
+
+    // TransformName line
+    wlTransformName = new Label(shell, SWT.RIGHT);
+    wlTransformName.setText(
+        BaseMessages.getString(PKG, "BulkTableOutputDialog.TransformName.Label"));
+    props.setLook(wlTransformName);
+    fdlTransformName = new FormData();
+    fdlTransformName.left = new FormAttachment(0, 0);
+    fdlTransformName.right = new FormAttachment(middle, -margin);
+    fdlTransformName.top = new FormAttachment(0, margin);
+    wlTransformName.setLayoutData(fdlTransformName);
+    wTransformName = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wTransformName.setText(transformName);
+    props.setLook(wTransformName);
+    wTransformName.addModifyListener(lsMod);
+    fdTransformName = new FormData();
+    fdTransformName.left = new FormAttachment(middle, 0);
+    fdTransformName.top = new FormAttachment(0, margin);
+    fdTransformName.right = new FormAttachment(100, 0);
+    wTransformName.setLayoutData(fdTransformName);
+
+    // Connection line
+    wConnection = addConnectionLine(shell, wTransformName, input.getDatabaseMeta(), lsMod);
+
+    // Schema line...
+    Label wlSchema = new Label(shell, SWT.RIGHT);
+    wlSchema.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.TargetSchema.Label"));
+    props.setLook(wlSchema);
+    FormData fdlSchema = new FormData();
+    fdlSchema.left = new FormAttachment(0, 0);
+    fdlSchema.right = new FormAttachment(middle, -margin);
+    fdlSchema.top = new FormAttachment(wConnection, margin * 2);
+    wlSchema.setLayoutData(fdlSchema);
+    wSchema = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wSchema);
+    wSchema.addModifyListener(lsMod);
+    wSchema.addFocusListener(lsFocusLost);
+    FormData fdSchema = new FormData();
+    fdSchema.left = new FormAttachment(middle, 0);
+    fdSchema.top = new FormAttachment(wConnection, margin * 2);
+    fdSchema.right = new FormAttachment(100, 0);
+    wSchema.setLayoutData(fdSchema);
+
+    // Table line...
+    Label wlTable = new Label(shell, SWT.RIGHT);
+    wlTable.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.TargetTable.Label"));
+    props.setLook(wlTable);
+    FormData fdlTable = new FormData();
+    fdlTable.left = new FormAttachment(0, 0);
+    fdlTable.right = new FormAttachment(middle, -margin);
+    fdlTable.top = new FormAttachment(wSchema, margin);
+    wlTable.setLayoutData(fdlTable);
+    Button wbTable = new Button(shell, SWT.PUSH | SWT.CENTER);
+    props.setLook(wbTable);
+    wbTable.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.Browse.Button"));
+    FormData fdbTable = new FormData();
+    fdbTable.right = new FormAttachment(100, 0);
+    fdbTable.top = new FormAttachment(wSchema, margin);
+    wbTable.setLayoutData(fdbTable);
+    wTable = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wTable);
+    wTable.addModifyListener(lsMod);
+    wTable.addFocusListener(lsFocusLost);
+    FormData fdTable = new FormData();
+    fdTable.left = new FormAttachment(middle, 0);
+    fdTable.top = new FormAttachment(wSchema, margin);
+    fdTable.right = new FormAttachment(wbTable, -margin);
+    wTable.setLayoutData(fdTable);
+
+    // Truncate table line
+    Label wlTruncate = new Label(shell, SWT.RIGHT);
+    wlTruncate.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.TruncateTable.Label"));
+    props.setLook(wlTruncate);
+    FormData fdlTruncate = new FormData();
+    fdlTruncate.left = new FormAttachment(0, 0);
+    fdlTruncate.top = new FormAttachment(wTable, margin);
+    fdlTruncate.right = new FormAttachment(middle, -margin);
+    wlTruncate.setLayoutData(fdlTruncate);
+    wTruncate = new Button(shell, SWT.CHECK);
+    props.setLook(wTruncate);
+    FormData fdTruncate = new FormData();
+    fdTruncate.left = new FormAttachment(middle, 0);
+    fdTruncate.top = new FormAttachment(wlTruncate, 0, SWT.CENTER);
+    fdTruncate.right = new FormAttachment(100, 0);
+    wTruncate.setLayoutData(fdTruncate);
+    wTruncate.addListener(SWT.Selection, e -> input.setChanged());
+
+    // Rows per load line
+    Label wlRowsPerLoad = new Label(shell, SWT.RIGHT);
+    wlRowsPerLoad.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.RowsPerLoad.Label"));
+    wlRowsPerLoad.setToolTipText(
+        BaseMessages.getString(PKG, "BulkTableOutputDialog.RowsPerLoad.ToolTip"));
+    props.setLook(wlRowsPerLoad);
+    FormData fdlRowsPerLoad = new FormData();
+    fdlRowsPerLoad.left = new FormAttachment(0, 0);
+    fdlRowsPerLoad.top = new FormAttachment(wTruncate, margin);
+    fdlRowsPerLoad.right = new FormAttachment(middle, -margin);
+    wlRowsPerLoad.setLayoutData(fdlRowsPerLoad);
+    wRowsPerLoad = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wRowsPerLoad);
+    wRowsPerLoad.addModifyListener(lsMod);
+    FormData fdRowsPerLoad = new FormData();
+    fdRowsPerLoad.left = new FormAttachment(middle, 0);
+    fdRowsPerLoad.top = new FormAttachment(wTruncate, margin);
+    fdRowsPerLoad.right = new FormAttachment(100, 0);
+    wRowsPerLoad.setLayoutData(fdRowsPerLoad);
+
+    // THE BUTTONS
+    wOk = new Button(shell, SWT.PUSH);
+    wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
+    wSql = new Button(shell, SWT.PUSH);
+    wSql.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.SQL.Button"));
+    wCancel = new Button(shell, SWT.PUSH);
+    wCancel.setText(BaseMessages.getString(PKG, "System.Button.Cancel"));
+    setButtonPositions(new Button[] {wOk, wSql, wCancel}, margin, null);
+
+    // The fields table
+    Label wlFields = new Label(shell, SWT.NONE);
+    wlFields.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.Fields.Label"));
+    props.setLook(wlFields);
+    FormData fdlFields = new FormData();
+    fdlFields.left = new FormAttachment(0, 0);
+    fdlFields.top = new FormAttachment(wRowsPerLoad, margin);
+    wlFields.setLayoutData(fdlFields);
+
+    ciFields =
+        new ColumnInfo[] {
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "BulkTableOutputDialog.ColumnInfo.TableField"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              new String[] {""},
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "BulkTableOutputDialog.ColumnInfo.StreamField"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              new String[] {""},
+              false),
+        };
+    wFields =
+        new TableView(
+            variables,
+            shell,
+            SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL,
+            ciFields,
+            input.getFields().size(),
+            lsMod,
+            props);
+
+    Button wGetFields = new Button(shell, SWT.PUSH);
+    wGetFields.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.GetFields.Label"));
+    FormData fdGetFields = new FormData();
+    fdGetFields.top = new FormAttachment(wlFields, margin);
+    fdGetFields.right = new FormAttachment(100, 0);
+    wGetFields.setLayoutData(fdGetFields);
+
+    Button wDoMapping = new Button(shell, SWT.PUSH);
+    wDoMapping.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.EditMapping.Label"));
+    FormData fdDoMapping = new FormData();
+    fdDoMapping.top = new FormAttachment(wGetFields, margin);
+    fdDoMapping.left = new FormAttachment(wGetFields, 0, SWT.LEFT);
+    fdDoMapping.right = new FormAttachment(100, 0);
+    wDoMapping.setLayoutData(fdDoMapping);
+
+    FormData fdFields = new FormData();
+    fdFields.left = new FormAttachment(0, 0);
+    fdFields.top = new FormAttachment(wlFields, margin);
+    fdFields.right = new FormAttachment(wDoMapping, -margin);
+    fdFields.bottom = new FormAttachment(wOk, -2 * margin);
+    wFields.setLayoutData(fdFields);
+
+    // Search the fields in the background
+    //
+    final Runnable runnable =
+        () -> {
+          TransformMeta transformMeta = pipelineMeta.findTransform(transformName);
+          if (transformMeta != null) {
+            try {
+              IRowMeta row = pipelineMeta.getPrevTransformFields(variables, transformMeta);
+              String[] fieldNames = row.getFieldNames();
+              Const.sortStrings(fieldNames);
+              ciFields[1].setComboValues(fieldNames);
+            } catch (HopException e) {
+              logError(BaseMessages.getString(PKG, "System.Dialog.GetFieldsFailed.Message"));
+            }
+          }
+        };
+    new Thread(runnable).start();
+
+    // Add listeners
+    wOk.addListener(SWT.Selection, e -> ok());
+    wSql.addListener(SWT.Selection, e -> create());
+    wCancel.addListener(SWT.Selection, e -> cancel());
+    wGetFields.addListener(SWT.Selection, e -> getFields());
+    wDoMapping.addListener(SWT.Selection, e -> generateMappings());
+    wbTable.addListener(SWT.Selection, e -> getTableName());
+
+    getData();
+    setTableFieldCombo();
+    input.setChanged(changed);
+
+    BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
+
+    return transformName;
+  }
+
+  /** Copy information from the meta-data input to the dialog fields. */
+  public void getData() {
+    if (input.getDatabaseMeta() != null) {
+      wConnection.setText(input.getDatabaseMeta().getName());
+    }
+    wSchema.setText(Const.NVL(input.getSchemaName(), ""));
+    wTable.setText(Const.NVL(input.getTableName(), ""));
+    wTruncate.setSelection(input.isTruncateTable());
+    wRowsPerLoad.setText(Const.NVL(input.getRowsPerLoad(), ""));
+
+    for (int i = 0; i < input.getFields().size(); i++) {
+      BulkTableOutputField field = input.getFields().get(i);
+      TableItem item = wFields.table.getItem(i);
+      item.setText(1, Const.NVL(field.getColumnName(), ""));
+      item.setText(2, Const.NVL(field.getStreamName(), ""));
+    }
+    wFields.setRowNums();
+    wFields.optWidth(true);
+
+    wTransformName.selectAll();
+    wTransformName.setFocus();
+  }
+
+  private void cancel() {
+    transformName = null;
+    input.setChanged(changed);
+    dispose();
+  }
+
+  private void getInfo(BulkTableOutputMeta meta) {
+    meta.setDatabaseMeta(pipelineMeta.findDatabase(wConnection.getText()));
+    meta.setSchemaName(wSchema.getText());
+    meta.setTableName(wTable.getText());
+    meta.setTruncateTable(wTruncate.getSelection());
+    meta.setRowsPerLoad(wRowsPerLoad.getText());
+
+    List<BulkTableOutputField> fields = new ArrayList<>();
+    for (int i = 0; i < wFields.nrNonEmpty(); i++) {
+      TableItem item = wFields.getNonEmpty(i);
+      fields.add(new BulkTableOutputField(item.getText(1), item.getText(2)));
+    }
+    meta.setFields(fields);
+  }
+
+  private void ok() {
+    if (Utils.isEmpty(wTransformName.getText())) {
+      return;
+    }
+    transformName = wTransformName.getText();
+    getInfo(input);
+
+    if (input.getDatabaseMeta() == null) {
+      MessageBox mb = new MessageBox(shell, SWT.OK | SWT.ICON_ERROR);
+      mb.setMessage(
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.InvalidConnection.DialogMessage"));
+      mb.setText(
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.InvalidConnection.DialogTitle"));
+      mb.open();
+    }
+
+    dispose();
+  }
+
+  private void getTableName() {
+    String connectionName = wConnection.getText();
+    if (StringUtils.isEmpty(connectionName)) {
+      return;
+    }
+    DatabaseMeta databaseMeta = pipelineMeta.findDatabase(connectionName);
+    if (databaseMeta != null) {
+      DatabaseExplorerDialog std =
+          new DatabaseExplorerDialog(
+              shell, SWT.NONE, variables, databaseMeta, pipelineMeta.getDatabases());
+      std.setSelectedSchemaAndTable(wSchema.getText(), wTable.getText());
+      if (std.open()) {
+        wSchema.setText(Const.NVL(std.getSchemaName(), ""));
+        wTable.setText(Const.NVL(std.getTableName(), ""));
+        setTableFieldCombo();
+      }
+    } else {
+      MessageBox mb = new MessageBox(shell, SWT.OK | SWT.ICON_ERROR);
+      mb.setMessage(
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.InvalidConnection.DialogMessage"));
+      mb.setText(
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.InvalidConnection.DialogTitle"));
+      mb.open();
+    }
+  }
+
+  private void getFields() {
+    try {
+      IRowMeta r = pipelineMeta.getPrevTransformFields(variables, transformName);
+      if (r != null) {
+        BaseTransformDialog.getFieldsFromPrevious(
+            r, wFields, 1, new int[] {1, 2}, new int[] {}, -1, -1, null);
+      }
+    } catch (HopException ke) {
+      new ErrorDialog(
+          shell,
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.FailedToGetFields.DialogTitle"),
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.FailedToGetFields.DialogMessage"),
+          ke);
+    }
+  }
+
+  /** Map the fields of the input rows to the columns of the table with the mapping dialog. */
+  private void generateMappings() {
+    IRowMeta sourceFields;
+    IRowMeta targetFields;
+    try {
+      sourceFields = pipelineMeta.getPrevTransformFields(variables, transformName);
+      BulkTableOutputMeta info = new BulkTableOutputMeta();
+      getInfo(info);
+      targetFields = info.getRequiredFields(variables);
+    } catch (HopException e) {
+      new ErrorDialog(
+          shell,
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.DoMapping.UnableToFindFields.Title"),
+          BaseMessages.getString(
+              PKG, "BulkTableOutputDialog.DoMapping.UnableToFindFields.Message"),
+          e);
+      return;
+    }
+
+    // The existing mappings, the ones with missing fields are dropped
+    //
+    List<SourceToTargetMapping> mappings = new ArrayList<>();
+    for (int i = 0; i < wFields.nrNonEmpty(); i++) {
+      TableItem item = wFields.getNonEmpty(i);
+      int sourceIndex = sourceFields.indexOfValue(item.getText(2));
+      int targetIndex = targetFields.indexOfValue(item.getText(1));
+      if (sourceIndex >= 0 && targetIndex >= 0) {
+        mappings.add(new SourceToTargetMapping(sourceIndex, targetIndex));
+      }
+    }
+
+    EnterMappingDialog d =
+        new EnterMappingDialog(
+            shell, sourceFields.getFieldNames(), targetFields.getFieldNames(), mappings);
+    mappings = d.open();
+
+    // mappings == null if the user pressed cancel
+    //
+    if (mappings != null) {
+      wFields.table.removeAll();
+      wFields.table.setItemCount(mappings.size());
+      for (int i = 0; i < mappings.size(); i++) {
+        SourceToTargetMapping mapping = mappings.get(i);
+        TableItem item = wFields.table.getItem(i);
+        item.setText(1, targetFields.getValueMeta(mapping.getTargetPosition()).getName());
+        item.setText(2, sourceFields.getValueMeta(mapping.getSourcePosition()).getName());
+      }
+      wFields.setRowNums();
+      wFields.optWidth(true);
+    }
+  }
+
+  // Generate code for create table...
+  // Conversions done by Database
+  private void create() {
+    try {
+      BulkTableOutputMeta info = new BulkTableOutputMeta();
+      getInfo(info);
+
+      String name = transformName; // new name might not yet be linked to other transforms!
+      TransformMeta transformMeta =
+          new TransformMeta(
+              BaseMessages.getString(PKG, "BulkTableOutputDialog.TransformMeta.Title"), name, info);
+      IRowMeta prev = pipelineMeta.getPrevTransformFields(variables, transformName);
+
+      SqlStatement sql =
+          info.getSqlStatements(variables, pipelineMeta, transformMeta, prev, metadataProvider);
+      if (!sql.hasError()) {
+        if (sql.hasSql()) {
+          SqlEditor sqledit =
+              new SqlEditor(
+                  shell,
+                  SWT.NONE,
+                  variables,
+                  info.getDatabaseMeta(),
+                  DbCache.getInstance(),
+                  sql.getSql());
+          sqledit.open();
+        } else {
+          MessageBox mb = new MessageBox(shell, SWT.OK | SWT.ICON_INFORMATION);
+          mb.setMessage(
+              BaseMessages.getString(PKG, "BulkTableOutputDialog.NoSQLNeeds.DialogMessage"));
+          mb.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.NoSQLNeeds.DialogTitle"));
+          mb.open();
+        }
+      } else {
+        MessageBox mb = new MessageBox(shell, SWT.OK | SWT.ICON_ERROR);
+        mb.setMessage(sql.getError());
+        mb.setText(BaseMessages.getString(PKG, "BulkTableOutputDialog.SQLError.DialogTitle"));
+        mb.open();
+      }
+    } catch (HopException ke) {
+      new ErrorDialog(
+          shell,
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.CouldNotBuildSQL.DialogTitle"),
+          BaseMessages.getString(PKG, "BulkTableOutputDialog.CouldNotBuildSQL.DialogMessage"),
+          ke);
+    }
+  }
+
+  private void setTableFieldCombo() {
+    Runnable fieldLoader =
+        () -> {
+          if (wTable.isDisposed() || wConnection.isDisposed() || wSchema.isDisposed()) {
+            return;
+          }
+          ciFields[0].setComboValues(new String[] {});
+          String tableName = variables.resolve(wTable.getText());
+          DatabaseMeta databaseMeta = pipelineMeta.findDatabase(wConnection.getText());
+          if (Utils.isEmpty(tableName) || databaseMeta == null) {
+            return;
+          }
+          Database db = new Database(loggingObject, variables, databaseMeta);
+          try {
+            db.connect();
+            String schemaTable =
+                databaseMeta.getQuotedSchemaTableCombination(
+                    variables, variables.resolve(wSchema.getText()), tableName);
+            IRowMeta r = db.getTableFields(schemaTable);
+            if (r != null) {
+              ciFields[0].setComboValues(r.getFieldNames());
+            }
+          } catch (Exception e) {
+            // The drop down stays empty, no problem for the user
+          } finally {
+            db.disconnect();
+          }
+        };
+    shell.getDisplay().asyncExec(fieldLoader);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.hop.metadata.api.HopMetadataProperty;
+
+import java.util.Objects;
+
+/** A column of the table and the field of the input rows which is loaded into it. */
+public class BulkTableOutputField {
+
+  /** The name of the column in the table */
+  @HopMetadataProperty(
+      key = "column_name",
+      injectionKey = "COLUMN_NAME",
+      injectionKeyDescription = "BulkTableOutput.Injection.COLUMN_NAME")
+  private String columnName;
+
+  /** The name of the field in the input rows */
+  @HopMetadataProperty(
+      key = "stream_name",
+      injectionKey = "STREAM_NAME",
+      injectionKeyDescription = "BulkTableOutput.Injection.STREAM_NAME")
+  private String streamName;
+
+  public BulkTableOutputField() {}
+
+  public BulkTableOutputField(String columnName, String streamName) {
+    this.columnName = columnName;
+    this.streamName = streamName;
+  }
+
+  public BulkTableOutputField(BulkTableOutputField f) {
+    this.columnName = f.columnName;
+    this.streamName = f.streamName;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BulkTableOutputField that = (BulkTableOutputField) o;
+    return Objects.equals(columnName, that.columnName)
+        && Objects.equals(streamName, that.streamName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(columnName, streamName);
+  }
+
+  /**
+   * Gets columnName
+   *
+   * @return value of columnName
+   */
+  public String getColumnName() {
+    return columnName;
+  }
+
+  /** @param columnName The columnName to set */
+  public void setColumnName(String columnName) {
+    this.columnName = columnName;
+  }
+
+  /**
+   * Gets streamName
+   *
+   * @return value of streamName
+   */
+  public String getStreamName() {
+    return streamName;
+  }
+
+  /** @param streamName The streamName to set */
+  public void setStreamName(String streamName) {
+    this.streamName = streamName;
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.ICheckResult;
+import org.apache.hop.core.IProvidesDatabaseConnectionInformation;
+import org.apache.hop.core.SqlStatement;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.DatabaseImpact;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransformMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Transform(
+    id = "BulkTableOutput",
+    image = "bulktableoutput.svg",
+    name = "i18n::BulkTableOutput.Name",
+    description = "i18n::BulkTableOutput.Description",
+    categoryDescription = "i18n:org.apache.hop.pipeline.transform:BaseTransform.Category.Bulk",
+    keywords = "i18n::BulkTableOutputMeta.keyword",
+    documentationUrl = "/pipeline/transforms/bulktableoutput.html")
+public class BulkTableOutputMeta extends BaseTransformMeta<BulkTableOutput, BulkTableOutputData>
+    implements IProvidesDatabaseConnectionInformation {
+  private static final Class<?> PKG = BulkTableOutputMeta.class; // For Translator
+
+  @HopMetadataProperty(
+      key = "connection",
+      storeWithName = true,
+      injectionKey = "CONNECTION",
+      injectionKeyDescription = "BulkTableOutput.Injection.CONNECTION")
+  private DatabaseMeta databaseMeta;
+
+  @HopMetadataProperty(
+      key = "schema",
+      injectionKey = "SCHEMA",
+      injectionKeyDescription = "BulkTableOutput.Injection.SCHEMA")
+  private String schemaName;
+
+  @HopMetadataProperty(
+      key = "table",
+      injectionKey = "TABLE",
+      injectionKeyDescription = "BulkTableOutput.Injection.TABLE")
+  private String tableName;
+
+  @HopMetadataProperty(
+      key = "truncate",
+      injectionKey = "TRUNCATE_TABLE",
+      injectionKeyDescription = "BulkTableOutput.Injection.TRUNCATE_TABLE")
+  private boolean truncateTable;
+
+  /** The number of rows loaded and committed at once, empty or 0 loads all rows at once */
+  @HopMetadataProperty(
+      key = "rows_per_load",
+      injectionKey = "ROWS_PER_LOAD",
+      injectionKeyDescription = "BulkTableOutput.Injection.ROWS_PER_LOAD")
+  private String rowsPerLoad;
+
+  /** The columns to load, all fields of the input rows are loaded when there are none */
+  @HopMetadataProperty(
+      groupKey = "fields",
+      key = "field",
+      injectionGroupKey = "FIELDS",
+      injectionGroupDescription = "BulkTableOutput.Injection.FIELDS")
+  private List<BulkTableOutputField> fields;
+
+  public BulkTableOutputMeta() {
+    fields = new ArrayList<>();
+  }
+
+  @Override
+  public BulkTableOutputMeta clone() {
+    BulkTableOutputMeta meta = new BulkTableOutputMeta();
+
+    meta.databaseMeta = this.databaseMeta;
+    meta.schemaName = this.schemaName;
+    meta.tableName = this.tableName;
+    meta.truncateTable = this.truncateTable;
+    meta.rowsPerLoad = this.rowsPerLoad;
+    for (BulkTableOutputField field : this.fields) {
+      meta.fields.add(new BulkTableOutputField(field));
+    }
+
+    return meta;
+  }
+
+  @Override
+  public void setDefault() {
+    databaseMeta = null;
+    schemaName = "";
+    tableName = "";
+    truncateTable = false;
+    rowsPerLoad = "100000";
+    fields = new ArrayList<>();
+  }
+
+  /**
+   * Get the layout of the rows to load: the fields to load renamed to their columns.
+   *
+   * @param inputRowMeta the layout of the input rows
+   * @return the layout of the rows to load
+   * @throws HopTransformException if a field can't be found in the input rows
+   */
+  public IRowMeta getLoadRowMeta(IRowMeta inputRowMeta) throws HopTransformException {
+    if (fields.isEmpty()) {
+      return inputRowMeta.clone();
+    }
+    IRowMeta loadRowMeta = new RowMeta();
+    for (BulkTableOutputField field : fields) {
+      IValueMeta valueMeta = inputRowMeta.searchValueMeta(field.getStreamName());
+      if (valueMeta == null) {
+        throw new HopTransformException(
+            BaseMessages.getString(
+                PKG, "BulkTableOutput.Exception.FieldNotFound", field.getStreamName()));
+      }
+      valueMeta = valueMeta.clone();
+      valueMeta.setName(field.getColumnName());
+      loadRowMeta.addValueMeta(valueMeta);
+    }
+    return loadRowMeta;
+  }
+
+  @Override
+  public void check(
+      List<ICheckResult> remarks,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      String[] input,
+      String[] output,
+      IRowMeta info,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider) {
+    if (databaseMeta == null) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoConnection"),
+              transformMeta));
+    } else if (!databaseMeta.supportsBulkLoad()) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(
+                  PKG,
+                  "BulkTableOutputMeta.CheckResult.BulkLoadNotSupported",
+                  databaseMeta.getPluginName()),
+              transformMeta));
+    }
+
+    if (Utils.isEmpty(tableName)) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoTable"),
+              transformMeta));
+    }
+
+    if (prev != null && prev.size() > 0) {
+      try {
+        getLoadRowMeta(prev);
+        remarks.add(
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_OK,
+                BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.FieldsOk"),
+                transformMeta));
+      } catch (HopTransformException e) {
+        remarks.add(
+            new CheckResult(ICheckResult.TYPE_RESULT_ERROR, e.getMessage(), transformMeta));
+      }
+    }
+
+    if (input.length == 0) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoInput"),
+              transformMeta));
+    }
+  }
+
+  @Override
+  public SqlStatement getSqlStatements(
+      IVariables variables,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      IHopMetadataProvider metadataProvider)
+      throws HopTransformException {
+    SqlStatement sqlStatement = new SqlStatement(transformMeta.getName(), databaseMeta, null);
+    if (databaseMeta == null) {
+      sqlStatement.setError(
+          BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoConnection"));
+      return sqlStatement;
+    }
+    if (prev == null || prev.isEmpty()) {
+      sqlStatement.setError(
+          BaseMessages.getString(PKG, "BulkTableOutputMeta.GetSql.NotReceivingAnyFields"));
+      return sqlStatement;
+    }
+    if (Utils.isEmpty(tableName)) {
+      sqlStatement.setError(BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoTable"));
+      return sqlStatement;
+    }
+
+    IRowMeta tableFields = getLoadRowMeta(prev);
+    Database db = new Database(loggingObject, variables, databaseMeta);
+    try {
+      db.connect();
+      String schemaTable =
+          databaseMeta.getQuotedSchemaTableCombination(variables, schemaName, tableName);
+      String sql = db.getDDL(schemaTable, tableFields, null, false, null, true);
+      sqlStatement.setSql(Utils.isEmpty(sql) ? null : sql);
+    } catch (HopException e) {
+      sqlStatement.setError(
+          BaseMessages.getString(PKG, "BulkTableOutputMeta.GetSql.ErrorOccurred")
+              + e.getMessage());
+    } finally {
+      db.disconnect();
+    }
+    return sqlStatement;
+  }
+
+  @Override
+  public void analyseImpact(
+      IVariables variables,
+      List<DatabaseImpact> impact,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      String[] input,
+      String[] output,
+      IRowMeta info,
+      IHopMetadataProvider metadataProvider)
+      throws HopTransformException {
+    if (prev == null || databaseMeta == null) {
+      return;
+    }
+    IRowMeta loadRowMeta = getLoadRowMeta(prev);
+    for (int i = 0; i < loadRowMeta.size(); i++) {
+      IValueMeta valueMeta = loadRowMeta.getValueMeta(i);
+      String streamName = fields.isEmpty() ? valueMeta.getName() : fields.get(i).getStreamName();
+      impact.add(
+          new DatabaseImpact(
+              DatabaseImpact.TYPE_IMPACT_WRITE,
+              pipelineMeta.getName(),
+              transformMeta.getName(),
+              databaseMeta.getDatabaseName(),
+              variables.resolve(tableName),
+              valueMeta.getName(),
+              streamName,
+              valueMeta.getOrigin(),
+              "",
+              "Type = " + valueMeta.toStringMeta()));
+    }
+  }
+
+  @Override
+  public IRowMeta getRequiredFields(IVariables variables) throws HopException {
+    if (databaseMeta == null) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoConnection"));
+    }
+    String realSchemaName = variables.resolve(schemaName);
+    String realTableName = variables.resolve(tableName);
+    if (Utils.isEmpty(realTableName)) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "BulkTableOutputMeta.CheckResult.NoTable"));
+    }
+
+    Database db = new Database(loggingObject, variables, databaseMeta);
+    try {
+      db.connect();
+      if (!db.checkTableExists(realSchemaName, realTableName)) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG, "BulkTableOutputMeta.Exception.TableNotFound", realTableName));
+      }
+      return db.getTableFields(
+          databaseMeta.getQuotedSchemaTableCombination(variables, realSchemaName, realTableName));
+    } finally {
+      db.disconnect();
+    }
+  }
+
+  @Override
+  public String getMissingDatabaseConnectionInformationMessage() {
+    return null;
+  }
+
+  /**
+   * Gets databaseMeta
+   *
+   * @return value of databaseMeta
+   */
+  @Override
+  public DatabaseMeta getDatabaseMeta() {
+    return databaseMeta;
+  }
+
+  /** @param databaseMeta The databaseMeta to set */
+  public void setDatabaseMeta(DatabaseMeta databaseMeta) {
+    this.databaseMeta = databaseMeta;
+  }
+
+  /**
+   * Gets schemaName
+   *
+   * @return value of schemaName
+   */
+  @Override
+  public String getSchemaName() {
+    return schemaName;
+  }
+
+  /** @param schemaName The schemaName to set */
+  public void setSchemaName(String schemaName) {
+    this.schemaName = schemaName;
+  }
+
+  /**
+   * Gets tableName
+   *
+   * @return value of tableName
+   */
+  @Override
+  public String getTableName() {
+    return tableName;
+  }
+
+  /** @param tableName The tableName to set */
+  public void setTableName(String tableName) {
+    this.tableName = tableName;
+  }
+
+  /**
+   * Gets truncateTable
+   *
+   * @return value of truncateTable
+   */
+  public boolean isTruncateTable() {
+    return truncateTable;
+  }
+
+  /** @param truncateTable The truncateTable to set */
+  public void setTruncateTable(boolean truncateTable) {
+    this.truncateTable = truncateTable;
+  }
+
+  /**
+   * Gets rowsPerLoad
+   *
+   * @return value of rowsPerLoad
+   */
+  public String getRowsPerLoad() {
+    return rowsPerLoad;
+  }
+
+  /** @param rowsPerLoad The number of rows to load and commit at once to set */
+  public void setRowsPerLoad(String rowsPerLoad) {
+    this.rowsPerLoad = rowsPerLoad;
+  }
+
+  /**
+   * Gets fields
+   *
+   * @return value of fields
+   */
+  public List<BulkTableOutputField> getFields() {
+    return fields;
+  }
+
+  /** @param fields The fields to set */
+  public void setFields(List<BulkTableOutputField> fields) {
+    this.fields = fields;
+  }
+}
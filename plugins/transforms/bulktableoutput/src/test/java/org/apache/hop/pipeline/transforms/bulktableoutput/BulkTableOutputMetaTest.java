@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMetaBuilder;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transforms.loadsave.LoadSaveTester;
+import org.apache.hop.pipeline.transforms.loadsave.validator.IFieldLoadSaveValidator;
+import org.apache.hop.pipeline.transforms.loadsave.validator.IFieldLoadSaveValidatorFactory;
+import org.apache.hop.pipeline.transforms.loadsave.validator.ListLoadSaveValidator;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class BulkTableOutputMetaTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Before
+  public void setUpLoadSave() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    LoadSaveTester<BulkTableOutputMeta> tester = new LoadSaveTester<>(BulkTableOutputMeta.class);
+    IFieldLoadSaveValidatorFactory factory = tester.getFieldLoadSaveValidatorFactory();
+    factory.registerValidator(
+        BulkTableOutputMeta.class.getDeclaredField("fields").getGenericType().toString(),
+        new ListLoadSaveValidator<>(new BulkTableOutputFieldValidator()));
+    tester.testSerialization();
+  }
+
+  @Test
+  public void testGetLoadRowMeta() throws HopTransformException {
+    IRowMeta inputRowMeta =
+        new RowMetaBuilder().addInteger("id").addString("name").addDate("updated").build();
+
+    BulkTableOutputMeta meta = new BulkTableOutputMeta();
+    meta.setDefault();
+
+    // All input fields when none are specified
+    IRowMeta loadRowMeta = meta.getLoadRowMeta(inputRowMeta);
+    assertEquals(
+        Arrays.asList(inputRowMeta.getFieldNames()), Arrays.asList(loadRowMeta.getFieldNames()));
+
+    // The specified fields renamed to their columns, in the order of the fields
+    meta.getFields().add(new BulkTableOutputField("last_update", "updated"));
+    meta.getFields().add(new BulkTableOutputField("customer_id", "id"));
+    loadRowMeta = meta.getLoadRowMeta(inputRowMeta);
+    assertEquals(2, loadRowMeta.size());
+    assertEquals("last_update", loadRowMeta.getValueMeta(0).getName());
+    assertEquals(IValueMeta.TYPE_DATE, loadRowMeta.getValueMeta(0).getType());
+    assertEquals("customer_id", loadRowMeta.getValueMeta(1).getName());
+    // The input row layout is left alone
+    assertEquals("updated", inputRowMeta.getValueMeta(2).getName());
+  }
+
+  @Test(expected = HopTransformException.class)
+  public void testGetLoadRowMetaMissingField() throws HopTransformException {
+    BulkTableOutputMeta meta = new BulkTableOutputMeta();
+    meta.setDefault();
+    meta.getFields().add(new BulkTableOutputField("id", "missing"));
+    meta.getLoadRowMeta(new RowMetaBuilder().addInteger("id").build());
+  }
+
+  @Test
+  public void testClone() {
+    BulkTableOutputMeta meta = new BulkTableOutputMeta();
+    meta.setDefault();
+    meta.setTableName("customers");
+    meta.setRowsPerLoad("5000");
+    meta.getFields().add(new BulkTableOutputField("id", "customer_id"));
+
+    BulkTableOutputMeta clone = meta.clone();
+    assertNotSame(meta.getFields(), clone.getFields());
+    assertEquals(meta.getFields(), clone.getFields());
+    assertEquals("customers", clone.getTableName());
+    assertEquals("5000", clone.getRowsPerLoad());
+  }
+
+  public static final class BulkTableOutputFieldValidator
+      implements IFieldLoadSaveValidator<BulkTableOutputField> {
+
+    @Override
+    public BulkTableOutputField getTestObject() {
+      return new BulkTableOutputField(
+          UUID.randomUUID().toString(), UUID.randomUUID().toString());
+    }
+
+    @Override
+    public boolean validateTestObject(BulkTableOutputField testObject, Object actual) {
+      return testObject.equals(actual);
+    }
+  }
+}
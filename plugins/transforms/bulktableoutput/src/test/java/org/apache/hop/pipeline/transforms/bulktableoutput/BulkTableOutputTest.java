@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.bulktableoutput;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.IBulkLoader;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkTableOutputTest {
+
+  private TransformMockHelper<BulkTableOutputMeta, BulkTableOutputData> helper;
+  private BulkTableOutputData data;
+  private final List<TestLoader> loaders = new ArrayList<>();
+
+  /** Remembers the rows, loads all of them unless the number of loaded rows is set */
+  private static class TestLoader implements IBulkLoader {
+    final List<Object[]> rows = new ArrayList<>();
+    long loadedRows = -1;
+    boolean finished;
+    boolean closed;
+
+    @Override
+    public void addRow(Object[] row) {
+      rows.add(row);
+    }
+
+    @Override
+    public long finish() {
+      finished = true;
+      return loadedRows < 0 ? rows.size() : loadedRows;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    helper =
+        new TransformMockHelper<>(
+            "Bulk Table Output", BulkTableOutputMeta.class, BulkTableOutputData.class);
+    when(helper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(helper.iLogChannel);
+    when(helper.pipeline.isRunning()).thenReturn(true);
+
+    IRowMeta loadRowMeta = new RowMeta();
+    loadRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    loadRowMeta.addValueMeta(new ValueMetaString("name"));
+    when(helper.iTransformMeta.getLoadRowMeta(any())).thenReturn(loadRowMeta);
+    when(helper.iTransformMeta.getFields()).thenReturn(new ArrayList<>());
+
+    data = new BulkTableOutputData();
+    data.tableName = "customer";
+    data.db = mock(Database.class);
+    when(data.db.createBulkLoader(any(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              TestLoader loader = new TestLoader();
+              loaders.add(loader);
+              return loader;
+            });
+  }
+
+  @After
+  public void tearDown() {
+    helper.cleanUp();
+  }
+
+  private BulkTableOutput createTransform(int nrRows) {
+    BulkTableOutput transform =
+        new BulkTableOutput(
+            helper.transformMeta,
+            helper.iTransformMeta,
+            data,
+            0,
+            helper.pipelineMeta,
+            helper.pipeline);
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("name"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    List<Object[]> rows = new ArrayList<>();
+    for (long i = 1; i <= nrRows; i++) {
+      rows.add(new Object[] {"name" + i, i});
+    }
+    IRowSet inputRowSet = helper.getMockInputRowSet(rows);
+    when(inputRowSet.getRowMeta()).thenReturn(inputRowMeta);
+    transform.setInputRowSets(Collections.singletonList(inputRowSet));
+    return transform;
+  }
+
+  @Test
+  public void testEveryLoadIsCommitted() throws Exception {
+    data.rowsPerLoad = 2;
+    BulkTableOutput transform = createTransform(5);
+
+    while (transform.processRow()) {
+      // Load all the rows
+    }
+
+    assertEquals(3, loaders.size());
+    assertEquals(2, loaders.get(0).rows.size());
+    assertEquals(2, loaders.get(1).rows.size());
+    assertEquals(1, loaders.get(2).rows.size());
+    for (TestLoader loader : loaders) {
+      assertTrue(loader.finished);
+      assertTrue(loader.closed);
+    }
+    // The fields are loaded in the order of the table columns
+    assertArrayEquals(new Object[] {1L, "name1"}, loaders.get(0).rows.get(0));
+    assertArrayEquals(new Object[] {5L, "name5"}, loaders.get(2).rows.get(0));
+    verify(data.db, times(3)).commit();
+    verify(data.db, never()).rollback();
+  }
+
+  @Test
+  public void testDisposeRollsBackTheUnfinishedLoad() throws Exception {
+    Database db = data.db;
+    BulkTableOutput transform = createTransform(3);
+
+    assertTrue(transform.processRow());
+    assertTrue(transform.processRow());
+    transform.dispose();
+
+    assertEquals(1, loaders.size());
+    assertFalse(loaders.get(0).finished);
+    assertTrue(loaders.get(0).closed);
+    verify(db, never()).commit();
+    verify(db).rollback();
+    verify(db).disconnect();
+  }
+
+  @Test
+  public void testSkippedRowsRollBackTheLoad() throws Exception {
+    data.rowsPerLoad = 2;
+    BulkTableOutput transform = createTransform(2);
+    assertTrue(transform.processRow());
+    loaders.get(0).loadedRows = 1;
+
+    try {
+      transform.processRow();
+      fail("A load which skipped rows should fail");
+    } catch (HopDatabaseException e) {
+      // expected
+    }
+
+    assertTrue(loaders.get(0).closed);
+    verify(data.db, never()).commit();
+    verify(data.db).rollback();
+  }
+}
@@ -61,8 +61,8 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
   @Override
   public boolean processRow() throws HopException {
 
-    Object[] r = getRow(); // get row, set busy!
-    if (r == null) { // no more input to be expected...
+    Object[][] rows = getRows(NR_OF_ROWS_IN_BATCH); // get rows, set busy!
+    if (rows == null) { // no more input to be expected...
       setOutputDone();
       data.clearValuesMetaMapping();
       return false;
@@ -163,39 +163,55 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
       }
     }
 
-    if (log.isRowLevel()) {
-      logRowlevel(
-          BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
-              + getLinesRead()
-              + " : "
-              + getInputRowMeta().getString(r));
-    }
+    Object[][] outputRows = new Object[rows.length][];
+    int nrOutputRows = 0;
+    long lineNr = getLinesRead() - rows.length;
 
-    try {
-      Object[] row = calcFields(getInputRowMeta(), r);
-      putRow(data.getOutputRowMeta(), row); // copy row to possible alternate rowset(s).
+    for (Object[] r : rows) {
+      lineNr++;
 
       if (log.isRowLevel()) {
-        logRowlevel("Wrote row #" + getLinesWritten() + " : " + getInputRowMeta().getString(r));
+        logRowlevel(
+            BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
+                + lineNr
+                + " : "
+                + getInputRowMeta().getString(r));
       }
-      if (checkFeedback(getLinesRead())) {
-        if (log.isBasic()) {
-          logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
+
+      try {
+        Object[] row = calcFields(getInputRowMeta(), r);
+        outputRows[nrOutputRows++] = row; // copy row to possible alternate rowset(s) later on.
+
+        if (log.isRowLevel()) {
+          logRowlevel(
+              "Wrote row #"
+                  + (getLinesWritten() + nrOutputRows)
+                  + " : "
+                  + getInputRowMeta().getString(r));
         }
+        if (checkFeedback(lineNr)) {
+          if (log.isBasic()) {
+            logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + lineNr));
+          }
+        }
+      } catch (HopFileNotFoundException e) {
+        if (meta.isFailIfNoFile()) {
+          logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
+          setErrors(getErrors() + 1);
+          // The rows calculated before this one are passed on, as they would be row by row
+          putRows(data.getOutputRowMeta(), outputRows, nrOutputRows);
+          return false;
+        }
+      } catch (HopException e) {
+        logError(
+            BaseMessages.getString(
+                PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
       }
-    } catch (HopFileNotFoundException e) {
-      if (meta.isFailIfNoFile()) {
-        logError(BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
-        setErrors(getErrors() + 1);
-        return false;
-      }
-    } catch (HopException e) {
-      logError(
-          BaseMessages.getString(
-              PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
-      throw new HopTransformException(
-          BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
     }
+
+    putRows(data.getOutputRowMeta(), outputRows, nrOutputRows);
     return true;
   }
 
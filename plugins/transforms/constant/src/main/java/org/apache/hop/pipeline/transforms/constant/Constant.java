@@ -225,10 +225,9 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] r = null;
-    r = getRow();
+    Object[][] rows = getRows(NR_OF_ROWS_IN_BATCH);
 
-    if (r == null) { // no more rows to be expected from the previous transform(s)
+    if (rows == null) { // no more rows to be expected from the previous transform(s)
       setOutputDone();
       return false;
     }
@@ -242,24 +241,30 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
       meta.getFields(data.outputMeta, getTransformName(), null, null, this, metadataProvider);
     }
 
-    // Add the constant data to the end of the row.
-    r = RowDataUtil.addRowData(r, getInputRowMeta().size(), data.getConstants().getData());
-
-    putRow(data.outputMeta, r);
+    long lineNr = getLinesWritten();
+    for (int i = 0; i < rows.length; i++) {
+      lineNr++;
+
+      // Add the constant data to the end of the row.
+      Object[] r =
+          RowDataUtil.addRowData(rows[i], getInputRowMeta().size(), data.getConstants().getData());
+      rows[i] = r;
+
+      if (log.isRowLevel()) {
+        logRowlevel(
+            BaseMessages.getString(
+                PKG,
+                "Constant.Log.Wrote.Row",
+                Long.toString(lineNr),
+                getInputRowMeta().getString(r)));
+      }
 
-    if (log.isRowLevel()) {
-      logRowlevel(
-          BaseMessages.getString(
-              PKG,
-              "Constant.Log.Wrote.Row",
-              Long.toString(getLinesWritten()),
-              getInputRowMeta().getString(r)));
+      if (checkFeedback(lineNr) && log.isBasic()) {
+        logBasic(BaseMessages.getString(PKG, "Constant.Log.LineNr", Long.toString(lineNr)));
+      }
     }
 
-    if (checkFeedback(getLinesWritten()) && log.isBasic()) {
-      logBasic(
-          BaseMessages.getString(PKG, "Constant.Log.LineNr", Long.toString(getLinesWritten())));
-    }
+    putRows(data.outputMeta, rows, rows.length);
 
     return true;
   }
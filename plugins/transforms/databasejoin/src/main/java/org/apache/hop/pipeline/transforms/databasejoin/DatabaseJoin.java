@@ -17,12 +17,14 @@
 
 package org.apache.hop.pipeline.transforms.databasejoin;
 
+import org.apache.hop.core.Const;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.util.Utils;
@@ -32,8 +34,19 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 /**
  * Use values from input streams to joins with values in a database. Freehand SQL can be used to do
@@ -43,6 +56,9 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
 
   private static final Class<?> PKG = DatabaseJoinMeta.class; // For Translator
 
+  private static final Pattern ORDER_BY =
+      Pattern.compile("\\border\\s+by\\b", Pattern.CASE_INSENSITIVE);
+
   private final ReentrantLock dbLock = new ReentrantLock();
 
   public DatabaseJoin(
@@ -61,38 +77,7 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
 
     if (first) {
       first = false;
-
-      data.outputRowMeta = rowMeta.clone();
-      meta.getFields(
-          data.outputRowMeta,
-          getTransformName(),
-          new IRowMeta[] {
-            meta.getTableFields(this),
-          },
-          null,
-          this,
-          metadataProvider);
-
-      data.lookupRowMeta = new RowMeta();
-
-      if (log.isDetailed()) {
-        logDetailed(
-            BaseMessages.getString(PKG, "DatabaseJoin.Log.CheckingRow")
-                + rowMeta.getString(rowData));
-      }
-
-      data.keynrs = new int[meta.getParameters().size()];
-
-      for (int i = 0; i < data.keynrs.length; i++) {
-        ParameterField field = meta.getParameters().get(i);
-        data.keynrs[i] = rowMeta.indexOfValue(field.getName());
-        if (data.keynrs[i] < 0) {
-          throw new HopTransformException(
-              BaseMessages.getString(PKG, "DatabaseJoin.Exception.FieldNotFound", field.getName()));
-        }
-
-        data.lookupRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]).clone());
-      }
+      initLookup(rowMeta, rowData);
     }
     final ResultSet rs;
     try {
@@ -116,19 +101,7 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
       while (add != null && (meta.getRowLimit() == 0 || counter < meta.getRowLimit())) {
         counter++;
 
-        Object[] newRow = RowDataUtil.resizeArray(rowData, data.outputRowMeta.size());
-        int newIndex = rowMeta.size();
-        for (int i = 0; i < addMeta.size(); i++) {
-          newRow[newIndex++] = add[i];
-        }
-        // we have to clone, otherwise we only get the last new value
-        putRow(data.outputRowMeta, data.outputRowMeta.cloneRow(newRow));
-
-        if (log.isRowLevel()) {
-          logRowlevel(
-              BaseMessages.getString(PKG, "DatabaseJoin.Log.PutoutRow")
-                  + data.outputRowMeta.getString(newRow));
-        }
+        putJoinRow(rowMeta, rowData, add, addMeta.size());
 
         // Get a new row
         if (meta.getRowLimit() == 0 || counter < meta.getRowLimit()) {
@@ -158,20 +131,337 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
     }
   }
 
+  private void initLookup(IRowMeta rowMeta, Object[] rowData) throws HopException {
+    data.outputRowMeta = rowMeta.clone();
+    meta.getFields(
+        data.outputRowMeta,
+        getTransformName(),
+        new IRowMeta[] {
+          meta.getTableFields(this),
+        },
+        null,
+        this,
+        metadataProvider);
+
+    data.lookupRowMeta = new RowMeta();
+
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "DatabaseJoin.Log.CheckingRow")
+              + rowMeta.getString(rowData));
+    }
+
+    data.keynrs = new int[meta.getParameters().size()];
+
+    for (int i = 0; i < data.keynrs.length; i++) {
+      ParameterField field = meta.getParameters().get(i);
+      data.keynrs[i] = rowMeta.indexOfValue(field.getName());
+      if (data.keynrs[i] < 0) {
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "DatabaseJoin.Exception.FieldNotFound", field.getName()));
+      }
+
+      data.lookupRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]).clone());
+    }
+
+    int batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
+    if (batchSize > 1) {
+      String sql = meta.getSql();
+      if (meta.isReplaceVariables()) {
+        sql = resolve(sql);
+      }
+      if (meta.getRowLimit() > 0) {
+        // The batched query can't limit the rows of every input row in the database, all matching
+        // rows would be fetched only to drop most of them
+        logBasic(BaseMessages.getString(PKG, "DatabaseJoin.Log.BatchNotPossibleRowLimit"));
+      } else if (!canBatch(sql)) {
+        logBasic(BaseMessages.getString(PKG, "DatabaseJoin.Log.BatchNotPossibleOrderBy"));
+      } else if (hasDuplicateColumns(data.pstmt)) {
+        logBasic(BaseMessages.getString(PKG, "DatabaseJoin.Log.BatchNotPossibleColumns"));
+      } else {
+        initBatch(sql, batchSize);
+      }
+    }
+  }
+
+  private void putJoinRow(IRowMeta rowMeta, Object[] rowData, Object[] add, int addSize)
+      throws HopException {
+    Object[] newRow = RowDataUtil.resizeArray(rowData, data.outputRowMeta.size());
+    int newIndex = rowMeta.size();
+    for (int i = 0; i < addSize; i++) {
+      newRow[newIndex++] = add[i];
+    }
+    // we have to clone, otherwise we only get the last new value
+    putRow(data.outputRowMeta, data.outputRowMeta.cloneRow(newRow));
+
+    if (log.isRowLevel()) {
+      logRowlevel(
+          BaseMessages.getString(PKG, "DatabaseJoin.Log.PutoutRow")
+              + data.outputRowMeta.getString(newRow));
+    }
+  }
+
+  /**
+   * Combine the queries of a batch of rows with UNION ALL. Every query is used as a sub query and
+   * gets the index of its row as the first field, so the results can be handed back to the rows.
+   *
+   * @param sql the query of a single row
+   * @param batchSize the number of rows in a batch
+   * @return the query of a batch of rows
+   */
+  static String getBatchSql(String sql, int batchSize) {
+    String query = sql.trim();
+    while (query.endsWith(";")) {
+      query = query.substring(0, query.length() - 1).trim();
+    }
+    StringBuilder batchSql = new StringBuilder();
+    for (int i = 0; i < batchSize; i++) {
+      if (i > 0) {
+        batchSql.append(Const.CR).append("UNION ALL").append(Const.CR);
+      }
+      // The line break keeps a comment at the end of the query from hiding the alias
+      batchSql
+          .append("SELECT ")
+          .append(i)
+          .append(" AS hop_batch_row, q.* FROM (")
+          .append(query)
+          .append(Const.CR)
+          .append(") q");
+    }
+    return batchSql.toString();
+  }
+
+  /**
+   * A query with an ORDER BY can't be batched: a sub query doesn't keep its order, and some
+   * databases don't even allow an ORDER BY in a sub query. The row limit would then keep other
+   * rows than the query of a single row does.
+   *
+   * @param sql the query of a single row
+   * @return true if the queries of several rows can be combined
+   */
+  static boolean canBatch(String sql) {
+    return !ORDER_BY.matcher(sql).find();
+  }
+
+  /**
+   * The columns of a sub query need unique names. Drivers which can't describe a prepared
+   * statement return no metadata, the batched query then fails when it runs.
+   *
+   * @return true if the query returns several columns with the same name
+   */
+  static boolean hasDuplicateColumns(PreparedStatement statement) {
+    try {
+      ResultSetMetaData metaData = statement.getMetaData();
+      if (metaData == null) {
+        return false;
+      }
+      Set<String> names = new HashSet<>();
+      for (int i = 1; i <= metaData.getColumnCount(); i++) {
+        if (!names.add(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT))) {
+          return true;
+        }
+      }
+      return false;
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void initBatch(String sql, int batchSize) throws HopException {
+    data.batchSize = batchSize;
+    data.batchBaseSql = sql;
+    data.batchStatements = new HashMap<>();
+    data.batchParameterMetas = new HashMap<>();
+    getBatchStatement(batchSize);
+    data.batchRows = new ArrayList<>();
+  }
+
+  /**
+   * Get the query of a batch of rows, prepared the first time it's needed. A batch which isn't
+   * full, at the end of the rows for instance, gets a query of its own size.
+   *
+   * @param nrRows the number of rows in the batch
+   * @return the prepared query
+   */
+  private PreparedStatement getBatchStatement(int nrRows) throws HopException {
+    PreparedStatement statement = data.batchStatements.get(nrRows);
+    if (statement == null) {
+      String batchSql = getBatchSql(data.batchBaseSql, nrRows);
+      if (log.isDebug()) {
+        logDebug(BaseMessages.getString(PKG, "DatabaseJoin.Log.BatchSQLStatement", batchSql));
+      }
+      statement = data.db.prepareSql(batchSql);
+      data.batchStatements.put(nrRows, statement);
+
+      IRowMeta parameterMeta = new RowMeta();
+      for (int i = 0; i < nrRows; i++) {
+        for (IValueMeta valueMeta : data.lookupRowMeta.getValueMetaList()) {
+          parameterMeta.addValueMeta(valueMeta.clone());
+        }
+      }
+      data.batchParameterMetas.put(nrRows, parameterMeta);
+    }
+    return statement;
+  }
+
+  /**
+   * Add a row to the batch, the batch is queried once it's full.
+   *
+   * @return true if the transform can go on with the next row
+   */
+  private boolean addToBatch(IRowMeta rowMeta, Object[] rowData) throws HopException {
+    if (first) {
+      dbLock.lock();
+      try {
+        first = false;
+        initLookup(rowMeta, rowData);
+      } finally {
+        dbLock.unlock();
+      }
+      if (data.batchRows == null) {
+        // The query can't be batched, every row is queried by itself
+        lookupValues(rowMeta, rowData);
+        return true;
+      }
+    }
+    data.batchRows.add(rowData);
+    if (data.batchRows.size() >= data.batchSize) {
+      return flushBatch();
+    }
+    return true;
+  }
+
+  /**
+   * Query the waiting rows and pass them on in the order they were read.
+   *
+   * @return true if the transform can go on with the next row
+   */
+  private boolean flushBatch() throws HopException {
+    if (data.batchRows.isEmpty()) {
+      return true;
+    }
+    try {
+      List<List<Object[]>> results;
+      try {
+        results = queryBatch();
+      } catch (HopException e) {
+        // None of the waiting rows could be joined
+        for (Object[] rowData : data.batchRows) {
+          if (!handleJoinError(rowData, e)) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      IRowMeta rowMeta = getInputRowMeta();
+      int addSize = data.outputRowMeta.size() - rowMeta.size();
+      for (int i = 0; i < data.batchRows.size(); i++) {
+        Object[] rowData = data.batchRows.get(i);
+        List<Object[]> rows = results.get(i);
+        for (Object[] add : rows) {
+          putJoinRow(rowMeta, rowData, add, addSize);
+        }
+        // Nothing found? Perhaps we have to put something out after all?
+        if (rows.isEmpty() && meta.isOuterJoin()) {
+          putRow(data.outputRowMeta, RowDataUtil.resizeArray(rowData, data.outputRowMeta.size()));
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+    }
+  }
+
+  /** @return the rows found for every waiting row, without the index of the row */
+  private List<List<Object[]>> queryBatch() throws HopException {
+    int nrRows = data.batchRows.size();
+    List<List<Object[]>> results = new ArrayList<>(nrRows);
+    for (int i = 0; i < nrRows; i++) {
+      results.add(new ArrayList<>());
+    }
+
+    int nrParameters = data.keynrs.length;
+    Object[] parameters = new Object[nrRows * nrParameters];
+    for (int i = 0; i < nrRows; i++) {
+      Object[] rowData = data.batchRows.get(i);
+      for (int k = 0; k < nrParameters; k++) {
+        parameters[i * nrParameters + k] = rowData[data.keynrs[k]];
+      }
+    }
+
+    dbLock.lock();
+    try {
+      PreparedStatement statement = getBatchStatement(nrRows);
+      IRowMeta parameterMeta = data.batchParameterMetas.get(nrRows);
+      ResultSet rs = data.db.openQuery(statement, parameterMeta, parameters);
+      try {
+        IRowMeta resultMeta = data.db.getReturnRowMeta();
+        Object[] add = data.db.getRow(rs);
+        while (add != null) {
+          int index = resultMeta.getInteger(add, 0).intValue();
+          if (index >= 0 && index < nrRows) {
+            incrementLinesInput();
+            results.get(index).add(Arrays.copyOfRange(add, 1, resultMeta.size()));
+          }
+          add = data.db.getRow(rs);
+        }
+      } finally {
+        data.db.closeQuery(rs);
+      }
+    } finally {
+      dbLock.unlock();
+    }
+    return results;
+  }
+
+  /**
+   * Send a row which couldn't be joined to the error handling, or stop the transform.
+   *
+   * @return true if the transform can go on with the next row
+   */
+  private boolean handleJoinError(Object[] rowData, HopException e) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      // Simply add this row to the error row
+      putError(getInputRowMeta(), rowData, 1, e.toString(), null, "DBJOIN001");
+      return true;
+    }
+    logError(
+        BaseMessages.getString(PKG, "DatabaseJoin.Log.ErrorInTransformRunning") + e.getMessage(),
+        e);
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
   @Override
-  public boolean processRow() throws HopException {
+  public void batchComplete() throws HopException {
+    if (data.batchRows != null) {
+      flushBatch();
+    }
+  }
 
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
+  @Override
+  public boolean processRow() throws HopException {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !flushBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
 
     try {
-      lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
+      if (first || data.batchRows != null) {
+        if (!addToBatch(getInputRowMeta(), r)) {
+          return false;
+        }
+      } else {
+        lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
+      }
 
       if (checkFeedback(getLinesRead())) {
         if (log.isBasic()) {
@@ -179,25 +469,7 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
         }
       }
     } catch (HopException e) {
-
-      if (getTransformMeta().isDoingErrorHandling()) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-
-        logError(
-            BaseMessages.getString(PKG, "DatabaseJoin.Log.ErrorInTransformRunning")
-                + e.getMessage(),
-            e);
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if (sendToErrorRow) {
-        // Simply add this row to the error row
-        putError(getInputRowMeta(), r, 1, errorMessage, null, "DBJOIN001");
-      }
+      return handleJoinError(r, e);
     }
 
     return true;
@@ -221,6 +493,11 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
     try {
       if (data.db != null && data.db.getConnection() != null && !data.isCanceled) {
         data.db.cancelStatement(data.pstmt);
+        if (data.batchStatements != null) {
+          for (PreparedStatement batchStatement : data.batchStatements.values()) {
+            data.db.cancelStatement(batchStatement);
+          }
+        }
         setStopped(true);
         data.isCanceled = true;
       }
@@ -292,6 +569,13 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
         data.db.closePreparedStatement(data.pstmt);
         data.pstmt = null;
       }
+      if (data.batchStatements != null) {
+        for (PreparedStatement batchStatement : data.batchStatements.values()) {
+          data.db.closePreparedStatement(batchStatement);
+        }
+        data.batchStatements = null;
+      }
+      data.batchRows = null;
       super.dispose();
     } catch (HopDatabaseException e) {
       logError("Unexpected error closing statement : " + e.toString());
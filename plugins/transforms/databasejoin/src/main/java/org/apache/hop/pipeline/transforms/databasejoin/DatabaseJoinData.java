@@ -23,6 +23,8 @@ import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
 
 public class DatabaseJoinData extends BaseTransformData implements ITransformData {
   public Database db;
@@ -35,6 +37,21 @@ public class DatabaseJoinData extends BaseTransformData implements ITransformDat
   public Object[] notfound; // Values in case nothing is found...
   public boolean isCanceled;
 
+  /** The rows waiting for a batched query, null if every row is queried by itself */
+  public List<Object[]> batchRows;
+
+  /** The number of rows queried at once */
+  int batchSize;
+
+  /** The query of a single row, the batched queries are built from it */
+  String batchBaseSql;
+
+  /** The queries combining the queries of a batch of rows, by number of rows */
+  public Map<Integer, PreparedStatement> batchStatements;
+
+  /** The parameters of the batched queries, by number of rows */
+  Map<Integer, IRowMeta> batchParameterMetas;
+
   public DatabaseJoinData() {
     super();
 
@@ -36,6 +36,7 @@ import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.MetaSelectionLine;
 import org.apache.hop.ui.core.widget.StyledTextComp;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.*;
@@ -62,6 +63,8 @@ public class DatabaseJoinDialog extends BaseTransformDialog implements ITransfor
 
   private Button wUseVars;
 
+  private TextVar wBatchSize;
+
   private final DatabaseJoinMeta input;
 
   private Label wlPosition;
@@ -262,6 +265,26 @@ public class DatabaseJoinDialog extends BaseTransformDialog implements ITransfor
           }
         });
 
+    // Query the parameters of many rows at once
+    Label wlBatchSize = new Label(shell, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DatabaseJoinDialog.BatchSize.Label"));
+    wlBatchSize.setToolTipText(BaseMessages.getString(PKG, "DatabaseJoinDialog.BatchSize.Tooltip"));
+    props.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    fdlBatchSize.top = new FormAttachment(wUseVars, margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wBatchSize);
+    wBatchSize.setToolTipText(wlBatchSize.getToolTipText());
+    wBatchSize.addModifyListener(lsMod);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    fdBatchSize.top = new FormAttachment(wUseVars, margin);
+    wBatchSize.setLayoutData(fdBatchSize);
+
     // THE BUTTONS
     wOk = new Button(shell, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -278,7 +301,7 @@ public class DatabaseJoinDialog extends BaseTransformDialog implements ITransfor
     props.setLook(wlParam);
     FormData fdlParam = new FormData();
     fdlParam.left = new FormAttachment(0, 0);
-    fdlParam.top = new FormAttachment(wUseVars, margin);
+    fdlParam.top = new FormAttachment(wBatchSize, margin);
     wlParam.setLayoutData(fdlParam);
 
     int nrKeyCols = 2;
@@ -382,6 +405,7 @@ public class DatabaseJoinDialog extends BaseTransformDialog implements ITransfor
     wLimit.setText("" + input.getRowLimit());
     wOuter.setSelection(input.isOuterJoin());
     wUseVars.setSelection(input.isReplaceVariables());
+    wBatchSize.setText(Const.NVL(input.getBatchSize(), ""));
     if (input.getParameters() != null) {
       int i = 0;
       for (ParameterField field : input.getParameters()) {
@@ -418,6 +442,7 @@ public class DatabaseJoinDialog extends BaseTransformDialog implements ITransfor
     input.setSql(wSql.getText());
     input.setOuterJoin(wOuter.getSelection());
     input.setReplaceVariables(wUseVars.getSelection());
+    input.setBatchSize(wBatchSize.getText());
     logDebug(
         BaseMessages.getString(PKG, "DatabaseJoinDialog.Log.ParametersFound")
             + nrparam
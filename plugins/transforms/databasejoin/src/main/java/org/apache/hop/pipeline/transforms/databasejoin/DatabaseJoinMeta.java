@@ -94,6 +94,15 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
       injectionKeyDescription = "DatabaseJoinMeta.Injection.ReplaceVariables")
   private boolean replaceVariables;
 
+  /**
+   * Query the parameters of this many rows at once, 0 or 1 to query row by row. Variables are
+   * resolved.
+   */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKeyDescription = "DatabaseJoinMeta.Injection.BatchSize")
+  private String batchSize;
+
   public DatabaseJoinMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -106,6 +115,7 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
     this.rowLimit = clone.rowLimit;
     this.outerJoin = clone.outerJoin;
     this.replaceVariables = clone.replaceVariables;
+    this.batchSize = clone.batchSize;
     for (ParameterField field : clone.parameters) {
       parameters.add(new ParameterField(field));
     }
@@ -149,6 +159,16 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
     this.rowLimit = rowLimit;
   }
 
+  /** @return Returns the batchSize. */
+  public String getBatchSize() {
+    return batchSize;
+  }
+
+  /** @param batchSize The batchSize to set. */
+  public void setBatchSize(String batchSize) {
+    this.batchSize = batchSize;
+  }
+
   /** @return Returns the sql. */
   public String getSql() {
     return sql;
@@ -170,6 +190,7 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
     sql = "";
     outerJoin = false;
     replaceVariables = false;
+    batchSize = "0";
     parameters = new ArrayList<>();
   }
 
@@ -346,6 +367,24 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
                     transformMeta);
             remarks.add(cr);
           }
+
+          if (Const.toInt(variables.resolve(batchSize), 0) > 1) {
+            if (rowLimit > 0) {
+              cr =
+                  new CheckResult(
+                      ICheckResult.TYPE_RESULT_WARNING,
+                      BaseMessages.getString(PKG, "DatabaseJoinMeta.CheckResult.BatchRowLimit"),
+                      transformMeta);
+              remarks.add(cr);
+            } else if (!DatabaseJoin.canBatch(variables.resolve(sql))) {
+              cr =
+                  new CheckResult(
+                      ICheckResult.TYPE_RESULT_WARNING,
+                      BaseMessages.getString(PKG, "DatabaseJoinMeta.CheckResult.BatchOrderBy"),
+                      transformMeta);
+              remarks.add(cr);
+            }
+          }
         }
 
         // Look up fields in the input stream <prev>
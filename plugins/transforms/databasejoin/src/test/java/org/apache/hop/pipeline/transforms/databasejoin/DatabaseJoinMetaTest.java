@@ -49,7 +49,13 @@ public class DatabaseJoinMetaTest implements IInitializer<DatabaseJoinMeta> {
   public void setUpLoadSave() throws Exception {
     List<String> attributes =
         Arrays.asList(
-            "sql", "rowLimit", "outerJoin", "replaceVariables", "connection", "parameters");
+            "sql",
+            "rowLimit",
+            "outerJoin",
+            "replaceVariables",
+            "connection",
+            "parameters",
+            "batchSize");
 
     Map<String, String> getterMap = new HashMap<>();
     //    getterMap.put("parameters", "getParameters");
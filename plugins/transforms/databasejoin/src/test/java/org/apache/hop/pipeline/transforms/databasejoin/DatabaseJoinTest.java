@@ -17,24 +17,42 @@
 
 package org.apache.hop.pipeline.transforms.databasejoin;
 
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 import static org.powermock.api.mockito.PowerMockito.spy;
 
@@ -128,4 +146,187 @@ public class DatabaseJoinTest {
     verify(mockTransformDataInterface.db, times(0)).cancelStatement(any(PreparedStatement.class));
     assertFalse(mockTransformDataInterface.isCanceled);
   }
+
+  @Test
+  public void testBatchSqlCombinesQueriesOfRows() {
+    String sql = DatabaseJoin.getBatchSql("SELECT name FROM customer WHERE id = ? ; ", 2);
+    assertEquals(
+        "SELECT 0 AS hop_batch_row, q.* FROM (SELECT name FROM customer WHERE id = ?"
+            + Const.CR
+            + ") q"
+            + Const.CR
+            + "UNION ALL"
+            + Const.CR
+            + "SELECT 1 AS hop_batch_row, q.* FROM (SELECT name FROM customer WHERE id = ?"
+            + Const.CR
+            + ") q",
+        sql);
+  }
+
+  @Test
+  public void testQueriesWithOrderByAreNotBatched() {
+    assertTrue(DatabaseJoin.canBatch("SELECT name FROM customer WHERE id = ?"));
+    assertFalse(DatabaseJoin.canBatch("SELECT name FROM customer WHERE id = ? order\n  by name"));
+  }
+
+  private static DatabaseJoinMeta createBatchMeta(String batchSize, int rowLimit)
+      throws HopException {
+    DatabaseJoinMeta meta = spy(new DatabaseJoinMeta());
+    ParameterField parameter = new ParameterField();
+    parameter.setName("id");
+    parameter.setType("Integer");
+    meta.setSql("SELECT name FROM customer WHERE id = ?");
+    meta.setParameters(new ArrayList<>(Collections.singletonList(parameter)));
+    meta.setBatchSize(batchSize);
+    meta.setRowLimit(rowLimit);
+    meta.setOuterJoin(true);
+    doReturn(null).when(meta).getTableFields(any());
+    doAnswer(
+            invocation -> {
+              ((IRowMeta) invocation.getArgument(0)).addValueMeta(new ValueMetaString("name"));
+              return null;
+            })
+        .when(meta)
+        .getFields(any(), any(), any(), any(), any(), any());
+    return meta;
+  }
+
+  /** Run the transform over input rows with the ids 1, 2 and 3, with BATCH_SIZE set to 2 */
+  private static List<Object[]> joinRows(
+      TransformMockHelper<DatabaseJoinMeta, DatabaseJoinData> helper,
+      DatabaseJoinMeta meta,
+      DatabaseJoinData data)
+      throws HopException {
+    DatabaseJoin transform =
+        new DatabaseJoin(helper.transformMeta, meta, data, 0, helper.pipelineMeta, helper.pipeline);
+    transform.setVariable("BATCH_SIZE", "2");
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    IRowSet inputRowSet =
+        helper.getMockInputRowSet(new Object[] {1L}, new Object[] {2L}, new Object[] {3L});
+    when(inputRowSet.getRowMeta()).thenReturn(inputRowMeta);
+    transform.setInputRowSets(Collections.singletonList(inputRowSet));
+
+    List<Object[]> output = new ArrayList<>();
+    transform.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+            output.add(Arrays.copyOf(row, rowMeta.size()));
+          }
+        });
+
+    while (transform.processRow()) {
+      // Process all the rows
+    }
+    return output;
+  }
+
+  private static TransformMockHelper<DatabaseJoinMeta, DatabaseJoinData> createHelper() {
+    TransformMockHelper<DatabaseJoinMeta, DatabaseJoinData> helper =
+        new TransformMockHelper<>("Database Join", DatabaseJoinMeta.class, DatabaseJoinData.class);
+    when(helper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(helper.iLogChannel);
+    when(helper.pipeline.isRunning()).thenReturn(true);
+    return helper;
+  }
+
+  @Test
+  public void testBatchKeepsRowOrderAndOuterJoin() throws Exception {
+    TransformMockHelper<DatabaseJoinMeta, DatabaseJoinData> helper = createHelper();
+    try {
+      DatabaseJoinMeta meta = createBatchMeta("${BATCH_SIZE}", 0);
+
+      // Two batches: rows 1 and 2, then row 3 by itself with a query for a single row
+      DatabaseJoinData data = new DatabaseJoinData();
+      data.db = mock(Database.class);
+      data.pstmt = mock(PreparedStatement.class);
+      PreparedStatement batchStatement = mock(PreparedStatement.class);
+      List<String> batchSqls = new ArrayList<>();
+      when(data.db.prepareSql(anyString()))
+          .thenAnswer(
+              invocation -> {
+                batchSqls.add(invocation.getArgument(0));
+                return batchStatement;
+              });
+      ResultSet resultSet = mock(ResultSet.class);
+      List<Object[]> parameters = new ArrayList<>();
+      when(data.db.openQuery(eq(batchStatement), any(IRowMeta.class), any(Object[].class)))
+          .thenAnswer(
+              invocation -> {
+                IRowMeta parameterMeta = invocation.getArgument(1);
+                Object[] parameterData = invocation.getArgument(2);
+                assertEquals(parameterMeta.size(), parameterData.length);
+                parameters.add(parameterData.clone());
+                return resultSet;
+              });
+      IRowMeta resultMeta = new RowMeta();
+      resultMeta.addValueMeta(new ValueMetaInteger("hop_batch_row"));
+      resultMeta.addValueMeta(new ValueMetaString("name"));
+      when(data.db.getReturnRowMeta()).thenReturn(resultMeta);
+      when(data.db.getRow(resultSet))
+          .thenReturn(
+              new Object[] {1L, "2a"},
+              new Object[] {0L, "1a"},
+              new Object[] {0L, "1b"},
+              new Object[] {1L, "2b"},
+              null,
+              null);
+
+      List<Object[]> output = joinRows(helper, meta, data);
+
+      String sql = "SELECT name FROM customer WHERE id = ?";
+      assertEquals(
+          Arrays.asList(DatabaseJoin.getBatchSql(sql, 2), DatabaseJoin.getBatchSql(sql, 1)),
+          batchSqls);
+      assertEquals(2, parameters.size());
+      assertArrayEquals(new Object[] {1L, 2L}, parameters.get(0));
+      assertArrayEquals(new Object[] {3L}, parameters.get(1));
+
+      assertEquals(5, output.size());
+      assertArrayEquals(new Object[] {1L, "1a"}, output.get(0));
+      assertArrayEquals(new Object[] {1L, "1b"}, output.get(1));
+      assertArrayEquals(new Object[] {2L, "2a"}, output.get(2));
+      assertArrayEquals(new Object[] {2L, "2b"}, output.get(3));
+      assertEquals(3L, output.get(4)[0]);
+      assertNull(output.get(4)[1]);
+    } finally {
+      helper.cleanUp();
+    }
+  }
+
+  @Test
+  public void testRowLimitQueriesRowByRow() throws Exception {
+    TransformMockHelper<DatabaseJoinMeta, DatabaseJoinData> helper = createHelper();
+    try {
+      DatabaseJoinMeta meta = createBatchMeta("2", 1);
+
+      DatabaseJoinData data = new DatabaseJoinData();
+      data.db = mock(Database.class);
+      data.pstmt = mock(PreparedStatement.class);
+      ResultSet resultSet = mock(ResultSet.class);
+      when(data.db.openQuery(eq(data.pstmt), any(IRowMeta.class), any(Object[].class)))
+          .thenReturn(resultSet);
+      IRowMeta resultMeta = new RowMeta();
+      resultMeta.addValueMeta(new ValueMetaString("name"));
+      when(data.db.getReturnRowMeta()).thenReturn(resultMeta);
+      when(data.db.getRow(resultSet))
+          .thenReturn(new Object[] {"1a"}, new Object[] {"2a"}, null);
+
+      List<Object[]> output = joinRows(helper, meta, data);
+
+      verify(data.db, never()).prepareSql(anyString());
+      verify(data.db, times(3)).openQuery(eq(data.pstmt), any(IRowMeta.class), any(Object[].class));
+      assertNull(data.batchRows);
+
+      assertEquals(3, output.size());
+      assertArrayEquals(new Object[] {1L, "1a"}, output.get(0));
+      assertArrayEquals(new Object[] {2L, "2a"}, output.get(1));
+      assertEquals(3L, output.get(2)[0]);
+      assertNull(output.get(2)[1]);
+    } finally {
+      helper.cleanUp();
+    }
+  }
 }
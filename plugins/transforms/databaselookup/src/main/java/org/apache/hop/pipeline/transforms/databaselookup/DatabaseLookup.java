@@ -36,19 +36,43 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.databaselookup.readallcache.CacheSettings;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
 
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /** Looks up values in a database using keys from input streams. */
 public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLookupData> {
 
   private static final Class<?> PKG = DatabaseLookupMeta.class; // For Translator
 
+  public static final IEngineMetric METRIC_CACHE_HITS =
+      new EngineMetric(
+          "cache_hits", "Cache hits", "The number of lookups found in the cache", "110", true);
+  public static final IEngineMetric METRIC_CACHE_MISSES =
+      new EngineMetric(
+          "cache_misses",
+          "Cache misses",
+          "The number of lookups not found in the cache",
+          "111",
+          true);
+  public static final IEngineMetric METRIC_CACHE_EVICTIONS =
+      new EngineMetric(
+          "cache_evictions",
+          "Cache evictions",
+          "The number of rows removed from the cache to stay within its limits",
+          "112",
+          true);
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -68,39 +92,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
    */
   @VisibleForTesting
   synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
-    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
-
-    Object[] lookupRow = new Object[data.lookupMeta.size()];
-    int lookupIndex = 0;
-
-    for (int i = 0; i < meta.getLookup().getKeyFields().size(); i++) {
-      if (data.keynrs[i] >= 0) {
-        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs[i]);
-        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
-        lookupRow[lookupIndex] = row[data.keynrs[i]];
-
-        // Try to convert type if needed
-        if (input.getType() != value.getType()
-            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
-          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
-          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
-        }
-        lookupIndex++;
-      }
-      if (data.keynrs2[i] >= 0) {
-        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs2[i]);
-        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
-        lookupRow[lookupIndex] = row[data.keynrs2[i]];
-
-        // Try to convert type if needed
-        if (input.getType() != value.getType()
-            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
-          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
-          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
-        }
-        lookupIndex++;
-      }
-    }
+    Object[] lookupRow = getLookupRow(inputRowMeta, row);
 
     Object[] add;
     boolean cacheNow = false;
@@ -111,6 +103,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       add = data.cache.getRowFromCache(data.lookupMeta, lookupRow);
       if (add != null) {
         cacheHit = true;
+        data.cacheHits++;
+      } else {
+        data.cacheMisses++;
       }
     } else {
       add = null;
@@ -136,6 +131,84 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
     }
 
+    return addLookupValues(
+        inputRowMeta,
+        row,
+        lookupRow,
+        add,
+        cacheHit,
+        cacheNow,
+        cacheNow ? data.db.getReturnRowMeta() : null);
+  }
+
+  /**
+   * Get the values of an input row to look up, converted to the data types of the table.
+   *
+   * @param inputRowMeta the layout of the input row
+   * @param row the input row
+   * @return the lookup values
+   * @throws HopException if a value can't be converted
+   */
+  private Object[] getLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopException {
+    Object[] lookupRow = new Object[data.lookupMeta.size()];
+    int lookupIndex = 0;
+
+    for (int i = 0; i < meta.getLookup().getKeyFields().size(); i++) {
+      if (data.keynrs[i] >= 0) {
+        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs[i]);
+        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
+        lookupRow[lookupIndex] = row[data.keynrs[i]];
+
+        // Try to convert type if needed
+        if (input.getType() != value.getType()
+            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
+          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
+          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        }
+        lookupIndex++;
+      }
+      if (data.keynrs2[i] >= 0) {
+        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs2[i]);
+        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
+        lookupRow[lookupIndex] = row[data.keynrs2[i]];
+
+        // Try to convert type if needed
+        if (input.getType() != value.getType()
+            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
+          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
+          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        }
+        lookupIndex++;
+      }
+    }
+    return lookupRow;
+  }
+
+  /**
+   * Add the looked up values to an input row, or the default values if nothing was found.
+   *
+   * @param inputRowMeta the layout of the input row
+   * @param row the input row
+   * @param lookupRow the lookup values of the row
+   * @param add the values found or null if nothing was found
+   * @param cacheHit true if the values were found in the cache
+   * @param cacheNow true if the values were looked up in the database
+   * @param returnRowMeta the layout of the values returned by the database
+   * @return the output row or null if the row is not passed on
+   * @throws HopException if the values can't be converted or the row can't be sent to the error
+   *     handling
+   */
+  private Object[] addLookupValues(
+      IRowMeta inputRowMeta,
+      Object[] row,
+      Object[] lookupRow,
+      Object[] add,
+      boolean cacheHit,
+      boolean cacheNow,
+      IRowMeta returnRowMeta)
+      throws HopException {
+    Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
+
     if (add == null) { // nothing was found, unknown code: add default values
       if (meta.getLookup().isEatingRowOnLookupFailure()) {
         return null;
@@ -185,7 +258,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         //
         int[] types = data.returnValueTypes;
         for (int i = 0; i < types.length; i++) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta(i);
+          IValueMeta returned = returnRowMeta.getValueMeta(i);
           IValueMeta expected = data.returnMeta.getValueMeta(i);
 
           if (returned != null && types[i] > 0 && types[i] != returned.getType()) {
@@ -324,6 +397,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batch != null && !flushLookupBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -416,7 +492,13 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        long memoryLimit = Const.toLong(resolve(meta.getCacheMemoryLimit()), -1L);
+        data.cache =
+            DefaultCache.newCache(
+                data,
+                meta.getCacheSize(),
+                memoryLimit > 0 ? memoryLimit * 1024 * 1024 : -1L,
+                !meta.isLoadingAllDataInCache());
       }
 
       determineFieldsTypesQueryingDb();
@@ -441,7 +523,23 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       // If the user selected to load all data into the cache at startup, that's what we do now...
       //
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
-        loadAllTableDataIntoTheCache();
+        if (meta.isCacheShared()) {
+          data.sharedCache =
+              SharedLookupCache.getInstance(
+                  getPipeline().getExtensionDataMap(), getTransformName());
+          data.cache = data.sharedCache.getCache(this::loadAllTableDataIntoTheCache);
+        } else {
+          loadAllTableDataIntoTheCache();
+        }
+      }
+
+      // Look up the keys of many rows with a single query if all conditions are equalities
+      //
+      int batchSize = Const.toInt(resolve(meta.getLookupBatchSize()), 0);
+      if (batchSize > 1
+          && data.allEquals
+          && !(meta.isCached() && meta.isLoadingAllDataInCache())) {
+        initLookupBatch(batchSize);
       }
     }
 
@@ -452,40 +550,252 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     }
 
     try {
+      if (data.batch != null) {
+        return addToLookupBatch(getInputRowMeta(), r);
+      }
+
       // add new lookup values to the row
       Object[] outputRow = lookupValues(getInputRowMeta(), r);
+      putLookupRow(r, outputRow);
+    } catch (HopException e) {
+      return handleLookupError(r, e);
+    }
+
+    return true;
+  }
 
-      if (outputRow != null) {
-        // copy row to output rowset(s)
-        putRow(data.outputRowMeta, outputRow);
+  private void putLookupRow(Object[] row, Object[] outputRow) throws HopException {
+    if (outputRow != null) {
+      // copy row to output rowset(s)
+      putRow(data.outputRowMeta, outputRow);
 
-        if (log.isRowLevel()) {
-          logRowlevel(
-              BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
-                  + getInputRowMeta().getString(r));
-        }
-        if (checkFeedback(getLinesRead())) {
-          logBasic("linenr " + getLinesRead());
-        }
+      if (log.isRowLevel()) {
+        logRowlevel(
+            BaseMessages.getString(PKG, "DatabaseLookup.Log.WroteRowToNextTransform")
+                + getInputRowMeta().getString(row));
       }
-    } catch (HopException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        putError(getInputRowMeta(), r, 1, e.getMessage(), null, "DBLOOKUPD001");
+      if (checkFeedback(getLinesRead())) {
+        logBasic("linenr " + getLinesRead());
+      }
+    }
+  }
+
+  /**
+   * Send a row which couldn't be looked up to the error handling, or stop the transform.
+   *
+   * @return true if the transform can go on with the next row
+   */
+  private boolean handleLookupError(Object[] row, HopException e) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      putError(getInputRowMeta(), row, 1, e.getMessage(), null, "DBLOOKUPD001");
+      return true;
+    }
+    logError(
+        BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
+            + e.getMessage());
+    setErrors(1);
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+    return false;
+  }
+
+  private void initLookupBatch(int batchSize) throws HopException {
+    List<KeyField> keyFields = meta.getLookup().getKeyFields();
+    List<String> batchKeyFields = new ArrayList<>();
+    List<String> nullFields = new ArrayList<>();
+    int[] keyIndexes = new int[keyFields.size()];
+    int nrKeys = 0;
+    int lookupIndex = 0;
+    for (int i = 0; i < keyFields.size(); i++) {
+      KeyField keyField = keyFields.get(i);
+      if ("=".equals(keyField.getCondition())) {
+        batchKeyFields.add(keyField.getTableField());
+        keyIndexes[nrKeys++] = lookupIndex;
       } else {
-        logError(
-            BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
-                + e.getMessage());
-        setErrors(1);
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+        nullFields.add(keyField.getTableField());
+      }
+      if (data.keynrs[i] >= 0) {
+        lookupIndex++;
+      }
+      if (data.keynrs2[i] >= 0) {
+        lookupIndex++;
+      }
+    }
+    if (nrKeys == 0) {
+      // Every row looks up the same row, the cache does a better job
+      return;
+    }
+
+    List<ReturnValue> returnValues = meta.getLookup().getReturnValues();
+    String[] returnFields = new String[returnValues.size()];
+    for (int i = 0; i < returnFields.length; i++) {
+      returnFields[i] = returnValues.get(i).getTableField();
+    }
+
+    DatabaseMeta databaseMeta = data.db.getDatabaseMeta();
+    int maxBatchSize = LookupBatch.getMaxBatchSize(databaseMeta, nrKeys);
+    if (batchSize > maxBatchSize) {
+      logBasic(
+          BaseMessages.getString(
+              PKG, "DatabaseLookup.Log.LookupBatchSizeLimited", batchSize, maxBatchSize));
+      batchSize = maxBatchSize;
+    }
+    String sql =
+        LookupBatch.getSql(
+            databaseMeta,
+            databaseMeta.getQuotedSchemaTableCombination(
+                this, meta.getSchemaName(), meta.getTableName()),
+            batchKeyFields.toArray(new String[0]),
+            nullFields.toArray(new String[0]),
+            returnFields,
+            meta.getLookup().getOrderByClause(),
+            batchSize);
+    if (log.isDetailed()) {
+      logDetailed(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchSql", sql));
+    }
+    data.batchStatement = data.db.prepareSql(sql);
+    data.batch = new LookupBatch(batchSize, data.lookupMeta, Arrays.copyOf(keyIndexes, nrKeys));
+  }
+
+  /**
+   * Add a row to the lookup batch. A row with a cached key is passed on right away when no rows
+   * are waiting, otherwise it waits in line to keep the order of the rows.
+   *
+   * @return true if the transform can go on with the next row
+   */
+  private boolean addToLookupBatch(IRowMeta inputRowMeta, Object[] row) throws HopException {
+    Object[] lookupRow = getLookupRow(inputRowMeta, row);
+
+    Object[] cachedValue = null;
+    if (meta.isCached()) {
+      cachedValue = data.cache.getRowFromCache(data.lookupMeta, lookupRow);
+      if (cachedValue != null) {
+        data.cacheHits++;
+      } else {
+        data.cacheMisses++;
       }
     }
 
+    if (cachedValue != null && data.batch.isEmpty()) {
+      putLookupRow(
+          row, addLookupValues(inputRowMeta, row, lookupRow, cachedValue, true, false, null));
+      return true;
+    }
+    if (data.batch.add(row, lookupRow, cachedValue)) {
+      return flushLookupBatch();
+    }
     return true;
   }
 
-  private void loadAllTableDataIntoTheCache() throws HopException {
+  /**
+   * Look up the keys of the waiting rows and pass the rows on in the order they were read.
+   *
+   * @return true if the transform can go on with the next row
+   */
+  private boolean flushLookupBatch() throws HopException {
+    if (data.batch.isEmpty()) {
+      return true;
+    }
+    try {
+      try {
+        lookUpBatchKeys();
+      } catch (HopException e) {
+        // None of the waiting rows could be looked up
+        for (int i = 0; i < data.batch.size(); i++) {
+          if (!handleLookupError(data.batch.getRow(i), e)) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      for (int i = 0; i < data.batch.size(); i++) {
+        Object[] row = data.batch.getRow(i);
+        try {
+          putLookupRow(row, getBatchLookupValues(i));
+        } catch (HopException e) {
+          if (!handleLookupError(row, e)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    } finally {
+      data.batch.clear();
+    }
+  }
+
+  private synchronized void lookUpBatchKeys() throws HopException {
+    if (!data.batch.hasKeys()) {
+      return;
+    }
+    if (log.isDebug()) {
+      logDebug(
+          BaseMessages.getString(PKG, "DatabaseLookup.Log.LookingUpBatch", data.batch.getNrKeys()));
+    }
+    ResultSet rs =
+        data.db.openQuery(
+            data.batchStatement, data.batch.getParameterMeta(), data.batch.getParameters());
+    try {
+      data.batch.setResultMeta(data.db.getReturnRowMeta());
+      Object[] resultRow = data.db.getRow(rs);
+      while (resultRow != null) {
+        data.batch.addResult(resultRow);
+        resultRow = data.db.getRow(rs);
+      }
+    } finally {
+      data.db.closeQuery(rs);
+    }
+
+    // The database may match strings which aren't equal in Hop, for example with a case
+    // insensitive collation. Look those keys up by themselves, like row by row lookups would.
+    for (Object[] key : data.batch.getKeysToRequery()) {
+      rs =
+          data.db.openQuery(
+              data.batchStatement, data.batch.getParameterMeta(), data.batch.getParameters(key));
+      try {
+        Object[] resultRow = data.db.getRow(rs);
+        while (resultRow != null) {
+          data.batch.addResult(key, resultRow);
+          resultRow = data.db.getRow(rs);
+        }
+      } finally {
+        data.db.closeQuery(rs);
+      }
+    }
+  }
+
+  private Object[] getBatchLookupValues(int index) throws HopException {
+    Object[] row = data.batch.getRow(index);
+    Object[] lookupRow = data.batch.getLookupRow(index);
+    Object[] cachedValue = data.batch.getCachedValue(index);
+    if (cachedValue != null) {
+      return addLookupValues(getInputRowMeta(), row, lookupRow, cachedValue, true, false, null);
+    }
+
+    if (meta.getLookup().isFailingOnMultipleResults()
+        && data.batch.hasMultipleResults(lookupRow)) {
+      throw new HopDatabaseException(
+          BaseMessages.getString(PKG, "DatabaseLookup.Exception.MultipleResults"));
+    }
+    return addLookupValues(
+        getInputRowMeta(),
+        row,
+        lookupRow,
+        data.batch.getResult(lookupRow),
+        false,
+        true,
+        data.batch.getReturnRowMeta());
+  }
+
+  @Override
+  public void batchComplete() throws HopException {
+    if (data.batch != null) {
+      flushLookupBatch();
+    }
+  }
+
+  private DatabaseLookupData.ICache loadAllTableDataIntoTheCache() throws HopException {
     DatabaseMeta dbMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
 
     Database db = getDatabase(dbMeta);
@@ -544,6 +854,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         db.disconnect();
       }
     }
+    return data.cache;
   }
 
   private void putToDefaultCache(Database db, List<Object[]> rows) {
@@ -583,7 +894,10 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   }
 
   private void putToReadOnlyCache(Database db, List<Object[]> rows) {
-    ReadAllCache.Builder cacheBuilder = new ReadAllCache.Builder(data, rows.size());
+    // The cache can be shared with other copies, it gets its own settings
+    //
+    CacheSettings settings = new CacheSettings(data.conditions, data.hasDBCondition);
+    ReadAllCache.Builder cacheBuilder = new ReadAllCache.Builder(settings, rows.size());
 
     // all keys have the same row meta,
     // it is useless to re-create it each time
@@ -614,6 +928,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     if (data.db != null && !data.isCanceled) {
       synchronized (data.db) {
         data.db.cancelQuery();
+        if (data.batchStatement != null) {
+          data.db.cancelStatement(data.batchStatement);
+        }
       }
       data.isCanceled = true;
     }
@@ -673,17 +990,41 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public void dispose() {
 
     if (data.db != null) {
+      if (data.batchStatement != null) {
+        try {
+          data.db.closePreparedStatement(data.batchStatement);
+        } catch (HopDatabaseException e) {
+          logError("Unexpected error closing statement : " + e.toString());
+        }
+      }
       data.db.disconnect();
     }
+    data.batchStatement = null;
+    data.batch = null;
 
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
+    if (data.sharedCache != null) {
+      data.sharedCache.release(getPipeline().getExtensionDataMap());
+      data.sharedCache = null;
+    }
     data.cache = null;
     data.db = null;
 
     super.dispose();
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    if (meta.isCached()) {
+      metrics.put(METRIC_CACHE_HITS, data.cacheHits);
+      metrics.put(METRIC_CACHE_MISSES, data.cacheMisses);
+      metrics.put(METRIC_CACHE_EVICTIONS, data.cacheEvictions);
+    }
+    return metrics;
+  }
+
   /*
    * this method is required in order to
    * provide ability for unit tests to
@@ -23,6 +23,7 @@ import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import java.sql.PreparedStatement;
 import java.util.List;
 
 public class DatabaseLookupData extends BaseTransformData implements ITransformData {
@@ -45,6 +46,20 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
 
+  /** The rows waiting for a batched lookup, null if every row is looked up by itself */
+  public LookupBatch batch;
+
+  /** The query looking up the keys of a batch */
+  public PreparedStatement batchStatement;
+
+  /** The cache loaded once for all copies of the transform, null if not shared */
+  public SharedLookupCache sharedCache;
+
+  // The cache statistics, shown as metrics of the transform
+  public volatile long cacheHits;
+  public volatile long cacheMisses;
+  public volatile long cacheEvictions;
+
   public DatabaseLookupData() {
     super();
 
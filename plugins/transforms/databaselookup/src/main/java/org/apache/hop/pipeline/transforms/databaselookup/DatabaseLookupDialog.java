@@ -69,6 +69,15 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
   private Label wlCachesize;
   private Text wCachesize;
 
+  private Label wlCacheMemoryLimit;
+  private TextVar wCacheMemoryLimit;
+
+  private Label wlCacheShared;
+  private Button wCacheShared;
+
+  private Label wlLookupBatchSize;
+  private TextVar wLookupBatchSize;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -260,6 +269,27 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     fdCachesize.top = new FormAttachment(wCache, margin);
     wCachesize.setLayoutData(fdCachesize);
 
+    // ICache memory limit line
+    wlCacheMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlCacheMemoryLimit.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheMemoryLimit.Label"));
+    wlCacheMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheMemoryLimit.Tooltip"));
+    props.setLook(wlCacheMemoryLimit);
+    FormData fdlCacheMemoryLimit = new FormData();
+    fdlCacheMemoryLimit.left = new FormAttachment(0, 0);
+    fdlCacheMemoryLimit.right = new FormAttachment(middle, -margin);
+    fdlCacheMemoryLimit.top = new FormAttachment(wCachesize, margin);
+    wlCacheMemoryLimit.setLayoutData(fdlCacheMemoryLimit);
+    wCacheMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wCacheMemoryLimit);
+    wCacheMemoryLimit.addModifyListener(lsMod);
+    FormData fdCacheMemoryLimit = new FormData();
+    fdCacheMemoryLimit.left = new FormAttachment(middle, 0);
+    fdCacheMemoryLimit.right = new FormAttachment(100, 0);
+    fdCacheMemoryLimit.top = new FormAttachment(wCachesize, margin);
+    wCacheMemoryLimit.setLayoutData(fdCacheMemoryLimit);
+
     // ICache : Load all?
     wlCacheLoadAll = new Label(shell, SWT.RIGHT);
     wlCacheLoadAll.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheLoadAll.Label"));
@@ -267,7 +297,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
     FormData fdlCacheLoadAll = new FormData();
     fdlCacheLoadAll.left = new FormAttachment(0, 0);
     fdlCacheLoadAll.right = new FormAttachment(middle, -margin);
-    fdlCacheLoadAll.top = new FormAttachment(wCachesize, margin);
+    fdlCacheLoadAll.top = new FormAttachment(wCacheMemoryLimit, margin);
     wlCacheLoadAll.setLayoutData(fdlCacheLoadAll);
     wCacheLoadAll = new Button(shell, SWT.CHECK);
     props.setLook(wCacheLoadAll);
@@ -284,12 +314,58 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
           }
         });
 
+    // ICache : Share between copies?
+    wlCacheShared = new Label(shell, SWT.RIGHT);
+    wlCacheShared.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheShared.Label"));
+    wlCacheShared.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheShared.Tooltip"));
+    props.setLook(wlCacheShared);
+    FormData fdlCacheShared = new FormData();
+    fdlCacheShared.left = new FormAttachment(0, 0);
+    fdlCacheShared.right = new FormAttachment(middle, -margin);
+    fdlCacheShared.top = new FormAttachment(wCacheLoadAll, margin);
+    wlCacheShared.setLayoutData(fdlCacheShared);
+    wCacheShared = new Button(shell, SWT.CHECK);
+    props.setLook(wCacheShared);
+    FormData fdCacheShared = new FormData();
+    fdCacheShared.left = new FormAttachment(middle, 0);
+    fdCacheShared.top = new FormAttachment(wlCacheShared, 0, SWT.CENTER);
+    wCacheShared.setLayoutData(fdCacheShared);
+    wCacheShared.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
+    // Lookup batch size
+    wlLookupBatchSize = new Label(shell, SWT.RIGHT);
+    wlLookupBatchSize.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchSize.Label"));
+    wlLookupBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip"));
+    props.setLook(wlLookupBatchSize);
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment(0, 0);
+    fdlLookupBatchSize.right = new FormAttachment(middle, -margin);
+    fdlLookupBatchSize.top = new FormAttachment(wCacheShared, margin);
+    wlLookupBatchSize.setLayoutData(fdlLookupBatchSize);
+    wLookupBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wLookupBatchSize);
+    wLookupBatchSize.addModifyListener(lsMod);
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment(middle, 0);
+    fdLookupBatchSize.right = new FormAttachment(100, 0);
+    fdLookupBatchSize.top = new FormAttachment(wCacheShared, margin);
+    wLookupBatchSize.setLayoutData(fdLookupBatchSize);
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.Keys.Label"));
     props.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wCacheLoadAll, margin);
+    fdlKey.top = new FormAttachment(wLookupBatchSize, margin);
     wlKey.setLayoutData(fdlKey);
 
     int nrKeyCols = 4;
@@ -592,8 +668,14 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
 
     wCachesize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
     wlCachesize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wCacheMemoryLimit.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    wlCacheMemoryLimit.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
     wCacheLoadAll.setEnabled(wCache.getSelection());
     wlCacheLoadAll.setEnabled(wCache.getSelection());
+    wCacheShared.setEnabled(wCache.getSelection() && wCacheLoadAll.getSelection());
+    wlCacheShared.setEnabled(wCache.getSelection() && wCacheLoadAll.getSelection());
+    wLookupBatchSize.setEnabled(!(wCache.getSelection() && wCacheLoadAll.getSelection()));
+    wlLookupBatchSize.setEnabled(!(wCache.getSelection() && wCacheLoadAll.getSelection()));
     wFailMultiple.setEnabled(!wCache.getSelection());
     wlFailMultiple.setEnabled(!wCache.getSelection());
   }
@@ -604,7 +686,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
 
     wCache.setSelection(input.isCached());
     wCachesize.setText("" + input.getCacheSize());
+    wCacheMemoryLimit.setText(Const.NVL(input.getCacheMemoryLimit(), ""));
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
+    wCacheShared.setSelection(input.isCacheShared());
+    wLookupBatchSize.setText(Const.NVL(input.getLookupBatchSize(), ""));
 
     Lookup lookup = input.getLookup();
 
@@ -667,7 +752,10 @@ public class DatabaseLookupDialog extends BaseTransformDialog implements ITransf
 
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCachesize.getText(), 0));
+    input.setCacheMemoryLimit(wCacheMemoryLimit.getText());
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setCacheShared(wCacheShared.getSelection());
+    input.setLookupBatchSize(wLookupBatchSize.getText());
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
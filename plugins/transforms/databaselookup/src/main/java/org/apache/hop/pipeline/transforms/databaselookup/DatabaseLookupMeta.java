@@ -99,6 +99,24 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** Limit the estimated size of the cache to this many MB, empty for no limit */
+  @HopMetadataProperty(
+      key = "cache_memory_limit",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheMemoryLimit")
+  private String cacheMemoryLimit;
+
+  /** Flag to load all data only once and share the cache between the copies of the transform */
+  @HopMetadataProperty(
+      key = "cache_shared",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheShared")
+  private boolean cacheShared;
+
+  /** Look up the keys of this many rows with a single query, empty or 1 to look up row by row */
+  @HopMetadataProperty(
+      key = "lookup_batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.LookupBatchSize")
+  private String lookupBatchSize;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
@@ -110,6 +128,9 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.cacheMemoryLimit = m.cacheMemoryLimit;
+    this.cacheShared = m.cacheShared;
+    this.lookupBatchSize = m.lookupBatchSize;
     this.lookup = new Lookup(m.lookup);
   }
 
@@ -267,6 +288,27 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
           }
         }
 
+        // A batch of keys has to fit in a single query
+        int batchSize = Const.toInt(variables.resolve(lookupBatchSize), 0);
+        int nrKeyFields = 0;
+        for (KeyField keyField : keyFields) {
+          if ("=".equals(keyField.getCondition())) {
+            nrKeyFields++;
+          }
+        }
+        if (batchSize > 1 && nrKeyFields > 0) {
+          int maxBatchSize = LookupBatch.getMaxBatchSize(databaseMeta, nrKeyFields);
+          if (batchSize > maxBatchSize) {
+            cr =
+                new CheckResult(
+                    ICheckResult.TYPE_RESULT_WARNING,
+                    BaseMessages.getString(
+                        PKG, "DatabaseLookupMeta.Check.LookupBatchSizeTooLarge", maxBatchSize),
+                    transformMeta);
+            remarks.add(cr);
+          }
+        }
+
         // Look up fields in the input stream <prev>
         if (prev != null && prev.size() > 0) {
           boolean first = true;
@@ -558,6 +600,54 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * Gets cacheMemoryLimit
+   *
+   * @return value of cacheMemoryLimit
+   */
+  public String getCacheMemoryLimit() {
+    return cacheMemoryLimit;
+  }
+
+  /**
+   * @param cacheMemoryLimit The cacheMemoryLimit to set
+   */
+  public void setCacheMemoryLimit(String cacheMemoryLimit) {
+    this.cacheMemoryLimit = cacheMemoryLimit;
+  }
+
+  /**
+   * Gets cacheShared
+   *
+   * @return value of cacheShared
+   */
+  public boolean isCacheShared() {
+    return cacheShared;
+  }
+
+  /**
+   * @param cacheShared The cacheShared to set
+   */
+  public void setCacheShared(boolean cacheShared) {
+    this.cacheShared = cacheShared;
+  }
+
+  /**
+   * Gets lookupBatchSize
+   *
+   * @return value of lookupBatchSize
+   */
+  public String getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize The lookupBatchSize to set
+   */
+  public void setLookupBatchSize(String lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /**
    * Gets lookup
    *
@@ -18,31 +18,69 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import org.apache.hop.core.RowMetaAndData;
-import org.apache.hop.core.TimedRow;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.memory.RowSizeEstimator;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-/** Old code, copied from {@linkplain DatabaseLookup} */
+/**
+ * The cache of rows looked up by keys. While looking up, the least recently used rows are evicted
+ * once the cache holds more rows than the cache size or once the estimated size of the rows goes
+ * over the memory limit. When all rows of the table are loaded nothing is evicted and the rows keep
+ * the order of the table.
+ */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
+  /** The estimated size of a map entry and of the key object, on top of the key and the value */
+  static final long ENTRY_OVERHEAD = 128L;
+
   public static DefaultCache newCache(DatabaseLookupData data, int cacheSize) {
+    return newCache(data, cacheSize, -1L, true);
+  }
+
+  /**
+   * @param data the data of the transform
+   * @param cacheSize the maximum number of rows, 0 for no maximum
+   * @param memoryLimit the maximum estimated size of the rows in bytes, -1 for no limit
+   * @param evicting true to evict the least recently used rows, false when all rows of the table
+   *     are loaded
+   * @return the new cache
+   */
+  public static DefaultCache newCache(
+      DatabaseLookupData data, int cacheSize, long memoryLimit, boolean evicting) {
+    int capacity;
     if (cacheSize > 0) {
-      cacheSize = (int) (cacheSize * 1.5);
+      capacity = (int) Math.min(cacheSize * 1.5, Integer.MAX_VALUE);
     } else {
-      cacheSize = 16;
+      capacity = 16;
     }
-    return new DefaultCache(data, cacheSize);
+    if (!evicting) {
+      return new DefaultCache(data, capacity, 0, -1L, false);
+    }
+    return new DefaultCache(data, capacity, cacheSize, memoryLimit, true);
   }
 
   private final DatabaseLookupData data;
-  private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final LinkedHashMap<RowMetaAndData, Object[]> map;
+  private final int maxRows;
+  private final long memoryLimit;
+  private final boolean evicting;
+
+  /** The estimated size of the rows in the cache, only kept when evicting */
+  private long memoryUsed;
 
-  DefaultCache(DatabaseLookupData data, int capacity) {
+  DefaultCache(
+      DatabaseLookupData data, int capacity, int maxRows, long memoryLimit, boolean evicting) {
     this.data = data;
-    map = new LinkedHashMap<>(capacity);
+    this.maxRows = maxRows;
+    this.memoryLimit = memoryLimit;
+    this.evicting = evicting;
+    // When evicting, a lookup moves the row to the end: the eldest row is the least recently used
+    map = new LinkedHashMap<>(capacity, 0.75f, evicting);
   }
 
   @Override
@@ -50,136 +88,124 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     if (data.allEquals) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
       // results
-      TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
-      if (timedRow != null) {
-        return timedRow.getRow();
+      return map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
+    }
+
+    // special handling of conditions <,>, <> etc.
+    // The transform only stores rows when all conditions are "=", this is a plain scan
+    //
+    if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
+      for (Map.Entry<RowMetaAndData, Object[]> entry : map.entrySet()) {
+        if (matches(lookupMeta, lookupRow, entry.getKey())) {
+          return entry.getValue();
+        }
       }
-    } else { // special handling of conditions <,>, <> etc.
-      if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
-        // TODO: find an alternative way to look up the data based on the condition.
-        // Not all conditions are "=" so we are going to have to evaluate row by row
-        // A sorted list or index might be a good solution here...
-        //
-        for (RowMetaAndData key : map.keySet()) {
-          // Now verify that the key is matching our conditions...
-          //
-          boolean match = true;
-          int lookupIndex = 0;
-          for (int i = 0; i < data.conditions.length && match; i++) {
-            IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
-            Object cmpData = lookupRow[lookupIndex];
-            IValueMeta keyMeta = key.getValueMeta(i);
-            Object keyData = key.getData()[i];
-
-            switch (data.conditions[i]) {
-              case DatabaseLookupMeta.CONDITION_EQ:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) == 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_NE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) != 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) > 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_LE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) >= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GT:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) < 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_GE:
-                match = (cmpMeta.compare(cmpData, keyMeta, keyData) <= 0);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NULL:
-                match = keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
-                match = !keyMeta.isNull(keyData);
-                break;
-              case DatabaseLookupMeta.CONDITION_BETWEEN:
-                // Between key >= cmp && key <= cmp2
-                IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
-                Object cmpData2 = lookupRow[lookupIndex + 1];
-                match = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
-                if (match) {
-                  match = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
-                }
-                lookupIndex++;
-                break;
-                // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
-              default:
-                match = false;
-                data.hasDBCondition =
-                    true; // avoid looping in here the next time, also safety when a new condition
-                // will be introduced
-                break;
-            }
-            lookupIndex++;
-          }
+    }
+    return null;
+  }
+
+  private boolean matches(IRowMeta lookupMeta, Object[] lookupRow, RowMetaAndData key)
+      throws HopException {
+    // Now verify that the key is matching our conditions...
+    //
+    boolean match = true;
+    int lookupIndex = 0;
+    for (int i = 0; i < data.conditions.length && match; i++) {
+      IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
+      Object cmpData = lookupRow[lookupIndex];
+      IValueMeta keyMeta = key.getValueMeta(i);
+      Object keyData = key.getData()[i];
+
+      switch (data.conditions[i]) {
+        case DatabaseLookupMeta.CONDITION_EQ:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) == 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_NE:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) != 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LT:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) > 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_LE:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) >= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GT:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) < 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_GE:
+          match = (cmpMeta.compare(cmpData, keyMeta, keyData) <= 0);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+          match = keyMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          match = !keyMeta.isNull(keyData);
+          break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          // Between key >= cmp && key <= cmp2
+          IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex + 1);
+          Object cmpData2 = lookupRow[lookupIndex + 1];
+          match = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
           if (match) {
-            TimedRow timedRow = map.get(key);
-            if (timedRow != null) {
-              return timedRow.getRow();
-            }
+            match = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
           }
-        }
+          lookupIndex++;
+          break;
+          // TODO: add LIKE operator (think of changing the hasDBCondition logic then)
+        default:
+          match = false;
+          // avoid looping in here the next time, also safety when a new condition
+          // will be introduced
+          data.hasDBCondition = true;
+          break;
       }
+      lookupIndex++;
     }
-    return null;
+    return match;
   }
 
   @Override
   public void storeRowInCache(
       DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
     RowMetaAndData rowMetaAndData = new RowMetaAndData(lookupMeta, lookupRow);
-    //  2009-02-01 XXX: I want to write a test case to prove this point before checking
-    // in.
-    // /* Don't insert a row with a duplicate key into the cache. It doesn't seem
-    // * to serve a useful purpose and can potentially cause the transform to return
-    // * different values over the life of the pipeline (if the source DB rows change)
-    // * Additionally, if using the load all data feature, re-inserting would reverse the order
-    // * specified in the transform.
-    // */
-    map.put(rowMetaAndData, new TimedRow(add));
-
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
-    // 2009-02-01: If you had previously set a cache size and then turned on load all,
-    // this
-    // method would throw out entries if the previous cache size wasn't big enough.
-    if (!meta.isLoadingAllDataInCache()
-        && meta.getCacheSize() > 0
-        && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
-      }
+    Object[] previous = map.put(rowMetaAndData, add);
+    if (!evicting) {
+      return;
+    }
 
-      Collections.sort(samples);
+    memoryUsed += estimateSize(lookupRow, add);
+    if (previous != null) {
+      memoryUsed -= estimateSize(lookupRow, previous);
+    }
 
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
+    // Evict the least recently used rows until the cache fits again
+    //
+    Iterator<Map.Entry<RowMetaAndData, Object[]>> iterator = map.entrySet().iterator();
+    while (iterator.hasNext() && isOverLimit()) {
+      Map.Entry<RowMetaAndData, Object[]> eldest = iterator.next();
+      memoryUsed -= estimateSize(eldest.getKey().getData(), eldest.getValue());
+      iterator.remove();
+      data.cacheEvictions++;
+    }
+  }
 
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
+  private boolean isOverLimit() {
+    return (maxRows > 0 && map.size() > maxRows) || (memoryLimit >= 0 && memoryUsed > memoryLimit);
+  }
 
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
-          }
-        }
-      }
-    }
+  private static long estimateSize(Object[] key, Object[] value) {
+    return ENTRY_OVERHEAD
+        + RowSizeEstimator.estimateRowSize(key)
+        + RowSizeEstimator.estimateRowSize(value);
+  }
+
+  /** @return the number of rows in the cache */
+  public int size() {
+    return map.size();
+  }
+
+  /** @return the estimated size of the rows in the cache in bytes, 0 when nothing is evicted */
+  public long getMemoryUsed() {
+    return memoryUsed;
   }
 }
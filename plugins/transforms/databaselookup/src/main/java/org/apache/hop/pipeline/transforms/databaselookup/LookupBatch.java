@@ -0,0 +1,432 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rows waiting for a batched lookup and the distinct keys to look up for them.
+ *
+ * <p>Instead of a query per row, the keys of many rows are looked up with a single query. A key of
+ * one field is looked up with {@code key IN (?, ?, ...)}, a key of more fields with
+ * {@code (key1 = ? AND key2 = ?) OR ...}. The rows are kept in the order they were read, so they
+ * can be passed on in the same order once the results are in.
+ *
+ * <p>The returned rows are matched to the keys with the comparison of Hop, the database may compare
+ * strings differently: a case insensitive collation or a padded CHAR column returns rows for keys
+ * which aren't equal in Hop. A key without a result which only differs in case or trailing spaces
+ * from a returned key is therefore looked up again by itself, see {@link #getKeysToRequery()}.
+ */
+public class LookupBatch {
+
+  /** Rows with a cached key don't add a key, this limits the number of rows waiting per key */
+  static final int MAX_ROWS_PER_KEY = 10;
+
+  private final int batchSize;
+  private final IRowMeta keyMeta;
+  private final int[] keyIndexes;
+  private final IRowMeta parameterMeta;
+  private final boolean hasStringKey;
+
+  private final List<Object[]> rows = new ArrayList<>();
+  private final List<Object[]> lookupRows = new ArrayList<>();
+  private final List<Object[]> cachedValues = new ArrayList<>();
+  private final Map<RowMetaAndData, Object[]> keys = new LinkedHashMap<>();
+
+  private final Map<RowMetaAndData, Object[]> results = new HashMap<>();
+  private final Set<RowMetaAndData> multipleResults = new HashSet<>();
+  private final Set<RowMetaAndData> looseResultKeys = new HashSet<>();
+  private IRowMeta resultMeta;
+  private IRowMeta returnRowMeta;
+
+  /**
+   * @param batchSize the maximum number of distinct keys looked up with a single query
+   * @param lookupMeta the layout of the lookup rows
+   * @param keyIndexes the indexes of the key fields in the lookup rows
+   */
+  public LookupBatch(int batchSize, IRowMeta lookupMeta, int[] keyIndexes) {
+    this.batchSize = batchSize;
+    this.keyIndexes = keyIndexes;
+
+    // The values of the lookup rows are always converted to normal storage
+    keyMeta = new RowMeta();
+    boolean stringKey = false;
+    for (int keyIndex : keyIndexes) {
+      IValueMeta valueMeta = lookupMeta.getValueMeta(keyIndex).clone();
+      valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      keyMeta.addValueMeta(valueMeta);
+      stringKey |= valueMeta.isString();
+    }
+    hasStringKey = stringKey;
+    parameterMeta = new RowMeta();
+    for (int i = 0; i < batchSize; i++) {
+      for (IValueMeta valueMeta : keyMeta.getValueMetaList()) {
+        parameterMeta.addValueMeta(valueMeta.clone());
+      }
+    }
+  }
+
+  /**
+   * Get the largest batch the database takes in a single query.
+   *
+   * @param databaseMeta the database to look up the keys in
+   * @param nrKeyFields the number of fields in a key
+   * @return the maximum batch size
+   */
+  public static int getMaxBatchSize(DatabaseMeta databaseMeta, int nrKeyFields) {
+    int maxBatchSize = Integer.MAX_VALUE;
+    if (nrKeyFields == 1 && databaseMeta.getMaxInListSize() > 0) {
+      maxBatchSize = databaseMeta.getMaxInListSize();
+    }
+    if (databaseMeta.getMaxQueryParameters() > 0) {
+      maxBatchSize = Math.min(maxBatchSize, databaseMeta.getMaxQueryParameters() / nrKeyFields);
+    }
+    return maxBatchSize;
+  }
+
+  /**
+   * Build the query which looks up a batch of keys.
+   *
+   * @param databaseMeta the database to look up the keys in
+   * @param schemaTable the quoted schema and table name
+   * @param keyFields the fields compared to the keys
+   * @param nullFields the fields which have to be null
+   * @param returnFields the fields to return
+   * @param orderBy the order by clause, empty if the order doesn't matter
+   * @param batchSize the number of keys in the query
+   * @return the query, returning the key fields followed by the return fields
+   */
+  public static String getSql(
+      DatabaseMeta databaseMeta,
+      String schemaTable,
+      String[] keyFields,
+      String[] nullFields,
+      String[] returnFields,
+      String orderBy,
+      int batchSize) {
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < keyFields.length; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(databaseMeta.quoteField(keyFields[i]));
+    }
+    for (String returnField : returnFields) {
+      sql.append(", ").append(databaseMeta.quoteField(returnField));
+    }
+    sql.append(" FROM ").append(schemaTable).append(" WHERE (");
+
+    if (keyFields.length == 1) {
+      sql.append(databaseMeta.quoteField(keyFields[0])).append(" IN (");
+      for (int i = 0; i < batchSize; i++) {
+        sql.append(i > 0 ? ", ?" : "?");
+      }
+      sql.append(')');
+    } else {
+      for (int i = 0; i < batchSize; i++) {
+        sql.append(i > 0 ? " OR (" : "(");
+        for (int k = 0; k < keyFields.length; k++) {
+          if (k > 0) {
+            sql.append(" AND ");
+          }
+          sql.append(databaseMeta.quoteField(keyFields[k])).append(" = ?");
+        }
+        sql.append(')');
+      }
+    }
+    sql.append(')');
+
+    for (String nullField : nullFields) {
+      sql.append(" AND ").append(databaseMeta.quoteField(nullField)).append(" IS NULL");
+    }
+    if (StringUtils.isNotEmpty(orderBy)) {
+      sql.append(" ORDER BY ").append(orderBy);
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Add a row to the batch.
+   *
+   * @param row the row
+   * @param lookupRow the lookup values of the row
+   * @param cachedValue the values found in the cache or null if the key has to be looked up
+   * @return true if the batch is full and has to be looked up
+   * @throws HopValueException if a key value can't be checked for null
+   */
+  public boolean add(Object[] row, Object[] lookupRow, Object[] cachedValue)
+      throws HopValueException {
+    rows.add(row);
+    lookupRows.add(lookupRow);
+    cachedValues.add(cachedValue);
+    if (cachedValue == null) {
+      Object[] key = getKey(lookupRow);
+      if (key != null) {
+        keys.putIfAbsent(new RowMetaAndData(keyMeta, key), key);
+      }
+    }
+    return keys.size() >= batchSize || rows.size() >= batchSize * MAX_ROWS_PER_KEY;
+  }
+
+  /**
+   * @param lookupRow the lookup values of a row
+   * @return the key of the row or null if a key value is null, a null never equals a value
+   */
+  private Object[] getKey(Object[] lookupRow) throws HopValueException {
+    Object[] key = new Object[keyIndexes.length];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      key[i] = lookupRow[keyIndexes[i]];
+      if (keyMeta.getValueMeta(i).isNull(key[i])) {
+        return null;
+      }
+    }
+    return key;
+  }
+
+  /** @return true if there are keys to look up */
+  public boolean hasKeys() {
+    return !keys.isEmpty();
+  }
+
+  /** @return the number of distinct keys to look up */
+  public int getNrKeys() {
+    return keys.size();
+  }
+
+  /** @return the layout of the query parameters */
+  public IRowMeta getParameterMeta() {
+    return parameterMeta;
+  }
+
+  /**
+   * Get the query parameters. When there are fewer keys than the batch size the last key is
+   * repeated, so the same prepared statement can be used for every batch.
+   *
+   * @return the keys to look up
+   */
+  public Object[] getParameters() {
+    Object[] parameters = new Object[parameterMeta.size()];
+    int index = 0;
+    Object[] key = null;
+    for (Object[] value : keys.values()) {
+      key = value;
+      System.arraycopy(key, 0, parameters, index, key.length);
+      index += key.length;
+    }
+    while (key != null && index < parameters.length) {
+      System.arraycopy(key, 0, parameters, index, key.length);
+      index += key.length;
+    }
+    return parameters;
+  }
+
+  /**
+   * Get the query parameters to look up a single key, the key fills the whole batch.
+   *
+   * @param key the key to look up
+   * @return the parameters
+   */
+  public Object[] getParameters(Object[] key) {
+    Object[] parameters = new Object[parameterMeta.size()];
+    for (int index = 0; index < parameters.length; index += key.length) {
+      System.arraycopy(key, 0, parameters, index, key.length);
+    }
+    return parameters;
+  }
+
+  /**
+   * Set the layout of the rows returned by the query.
+   *
+   * @param resultMeta the layout of the key fields followed by the return fields
+   */
+  public void setResultMeta(IRowMeta resultMeta) {
+    this.resultMeta = resultMeta;
+    returnRowMeta = new RowMeta();
+    for (int i = keyMeta.size(); i < resultMeta.size(); i++) {
+      returnRowMeta.addValueMeta(resultMeta.getValueMeta(i));
+    }
+  }
+
+  /**
+   * Add a row returned by the query. Only the first row of a key is kept.
+   *
+   * @param resultRow the key fields followed by the return fields
+   * @throws HopValueException if the key can't be converted to the type of the lookup key
+   */
+  public void addResult(Object[] resultRow) throws HopValueException {
+    Object[] key = new Object[keyMeta.size()];
+    for (int i = 0; i < key.length; i++) {
+      IValueMeta keyValueMeta = keyMeta.getValueMeta(i);
+      IValueMeta resultValueMeta = resultMeta.getValueMeta(i);
+      key[i] =
+          keyValueMeta.getType() == resultValueMeta.getType()
+              ? resultRow[i]
+              : keyValueMeta.convertData(resultValueMeta, resultRow[i]);
+    }
+    if (hasStringKey) {
+      looseResultKeys.add(new RowMetaAndData(keyMeta, getLooseKey(key)));
+    }
+    addResult(key, resultRow);
+  }
+
+  /**
+   * Add a row returned for a key which was looked up by itself. Only the first row is kept.
+   *
+   * @param key the key looked up
+   * @param resultRow the key fields followed by the return fields
+   */
+  public void addResult(Object[] key, Object[] resultRow) {
+    RowMetaAndData resultKey = new RowMetaAndData(keyMeta, key);
+    if (results.containsKey(resultKey)) {
+      multipleResults.add(resultKey);
+    } else {
+      results.put(resultKey, Arrays.copyOfRange(resultRow, key.length, resultMeta.size()));
+    }
+  }
+
+  /**
+   * Get the keys without a result which the database could still match with a different string
+   * comparison: keys equal to a returned key when ignoring case and trailing spaces.
+   *
+   * @return the keys to look up again by themselves
+   */
+  public List<Object[]> getKeysToRequery() {
+    List<Object[]> requery = new ArrayList<>();
+    if (looseResultKeys.isEmpty()) {
+      return requery;
+    }
+    for (Map.Entry<RowMetaAndData, Object[]> entry : keys.entrySet()) {
+      Object[] key = entry.getValue();
+      if (!results.containsKey(entry.getKey())
+          && looseResultKeys.contains(new RowMetaAndData(keyMeta, getLooseKey(key)))) {
+        requery.add(key);
+      }
+    }
+    return requery;
+  }
+
+  /** @return the key with its strings in lower case and without trailing spaces */
+  private Object[] getLooseKey(Object[] key) {
+    Object[] looseKey = new Object[key.length];
+    for (int i = 0; i < key.length; i++) {
+      if (key[i] instanceof String) {
+        String value = Const.rtrim((String) key[i]);
+        StringBuilder lowerCase = new StringBuilder(value.length());
+        for (int c = 0; c < value.length(); c++) {
+          // Case folding per character, independent of the default locale
+          lowerCase.append(Character.toLowerCase(Character.toUpperCase(value.charAt(c))));
+        }
+        looseKey[i] = lowerCase.toString();
+      } else {
+        looseKey[i] = key[i];
+      }
+    }
+    return looseKey;
+  }
+
+  /**
+   * @param lookupRow the lookup values of a row
+   * @return a copy of the values found for the row or null if nothing was found
+   * @throws HopValueException if a key value can't be checked for null
+   */
+  public Object[] getResult(Object[] lookupRow) throws HopValueException {
+    Object[] key = getKey(lookupRow);
+    if (key == null) {
+      return null;
+    }
+    Object[] result = results.get(new RowMetaAndData(keyMeta, key));
+    return result == null ? null : result.clone();
+  }
+
+  /**
+   * @param lookupRow the lookup values of a row
+   * @return true if the query returned more than one row for the key of the row
+   * @throws HopValueException if a key value can't be checked for null
+   */
+  public boolean hasMultipleResults(Object[] lookupRow) throws HopValueException {
+    Object[] key = getKey(lookupRow);
+    return key != null && multipleResults.contains(new RowMetaAndData(keyMeta, key));
+  }
+
+  /** @return the layout of the returned values, without the key fields */
+  public IRowMeta getReturnRowMeta() {
+    return returnRowMeta;
+  }
+
+  /** @return the number of waiting rows */
+  public int size() {
+    return rows.size();
+  }
+
+  /** @return true if no rows are waiting */
+  public boolean isEmpty() {
+    return rows.isEmpty();
+  }
+
+  /**
+   * @param index the index of a waiting row
+   * @return the row
+   */
+  public Object[] getRow(int index) {
+    return rows.get(index);
+  }
+
+  /**
+   * @param index the index of a waiting row
+   * @return the lookup values of the row
+   */
+  public Object[] getLookupRow(int index) {
+    return lookupRows.get(index);
+  }
+
+  /**
+   * @param index the index of a waiting row
+   * @return the values found in the cache or null if the key was looked up in the database
+   */
+  public Object[] getCachedValue(int index) {
+    return cachedValues.get(index);
+  }
+
+  /** Remove the waiting rows, keys and results, ready for the next batch. */
+  public void clear() {
+    rows.clear();
+    lookupRows.clear();
+    cachedValues.clear();
+    keys.clear();
+    results.clear();
+    multipleResults.clear();
+    looseResultKeys.clear();
+  }
+}
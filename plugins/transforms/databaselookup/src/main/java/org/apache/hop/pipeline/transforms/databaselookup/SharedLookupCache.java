@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.hop.core.exception.HopException;
+
+import java.util.Map;
+
+/**
+ * The cache of a Database Lookup transform which loads all data, loaded once for all copies of the
+ * transform. The first copy which needs the cache reads the table, the other copies wait for it and
+ * then use the same cache. Once loaded, the cache doesn't change and is looked up without locking.
+ */
+public class SharedLookupCache {
+
+  private static final String EXTENSION_DATA_KEY_PREFIX = "DatabaseLookup.SharedLookupCache.";
+
+  /** Loads all data of the lookup table */
+  public interface ICacheLoader {
+    DatabaseLookupData.ICache load() throws HopException;
+  }
+
+  private final String extensionDataKey;
+
+  /** The number of copies using this cache, guarded by the extension data map */
+  private int references;
+
+  private DatabaseLookupData.ICache cache;
+
+  private SharedLookupCache(String extensionDataKey) {
+    this.extensionDataKey = extensionDataKey;
+  }
+
+  /**
+   * Get the cache of a transform, the first copy creates it.
+   *
+   * @param extensionDataMap the extension data of the pipeline, shared by all copies
+   * @param transformName the name of the transform
+   * @return the cache to use, call {@link #release(Map)} when done
+   */
+  static SharedLookupCache getInstance(Map<String, Object> extensionDataMap, String transformName) {
+    String key = EXTENSION_DATA_KEY_PREFIX + transformName;
+    synchronized (extensionDataMap) {
+      SharedLookupCache sharedCache = (SharedLookupCache) extensionDataMap.get(key);
+      if (sharedCache == null) {
+        sharedCache = new SharedLookupCache(key);
+        extensionDataMap.put(key, sharedCache);
+      }
+      sharedCache.references++;
+      return sharedCache;
+    }
+  }
+
+  /**
+   * Get the loaded cache. The first copy loads it, the others wait until it's loaded. When loading
+   * fails the next copy tries again.
+   *
+   * @param loader loads all data of the lookup table
+   * @return the loaded cache
+   * @throws HopException if the data can't be loaded
+   */
+  synchronized DatabaseLookupData.ICache getCache(ICacheLoader loader) throws HopException {
+    if (cache == null) {
+      cache = loader.load();
+    }
+    return cache;
+  }
+
+  /**
+   * Stop using the cache. Once all copies are done the cache is removed.
+   *
+   * @param extensionDataMap the extension data of the pipeline
+   */
+  void release(Map<String, Object> extensionDataMap) {
+    synchronized (extensionDataMap) {
+      references--;
+      if (references > 0) {
+        return;
+      }
+      extensionDataMap.remove(extensionDataKey);
+    }
+    synchronized (this) {
+      cache = null;
+    }
+  }
+}
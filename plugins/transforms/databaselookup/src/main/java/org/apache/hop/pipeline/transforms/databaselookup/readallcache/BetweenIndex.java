@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+import org.apache.hop.core.row.IValueMeta;
+
+/** The values between two lookup values, both included. */
+class BetweenIndex extends Index {
+
+  BetweenIndex(int column, IValueMeta valueMeta, int rowsAmount) {
+    super(column, valueMeta, rowsAmount);
+  }
+
+  @Override
+  boolean findRange(Object lookupValue, Object lookupValue2, int[] range) {
+    range[0] = findInsertionPointOf(new IndexedValue(lookupValue, -1));
+    // an upper bound below the lower bound matches nothing
+    range[1] =
+        Math.max(range[0], findInsertionPointOf(new IndexedValue(lookupValue2, Integer.MAX_VALUE)));
+    return true;
+  }
+
+  @Override
+  int getRestrictionPower() {
+    // a range is narrower than a single "<" or ">"
+    return -2000;
+  }
+}
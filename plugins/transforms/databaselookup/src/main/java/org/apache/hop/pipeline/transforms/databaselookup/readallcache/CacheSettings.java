@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+/**
+ * The settings of a {@link ReadAllCache}, taken from the copy of the transform which loads it. The
+ * cache can be shared by several copies, it doesn't keep a reference to the data of any of them.
+ */
+public class CacheSettings {
+
+  /** The condition of every key, see {@code DatabaseLookupMeta.CONDITION_*} */
+  private final int[] conditions;
+
+  /** True if a condition can only be evaluated by the database, e.g. LIKE */
+  private volatile boolean hasDBCondition;
+
+  public CacheSettings(int[] conditions, boolean hasDBCondition) {
+    this.conditions = conditions.clone();
+    this.hasDBCondition = hasDBCondition;
+  }
+
+  public int[] getConditions() {
+    return conditions.clone();
+  }
+
+  int getCondition(int index) {
+    return conditions[index];
+  }
+
+  public boolean hasDBCondition() {
+    return hasDBCondition;
+  }
+
+  void setHasDBCondition(boolean hasDBCondition) {
+    this.hasDBCondition = hasDBCondition;
+  }
+}
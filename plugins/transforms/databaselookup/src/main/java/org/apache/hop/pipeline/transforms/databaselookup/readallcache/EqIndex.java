@@ -17,11 +17,8 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
-import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.BitSet;
-
 class EqIndex extends Index {
 
   static Index nonEqualityIndex(int column, IValueMeta valueMeta, int rowsAmount) {
@@ -40,28 +37,10 @@ class EqIndex extends Index {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
-      throws HopException {
-    int firstValue = findInsertionPointOf(new IndexedValue(lookupValue, -1));
-    final int length = values.length;
-    if (firstValue == length || valueMeta.compare(values[firstValue].key, lookupValue) != 0) {
-      // nothing was found
-      if (isMatchingNonEquality) {
-        // everything is acceptable, just do nothing
-        return;
-      }
-      context.setEmpty();
-    } else {
-      BitSet bitSet = context.getWorkingSet();
-      bitSet.set(values[firstValue].row, true);
-      int lastValue = firstValue + 1;
-      while (lastValue != length && valueMeta.compare(values[lastValue].key, lookupValue) == 0) {
-        bitSet.set(values[lastValue].row, true);
-        lastValue++;
-      }
-
-      context.intersect(bitSet, isMatchingNonEquality);
-    }
+  boolean findRange(Object lookupValue, Object lookupValue2, int[] range) {
+    range[0] = findInsertionPointOf(new IndexedValue(lookupValue, -1));
+    range[1] = findInsertionPointOf(new IndexedValue(lookupValue, Integer.MAX_VALUE));
+    return !isMatchingNonEquality;
   }
 
   @Override
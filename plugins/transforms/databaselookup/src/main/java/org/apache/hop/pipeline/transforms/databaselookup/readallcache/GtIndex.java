@@ -19,8 +19,6 @@ package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.BitSet;
-
 class GtIndex extends Index {
 
   static Index lessOrEqualCache(int column, IValueMeta valueMeta, int rowsAmount) {
@@ -39,35 +37,17 @@ class GtIndex extends Index {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue) {
+  boolean findRange(Object lookupValue, Object lookupValue2, int[] range) {
+    // The values greater than lookupValue come after it
     int firstValue = findInsertionPointOf(new IndexedValue(lookupValue, Integer.MAX_VALUE));
-    final int length = values.length;
-    if (firstValue == length) {
-      // everything is less than lookupValue
-      if (isMatchingLessOrEqual) {
-        // then do nothing
-        return;
-      }
-      context.setEmpty();
+    if (isMatchingLessOrEqual) {
+      range[0] = 0;
+      range[1] = firstValue;
     } else {
-      BitSet bitSet = context.getWorkingSet();
-
-      int start;
-      int end;
-      if (firstValue < length / 2) {
-        start = 0;
-        end = firstValue;
-      } else {
-        start = firstValue;
-        end = length;
-      }
-
-      for (int i = start; i < end; i++) {
-        bitSet.set(values[i].row, true);
-      }
-
-      context.intersect(bitSet, (start == 0) ^ isMatchingLessOrEqual);
+      range[0] = firstValue;
+      range[1] = values.length;
     }
+    return true;
   }
 
   @Override
@@ -22,14 +22,29 @@ import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IValueMeta;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 
+/**
+ * A condition on a key column of the cache. The values of the column are sorted, the values
+ * matching a lookup value are next to each other in the sorted array: the condition matches a range
+ * of it, or everything except a range.
+ */
 abstract class Index {
 
+  /** The number of sorted values per block of {@link #blockFirstRows} */
+  private static final int BLOCK_SIZE = 64;
+
   final int column;
   final IValueMeta valueMeta;
   final IndexedValue[] values;
 
+  /** The position of the value of each row in the sorted values */
+  private int[] positions;
+
+  /** The lowest row number of each block of sorted values */
+  private int[] blockFirstRows;
+
   Index(int column, IValueMeta valueMeta, int rowsAmount) {
     this.column = column;
     this.valueMeta = valueMeta;
@@ -46,6 +61,15 @@ abstract class Index {
     }
     // sort values using meta to compare and row number as seconds dimension
     Arrays.sort(values, createComparator());
+
+    positions = new int[values.length];
+    blockFirstRows = new int[(values.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+    Arrays.fill(blockFirstRows, Integer.MAX_VALUE);
+    for (int i = 0; i < values.length; i++) {
+      int row = values[i].row;
+      positions[row] = i;
+      blockFirstRows[i / BLOCK_SIZE] = Math.min(blockFirstRows[i / BLOCK_SIZE], row);
+    }
   }
 
   /**
@@ -74,9 +98,97 @@ abstract class Index {
     }
   }
 
-  abstract void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
+  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
+      throws HopException {
+    int[] range = new int[2];
+    boolean inRange = findRange(lookupValue, null, range);
+    applyRange(context, range, inRange);
+  }
+
+  /**
+   * Find the sorted values matching the condition.
+   *
+   * @param lookupValue the value to look up
+   * @param lookupValue2 the upper bound of BETWEEN, not used by the other conditions
+   * @param range receives the position of the first value in the range and the position after the
+   *     last one
+   * @return true if the values in the range match, false if all values except those match
+   * @throws HopException if the values can't be compared
+   */
+  abstract boolean findRange(Object lookupValue, Object lookupValue2, int[] range)
       throws HopException;
 
+  /**
+   * Remove the rows which don't match the condition from the candidates.
+   *
+   * @param context the candidates
+   * @param range the range found by {@link #findRange(Object, Object, int[])}
+   * @param inRange true if the values in the range match, false if the others match
+   */
+  void applyRange(SearchingContext context, int[] range, boolean inRange) {
+    int from = range[0];
+    int to = range[1];
+    int length = values.length;
+    if (from == to) {
+      if (inRange) {
+        context.setEmpty();
+      }
+      return;
+    }
+
+    // Mark the rows of the range or the rows outside it, whichever are less
+    //
+    BitSet bitSet = context.getWorkingSet();
+    boolean inverse;
+    if (to - from <= length / 2) {
+      for (int i = from; i < to; i++) {
+        bitSet.set(values[i].row, true);
+      }
+      inverse = !inRange;
+    } else {
+      for (int i = 0; i < from; i++) {
+        bitSet.set(values[i].row, true);
+      }
+      for (int i = to; i < length; i++) {
+        bitSet.set(values[i].row, true);
+      }
+      inverse = inRange;
+    }
+    context.intersect(bitSet, inverse);
+  }
+
+  /**
+   * @param row the number of a row
+   * @param range a range of the sorted values
+   * @return true if the value of the row is in the range
+   */
+  boolean isInRange(int row, int[] range) {
+    int position = positions[row];
+    return position >= range[0] && position < range[1];
+  }
+
+  /**
+   * Find the lowest row number of the sorted values in a range without looking at all of them.
+   *
+   * @param from the position of the first value
+   * @param to the position after the last value
+   * @return the lowest row number or -1 if the range is empty
+   */
+  int findFirstRow(int from, int to) {
+    int first = Integer.MAX_VALUE;
+    int i = from;
+    while (i < to) {
+      if (i % BLOCK_SIZE == 0 && i + BLOCK_SIZE <= to) {
+        first = Math.min(first, blockFirstRows[i / BLOCK_SIZE]);
+        i += BLOCK_SIZE;
+      } else {
+        first = Math.min(first, values[i].row);
+        i++;
+      }
+    }
+    return first == Integer.MAX_VALUE ? -1 : first;
+  }
+
   /**
    * Return the "anti-strength" of the restriction of the index. It is a heuristic weight of the
    * restriction, needed to push more "powerful" filters before less "powerful" to cut as much
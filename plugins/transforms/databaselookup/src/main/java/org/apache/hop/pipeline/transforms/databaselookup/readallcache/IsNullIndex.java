@@ -20,7 +20,6 @@ package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.BitSet;
 import java.util.Comparator;
 
 class IsNullIndex extends Index implements Comparator<Index.IndexedValue> {
@@ -38,34 +37,12 @@ class IsNullIndex extends Index implements Comparator<Index.IndexedValue> {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue)
-      throws HopException {
+  boolean findRange(Object lookupValue, Object lookupValue2, int[] range) {
+    // The matching values come first, the lookup value isn't needed
     int artificialRow = isMatchingNull ? Integer.MAX_VALUE : -1;
-
-    int afterLastValue = findInsertionPointOf(new IndexedValue(null, artificialRow));
-    if (afterLastValue == 0) {
-      // no matching values
-      context.setEmpty();
-    } else {
-      int length = values.length;
-
-      int start;
-      int end;
-      if (afterLastValue < length / 2) {
-        start = 0;
-        end = afterLastValue;
-      } else {
-        start = afterLastValue;
-        end = length;
-      }
-
-      BitSet bitSet = context.getWorkingSet();
-      for (int i = start; i < end; i++) {
-        bitSet.set(values[i].row, true);
-      }
-
-      context.intersect(bitSet, (start != 0));
-    }
+    range[0] = 0;
+    range[1] = findInsertionPointOf(new IndexedValue(null, artificialRow));
+    return true;
   }
 
   @Override
@@ -19,8 +19,6 @@ package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
 import org.apache.hop.core.row.IValueMeta;
 
-import java.util.BitSet;
-
 class LtIndex extends Index {
 
   static Index greaterOrEqualCache(int column, IValueMeta valueMeta, int rowsAmount) {
@@ -40,34 +38,17 @@ class LtIndex extends Index {
   }
 
   @Override
-  void doApply(SearchingContext context, IValueMeta lookupMeta, Object lookupValue) {
+  boolean findRange(Object lookupValue, Object lookupValue2, int[] range) {
+    // The values less than lookupValue come before it
     int firstValue = findInsertionPointOf(new IndexedValue(lookupValue, -1));
-    if (firstValue == 0) {
-      // everything is greater than lookupValue
-      if (isMatchingGreaterOrEqual) {
-        // then do nothing
-        return;
-      }
-      context.setEmpty();
+    if (isMatchingGreaterOrEqual) {
+      range[0] = firstValue;
+      range[1] = values.length;
     } else {
-      BitSet bitSet = context.getWorkingSet();
-
-      int start;
-      int end;
-      if (firstValue < values.length / 2) {
-        start = 0;
-        end = firstValue;
-      } else {
-        start = firstValue;
-        end = values.length;
-      }
-
-      for (int i = start; i < end; i++) {
-        bitSet.set(values[i].row, true);
-      }
-
-      context.intersect(bitSet, (start != 0) ^ isMatchingGreaterOrEqual);
+      range[0] = 0;
+      range[1] = firstValue;
     }
+    return true;
   }
 
   @Override
@@ -19,12 +19,10 @@ package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
 
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
-import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupData;
 import org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookupMeta;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
 import java.util.PriorityQueue;
 
@@ -33,10 +31,16 @@ import java.util.PriorityQueue;
  * org.apache.hop.pipeline.transforms.databaselookup.DatabaseLookup DatabaseLookup} when "Load All
  * Data In ICache" checkbox is selected. Internally, it uses some optimizations to reduce memory
  * consumption.
+ *
+ * <p>Every condition except LIKE is an index on the sorted values of its column, the rows matching
+ * a lookup value are a range of it. A lookup looks for the ranges with binary searches and only
+ * looks at the rows of the narrowest one, or combines all ranges in bit sets when even the
+ * narrowest one is wide. Once read, the cache doesn't change and can be used by several copies of
+ * the transform at once.
  */
 public class ReadAllCache implements DatabaseLookupData.ICache {
 
-  private final DatabaseLookupData transformData;
+  private final CacheSettings settings;
 
   private final Object[][] keys;
   private final IRowMeta keysMeta;
@@ -45,26 +49,41 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
 
   private final Index[] indexes;
 
+  // the position of the lookup value of each index in the lookup row,
+  // BETWEEN takes two lookup values which shifts the positions of the next conditions
+  private final int[] lookupPositions;
+
   // this is an array of pairs (column; condition),
   // such structure was chosen not to introduce separate data-container class
   private final int[][] otherConditions;
 
-  ReadAllCache(
-      DatabaseLookupData transformData, Object[][] keys, IRowMeta keysMeta, Object[][] data) {
-    this.transformData = transformData;
+  ReadAllCache(CacheSettings settings, Object[][] keys, IRowMeta keysMeta, Object[][] data) {
+    this.settings = settings;
     this.keys = keys;
     this.keysMeta = keysMeta;
     this.data = data;
 
-    Object[] pair = createIndexes(transformData, keysMeta, keys);
+    Object[] pair = createIndexes(settings, keysMeta, keys);
     indexes = (Index[]) pair[0];
     otherConditions = (int[][]) pair[1];
+
+    lookupPositions = new int[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      int column = indexes[i].getColumn();
+      int position = column;
+      for (int j = 0; j < column; j++) {
+        if (settings.getCondition(j) == DatabaseLookupMeta.CONDITION_BETWEEN) {
+          position++;
+        }
+      }
+      lookupPositions[i] = position;
+    }
   }
 
   private static Object[] createIndexes(
-      DatabaseLookupData transformData, IRowMeta keysMeta, Object[][] keys) {
+      CacheSettings settings, IRowMeta keysMeta, Object[][] keys) {
     final int rowsAmount = keys.length;
-    final int[] conditions = transformData.conditions;
+    final int[] conditions = settings.getConditions();
 
     // it makes sense to apply restrictions in the specific order, namely, to use those, that can
     // filter more elements
@@ -100,6 +119,9 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
         case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
           index = new IsNullIndex(i, keysMeta.getValueMeta(i), rowsAmount, false);
           break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          index = new BetweenIndex(i, keysMeta.getValueMeta(i), rowsAmount);
+          break;
       }
       if (index == null) {
         otherConditions.add(new int[] {i, condition});
@@ -117,76 +139,105 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
 
   @Override
   public Object[] getRowFromCache(IRowMeta lookupMeta, Object[] lookupRow) throws HopException {
-    if (transformData.hasDBCondition) {
+    if (settings.hasDBCondition()) {
       // actually, there was no sense in executing SELECT from db in this case,
       // should be reported as improvement
       return null;
     }
 
-    SearchingContext context = new SearchingContext();
-    context.init(keys.length);
+    if (otherConditions.length > 0) {
+      // LIKE (or some new operator) is not supported here
+      settings.setHasDBCondition(true);
+      return null;
+    }
+    if (indexes.length == 0) {
+      return (keys.length > 0) ? data[0] : null;
+    }
 
-    for (Index index : indexes) {
-      int column = index.getColumn();
+    // find the matching range of every index, the narrowest one has the fewest candidates
+    int length = keys.length;
+    int[][] ranges = new int[indexes.length][2];
+    boolean[] inRange = new boolean[indexes.length];
+    int narrowest = -1;
+    int narrowestSize = Integer.MAX_VALUE;
+    long bitSetCost = length / 64;
+    for (int i = 0; i < indexes.length; i++) {
+      int position = lookupPositions[i];
       // IS (NOT) NULL operation does not require second argument
       // hence, lookupValue can be absent
-      // basically, the index ignores both meta and value, so we can pass everything there
-      Object lookupValue = (column < lookupRow.length) ? lookupRow[column] : null;
-      index.applyRestrictionsTo(context, lookupMeta.getValueMeta(column), lookupValue);
-      if (context.isEmpty()) {
+      Object lookupValue = (position < lookupRow.length) ? lookupRow[position] : null;
+      Object lookupValue2 = (position + 1 < lookupRow.length) ? lookupRow[position + 1] : null;
+      inRange[i] = indexes[i].findRange(lookupValue, lookupValue2, ranges[i]);
+
+      int rangeSize = ranges[i][1] - ranges[i][0];
+      int matching = inRange[i] ? rangeSize : length - rangeSize;
+      if (matching == 0) {
         // if nothing matches, break the search
         return null;
       }
+      if (inRange[i] && rangeSize < narrowestSize) {
+        narrowest = i;
+        narrowestSize = rangeSize;
+      }
+      bitSetCost += Math.min(rangeSize, length - rangeSize);
     }
 
-    // iterate through all elements survived after filtering stage
-    // and find the first matching
-    BitSet candidates = context.getCandidates();
-    int candidate = candidates.nextSetBit(0);
-    while (candidate != -1) {
-      Object[] dataKeys = keys[candidate];
+    int candidate;
+    if (indexes.length == 1) {
+      candidate = findFirstRow(indexes[0], ranges[0], inRange[0]);
+    } else if (narrowest != -1 && (long) narrowestSize * (indexes.length - 1) <= bitSetCost) {
+      candidate = scanRange(narrowest, ranges, inRange);
+    } else {
+      candidate = intersectRanges(ranges, inRange);
+    }
+    return (candidate == -1) ? null : data[candidate];
+  }
+
+  private static int findFirstRow(Index index, int[] range, boolean inRange) {
+    if (inRange) {
+      return index.findFirstRow(range[0], range[1]);
+    }
+    int before = index.findFirstRow(0, range[0]);
+    int after = index.findFirstRow(range[1], index.values.length);
+    if (before == -1) {
+      return after;
+    }
+    return (after == -1) ? before : Math.min(before, after);
+  }
 
+  /** Check the rows of the narrowest range against the other indexes */
+  private int scanRange(int narrowest, int[][] ranges, boolean[] inRange) {
+    Index.IndexedValue[] values = indexes[narrowest].values;
+    int first = -1;
+    for (int i = ranges[narrowest][0], to = ranges[narrowest][1]; i < to; i++) {
+      int row = values[i].row;
+      if (first != -1 && row > first) {
+        continue;
+      }
       boolean matches = true;
-      int lookupShift = 0;
-      for (int i = 0, len = otherConditions.length; i < len && matches; i++) {
-        int[] columnConditionPair = otherConditions[i];
-
-        final int column = columnConditionPair[0];
-        Object keyData = dataKeys[column];
-        IValueMeta keyMeta = keysMeta.getValueMeta(column);
-
-        int lookupIndex = column + lookupShift;
-        Object cmpData = lookupRow[lookupIndex];
-        IValueMeta cmpMeta = lookupMeta.getValueMeta(lookupIndex);
-
-        int condition = columnConditionPair[1];
-        if (condition == DatabaseLookupMeta.CONDITION_BETWEEN) {
-          // BETWEEN is a special condition demanding two arguments
-          // technically there are no obstacles to implement it,
-          // as it is just a short form of: (a <= b) && (b <= c)
-          // however, let it be so for now
-          matches = (keyMeta.compare(keyData, cmpMeta, cmpData) >= 0);
-          if (matches) {
-            lookupShift++;
-            lookupIndex++;
-            IValueMeta cmpMeta2 = lookupMeta.getValueMeta(lookupIndex);
-            Object cmpData2 = lookupRow[lookupIndex];
-            matches = (keyMeta.compare(keyData, cmpMeta2, cmpData2) <= 0);
-          }
-        } else {
-          // if not BETWEEN, than it is LIKE (or some new operator)
-          // for now, LIKE is not supported here
-          matches = false;
-          transformData.hasDBCondition = true;
+      for (int j = 0; j < indexes.length && matches; j++) {
+        if (j != narrowest) {
+          matches = indexes[j].isInRange(row, ranges[j]) == inRange[j];
         }
       }
       if (matches) {
-        return data[candidate];
-      } else {
-        candidate = candidates.nextSetBit(candidate + 1);
+        first = row;
+      }
+    }
+    return first;
+  }
+
+  /** Intersect the rows of all ranges, in the order of the restriction power of the indexes */
+  private int intersectRanges(int[][] ranges, boolean[] inRange) {
+    SearchingContext context = new SearchingContext();
+    context.init(keys.length);
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i].applyRange(context, ranges[i], inRange[i]);
+      if (context.isEmpty()) {
+        return -1;
       }
     }
-    return null;
+    return context.getCandidates().nextSetBit(0);
   }
 
   @Override
@@ -197,7 +248,7 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
 
   /** Builder class for {@linkplain ReadAllCache}. Note, it does no checks or verifications! */
   public static class Builder {
-    private final DatabaseLookupData transformData;
+    private final CacheSettings settings;
     private final Object[][] keys;
     private final Object[][] data;
 
@@ -205,8 +256,8 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
 
     private int current;
 
-    public Builder(DatabaseLookupData transformData, int amount) {
-      this.transformData = transformData;
+    public Builder(CacheSettings settings, int amount) {
+      this.settings = settings;
       keys = new Object[amount][];
       data = new Object[amount][];
     }
@@ -222,7 +273,7 @@ public class ReadAllCache implements DatabaseLookupData.ICache {
     }
 
     public ReadAllCache build() {
-      return new ReadAllCache(transformData, keys, keysMeta, data);
+      return new ReadAllCache(settings, keys, keysMeta, data);
     }
   }
 }
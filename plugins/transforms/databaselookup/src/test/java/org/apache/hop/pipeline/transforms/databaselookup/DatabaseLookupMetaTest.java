@@ -344,6 +344,12 @@ public class DatabaseLookupMetaTest {
     assertEquals(123, meta.getCacheSize());
     injector.setProperty(meta, "cache_load_all", rows, "loadAll?");
     assertTrue(meta.isLoadingAllDataInCache());
+    injector.setProperty(meta, "cache_memory_limit", rows, "cacheSize");
+    assertEquals("123", meta.getCacheMemoryLimit());
+    injector.setProperty(meta, "cache_shared", rows, "loadAll?");
+    assertTrue(meta.isCacheShared());
+    injector.setProperty(meta, "lookup_batch_size", rows, "cacheSize");
+    assertEquals("123", meta.getLookupBatchSize());
     injector.setProperty(meta, "schema", rows, "schema");
     assertEquals("schema1", meta.getLookup().getSchemaName());
     injector.setProperty(meta, "table", rows, "table");
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.memory.RowSizeEstimator;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DefaultCacheTest {
+
+  private DatabaseLookupData data;
+  private IRowMeta keyMeta;
+  private DatabaseLookupMeta meta;
+
+  @Before
+  public void setUp() {
+    keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("key"));
+
+    data = new DatabaseLookupData();
+    data.allEquals = true;
+    data.lookupMeta = keyMeta;
+    meta = new DatabaseLookupMeta();
+  }
+
+  private void store(DefaultCache cache, long key) {
+    cache.storeRowInCache(meta, keyMeta, new Object[] {key}, new Object[] {-key});
+  }
+
+  private Object[] get(DefaultCache cache, long key) throws HopException {
+    return cache.getRowFromCache(keyMeta, new Object[] {key});
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedRow() throws HopException {
+    DefaultCache cache = DefaultCache.newCache(data, 2, -1L, true);
+    store(cache, 1L);
+    store(cache, 2L);
+
+    // 1 is used after 2, 2 is evicted
+    assertArrayEquals(new Object[] {-1L}, get(cache, 1L));
+    store(cache, 3L);
+
+    assertEquals(2, cache.size());
+    assertEquals(1L, data.cacheEvictions);
+    assertArrayEquals(new Object[] {-1L}, get(cache, 1L));
+    assertNull(get(cache, 2L));
+    assertArrayEquals(new Object[] {-3L}, get(cache, 3L));
+  }
+
+  @Test
+  public void testEvictsOverMemoryLimit() throws HopException {
+    long entrySize =
+        DefaultCache.ENTRY_OVERHEAD
+            + RowSizeEstimator.estimateRowSize(new Object[] {1L})
+            + RowSizeEstimator.estimateRowSize(new Object[] {-1L});
+    DefaultCache cache = DefaultCache.newCache(data, 0, 3 * entrySize, true);
+    for (long key = 1L; key <= 10L; key++) {
+      store(cache, key);
+    }
+
+    assertEquals(3, cache.size());
+    assertEquals(7L, data.cacheEvictions);
+    assertEquals(3 * entrySize, cache.getMemoryUsed());
+    assertNull(get(cache, 7L));
+    assertArrayEquals(new Object[] {-8L}, get(cache, 8L));
+    assertArrayEquals(new Object[] {-10L}, get(cache, 10L));
+  }
+
+  @Test
+  public void testKeepsAllRowsWhenLoadingAll() throws HopException {
+    DefaultCache cache = DefaultCache.newCache(data, 1, 1L, false);
+    for (long key = 1L; key <= 10L; key++) {
+      store(cache, key);
+    }
+
+    assertEquals(10, cache.size());
+    assertEquals(0L, data.cacheEvictions);
+    assertArrayEquals(new Object[] {-1L}, get(cache, 1L));
+  }
+}
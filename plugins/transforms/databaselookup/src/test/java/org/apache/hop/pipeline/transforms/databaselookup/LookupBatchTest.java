@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup;
+
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LookupBatchTest {
+
+  private static IRowMeta createLookupMeta() {
+    IRowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta(new ValueMetaInteger("id"));
+    lookupMeta.addValueMeta(new ValueMetaString("code"));
+    return lookupMeta;
+  }
+
+  private static DatabaseMeta createDatabaseMeta() {
+    DatabaseMeta databaseMeta = mock(DatabaseMeta.class);
+    when(databaseMeta.quoteField(anyString())).thenAnswer(i -> "\"" + i.getArgument(0) + "\"");
+    return databaseMeta;
+  }
+
+  @Test
+  public void testGetSqlSingleKey() {
+    String sql =
+        LookupBatch.getSql(
+            createDatabaseMeta(),
+            "\"table\"",
+            new String[] {"id"},
+            new String[] {"deleted"},
+            new String[] {"name", "amount"},
+            "version DESC",
+            3);
+    assertEquals(
+        "SELECT \"id\", \"name\", \"amount\" FROM \"table\" WHERE (\"id\" IN (?, ?, ?))"
+            + " AND \"deleted\" IS NULL ORDER BY version DESC",
+        sql);
+  }
+
+  @Test
+  public void testGetSqlCompositeKey() {
+    String sql =
+        LookupBatch.getSql(
+            createDatabaseMeta(),
+            "\"table\"",
+            new String[] {"id", "code"},
+            new String[0],
+            new String[] {"name"},
+            null,
+            2);
+    assertEquals(
+        "SELECT \"id\", \"code\", \"name\" FROM \"table\""
+            + " WHERE ((\"id\" = ? AND \"code\" = ?) OR (\"id\" = ? AND \"code\" = ?))",
+        sql);
+  }
+
+  @Test
+  public void testCollectsDistinctKeys() throws HopException {
+    LookupBatch batch = new LookupBatch(2, createLookupMeta(), new int[] {0, 1});
+
+    assertFalse(batch.add(new Object[] {"row1"}, new Object[] {1L, "a"}, null));
+    assertFalse(batch.add(new Object[] {"row2"}, new Object[] {1L, "a"}, null));
+    // Cached and null keys aren't looked up
+    assertFalse(batch.add(new Object[] {"row3"}, new Object[] {2L, "b"}, new Object[] {"x"}));
+    assertFalse(batch.add(new Object[] {"row4"}, new Object[] {null, "b"}, null));
+    assertEquals(1, batch.getNrKeys());
+    assertTrue(batch.add(new Object[] {"row5"}, new Object[] {3L, "c"}, null));
+    assertEquals(5, batch.size());
+
+    // The parameters of the last key are repeated up to the batch size
+    assertEquals(4, batch.getParameterMeta().size());
+    assertArrayEquals(new Object[] {1L, "a", 3L, "c"}, batch.getParameters());
+
+    batch.clear();
+    assertTrue(batch.isEmpty());
+    assertFalse(batch.hasKeys());
+    assertFalse(batch.add(new Object[] {"row6"}, new Object[] {4L, "d"}, null));
+    assertArrayEquals(new Object[] {4L, "d", 4L, "d"}, batch.getParameters());
+  }
+
+  @Test
+  public void testLimitsWaitingRows() throws HopException {
+    LookupBatch batch = new LookupBatch(2, createLookupMeta(), new int[] {0});
+    int maxRows = 2 * LookupBatch.MAX_ROWS_PER_KEY;
+    for (int i = 1; i < maxRows; i++) {
+      assertFalse(batch.add(new Object[] {i}, new Object[] {1L, "a"}, null));
+    }
+    assertTrue(batch.add(new Object[] {maxRows}, new Object[] {1L, "a"}, null));
+  }
+
+  @Test
+  public void testDistributesResults() throws HopException {
+    LookupBatch batch = new LookupBatch(10, createLookupMeta(), new int[] {0});
+    Object[] row1 = new Object[] {"row1"};
+    Object[] cached = new Object[] {"cached"};
+    batch.add(row1, new Object[] {1L, "a"}, null);
+    batch.add(new Object[] {"row2"}, new Object[] {2L, "b"}, cached);
+    batch.add(new Object[] {"row3"}, new Object[] {3L, "c"}, null);
+    batch.add(new Object[] {"row4"}, new Object[] {4L, "d"}, null);
+
+    // The key is returned as a number, the lookup row has an integer
+    IRowMeta resultMeta = new RowMeta();
+    resultMeta.addValueMeta(new ValueMetaNumber("id"));
+    resultMeta.addValueMeta(new ValueMetaString("name"));
+    batch.setResultMeta(resultMeta);
+    batch.addResult(new Object[] {1.0, "one"});
+    batch.addResult(new Object[] {3.0, "three"});
+    batch.addResult(new Object[] {3.0, "three again"});
+
+    assertEquals(1, batch.getReturnRowMeta().size());
+    assertEquals("name", batch.getReturnRowMeta().getValueMeta(0).getName());
+
+    assertSame(row1, batch.getRow(0));
+    assertArrayEquals(new Object[] {"one"}, batch.getResult(batch.getLookupRow(0)));
+    assertFalse(batch.hasMultipleResults(batch.getLookupRow(0)));
+    assertSame(cached, batch.getCachedValue(1));
+    // The first row of a key wins
+    assertArrayEquals(new Object[] {"three"}, batch.getResult(batch.getLookupRow(2)));
+    assertTrue(batch.hasMultipleResults(batch.getLookupRow(2)));
+    assertNull(batch.getResult(batch.getLookupRow(3)));
+    assertNull(batch.getResult(new Object[] {null, "e"}));
+
+    // Every row gets its own copy of the values
+    Object[] result = batch.getResult(batch.getLookupRow(0));
+    result[0] = "changed";
+    assertArrayEquals(new Object[] {"one"}, batch.getResult(batch.getLookupRow(0)));
+  }
+
+  @Test
+  public void testRequeriesKeysWhichOnlyDifferInCase() throws HopException {
+    LookupBatch batch = new LookupBatch(10, createLookupMeta(), new int[] {1});
+    batch.add(new Object[] {"row1"}, new Object[] {1L, "abc"}, null);
+    batch.add(new Object[] {"row2"}, new Object[] {2L, "ABC"}, null);
+    batch.add(new Object[] {"row3"}, new Object[] {3L, "xyz"}, null);
+    batch.add(new Object[] {"row4"}, new Object[] {4L, "pad"}, null);
+
+    // A case insensitive collation returns a single row for abc and ABC, a CHAR column pads
+    IRowMeta resultMeta = new RowMeta();
+    resultMeta.addValueMeta(new ValueMetaString("code"));
+    resultMeta.addValueMeta(new ValueMetaString("name"));
+    batch.setResultMeta(resultMeta);
+    batch.addResult(new Object[] {"abc", "first"});
+    batch.addResult(new Object[] {"pad  ", "padded"});
+
+    List<Object[]> requery = batch.getKeysToRequery();
+    assertEquals(2, requery.size());
+    assertArrayEquals(new Object[] {"ABC"}, requery.get(0));
+    assertArrayEquals(new Object[] {"pad"}, requery.get(1));
+    assertArrayEquals(
+        new Object[] {"ABC", "ABC", "ABC"}, copyOf(batch.getParameters(requery.get(0)), 3));
+
+    batch.addResult(requery.get(0), new Object[] {"abc", "first"});
+    assertArrayEquals(new Object[] {"first"}, batch.getResult(batch.getLookupRow(1)));
+    assertFalse(batch.hasMultipleResults(batch.getLookupRow(1)));
+    // Nothing was returned which could match xyz
+    assertNull(batch.getResult(batch.getLookupRow(2)));
+  }
+
+  private static Object[] copyOf(Object[] values, int length) {
+    return Arrays.copyOf(values, length);
+  }
+
+  @Test
+  public void testMaxBatchSize() {
+    DatabaseMeta oracle = mock(DatabaseMeta.class);
+    when(oracle.getMaxInListSize()).thenReturn(1000);
+    assertEquals(1000, LookupBatch.getMaxBatchSize(oracle, 1));
+    // Composite keys don't use an IN list
+    assertEquals(Integer.MAX_VALUE, LookupBatch.getMaxBatchSize(oracle, 2));
+
+    DatabaseMeta sqlServer = mock(DatabaseMeta.class);
+    when(sqlServer.getMaxQueryParameters()).thenReturn(2100);
+    assertEquals(2100, LookupBatch.getMaxBatchSize(sqlServer, 1));
+    assertEquals(700, LookupBatch.getMaxBatchSize(sqlServer, 3));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.databaselookup.readallcache;
+
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class BetweenIndexTest {
+
+  @Parameterized.Parameters
+  public static List<Object[]> createSampleData() {
+    return IndexTestBase.createSampleData();
+  }
+
+  private final Long[][] rows;
+  private BetweenIndex index;
+
+  public BetweenIndexTest(Long[][] rows) {
+    this.rows = rows;
+  }
+
+  @Before
+  public void setUp() {
+    index = new BetweenIndex(0, new ValueMetaInteger(), 5);
+    index.performIndexingOf(rows);
+  }
+
+  @Test
+  public void lookupFor_Ranges() throws Exception {
+    assertMatches(-1, 100);
+    assertMatches(-1, -1);
+    assertMatches(0, 0);
+    assertMatches(1, 2);
+    assertMatches(2, 2);
+    assertMatches(2, 100);
+    assertMatches(4, 100);
+    // the upper bound is below the lower bound
+    assertMatches(3, 1);
+  }
+
+  private void assertMatches(long from, long to) throws Exception {
+    int[] range = new int[2];
+    assertTrue(index.findRange(from, to, range));
+
+    int expectedFirst = -1;
+    int expectedAmount = 0;
+    for (int i = 0; i < rows.length; i++) {
+      boolean matches = rows[i][0] >= from && rows[i][0] <= to;
+      assertEquals(from + ".." + to + ", row " + i, matches, index.isInRange(i, range));
+      if (matches) {
+        expectedAmount++;
+        if (expectedFirst == -1) {
+          expectedFirst = i;
+        }
+      }
+    }
+    assertEquals(expectedAmount, range[1] - range[0]);
+    assertEquals(expectedFirst, index.findFirstRow(range[0], range[1]));
+
+    SearchingContext context = new SearchingContext();
+    context.init(rows.length);
+    index.applyRange(context, range, true);
+    if (expectedAmount == 0) {
+      assertTrue(context.isEmpty());
+    } else {
+      BitSet candidates = context.getCandidates();
+      assertEquals(expectedAmount, candidates.cardinality());
+      assertEquals(expectedFirst, candidates.nextSetBit(0));
+    }
+  }
+}
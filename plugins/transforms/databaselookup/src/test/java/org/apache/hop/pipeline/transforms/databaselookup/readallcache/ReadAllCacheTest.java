@@ -33,7 +33,9 @@ import java.util.List;
 import java.util.StringTokenizer;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class ReadAllCacheTest {
 
@@ -87,6 +89,26 @@ public class ReadAllCacheTest {
     assertNull(buildCache("").getRowFromCache(keysMeta.clone(), keys[0]));
   }
 
+  @Test
+  public void unsupportedConditionStopsSearching_WithoutChangingTransformData() throws Exception {
+    transformData.conditions = new int[] {DatabaseLookupMeta.CONDITION_LIKE};
+    CacheSettings settings = new CacheSettings(transformData.conditions, false);
+    ReadAllCache.Builder builder = new ReadAllCache.Builder(settings, 1);
+    RowMeta likeMeta = new RowMeta();
+    likeMeta.addValueMeta(new ValueMetaString());
+    builder.setKeysMeta(likeMeta);
+    builder.add(new Object[] {"a"}, new Object[] {"row"});
+    ReadAllCache cache = builder.build();
+
+    // the loading copy may change its conditions, the cache keeps its own
+    transformData.conditions[0] = DatabaseLookupMeta.CONDITION_EQ;
+
+    assertNull(cache.getRowFromCache(likeMeta, new Object[] {"a"}));
+    assertTrue(settings.hasDBCondition());
+    assertFalse(transformData.hasDBCondition);
+    assertArrayEquals(new int[] {DatabaseLookupMeta.CONDITION_LIKE}, settings.getConditions());
+  }
+
   @Test
   public void lookup_Finds_Only() throws Exception {
     ReadAllCache cache = buildCache("=,<,=,IS NULL");
@@ -168,7 +190,10 @@ public class ReadAllCacheTest {
       conditionIndex++;
     }
 
-    ReadAllCache.Builder builder = new ReadAllCache.Builder(transformData, keys.length);
+    ReadAllCache.Builder builder =
+        new ReadAllCache.Builder(
+            new CacheSettings(transformData.conditions, transformData.hasDBCondition),
+            keys.length);
     builder.setKeysMeta(keysMeta);
     for (int i = 0; i < keys.length; i++) {
       Object[] keyTuple = keys[i];
@@ -183,7 +208,8 @@ public class ReadAllCacheTest {
     transformData = new DatabaseLookupData();
     transformData.conditions = new int[] {DatabaseLookupMeta.CONDITION_IS_NOT_NULL};
 
-    ReadAllCache.Builder builder = new ReadAllCache.Builder(transformData, 2);
+    ReadAllCache.Builder builder =
+        new ReadAllCache.Builder(new CacheSettings(transformData.conditions, false), 2);
     RowMeta keysMeta = new RowMeta();
     keysMeta.addValueMeta(new ValueMetaInteger());
     builder.setKeysMeta(keysMeta);
@@ -194,4 +220,63 @@ public class ReadAllCacheTest {
     Object[] found = cache.getRowFromCache(new RowMeta(), new Object[0]);
     assertArrayEquals("(keys[1] == 1L) --> row 2", new Object[] {"one"}, found);
   }
+
+  @Test
+  public void lookup_FindsFirstMatchingRow_InLargeCache() throws Exception {
+    final int amount = 1000;
+    RowMeta keysMeta = new RowMeta();
+    keysMeta.addValueMeta(new ValueMetaInteger());
+    keysMeta.addValueMeta(new ValueMetaInteger());
+
+    // the second key descends, the matching rows aren't in the order of the sorted values
+    Object[][] largeKeys = new Object[amount][];
+    for (int i = 0; i < amount; i++) {
+      largeKeys[i] = new Object[] {(long) (i % 7), (long) (amount - i)};
+    }
+
+    // "=" and ">=": the narrow "=" range is scanned
+    ReadAllCache cache =
+        buildLargeCache(
+            keysMeta, largeKeys, DatabaseLookupMeta.CONDITION_EQ, DatabaseLookupMeta.CONDITION_GE);
+    for (long a = 0; a < 8; a++) {
+      for (long b : new long[] {0L, 10L, 500L, 1000L, 1001L}) {
+        Object[] found = cache.getRowFromCache(keysMeta, new Object[] {a, b});
+        assertArrayEquals(a + ", " + b, expectedRow(largeKeys, a, b, true), found);
+      }
+    }
+
+    // "<>" and "<": no narrow range, the ranges are intersected
+    cache =
+        buildLargeCache(
+            keysMeta, largeKeys, DatabaseLookupMeta.CONDITION_NE, DatabaseLookupMeta.CONDITION_LT);
+    for (long a = 0; a < 8; a++) {
+      for (long b : new long[] {0L, 2L, 500L, 1001L}) {
+        Object[] found = cache.getRowFromCache(keysMeta, new Object[] {a, b});
+        assertArrayEquals(a + ", " + b, expectedRow(largeKeys, a, b, false), found);
+      }
+    }
+  }
+
+  private static ReadAllCache buildLargeCache(
+      RowMeta keysMeta, Object[][] keys, int... conditions) {
+    ReadAllCache.Builder builder =
+        new ReadAllCache.Builder(new CacheSettings(conditions, false), keys.length);
+    builder.setKeysMeta(keysMeta);
+    for (int i = 0; i < keys.length; i++) {
+      builder.add(keys[i], new Object[] {i});
+    }
+    return builder.build();
+  }
+
+  private static Object[] expectedRow(Object[][] keys, long a, long b, boolean eqAndGe) {
+    for (int i = 0; i < keys.length; i++) {
+      long key0 = (Long) keys[i][0];
+      long key1 = (Long) keys[i][1];
+      boolean matches = eqAndGe ? (key0 == a && key1 >= b) : (key0 != a && key1 < b);
+      if (matches) {
+        return new Object[] {i};
+      }
+    }
+    return null;
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.filterrows;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -62,13 +63,29 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
     }
   }
 
+  /**
+   * Evaluate the condition for a whole batch of rows at once. In case of an error we evaluate the
+   * rows one by one to report the row causing it.
+   */
+  private synchronized void keepRows(RowBatch batch, boolean[] keep) throws HopException {
+    try {
+      meta.getCondition().evaluate(batch, keep);
+    } catch (Exception e) {
+      for (int r = 0; r < batch.size(); r++) {
+        keep[r] = keepRow(batch.getRowMeta(), batch.getRow(r));
+      }
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
     boolean keep;
 
-    Object[] r = getRow(); // Get next usable row from input rowset(s)!
-    if (r == null) { // no more input to be expected...
+    // Get next usable rows from input rowset(s), column by column
+    //
+    RowBatch batch = getRowBatch(NR_OF_ROWS_IN_BATCH);
+    if (batch == null) { // no more input to be expected...
 
       setOutputDone();
       return false;
@@ -123,43 +140,60 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
       }
     }
 
-    keep = keepRow(getInputRowMeta(), r); // Keep this row?
-    if (!data.chosesTargetTransforms) {
-      if (keep) {
-        putRow(data.outputRowMeta, r); // copy row to output rowset(s)
-      }
-    } else {
-      if (keep) {
-        if (data.trueRowSet != null) {
-          if (log.isRowLevel()) {
-            logRowlevel(
-                "Sending row to true  :"
-                    + data.trueTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
-          }
-          putRowTo(data.outputRowMeta, r, data.trueRowSet);
+    int nrRows = batch.size();
+    if (data.keep == null || data.keep.length < nrRows) {
+      data.keep = new boolean[nrRows];
+    }
+    keepRows(batch, data.keep); // Keep these rows?
+
+    Object[][] keptRows = new Object[nrRows][];
+    int nrKeptRows = 0;
+    long lineNr = getLinesRead() - nrRows;
+
+    for (int i = 0; i < nrRows; i++) {
+      Object[] r = batch.getRow(i);
+      lineNr++;
+
+      keep = data.keep[i];
+      if (!data.chosesTargetTransforms) {
+        if (keep) {
+          keptRows[nrKeptRows++] = r; // copy row to output rowset(s) with the rest of the batch
         }
       } else {
-        if (data.falseRowSet != null) {
-          if (log.isRowLevel()) {
-            logRowlevel(
-                "Sending row to false :"
-                    + data.falseTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
+        if (keep) {
+          if (data.trueRowSet != null) {
+            if (log.isRowLevel()) {
+              logRowlevel(
+                  "Sending row to true  :"
+                      + data.trueTransformName
+                      + " : "
+                      + getInputRowMeta().getString(r));
+            }
+            putRowTo(data.outputRowMeta, r, data.trueRowSet);
+          }
+        } else {
+          if (data.falseRowSet != null) {
+            if (log.isRowLevel()) {
+              logRowlevel(
+                  "Sending row to false :"
+                      + data.falseTransformName
+                      + " : "
+                      + getInputRowMeta().getString(r));
+            }
+            putRowTo(data.outputRowMeta, r, data.falseRowSet);
           }
-          putRowTo(data.outputRowMeta, r, data.falseRowSet);
         }
       }
-    }
 
-    if (checkFeedback(getLinesRead())) {
-      if (log.isBasic()) {
-        logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+      if (checkFeedback(lineNr)) {
+        if (log.isBasic()) {
+          logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + lineNr);
+        }
       }
     }
 
+    putRows(data.outputRowMeta, keptRows, nrKeptRows);
+
     return true;
   }
 
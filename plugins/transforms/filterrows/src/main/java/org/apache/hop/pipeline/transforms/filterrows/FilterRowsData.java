@@ -31,6 +31,9 @@ public class FilterRowsData extends BaseTransformData implements ITransformData
   public String trueTransformName;
   public String falseTransformName;
 
+  /** The outcome of the condition for the rows of the current batch */
+  public boolean[] keep;
+
   public FilterRowsData() {
     super();
   }
@@ -20,10 +20,14 @@ package org.apache.hop.pipeline.transforms.groupby;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.memory.SpillMemoryManager;
 import org.apache.hop.core.row.*;
 import org.apache.hop.core.row.value.*;
 import org.apache.hop.core.util.Utils;
@@ -34,8 +38,6 @@ import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-import java.io.*;
-import java.net.SocketTimeoutException;
 import java.util.*;
 
 /** Groups data based on aggregation rules. (sum, count, ...) */
@@ -87,6 +89,16 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
         data.inputRowMeta = getPipelineMeta().getPrevTransformFields(this, getTransformMeta());
       }
 
+      if (meta.isPassAllRows()) {
+        data.rowBuffer =
+            new GroupRowBuffer(
+                data.inputRowMeta,
+                resolve(meta.getDirectory()),
+                meta.getPrefix(),
+                data.compressionProvider,
+                data.memoryBudget);
+      }
+
       data.outputRowMeta = data.inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
 
@@ -197,8 +209,8 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
     if (!sameGroup(data.previous, r)) {
       if (meta.isPassAllRows()) {
-        // Not the same group: close output (if any)
-        closeOutput();
+        // Not the same group: finish writing the temp file (if any)
+        data.rowBuffer.finishWriting();
         // Get all rows from the buffer!
         data.groupResult = getAggregateResult();
         Object[] row = getRowFromBuffer();
@@ -223,7 +235,6 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
           putRow(data.outputRowMeta, row);
           row = getRowFromBuffer();
         }
-        closeInput();
       } else {
         Object[] result = buildResult(data.previous);
         if (result != null) {
@@ -272,7 +283,6 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
         putRow(data.outputRowMeta, row);
         row = getRowFromBuffer();
       }
-      closeInput();
     } else {
       // JUST THE GROUP + AGGREGATE
 
@@ -774,29 +784,7 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
   // Method is defined as package-protected in order to be accessible by unit tests
   void addToBuffer(Object[] row) throws HopFileException {
-    data.bufferList.add(row);
-    if (data.bufferList.size() > 5000 && data.rowsOnFile == 0) {
-      String pathToTmp = resolve(getMeta().getDirectory());
-      try {
-        File ioFile = new File(pathToTmp);
-        if (!ioFile.exists()) {
-          // try to resolve as Apache VFS file
-          pathToTmp = retrieveVfsPath(pathToTmp);
-        }
-        data.tempFile = File.createTempFile(getMeta().getPrefix(), ".tmp", new File(pathToTmp));
-        data.fosToTempFile = new FileOutputStream(data.tempFile);
-        data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
-        data.firstRead = true;
-      } catch (IOException e) {
-        throw new HopFileException(
-            BaseMessages.getString(PKG, "GroupBy.Exception.UnableToCreateTemporaryFile"), e);
-      }
-      // OK, save the oldest rows to disk!
-      Object[] oldest = data.bufferList.get(0);
-      data.inputRowMeta.writeData(data.dosToTempFile, oldest);
-      data.bufferList.remove(0);
-      data.rowsOnFile++;
-    }
+    data.rowBuffer.add(row);
   }
 
   // Method is defined as public in order to be accessible by unit tests
@@ -807,109 +795,62 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
   }
 
   private Object[] getRowFromBuffer() throws HopFileException {
-    if (data.rowsOnFile > 0) {
-      if (data.firstRead) {
-        // Open the inputstream first...
-        try {
-          data.fisToTmpFile = new FileInputStream(data.tempFile);
-          data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
-          data.firstRead = false;
-        } catch (IOException e) {
-          throw new HopFileException(
-              BaseMessages.getString(PKG, "GroupBy.Exception.UnableToReadBackRowFromTemporaryFile"),
-              e);
-        }
-      }
+    return data.rowBuffer.next();
+  }
 
-      // Read one row from the file!
-      Object[] row;
-      try {
-        row = data.inputRowMeta.readData(data.disToTmpFile);
-      } catch (SocketTimeoutException e) {
-        throw new HopFileException(e); // Shouldn't happen on files
-      }
-      data.rowsOnFile--;
+  @Override
+  public boolean init() {
 
-      return row;
-    } else {
-      if (data.bufferList.size() > 0) {
-        Object[] row = data.bufferList.get(0);
-        data.bufferList.remove(0);
-        return row;
-      } else {
-        return null; // Nothing left!
+    if (super.init()) {
+      if (meta.isPassAllRows()) {
+        // The rows of a group are passed once the aggregate is known, large groups are kept in a
+        // temp file in the mean time
+        //
+        try {
+          data.compressionProvider = getCompressionProvider();
+        } catch (HopException e) {
+          logError(e.getMessage(), e);
+          return false;
+        }
+        data.memoryBudget = SpillMemoryManager.getInstance().createBudget(-1L);
       }
+      return true;
     }
+    return false;
   }
 
-  private void closeOutput() throws HopFileException {
-    try {
-      if (data.dosToTempFile != null) {
-        data.dosToTempFile.close();
-        data.dosToTempFile = null;
-      }
-      if (data.fosToTempFile != null) {
-        data.fosToTempFile.close();
-        data.fosToTempFile = null;
-      }
-      data.firstRead = true;
-    } catch (IOException e) {
-      throw new HopFileException(
-          BaseMessages.getString(
-              PKG, "GroupBy.Exception.UnableToCloseInputStream", data.tempFile.getPath()),
-          e);
+  private ICompressionProvider getCompressionProvider() throws HopException {
+    String compressionType = Const.NVL(resolve(meta.getCompressionType()), "");
+    if (compressionType.isEmpty()) {
+      return null;
     }
-  }
+    ICompressionProvider compressionProvider =
+        CompressionProviderFactory.getInstance().getCompressionProviderByName(compressionType);
 
-  private void closeInput() throws HopFileException {
-    try {
-      if (data.fisToTmpFile != null) {
-        data.fisToTmpFile.close();
-        data.fisToTmpFile = null;
-      }
-      if (data.disToTmpFile != null) {
-        data.disToTmpFile.close();
-        data.disToTmpFile = null;
-      }
-    } catch (IOException e) {
-      throw new HopFileException(
-          BaseMessages.getString(
-              PKG, "GroupBy.Exception.UnableToCloseInputStream", data.tempFile.getPath()),
-          e);
+    if (compressionProvider == null) {
+      throw new HopException("No compression provider found with name = " + compressionType);
     }
-  }
-
-  @Override
-  public boolean init() {
-
-    if (super.init()) {
-      data.bufferList = new ArrayList<>();
-
-      data.rowsOnFile = 0;
-
-      return true;
+    if (!compressionProvider.supportsOutput() || !compressionProvider.supportsInput()) {
+      throw new HopException(
+          "Compression provider "
+              + compressionType
+              + " does not support both input and output streams!");
     }
-    return false;
+    if (compressionProvider instanceof NoneCompressionProvider) {
+      return null;
+    }
+    return compressionProvider;
   }
 
   @Override
   public void dispose() {
-
-    if (data.tempFile != null) {
-      try {
-        closeInput();
-        closeOutput();
-      } catch (HopFileException e) {
-        log.logError(e.getLocalizedMessage());
-      }
-
-      boolean tempFileDeleted = data.tempFile.delete();
-
-      if (!tempFileDeleted && log.isDetailed()) {
-        log.logDetailed(
-            BaseMessages.getString(
-                PKG, "GroupBy.Exception.UnableToDeleteTemporaryFile", data.tempFile.getPath()));
-      }
+    if (data.rowBuffer != null) {
+      data.rowBuffer.close();
+      data.rowBuffer = null;
+    }
+    if (data.memoryBudget != null) {
+      data.memoryBudget.close();
+      data.memoryBudget = null;
     }
 
     super.dispose();
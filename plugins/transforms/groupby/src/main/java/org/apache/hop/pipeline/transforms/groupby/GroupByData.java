@@ -17,13 +17,13 @@
 
 package org.apache.hop.pipeline.transforms.groupby;
 
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.memory.MemoryBudget;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.io.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -47,20 +47,14 @@ public class GroupByData extends BaseTransformData implements ITransformData {
 
   public Set<Object>[] distinctObjs;
 
-  public ArrayList<Object[]> bufferList;
+  /** The rows of the current group when all rows are passed */
+  public GroupRowBuffer rowBuffer;
 
-  public File tempFile;
+  /** The compression of the temp file of the row buffer, null for none */
+  public ICompressionProvider compressionProvider;
 
-  public FileOutputStream fosToTempFile;
-
-  public DataOutputStream dosToTempFile;
-
-  public int rowsOnFile;
-
-  public boolean firstRead;
-
-  public FileInputStream fisToTmpFile;
-  public DataInputStream disToTmpFile;
+  /** The memory of the rows of the current group, reserved from the spill memory manager */
+  public MemoryBudget memoryBudget;
 
   public Object[] groupResult;
 
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.groupby;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -35,6 +36,7 @@ import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -69,6 +71,10 @@ public class GroupByDialog extends BaseTransformDialog implements ITransformDial
 
   private Text wPrefix;
 
+  private Label wlCompressionType;
+
+  private CCombo wCompressionType;
+
   private Label wlAddLineNr;
 
   private Button wAddLineNr;
@@ -223,13 +229,33 @@ public class GroupByDialog extends BaseTransformDialog implements ITransformDial
     fdPrefix.right = new FormAttachment(100, 0);
     wPrefix.setLayoutData(fdPrefix);
 
+    // Compression of the temp files
+    wlCompressionType = new Label(shell, SWT.RIGHT);
+    wlCompressionType.setText(BaseMessages.getString(PKG, "GroupByDialog.CompressionType.Label"));
+    props.setLook(wlCompressionType);
+    FormData fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment(0, 0);
+    fdlCompressionType.right = new FormAttachment(middle, -margin);
+    fdlCompressionType.top = new FormAttachment(wPrefix, margin);
+    wlCompressionType.setLayoutData(fdlCompressionType);
+    wCompressionType = new CCombo(shell, SWT.BORDER | SWT.READ_ONLY);
+    props.setLook(wCompressionType);
+    wCompressionType.setItems(
+        CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompressionType.addModifyListener(lsMod);
+    FormData fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment(middle, 0);
+    fdCompressionType.top = new FormAttachment(wlCompressionType, 0, SWT.CENTER);
+    fdCompressionType.right = new FormAttachment(100, 0);
+    wCompressionType.setLayoutData(fdCompressionType);
+
     // Include all rows?
     wlAddLineNr = new Label(shell, SWT.RIGHT);
     wlAddLineNr.setText(BaseMessages.getString(PKG, "GroupByDialog.AddLineNr.Label"));
     props.setLook(wlAddLineNr);
     FormData fdlAddLineNr = new FormData();
     fdlAddLineNr.left = new FormAttachment(0, 0);
-    fdlAddLineNr.top = new FormAttachment(wPrefix, margin);
+    fdlAddLineNr.top = new FormAttachment(wCompressionType, margin);
     fdlAddLineNr.right = new FormAttachment(middle, -margin);
     wlAddLineNr.setLayoutData(fdlAddLineNr);
     wAddLineNr = new Button(shell, SWT.CHECK);
@@ -474,6 +500,8 @@ public class GroupByDialog extends BaseTransformDialog implements ITransformDial
     wSortDir.setEnabled(wAllRows.getSelection());
     wlPrefix.setEnabled(wAllRows.getSelection());
     wPrefix.setEnabled(wAllRows.getSelection());
+    wlCompressionType.setEnabled(wAllRows.getSelection());
+    wCompressionType.setEnabled(wAllRows.getSelection());
     wlAddLineNr.setEnabled(wAllRows.getSelection());
     wAddLineNr.setEnabled(wAllRows.getSelection());
 
@@ -493,6 +521,7 @@ public class GroupByDialog extends BaseTransformDialog implements ITransformDial
     if (input.getDirectory() != null) {
       wSortDir.setText(input.getDirectory());
     }
+    wCompressionType.setText(Const.NVL(input.getCompressionType(), "None"));
     wAddLineNr.setSelection(input.isAddingLineNrInGroup());
     if (input.getLineNrInGroupField() != null) {
       wLineNrField.setText(input.getLineNrInGroupField());
@@ -545,6 +574,7 @@ public class GroupByDialog extends BaseTransformDialog implements ITransformDial
     int nrFields = wAgg.nrNonEmpty();
     input.setPrefix(wPrefix.getText());
     input.setDirectory(wSortDir.getText());
+    input.setCompressionType(wCompressionType.getText());
 
     input.setLineNrInGroupField(wLineNrField.getText());
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
@@ -66,6 +66,13 @@ public class GroupByMeta extends BaseTransformMeta<GroupBy, GroupByData> {
   @HopMetadataProperty(injectionKey = "TEMP_FILE_PREFIX", injectionKeyDescription = "GroupByMeta.Injection.TEMP_FILE_PREFIX")
   private String prefix;
 
+  /** The compression of the temp files, empty or None for no compression */
+  @HopMetadataProperty(
+      key = "compression_type",
+      injectionKey = "TEMP_COMPRESSION_TYPE",
+      injectionKeyDescription = "GroupByMeta.Injection.TEMP_COMPRESSION_TYPE")
+  private String compressionType;
+
   /** Indicate that some rows don't need to be considered : TODO: make work in GUI & worker */
   @HopMetadataProperty(key="ignore_aggregate")
   private boolean aggregateIgnored;
@@ -405,6 +412,20 @@ public class GroupByMeta extends BaseTransformMeta<GroupBy, GroupByData> {
     this.prefix = prefix;
   }
 
+  /**
+   * @return the name of the compression provider of the temp files
+   */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /**
+   * @param compressionType the name of the compression provider of the temp files
+   */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
   /**
    * @return the addingLineNrInGroup
    */
@@ -0,0 +1,364 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.groupby;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.memory.MemoryBudget;
+import org.apache.hop.core.memory.RowSizeEstimator;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rows of the current group when all rows are passed, read back in the order they were added.
+ *
+ * <p>The rows are kept in fixed size chunks. Once a chunk is full it is handed to a background
+ * thread which writes it to a temporary file while the next chunk fills up. A buffer has a single
+ * writer thread, started for the first large group and reused for the next ones. The chunks go
+ * round between the two threads, so the memory used doesn't depend on the size of the group: a
+ * group of any size holds at most {@link #NR_CHUNKS} chunks in memory.
+ *
+ * <p>The rows of the chunk being filled are reserved from a {@link MemoryBudget}. When the budget
+ * runs out the chunk is written before it is full.
+ *
+ * <p>The rows in the file are the oldest ones, they are read back first, followed by the rows of
+ * the chunk which didn't fill up.
+ */
+public class GroupRowBuffer implements AutoCloseable {
+
+  /** The number of rows in a chunk */
+  static final int CHUNK_SIZE = 5000;
+
+  /** The chunk being filled, the chunk being written and a chunk waiting to be written */
+  static final int NR_CHUNKS = 3;
+
+  /** Below this number of rows the budget is overdrawn instead of writing a tiny chunk */
+  static final int MIN_ROWS_PER_WRITE = 500;
+
+  /** Tells the writer thread to close the file */
+  private static final Object[][] END_OF_GROUP = new Object[0][];
+
+  private final IRowMeta rowMeta;
+  private final String directory;
+  private final String prefix;
+  private final ICompressionProvider compressionProvider;
+  private final MemoryBudget memoryBudget;
+
+  private Object[][] chunk;
+  private int chunkSize;
+  private long chunkBytes;
+  private int readIndex;
+
+  private FileObject file;
+  private long rowsOnFile;
+  private DataInputStream inputStream;
+
+  private ExecutorService writer;
+  private Future<?> writing;
+  private BlockingQueue<Object[][]> fullChunks;
+  private BlockingQueue<Object[][]> freeChunks;
+  private volatile Exception writerException;
+
+  /**
+   * @param rowMeta the layout of the rows
+   * @param directory the directory of the temporary files
+   * @param prefix the prefix of the names of the temporary files
+   * @param compressionProvider the compression of the temporary files or null for none
+   * @param memoryBudget the budget of the rows in memory
+   */
+  public GroupRowBuffer(
+      IRowMeta rowMeta,
+      String directory,
+      String prefix,
+      ICompressionProvider compressionProvider,
+      MemoryBudget memoryBudget) {
+    this.rowMeta = rowMeta;
+    this.directory = directory;
+    this.prefix = prefix;
+    this.compressionProvider = compressionProvider;
+    this.memoryBudget = memoryBudget;
+    this.chunk = new Object[CHUNK_SIZE][];
+  }
+
+  /**
+   * Add a row of the current group. The row must not be changed afterwards: it may be written to
+   * disk by another thread.
+   *
+   * @param row the row to add
+   * @throws HopFileException if the rows can't be written to the temporary file
+   */
+  public void add(Object[] row) throws HopFileException {
+    long rowSize = RowSizeEstimator.estimateRowSize(row);
+    if (!memoryBudget.tryReserve(rowSize)) {
+      if (chunkSize >= MIN_ROWS_PER_WRITE) {
+        writeChunk();
+      }
+      memoryBudget.forceReserve(rowSize);
+    }
+    chunkBytes += rowSize;
+    chunk[chunkSize++] = row;
+    if (chunkSize == CHUNK_SIZE) {
+      writeChunk();
+    }
+  }
+
+  private void writeChunk() throws HopFileException {
+    if (writing == null) {
+      startWriter();
+    }
+    checkWriter();
+    try {
+      fullChunks.put(chunk);
+      rowsOnFile += chunkSize;
+      // The chunks waiting for the writer are bounded by NR_CHUNKS, give their memory back
+      releaseChunk();
+      memoryBudget.releaseUnused();
+      // Waits for the writer when it falls 2 chunks behind
+      chunk = freeChunks.take();
+      chunkSize = 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopFileException(e);
+    }
+  }
+
+  private void startWriter() throws HopFileException {
+    DataOutputStream outputStream;
+    file = HopVfs.createTempFile(prefix, ".tmp", directory);
+    try {
+      OutputStream fileStream = HopVfs.getOutputStream(file, false);
+      if (compressionProvider != null) {
+        CompressionOutputStream cos =
+            compressionProvider.createOutputStream(new BufferedOutputStream(fileStream));
+        cos.addEntry(file.getName().getBaseName(), null);
+        outputStream = new DataOutputStream(new BufferedOutputStream(cos, 500000));
+      } else {
+        outputStream = new DataOutputStream(new BufferedOutputStream(fileStream, 500000));
+      }
+    } catch (IOException e) {
+      throw new HopFileException(e);
+    }
+
+    fullChunks = new ArrayBlockingQueue<>(NR_CHUNKS);
+    freeChunks = new ArrayBlockingQueue<>(NR_CHUNKS);
+    for (int i = 1; i < NR_CHUNKS; i++) {
+      freeChunks.add(new Object[CHUNK_SIZE][]);
+    }
+    writerException = null;
+
+    if (writer == null) {
+      writer =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "Group by temp file writer");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    // The value metadata isn't thread-safe, the writer gets a copy
+    IRowMeta writerRowMeta = rowMeta.clone();
+    writing = writer.submit(() -> writeChunks(writerRowMeta, outputStream));
+  }
+
+  private void writeChunks(IRowMeta writerRowMeta, DataOutputStream outputStream) {
+    try {
+      Object[][] fullChunk = fullChunks.take();
+      while (fullChunk != END_OF_GROUP) {
+        if (writerException == null) {
+          try {
+            // A chunk written early ends with empty slots
+            for (int i = 0; i < fullChunk.length && fullChunk[i] != null; i++) {
+              writerRowMeta.writeData(outputStream, fullChunk[i]);
+            }
+          } catch (Exception e) {
+            // Keep taking chunks so the transform doesn't wait forever, it reports the error
+            writerException = e;
+          }
+        }
+        Arrays.fill(fullChunk, null);
+        freeChunks.put(fullChunk);
+        fullChunk = fullChunks.take();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        outputStream.close();
+      } catch (IOException e) {
+        if (writerException == null) {
+          writerException = e;
+        }
+      }
+    }
+  }
+
+  private void checkWriter() throws HopFileException {
+    if (writerException != null) {
+      throw new HopFileException(writerException);
+    }
+  }
+
+  /**
+   * Wait for the writer thread to write all full chunks and to close the temporary file.
+   *
+   * @throws HopFileException if the rows couldn't be written to the temporary file
+   */
+  public void finishWriting() throws HopFileException {
+    if (writing == null) {
+      return;
+    }
+    try {
+      fullChunks.put(END_OF_GROUP);
+      writing.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopFileException(e);
+    } catch (ExecutionException e) {
+      throw new HopFileException(e.getCause());
+    } finally {
+      writing = null;
+      fullChunks = null;
+      freeChunks = null;
+    }
+    checkWriter();
+  }
+
+  /**
+   * Read the next row of the group. Once all rows are read the buffer is empty and ready for the
+   * rows of the next group.
+   *
+   * @return the next row or null if there are no rows left
+   * @throws HopFileException if the rows can't be read back from the temporary file
+   */
+  public Object[] next() throws HopFileException {
+    finishWriting();
+
+    if (rowsOnFile > 0) {
+      if (inputStream == null) {
+        openInput();
+      }
+      Object[] row;
+      try {
+        row = rowMeta.readData(inputStream);
+      } catch (SocketTimeoutException e) {
+        throw new HopFileException(e); // Shouldn't happen on files
+      }
+      rowsOnFile--;
+      if (rowsOnFile == 0) {
+        deleteFile();
+      }
+      return row;
+    }
+
+    if (readIndex < chunkSize) {
+      Object[] row = chunk[readIndex];
+      chunk[readIndex++] = null;
+      return row;
+    }
+
+    // Nothing left, start over with the next group
+    chunkSize = 0;
+    readIndex = 0;
+    releaseChunk();
+    return null;
+  }
+
+  private void releaseChunk() {
+    memoryBudget.release(chunkBytes);
+    chunkBytes = 0L;
+  }
+
+  private void openInput() throws HopFileException {
+    try {
+      InputStream fileStream = HopVfs.getInputStream(file);
+      if (compressionProvider != null) {
+        CompressionInputStream cis =
+            compressionProvider.createInputStream(new BufferedInputStream(fileStream));
+        cis.nextEntry();
+        inputStream = new DataInputStream(new BufferedInputStream(cis, 50000));
+      } else {
+        inputStream = new DataInputStream(new BufferedInputStream(fileStream, 50000));
+      }
+    } catch (IOException e) {
+      throw new HopFileException(e);
+    }
+  }
+
+  private void deleteFile() {
+    BaseTransform.closeQuietly(inputStream);
+    inputStream = null;
+    if (file != null) {
+      try {
+        file.delete();
+      } catch (FileSystemException e) {
+        // The file stays behind in the temp directory
+      }
+      file = null;
+    }
+    rowsOnFile = 0;
+  }
+
+  /** @return the number of rows in the temporary file, written or waiting to be written */
+  public long getRowsOnFile() {
+    return rowsOnFile;
+  }
+
+  /** Stop the writer thread, remove the temporary file and drop the rows. */
+  @Override
+  public void close() {
+    if (writer != null) {
+      writer.shutdownNow();
+      try {
+        writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      writer = null;
+      writing = null;
+      fullChunks = null;
+      freeChunks = null;
+    }
+    deleteFile();
+    Arrays.fill(chunk, null);
+    chunkSize = 0;
+    readIndex = 0;
+    releaseChunk();
+  }
+}
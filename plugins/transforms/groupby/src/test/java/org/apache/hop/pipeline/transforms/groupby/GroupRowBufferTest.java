@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.groupby;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.memory.MemoryBudget;
+import org.apache.hop.core.memory.SpillMemoryManager;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GroupRowBufferTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private MemoryBudget memoryBudget = SpillMemoryManager.getInstance().createBudget(-1L);
+
+  @After
+  public void tearDown() {
+    memoryBudget.close();
+  }
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("group"));
+    return rowMeta;
+  }
+
+  private GroupRowBuffer createBuffer(IRowMeta rowMeta) {
+    return new GroupRowBuffer(
+        rowMeta, tempFolder.getRoot().getAbsolutePath(), "grp-test", null, memoryBudget);
+  }
+
+  private int countTempFiles() {
+    return tempFolder.getRoot().list().length;
+  }
+
+  private static void addRows(GroupRowBuffer buffer, String group, int nrRows)
+      throws HopFileException {
+    for (int i = 0; i < nrRows; i++) {
+      buffer.add(new Object[] {(long) i, group});
+    }
+  }
+
+  private static void assertRows(GroupRowBuffer buffer, String group, int nrRows)
+      throws HopFileException {
+    for (int i = 0; i < nrRows; i++) {
+      assertArrayEquals(new Object[] {(long) i, group}, buffer.next());
+    }
+    assertNull(buffer.next());
+  }
+
+  @Test
+  public void testSmallGroupStaysInMemory() throws HopFileException {
+    try (GroupRowBuffer buffer = createBuffer(createRowMeta())) {
+      addRows(buffer, "a", 10);
+      assertEquals(0L, buffer.getRowsOnFile());
+      assertEquals(0, countTempFiles());
+      assertRows(buffer, "a", 10);
+    }
+  }
+
+  @Test
+  public void testRowsComeBackInOrderFromFileAndChunk() throws HopFileException {
+    int nrRows = GroupRowBuffer.CHUNK_SIZE * GroupRowBuffer.NR_CHUNKS + 17;
+    try (GroupRowBuffer buffer = createBuffer(createRowMeta())) {
+      addRows(buffer, "a", nrRows);
+      assertEquals(GroupRowBuffer.CHUNK_SIZE * GroupRowBuffer.NR_CHUNKS, buffer.getRowsOnFile());
+      assertEquals(1, countTempFiles());
+
+      assertRows(buffer, "a", nrRows);
+      // The file is removed once it has been read
+      assertEquals(0, countTempFiles());
+    }
+  }
+
+  @Test
+  public void testChunkIsWrittenEarlyWhenTheBudgetRunsOut() throws HopFileException {
+    // A budget of a single byte refuses every row
+    memoryBudget.close();
+    memoryBudget = SpillMemoryManager.getInstance().createBudget(1L);
+    int nrRows = GroupRowBuffer.MIN_ROWS_PER_WRITE * 2 + 1;
+    try (GroupRowBuffer buffer = createBuffer(createRowMeta())) {
+      addRows(buffer, "a", nrRows);
+      assertEquals(GroupRowBuffer.MIN_ROWS_PER_WRITE * 2, buffer.getRowsOnFile());
+      // The last row is kept in memory
+      assertTrue(memoryBudget.getUsed() > 0);
+
+      assertRows(buffer, "a", nrRows);
+      assertEquals(0L, memoryBudget.getUsed());
+      assertEquals(0, countTempFiles());
+    }
+  }
+
+  @Test
+  public void testGroupsFollowingEachOther() throws HopFileException {
+    try (GroupRowBuffer buffer = createBuffer(createRowMeta())) {
+      addRows(buffer, "a", GroupRowBuffer.CHUNK_SIZE + 1);
+      assertRows(buffer, "a", GroupRowBuffer.CHUNK_SIZE + 1);
+
+      addRows(buffer, "b", 3);
+      assertEquals(0L, buffer.getRowsOnFile());
+      assertRows(buffer, "b", 3);
+
+      addRows(buffer, "c", GroupRowBuffer.CHUNK_SIZE * 2);
+      assertRows(buffer, "c", GroupRowBuffer.CHUNK_SIZE * 2);
+      assertEquals(0, countTempFiles());
+    }
+  }
+
+  @Test
+  public void testGroupsShareOneWriterThread() throws HopFileException {
+    try (GroupRowBuffer buffer = createBuffer(createRowMeta())) {
+      for (String group : new String[] {"a", "b", "c"}) {
+        addRows(buffer, group, GroupRowBuffer.CHUNK_SIZE + 1);
+        assertRows(buffer, group, GroupRowBuffer.CHUNK_SIZE + 1);
+      }
+      long nrWriters =
+          Thread.getAllStackTraces().keySet().stream()
+              .filter(thread -> thread.getName().equals("Group by temp file writer"))
+              .count();
+      assertEquals(1L, nrWriters);
+    }
+  }
+
+  @Test
+  public void testWriterErrorIsReported() throws Exception {
+    HopFileException diskFull = new HopFileException("disk full");
+    IRowMeta writerRowMeta = mock(IRowMeta.class);
+    doThrow(diskFull)
+        .when(writerRowMeta)
+        .writeData(any(DataOutputStream.class), any(Object[].class));
+    IRowMeta rowMeta = mock(IRowMeta.class);
+    when(rowMeta.clone()).thenReturn(writerRowMeta);
+
+    try (GroupRowBuffer buffer = createBuffer(rowMeta)) {
+      addRows(buffer, "a", GroupRowBuffer.CHUNK_SIZE);
+      try {
+        buffer.next();
+        fail("The error of the writer thread should be reported");
+      } catch (HopFileException e) {
+        assertSame(diskFull, e.getCause());
+      }
+    }
+    assertEquals(0, countTempFiles());
+  }
+
+  @Test
+  public void testCloseRemovesTempFile() throws HopFileException {
+    GroupRowBuffer buffer = createBuffer(createRowMeta());
+    addRows(buffer, "a", GroupRowBuffer.CHUNK_SIZE * 2);
+    assertEquals(1, countTempFiles());
+
+    // Close without waiting for the writer
+    buffer.close();
+    assertEquals(0, countTempFiles());
+    assertEquals(0L, buffer.getRowsOnFile());
+    assertNull(buffer.next());
+  }
+
+  @Test
+  public void testDisposeRemovesTempFile() throws HopFileException {
+    TransformMockHelper<GroupByMeta, GroupByData> helper =
+        new TransformMockHelper<>("Group By", GroupByMeta.class, GroupByData.class);
+    try {
+      when(helper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+          .thenReturn(helper.iLogChannel);
+      GroupByData data = new GroupByData();
+      GroupBy groupBy =
+          new GroupBy(
+              helper.transformMeta,
+              helper.iTransformMeta,
+              data,
+              0,
+              helper.pipelineMeta,
+              helper.pipeline);
+      data.rowBuffer = createBuffer(createRowMeta());
+      addRows(data.rowBuffer, "a", GroupRowBuffer.CHUNK_SIZE + 1);
+      data.rowBuffer.finishWriting();
+      assertEquals(1, countTempFiles());
+
+      groupBy.dispose();
+      assertNull(data.rowBuffer);
+      assertEquals(0, countTempFiles());
+    } finally {
+      helper.cleanUp();
+    }
+  }
+}
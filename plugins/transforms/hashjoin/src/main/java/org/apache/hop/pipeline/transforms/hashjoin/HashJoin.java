@@ -0,0 +1,486 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.memory.RowSizeEstimator;
+import org.apache.hop.core.memory.SpillMemoryManager;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+
+import java.util.List;
+
+/**
+ * Join 2 streams on their key fields with a hash table. The rows of the second stream are read
+ * first and kept by key, after which the rows of the first stream look up their matches. Neither
+ * stream has to be sorted, but the second stream should be the smaller one. Since the second
+ * stream is read in full before the first, both streams can't come from the same transform: it
+ * would block on the first stream once its row buffer fills up.
+ *
+ * <p>The hash table is split in partitions by the hash code of the key. When the rows of the second
+ * stream don't fit in the memory budget, the largest partitions are spilled to temp files together
+ * with the rows of the first stream which belong to them. Once the partitions in memory are done,
+ * the spilled partitions are joined one at a time the same way, splitting them again using the
+ * next bits of the hash code if they still don't fit. The rows of spilled partitions come out
+ * after the other rows.
+ *
+ * <p>Keys with a null value never match, like in SQL.
+ */
+public class HashJoin extends BaseTransform<HashJoinMeta, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  /** Below this number of rows in memory the memory budget is overdrawn instead of spilling */
+  static final int MIN_ROWS_IN_MEMORY = 1000;
+
+  /** The map node, join key and list of rows of a new key, without the key values */
+  private static final long KEY_OVERHEAD = 112L;
+
+  /** The slot of a row in the list of rows of a key */
+  private static final long ROW_OVERHEAD = 8L;
+
+  public HashJoin(
+      TransformMeta transformMeta,
+      HashJoinMeta meta,
+      HashJoinData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  @Override
+  public boolean processRow() throws HopException {
+    Object[] row;
+
+    if (first) {
+      first = false;
+
+      // Read the first row of both streams to find out their layout
+      //
+      findRowSets();
+      row = getRowFrom(data.oneRowSet);
+      Object[] buildRow = getRowFrom(data.twoRowSet);
+      initJoin(row != null, buildRow != null);
+
+      // Build the hash table from the second stream
+      //
+      data.level = 0;
+      data.partitions = createPartitions(0);
+      while (buildRow != null && !isStopped()) {
+        addBuildRow(buildRow);
+        buildRow = getRowFrom(data.twoRowSet);
+      }
+      if (isStopped()) {
+        return false;
+      }
+      finishBuilding();
+    } else {
+      row = getRowFrom(data.oneRowSet);
+    }
+
+    if (row == null) {
+      // All rows of the first stream are in, pass on the rows of the second stream without a
+      // match and join the spilled partitions.
+      //
+      finishProbing();
+      joinSpilledPartitions();
+      setOutputDone();
+      return false;
+    }
+
+    probeRow(row);
+
+    if (checkFeedback(getLinesRead())) {
+      logBasic(BaseMessages.getString(PKG, "HashJoin.LineNumber") + getLinesRead());
+    }
+    return true;
+  }
+
+  private void findRowSets() throws HopException {
+    List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+
+    data.oneRowSet = findInputRowSet(infoStreams.get(0).getTransformName());
+    if (data.oneRowSet == null) {
+      throw new HopException(
+          BaseMessages.getString(
+              PKG,
+              "HashJoin.Exception.UnableToFindSpecifiedTransform",
+              infoStreams.get(0).getTransformName()));
+    }
+    data.twoRowSet = findInputRowSet(infoStreams.get(1).getTransformName());
+    if (data.twoRowSet == null) {
+      throw new HopException(
+          BaseMessages.getString(
+              PKG,
+              "HashJoin.Exception.UnableToFindSpecifiedTransform",
+              infoStreams.get(1).getTransformName()));
+    }
+  }
+
+  /**
+   * Find the layout and the keys of both streams.
+   *
+   * @param oneHasRows true if a row of the first stream was read
+   * @param twoHasRows true if a row of the second stream was read
+   */
+  private void initJoin(boolean oneHasRows, boolean twoHasRows) throws HopException {
+    List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+    if (oneHasRows) {
+      data.oneMeta = data.oneRowSet.getRowMeta();
+    } else {
+      data.oneMeta =
+          getPipelineMeta().getTransformFields(this, infoStreams.get(0).getTransformName());
+    }
+    if (twoHasRows) {
+      data.twoMeta = data.twoRowSet.getRowMeta();
+    } else {
+      data.twoMeta =
+          getPipelineMeta().getTransformFields(this, infoStreams.get(1).getTransformName());
+    }
+
+    // just for speed: oneMeta+twoMeta
+    //
+    data.outputRowMeta = new RowMeta();
+    data.outputRowMeta.mergeRowMeta(data.oneMeta.clone());
+    data.outputRowMeta.mergeRowMeta(data.twoMeta.clone());
+
+    data.keyNrs1 = findKeyNrs(data.oneMeta, meta.getKeyFields1());
+    data.keyNrs2 = findKeyNrs(data.twoMeta, meta.getKeyFields2());
+    if (data.keyNrs1.length == 0 || data.keyNrs1.length != data.keyNrs2.length) {
+      throw new HopTransformException(
+          BaseMessages.getString(PKG, "HashJoin.Exception.KeysDontMatch"));
+    }
+
+    // The keys are hashed and compared with the types of the second stream, the keys of the first
+    // stream are converted when their types differ.
+    //
+    data.keyMeta = new RowMeta();
+    data.probeKeyMeta = new RowMeta();
+    data.convertProbeKey = new boolean[data.keyNrs1.length];
+    for (int i = 0; i < data.keyNrs1.length; i++) {
+      IValueMeta keyValueMeta = data.twoMeta.getValueMeta(data.keyNrs2[i]).clone();
+      keyValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.keyMeta.addValueMeta(keyValueMeta);
+
+      IValueMeta probeValueMeta = data.oneMeta.getValueMeta(data.keyNrs1[i]).clone();
+      probeValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.probeKeyMeta.addValueMeta(probeValueMeta);
+      data.convertProbeKey[i] = probeValueMeta.getType() != keyValueMeta.getType();
+    }
+
+    // Calculate one_dummy... defaults to null
+    data.one_dummy = RowDataUtil.allocateRowData(data.oneMeta.size() + data.twoMeta.size());
+
+    // Calculate two_dummy... defaults to null
+    //
+    data.two_dummy = new Object[data.twoMeta.size()];
+  }
+
+  private int[] findKeyNrs(IRowMeta rowMeta, List<String> keyFields)
+      throws HopTransformException {
+    int[] keyNrs = new int[keyFields.size()];
+    for (int i = 0; i < keyNrs.length; i++) {
+      keyNrs[i] = rowMeta.indexOfValue(keyFields.get(i));
+      if (keyNrs[i] < 0) {
+        String message =
+            BaseMessages.getString(
+                PKG, "HashJoin.Exception.UnableToFindFieldInReferenceStream", keyFields.get(i));
+        logError(message);
+        throw new HopTransformException(message);
+      }
+    }
+    return keyNrs;
+  }
+
+  private static HashJoinPartition[] createPartitions(int level) {
+    HashJoinPartition[] partitions =
+        new HashJoinPartition[SpillMemoryManager.NR_SPILL_PARTITIONS];
+    for (int i = 0; i < partitions.length; i++) {
+      partitions[i] = new HashJoinPartition(level);
+    }
+    return partitions;
+  }
+
+  /** @return the key of a row of the second stream or null if a key value is null */
+  private Object[] getBuildKey(Object[] row) throws HopValueException {
+    Object[] keyData = new Object[data.keyNrs2.length];
+    for (int i = 0; i < keyData.length; i++) {
+      IValueMeta valueMeta = data.twoMeta.getValueMeta(data.keyNrs2[i]);
+      Object value = valueMeta.convertToNormalStorageType(row[data.keyNrs2[i]]);
+      if (data.keyMeta.getValueMeta(i).isNull(value)) {
+        return null;
+      }
+      keyData[i] = value;
+    }
+    return keyData;
+  }
+
+  /** @return the key of a row of the first stream or null if a key value is null */
+  private Object[] getProbeKey(Object[] row) throws HopValueException {
+    Object[] keyData = new Object[data.keyNrs1.length];
+    for (int i = 0; i < keyData.length; i++) {
+      IValueMeta valueMeta = data.oneMeta.getValueMeta(data.keyNrs1[i]);
+      IValueMeta probeValueMeta = data.probeKeyMeta.getValueMeta(i);
+      Object value = valueMeta.convertToNormalStorageType(row[data.keyNrs1[i]]);
+      if (probeValueMeta.isNull(value)) {
+        return null;
+      }
+      if (data.convertProbeKey[i]) {
+        value = data.keyMeta.getValueMeta(i).convertData(probeValueMeta, value);
+        if (value == null) {
+          return null;
+        }
+      }
+      keyData[i] = value;
+    }
+    return keyData;
+  }
+
+  /** Add a row of the second stream to its partition, in memory or in the temp file. */
+  private void addBuildRow(Object[] row) throws HopException {
+    Object[] keyData = getBuildKey(row);
+    if (keyData == null) {
+      if (data.keepUnmatchedTwo) {
+        putRow(data.outputRowMeta, joinRows(data.one_dummy, row));
+      }
+      return;
+    }
+    JoinKey key = new JoinKey(data.keyMeta, keyData);
+    HashJoinPartition partition =
+        data.partitions[SpillMemoryManager.getSpillPartitionNr(key.hashCode(), data.level)];
+    if (!partition.isSpilled()) {
+      long size = RowSizeEstimator.estimateRowSize(row) + ROW_OVERHEAD;
+      if (partition.get(key) == null) {
+        size += RowSizeEstimator.estimateRowSize(keyData) + KEY_OVERHEAD;
+      }
+      if (reserveMemory(partition, size)) {
+        partition.add(key, row, size);
+        return;
+      }
+    }
+    partition.writeBuildRow(data.twoMeta, row);
+  }
+
+  /**
+   * Reserve memory for a row of the second stream. When the memory budget is exhausted the largest
+   * partitions are spilled to disk until the row fits or its own partition is spilled.
+   *
+   * @return true if the row can be kept in memory, false if its partition was spilled
+   */
+  private boolean reserveMemory(HashJoinPartition partition, long size) throws HopException {
+    long rowsInMemory = 0L;
+    for (HashJoinPartition p : data.partitions) {
+      rowsInMemory += p.getNrRows();
+    }
+    if (rowsInMemory < MIN_ROWS_IN_MEMORY || data.level >= SpillMemoryManager.MAX_SPILL_LEVEL) {
+      data.memoryBudget.forceReserve(size);
+      return true;
+    }
+    while (!data.memoryBudget.tryReserve(size)) {
+      HashJoinPartition largest = partition;
+      for (HashJoinPartition p : data.partitions) {
+        if (!p.isSpilled() && p.getMemorySize() > largest.getMemorySize()) {
+          largest = p;
+        }
+      }
+      spillPartition(largest);
+      if (largest == partition) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void spillPartition(HashJoinPartition partition) throws HopException {
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "HashJoin.Log.SpillingPartition", partition.getNrRows(), data.level));
+    }
+    long size = partition.getMemorySize();
+    partition.spill(data.directory, data.prefix, data.twoMeta);
+    data.memoryBudget.release(size);
+  }
+
+  private void finishBuilding() throws HopException {
+    for (HashJoinPartition partition : data.partitions) {
+      partition.finishBuilding();
+    }
+  }
+
+  /** Join a row of the first stream, or write it to the temp file of its spilled partition. */
+  private void probeRow(Object[] row) throws HopException {
+    Object[] keyData = getProbeKey(row);
+    if (keyData == null) {
+      if (data.keepUnmatchedOne) {
+        putRow(data.outputRowMeta, joinRows(row, data.two_dummy));
+      }
+      return;
+    }
+    JoinKey key = new JoinKey(data.keyMeta, keyData);
+    HashJoinPartition partition =
+        data.partitions[SpillMemoryManager.getSpillPartitionNr(key.hashCode(), data.level)];
+    if (partition.isSpilled()) {
+      partition.writeProbeRow(data.directory, data.prefix, data.oneMeta, row);
+      return;
+    }
+    HashJoinPartition.BuildRows buildRows = partition.get(key);
+    if (buildRows == null) {
+      if (data.keepUnmatchedOne) {
+        putRow(data.outputRowMeta, joinRows(row, data.two_dummy));
+      }
+      return;
+    }
+    buildRows.matched = true;
+    for (Object[] buildRow : buildRows.rows) {
+      putRow(data.outputRowMeta, joinRows(row, buildRow));
+    }
+  }
+
+  /**
+   * Pass on the rows of the second stream without a match in the partitions in memory. The
+   * spilled partitions are joined next.
+   */
+  private void finishProbing() throws HopException {
+    for (HashJoinPartition partition : data.partitions) {
+      if (partition.isSpilled()) {
+        partition.finishProbing();
+        data.pendingPartitions.push(partition);
+        continue;
+      }
+      if (data.keepUnmatchedTwo) {
+        for (HashJoinPartition.BuildRows buildRows : partition.getBuildRows()) {
+          if (!buildRows.matched) {
+            for (Object[] buildRow : buildRows.rows) {
+              putRow(data.outputRowMeta, joinRows(data.one_dummy, buildRow));
+            }
+          }
+        }
+      }
+      partition.delete();
+    }
+    data.partitions = null;
+    data.memoryBudget.releaseAll();
+  }
+
+  /**
+   * Join the spilled partitions one at a time: build a hash table from the rows of the second
+   * stream in the temp file and probe it with the rows of the first stream. A partition which
+   * doesn't fit in memory is split and spilled again at the next level.
+   */
+  private void joinSpilledPartitions() throws HopException {
+    while (!data.pendingPartitions.isEmpty() && !isStopped()) {
+      HashJoinPartition spilled = data.pendingPartitions.pop();
+      if (!spilled.hasProbeRows() && !data.keepUnmatchedTwo) {
+        // Nothing can match and the rows of the second stream aren't passed on
+        spilled.delete();
+        continue;
+      }
+
+      data.level = spilled.getLevel() + 1;
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(PKG, "HashJoin.Log.JoiningSpilledPartition", data.level - 1));
+      }
+      data.partitions = createPartitions(data.level);
+
+      Object[] row = spilled.readBuildRow(data.twoMeta);
+      while (row != null && !isStopped()) {
+        addBuildRow(row);
+        row = spilled.readBuildRow(data.twoMeta);
+      }
+      finishBuilding();
+
+      row = spilled.readProbeRow(data.oneMeta);
+      while (row != null && !isStopped()) {
+        probeRow(row);
+        row = spilled.readProbeRow(data.oneMeta);
+      }
+      finishProbing();
+      spilled.delete();
+    }
+  }
+
+  private Object[] joinRows(Object[] one, Object[] two) {
+    Object[] outputRowData = RowDataUtil.createResizedCopy(one, data.outputRowMeta.size());
+    return RowDataUtil.addRowData(outputRowData, data.oneMeta.size(), two);
+  }
+
+  @Override
+  public boolean init() {
+    if (!super.init()) {
+      return false;
+    }
+    List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+    if (infoStreams.get(0).getTransformMeta() == null
+        || infoStreams.get(1).getTransformMeta() == null) {
+      logError(BaseMessages.getString(PKG, "HashJoin.Log.BothStreamsNeeded"));
+      return false;
+    }
+
+    String joinType = meta.getJoinType();
+    boolean validJoinType = false;
+    for (int i = 0; i < HashJoinMeta.joinTypes.length; ++i) {
+      if (HashJoinMeta.joinTypes[i].equalsIgnoreCase(joinType)) {
+        data.keepUnmatchedOne = HashJoinMeta.keepUnmatchedLeft[i];
+        data.keepUnmatchedTwo = HashJoinMeta.keepUnmatchedRight[i];
+        validJoinType = true;
+      }
+    }
+    if (!validJoinType) {
+      logError(BaseMessages.getString(PKG, "HashJoin.Log.InvalidJoinType", joinType));
+      return false;
+    }
+
+    data.directory = resolve(Const.NVL(meta.getDirectory(), HashJoinMeta.DEFAULT_DIRECTORY));
+    data.prefix = resolve(Const.NVL(meta.getPrefix(), HashJoinMeta.DEFAULT_PREFIX));
+    data.memoryBudget =
+        SpillMemoryManager.getInstance().createBudgetMb(resolve(meta.getMemoryLimit()));
+    return true;
+  }
+
+  @Override
+  public void dispose() {
+    if (data.partitions != null) {
+      for (HashJoinPartition partition : data.partitions) {
+        partition.delete();
+      }
+      data.partitions = null;
+    }
+    for (HashJoinPartition partition : data.pendingPartitions) {
+      partition.delete();
+    }
+    data.pendingPartitions.clear();
+    if (data.memoryBudget != null) {
+      data.memoryBudget.close();
+      data.memoryBudget = null;
+    }
+    super.dispose();
+  }
+}
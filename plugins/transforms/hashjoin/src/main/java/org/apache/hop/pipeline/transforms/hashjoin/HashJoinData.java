@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.memory.MemoryBudget;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transform.BaseTransformData;
+import org.apache.hop.pipeline.transform.ITransformData;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class HashJoinData extends BaseTransformData implements ITransformData {
+  public IRowMeta oneMeta;
+  public IRowMeta twoMeta;
+  public IRowMeta outputRowMeta; // just for speed: oneMeta+twoMeta
+  public Object[] one_dummy;
+  public Object[] two_dummy;
+  public boolean keepUnmatchedOne;
+  public boolean keepUnmatchedTwo;
+  public int[] keyNrs1;
+  public int[] keyNrs2;
+
+  /** The layout of the keys in the hash table: the key types of the second stream */
+  public IRowMeta keyMeta;
+
+  /** The key fields of the first stream, converted to the key types when they differ */
+  public IRowMeta probeKeyMeta;
+
+  public boolean[] convertProbeKey;
+
+  public IRowSet oneRowSet;
+  public IRowSet twoRowSet;
+
+  /** The partitions being joined, of the input streams or of a spilled partition */
+  HashJoinPartition[] partitions;
+
+  /** The spilled partitions waiting to be joined */
+  Deque<HashJoinPartition> pendingPartitions = new ArrayDeque<>();
+
+  public int level;
+  public MemoryBudget memoryBudget;
+  public String directory;
+  public String prefix;
+
+  /** Default initializer */
+  public HashJoinData() {
+    super();
+  }
+}
@@ -0,0 +1,430 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.ICheckResult;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.PipelineMeta.PipelineType;
+import org.apache.hop.pipeline.transform.BaseTransformMeta;
+import org.apache.hop.pipeline.transform.ITransformIOMeta;
+import org.apache.hop.pipeline.transform.TransformIOMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.apache.hop.pipeline.transform.stream.IStream.StreamType;
+import org.apache.hop.pipeline.transform.stream.Stream;
+import org.apache.hop.pipeline.transform.stream.StreamIcon;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Transform(
+    id = "HashJoin",
+    image = "hashjoin.svg",
+    name = "i18n::HashJoin.Name",
+    description = "i18n::HashJoin.Description",
+    categoryDescription = "i18n:org.apache.hop.pipeline.transform:BaseTransform.Category.Joins",
+    keywords = "i18n::HashJoinMeta.keyword",
+    documentationUrl = "/pipeline/transforms/hashjoin.html")
+public class HashJoinMeta extends BaseTransformMeta<HashJoin, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  public static final String[] joinTypes = {"INNER", "LEFT OUTER", "RIGHT OUTER", "FULL OUTER"};
+
+  /** Whether the rows of the first (left) stream without a match are passed on */
+  public static final boolean[] keepUnmatchedLeft = {false, true, false, true};
+
+  /** Whether the rows of the second (right) stream without a match are passed on */
+  public static final boolean[] keepUnmatchedRight = {false, false, true, true};
+
+  public static final String DEFAULT_DIRECTORY = "${java.io.tmpdir}";
+  public static final String DEFAULT_PREFIX = "hjoin";
+
+  @HopMetadataProperty(
+      key = "join_type",
+      injectionKey = "JOIN_TYPE",
+      injectionKeyDescription = "HashJoin.Injection.JOIN_TYPE")
+  private String joinType;
+
+  @HopMetadataProperty(
+      key = "transform1",
+      injectionKey = "LEFT_TRANSFORM",
+      injectionKeyDescription = "HashJoin.Injection.LEFT_TRANSFORM")
+  private String leftTransformName;
+
+  @HopMetadataProperty(
+      key = "transform2",
+      injectionKey = "RIGHT_TRANSFORM",
+      injectionKeyDescription = "HashJoin.Injection.RIGHT_TRANSFORM")
+  private String rightTransformName;
+
+  @HopMetadataProperty(
+      groupKey = "keys_1",
+      key = "key",
+      injectionGroupKey = "KEY_FIELDS1",
+      injectionGroupDescription = "HashJoin.Injection.KEY_FIELDS1",
+      injectionKey = "KEY_FIELD1",
+      injectionKeyDescription = "HashJoin.Injection.KEY_FIELD1")
+  private List<String> keyFields1;
+
+  @HopMetadataProperty(
+      groupKey = "keys_2",
+      key = "key",
+      injectionGroupKey = "KEY_FIELDS2",
+      injectionGroupDescription = "HashJoin.Injection.KEY_FIELDS2",
+      injectionKey = "KEY_FIELD2",
+      injectionKeyDescription = "HashJoin.Injection.KEY_FIELD2")
+  private List<String> keyFields2;
+
+  /** The directory of the temp files of the partitions which don't fit in memory */
+  @HopMetadataProperty(
+      key = "directory",
+      injectionKey = "DIRECTORY",
+      injectionKeyDescription = "HashJoin.Injection.DIRECTORY")
+  private String directory;
+
+  /** The prefix of the temp files */
+  @HopMetadataProperty(
+      key = "prefix",
+      injectionKey = "PREFIX",
+      injectionKeyDescription = "HashJoin.Injection.PREFIX")
+  private String prefix;
+
+  /** The maximum memory in MB to keep the rows of the second stream in */
+  @HopMetadataProperty(
+      key = "memory_limit",
+      injectionKey = "MEMORY_LIMIT",
+      injectionKeyDescription = "HashJoin.Injection.MEMORY_LIMIT")
+  private String memoryLimit;
+
+  @Override
+  public boolean excludeFromRowLayoutVerification() {
+    return true;
+  }
+
+  public HashJoinMeta() {
+    keyFields1 = new ArrayList<>();
+    keyFields2 = new ArrayList<>();
+  }
+
+  @Override
+  public HashJoinMeta clone() {
+    HashJoinMeta meta = new HashJoinMeta();
+
+    meta.leftTransformName = this.leftTransformName;
+    meta.rightTransformName = this.rightTransformName;
+    meta.joinType = this.joinType;
+    meta.keyFields1.addAll(this.keyFields1);
+    meta.keyFields2.addAll(this.keyFields2);
+    meta.directory = this.directory;
+    meta.prefix = this.prefix;
+    meta.memoryLimit = this.memoryLimit;
+
+    return meta;
+  }
+
+  @Override
+  public void setDefault() {
+    joinType = joinTypes[0];
+    directory = DEFAULT_DIRECTORY;
+    prefix = DEFAULT_PREFIX;
+    memoryLimit = null;
+  }
+
+  @Override
+  public void searchInfoAndTargetTransforms(List<TransformMeta> transforms) {
+    List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+    infoStreams.get(0).setTransformMeta(TransformMeta.findTransform(transforms, leftTransformName));
+    infoStreams
+        .get(1)
+        .setTransformMeta(TransformMeta.findTransform(transforms, rightTransformName));
+  }
+
+  @Override
+  public void check(
+      List<ICheckResult> remarks,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      String[] input,
+      String[] output,
+      IRowMeta info,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider) {
+    CheckResult cr;
+
+    List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+    TransformMeta one = infoStreams.get(0).getTransformMeta();
+    TransformMeta two = infoStreams.get(1).getTransformMeta();
+    if (one == null || two == null) {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.TwoTransformsNeeded"),
+              transformMeta);
+      remarks.add(cr);
+    } else {
+      // The second stream is read completely before the first one, rows of the first stream
+      // waiting in between block a source which feeds both streams.
+      //
+      Set<TransformMeta> sources = findSources(pipelineMeta, one, new HashSet<>());
+      sources.retainAll(findSources(pipelineMeta, two, new HashSet<>()));
+      if (!sources.isEmpty()) {
+        cr =
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_WARNING,
+                BaseMessages.getString(
+                    PKG,
+                    "HashJoinMeta.CheckResult.StreamsShareSource",
+                    sources.iterator().next().getName()),
+                transformMeta);
+        remarks.add(cr);
+      }
+    }
+
+    if (keyFields1.isEmpty() || keyFields1.size() != keyFields2.size()) {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysDontMatch"),
+              transformMeta);
+      remarks.add(cr);
+    } else {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_OK,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysOk", keyFields1.size()),
+              transformMeta);
+      remarks.add(cr);
+    }
+
+    boolean validJoinType = false;
+    for (String type : joinTypes) {
+      validJoinType |= type.equalsIgnoreCase(joinType);
+    }
+    if (!validJoinType) {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.InvalidJoinType", joinType),
+              transformMeta);
+      remarks.add(cr);
+    }
+  }
+
+  /** @return the transform and all the transforms it reads rows from, directly or not */
+  private static Set<TransformMeta> findSources(
+      PipelineMeta pipelineMeta, TransformMeta transformMeta, Set<TransformMeta> sources) {
+    if (sources.add(transformMeta)) {
+      for (TransformMeta previous : pipelineMeta.findPreviousTransforms(transformMeta)) {
+        findSources(pipelineMeta, previous, sources);
+      }
+    }
+    return sources;
+  }
+
+  @Override
+  public void getFields(
+      IRowMeta r,
+      String name,
+      IRowMeta[] info,
+      TransformMeta nextTransform,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider)
+      throws HopTransformException {
+    // The same layout as a merge join: the fields of the first stream, then those of the second
+    //
+    if (info != null) {
+      for (int i = 0; i < info.length; i++) {
+        if (info[i] != null) {
+          r.mergeRowMeta(info[i], name);
+        }
+      }
+    }
+
+    for (int i = 0; i < r.size(); i++) {
+      IValueMeta vmi = r.getValueMeta(i);
+      if (vmi != null && Utils.isEmpty(vmi.getName())) {
+        vmi.setOrigin(name);
+      }
+    }
+  }
+
+  /** Returns the Input/Output metadata for this transform: two info streams to join. */
+  @Override
+  public ITransformIOMeta getTransformIOMeta() {
+    ITransformIOMeta ioMeta = super.getTransformIOMeta(false);
+    if (ioMeta == null) {
+
+      ioMeta = new TransformIOMeta(true, true, false, false, false, false);
+
+      ioMeta.addStream(
+          new Stream(
+              StreamType.INFO,
+              null,
+              BaseMessages.getString(PKG, "HashJoinMeta.InfoStream.FirstStream.Description"),
+              StreamIcon.INFO,
+              null));
+      ioMeta.addStream(
+          new Stream(
+              StreamType.INFO,
+              null,
+              BaseMessages.getString(PKG, "HashJoinMeta.InfoStream.SecondStream.Description"),
+              StreamIcon.INFO,
+              null));
+      setTransformIOMeta(ioMeta);
+    }
+
+    return ioMeta;
+  }
+
+  @Override
+  public void resetTransformIoMeta() {
+    // Don't reset!
+  }
+
+  @Override
+  public PipelineType[] getSupportedPipelineTypes() {
+    return new PipelineType[] {
+      PipelineType.Normal,
+    };
+  }
+
+  /**
+   * Gets joinType
+   *
+   * @return value of joinType
+   */
+  public String getJoinType() {
+    return joinType;
+  }
+
+  /** @param joinType The joinType to set */
+  public void setJoinType(String joinType) {
+    this.joinType = joinType;
+  }
+
+  /**
+   * Gets leftTransformName, the stream which probes the hash table
+   *
+   * @return value of leftTransformName
+   */
+  public String getLeftTransformName() {
+    return leftTransformName;
+  }
+
+  /** @param leftTransformName The leftTransformName to set */
+  public void setLeftTransformName(String leftTransformName) {
+    this.leftTransformName = leftTransformName;
+  }
+
+  /**
+   * Gets rightTransformName, the stream the hash table is built from
+   *
+   * @return value of rightTransformName
+   */
+  public String getRightTransformName() {
+    return rightTransformName;
+  }
+
+  /** @param rightTransformName The rightTransformName to set */
+  public void setRightTransformName(String rightTransformName) {
+    this.rightTransformName = rightTransformName;
+  }
+
+  /**
+   * Gets keyFields1
+   *
+   * @return value of keyFields1
+   */
+  public List<String> getKeyFields1() {
+    return keyFields1;
+  }
+
+  /** @param keyFields1 The keyFields1 to set */
+  public void setKeyFields1(List<String> keyFields1) {
+    this.keyFields1 = keyFields1;
+  }
+
+  /**
+   * Gets keyFields2
+   *
+   * @return value of keyFields2
+   */
+  public List<String> getKeyFields2() {
+    return keyFields2;
+  }
+
+  /** @param keyFields2 The keyFields2 to set */
+  public void setKeyFields2(List<String> keyFields2) {
+    this.keyFields2 = keyFields2;
+  }
+
+  /**
+   * Gets directory
+   *
+   * @return value of directory
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /** @param directory The directory of the temp files to set */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Gets prefix
+   *
+   * @return value of prefix
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /** @param prefix The prefix of the temp files to set */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * Gets memoryLimit
+   *
+   * @return value of memoryLimit, in MB
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /** @param memoryLimit The memory limit in MB to set */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+}
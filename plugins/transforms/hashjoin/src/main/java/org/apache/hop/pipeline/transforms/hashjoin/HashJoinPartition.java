@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.memory.SpillFile;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A partition of the hash table, picked by the hash code of the key. As long as it fits in memory
+ * it keeps the rows of the second stream by key. Once it's spilled, the rows of both streams which
+ * belong to it are written to temp files and joined after the partitions in memory.
+ */
+class HashJoinPartition {
+
+  /** The rows of the second stream with the same key */
+  static class BuildRows {
+    final List<Object[]> rows = new ArrayList<>(1);
+
+    /** Whether a row of the first stream had the same key */
+    boolean matched;
+  }
+
+  private final int level;
+
+  private Map<JoinKey, BuildRows> table = new HashMap<>();
+  private long nrRows;
+  private long memorySize;
+
+  private SpillFile buildFile;
+  private SpillFile probeFile;
+
+  /**
+   * @param level the number of times the rows of this partition were spilled before, 0 for the
+   *     rows of the input streams
+   */
+  HashJoinPartition(int level) {
+    this.level = level;
+  }
+
+  /**
+   * @param key the key of a row of the first stream
+   * @return the rows of the second stream with the key or null if there are none
+   */
+  BuildRows get(JoinKey key) {
+    return table.get(key);
+  }
+
+  /**
+   * Add a row of the second stream.
+   *
+   * @param key the key of the row
+   * @param row the row
+   * @param size the estimated number of bytes the row takes in the table
+   */
+  void add(JoinKey key, Object[] row, long size) {
+    table.computeIfAbsent(key, k -> new BuildRows()).rows.add(row);
+    nrRows++;
+    memorySize += size;
+  }
+
+  /**
+   * Move the rows of the second stream to a temp file, the rows which come in later go there too.
+   *
+   * @param directory the directory of the temp files
+   * @param prefix the prefix of the temp files
+   * @param buildRowMeta the layout of the rows of the second stream
+   * @throws HopFileException if the rows can't be written
+   */
+  void spill(String directory, String prefix, IRowMeta buildRowMeta) throws HopFileException {
+    buildFile = new SpillFile(directory, prefix, level);
+    for (BuildRows buildRows : table.values()) {
+      for (Object[] row : buildRows.rows) {
+        buildFile.writeRow(buildRowMeta, row);
+      }
+    }
+    table = null;
+    nrRows = 0;
+    memorySize = 0;
+  }
+
+  boolean isSpilled() {
+    return table == null;
+  }
+
+  void writeBuildRow(IRowMeta buildRowMeta, Object[] row) throws HopFileException {
+    buildFile.writeRow(buildRowMeta, row);
+  }
+
+  void writeProbeRow(String directory, String prefix, IRowMeta probeRowMeta, Object[] row)
+      throws HopFileException {
+    if (probeFile == null) {
+      probeFile = new SpillFile(directory, prefix, level);
+    }
+    probeFile.writeRow(probeRowMeta, row);
+  }
+
+  /** Close the temp file of the second stream, it can be read back once this is done. */
+  void finishBuilding() throws HopFileException {
+    if (buildFile != null) {
+      buildFile.finishWriting();
+    }
+  }
+
+  /** Close the temp file of the first stream, it can be read back once this is done. */
+  void finishProbing() throws HopFileException {
+    if (probeFile != null) {
+      probeFile.finishWriting();
+    }
+  }
+
+  Object[] readBuildRow(IRowMeta buildRowMeta) throws HopFileException {
+    return buildFile.readRow(buildRowMeta);
+  }
+
+  Object[] readProbeRow(IRowMeta probeRowMeta) throws HopFileException {
+    return probeFile == null ? null : probeFile.readRow(probeRowMeta);
+  }
+
+  /** @return true if rows of the first stream were written to the temp file */
+  boolean hasProbeRows() {
+    return probeFile != null;
+  }
+
+  /** @return the rows of the second stream by key, null once the partition is spilled */
+  Collection<BuildRows> getBuildRows() {
+    return table == null ? null : table.values();
+  }
+
+  /** Remove the temp files and drop the rows in memory. */
+  void delete() {
+    if (buildFile != null) {
+      buildFile.delete();
+      buildFile = null;
+    }
+    if (probeFile != null) {
+      probeFile.delete();
+      probeFile = null;
+    }
+    if (table != null) {
+      table.clear();
+    }
+  }
+
+  /** @return the number of times the rows of this partition were spilled before */
+  int getLevel() {
+    return level;
+  }
+
+  /** @return the number of rows of the second stream in memory */
+  long getNrRows() {
+    return nrRows;
+  }
+
+  /** @return the estimated number of bytes of the rows in memory */
+  long getMemorySize() {
+    return memorySize;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * The key of a row in the hash table. Keys are equal when their values compare as equal, so the
+ * hash code is calculated from the values the way the value types compare them.
+ */
+class JoinKey {
+
+  private final IRowMeta keyMeta;
+  private final Object[] keyData;
+  private final int hashCode;
+
+  /**
+   * @param keyMeta the layout of the key, normal storage
+   * @param keyData the key values, none of them null
+   */
+  JoinKey(IRowMeta keyMeta, Object[] keyData) {
+    this.keyMeta = keyMeta;
+    this.keyData = keyData;
+    this.hashCode = calculateHashCode(keyMeta, keyData);
+  }
+
+  static int calculateHashCode(IRowMeta keyMeta, Object[] keyData) {
+    int hash = 1;
+    for (int i = 0; i < keyData.length; i++) {
+      hash = 31 * hash + calculateHashCode(keyMeta.getValueMeta(i), keyData[i]);
+    }
+    return hash;
+  }
+
+  private static int calculateHashCode(IValueMeta valueMeta, Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof String) {
+      String string = (String) value;
+      if (valueMeta.isIgnoreWhitespace()) {
+        string = string.trim();
+      }
+      return valueMeta.isCaseInsensitive() ? caseInsensitiveHashCode(string) : string.hashCode();
+    }
+    if (value instanceof BigDecimal) {
+      // 1.5 and 1.50 compare as equal
+      return ((BigDecimal) value).stripTrailingZeros().hashCode();
+    }
+    if (value instanceof byte[]) {
+      return Arrays.hashCode((byte[]) value);
+    }
+    return value.hashCode();
+  }
+
+  /**
+   * String.compareToIgnoreCase() compares the characters in upper case and then in lower case, so
+   * the characters are hashed that way as well. Converting the whole string to lower case doesn't
+   * match it, for example for the dotless i or when the length of the string changes.
+   */
+  private static int caseInsensitiveHashCode(String string) {
+    int hash = 0;
+    for (int i = 0; i < string.length(); i++) {
+      hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(string.charAt(i)));
+    }
+    return hash;
+  }
+
+  Object[] getKeyData() {
+    return keyData;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof JoinKey)) {
+      return false;
+    }
+    JoinKey other = (JoinKey) obj;
+    if (hashCode != other.hashCode) {
+      return false;
+    }
+    try {
+      return keyMeta.compare(keyData, other.keyData) == 0;
+    } catch (HopValueException e) {
+      throw new RuntimeException("Hash join: unable to compare keys because of a data problem", e);
+    }
+  }
+}
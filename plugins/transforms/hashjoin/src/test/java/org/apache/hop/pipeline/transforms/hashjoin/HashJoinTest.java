@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transform.ITransformIOMeta;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HashJoinTest {
+
+  @Test
+  public void testJoinKeysEqualAsValues() {
+    IRowMeta keyMeta = new RowMeta();
+    ValueMetaString code = new ValueMetaString("code");
+    code.setCaseInsensitive(true);
+    keyMeta.addValueMeta(code);
+    keyMeta.addValueMeta(new ValueMetaBigNumber("amount"));
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    JoinKey key1 = new JoinKey(keyMeta, new Object[] {"Abc", new BigDecimal("1.50"), 1L});
+    JoinKey key2 = new JoinKey(keyMeta, new Object[] {"aBC", new BigDecimal("1.5"), 1L});
+    JoinKey key3 = new JoinKey(keyMeta, new Object[] {"abc", new BigDecimal("1.5"), 2L});
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertFalse(key1.equals(key3));
+  }
+
+  @Test
+  public void testJoinKeyHashCodesMatchStringComparison() {
+    IRowMeta keyMeta = new RowMeta();
+    ValueMetaString code = new ValueMetaString("code");
+    code.setCaseInsensitive(true);
+    code.setIgnoreWhitespace(true);
+    keyMeta.addValueMeta(code);
+
+    // The dotless i is equal to I when compared ignoring case, but not in lower case
+    JoinKey key1 = new JoinKey(keyMeta, new Object[] {"\u0131d "});
+    JoinKey key2 = new JoinKey(keyMeta, new Object[] {" ID"});
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+  }
+
+  private static List<String> join(
+      String joinType, String memoryLimit, List<Object[]> oneRows, List<Object[]> twoRows)
+      throws HopException {
+    return join(joinType, memoryLimit, new ValueMetaInteger("id"), oneRows, twoRows);
+  }
+
+  /**
+   * Run a hash join of two streams with a field "id" as the key.
+   *
+   * @param idMeta the type of the key field of both streams
+   * @return the joined rows as the value of the first stream, a bar and the value of the second
+   *     stream, with a dash for a missing row
+   */
+  private static List<String> join(
+      String joinType,
+      String memoryLimit,
+      IValueMeta idMeta,
+      List<Object[]> oneRows,
+      List<Object[]> twoRows)
+      throws HopException {
+    TransformMockHelper<HashJoinMeta, HashJoinData> helper =
+        new TransformMockHelper<>("Hash Join", HashJoinMeta.class, HashJoinData.class);
+    try {
+      when(helper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+          .thenReturn(helper.iLogChannel);
+      when(helper.iLogChannel.isDetailed()).thenReturn(true);
+      when(helper.pipeline.isRunning()).thenReturn(true);
+
+      HashJoinMeta meta = helper.iTransformMeta;
+      IStream oneStream = mock(IStream.class);
+      when(oneStream.getTransformName()).thenReturn("one");
+      when(oneStream.getTransformMeta()).thenReturn(mock(TransformMeta.class));
+      IStream twoStream = mock(IStream.class);
+      when(twoStream.getTransformName()).thenReturn("two");
+      when(twoStream.getTransformMeta()).thenReturn(mock(TransformMeta.class));
+      ITransformIOMeta ioMeta = mock(ITransformIOMeta.class);
+      when(ioMeta.getInfoStreams()).thenReturn(Arrays.asList(oneStream, twoStream));
+      when(meta.getTransformIOMeta()).thenReturn(ioMeta);
+      when(meta.getKeyFields1()).thenReturn(Collections.singletonList("id"));
+      when(meta.getKeyFields2()).thenReturn(Collections.singletonList("id"));
+      when(meta.getJoinType()).thenReturn(joinType);
+      when(meta.getDirectory()).thenReturn(System.getProperty("java.io.tmpdir"));
+      when(meta.getPrefix()).thenReturn("hjoin-test");
+      when(meta.getMemoryLimit()).thenReturn(memoryLimit);
+
+      HashJoin transform =
+          spy(
+              new HashJoin(
+                  helper.transformMeta,
+                  meta,
+                  new HashJoinData(),
+                  0,
+                  helper.pipelineMeta,
+                  helper.pipeline));
+      IRowSet oneRowSet = getRowSet(helper, idMeta, oneRows, "a");
+      IRowSet twoRowSet = getRowSet(helper, idMeta, twoRows, "b");
+      transform.setInputRowSets(new ArrayList<>(Arrays.asList(oneRowSet, twoRowSet)));
+      doReturn(oneRowSet).when(transform).findInputRowSet("one");
+      doReturn(twoRowSet).when(transform).findInputRowSet("two");
+
+      List<String> joined = new ArrayList<>();
+      transform.addRowListener(
+          new RowAdapter() {
+            @Override
+            public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) {
+              joined.add(
+                  (row[1] == null ? "-" : row[1]) + "|" + (row[3] == null ? "-" : row[3]));
+            }
+          });
+
+      assertTrue(transform.init());
+      try {
+        while (transform.processRow()) {
+          // Join all rows
+        }
+      } finally {
+        transform.dispose();
+      }
+      if (memoryLimit != null) {
+        verify(helper.iLogChannel, atLeastOnce())
+            .logDetailed(
+                BaseMessages.getString(
+                    HashJoinMeta.class, "HashJoin.Log.JoiningSpilledPartition", 0));
+      }
+      Collections.sort(joined);
+      return joined;
+    } finally {
+      helper.cleanUp();
+    }
+  }
+
+  private static IRowSet getRowSet(
+      TransformMockHelper<HashJoinMeta, HashJoinData> helper,
+      IValueMeta idMeta,
+      List<Object[]> rows,
+      String field) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(idMeta.clone());
+    rowMeta.addValueMeta(new ValueMetaString(field));
+    IRowSet rowSet = helper.getMockInputRowSet(rows);
+    when(rowSet.getRowMeta()).thenReturn(rowMeta);
+    return rowSet;
+  }
+
+  private static List<Object[]> oneRows() {
+    return TransformMockHelper.asList(
+        new Object[] {1L, "a1"},
+        new Object[] {2L, "a2"},
+        new Object[] {2L, "a2x"},
+        new Object[] {3L, "a3"},
+        new Object[] {null, "an"});
+  }
+
+  private static List<Object[]> twoRows() {
+    return TransformMockHelper.asList(
+        new Object[] {2L, "b2"},
+        new Object[] {3L, "b3"},
+        new Object[] {3L, "b3x"},
+        new Object[] {4L, "b4"},
+        new Object[] {null, "bn"});
+  }
+
+  @Test
+  public void testInnerJoin() throws HopException {
+    assertEquals(
+        Arrays.asList("a2x|b2", "a2|b2", "a3|b3", "a3|b3x"),
+        join("INNER", null, oneRows(), twoRows()));
+  }
+
+  @Test
+  public void testLeftOuterJoin() throws HopException {
+    assertEquals(
+        Arrays.asList("a1|-", "a2x|b2", "a2|b2", "a3|b3", "a3|b3x", "an|-"),
+        join("LEFT OUTER", null, oneRows(), twoRows()));
+  }
+
+  @Test
+  public void testRightOuterJoin() throws HopException {
+    assertEquals(
+        Arrays.asList("-|b4", "-|bn", "a2x|b2", "a2|b2", "a3|b3", "a3|b3x"),
+        join("RIGHT OUTER", null, oneRows(), twoRows()));
+  }
+
+  @Test
+  public void testFullOuterJoin() throws HopException {
+    assertEquals(
+        Arrays.asList("-|b4", "-|bn", "a1|-", "a2x|b2", "a2|b2", "a3|b3", "a3|b3x", "an|-"),
+        join("FULL OUTER", null, oneRows(), twoRows()));
+  }
+
+  @Test
+  public void testInnerJoinIgnoringCaseAndWhitespace() throws HopException {
+    ValueMetaString idMeta = new ValueMetaString("id");
+    idMeta.setCaseInsensitive(true);
+    idMeta.setIgnoreWhitespace(true);
+    List<Object[]> oneRows =
+        TransformMockHelper.asList(new Object[] {"ABC ", "a1"}, new Object[] {"abd", "a2"});
+    List<Object[]> twoRows =
+        TransformMockHelper.asList(new Object[] {"abc", "b1"}, new Object[] {" ABE", "b2"});
+
+    // "ABC " and "abc" compare as equal, so they have to land in the same bucket
+    assertEquals(Collections.singletonList("a1|b1"), join("INNER", null, idMeta, oneRows, twoRows));
+  }
+
+  @Test
+  public void testFullOuterJoinSpillingToDisk() throws HopException {
+    // With a budget of 1 MB the rows of the second stream don't fit in memory
+    List<Object[]> oneRows = new ArrayList<>();
+    List<Object[]> twoRows = new ArrayList<>();
+    for (long id = 0; id < 20000; id++) {
+      oneRows.add(new Object[] {id + 10000, "a" + (id + 10000)});
+      twoRows.add(new Object[] {id, "b" + id});
+    }
+
+    List<String> joined = join("FULL OUTER", "1", oneRows, twoRows);
+
+    assertEquals(30000, joined.size());
+    int matched = 0;
+    int onlyOne = 0;
+    int onlyTwo = 0;
+    for (String row : joined) {
+      String[] values = row.split("\\|");
+      if (values[0].equals("-")) {
+        onlyTwo++;
+        assertTrue(Long.parseLong(values[1].substring(1)) < 10000);
+      } else if (values[1].equals("-")) {
+        onlyOne++;
+        assertTrue(Long.parseLong(values[0].substring(1)) >= 20000);
+      } else {
+        matched++;
+        assertEquals(values[0].substring(1), values[1].substring(1));
+      }
+    }
+    assertEquals(10000, matched);
+    assertEquals(10000, onlyOne);
+    assertEquals(10000, onlyTwo);
+  }
+
+  @Test
+  public void testSpilledPartitionReadsRowsBack() throws HopException {
+    IRowMeta buildMeta = new RowMeta();
+    buildMeta.addValueMeta(new ValueMetaInteger("id"));
+    buildMeta.addValueMeta(new ValueMetaString("name"));
+    IRowMeta probeMeta = new RowMeta();
+    probeMeta.addValueMeta(new ValueMetaString("id"));
+
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    String directory = System.getProperty("java.io.tmpdir");
+    HashJoinPartition partition = new HashJoinPartition(1);
+    try {
+      partition.add(new JoinKey(keyMeta, new Object[] {1L}), new Object[] {1L, "a"}, 100L);
+      partition.add(new JoinKey(keyMeta, new Object[] {1L}), new Object[] {1L, "b"}, 100L);
+      assertEquals(2L, partition.getNrRows());
+      assertNotNull(partition.get(new JoinKey(keyMeta, new Object[] {1L})));
+
+      partition.spill(directory, "hjoin-test", buildMeta);
+      assertTrue(partition.isSpilled());
+      assertEquals(0L, partition.getMemorySize());
+      partition.writeBuildRow(buildMeta, new Object[] {2L, null});
+      partition.finishBuilding();
+      assertFalse(partition.hasProbeRows());
+      partition.writeProbeRow(directory, "hjoin-test", probeMeta, new Object[] {"1"});
+      partition.finishProbing();
+      assertTrue(partition.hasProbeRows());
+
+      assertArrayEquals(new Object[] {1L, "a"}, partition.readBuildRow(buildMeta));
+      assertArrayEquals(new Object[] {1L, "b"}, partition.readBuildRow(buildMeta));
+      assertArrayEquals(new Object[] {2L, null}, partition.readBuildRow(buildMeta));
+      assertNull(partition.readBuildRow(buildMeta));
+      assertArrayEquals(new Object[] {"1"}, partition.readProbeRow(probeMeta));
+      assertNull(partition.readProbeRow(probeMeta));
+    } finally {
+      partition.delete();
+    }
+  }
+}
@@ -20,6 +20,8 @@ package org.apache.hop.pipeline.transforms.joinrows;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.memory.RowSizeEstimator;
+import org.apache.hop.core.memory.SpillMemoryManager;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.i18n.BaseMessages;
@@ -79,6 +81,8 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
       data.joinrow = new Object[rowSetsSize][];
       data.rs = new IRowSet[rowSetsSize];
       data.cache = new List[rowSetsSize];
+      data.cacheBytes = new long[rowSetsSize];
+      data.memoryBudget = SpillMemoryManager.getInstance().createBudget(-1L);
       data.position = new int[rowSetsSize];
       data.fileOutputStream = new FileOutputStream[rowSetsSize];
       data.dataOutputStream = new DataOutputStream[rowSetsSize];
@@ -402,14 +406,8 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
       //
       // Perhaps we want to cache this data??
       //
-      if (data.size[data.filenr] <= meta.getCacheSize()) {
-        if (data.cache[data.filenr] == null) {
-          data.cache[data.filenr] = new ArrayList<>();
-        }
-
-        // Add this row to the cache!
-        data.cache[data.filenr].add(rowData);
-      } else {
+      long rowSize = RowSizeEstimator.estimateRowSize(rowData);
+      if (data.size[data.filenr] > meta.getCacheSize()) {
         // we can't cope with this many rows: reset the cache...
         if (log.isDetailed()) {
           logDetailed(
@@ -419,7 +417,25 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
                   meta.getCacheSize() + "",
                   data.rs[data.filenr].getOriginTransformName()));
         }
-        data.cache[data.filenr] = null;
+        clearCache(data.filenr);
+      } else if (data.cacheBytes[data.filenr] >= 0 && !data.memoryBudget.tryReserve(rowSize)) {
+        // the rows don't fit in memory: read them back from the temporary file
+        if (log.isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG,
+                  "JoinRows.Log.CacheMemoryExceeded",
+                  data.rs[data.filenr].getOriginTransformName()));
+        }
+        clearCache(data.filenr);
+      } else if (data.cacheBytes[data.filenr] >= 0) {
+        if (data.cache[data.filenr] == null) {
+          data.cache[data.filenr] = new ArrayList<>();
+        }
+
+        // Add this row to the cache!
+        data.cache[data.filenr].add(rowData);
+        data.cacheBytes[data.filenr] += rowSize;
       }
 
     } else {
@@ -456,8 +472,21 @@ public class JoinRows extends BaseTransform<JoinRowsMeta, JoinRowsData> {
     return outputRowMeta;
   }
 
+  /** Stop caching the rows of a file and give back the memory they took */
+  private void clearCache(int filenr) {
+    if (data.cacheBytes[filenr] > 0) {
+      data.memoryBudget.release(data.cacheBytes[filenr]);
+      data.memoryBudget.releaseUnused();
+    }
+    data.cacheBytes[filenr] = -1L;
+    data.cache[filenr] = null;
+  }
+
   @Override
   public void dispose() {
+    if (data.memoryBudget != null) {
+      data.memoryBudget.close();
+    }
 
     // Remove the temporary files...
     if (data.file != null) {
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.joinrows;
 
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.memory.MemoryBudget;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -37,6 +38,12 @@ public class JoinRowsData extends BaseTransformData implements ITransformData {
   public IRowSet[] rs;
   public List<Object[]>[] cache;
 
+  /** The estimated memory of the cached rows per file, -1 once the rows don't fit in the cache */
+  public long[] cacheBytes;
+
+  /** The memory the cached rows are allowed to take */
+  public MemoryBudget memoryBudget;
+
   public boolean caching;
 
   public FileOutputStream[] fileOutputStream;
@@ -24,4 +24,13 @@ public class Aggregate {
   public long[] counts;
   public Set<Object>[] distinctObjs;
   public double[] mean;
+
+  /** The sums of Integer subjects, kept unboxed. Allocated by the first sum. */
+  public long[] longSums;
+
+  /**
+   * The sums of Number subjects and the sums of squared differences of standard deviations, kept
+   * unboxed. Allocated by the first sum.
+   */
+  public double[] doubleSums;
 }
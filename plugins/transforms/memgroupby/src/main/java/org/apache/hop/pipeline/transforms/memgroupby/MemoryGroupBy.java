@@ -21,6 +21,9 @@ import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.memory.RowSizeEstimator;
+import org.apache.hop.core.memory.SpillFile;
+import org.apache.hop.core.memory.SpillMemoryManager;
 import org.apache.hop.core.row.*;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
@@ -40,6 +43,18 @@ import java.util.*;
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class; // For Translator
 
+  /** Below this number of groups in memory the memory budget is overdrawn instead of spilling */
+  static final int MIN_GROUPS_IN_MEMORY = 1000;
+
+  /** The map node, hash entry and aggregate of a group, without the arrays of the aggregate */
+  private static final long GROUP_OVERHEAD = 96L;
+
+  /** A value of a median or percentile: a Double and its slot in the list */
+  private static final long LIST_VALUE_SIZE = 24L;
+
+  /** A value of a distinct count: a tree node, without the value */
+  private static final long DISTINCT_VALUE_SIZE = 40L;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -145,6 +160,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.groupAggMeta = new RowMeta();
       data.groupAggMeta.addRowMeta(data.groupMeta);
       data.groupAggMeta.addRowMeta(data.aggMeta);
+
+      data.aggregateSize = estimateAggregateSize();
     }
 
     // Here is where we start to do the real work...
@@ -173,29 +190,22 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   }
 
   private void handleLastOfGroup() throws HopException {
+    boolean noGroups = data.map.isEmpty() && !data.spilling;
+
     // Dump the content of the map...
     //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
+    putAggregates();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
-      }
-      putRow(data.outputRowMeta, outputRowData);
+    // Then the groups which didn't fit in memory, one spill partition at a time
+    //
+    if (data.spilling) {
+      aggregateSpillPartitions();
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (noGroups && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -214,6 +224,156 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private void putAggregates() throws HopException {
+    for (Map.Entry<HashEntry, Aggregate> mapEntry : data.map.entrySet()) {
+      HashEntry entry = mapEntry.getKey();
+      Object[] aggregateResult = getAggregateResult(mapEntry.getValue());
+
+      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      int index = 0;
+      for (int i = 0; i < data.groupMeta.size(); i++) {
+        outputRowData[index++] =
+            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
+      }
+      for (int i = 0; i < data.aggMeta.size(); i++) {
+        outputRowData[index++] =
+            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      }
+      putRow(data.outputRowMeta, outputRowData);
+    }
+  }
+
+  /**
+   * Aggregate the spill partitions one at a time, after the groups in memory are passed on. The
+   * groups of a partition which don't fit in memory either are spilled again to partitions of the
+   * next level.
+   */
+  private void aggregateSpillPartitions() throws HopException {
+    finishSpillPartitions();
+
+    while (!data.pendingPartitions.isEmpty() && !isStopped()) {
+      SpillFile partition = data.pendingPartitions.pop();
+      data.map.clear();
+      data.memoryBudget.releaseAll();
+      data.spillLevel = partition.getLevel() + 1;
+
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "MemoryGroupBy.Log.AggregatingSpillPartition",
+                partition.getRowCount(),
+                partition.getLevel()));
+      }
+      try {
+        Object[] row = partition.readRow(data.inputRowMeta);
+        while (row != null) {
+          addToAggregate(row);
+          row = partition.readRow(data.inputRowMeta);
+        }
+      } finally {
+        partition.delete();
+      }
+      finishSpillPartitions();
+
+      putAggregates();
+    }
+
+    data.map.clear();
+    data.memoryBudget.releaseAll();
+    data.spillLevel = 0;
+  }
+
+  /** Close the spill partitions being written, they are aggregated next. */
+  private void finishSpillPartitions() throws HopException {
+    for (int i = 0; i < data.spillPartitions.length; i++) {
+      SpillFile partition = data.spillPartitions[i];
+      if (partition != null) {
+        partition.finishWriting();
+        data.pendingPartitions.push(partition);
+        data.spillPartitions[i] = null;
+      }
+    }
+    data.spilling = false;
+  }
+
+  /**
+   * Reserve the memory of a new group.
+   *
+   * @return true if the group can be kept in memory, false if its rows have to be spilled
+   */
+  private boolean reserveGroup(Object[] groupData, Object[] r) {
+    if (data.memoryBudget == null) {
+      return true;
+    }
+    if (data.spilling) {
+      // A spilled group can't be kept in memory later on, so all new groups are spilled
+      return false;
+    }
+    long size = estimateGroupSize(groupData, r);
+    if (data.map.size() < MIN_GROUPS_IN_MEMORY
+        || data.spillLevel > SpillMemoryManager.MAX_SPILL_LEVEL) {
+      // Not worth a temp file or no hash bits left to split the groups any further
+      data.memoryBudget.forceReserve(size);
+      return true;
+    }
+    if (data.memoryBudget.tryReserve(size)) {
+      return true;
+    }
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "MemoryGroupBy.Log.SpillingGroups", data.map.size(), data.spillLevel));
+    }
+    data.spilling = true;
+    return false;
+  }
+
+  private void spillRow(HashEntry entry, Object[] r) throws HopException {
+    int partitionNr =
+        SpillMemoryManager.getSpillPartitionNr(entry.hashCode(), data.spillLevel);
+    SpillFile partition = data.spillPartitions[partitionNr];
+    if (partition == null) {
+      partition = new SpillFile(resolve(meta.getDirectory()), meta.getPrefix(), data.spillLevel);
+      data.spillPartitions[partitionNr] = partition;
+    }
+    partition.writeRow(data.inputRowMeta, r);
+  }
+
+  /** @return the estimated number of bytes of a group in the map without its values */
+  private long estimateAggregateSize() {
+    long nrSubjects = data.subjectnrs.length;
+    // the agg array plus the counts array and an array of sums
+    return GROUP_OVERHEAD + (16L + 4L * nrSubjects) + 2L * (16L + 8L * nrSubjects);
+  }
+
+  private long estimateGroupSize(Object[] groupData, Object[] r) {
+    long size = data.aggregateSize + RowSizeEstimator.estimateRowSize(groupData);
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      switch (meta.getAggregateType()[i]) {
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST:
+        case MemoryGroupByMeta.TYPE_GROUP_LAST:
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL:
+        case MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL:
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          size += RowSizeEstimator.estimateValueSize(r[data.subjectnrs[i]]);
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
+        case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
+          // the empty list, set or string builder
+          size += 64L;
+          break;
+        default:
+          break;
+      }
+    }
+    return size;
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -231,6 +391,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     Aggregate aggregate = data.map.get(entry);
     if (aggregate == null) {
+      if (!reserveGroup(groupData, r)) {
+        // This group doesn't fit in memory, it is aggregated after the groups in memory
+        //
+        spillRow(entry, r);
+        return;
+      }
+
       // Create a new value...
       //
       aggregate = new Aggregate();
@@ -241,6 +408,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       data.map.put(entry, aggregate);
     }
 
+    // The memory the values of lists, sets and strings add to the aggregate
+    long growth = 0L;
+
     for (int i = 0; i < data.subjectnrs.length; i++) {
       Object subj = r[data.subjectnrs[i]];
       IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
@@ -249,10 +419,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
       switch (meta.getAggregateType()[i]) {
         case MemoryGroupByMeta.TYPE_GROUP_SUM:
-          aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+          if (!addToPrimitiveSum(aggregate, i, subjMeta, subj)) {
+            aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
+          }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
-          if (!subjMeta.isNull(subj)) {
+          if (!subjMeta.isNull(subj) && !addToPrimitiveSum(aggregate, i, subjMeta, subj)) {
             aggregate.agg[i] = ValueDataUtil.sum(valueMeta, value, subjMeta, subj);
             aggregate.counts[i]++;
           }
@@ -261,17 +433,20 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
           if (!subjMeta.isNull(subj)) {
             ((List<Double>) aggregate.agg[i]).add(subjMeta.getNumber(subj));
+            growth += LIST_VALUE_SIZE;
           }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
           if (aggregate.mean == null) {
             aggregate.mean = new double[meta.getSubjectField().length];
           }
+          if (aggregate.doubleSums == null) {
+            aggregate.doubleSums = new double[data.subjectnrs.length];
+          }
           aggregate.counts[i]++;
           double n = aggregate.counts[i];
           double x = subjMeta.getNumber(subj);
-          // for standard deviation null is exact 0
-          double sum = value == null ? Double.valueOf(0) : (Double) value;
+          double sum = aggregate.doubleSums[i];
           double mean = aggregate.mean[i];
 
           double delta = x - mean;
@@ -279,7 +454,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           sum = sum + delta * (x - mean);
 
           aggregate.mean[i] = mean;
-          aggregate.agg[i] = sum;
+          aggregate.doubleSums[i] = sum;
           break;
         case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
           if (aggregate.distinctObjs == null) {
@@ -296,8 +471,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
             if (obj instanceof byte[]) {
               obj = new String((byte[]) obj);
             }
-            if (!aggregate.distinctObjs[i].contains(obj)) {
-              aggregate.distinctObjs[i].add(obj);
+            if (aggregate.distinctObjs[i].add(obj)) {
+              growth += DISTINCT_VALUE_SIZE + RowSizeEstimator.estimateValueSize(obj);
             }
           }
           aggregate.counts[i] = aggregate.distinctObjs[i].size();
@@ -348,10 +523,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
           if (subj != null) {
             StringBuilder sb = (StringBuilder) value;
+            int capacity = sb.capacity();
             if (sb.length() > 0) {
               sb.append(", ");
             }
             sb.append(subjMeta.getString(subj));
+            growth += sb.capacity() - capacity;
           }
           break;
         case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
@@ -361,16 +538,69 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
               separator = resolve(meta.getValueField()[i]);
             }
             StringBuilder sb = (StringBuilder) value;
+            int capacity = sb.capacity();
             if (sb.length() > 0) {
               sb.append(separator);
             }
             sb.append(subjMeta.getString(subj));
+            growth += sb.capacity() - capacity;
           }
           break;
         default:
           break;
       }
     }
+
+    if (growth > 0 && data.memoryBudget != null) {
+      // The group is in memory already, its values can't be spilled
+      data.memoryBudget.forceReserve(growth);
+    }
+  }
+
+  /**
+   * Add a subject to the unboxed sum of an aggregate. The count of the aggregate is the number of
+   * values in the sum, there is no sum without values.
+   *
+   * @return false if the subject is no Integer or Number, it has to be added to the boxed sum
+   */
+  private boolean addToPrimitiveSum(Aggregate aggregate, int i, IValueMeta subjMeta, Object subj)
+      throws HopValueException {
+    switch (subjMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        Long integer = subjMeta.getInteger(subj);
+        if (integer != null) {
+          if (aggregate.longSums == null) {
+            aggregate.longSums = new long[data.subjectnrs.length];
+          }
+          aggregate.longSums[i] += integer;
+          aggregate.counts[i]++;
+        }
+        return true;
+      case IValueMeta.TYPE_NUMBER:
+        Double number = subjMeta.getNumber(subj);
+        if (number != null) {
+          if (aggregate.doubleSums == null) {
+            aggregate.doubleSums = new double[data.subjectnrs.length];
+          }
+          aggregate.doubleSums[i] += number;
+          aggregate.counts[i]++;
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /** @return the sum of a sum or average aggregate, null if there are no values */
+  private Object getSum(Aggregate aggregate, int i) {
+    switch (data.inputRowMeta.getValueMeta(data.subjectnrs[i]).getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return aggregate.counts[i] == 0 ? null : Long.valueOf(aggregate.longSums[i]);
+      case IValueMeta.TYPE_NUMBER:
+        return aggregate.counts[i] == 0 ? null : Double.valueOf(aggregate.doubleSums[i]);
+      default:
+        return aggregate.agg[i];
+    }
   }
 
   /**
@@ -392,7 +622,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       }
       aggregate.distinctObjs = null;
       aggregate.agg = new Object[data.subjectnrs.length];
-      aggregate.mean = new double[data.subjectnrs.length]; // sets all doubles to 0.0
+      // Allocated when a standard deviation or sum needs them
+      aggregate.mean = null;
+      aggregate.longSums = null;
+      aggregate.doubleSums = null;
     }
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
@@ -417,6 +650,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
           vMeta = subjMeta.isNumeric() ? subjMeta.clone() : new ValueMetaNumber();
           vMeta.setName(meta.getAggregateField()[i]);
+          // The sums are calculated from the native values of the subjects
+          vMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
           break;
         case MemoryGroupByMeta.TYPE_GROUP_FIRST:
         case MemoryGroupByMeta.TYPE_GROUP_LAST:
@@ -484,12 +719,13 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         Object ag = aggregate.agg[i];
         switch (meta.getAggregateType()[i]) {
           case MemoryGroupByMeta.TYPE_GROUP_SUM:
+            ag = getSum(aggregate, i);
             break;
           case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
             ag =
                 ValueDataUtil.divide(
                     data.aggMeta.getValueMeta(i),
-                    ag,
+                    getSum(aggregate, i),
                     new ValueMetaInteger("c"),
                     aggregate.counts[i]);
             break;
@@ -517,7 +753,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           case MemoryGroupByMeta.TYPE_GROUP_MAX:
             break;
           case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
-            double sum = (Double) ag / aggregate.counts[i];
+            double sum = aggregate.doubleSums[i] / aggregate.counts[i];
             ag = Double.valueOf(Math.sqrt(sum));
             break;
           case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
@@ -544,6 +780,11 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     if (super.init()) {
       data.map = new HashMap<>(5000);
+
+      data.memoryBudget =
+          SpillMemoryManager.getInstance().createBudgetMb(resolve(meta.getMemoryLimit()));
+      data.spillPartitions = new SpillFile[SpillMemoryManager.NR_SPILL_PARTITIONS];
+      data.pendingPartitions = new ArrayDeque<>();
       return true;
     }
     return false;
@@ -551,6 +792,26 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
   @Override
   public void dispose() {
+    // Remove the temp files left behind when the pipeline is stopped
+    //
+    if (data.spillPartitions != null) {
+      for (SpillFile partition : data.spillPartitions) {
+        if (partition != null) {
+          partition.delete();
+        }
+      }
+      data.spillPartitions = null;
+    }
+    if (data.pendingPartitions != null) {
+      for (SpillFile partition : data.pendingPartitions) {
+        partition.delete();
+      }
+      data.pendingPartitions = null;
+    }
+    if (data.memoryBudget != null) {
+      data.memoryBudget.close();
+      data.memoryBudget = null;
+    }
     super.dispose();
     ((MemoryGroupByData) data).clear();
   }
@@ -564,6 +825,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     // Clear the complete cache...
     //
     data.map.clear();
+    if (data.memoryBudget != null) {
+      data.memoryBudget.releaseAll();
+    }
 
     data.newBatch = true;
   }
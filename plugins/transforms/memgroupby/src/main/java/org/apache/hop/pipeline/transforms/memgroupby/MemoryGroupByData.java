@@ -18,11 +18,14 @@
 package org.apache.hop.pipeline.transforms.memgroupby;
 
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.memory.MemoryBudget;
+import org.apache.hop.core.memory.SpillFile;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import java.util.Deque;
 import java.util.HashMap;
 
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
@@ -89,6 +92,24 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** The memory taken by the groups in the map */
+  public MemoryBudget memoryBudget;
+
+  /** The estimated number of bytes of an aggregate without the values it holds */
+  public long aggregateSize;
+
+  /** True once a new group didn't fit in memory: the rows of new groups go to spill partitions */
+  public boolean spilling;
+
+  /** The level of the spill partitions being written, 0 while reading the input rows */
+  public int spillLevel;
+
+  /** The spill partitions being written, by partition number */
+  public SpillFile[] spillPartitions;
+
+  /** The written spill partitions waiting to be aggregated */
+  public Deque<SpillFile> pendingPartitions;
+
   public MemoryGroupByData() {
     super();
   }
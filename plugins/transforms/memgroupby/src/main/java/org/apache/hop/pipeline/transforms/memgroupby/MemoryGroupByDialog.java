@@ -31,6 +31,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -54,6 +55,12 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
 
   private Button wAlwaysAddResult;
 
+  private TextVar wTempDir;
+
+  private Text wPrefix;
+
+  private TextVar wMemoryLimit;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -139,12 +146,98 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // Temp files directory line...
+    //
+    Label wlTempDir = new Label(shell, SWT.RIGHT);
+    wlTempDir.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.TempDir.Label"));
+    props.setLook(wlTempDir);
+    FormData fdlTempDir = new FormData();
+    fdlTempDir.left = new FormAttachment(0, 0);
+    fdlTempDir.right = new FormAttachment(middle, -margin);
+    fdlTempDir.top = new FormAttachment(wAlwaysAddResult, margin);
+    wlTempDir.setLayoutData(fdlTempDir);
+
+    Button wbTempDir = new Button(shell, SWT.PUSH | SWT.CENTER);
+    props.setLook(wbTempDir);
+    wbTempDir.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Browse.Button"));
+    FormData fdbTempDir = new FormData();
+    fdbTempDir.right = new FormAttachment(100, 0);
+    fdbTempDir.top = new FormAttachment(wAlwaysAddResult, margin);
+    wbTempDir.setLayoutData(fdbTempDir);
+
+    wTempDir = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wTempDir);
+    wTempDir.addModifyListener(lsMod);
+    FormData fdTempDir = new FormData();
+    fdTempDir.left = new FormAttachment(middle, 0);
+    fdTempDir.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdTempDir.right = new FormAttachment(wbTempDir, -margin);
+    wTempDir.setLayoutData(fdTempDir);
+
+    wbTempDir.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent arg0) {
+            DirectoryDialog dd = new DirectoryDialog(shell, SWT.NONE);
+            dd.setFilterPath(wTempDir.getText());
+            String dir = dd.open();
+            if (dir != null) {
+              wTempDir.setText(dir);
+            }
+          }
+        });
+
+    // Whenever something changes, set the tooltip to the expanded version:
+    wTempDir.addModifyListener(e -> wTempDir.setToolTipText(variables.resolve(wTempDir.getText())));
+
+    // Prefix line...
+    //
+    Label wlPrefix = new Label(shell, SWT.RIGHT);
+    wlPrefix.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.FilePrefix.Label"));
+    props.setLook(wlPrefix);
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment(0, 0);
+    fdlPrefix.right = new FormAttachment(middle, -margin);
+    fdlPrefix.top = new FormAttachment(wbTempDir, margin);
+    wlPrefix.setLayoutData(fdlPrefix);
+    wPrefix = new Text(shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wPrefix);
+    wPrefix.addModifyListener(lsMod);
+    FormData fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment(middle, 0);
+    fdPrefix.top = new FormAttachment(wbTempDir, margin);
+    fdPrefix.right = new FormAttachment(100, 0);
+    wPrefix.setLayoutData(fdPrefix);
+
+    // Memory limit line...
+    //
+    Label wlMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlMemoryLimit.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.Label"));
+    wlMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.ToolTip"));
+    props.setLook(wlMemoryLimit);
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment(0, 0);
+    fdlMemoryLimit.right = new FormAttachment(middle, -margin);
+    fdlMemoryLimit.top = new FormAttachment(wPrefix, margin);
+    wlMemoryLimit.setLayoutData(fdlMemoryLimit);
+    wMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.MemoryLimit.ToolTip"));
+    props.setLook(wMemoryLimit);
+    wMemoryLimit.addModifyListener(lsMod);
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment(middle, 0);
+    fdMemoryLimit.top = new FormAttachment(wPrefix, margin);
+    fdMemoryLimit.right = new FormAttachment(100, 0);
+    wMemoryLimit.setLayoutData(fdMemoryLimit);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     props.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wMemoryLimit, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int nrKeyCols = 1;
@@ -311,6 +404,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wTempDir.setText(Const.NVL(input.getDirectory(), ""));
+    wPrefix.setText(Const.NVL(input.getPrefix(), ""));
+    wMemoryLimit.setText(Const.NVL(input.getMemoryLimit(), ""));
 
     if (input.getGroupField() != null) {
       for (int i = 0; i < input.getGroupField().length; i++) {
@@ -362,6 +458,9 @@ public class MemoryGroupByDialog extends BaseTransformDialog implements ITransfo
     int nrFields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setDirectory(wTempDir.getText());
+    input.setPrefix(wPrefix.getText());
+    input.setMemoryLimit(wMemoryLimit.getText());
 
     input.allocate(sizegroup, nrFields);
 
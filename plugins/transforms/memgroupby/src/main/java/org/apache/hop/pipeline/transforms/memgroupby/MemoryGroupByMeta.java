@@ -113,6 +113,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     "COUNT_ANY",
   };
 
+  public static final String DEFAULT_DIRECTORY = "${java.io.tmpdir}";
+
+  public static final String DEFAULT_PREFIX = "mgrp";
+
   public static final String[] typeGroupLongDesc = {
     "-",
     BaseMessages.getString(PKG, "MemoryGroupByMeta.TypeGroupLongDesc.SUM"),
@@ -157,6 +161,18 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
   /** Flag to indicate that we always give back one row. Defaults to true for existing pipelines. */
   private boolean alwaysGivingBackOneRow;
 
+  /** Directory to store the temp files of the groups which don't fit in memory */
+  @Injection(name = "DIRECTORY")
+  private String directory;
+
+  /** Temp files prefix... */
+  @Injection(name = "PREFIX")
+  private String prefix;
+
+  /** The maximum memory in MB to keep groups in before writing rows to temporary files */
+  @Injection(name = "MEMORY_LIMIT")
+  private String memoryLimit;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -297,6 +313,11 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       } else {
         alwaysGivingBackOneRow = "Y".equalsIgnoreCase(giveBackRow);
       }
+
+      directory =
+          Const.NVL(XmlHandler.getTagValue(transformNode, "directory"), DEFAULT_DIRECTORY);
+      prefix = Const.NVL(XmlHandler.getTagValue(transformNode, "prefix"), DEFAULT_PREFIX);
+      memoryLimit = XmlHandler.getTagValue(transformNode, "memory_limit");
     } catch (Exception e) {
       throw new HopXmlException(
           BaseMessages.getString(
@@ -335,6 +356,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
 
   @Override
   public void setDefault() {
+    directory = DEFAULT_DIRECTORY;
+    prefix = DEFAULT_PREFIX;
+    memoryLimit = null;
+
     int sizegroup = 0;
     int nrFields = 0;
 
@@ -457,6 +482,9 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     StringBuilder retval = new StringBuilder(500);
 
     retval.append("      ").append(XmlHandler.addTagValue("give_back_row", alwaysGivingBackOneRow));
+    retval.append("      ").append(XmlHandler.addTagValue("directory", directory));
+    retval.append("      ").append(XmlHandler.addTagValue("prefix", prefix));
+    retval.append("      ").append(XmlHandler.addTagValue("memory_limit", memoryLimit));
 
     retval.append("      <group>").append(Const.CR);
     for (int i = 0; i < groupField.length; i++) {
@@ -526,6 +554,48 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return the directory to store the temp files of the groups which don't fit in memory
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory the directory to store the temp files of the groups which don't fit in memory
+   */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the prefix of the temp files
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @param prefix the prefix of the temp files
+   */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * @return the maximum memory in MB to keep groups in
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit the maximum memory in MB to keep groups in
+   */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
   /**
    * If we use injection we can have different arrays lengths. We need synchronize them for
    * consistency behavior with UI
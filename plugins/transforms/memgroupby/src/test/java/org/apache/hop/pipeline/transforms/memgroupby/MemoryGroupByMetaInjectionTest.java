@@ -38,5 +38,8 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
     check("AGGREGATETYPE", () -> meta.getAggregateType()[0]);
     check("VALUEFIELD", () -> meta.getValueField()[0]);
     check("ALWAYSGIVINGBACKONEROW", () -> meta.isAlwaysGivingBackOneRow());
+    check("DIRECTORY", () -> meta.getDirectory());
+    check("PREFIX", () -> meta.getPrefix());
+    check("MEMORY_LIMIT", () -> meta.getMemoryLimit());
   }
 }
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  static TransformMockHelper<MemoryGroupByMeta, MemoryGroupByData> mockHelper;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    mockHelper =
+        new TransformMockHelper<>(
+            "Memory Group By", MemoryGroupByMeta.class, MemoryGroupByData.class);
+    when(mockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(mockHelper.iLogChannel);
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+  }
+
+  @AfterClass
+  public static void cleanUp() {
+    mockHelper.cleanUp();
+  }
+
+  @Test
+  public void testUnboxedSums() throws HopException {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setDefault();
+    meta.allocate(1, 3);
+    meta.setGroupField(new String[] {"group"});
+    meta.setSubjectField(new String[] {"integer", "integer", "number"});
+    meta.setAggregateField(new String[] {"sum", "average", "sum_number"});
+    meta.setAggregateType(
+        new int[] {
+          MemoryGroupByMeta.TYPE_GROUP_SUM,
+          MemoryGroupByMeta.TYPE_GROUP_AVERAGE,
+          MemoryGroupByMeta.TYPE_GROUP_SUM
+        });
+    when(mockHelper.transformMeta.getTransform()).thenReturn(meta);
+
+    IRowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta(new ValueMetaString("group"));
+    inputRowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    inputRowMeta.addValueMeta(new ValueMetaNumber("number"));
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.inputRowMeta = inputRowMeta;
+    data.groupnrs = new int[] {0};
+    data.subjectnrs = new int[] {1, 1, 2};
+    data.groupMeta = new RowMeta();
+    data.groupMeta.addValueMeta(inputRowMeta.getValueMeta(0));
+    data.map = new HashMap<>();
+
+    MemoryGroupBy transform =
+        new MemoryGroupBy(
+            mockHelper.transformMeta, meta, data, 0, mockHelper.pipelineMeta, mockHelper.pipeline);
+    transform.newAggregate(null, null);
+
+    transform.addToAggregate(new Object[] {"a", 1L, 2.0});
+    transform.addToAggregate(new Object[] {"a", null, null});
+    transform.addToAggregate(new Object[] {"a", 4L, 4.0});
+    transform.addToAggregate(new Object[] {"b", null, null});
+
+    Aggregate aggregate = data.map.get(data.getHashEntry(new Object[] {"a"}));
+    // The sums are kept unboxed
+    assertNull(aggregate.agg[0]);
+    assertNull(aggregate.agg[2]);
+
+    Object[] result = transform.getAggregateResult(aggregate);
+    assertEquals(5L, result[0]);
+    assertEquals(2L, result[1]);
+    assertEquals(6.0, result[2]);
+
+    // A sum without values is null, not 0
+    result = transform.getAggregateResult(data.map.get(data.getHashEntry(new Object[] {"b"})));
+    assertNull(result[0]);
+    assertNull(result[1]);
+    assertNull(result[2]);
+  }
+}
@@ -357,24 +357,14 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
   @Override
   public boolean processRow() throws HopException {
-    Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
-    if (rowData == null) { // no more input to be expected...
+    // get rows from rowset, wait for our turn, indicate busy!
+    Object[][] rows = getRows(NR_OF_ROWS_IN_BATCH);
+    if (rows == null) { // no more input to be expected...
 
       setOutputDone();
       return false;
     }
 
-    Object[] rowCopy = null;
-    if (getTransformMeta().isDoingErrorHandling()) {
-      rowCopy = getInputRowMeta().cloneRow(rowData);
-    }
-
-    if (log.isRowLevel()) {
-      logRowlevel(
-          BaseMessages.getString(PKG, "SelectValues.Log.GotRowFromPreviousTransform")
-              + getInputRowMeta().getString(rowData));
-    }
-
     if (first) {
       first = false;
 
@@ -386,52 +376,74 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
       meta.getMetadataFields(data.metadataRowMeta, getTransformName(), this);
     }
 
-    try {
-      Object[] outputData = rowData;
+    Object[][] outputRows = new Object[rows.length][];
+    int nrOutputRows = 0;
+    long lineNr = getLinesRead() - rows.length;
 
-      if (data.select) {
-        outputData = selectValues(getInputRowMeta(), outputData);
-      }
-      if (data.deselect) {
-        outputData = removeValues(data.selectRowMeta, outputData);
-      }
-      if (data.metadata) {
-        outputData = metadataValues(data.deselectRowMeta, outputData);
-      }
+    for (Object[] rowData : rows) {
+      lineNr++;
 
-      if (outputData == null) {
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+      Object[] rowCopy = null;
+      if (getTransformMeta().isDoingErrorHandling()) {
+        rowCopy = getInputRowMeta().cloneRow(rowData);
       }
 
-      // Send the row on its way
-      //
-      putRow(data.metadataRowMeta, outputData);
       if (log.isRowLevel()) {
         logRowlevel(
-            BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
-                + data.metadataRowMeta.getString(outputData));
+            BaseMessages.getString(PKG, "SelectValues.Log.GotRowFromPreviousTransform")
+                + getInputRowMeta().getString(rowData));
       }
 
-    } catch (HopException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        String field;
-        if (e instanceof HopConversionException) {
-          List<IValueMeta> fields = ((HopConversionException) e).getFields();
-          field = fields.isEmpty() ? null : fields.get(0).getName();
+      try {
+        Object[] outputData = rowData;
+
+        if (data.select) {
+          outputData = selectValues(getInputRowMeta(), outputData);
+        }
+        if (data.deselect) {
+          outputData = removeValues(data.selectRowMeta, outputData);
+        }
+        if (data.metadata) {
+          outputData = metadataValues(data.deselectRowMeta, outputData);
+        }
+
+        if (outputData == null) {
+          putRows(data.metadataRowMeta, outputRows, nrOutputRows);
+          setOutputDone(); // signal end to receiver(s)
+          return false;
+        }
+
+        // Send the row on its way with the rest of the batch
+        //
+        outputRows[nrOutputRows++] = outputData;
+        if (log.isRowLevel()) {
+          logRowlevel(
+              BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
+                  + data.metadataRowMeta.getString(outputData));
+        }
+
+      } catch (HopException e) {
+        if (getTransformMeta().isDoingErrorHandling()) {
+          String field;
+          if (e instanceof HopConversionException) {
+            List<IValueMeta> fields = ((HopConversionException) e).getFields();
+            field = fields.isEmpty() ? null : fields.get(0).getName();
+          } else {
+            field = null;
+          }
+          putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001");
         } else {
-          field = null;
+          throw e;
         }
-        putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001");
-      } else {
-        throw e;
       }
-    }
 
-    if (checkFeedback(getLinesRead())) {
-      logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
+      if (checkFeedback(lineNr)) {
+        logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + lineNr);
+      }
     }
 
+    putRows(data.metadataRowMeta, outputRows, nrOutputRows);
+
     return true;
   }
 
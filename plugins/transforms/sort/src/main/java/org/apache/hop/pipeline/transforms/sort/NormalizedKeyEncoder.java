@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBase;
+
+import java.util.Arrays;
+
+/**
+ * Encodes the sort keys of a row into a normalized key: a byte array which compares, byte by byte
+ * and unsigned, like the row compares on those keys. Comparing two normalized keys is a lot cheaper
+ * than comparing the rows field by field, that's what the merge of the temporary files of the sort
+ * rows transform uses them for.
+ *
+ * <p>Every key field is encoded as a null marker followed by the value:
+ *
+ * <ul>
+ *   <li>Integer and Date: the 64 bits big endian with the sign bit flipped
+ *   <li>Number: the bits of the double, ordered like {@link Double#compare(double, double)}
+ *   <li>Boolean: a single byte
+ *   <li>String: the characters as 16 bits big endian, followed by a 0 character. Case insensitive
+ *       fields use the character {@link String#compareToIgnoreCase(String)} compares with.
+ * </ul>
+ *
+ * <p>The bytes of a field sorted descending are inverted. This puts null values last, like {@link
+ * IValueMeta#compare(Object, Object)} does.
+ *
+ * <p>Not every value can be normalized: strings compared with a collator, big numbers, binary
+ * values, other data types and values with a custom comparator can't. Neither can a string
+ * containing a 0 character. The key then stops at that value and is incomplete: when two keys are
+ * equal up to the length of the shortest one and one of them is incomplete the rows themselves need
+ * to be compared.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class NormalizedKeyEncoder {
+
+  private static final byte NULL_VALUE = 0;
+  private static final byte NOT_NULL_VALUE = 1;
+
+  private final IValueMeta[] valueMetas;
+  private final int[] fieldNrs;
+
+  /** The number of leading key fields which can be normalized */
+  private final int normalizedFields;
+
+  private byte[] key;
+  private int length;
+  private boolean complete;
+
+  /**
+   * @param rowMeta the layout of the rows to encode
+   * @param fieldNrs the indexes of the key fields in the rows
+   */
+  NormalizedKeyEncoder(IRowMeta rowMeta, int[] fieldNrs) {
+    this.fieldNrs = fieldNrs;
+    this.valueMetas = new IValueMeta[fieldNrs.length];
+    int nrNormalized = 0;
+    for (int i = 0; i < fieldNrs.length; i++) {
+      valueMetas[i] = rowMeta.getValueMeta(fieldNrs[i]);
+      if (nrNormalized == i && isNormalizable(valueMetas[i])) {
+        nrNormalized++;
+      }
+    }
+    this.normalizedFields = nrNormalized;
+    this.key = new byte[64];
+  }
+
+  /**
+   * @param valueMeta the metadata of a key field
+   * @return true if the values of the field can be normalized
+   */
+  static boolean isNormalizable(IValueMeta valueMeta) {
+    if (!(valueMeta instanceof ValueMetaBase)
+        || ((ValueMetaBase) valueMeta).getComparator() != null
+        || valueMeta.getStorageType() != IValueMeta.STORAGE_TYPE_NORMAL) {
+      return false;
+    }
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_STRING:
+        return valueMeta.isCollatorDisabled();
+      case IValueMeta.TYPE_INTEGER:
+      case IValueMeta.TYPE_NUMBER:
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_BOOLEAN:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Encode the keys of a row. The result is available with {@link #getKey()}, {@link #getLength()}
+   * and {@link #isComplete()} until the next row is encoded.
+   *
+   * @param row the row to encode
+   * @return the length of the normalized key
+   * @throws HopValueException in case a value can't be converted to its data type
+   */
+  int encode(Object[] row) throws HopValueException {
+    length = 0;
+    complete = normalizedFields == fieldNrs.length;
+    for (int i = 0; i < normalizedFields; i++) {
+      IValueMeta valueMeta = valueMetas[i];
+      Object data = row[fieldNrs[i]];
+      int start = length;
+      boolean encoded = true;
+      if (valueMeta.isNull(data)) {
+        putByte(NULL_VALUE);
+      } else {
+        putByte(NOT_NULL_VALUE);
+        switch (valueMeta.getType()) {
+          case IValueMeta.TYPE_STRING:
+            encoded = putString(valueMeta, valueMeta.getString(data));
+            break;
+          case IValueMeta.TYPE_INTEGER:
+            putLong(valueMeta.getInteger(data) ^ Long.MIN_VALUE);
+            break;
+          case IValueMeta.TYPE_NUMBER:
+            long bits = Double.doubleToLongBits(valueMeta.getNumber(data));
+            putLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+            break;
+          case IValueMeta.TYPE_DATE:
+            putLong(valueMeta.getDate(data).getTime() ^ Long.MIN_VALUE);
+            break;
+          default:
+            putByte(valueMeta.getBoolean(data) ? (byte) 1 : (byte) 0);
+            break;
+        }
+      }
+      if (valueMeta.isSortedDescending()) {
+        for (int b = start; b < length; b++) {
+          key[b] = (byte) ~key[b];
+        }
+      }
+      if (!encoded) {
+        complete = false;
+        break;
+      }
+    }
+    return length;
+  }
+
+  /** @return true if the string was encoded completely */
+  private boolean putString(IValueMeta valueMeta, String string) {
+    if (valueMeta.isIgnoreWhitespace()) {
+      string = string.trim();
+    }
+    boolean caseInsensitive = valueMeta.isCaseInsensitive();
+    ensureCapacity(2 * string.length() + 2);
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c == 0) {
+        // A 0 character would compare like the end of the string
+        return false;
+      }
+      if (caseInsensitive) {
+        if (Character.isSurrogate(c)) {
+          return false;
+        }
+        c = Character.toLowerCase(Character.toUpperCase(c));
+      }
+      key[length++] = (byte) (c >>> 8);
+      key[length++] = (byte) c;
+    }
+    key[length++] = 0;
+    key[length++] = 0;
+    return true;
+  }
+
+  private void putLong(long value) {
+    ensureCapacity(8);
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      key[length++] = (byte) (value >>> shift);
+    }
+  }
+
+  private void putByte(byte value) {
+    ensureCapacity(1);
+    key[length++] = value;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (length + extra > key.length) {
+      key = Arrays.copyOf(key, Math.max(2 * key.length, length + extra));
+    }
+  }
+
+  /** @return the buffer holding the last normalized key, it is reused for the next row */
+  byte[] getKey() {
+    return key;
+  }
+
+  /** @return the length of the last normalized key */
+  int getLength() {
+    return length;
+  }
+
+  /** @return true if the last normalized key covers all the key fields */
+  boolean isComplete() {
+    return complete;
+  }
+
+  /** @return the number of leading key fields which are normalized */
+  int getNormalizedFields() {
+    return normalizedFields;
+  }
+
+  /**
+   * Compare two normalized keys up to the length of the shortest one.
+   *
+   * @return a negative number, 0 or a positive number if key a is smaller, equal or larger than
+   *     key b over the length of the shortest key. Two complete keys which compare equal belong to
+   *     equal rows.
+   */
+  static int compare(byte[] a, byte[] b) {
+    int common = Math.min(a.length, b.length);
+    int i = Arrays.mismatch(a, 0, common, b, 0, common);
+    if (i < 0) {
+      return 0;
+    }
+    return Byte.toUnsignedInt(a[i]) - Byte.toUnsignedInt(b[i]);
+  }
+}
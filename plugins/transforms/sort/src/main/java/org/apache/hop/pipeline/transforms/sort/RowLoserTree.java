@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.util.Comparator;
+
+/**
+ * A tournament tree of losers to merge the rows of a number of sorted sources, like the temporary
+ * files of the sort rows transform. Every internal node of the tree remembers the source which lost
+ * the match played at that node, the overall winner is kept separately. When the next row of the
+ * winning source is known only the matches on the path from that source to the root are replayed:
+ * that's log2(k) comparisons per row for k sources.
+ *
+ * <p>An exhausted source (a null row) loses against everything. On equal rows the source with the
+ * lowest number wins so the merge is stable.
+ *
+ * @param <T> the type of the rows
+ */
+class RowLoserTree<T> {
+
+  private final Comparator<? super T> comparator;
+
+  /** The current row of every source, null if the source is exhausted */
+  private final T[] rows;
+
+  /** The losers of the matches at the internal nodes 1 to k-1, the leaves are nodes k to 2k-1 */
+  private final int[] losers;
+
+  private int winner;
+
+  /**
+   * Build the tree.
+   *
+   * @param firstRows the first row of every source, null for a source without rows
+   * @param comparator the comparator to sort the rows with
+   */
+  RowLoserTree(T[] firstRows, Comparator<? super T> comparator) {
+    this.comparator = comparator;
+    this.rows = firstRows.clone();
+    this.losers = new int[Math.max(rows.length, 1)];
+    this.winner = rows.length == 0 ? -1 : playMatches(1);
+  }
+
+  private int playMatches(int node) {
+    if (node >= rows.length) {
+      return node - rows.length;
+    }
+    int left = playMatches(2 * node);
+    int right = playMatches(2 * node + 1);
+    if (beats(right, left)) {
+      losers[node] = left;
+      return right;
+    }
+    losers[node] = right;
+    return left;
+  }
+
+  /** @return the number of the source with the smallest row or -1 if all sources are exhausted */
+  int getWinner() {
+    if (winner < 0 || rows[winner] == null) {
+      return -1;
+    }
+    return winner;
+  }
+
+  /**
+   * @param source the number of a source
+   * @return the current row of the source, null if it is exhausted
+   */
+  T getRow(int source) {
+    return rows[source];
+  }
+
+  /** @return the number of sources */
+  int size() {
+    return rows.length;
+  }
+
+  /**
+   * Replace the row of the winning source with its next row and determine the new winner.
+   *
+   * @param nextRow the next row of the winning source or null if that source is exhausted
+   */
+  void replaceWinner(T nextRow) {
+    rows[winner] = nextRow;
+    int candidate = winner;
+    for (int node = (candidate + rows.length) >> 1; node >= 1; node >>= 1) {
+      if (beats(losers[node], candidate)) {
+        int loser = candidate;
+        candidate = losers[node];
+        losers[node] = loser;
+      }
+    }
+    winner = candidate;
+  }
+
+  /** @return true if the row of source a comes before the row of source b */
+  private boolean beats(int a, int b) {
+    T rowA = rows[a];
+    T rowB = rows[b];
+    if (rowA == null) {
+      return false;
+    }
+    if (rowB == null) {
+      return true;
+    }
+    int cmp = comparator.compare(rowA, rowB);
+    return cmp < 0 || (cmp == 0 && a < b);
+  }
+}
@@ -21,9 +21,16 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.memory.RowSizeEstimator;
+import org.apache.hop.core.memory.SpillMemoryManager;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.vfs.HopVfs;
@@ -36,17 +43,29 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.io.*;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.ListIterator;
 
 /** Sort the rows in the input-streams based on certain criteria */
 public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private static final Class<?> PKG = SortRows.class; // For Translator
 
+  /** Below this number of rows the overhead of sorting in parallel is not worth it */
+  static final int PARALLEL_SORT_THRESHOLD = 50000;
+
+  /** The compression provider used when compressing temporary files without a compression type */
+  static final String DEFAULT_COMPRESSION_TYPE = "GZip";
+
+  /** Below this number of rows a full memory budget is overdrawn rather than writing a tiny file */
+  static final int MIN_ROWS_PER_TEMP_FILE = 1000;
+
+  /** The bytes of the reference to a row in the buffer */
+  private static final int BUFFER_SLOT_SIZE = 4;
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -69,10 +88,19 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     // Save row
     data.buffer.add(r);
 
-    // Check the free memory every 1000 rows...
+    // Account for the memory the row takes
+    //
+    long rowSize = RowSizeEstimator.estimateRowSize(r) + BUFFER_SLOT_SIZE;
+    boolean budgetExhausted = !data.memoryBudget.tryReserve(rowSize);
+    if (budgetExhausted && data.buffer.size() < MIN_ROWS_PER_TEMP_FILE) {
+      data.memoryBudget.forceReserve(rowSize);
+      budgetExhausted = false;
+    }
+
+    // Check the free memory every 1000 rows if a free memory threshold is set...
     //
     data.freeCounter++;
-    if (data.sortSize <= 0 && data.freeCounter >= 1000) {
+    if (data.freeMemoryPctLimit > 0 && data.sortSize <= 0 && data.freeCounter >= 1000) {
       data.freeMemoryPct = Const.getPercentageFreeMemory();
       data.freeCounter = 0;
 
@@ -90,7 +118,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
 
     // Buffer is full: sort & dump to disk
-    boolean doSort = data.buffer.size() == data.sortSize;
+    boolean doSort = data.buffer.size() == data.sortSize || budgetExhausted;
     doSort |=
         data.freeMemoryPctLimit > 0
             && data.freeMemoryPct < data.freeMemoryPctLimit
@@ -119,7 +147,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
     // Then write them to disk...
     DataOutputStream dos;
-    GZIPOutputStream gzos;
     int p;
 
     try {
@@ -128,12 +155,13 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
       data.files.add(fileObject); // Remember the files!
       OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
-        gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
-        dos = new DataOutputStream(gzos);
+      if (data.compressionProvider != null) {
+        CompressionOutputStream cos =
+            data.compressionProvider.createOutputStream(new BufferedOutputStream(outputStream));
+        cos.addEntry(fileObject.getName().getBaseName(), null);
+        dos = new DataOutputStream(new BufferedOutputStream(cos, 500000));
       } else {
         dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
-        gzos = null;
       }
 
       // Just write the data, nothing else
@@ -172,7 +200,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           duplicatesIndex++;
         }
         if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
+          SpilledRow.write(
+              dos, data.keyEncoder, data.outputRowMeta, data.buffer.get(p), data.payloadBuffer);
         }
       }
 
@@ -189,13 +218,10 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
       // Clear the list
       data.buffer.clear();
+      data.memoryBudget.releaseAll();
 
-      // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
+      // Close temp-file, this closes the compression and file streams as well
+      dos.close();
 
       // How much memory do we have left?
       //
@@ -213,12 +239,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
-    DataInputStream result = new DataInputStream(gzipInputStream);
-    data.gzis.add(gzipInputStream);
-    return result;
-  }
-
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
@@ -226,11 +246,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     Object[] retval;
 
     // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
+    if (CollectionUtils.isNotEmpty(data.files) && data.mergeTree == null) {
       if (log.isBasic()) {
         logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
       }
 
+      SpilledRow[] firstRows = new SpilledRow[data.files.size()];
       try {
         for (int f = 0; f < data.files.size() && !isStopped(); f++) {
           FileObject fileObject = data.files.get(f);
@@ -241,8 +262,11 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           InputStream fi = HopVfs.getInputStream(fileObject);
           DataInputStream di;
           data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
+          if (data.compressionProvider != null) {
+            CompressionInputStream cis =
+                data.compressionProvider.createInputStream(new BufferedInputStream(fi));
+            cis.nextEntry();
+            di = new DataInputStream(new BufferedInputStream(cis, 50000));
           } else {
             di = new DataInputStream(new BufferedInputStream(fi, 50000));
           }
@@ -258,14 +282,12 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           }
 
           if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
-            data.rowbuffer.add(row); // new row from input stream
-            data.tempRows.add(new RowTempFile(row, f));
+            firstRows[f] = SpilledRow.read(di);
           }
         }
 
-        // Sort the data row buffer
-        Collections.sort(data.tempRows, data.comparator);
+        // Let the rows of all files compete in a tournament tree
+        data.mergeTree = new RowLoserTree<>(firstRows, data.spilledRowComparator);
       } catch (Exception e) {
         logError(BaseMessages.getString(PKG, "SortRows.Error.ErrorReadingBackTempFiles"), e);
       }
@@ -283,23 +305,28 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     } else {
       // read from disk processing
 
-      if (data.rowbuffer.isEmpty()) {
+      int smallest = data.mergeTree == null ? -1 : data.mergeTree.getWinner();
+      if (smallest < 0) {
+        // All files are read, they are cleaned up by passBuffer()
         retval = null;
       } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
+        // We now have one row waiting for every file that isn't read completely yet
         //
         if (log.isRowLevel()) {
-          for (int i = 0; i < data.rowbuffer.size() && !isStopped(); i++) {
-            Object[] b = data.rowbuffer.get(i);
-            logRowlevel(
-                BaseMessages.getString(
-                    PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString(b)));
+          for (int i = 0; i < data.mergeTree.size() && !isStopped(); i++) {
+            SpilledRow b = data.mergeTree.getRow(i);
+            if (b != null) {
+              logRowlevel(
+                  BaseMessages.getString(
+                      PKG,
+                      "SortRows.RowLevel.PrintRow",
+                      i,
+                      data.outputRowMeta.getString(getSpilledRow(b))));
+            }
           }
         }
 
-        RowTempFile rowTempFile = data.tempRows.remove(0);
-        retval = rowTempFile.row;
-        int smallest = rowTempFile.fileNumber;
+        retval = getSpilledRow(data.mergeTree.getRow(smallest));
 
         // now get another Row for position smallest
 
@@ -307,24 +334,18 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         DataInputStream di = data.dis.get(smallest);
         InputStream fi = data.fis.get(smallest);
 
+        SpilledRow next;
         try {
-          Object[] row2 = data.outputRowMeta.readData(di);
-          RowTempFile extra = new RowTempFile(row2, smallest);
-
-          int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
-          if (index < 0) {
-            data.tempRows.add(index * (-1) - 1, extra);
-          } else {
-            data.tempRows.add(index, extra);
-          }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
+          next = SpilledRow.read(di);
+        } catch (IOException e) {
+          throw new HopValueException(e);
+        }
+        data.mergeTree.replaceWinner(next);
+        if (next == null) {
+          // EOF, this file is done
           try {
             di.close();
             fi.close();
-            if (gzfi != null) {
-              gzfi.close();
-            }
             file.delete();
           } catch (IOException e) {
             logError(
@@ -334,31 +355,20 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
             stopAll();
             return null;
           }
-
-          data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
-
-          if (gzfi != null) {
-            data.gzis.remove(smallest);
-          }
-
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for (RowTempFile rtf : data.tempRows) {
-            if (rtf.fileNumber > smallest) {
-              rtf.fileNumber--;
-            }
-          }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
         }
       }
     }
     return retval;
   }
 
+  private Object[] getSpilledRow(SpilledRow spilledRow) throws HopValueException {
+    try {
+      return spilledRow.getRow(data.outputRowMeta);
+    } catch (HopFileException | SocketTimeoutException e) {
+      throw new HopValueException(e);
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
@@ -407,7 +417,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       // Metadata
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields(data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
-      data.comparator = new RowTemapFileComparator(data.outputRowMeta, data.fieldnrs);
 
       for (int i = 0; i < fieldNames.length; i++) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue(fieldNames[i]);
@@ -431,6 +440,19 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator(data.outputRowMeta, data.fieldnrs);
+      data.keyEncoder = new NormalizedKeyEncoder(data.outputRowMeta, data.fieldnrs);
+      data.payloadBuffer = new ByteArrayOutputStream();
+      data.spilledRowComparator = new SpilledRowComparator(data.outputRowMeta, data.fieldnrs);
+
+      // Comparing strings with a collator is synchronized, no point in sorting in parallel then
+      //
+      data.parallelSortPossible = Runtime.getRuntime().availableProcessors() > 1;
+      for (int fieldnr : data.fieldnrs) {
+        IValueMeta valueMeta = data.outputRowMeta.getValueMeta(fieldnr);
+        if (valueMeta.isString() && !valueMeta.isCollatorDisabled()) {
+          data.parallelSortPossible = false;
+        }
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -546,24 +568,26 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
     data.sortSize = Const.toInt(resolve(meta.getSortSize()), -1);
     data.freeMemoryPctLimit = Const.toInt(meta.getFreeMemoryLimit(), -1);
-    if (data.sortSize <= 0 && data.freeMemoryPctLimit <= 0) {
-      // Prefer the memory limit as it should never fail
-      //
-      data.freeMemoryPctLimit = 25;
-    }
 
-    // In memory buffer
+    // The memory budget applies regardless of the sort size and free memory threshold
     //
-    data.buffer = new ArrayList<>(5000);
+    data.memoryBudget =
+        SpillMemoryManager.getInstance().createBudgetMb(resolve(meta.getMemoryLimit()));
 
-    // Buffer for reading from disk
+    // In memory buffer
     //
-    data.rowbuffer = new ArrayList<>(5000);
+    data.buffer = new ArrayList<>(5000);
 
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.getCompressFiles());
-
-    data.tempRows = new ArrayList<>();
+    if (data.compressFiles) {
+      try {
+        data.compressionProvider = getCompressionProvider();
+      } catch (HopException e) {
+        logError(e.getMessage(), e);
+        return false;
+      }
+    }
 
     data.minSortSize = 5000;
 
@@ -581,7 +605,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     // Clean out the sort buffer
     data.buffer.clear();
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
+    if (data.memoryBudget != null) {
+      data.memoryBudget.releaseAll();
+    }
 
     // close any open DataInputStream objects
     if (CollectionUtils.isNotEmpty(data.dis)) {
@@ -606,12 +632,32 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         logError(e.getLocalizedMessage(), e);
       }
     }
+
+    // Start the next batch without temp files
+    data.mergeTree = null;
+    data.files.clear();
+    data.fis.clear();
+    data.dis.clear();
+    data.bufferSizes.clear();
   }
 
-  /** Sort the entire vector, if it is not empty. */
+  /**
+   * Sort the entire vector, if it is not empty. Large buffers are sorted with a parallel merge
+   * sort on the common fork/join pool. Like the sequential sort it is stable.
+   */
   void quickSort(List<Object[]> elements) {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (elements.size() >= PARALLEL_SORT_THRESHOLD && data.parallelSortPossible) {
+        Object[][] array = elements.toArray(new Object[elements.size()][]);
+        Arrays.parallelSort(array, data.rowComparator);
+        ListIterator<Object[]> iterator = elements.listIterator();
+        for (Object[] row : array) {
+          iterator.next();
+          iterator.set(row);
+        }
+      } else {
+        Collections.sort(elements, data.rowComparator);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -665,6 +711,33 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
+  /**
+   * @return the compression provider for the temporary files or null if they don't need to be
+   *     compressed
+   */
+  private ICompressionProvider getCompressionProvider() throws HopException {
+    String compressionType = Const.NVL(resolve(meta.getCompressionType()), "");
+    if (compressionType.isEmpty()) {
+      compressionType = DEFAULT_COMPRESSION_TYPE;
+    }
+    ICompressionProvider compressionProvider =
+        CompressionProviderFactory.getInstance().getCompressionProviderByName(compressionType);
+
+    if (compressionProvider == null) {
+      throw new HopException("No compression provider found with name = " + compressionType);
+    }
+    if (!compressionProvider.supportsOutput() || !compressionProvider.supportsInput()) {
+      throw new HopException(
+          "Compression provider "
+              + compressionType
+              + " does not support both input and output streams!");
+    }
+    if (compressionProvider instanceof NoneCompressionProvider) {
+      return null;
+    }
+    return compressionProvider;
+  }
+
   private class SortRowsComparator {
     protected IRowMeta rowMeta;
     protected int[] fieldNrs;
@@ -675,16 +748,16 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
-  private class RowTemapFileComparator extends SortRowsComparator
-      implements Comparator<RowTempFile> {
-    RowTemapFileComparator(IRowMeta rowMeta, int[] fieldNrs) {
+  private class RowObjectArrayComparator extends SortRowsComparator
+      implements Comparator<Object[]> {
+    RowObjectArrayComparator(IRowMeta rowMeta, int[] fieldNrs) {
       super(rowMeta, fieldNrs);
     }
 
     @Override
-    public int compare(RowTempFile o1, RowTempFile o2) {
+    public int compare(Object[] o1, Object[] o2) {
       try {
-        return rowMeta.compare(o1.row, o2.row, fieldNrs);
+        return rowMeta.compare(o1, o2, fieldNrs);
       } catch (HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
@@ -692,17 +765,25 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     }
   }
 
-  private class RowObjectArrayComparator extends SortRowsComparator
-      implements Comparator<Object[]> {
-    RowObjectArrayComparator(IRowMeta rowMeta, int[] fieldNrs) {
+  /**
+   * Compares the rows read back from the temporary files on their normalized keys. Only when the
+   * keys can't tell the order the rows themselves are compared.
+   */
+  private class SpilledRowComparator extends SortRowsComparator
+      implements Comparator<SpilledRow> {
+    SpilledRowComparator(IRowMeta rowMeta, int[] fieldNrs) {
       super(rowMeta, fieldNrs);
     }
 
     @Override
-    public int compare(Object[] o1, Object[] o2) {
+    public int compare(SpilledRow o1, SpilledRow o2) {
+      int cmp = NormalizedKeyEncoder.compare(o1.getKey(), o2.getKey());
+      if (cmp != 0 || (o1.isComplete() && o2.isComplete())) {
+        return cmp;
+      }
       try {
-        return rowMeta.compare(o1, o2, fieldNrs);
-      } catch (HopValueException e) {
+        return rowMeta.compare(o1.getRow(rowMeta), o2.getRow(rowMeta), fieldNrs);
+      } catch (HopFileException | SocketTimeoutException | HopValueException e) {
         logError("Error comparing rows: " + e.toString());
         return 0;
       }
@@ -18,16 +18,18 @@
 package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.memory.MemoryBudget;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 
 public class SortRowsData extends BaseTransformData implements ITransformData {
   public List<FileObject> files;
@@ -35,24 +37,31 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int getBufferIndex;
 
   public List<InputStream> fis;
-  public List<GZIPInputStream> gzis;
   public List<DataInputStream> dis;
-  public List<Object[]> rowbuffer;
   public List<Integer> bufferSizes;
 
-  // To store rows and file references
-  public List<RowTempFile> tempRows;
+  // Merges the rows of the temporary files
+  RowLoserTree<SpilledRow> mergeTree;
+  Comparator<SpilledRow> spilledRowComparator;
+
+  // The rows in the temporary files are preceded by their normalized key
+  NormalizedKeyEncoder keyEncoder;
+  ByteArrayOutputStream payloadBuffer;
 
   public int[] fieldnrs; // the corresponding field numbers
   public FileObject fil;
   public IRowMeta outputRowMeta;
   public int sortSize;
   public boolean compressFiles;
+  ICompressionProvider compressionProvider;
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
-  Comparator<RowTempFile> comparator;
   Comparator<Object[]> rowComparator;
+  boolean parallelSortPossible;
+
+  // The memory the rows in the buffer are allowed to take
+  MemoryBudget memoryBudget;
 
   public int freeCounter;
   public int freeMemoryPct;
@@ -72,7 +81,6 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
 
     files = new ArrayList<>();
     fis = new ArrayList<>();
-    gzis = new ArrayList<>();
     dis = new ArrayList<>();
     bufferSizes = new ArrayList<>();
 
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.sort;
 
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.util.Utils;
@@ -37,6 +38,7 @@ import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.apache.hop.ui.pipeline.transform.ComponentSelectionListener;
 import org.apache.hop.ui.pipeline.transform.ITableItemInsertListener;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -60,8 +62,12 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
 
   private TextVar wFreeMemory;
 
+  private TextVar wMemoryLimit;
+
   private CheckBoxVar wCompress;
 
+  private CCombo wCompressionType;
+
   private Button wUniqueRows;
 
   private TableView wFields;
@@ -207,6 +213,26 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     fdFreeMemory.right = new FormAttachment(100, 0);
     wFreeMemory.setLayoutData(fdFreeMemory);
 
+    // Memory to keep rows in
+    Label wlMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlMemoryLimit.setText(BaseMessages.getString(PKG, "SortRowsDialog.MemoryLimit.Label"));
+    wlMemoryLimit.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MemoryLimit.ToolTip"));
+    props.setLook(wlMemoryLimit);
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment(0, 0);
+    fdlMemoryLimit.right = new FormAttachment(middle, -margin);
+    fdlMemoryLimit.top = new FormAttachment(wFreeMemory, margin * 2);
+    wlMemoryLimit.setLayoutData(fdlMemoryLimit);
+    wMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryLimit.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MemoryLimit.ToolTip"));
+    props.setLook(wMemoryLimit);
+    wMemoryLimit.addModifyListener(lsMod);
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment(middle, 0);
+    fdMemoryLimit.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdMemoryLimit.right = new FormAttachment(100, 0);
+    wMemoryLimit.setLayoutData(fdMemoryLimit);
+
     // Using compression for temporary files?
     Label wlCompress = new Label(shell, SWT.RIGHT);
     wlCompress.setText(BaseMessages.getString(PKG, "SortRowsDialog.Compress.Label"));
@@ -214,7 +240,7 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     FormData fdlCompress = new FormData();
     fdlCompress.left = new FormAttachment(0, 0);
     fdlCompress.right = new FormAttachment(middle, -margin);
-    fdlCompress.top = new FormAttachment(wFreeMemory, margin * 2);
+    fdlCompress.top = new FormAttachment(wMemoryLimit, margin * 2);
     wlCompress.setLayoutData(fdlCompress);
     wCompress = new CheckBoxVar(variables, shell, SWT.CHECK, "");
     props.setLook(wCompress);
@@ -233,6 +259,26 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
           }
         });
 
+    // Which compression provider?
+    Label wlCompressionType = new Label(shell, SWT.RIGHT);
+    wlCompressionType.setText(BaseMessages.getString(PKG, "SortRowsDialog.CompressionType.Label"));
+    props.setLook(wlCompressionType);
+    FormData fdlCompressionType = new FormData();
+    fdlCompressionType.left = new FormAttachment(0, 0);
+    fdlCompressionType.right = new FormAttachment(middle, -margin);
+    fdlCompressionType.top = new FormAttachment(wCompress, margin);
+    wlCompressionType.setLayoutData(fdlCompressionType);
+    wCompressionType = new CCombo(shell, SWT.BORDER | SWT.READ_ONLY);
+    props.setLook(wCompressionType);
+    wCompressionType.setItems(
+        CompressionProviderFactory.getInstance().getCompressionProviderNames());
+    wCompressionType.addModifyListener(lsMod);
+    FormData fdCompressionType = new FormData();
+    fdCompressionType.left = new FormAttachment(middle, 0);
+    fdCompressionType.top = new FormAttachment(wlCompressionType, 0, SWT.CENTER);
+    fdCompressionType.right = new FormAttachment(100, 0);
+    wCompressionType.setLayoutData(fdCompressionType);
+
     // Using compression for temporary files?
     Label wlUniqueRows = new Label(shell, SWT.RIGHT);
     wlUniqueRows.setText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Label"));
@@ -240,7 +286,7 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     FormData fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment(0, 0);
     fdlUniqueRows.right = new FormAttachment(middle, -margin);
-    fdlUniqueRows.top = new FormAttachment(wCompress, margin);
+    fdlUniqueRows.top = new FormAttachment(wCompressionType, margin);
     wlUniqueRows.setLayoutData(fdlUniqueRows);
     wUniqueRows = new Button(shell, SWT.CHECK);
     wUniqueRows.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.UniqueRows.Tooltip"));
@@ -404,8 +450,11 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     }
     wSortSize.setText(Const.NVL(input.getSortSize(), ""));
     wFreeMemory.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
+    wMemoryLimit.setText(Const.NVL(input.getMemoryLimit(), ""));
     wCompress.setSelection(input.getCompressFiles());
     wCompress.setVariableName(input.getCompressFilesVariable());
+    wCompressionType.setText(
+        Const.NVL(input.getCompressionType(), SortRows.DEFAULT_COMPRESSION_TYPE));
     wUniqueRows.setSelection(input.isOnlyPassingUniqueRows());
 
     Table table = wFields.table;
@@ -468,9 +517,11 @@ public class SortRowsDialog extends BaseTransformDialog implements ITransformDia
     input.setDirectory(wSortDir.getText());
     input.setSortSize(wSortSize.getText());
     input.setFreeMemoryLimit(wFreeMemory.getText());
+    input.setMemoryLimit(wMemoryLimit.getText());
     log.logDetailed("Sort rows", "Compression is set to " + wCompress.getSelection());
     input.setCompressFiles(wCompress.getSelection());
     input.setCompressFilesVariable(wCompress.getVariableName());
+    input.setCompressionType(wCompressionType.getText());
     input.setOnlyPassingUniqueRows(wUniqueRows.getSelection());
 
     int nrFields = wFields.nrNonEmpty();
@@ -102,6 +102,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
   @Injection(name = "FREE_MEMORY_TRESHOLD")
   private String freeMemoryLimit;
 
+  /** The maximum memory in MB to keep rows in before writing them to a temporary file */
+  @Injection(name = "MEMORY_LIMIT")
+  private String memoryLimit;
+
   /** only pass unique rows to the output stream(s) */
   @Injection(name = "ONLY_PASS_UNIQUE_ROWS")
   private boolean onlyPassingUniqueRows;
@@ -116,6 +120,13 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /**
+   * The name of the compression provider used to compress temporary files, GZip when not
+   * specified
+   */
+  @Injection(name = "COMPRESSION_TYPE")
+  private String compressionType;
+
   public SortRowsMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -199,8 +210,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
       prefix = XmlHandler.getTagValue(transformNode, "prefix");
       sortSize = XmlHandler.getTagValue(transformNode, "sort_size");
       freeMemoryLimit = XmlHandler.getTagValue(transformNode, "free_memory");
+      memoryLimit = XmlHandler.getTagValue(transformNode, "memory_limit");
       compressFiles = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "compress"));
       compressFilesVariable = XmlHandler.getTagValue(transformNode, "compress_variable");
+      compressionType = XmlHandler.getTagValue(transformNode, "compression_type");
       onlyPassingUniqueRows =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "unique_rows"));
 
@@ -237,8 +250,10 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     prefix = "out";
     sortSize = "1000000";
     freeMemoryLimit = null;
+    memoryLimit = null;
     compressFiles = false;
     compressFilesVariable = null;
+    compressionType = null;
     onlyPassingUniqueRows = false;
 
     int nrFields = 0;
@@ -261,10 +276,12 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     retval.append("      ").append(XmlHandler.addTagValue("prefix", prefix));
     retval.append("      ").append(XmlHandler.addTagValue("sort_size", sortSize));
     retval.append("      ").append(XmlHandler.addTagValue("free_memory", freeMemoryLimit));
+    retval.append("      ").append(XmlHandler.addTagValue("memory_limit", memoryLimit));
     retval.append("      ").append(XmlHandler.addTagValue("compress", compressFiles));
     retval
         .append("      ")
         .append(XmlHandler.addTagValue("compress_variable", compressFilesVariable));
+    retval.append("      ").append(XmlHandler.addTagValue("compression_type", compressionType));
     retval.append("      ").append(XmlHandler.addTagValue("unique_rows", onlyPassingUniqueRows));
 
     retval.append("    <fields>").append(Const.CR);
@@ -504,6 +521,16 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /** @return the name of the compression provider for temporary files, null for GZip */
+  public String getCompressionType() {
+    return compressionType;
+  }
+
+  /** @param compressionType the name of the compression provider for temporary files */
+  public void setCompressionType(String compressionType) {
+    this.compressionType = compressionType;
+  }
+
   /** @return the caseSensitive */
   public boolean[] getCaseSensitive() {
     return caseSensitive;
@@ -544,6 +571,16 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData> impl
     this.freeMemoryLimit = freeMemoryLimit;
   }
 
+  /** @return the maximum memory in MB to keep rows in */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /** @param memoryLimit the maximum memory in MB to keep rows in */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
   /** @return the preSortedField */
   public boolean[] getPreSortedField() {
     return preSortedField;
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * A row read back from a temporary file of the sort rows transform. A row is stored as its
+ * normalized key followed by the serialized row. The merge of the temporary files compares the
+ * normalized keys and only deserializes a row when it is passed on or when the keys can't tell the
+ * order of two rows.
+ *
+ * <p>The layout of a row in a temporary file is:
+ *
+ * <ul>
+ *   <li>the length of the normalized key (int)
+ *   <li>whether or not the normalized key is complete (boolean)
+ *   <li>the normalized key
+ *   <li>the length of the serialized row (int)
+ *   <li>the row serialized with {@link IRowMeta#writeData(DataOutputStream, Object[])}
+ * </ul>
+ */
+final class SpilledRow {
+
+  private final byte[] key;
+  private final boolean complete;
+  private byte[] payload;
+  private Object[] row;
+
+  SpilledRow(byte[] key, boolean complete, byte[] payload) {
+    this.key = key;
+    this.complete = complete;
+    this.payload = payload;
+  }
+
+  /**
+   * Write a row to a temporary file.
+   *
+   * @param outputStream the temporary file
+   * @param encoder the encoder of the normalized keys
+   * @param rowMeta the layout of the row
+   * @param row the row to write
+   * @param payloadBuffer a buffer to serialize the row in, reused for every row
+   */
+  static void write(
+      DataOutputStream outputStream,
+      NormalizedKeyEncoder encoder,
+      IRowMeta rowMeta,
+      Object[] row,
+      ByteArrayOutputStream payloadBuffer)
+      throws HopException, IOException {
+    int keyLength = encoder.encode(row);
+    outputStream.writeInt(keyLength);
+    outputStream.writeBoolean(encoder.isComplete());
+    outputStream.write(encoder.getKey(), 0, keyLength);
+
+    payloadBuffer.reset();
+    rowMeta.writeData(new DataOutputStream(payloadBuffer), row);
+    outputStream.writeInt(payloadBuffer.size());
+    payloadBuffer.writeTo(outputStream);
+  }
+
+  /**
+   * Read the next row from a temporary file.
+   *
+   * @param inputStream the temporary file
+   * @return the next row or null at the end of the file
+   */
+  static SpilledRow read(DataInputStream inputStream) throws IOException {
+    int keyLength;
+    try {
+      keyLength = inputStream.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    boolean complete = inputStream.readBoolean();
+    byte[] key = new byte[keyLength];
+    inputStream.readFully(key);
+    byte[] payload = new byte[inputStream.readInt()];
+    inputStream.readFully(payload);
+    return new SpilledRow(key, complete, payload);
+  }
+
+  /** @return the normalized key */
+  byte[] getKey() {
+    return key;
+  }
+
+  /** @return true if the normalized key covers all the key fields */
+  boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * @param rowMeta the layout of the row
+   * @return the row, deserialized the first time it is asked for
+   */
+  Object[] getRow(IRowMeta rowMeta) throws HopFileException, SocketTimeoutException {
+    if (row == null) {
+      row = rowMeta.readData(new DataInputStream(new ByteArrayInputStream(payload)));
+      payload = null;
+    }
+    return row;
+  }
+}
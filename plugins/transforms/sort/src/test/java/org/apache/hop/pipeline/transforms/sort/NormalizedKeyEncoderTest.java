@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NormalizedKeyEncoderTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final String[] STRINGS = {
+    null, "", "a", "A", "ab", "aB", "b", "\u00e9", "\uffff", "zz", " a "
+  };
+  private static final Double[] NUMBERS = {
+    null, -1e300, -1.5, -0.0, 0.0, 1.5, 1e300, Double.NEGATIVE_INFINITY, Double.NaN
+  };
+
+  @Test
+  public void testOrderMatchesRowCompare() throws HopException {
+    Random random = new Random(7);
+    for (boolean descending : new boolean[] {false, true}) {
+      for (boolean caseInsensitive : new boolean[] {false, true}) {
+        IRowMeta rowMeta = new RowMeta();
+        rowMeta.addValueMeta(new ValueMetaString("string"));
+        rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+        rowMeta.addValueMeta(new ValueMetaNumber("number"));
+        rowMeta.addValueMeta(new ValueMetaDate("date"));
+        rowMeta.addValueMeta(new ValueMetaBoolean("boolean"));
+        for (IValueMeta valueMeta : rowMeta.getValueMetaList()) {
+          valueMeta.setSortedDescending(descending);
+          valueMeta.setCaseInsensitive(caseInsensitive);
+        }
+        int[] fieldNrs = {0, 1, 2, 3, 4};
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+          rows.add(
+              new Object[] {
+                STRINGS[random.nextInt(STRINGS.length)],
+                random.nextInt(4) == 0 ? null : (long) random.nextInt(5) - 2,
+                NUMBERS[random.nextInt(NUMBERS.length)],
+                random.nextInt(4) == 0 ? null : new Date(random.nextInt(3) - 1L),
+                random.nextInt(3) == 0 ? null : random.nextBoolean()
+              });
+        }
+
+        NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(rowMeta, fieldNrs);
+        List<byte[]> keys = new ArrayList<>();
+        for (Object[] row : rows) {
+          int length = encoder.encode(row);
+          keys.add(Arrays.copyOf(encoder.getKey(), length));
+          assertTrue(encoder.isComplete());
+        }
+        for (int a = 0; a < rows.size(); a++) {
+          for (int b = 0; b < rows.size(); b++) {
+            int expected = rowMeta.compare(rows.get(a), rows.get(b), fieldNrs);
+            int actual = NormalizedKeyEncoder.compare(keys.get(a), keys.get(b));
+            assertEquals(
+                rowMeta.getString(rows.get(a)) + " vs " + rowMeta.getString(rows.get(b)),
+                Integer.signum(expected),
+                Integer.signum(actual));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testKeyStopsAtFieldWhichCantBeNormalized() throws HopException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("bignumber"));
+    rowMeta.addValueMeta(new ValueMetaInteger("other"));
+    int[] fieldNrs = {0, 1, 2};
+
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(rowMeta, fieldNrs);
+    assertEquals(1, encoder.getNormalizedFields());
+    assertEquals(9, encoder.encode(new Object[] {1L, BigDecimal.ONE, 2L}));
+    assertFalse(encoder.isComplete());
+  }
+
+  @Test
+  public void testCollatorAndZeroCharacterMakeKeyIncomplete() throws HopException {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("string"));
+    int[] fieldNrs = {0};
+
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(rowMeta, fieldNrs);
+    encoder.encode(new Object[] {"a\u0000b"});
+    assertFalse(encoder.isComplete());
+    byte[] incomplete = Arrays.copyOf(encoder.getKey(), encoder.getLength());
+    encoder.encode(new Object[] {"a"});
+    assertTrue(encoder.isComplete());
+    byte[] complete = Arrays.copyOf(encoder.getKey(), encoder.getLength());
+    // The keys can't tell the order, the rows need to be compared
+    assertEquals(0, NormalizedKeyEncoder.compare(incomplete, complete));
+
+    rowMeta.getValueMeta(0).setCollatorDisabled(false);
+    encoder = new NormalizedKeyEncoder(rowMeta, fieldNrs);
+    assertEquals(0, encoder.getNormalizedFields());
+    assertEquals(0, encoder.encode(new Object[] {"a"}));
+    assertFalse(encoder.isComplete());
+  }
+}
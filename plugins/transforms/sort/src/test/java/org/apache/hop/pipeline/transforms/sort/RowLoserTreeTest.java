@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RowLoserTreeTest {
+
+  private static final Comparator<Object[]> COMPARATOR =
+      Comparator.comparingLong(row -> (Long) row[0]);
+
+  @Test
+  public void testNoSources() {
+    RowLoserTree<Object[]> tree = new RowLoserTree<>(new Object[0][], COMPARATOR);
+    assertEquals(-1, tree.getWinner());
+  }
+
+  @Test
+  public void testEmptySources() {
+    RowLoserTree<Object[]> tree = new RowLoserTree<>(new Object[3][], COMPARATOR);
+    assertEquals(-1, tree.getWinner());
+  }
+
+  @Test
+  public void testMergeIsSortedAndStable() {
+    Random random = new Random(123);
+    for (int k = 1; k <= 17; k++) {
+      List<List<Object[]>> sources = new ArrayList<>();
+      List<Object[]> expected = new ArrayList<>();
+      for (int s = 0; s < k; s++) {
+        List<Object[]> source = new ArrayList<>();
+        long value = 0;
+        int size = random.nextInt(50);
+        for (int i = 0; i < size; i++) {
+          value += random.nextInt(3);
+          Object[] row = new Object[] {value, s};
+          source.add(row);
+          expected.add(row);
+        }
+        sources.add(source);
+      }
+      // A stable sort keeps the rows of the lower source first on equal keys
+      expected.sort(COMPARATOR);
+
+      assertMerge(sources, expected);
+    }
+  }
+
+  private static void assertMerge(List<List<Object[]>> sources, List<Object[]> expected) {
+    int[] positions = new int[sources.size()];
+    Object[][] firstRows = new Object[sources.size()][];
+    for (int s = 0; s < sources.size(); s++) {
+      firstRows[s] = sources.get(s).isEmpty() ? null : sources.get(s).get(0);
+    }
+    RowLoserTree<Object[]> tree = new RowLoserTree<>(firstRows, COMPARATOR);
+
+    for (Object[] expectedRow : expected) {
+      int winner = tree.getWinner();
+      assertSame(expectedRow, tree.getRow(winner));
+      List<Object[]> source = sources.get(winner);
+      positions[winner]++;
+      tree.replaceWinner(positions[winner] < source.size() ? source.get(positions[winner]) : null);
+    }
+    assertEquals(-1, tree.getWinner());
+  }
+}
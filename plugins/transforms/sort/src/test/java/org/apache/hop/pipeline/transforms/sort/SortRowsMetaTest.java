@@ -43,8 +43,10 @@ public class SortRowsMetaTest {
             "Prefix",
             "SortSize",
             "FreeMemoryLimit",
+            "MemoryLimit",
             "CompressFiles",
             "CompressFilesVariable",
+            "CompressionType",
             "OnlyPassingUniqueRows",
             "FieldName",
             "Ascending",
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.streamlookup;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.hash.RowHashIndex;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lookup data of all copies of a Stream Lookup transform, built once by the copies together.
+ *
+ * <p>The table is split in partitions by the hash code of the key. While the lookup rows are read
+ * every copy adds rows to the partitions, after which all copies wait for each other. From then on
+ * the table doesn't change and the copies look up keys without any locking.
+ *
+ * <p>When every copy receives all lookup rows, each copy only adds the rows of its own partitions.
+ * The partitions are built in parallel without locks and the last row of a key wins, just like
+ * with a single copy. When the lookup rows are distributed over the copies, every copy adds all its
+ * rows and the partitions are locked while adding a row.
+ *
+ * <p>A copy which fails to read its lookup rows aborts the table, the other copies stop waiting and
+ * fail as well.
+ */
+public class SharedLookupTable {
+
+  private static final String EXTENSION_DATA_KEY_PREFIX = "StreamLookup.SharedLookupTable.";
+
+  private final String extensionDataKey;
+  private final int nrCopies;
+  private final int partitionBits;
+  private final CountDownLatch built;
+  private final Object[] locks;
+
+  /** The number of copies using this table, guarded by the extension data map */
+  private int references;
+
+  /** Set when a copy couldn't add its rows, the table is incomplete */
+  private volatile boolean failed;
+
+  private IRowMeta infoMeta;
+  private IRowMeta keyTypes;
+  private IRowMeta cacheKeyMeta;
+  private IRowMeta cacheValueMeta;
+
+  private RowHashIndex[] indexes;
+  private Map<RowMetaAndData, Object[]>[] maps;
+
+  private SharedLookupTable(String extensionDataKey, int nrCopies) {
+    this.extensionDataKey = extensionDataKey;
+    this.nrCopies = nrCopies;
+    this.built = new CountDownLatch(nrCopies);
+
+    // A few partitions per copy keeps the copies from waiting on each other's locks
+    int bits = 4;
+    while ((1 << bits) < 4 * nrCopies && bits < 16) {
+      bits++;
+    }
+    this.partitionBits = bits;
+    this.locks = new Object[1 << bits];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Get the table of a transform, the first copy creates it.
+   *
+   * @param extensionDataMap the extension data of the pipeline, shared by all copies
+   * @param transformName the name of the transform
+   * @param nrCopies the number of copies of the transform
+   * @return the table to use, call {@link #release(Map)} when done
+   */
+  static SharedLookupTable getInstance(
+      Map<String, Object> extensionDataMap, String transformName, int nrCopies) {
+    String key = EXTENSION_DATA_KEY_PREFIX + transformName;
+    synchronized (extensionDataMap) {
+      SharedLookupTable table = (SharedLookupTable) extensionDataMap.get(key);
+      if (table == null) {
+        table = new SharedLookupTable(key, nrCopies);
+        extensionDataMap.put(key, table);
+      }
+      table.references++;
+      return table;
+    }
+  }
+
+  /**
+   * Stop using the table. Once all copies are done the table is closed and removed.
+   *
+   * @param extensionDataMap the extension data of the pipeline
+   */
+  void release(Map<String, Object> extensionDataMap) {
+    synchronized (extensionDataMap) {
+      references--;
+      if (references > 0) {
+        return;
+      }
+      extensionDataMap.remove(extensionDataKey);
+    }
+    if (indexes != null) {
+      for (RowHashIndex index : indexes) {
+        index.close();
+      }
+    }
+    indexes = null;
+    maps = null;
+  }
+
+  /**
+   * Set the layout of the lookup rows. The first copy which receives lookup rows creates the
+   * partitions, the others keep using their own layout for the same fields.
+   *
+   * @param infoMeta the layout of the lookup rows
+   * @param keyTypes the data types of the keys
+   * @param cacheKeyMeta the layout of the keys in the table
+   * @param cacheValueMeta the layout of the values in the table
+   * @param memoryMappedDirectory the directory of memory mapped files or empty to use the heap
+   * @throws HopException if the partitions can't be created
+   */
+  @SuppressWarnings("unchecked")
+  synchronized void setMetadata(
+      IRowMeta infoMeta,
+      IRowMeta keyTypes,
+      IRowMeta cacheKeyMeta,
+      IRowMeta cacheValueMeta,
+      String memoryMappedDirectory)
+      throws HopException {
+    if (this.infoMeta != null) {
+      return;
+    }
+    int nrPartitions = locks.length;
+    if (RowHashIndex.isSupported(cacheKeyMeta)) {
+      indexes = new RowHashIndex[nrPartitions];
+      for (int i = 0; i < nrPartitions; i++) {
+        indexes[i] =
+            Utils.isEmpty(memoryMappedDirectory)
+                ? new RowHashIndex(cacheKeyMeta, cacheValueMeta)
+                : new RowHashIndex(cacheKeyMeta, cacheValueMeta, memoryMappedDirectory);
+      }
+    } else {
+      maps = new Map[nrPartitions];
+      for (int i = 0; i < nrPartitions; i++) {
+        maps[i] = new HashMap<>();
+      }
+    }
+    this.infoMeta = infoMeta;
+    this.keyTypes = keyTypes;
+    this.cacheKeyMeta = cacheKeyMeta;
+    this.cacheValueMeta = cacheValueMeta;
+  }
+
+  /**
+   * @param keyMeta the layout of the key
+   * @param keyData the key
+   * @return the partition of the key
+   * @throws HopException if the hash code of the key can't be calculated
+   */
+  int getPartition(IRowMeta keyMeta, Object[] keyData) throws HopException {
+    int hashCode =
+        indexes != null ? indexes[0].generateHashCode(keyData) : keyMeta.hashCode(keyData);
+    // The index uses the lowest bits, the partitions use the highest ones
+    return (hashCode * 0x9E3779B9) >>> (32 - partitionBits);
+  }
+
+  /**
+   * @param partition a partition
+   * @param copyNr the number of a copy
+   * @return true if the copy adds the rows of the partition when every copy receives all rows
+   */
+  boolean isOwnPartition(int partition, int copyNr) {
+    return partition % nrCopies == copyNr;
+  }
+
+  /**
+   * Add a row to a partition.
+   *
+   * @param partition the partition of the key
+   * @param locking true if other copies can add rows to the same partition
+   * @param keyMeta the layout of the key
+   * @param keyData the key
+   * @param valueData the value
+   * @throws HopException if the row can't be added
+   */
+  void put(int partition, boolean locking, IRowMeta keyMeta, Object[] keyData, Object[] valueData)
+      throws HopException {
+    if (locking) {
+      synchronized (locks[partition]) {
+        putRow(partition, keyMeta, keyData, valueData);
+      }
+    } else {
+      putRow(partition, keyMeta, keyData, valueData);
+    }
+  }
+
+  private void putRow(int partition, IRowMeta keyMeta, Object[] keyData, Object[] valueData)
+      throws HopException {
+    if (indexes != null) {
+      indexes[partition].put(keyData, valueData);
+    } else {
+      maps[partition].put(new RowMetaAndData(keyMeta, keyData), valueData);
+    }
+  }
+
+  /** @return the number of partitions of the table */
+  int getNrPartitions() {
+    return locks.length;
+  }
+
+  /**
+   * Tell the other copies this copy added all its rows and wait for them to do the same.
+   *
+   * @param transform the copy, waiting stops when it's stopped
+   * @return true if the table is complete, false if the copy was stopped or another copy failed
+   */
+  boolean finishBuilding(StreamLookup transform) {
+    built.countDown();
+    try {
+      while (!built.await(1, TimeUnit.SECONDS)) {
+        if (transform.isStopped()) {
+          return false;
+        }
+      }
+      return !failed;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Called by a copy which couldn't add its rows. The copies waiting for the table to be built are
+   * released right away instead of waiting until the pipeline stops.
+   */
+  void abort() {
+    failed = true;
+    while (built.getCount() > 0) {
+      built.countDown();
+    }
+  }
+
+  /** @return true if a copy couldn't add its rows */
+  boolean isFailed() {
+    return failed;
+  }
+
+  /**
+   * Look up a key. Only call this once the table is built, the partitions aren't locked.
+   *
+   * @param keyMeta the layout of the key of the calling copy
+   * @param keyData the key
+   * @return the value or null if the key isn't in the table
+   * @throws HopException if the key can't be looked up
+   */
+  Object[] get(IRowMeta keyMeta, Object[] keyData) throws HopException {
+    int partition = getPartition(keyMeta, keyData);
+    if (indexes != null) {
+      return indexes[partition].get(keyData);
+    }
+    return maps[partition].get(new RowMetaAndData(keyMeta, keyData));
+  }
+
+  /** @return true if any copy received lookup rows */
+  boolean hasRows() {
+    return infoMeta != null;
+  }
+
+  /** @return the layout of the lookup rows */
+  IRowMeta getInfoMeta() {
+    return infoMeta;
+  }
+
+  /** @return the data types of the keys */
+  IRowMeta getKeyTypes() {
+    return keyTypes;
+  }
+
+  /** @return the layout of the keys in the table */
+  IRowMeta getCacheKeyMeta() {
+    return cacheKeyMeta;
+  }
+
+  /** @return the layout of the values in the table */
+  IRowMeta getCacheValueMeta() {
+    return cacheValueMeta;
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
+import org.apache.hop.core.hash.RowHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -144,6 +145,12 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     int[] valueNrs = new int[meta.getValue().length];
     boolean firstRun = true;
 
+    // When every copy receives all lookup rows, a copy only adds the rows of its own partitions
+    // to the shared table. Otherwise every copy adds all the rows it receives.
+    //
+    boolean allRowsInEveryCopy =
+        !data.infoStream.getTransformMeta().isDistributes() && !getTransformMeta().isPartitioned();
+
     // Which row set do we read from?
     //
     IRowSet rowSet = findInputRowSet(data.infoStream.getTransformName());
@@ -195,6 +202,15 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
         data.cacheKeyMeta = cacheKeyMeta;
         data.cacheValueMeta = cacheValueMeta;
+
+        if (data.sharedTable != null) {
+          data.sharedTable.setMetadata(
+              data.infoMeta,
+              data.keyTypes,
+              cacheKeyMeta,
+              cacheValueMeta,
+              resolve(meta.getMemoryMappedDirectory()));
+        }
       }
 
       Object[] keyData = new Object[keyNrs.length];
@@ -204,17 +220,46 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
         keyData[i] = keyMeta.convertToNormalStorageType(rowData[keyNrs[i]]);
       }
 
+      int partition = -1;
+      if (data.sharedTable != null) {
+        partition = data.sharedTable.getPartition(data.cacheKeyMeta, keyData);
+        if (allRowsInEveryCopy && !data.sharedTable.isOwnPartition(partition, getCopy())) {
+          rowData = getRowFrom(rowSet);
+          continue;
+        }
+      }
+
       Object[] valueData = new Object[valueNrs.length];
       for (int i = 0; i < valueNrs.length; i++) {
         // Store value as is, avoid preliminary binary->normal storage type conversion
         valueData[i] = rowData[valueNrs[i]];
       }
 
-      addToCache(data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData);
+      if (data.sharedTable != null) {
+        data.sharedTable.put(
+            partition, !allRowsInEveryCopy, data.cacheKeyMeta, keyData, valueData);
+      } else {
+        addToCache(data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData);
+      }
 
       rowData = getRowFrom(rowSet);
     }
 
+    if (data.sharedTable != null) {
+      if (!data.sharedTable.finishBuilding(this)) {
+        // Stopped while waiting for the other copies or another copy failed
+        return !data.sharedTable.isFailed();
+      }
+      if (!data.hasLookupRows && data.sharedTable.hasRows()) {
+        // The other copies received the lookup rows
+        data.hasLookupRows = true;
+        data.infoMeta = data.sharedTable.getInfoMeta().clone();
+        data.keyTypes = data.sharedTable.getKeyTypes().clone();
+        data.cacheKeyMeta = data.sharedTable.getCacheKeyMeta().clone();
+        data.cacheValueMeta = data.sharedTable.getCacheValueMeta().clone();
+      }
+    }
+
     return true;
   }
 
@@ -240,7 +285,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
     // Copy value references to lookup table.
     //
-    Object[] lu = new Object[data.keynrs.length];
+    Object[] lu = data.lookupKey;
     for (int i = 0; i < data.keynrs.length; i++) {
       // If the input is binary storage data, we convert it to normal storage.
       //
@@ -296,7 +341,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
   private void addToCache(
       IRowMeta keyMeta, Object[] keyData, IRowMeta valueMeta, Object[] valueData)
-      throws HopValueException {
+      throws HopException {
     if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, valueData);
@@ -326,11 +371,15 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
           Long value = valueMeta.getInteger(valueData, 0);
           data.longIndex.put(key, value);
         } else {
-          if (data.hashIndex == null) {
-            data.hashIndex = new ByteArrayHashIndex(keyMeta);
+          if (data.rowHashIndex == null && data.hashIndex == null) {
+            createHashIndex(keyMeta, valueMeta);
+          }
+          if (data.rowHashIndex != null) {
+            data.rowHashIndex.put(keyData, valueData);
+          } else {
+            data.hashIndex.put(
+                RowMeta.extractData(keyMeta, keyData), RowMeta.extractData(valueMeta, valueData));
           }
-          data.hashIndex.put(
-              RowMeta.extractData(keyMeta, keyData), RowMeta.extractData(valueMeta, valueData));
         }
       }
     } else {
@@ -340,7 +389,32 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     }
   }
 
-  private Object[] getFromCache(IRowMeta keyMeta, Object[] keyData) throws HopValueException {
+  /**
+   * The keys and values are serialized into a hash index. If the key fields allow it they go into
+   * a {@link RowHashIndex}, which looks up keys without deserializing them, optionally in memory
+   * mapped files.
+   */
+  private void createHashIndex(IRowMeta keyMeta, IRowMeta valueMeta) throws HopException {
+    if (RowHashIndex.isSupported(keyMeta)) {
+      String directory = resolve(meta.getMemoryMappedDirectory());
+      if (Utils.isEmpty(directory)) {
+        data.rowHashIndex = new RowHashIndex(keyMeta, valueMeta);
+      } else {
+        if (log.isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(PKG, "StreamLookup.Log.UsingMemoryMappedFiles", directory));
+        }
+        data.rowHashIndex = new RowHashIndex(keyMeta, valueMeta, directory);
+      }
+    } else {
+      data.hashIndex = new ByteArrayHashIndex(keyMeta);
+    }
+  }
+
+  private Object[] getFromCache(IRowMeta keyMeta, Object[] keyData) throws HopException {
+    if (data.sharedTable != null) {
+      return data.sharedTable.get(keyMeta, keyData);
+    }
     if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, null);
@@ -360,6 +434,8 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
           return new Object[] {
             value,
           };
+        } else if (data.rowHashIndex != null) {
+          return data.rowHashIndex.get(keyData);
         } else {
           try {
             byte[] value = data.hashIndex.get(RowMeta.extractData(keyMeta, keyData));
@@ -378,13 +454,28 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     }
   }
 
+  /** Don't leave the other copies waiting for the rows of this copy. */
+  private void abortSharedTable() {
+    if (data.sharedTable != null) {
+      data.sharedTable.abort();
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
     if (data.readLookupValues) {
       data.readLookupValues = false;
 
-      if (!readLookupValues()) {
+      boolean lookupValuesRead;
+      try {
+        lookupValuesRead = readLookupValues();
+      } catch (HopException | RuntimeException e) {
+        abortSharedTable();
+        throw e;
+      }
+      if (!lookupValuesRead) {
+        abortSharedTable();
         // Read values in lookup table (look)
         logError(BaseMessages.getString(PKG, "StreamLookup.Log.UnableToReadDataFromLookupStream"));
         setErrors(1);
@@ -415,6 +506,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       data.keynrs = new int[meta.getKeystream().length];
       data.lookupMeta = new RowMeta();
       data.convertKeysToNative = new boolean[meta.getKeystream().length];
+      data.lookupKey = new Object[meta.getKeystream().length];
 
       for (int i = 0; i < meta.getKeystream().length; i++) {
         // Find the keynr in the row (only once)
@@ -485,6 +577,13 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     if (super.init()) {
       data.readLookupValues = true;
 
+      if (meta.isSharingLookupData()) {
+        int nrCopies = getPipeline().getComponentCopies(getTransformName()).size();
+        data.sharedTable =
+            SharedLookupTable.getInstance(
+                getPipeline().getExtensionDataMap(), getTransformName(), Math.max(1, nrCopies));
+      }
+
       return true;
     }
 
@@ -499,6 +598,14 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    if (data.rowHashIndex != null) {
+      data.rowHashIndex.close();
+      data.rowHashIndex = null;
+    }
+    if (data.sharedTable != null) {
+      data.sharedTable.release(getPipeline().getExtensionDataMap());
+      data.sharedTable = null;
+    }
 
     super.dispose();
   }
@@ -21,6 +21,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
 import org.apache.hop.core.hash.LongHashIndex;
+import org.apache.hop.core.hash.RowHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -61,6 +62,15 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
+  /** The lookup data when memory is preserved and the key types are supported */
+  public RowHashIndex rowHashIndex;
+
+  /** The lookup data shared by all copies of the transform, null if every copy has its own */
+  public SharedLookupTable sharedTable;
+
+  /** The key values of the row being looked up, reused for every row */
+  public Object[] lookupKey;
+
   public IRowMeta lookupMeta;
 
   public IRowMeta infoMeta;
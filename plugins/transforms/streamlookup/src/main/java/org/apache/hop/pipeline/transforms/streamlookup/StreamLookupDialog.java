@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CCombo;
@@ -63,6 +64,12 @@ public class StreamLookupDialog extends BaseTransformDialog implements ITransfor
 
   private Button wIntegerPair;
 
+  private Label wlMemoryMappedDirectory;
+
+  private TextVar wMemoryMappedDirectory;
+
+  private Button wShareLookupData;
+
   private final StreamLookupMeta input;
 
   private ColumnInfo[] ciKey;
@@ -210,12 +217,60 @@ public class StreamLookupDialog extends BaseTransformDialog implements ITransfor
     fdKey.bottom = new FormAttachment(wlKey, (int) (props.getZoomFactor() * 120));
     wKey.setLayoutData(fdKey);
 
+    Label wlShareLookupData = new Label(shell, SWT.RIGHT);
+    wlShareLookupData.setText(
+        BaseMessages.getString(PKG, "StreamLookupDialog.ShareLookupData.Label"));
+    wlShareLookupData.setToolTipText(
+        BaseMessages.getString(PKG, "StreamLookupDialog.ShareLookupData.Tooltip"));
+    props.setLook(wlShareLookupData);
+    FormData fdlShareLookupData = new FormData();
+    fdlShareLookupData.left = new FormAttachment(0, 0);
+    fdlShareLookupData.bottom = new FormAttachment(wOk, -2 * margin);
+    fdlShareLookupData.right = new FormAttachment(middle, -margin);
+    wlShareLookupData.setLayoutData(fdlShareLookupData);
+    wShareLookupData = new Button(shell, SWT.CHECK);
+    props.setLook(wShareLookupData);
+    FormData fdShareLookupData = new FormData();
+    fdShareLookupData.left = new FormAttachment(middle, 0);
+    fdShareLookupData.top = new FormAttachment(wlShareLookupData, 0, SWT.CENTER);
+    fdShareLookupData.right = new FormAttachment(100, 0);
+    wShareLookupData.setLayoutData(fdShareLookupData);
+    wShareLookupData.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+          }
+        });
+
+    wlMemoryMappedDirectory = new Label(shell, SWT.RIGHT);
+    wlMemoryMappedDirectory.setText(
+        BaseMessages.getString(PKG, "StreamLookupDialog.MemoryMappedDirectory.Label"));
+    wlMemoryMappedDirectory.setToolTipText(
+        BaseMessages.getString(PKG, "StreamLookupDialog.MemoryMappedDirectory.Tooltip"));
+    wlMemoryMappedDirectory.setEnabled(false);
+    props.setLook(wlMemoryMappedDirectory);
+    FormData fdlMemoryMappedDirectory = new FormData();
+    fdlMemoryMappedDirectory.left = new FormAttachment(0, 0);
+    fdlMemoryMappedDirectory.bottom = new FormAttachment(wShareLookupData, -margin);
+    fdlMemoryMappedDirectory.right = new FormAttachment(middle, -margin);
+    wlMemoryMappedDirectory.setLayoutData(fdlMemoryMappedDirectory);
+    wMemoryMappedDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryMappedDirectory.setEnabled(false);
+    props.setLook(wMemoryMappedDirectory);
+    wMemoryMappedDirectory.addModifyListener(lsMod);
+    FormData fdMemoryMappedDirectory = new FormData();
+    fdMemoryMappedDirectory.left = new FormAttachment(middle, 0);
+    fdMemoryMappedDirectory.top = new FormAttachment(wlMemoryMappedDirectory, 0, SWT.CENTER);
+    fdMemoryMappedDirectory.right = new FormAttachment(100, 0);
+    wMemoryMappedDirectory.setLayoutData(fdMemoryMappedDirectory);
+
     Label wlSortedList = new Label(shell, SWT.RIGHT);
     wlSortedList.setText(BaseMessages.getString(PKG, "StreamLookupDialog.SortedList.Label"));
     props.setLook(wlSortedList);
     FormData fdlSortedList = new FormData();
     fdlSortedList.left = new FormAttachment(0, 0);
-    fdlSortedList.bottom = new FormAttachment(wOk, -2 * margin);
+    fdlSortedList.bottom = new FormAttachment(wMemoryMappedDirectory, -margin);
     fdlSortedList.right = new FormAttachment(middle, -margin);
     wlSortedList.setLayoutData(fdlSortedList);
     wSortedList = new Button(shell, SWT.RADIO);
@@ -288,6 +343,8 @@ public class StreamLookupDialog extends BaseTransformDialog implements ITransfor
           boolean selection = wPreserveMemory.getSelection();
           wSortedList.setEnabled(selection);
           wIntegerPair.setEnabled(selection);
+          wlMemoryMappedDirectory.setEnabled(selection);
+          wMemoryMappedDirectory.setEnabled(selection);
         });
 
     // THE UPDATE/INSERT TABLE
@@ -474,12 +531,16 @@ public class StreamLookupDialog extends BaseTransformDialog implements ITransfor
     if (isPreserveMemory) {
       wSortedList.setEnabled(true);
       wIntegerPair.setEnabled(true);
+      wlMemoryMappedDirectory.setEnabled(true);
+      wMemoryMappedDirectory.setEnabled(true);
     }
     // usually this is sorted list or integer pair
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
     wSortedList.setSelection(input.isUsingSortedList());
     wIntegerPair.setSelection(input.isUsingIntegerPair());
+    wMemoryMappedDirectory.setText(Const.NVL(input.getMemoryMappedDirectory(), ""));
+    wShareLookupData.setSelection(input.isSharingLookupData());
 
     wKey.setRowNums();
     wKey.optWidth(true);
@@ -507,6 +568,8 @@ public class StreamLookupDialog extends BaseTransformDialog implements ITransfor
     input.setMemoryPreservationActive(wPreserveMemory.getSelection());
     input.setUsingSortedList(wSortedList.getSelection());
     input.setUsingIntegerPair(wIntegerPair.getSelection());
+    input.setMemoryMappedDirectory(wMemoryMappedDirectory.getText());
+    input.setSharingLookupData(wShareLookupData.getSelection());
 
     if (log.isDebug()) {
       logDebug(BaseMessages.getString(PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + ""));
@@ -97,6 +97,17 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
   @Injection(name = "INTEGER_PAIR")
   private boolean usingIntegerPair;
 
+  /**
+   * The local directory of the memory mapped files with the lookup data, empty to keep it on the
+   * heap
+   */
+  @Injection(name = "MEMORY_MAPPED_DIRECTORY")
+  private String memoryMappedDirectory;
+
+  /** Build the lookup data once and share it between all copies of the transform */
+  @Injection(name = "SHARE_LOOKUP_DATA")
+  private boolean sharingLookupData;
+
   public StreamLookupMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -164,6 +175,9 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "sorted_list")));
       setUsingIntegerPair(
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "integer_pair")));
+      setMemoryMappedDirectory(XmlHandler.getTagValue(transformNode, "memory_mapped_directory"));
+      setSharingLookupData(
+          "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "share_lookup_data")));
 
       Node lookup = XmlHandler.getSubNode(transformNode, "lookup");
       nrkeys = XmlHandler.countNodes(lookup, "key");
@@ -267,6 +281,12 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
         .append(XmlHandler.addTagValue("preserve_memory", isMemoryPreservationActive()));
     retval.append("    ").append(XmlHandler.addTagValue("sorted_list", isUsingSortedList()));
     retval.append("    ").append(XmlHandler.addTagValue("integer_pair", isUsingIntegerPair()));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("memory_mapped_directory", getMemoryMappedDirectory()));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("share_lookup_data", isSharingLookupData()));
 
     retval.append("    <lookup>").append(Const.CR);
     for (int i = 0; i < getKeystream().length; i++) {
@@ -628,6 +648,26 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
     this.usingIntegerPair = usingIntegerPair;
   }
 
+  /** @return the local directory of the memory mapped lookup data, empty to use the heap */
+  public String getMemoryMappedDirectory() {
+    return memoryMappedDirectory;
+  }
+
+  /** @param memoryMappedDirectory the local directory of the memory mapped lookup data */
+  public void setMemoryMappedDirectory(String memoryMappedDirectory) {
+    this.memoryMappedDirectory = memoryMappedDirectory;
+  }
+
+  /** @return true if the lookup data is built once and shared between all copies */
+  public boolean isSharingLookupData() {
+    return sharingLookupData;
+  }
+
+  /** @param sharingLookupData true to share the lookup data between all copies */
+  public void setSharingLookupData(boolean sharingLookupData) {
+    this.sharingLookupData = sharingLookupData;
+  }
+
   /**
    * If we use injection we can have different arrays lengths. We need synchronize them for
    * consistency behavior with UI
@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.streamlookup;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.transform.TransformIOMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.stream.IStream;
+import org.apache.hop.pipeline.transform.stream.Stream;
+import org.apache.hop.pipeline.transform.stream.StreamIcon;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SharedLookupTableTest {
+  private static final int NR_LOOKUP_ROWS = 100;
+
+  private TransformMockHelper<StreamLookupMeta, StreamLookupData> smh;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    smh = new TransformMockHelper<>("StreamLookup", StreamLookupMeta.class, StreamLookupData.class);
+    when(smh.logChannelFactory.create(any(), nullable(ILoggingObject.class)))
+        .thenReturn(smh.iLogChannel);
+    when(smh.pipeline.isRunning()).thenReturn(true);
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void cleanUp() {
+    executor.shutdownNow();
+    smh.cleanUp();
+  }
+
+  private static IRowMeta createKeyMeta() {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("Id"));
+    return keyMeta;
+  }
+
+  private static IRowMeta createValueMeta() {
+    IRowMeta valueMeta = new RowMeta();
+    valueMeta.addValueMeta(new ValueMetaString("Value"));
+    return valueMeta;
+  }
+
+  private static <T> void assertWaiting(Future<T> future) throws Exception {
+    try {
+      future.get(200, TimeUnit.MILLISECONDS);
+      fail("The copy should still be waiting");
+    } catch (TimeoutException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testEveryPartitionHasOneOwner() {
+    for (int nrCopies : new int[] {1, 2, 3, 7, 64}) {
+      SharedLookupTable table = SharedLookupTable.getInstance(new HashMap<>(), "t", nrCopies);
+      int[] ownedPartitions = new int[nrCopies];
+      for (int partition = 0; partition < table.getNrPartitions(); partition++) {
+        int owners = 0;
+        for (int copyNr = 0; copyNr < nrCopies; copyNr++) {
+          if (table.isOwnPartition(partition, copyNr)) {
+            owners++;
+            ownedPartitions[copyNr]++;
+          }
+        }
+        assertEquals("partition " + partition + " of " + nrCopies + " copies", 1, owners);
+      }
+      for (int copyNr = 0; copyNr < nrCopies; copyNr++) {
+        assertTrue(ownedPartitions[copyNr] > 0);
+      }
+    }
+  }
+
+  @Test
+  public void testWaitingCopiesAreReleasedOnceAllCopiesAreDone() throws Exception {
+    SharedLookupTable table = SharedLookupTable.getInstance(new HashMap<>(), "t", 3);
+    StreamLookup copy = mock(StreamLookup.class);
+
+    Future<Boolean> first = executor.submit(() -> table.finishBuilding(copy));
+    Future<Boolean> second = executor.submit(() -> table.finishBuilding(copy));
+    assertWaiting(first);
+    assertWaiting(second);
+
+    assertTrue(table.finishBuilding(copy));
+    assertTrue(first.get(5, TimeUnit.SECONDS));
+    assertTrue(second.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStoppedCopyStopsWaiting() {
+    SharedLookupTable table = SharedLookupTable.getInstance(new HashMap<>(), "t", 2);
+    StreamLookup copy = mock(StreamLookup.class);
+    when(copy.isStopped()).thenReturn(true);
+
+    assertFalse(table.finishBuilding(copy));
+  }
+
+  @Test
+  public void testAbortReleasesWaitingCopies() throws Exception {
+    SharedLookupTable table = SharedLookupTable.getInstance(new HashMap<>(), "t", 3);
+    StreamLookup copy = mock(StreamLookup.class);
+
+    Future<Boolean> waiting = executor.submit(() -> table.finishBuilding(copy));
+    assertWaiting(waiting);
+
+    table.abort();
+    assertFalse(waiting.get(5, TimeUnit.SECONDS));
+    assertFalse(table.finishBuilding(copy));
+    assertTrue(table.isFailed());
+  }
+
+  @Test
+  public void testLastCopyRemovesTable() throws HopException {
+    Map<String, Object> extensionDataMap = new HashMap<>();
+    SharedLookupTable table = SharedLookupTable.getInstance(extensionDataMap, "t", 2);
+    assertSame(table, SharedLookupTable.getInstance(extensionDataMap, "t", 2));
+    assertNotSame(table, SharedLookupTable.getInstance(extensionDataMap, "other", 2));
+    table.setMetadata(createKeyMeta(), createKeyMeta(), createKeyMeta(), createValueMeta(), null);
+
+    table.release(extensionDataMap);
+    assertEquals(2, extensionDataMap.size());
+    table.release(extensionDataMap);
+    assertEquals(1, extensionDataMap.size());
+
+    // A new run of the transform starts over
+    SharedLookupTable next = SharedLookupTable.getInstance(extensionDataMap, "t", 2);
+    assertNotSame(table, next);
+    assertFalse(next.hasRows());
+  }
+
+  @Test
+  public void testRowsOfAllCopiesAreFound() throws HopException {
+    SharedLookupTable table = SharedLookupTable.getInstance(new HashMap<>(), "t", 2);
+    IRowMeta keyMeta = createKeyMeta();
+    table.setMetadata(createKeyMeta(), createKeyMeta(), keyMeta, createValueMeta(), null);
+
+    for (long id = 0; id < NR_LOOKUP_ROWS; id++) {
+      Object[] key = new Object[] {id};
+      table.put(table.getPartition(keyMeta, key), true, keyMeta, key, new Object[] {"v" + id});
+    }
+    for (long id = 0; id < NR_LOOKUP_ROWS; id++) {
+      assertArrayEquals(new Object[] {"v" + id}, table.get(keyMeta, new Object[] {id}));
+    }
+    assertNull(table.get(keyMeta, new Object[] {-1L}));
+  }
+
+  private StreamLookup createCopy(
+      int copyNr, boolean distributes, List<Object[]> lookupRows, String keyField)
+      throws HopException {
+    TransformMeta lookupTransformMeta = mock(TransformMeta.class);
+    when(lookupTransformMeta.getName()).thenReturn("Lookup");
+    when(lookupTransformMeta.isDistributes()).thenReturn(distributes);
+    doReturn(lookupTransformMeta).when(smh.pipelineMeta).findTransform("Lookup");
+
+    TransformIOMeta transformIOMeta = new TransformIOMeta(true, true, false, false, false, false);
+    transformIOMeta.addStream(
+        new Stream(IStream.StreamType.INFO, lookupTransformMeta, null, StreamIcon.INFO, null));
+    StreamLookupMeta meta = smh.iTransformMeta;
+    doReturn(transformIOMeta).when(meta).getTransformIOMeta();
+    doReturn(new String[] {"Id"}).when(meta).getKeylookup();
+    doReturn(new String[] {"Value"}).when(meta).getValue();
+    doReturn(true).when(meta).isSharingLookupData();
+
+    IEngineComponent component = mock(IEngineComponent.class);
+    doReturn(Arrays.asList(component, component))
+        .when(smh.pipeline)
+        .getComponentCopies("StreamLookup");
+
+    StreamLookup copy =
+        new StreamLookup(
+            smh.transformMeta,
+            meta,
+            new StreamLookupData(),
+            copyNr,
+            smh.pipelineMeta,
+            smh.pipeline);
+    assertTrue(copy.init());
+
+    IRowSet lookupRowSet = smh.getMockInputRowSet(lookupRows);
+    doReturn("Lookup").when(lookupRowSet).getOriginTransformName();
+    doReturn("StreamLookup").when(lookupRowSet).getDestinationTransformName();
+    doReturn(copyNr).when(lookupRowSet).getDestinationTransformCopy();
+    IRowMeta lookupRowMeta = new RowMeta();
+    lookupRowMeta.addValueMeta(new ValueMetaString("Value"));
+    lookupRowMeta.addValueMeta(new ValueMetaInteger(keyField));
+    doReturn(lookupRowMeta).when(lookupRowSet).getRowMeta();
+    copy.addRowSetToInputRowSets(lookupRowSet);
+    return copy;
+  }
+
+  private static List<Object[]> createLookupRows(int copyNr, int nrCopies) {
+    List<Object[]> rows = new ArrayList<>();
+    for (long id = 0; id < NR_LOOKUP_ROWS; id++) {
+      if (id % nrCopies == copyNr) {
+        rows.add(new Object[] {"v" + id, id});
+      }
+    }
+    return rows;
+  }
+
+  /** Read the lookup rows with both copies at the same time. */
+  private void readLookupRows(StreamLookup... copies) throws Exception {
+    List<Future<Boolean>> futures = new ArrayList<>();
+    for (StreamLookup copy : copies) {
+      futures.add(executor.submit((Callable<Boolean>) copy::processRow));
+    }
+    for (Future<Boolean> future : futures) {
+      assertTrue(future.get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  private void assertTableIsComplete(StreamLookup copy) throws HopException {
+    IRowMeta keyMeta = createKeyMeta();
+    SharedLookupTable table = copy.getData().sharedTable;
+    for (long id = 0; id < NR_LOOKUP_ROWS; id++) {
+      assertArrayEquals(
+          "key " + id, new Object[] {"v" + id}, table.get(keyMeta, new Object[] {id}));
+    }
+  }
+
+  @Test
+  public void testCopiedLookupStream() throws Exception {
+    // Every copy receives all lookup rows and only adds the rows of its own partitions
+    StreamLookup copy0 = createCopy(0, false, createLookupRows(0, 1), "Id");
+    StreamLookup copy1 = createCopy(1, false, createLookupRows(0, 1), "Id");
+    assertSame(copy0.getData().sharedTable, copy1.getData().sharedTable);
+
+    readLookupRows(copy0, copy1);
+    assertTableIsComplete(copy0);
+
+    copy0.dispose();
+    assertEquals(1, smh.pipeline.getExtensionDataMap().size());
+    copy1.dispose();
+    assertTrue(smh.pipeline.getExtensionDataMap().isEmpty());
+  }
+
+  @Test
+  public void testDistributedLookupStream() throws Exception {
+    // Every copy receives half of the lookup rows and adds all of them
+    StreamLookup copy0 = createCopy(0, true, createLookupRows(0, 2), "Id");
+    StreamLookup copy1 = createCopy(1, true, createLookupRows(1, 2), "Id");
+
+    readLookupRows(copy0, copy1);
+    assertTableIsComplete(copy0);
+
+    copy0.dispose();
+    copy1.dispose();
+    assertTrue(smh.pipeline.getExtensionDataMap().isEmpty());
+  }
+
+  @Test
+  public void testFailedCopyReleasesOtherCopies() throws Exception {
+    StreamLookup copy0 = createCopy(0, false, createLookupRows(0, 1), "Id");
+    // The key field is missing in the lookup rows of the second copy
+    StreamLookup copy1 = createCopy(1, false, createLookupRows(0, 1), "Other");
+
+    Future<Boolean> waiting = executor.submit((Callable<Boolean>) copy0::processRow);
+    try {
+      copy1.processRow();
+      fail("The key field shouldn't be found");
+    } catch (HopException e) {
+      // Expected
+    }
+    assertFalse(waiting.get(5, TimeUnit.SECONDS));
+    assertEquals(1, copy0.getErrors());
+
+    copy0.dispose();
+    copy1.dispose();
+    assertTrue(smh.pipeline.getExtensionDataMap().isEmpty());
+  }
+}
@@ -52,6 +52,8 @@ public class StreamLookupMetaTest implements IInitializer<ITransformMeta> {
             "memoryPreservationActive",
             "usingSortedList",
             "usingIntegerPair",
+            "memoryMappedDirectory",
+            "sharingLookupData",
             "keystream",
             "keylookup",
             "value",
@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The values of the split column which divide the rows of a partitioned Table Input over its
+ * copies, determined once for all copies. Every copy reads the rows between two consecutive splits
+ * over its own connection: the first copy reads everything up to the first split and the rows
+ * without a value, the last copy everything after the last split.
+ *
+ * <p>The splits come from the minimum and maximum value of the column, divided in equal ranges, or
+ * from NTILE over the values, which gives every copy the same number of rows at the cost of sorting
+ * the values first.
+ */
+public class PartitionSplits {
+
+  private static final String EXTENSION_DATA_KEY_PREFIX = "TableInput.PartitionSplits.";
+
+  /** The alias of the query of the transform when it's wrapped to add the partition condition */
+  static final String QUERY_ALIAS = "hop_part";
+
+  private final String extensionDataKey;
+
+  /** The number of copies using these splits, guarded by the extension data map */
+  private int references;
+
+  private IValueMeta splitMeta;
+  private List<Object> splits;
+
+  private PartitionSplits(String extensionDataKey) {
+    this.extensionDataKey = extensionDataKey;
+  }
+
+  /**
+   * Get the splits of a transform, the first copy creates them.
+   *
+   * @param extensionDataMap the extension data of the pipeline, shared by all copies
+   * @param transformName the name of the transform
+   * @return the splits to use, call {@link #release(Map)} when done
+   */
+  static PartitionSplits getInstance(Map<String, Object> extensionDataMap, String transformName) {
+    String key = EXTENSION_DATA_KEY_PREFIX + transformName;
+    synchronized (extensionDataMap) {
+      PartitionSplits partitionSplits = (PartitionSplits) extensionDataMap.get(key);
+      if (partitionSplits == null) {
+        partitionSplits = new PartitionSplits(key);
+        extensionDataMap.put(key, partitionSplits);
+      }
+      partitionSplits.references++;
+      return partitionSplits;
+    }
+  }
+
+  /**
+   * Stop using the splits. Once all copies are done the splits are removed.
+   *
+   * @param extensionDataMap the extension data of the pipeline
+   */
+  void release(Map<String, Object> extensionDataMap) {
+    synchronized (extensionDataMap) {
+      references--;
+      if (references > 0) {
+        return;
+      }
+      extensionDataMap.remove(extensionDataKey);
+    }
+  }
+
+  /**
+   * Query the splits. The first copy runs the query, the others wait for it and use the same
+   * splits. When the query fails the next copy tries again.
+   *
+   * @param db the database connection of the calling copy
+   * @param method {@link TableInputMeta#PARTITION_METHOD_RANGE} or {@link
+   *     TableInputMeta#PARTITION_METHOD_NTILE}
+   * @param sql the query of the transform
+   * @param column the quoted name of the split column
+   * @param nrPartitions the number of copies
+   * @throws HopException if the splits can't be queried
+   */
+  synchronized void load(Database db, String method, String sql, String column, int nrPartitions)
+      throws HopException {
+    if (splits != null) {
+      return;
+    }
+    if (TableInputMeta.PARTITION_METHOD_NTILE.equals(method)) {
+      List<Object[]> rows = db.getRows(getNtileSql(sql, column, nrPartitions), 0);
+      List<Object> values = new ArrayList<>();
+      // The last tile ends with the maximum, the last copy reads everything after the one before
+      for (int i = 0; i < rows.size() - 1; i++) {
+        values.add(rows.get(i)[0]);
+      }
+      splitMeta = db.getReturnRowMeta().getValueMeta(0);
+      splits = values;
+    } else {
+      RowMetaAndData minMax = db.getOneRow(getMinMaxSql(sql, column));
+      if (minMax == null) {
+        throw new HopException("Unable to query the range of partition column " + column);
+      }
+      splitMeta = minMax.getRowMeta().getValueMeta(0);
+      splits =
+          calculateRangeSplits(
+              splitMeta, minMax.getData()[0], minMax.getData()[1], nrPartitions);
+    }
+  }
+
+  /** @return the data type of the splits */
+  IValueMeta getSplitMeta() {
+    return splitMeta;
+  }
+
+  /** @return the values which divide the rows over the copies, in ascending order */
+  List<Object> getSplits() {
+    return splits;
+  }
+
+  static String getMinMaxSql(String sql, String column) {
+    return "SELECT MIN("
+        + column
+        + "), MAX("
+        + column
+        + ") FROM ("
+        + Const.CR
+        + sql
+        + Const.CR
+        + ") "
+        + QUERY_ALIAS;
+  }
+
+  static String getNtileSql(String sql, String column, int nrPartitions) {
+    return "SELECT MAX("
+        + column
+        + ") FROM (SELECT "
+        + column
+        + ", NTILE("
+        + nrPartitions
+        + ") OVER (ORDER BY "
+        + column
+        + ") hop_tile FROM ("
+        + Const.CR
+        + sql
+        + Const.CR
+        + ") "
+        + QUERY_ALIAS
+        + " WHERE "
+        + column
+        + " IS NOT NULL) hop_tiles GROUP BY hop_tile ORDER BY hop_tile";
+  }
+
+  /**
+   * @param sql the query of the transform
+   * @param condition the condition selecting the rows of one copy
+   * @return the query reading the rows of one copy
+   */
+  static String getPartitionSql(String sql, String condition) {
+    return "SELECT * FROM ("
+        + Const.CR
+        + sql
+        + Const.CR
+        + ") "
+        + QUERY_ALIAS
+        + " WHERE "
+        + condition;
+  }
+
+  /**
+   * Divide the range between the minimum and maximum value in equal parts.
+   *
+   * @param valueMeta the data type of the values, numeric or a date
+   * @param min the minimum value, null if there are no values
+   * @param max the maximum value
+   * @param nrPartitions the number of parts
+   * @return the values between the parts, one less than the number of parts
+   * @throws HopValueException if the values aren't numbers or dates
+   */
+  static List<Object> calculateRangeSplits(
+      IValueMeta valueMeta, Object min, Object max, int nrPartitions) throws HopValueException {
+    if (min == null || max == null || nrPartitions < 2) {
+      return Collections.emptyList();
+    }
+    List<Object> values = new ArrayList<>();
+    if (valueMeta.isDate()) {
+      long low = valueMeta.getDate(min).getTime();
+      BigDecimal range =
+          BigDecimal.valueOf(valueMeta.getDate(max).getTime()).subtract(BigDecimal.valueOf(low));
+      for (int i = 1; i < nrPartitions; i++) {
+        long time =
+            low
+                + range
+                    .multiply(BigDecimal.valueOf(i))
+                    .divide(BigDecimal.valueOf(nrPartitions), 0, RoundingMode.FLOOR)
+                    .longValue();
+        values.add(
+            valueMeta.getType() == IValueMeta.TYPE_TIMESTAMP
+                ? new Timestamp(time)
+                : new Date(time));
+      }
+    } else if (valueMeta.isNumeric()) {
+      BigDecimal low = valueMeta.getBigNumber(min);
+      BigDecimal range = valueMeta.getBigNumber(max).subtract(low);
+      for (int i = 1; i < nrPartitions; i++) {
+        BigDecimal split =
+            low.add(
+                range
+                    .multiply(BigDecimal.valueOf(i))
+                    .divide(BigDecimal.valueOf(nrPartitions), MathContext.DECIMAL64));
+        switch (valueMeta.getType()) {
+          case IValueMeta.TYPE_INTEGER:
+            values.add(split.setScale(0, RoundingMode.FLOOR).longValue());
+            break;
+          case IValueMeta.TYPE_NUMBER:
+            values.add(split.doubleValue());
+            break;
+          default:
+            values.add(split);
+            break;
+        }
+      }
+    } else {
+      throw new HopValueException(
+          "The partition column "
+              + valueMeta.getName()
+              + " needs to be numeric or a date to be divided in ranges, not "
+              + valueMeta.getTypeDesc());
+    }
+    return values;
+  }
+
+  /**
+   * Get the condition selecting the rows of one copy, with a parameter for every split it uses.
+   * Copies beyond the number of splits plus one read nothing.
+   *
+   * @param column the quoted name of the split column
+   * @param nrSplits the number of splits
+   * @param partitionNr the copy number
+   * @return the condition or null if the copy reads all rows
+   */
+  static String getRangeCondition(String column, int nrSplits, int partitionNr) {
+    if (partitionNr > nrSplits) {
+      return "1 = 0";
+    }
+    if (nrSplits == 0) {
+      return null;
+    }
+    if (partitionNr == 0) {
+      return "(" + column + " <= ? OR " + column + " IS NULL)";
+    }
+    if (partitionNr == nrSplits) {
+      return column + " > ?";
+    }
+    return column + " > ? AND " + column + " <= ?";
+  }
+
+  /**
+   * @param splits the splits
+   * @param partitionNr the copy number
+   * @return the parameter values of the condition of {@link #getRangeCondition(String, int, int)}
+   */
+  static Object[] getRangeParameters(List<Object> splits, int partitionNr) {
+    int nrSplits = splits.size();
+    if (nrSplits == 0 || partitionNr > nrSplits) {
+      return new Object[0];
+    }
+    if (partitionNr == 0) {
+      return new Object[] {splits.get(0)};
+    }
+    if (partitionNr == nrSplits) {
+      return new Object[] {splits.get(nrSplits - 1)};
+    }
+    return new Object[] {splits.get(partitionNr - 1), splits.get(partitionNr)};
+  }
+}
@@ -37,6 +37,7 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 /** Reads information from a database table by using freehand SQL */
 public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
@@ -226,11 +227,12 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
     boolean success = true;
 
     // Open the query with the optional parameters received from the source transforms.
-    String sql = null;
-    if (meta.isVariableReplacementActive()) {
-      sql = resolve(meta.getSql());
-    } else {
-      sql = meta.getSql();
+    String sql = getQuerySql();
+    if (data.partitionCondition != null) {
+      // Partitioned reads don't have parameters from source transforms
+      sql = PartitionSplits.getPartitionSql(sql, data.partitionCondition);
+      parametersMeta = data.partitionParametersMeta;
+      parameters = data.partitionParameters;
     }
 
     if (log.isDetailed()) {
@@ -270,6 +272,74 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
     return success;
   }
 
+  private String getQuerySql() {
+    String sql = meta.isVariableReplacementActive() ? resolve(meta.getSql()) : meta.getSql();
+    if (meta.isPartitionedRead()) {
+      // The query is wrapped in another one, a statement separator at the end doesn't fit
+      sql = Const.trimToType(sql, IValueMeta.TRIM_TYPE_RIGHT);
+      while (sql.endsWith(";")) {
+        sql = Const.trimToType(sql.substring(0, sql.length() - 1), IValueMeta.TRIM_TYPE_RIGHT);
+      }
+    }
+    return sql;
+  }
+
+  /**
+   * Determine the rows this copy reads in a partitioned read.
+   *
+   * @param databaseMeta the database connection
+   * @throws HopException if the partition column can't be divided
+   */
+  private void preparePartitionedRead(DatabaseMeta databaseMeta) throws HopException {
+    int nrPartitions = getTransformMeta().getCopies(this);
+    int partitionNr = getCopy();
+    String column = databaseMeta.quoteField(resolve(meta.getPartitionColumn()));
+    data.partitionParametersMeta = new RowMeta();
+    data.partitionParameters = new Object[0];
+
+    if (TableInputMeta.PARTITION_METHOD_HASH.equals(meta.getPartitionMethod())) {
+      if (nrPartitions < 2) {
+        return;
+      }
+      String condition =
+          databaseMeta.getSqlHashPartitionCondition(column, partitionNr, nrPartitions);
+      if (condition == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG, "TableInput.Exception.HashPartitionNotSupported", databaseMeta.getPluginName()));
+      }
+      // Hashing null gives null, the first copy reads the rows without a value
+      data.partitionCondition =
+          partitionNr == 0 ? "(" + condition + " OR " + column + " IS NULL)" : condition;
+    } else {
+      data.partitionSplits =
+          PartitionSplits.getInstance(getPipeline().getExtensionDataMap(), getTransformName());
+      data.partitionSplits.load(
+          data.db, meta.getPartitionMethod(), getQuerySql(), column, nrPartitions);
+      List<Object> splits = data.partitionSplits.getSplits();
+      data.partitionCondition =
+          PartitionSplits.getRangeCondition(column, splits.size(), partitionNr);
+      data.partitionParameters = PartitionSplits.getRangeParameters(splits, partitionNr);
+      for (int i = 0; i < data.partitionParameters.length; i++) {
+        IValueMeta parameterMeta = data.partitionSplits.getSplitMeta().clone();
+        parameterMeta.setName("split" + i);
+        data.partitionParametersMeta.addValueMeta(parameterMeta);
+      }
+    }
+
+    if (log.isDetailed()) {
+      logDetailed(
+          "Reading partition "
+              + (partitionNr + 1)
+              + " of "
+              + nrPartitions
+              + " with condition : "
+              + Const.NVL(data.partitionCondition, "none")
+              + " "
+              + data.partitionParametersMeta.getString(data.partitionParameters));
+    }
+  }
+
   @Override
   public void dispose() {
     if (log.isBasic()) {
@@ -286,6 +356,10 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
         data.db.disconnect();
         data.db = null;
       }
+      if (data.partitionSplits != null) {
+        data.partitionSplits.release(getPipeline().getExtensionDataMap());
+        data.partitionSplits = null;
+      }
     }
 
     super.dispose();
@@ -322,11 +396,21 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
         logError(BaseMessages.getString(PKG, "TableInput.Exception.DatabaseConnectionsIsNeeded"));
         passed = false;
       }
+      data.infoStream = meta.getTransformIOMeta().getInfoStreams().get(0);
+      if (meta.isPartitionedRead()) {
+        if (Utils.isEmpty(resolve(meta.getPartitionColumn()))) {
+          logError(BaseMessages.getString(PKG, "TableInput.Exception.PartitionColumnIsNeeded"));
+          passed = false;
+        }
+        if (!Utils.isEmpty(meta.getLookup()) || data.infoStream.getTransformMeta() != null) {
+          logError(BaseMessages.getString(PKG, "TableInput.Exception.PartitionedReadWithInfo"));
+          passed = false;
+        }
+      }
       if (!passed) {
         return false;
       }
 
-      data.infoStream = meta.getTransformIOMeta().getInfoStreams().get(0);
       if (meta.getLookup() != null) {
         // Set reference to input transform
         data.infoStream.setSubject(meta.getLookup());
@@ -345,6 +429,9 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> {
         if (log.isDetailed()) {
           logDetailed("Connected to database...");
         }
+        if (meta.isPartitionedRead()) {
+          preparePartitionedRead(databaseMeta);
+        }
 
         return true;
       } catch (HopException e) {
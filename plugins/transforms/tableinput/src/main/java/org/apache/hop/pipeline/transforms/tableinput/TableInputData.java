@@ -37,6 +37,15 @@ public class TableInputData extends BaseTransformData implements ITransformData
   public boolean isCanceled;
   public IStream infoStream;
 
+  /** The splits shared by the copies of a partitioned read, null when not reading ranges */
+  public PartitionSplits partitionSplits;
+
+  /** The condition selecting the rows of this copy, null to read all rows */
+  public String partitionCondition;
+
+  public IRowMeta partitionParametersMeta;
+  public Object[] partitionParameters;
+
   public TableInputData() {
     super();
 
@@ -69,6 +69,14 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
   private Button wVariables;
 
+  private Button wPartitionedRead;
+
+  private Label wlPartitionColumn;
+  private TextVar wPartitionColumn;
+
+  private Label wlPartitionMethod;
+  private CCombo wPartitionMethod;
+
   private final TableInputMeta input;
 
   private Label wlPosition;
@@ -136,6 +144,66 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
     setButtonPositions(new Button[] {wOk, wPreview, wCancel}, margin, null);
 
+    // Partition method...
+    wlPartitionMethod = new Label(shell, SWT.RIGHT);
+    wlPartitionMethod.setText(BaseMessages.getString(PKG, "TableInputDialog.PartitionMethod"));
+    props.setLook(wlPartitionMethod);
+    FormData fdlPartitionMethod = new FormData();
+    fdlPartitionMethod.left = new FormAttachment(0, 0);
+    fdlPartitionMethod.right = new FormAttachment(middle, -margin);
+    fdlPartitionMethod.bottom = new FormAttachment(wOk, -2 * margin);
+    wlPartitionMethod.setLayoutData(fdlPartitionMethod);
+    wPartitionMethod = new CCombo(shell, SWT.BORDER | SWT.READ_ONLY);
+    props.setLook(wPartitionMethod);
+    wPartitionMethod.setItems(TableInputMeta.partitionMethodDescriptions);
+    wPartitionMethod.addModifyListener(lsMod);
+    FormData fdPartitionMethod = new FormData();
+    fdPartitionMethod.left = new FormAttachment(middle, 0);
+    fdPartitionMethod.right = new FormAttachment(100, 0);
+    fdPartitionMethod.bottom = new FormAttachment(wlPartitionMethod, 0, SWT.CENTER);
+    wPartitionMethod.setLayoutData(fdPartitionMethod);
+
+    // Partition column...
+    wlPartitionColumn = new Label(shell, SWT.RIGHT);
+    wlPartitionColumn.setText(BaseMessages.getString(PKG, "TableInputDialog.PartitionColumn"));
+    props.setLook(wlPartitionColumn);
+    FormData fdlPartitionColumn = new FormData();
+    fdlPartitionColumn.left = new FormAttachment(0, 0);
+    fdlPartitionColumn.right = new FormAttachment(middle, -margin);
+    fdlPartitionColumn.bottom = new FormAttachment(wlPartitionMethod, -2 * margin);
+    wlPartitionColumn.setLayoutData(fdlPartitionColumn);
+    wPartitionColumn = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wPartitionColumn);
+    wPartitionColumn.addModifyListener(lsMod);
+    FormData fdPartitionColumn = new FormData();
+    fdPartitionColumn.left = new FormAttachment(middle, 0);
+    fdPartitionColumn.right = new FormAttachment(100, 0);
+    fdPartitionColumn.bottom = new FormAttachment(wlPartitionColumn, 0, SWT.CENTER);
+    wPartitionColumn.setLayoutData(fdPartitionColumn);
+
+    // Read partitioned over the copies?
+    Label wlPartitionedRead = new Label(shell, SWT.RIGHT);
+    wlPartitionedRead.setText(BaseMessages.getString(PKG, "TableInputDialog.PartitionedRead"));
+    props.setLook(wlPartitionedRead);
+    FormData fdlPartitionedRead = new FormData();
+    fdlPartitionedRead.left = new FormAttachment(0, 0);
+    fdlPartitionedRead.right = new FormAttachment(middle, -margin);
+    fdlPartitionedRead.bottom = new FormAttachment(wlPartitionColumn, -2 * margin);
+    wlPartitionedRead.setLayoutData(fdlPartitionedRead);
+    wPartitionedRead = new Button(shell, SWT.CHECK);
+    props.setLook(wPartitionedRead);
+    FormData fdPartitionedRead = new FormData();
+    fdPartitionedRead.left = new FormAttachment(middle, 0);
+    fdPartitionedRead.right = new FormAttachment(100, 0);
+    fdPartitionedRead.bottom = new FormAttachment(wlPartitionedRead, 0, SWT.CENTER);
+    wPartitionedRead.setLayoutData(fdPartitionedRead);
+    wPartitionedRead.addListener(
+        SWT.Selection,
+        e -> {
+          input.setChanged();
+          setFlags();
+        });
+
     // Limit input ...
     Label wlLimit = new Label(shell, SWT.RIGHT);
     wlLimit.setText(BaseMessages.getString(PKG, "TableInputDialog.LimitSize"));
@@ -143,7 +211,7 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     FormData fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment(0, 0);
     fdlLimit.right = new FormAttachment(middle, -margin);
-    fdlLimit.bottom = new FormAttachment(wOk, -2 * margin);
+    fdlLimit.bottom = new FormAttachment(wlPartitionedRead, -2 * margin);
     wlLimit.setLayoutData(fdlLimit);
     wLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
     props.setLook(wLimit);
@@ -358,6 +426,9 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     wDataFrom.setText(Const.NVL(input.getLookup(), ""));
     wEachRow.setSelection(input.isExecuteEachInputRow());
     wVariables.setSelection(input.isVariableReplacementActive());
+    wPartitionedRead.setSelection(input.isPartitionedRead());
+    wPartitionColumn.setText(Const.NVL(input.getPartitionColumn(), ""));
+    wPartitionMethod.setText(TableInputMeta.getPartitionMethodDescription(input.getPartitionMethod()));
 
     setSqlToolTip();
     setFlags();
@@ -385,6 +456,9 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     meta.setExecuteEachInputRow(wEachRow.getSelection());
     meta.setVariableReplacementActive(wVariables.getSelection());
     meta.setLookup(wDataFrom.getText());
+    meta.setPartitionedRead(wPartitionedRead.getSelection());
+    meta.setPartitionColumn(wPartitionColumn.getText());
+    meta.setPartitionMethod(TableInputMeta.getPartitionMethodCode(wPartitionMethod.getText()));
     
     // Force recreate TransformIOMeta and update info stream
     meta.resetTransformIoMeta();
@@ -511,6 +585,12 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
       // The preview button...
       wPreview.setEnabled(true);
     }
+
+    boolean partitioned = wPartitionedRead.getSelection();
+    wlPartitionColumn.setEnabled(partitioned);
+    wPartitionColumn.setEnabled(partitioned);
+    wlPartitionMethod.setEnabled(partitioned);
+    wPartitionMethod.setEnabled(partitioned);
   }
 
   /**
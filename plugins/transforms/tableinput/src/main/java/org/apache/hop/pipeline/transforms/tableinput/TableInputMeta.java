@@ -63,6 +63,25 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
 
   private static final Class<?> PKG = TableInputMeta.class; // For Translator
 
+  /** Divide the range between the minimum and maximum value of the partition column */
+  public static final String PARTITION_METHOD_RANGE = "RANGE";
+
+  /** Divide the values of the partition column in tiles with the same number of rows */
+  public static final String PARTITION_METHOD_NTILE = "NTILE";
+
+  /** Select the rows of a copy with the hash function of the database */
+  public static final String PARTITION_METHOD_HASH = "HASH";
+
+  public static final String[] partitionMethodCodes = {
+    PARTITION_METHOD_RANGE, PARTITION_METHOD_NTILE, PARTITION_METHOD_HASH
+  };
+
+  public static final String[] partitionMethodDescriptions = {
+    BaseMessages.getString(PKG, "TableInputMeta.PartitionMethod.RANGE"),
+    BaseMessages.getString(PKG, "TableInputMeta.PartitionMethod.NTILE"),
+    BaseMessages.getString(PKG, "TableInputMeta.PartitionMethod.HASH")
+  };
+
   @HopMetadataProperty(key = "sql", injectionKey = "SQL")
   private String sql;
 
@@ -81,6 +100,18 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
 
   @HopMetadataProperty private String lookup;
 
+  /** Should every copy read its own part of the rows? */
+  @HopMetadataProperty(key = "partitioned_read", injectionKey = "PARTITIONED_READ")
+  private boolean partitionedRead;
+
+  /** The column of the query which divides the rows over the copies */
+  @HopMetadataProperty(key = "partition_column", injectionKey = "PARTITION_COLUMN")
+  private String partitionColumn;
+
+  /** How the rows are divided over the copies, one of the partition method codes */
+  @HopMetadataProperty(key = "partition_method", injectionKey = "PARTITION_METHOD")
+  private String partitionMethod;
+
   public TableInputMeta() {
     super();
   }
@@ -131,6 +162,54 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
     this.lookup = lookup;
   }
 
+  /** @return true if every copy reads its own part of the rows */
+  public boolean isPartitionedRead() {
+    return partitionedRead;
+  }
+
+  /** @param partitionedRead true if every copy reads its own part of the rows */
+  public void setPartitionedRead(boolean partitionedRead) {
+    this.partitionedRead = partitionedRead;
+  }
+
+  /** @return the column of the query which divides the rows over the copies */
+  public String getPartitionColumn() {
+    return partitionColumn;
+  }
+
+  /** @param partitionColumn the column of the query which divides the rows over the copies */
+  public void setPartitionColumn(String partitionColumn) {
+    this.partitionColumn = partitionColumn;
+  }
+
+  /** @return how the rows are divided over the copies, one of the partition method codes */
+  public String getPartitionMethod() {
+    return partitionMethod;
+  }
+
+  /** @param partitionMethod how the rows are divided over the copies */
+  public void setPartitionMethod(String partitionMethod) {
+    this.partitionMethod = partitionMethod;
+  }
+
+  /**
+   * @param code a partition method code
+   * @return the description of the partition method, range if the code is unknown
+   */
+  public static String getPartitionMethodDescription(String code) {
+    int index = Const.indexOfString(code, partitionMethodCodes);
+    return partitionMethodDescriptions[Math.max(index, 0)];
+  }
+
+  /**
+   * @param description the description of a partition method
+   * @return the code of the partition method, range if the description is unknown
+   */
+  public static String getPartitionMethodCode(String description) {
+    int index = Const.indexOfString(description, partitionMethodDescriptions);
+    return partitionMethodCodes[Math.max(index, 0)];
+  }
+
   @Override
   public Object clone() {
     TableInputMeta retval = (TableInputMeta) super.clone();
@@ -141,6 +220,8 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
   public void setDefault() {
     sql = "SELECT <values> FROM <table name> WHERE <conditions>";
     rowLimit = "0";
+    partitionedRead = false;
+    partitionMethod = PARTITION_METHOD_RANGE;
   }
 
   @Override
@@ -319,6 +400,30 @@ public class TableInputMeta extends BaseTransformMeta<TableInput, TableInputData
       remarks.add(cr);
     }
 
+    if (partitionedRead) {
+      if (Utils.isEmpty(partitionColumn)) {
+        remarks.add(
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_ERROR,
+                BaseMessages.getString(PKG, "TableInputMeta.CheckResult.PartitionColumnMissing"),
+                transformMeta));
+      }
+      if (!Utils.isEmpty(getTransformIOMeta().getInfoStreams().get(0).getTransformName())) {
+        remarks.add(
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_ERROR,
+                BaseMessages.getString(PKG, "TableInputMeta.CheckResult.PartitionedReadWithInfo"),
+                transformMeta));
+      }
+      if (transformMeta.getCopies(variables) < 2) {
+        remarks.add(
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_WARNING,
+                BaseMessages.getString(PKG, "TableInputMeta.CheckResult.PartitionedReadOneCopy"),
+                transformMeta));
+      }
+    }
+
     // See if we have an informative transform...
     IStream infoStream = getTransformIOMeta().getInfoStreams().get(0);
     if (!Utils.isEmpty(infoStream.getTransformName())) {
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionSplitsTest {
+
+  @Test
+  public void testIntegerRangeSplits() throws HopValueException {
+    List<Object> splits =
+        PartitionSplits.calculateRangeSplits(new ValueMetaInteger("id"), 1L, 100L, 4);
+    assertEquals(Arrays.asList(25L, 50L, 75L), splits);
+
+    // Fewer values than copies gives repeated splits, the ranges in between are empty
+    splits = PartitionSplits.calculateRangeSplits(new ValueMetaInteger("id"), 1L, 2L, 4);
+    assertEquals(Arrays.asList(1L, 1L, 1L), splits);
+
+    // No rows or a single copy
+    assertTrue(
+        PartitionSplits.calculateRangeSplits(new ValueMetaInteger("id"), null, null, 4).isEmpty());
+    assertTrue(
+        PartitionSplits.calculateRangeSplits(new ValueMetaInteger("id"), 1L, 100L, 1).isEmpty());
+  }
+
+  @Test
+  public void testBigNumberAndDateRangeSplits() throws HopValueException {
+    List<Object> splits =
+        PartitionSplits.calculateRangeSplits(
+            new ValueMetaBigNumber("amount"), new BigDecimal("0"), new BigDecimal("1"), 2);
+    assertEquals(0, new BigDecimal("0.5").compareTo((BigDecimal) splits.get(0)));
+
+    splits =
+        PartitionSplits.calculateRangeSplits(
+            new ValueMetaDate("date"), new Date(1000L), new Date(4000L), 3);
+    assertEquals(Arrays.asList(new Date(2000L), new Date(3000L)), splits);
+  }
+
+  @Test(expected = HopValueException.class)
+  public void testStringRangeSplits() throws HopValueException {
+    PartitionSplits.calculateRangeSplits(new ValueMetaString("code"), "a", "z", 2);
+  }
+
+  @Test
+  public void testRangeConditions() {
+    List<Object> splits = Arrays.asList(10L, 20L);
+
+    assertEquals("(id <= ? OR id IS NULL)", PartitionSplits.getRangeCondition("id", 2, 0));
+    assertArrayEquals(new Object[] {10L}, PartitionSplits.getRangeParameters(splits, 0));
+
+    assertEquals("id > ? AND id <= ?", PartitionSplits.getRangeCondition("id", 2, 1));
+    assertArrayEquals(new Object[] {10L, 20L}, PartitionSplits.getRangeParameters(splits, 1));
+
+    assertEquals("id > ?", PartitionSplits.getRangeCondition("id", 2, 2));
+    assertArrayEquals(new Object[] {20L}, PartitionSplits.getRangeParameters(splits, 2));
+
+    // Copies beyond the splits read nothing
+    assertEquals("1 = 0", PartitionSplits.getRangeCondition("id", 2, 3));
+    assertArrayEquals(new Object[0], PartitionSplits.getRangeParameters(splits, 3));
+
+    // Without splits the first copy reads everything
+    assertNull(PartitionSplits.getRangeCondition("id", 0, 0));
+    assertArrayEquals(
+        new Object[0], PartitionSplits.getRangeParameters(Collections.emptyList(), 0));
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes the batches of a Table Output transform over several database connections at the same
+ * time.
+ *
+ * <p>The transform fills a batch and hands it over to the writer threads through a bounded queue.
+ * Every writer has its own connection and prepared statement, it executes a batch and commits it
+ * before taking the next one. When all writers are busy and the queue is full the transform waits,
+ * so only a limited number of batches is kept in memory.
+ *
+ * <p>Written batches go back to the transform which passes the rows on: only the transform thread
+ * touches the row sets. The rows of different batches can be passed on out of order.
+ *
+ * <p>When a batch fails and the transform does error handling, the rows the database didn't insert
+ * are inserted one at a time to find the failing ones. Those go to the error handling, the other
+ * rows are passed on. Without error handling a failed batch is rolled back and stops the writers.
+ */
+public class AsyncBatchWriter implements AutoCloseable {
+
+  /** The rows of a batch, written by one of the writers */
+  public static class Batch {
+    final List<Object[]> rows = new ArrayList<>();
+    final List<Object[]> insertRows = new ArrayList<>();
+    final List<Object[]> writtenRows = new ArrayList<>();
+    final List<Object[]> errorRows = new ArrayList<>();
+    final List<String> errorMessages = new ArrayList<>();
+
+    /**
+     * @param row the row of the transform, passed on once it's written
+     * @param insertRow the values to insert
+     */
+    public void add(Object[] row, Object[] insertRow) {
+      rows.add(row);
+      insertRows.add(insertRow);
+    }
+
+    /** @return the number of rows in the batch */
+    public int size() {
+      return rows.size();
+    }
+
+    /** @return the rows which are inserted and committed */
+    public List<Object[]> getWrittenRows() {
+      return writtenRows;
+    }
+
+    /** @return the rows which couldn't be inserted */
+    public List<Object[]> getErrorRows() {
+      return errorRows;
+    }
+
+    /** @return the reasons the error rows couldn't be inserted */
+    public List<String> getErrorMessages() {
+      return errorMessages;
+    }
+  }
+
+  /** Tells a writer thread to stop */
+  private static final Batch END_OF_BATCHES = new Batch();
+
+  private final String name;
+  private final IRowMeta insertRowMeta;
+  private final String sql;
+  private final List<Database> databases;
+  private final boolean errorHandling;
+
+  private final BlockingQueue<Batch> pendingBatches;
+  private final BlockingQueue<Batch> writtenBatches = new LinkedBlockingQueue<>();
+  private final List<PreparedStatement> statements = new ArrayList<>();
+  private final List<Thread> threads = new ArrayList<>();
+
+  /** The batches handed over and not written yet, guarded by this */
+  private int unfinishedBatches;
+
+  private volatile Exception writerException;
+
+  /**
+   * @param name the name of the writer threads
+   * @param insertRowMeta the layout of the rows to insert
+   * @param sql the insert statement
+   * @param databases the connected databases, one per writer thread
+   * @param maxPendingBatches the number of batches which can wait for a writer
+   * @param errorHandling true to look for the failing rows of a failed batch
+   */
+  public AsyncBatchWriter(
+      String name,
+      IRowMeta insertRowMeta,
+      String sql,
+      List<Database> databases,
+      int maxPendingBatches,
+      boolean errorHandling) {
+    this.name = name;
+    this.insertRowMeta = insertRowMeta;
+    this.sql = sql;
+    this.databases = databases;
+    this.errorHandling = errorHandling;
+    this.pendingBatches = new ArrayBlockingQueue<>(Math.max(1, maxPendingBatches));
+  }
+
+  /**
+   * Prepare the insert statement on every connection and start the writer threads.
+   *
+   * @throws HopDatabaseException if a statement can't be prepared
+   */
+  public void start() throws HopDatabaseException {
+    for (Database database : databases) {
+      statements.add(database.prepareSql(sql));
+    }
+    for (int i = 0; i < databases.size(); i++) {
+      Database database = databases.get(i);
+      PreparedStatement statement = statements.get(i);
+      // The value metadata isn't thread-safe, every writer gets a copy
+      IRowMeta rowMeta = insertRowMeta.clone();
+      Thread thread =
+          new Thread(() -> writeBatches(database, statement, rowMeta), name + " writer " + i);
+      thread.setDaemon(true);
+      threads.add(thread);
+      thread.start();
+    }
+  }
+
+  /**
+   * Hand a batch over to the writers, waits while the queue of pending batches is full. The rows
+   * must not be changed afterwards.
+   *
+   * @param batch the batch to write
+   * @throws HopException if a writer failed
+   */
+  public void write(Batch batch) throws HopException {
+    checkWriters();
+    synchronized (this) {
+      unfinishedBatches++;
+    }
+    try {
+      pendingBatches.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+  }
+
+  /** @return the next written batch or null if no batch is written at the moment */
+  public Batch nextWrittenBatch() {
+    return writtenBatches.poll();
+  }
+
+  /**
+   * Wait for the writers to write all batches handed over.
+   *
+   * @throws HopException if a writer failed
+   */
+  public void waitForBatches() throws HopException {
+    try {
+      synchronized (this) {
+        while (unfinishedBatches > 0) {
+          wait();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    }
+    checkWriters();
+  }
+
+  /**
+   * Wait for the writers to write all batches and stop the writer threads.
+   *
+   * @throws HopException if a writer failed
+   */
+  public void finish() throws HopException {
+    waitForBatches();
+    try {
+      for (int i = 0; i < threads.size(); i++) {
+        pendingBatches.put(END_OF_BATCHES);
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException(e);
+    } finally {
+      threads.clear();
+    }
+    checkWriters();
+  }
+
+  private void writeBatches(Database database, PreparedStatement statement, IRowMeta rowMeta) {
+    try {
+      Batch batch = pendingBatches.take();
+      while (batch != END_OF_BATCHES) {
+        // After a failure the batches are dropped so the transform doesn't wait forever
+        if (writerException == null) {
+          try {
+            writeBatch(database, statement, rowMeta, batch);
+            writtenBatches.add(batch);
+          } catch (Exception e) {
+            writerException = e;
+            rollback(database);
+          }
+        }
+        batchFinished();
+        batch = pendingBatches.take();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private synchronized void batchFinished() {
+    unfinishedBatches--;
+    notifyAll();
+  }
+
+  void writeBatch(Database database, PreparedStatement statement, IRowMeta rowMeta, Batch batch)
+      throws HopException {
+    try {
+      for (Object[] insertRow : batch.insertRows) {
+        database.setValues(rowMeta, insertRow, statement);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+      statement.clearBatch();
+      database.commit(true);
+      batch.writtenRows.addAll(batch.rows);
+    } catch (SQLException | HopDatabaseException e) {
+      clearBatch(statement);
+      if (!errorHandling) {
+        if (e instanceof SQLException) {
+          throw Database.createHopDatabaseBatchException(
+              "Error batch inserting rows", (SQLException) e);
+        }
+        throw (HopDatabaseException) e;
+      }
+      int[] updateCounts =
+          e instanceof BatchUpdateException ? ((BatchUpdateException) e).getUpdateCounts() : null;
+      writeRows(database, statement, rowMeta, batch, updateCounts);
+    }
+  }
+
+  /** Insert the rows of a failed batch one at a time, except the ones the database inserted. */
+  private void writeRows(
+      Database database,
+      PreparedStatement statement,
+      IRowMeta rowMeta,
+      Batch batch,
+      int[] updateCounts)
+      throws HopDatabaseException {
+    for (int i = 0; i < batch.size(); i++) {
+      Object[] row = batch.rows.get(i);
+      if (updateCounts != null
+          && i < updateCounts.length
+          && updateCounts[i] != Statement.EXECUTE_FAILED) {
+        batch.writtenRows.add(row);
+        continue;
+      }
+      try {
+        database.setValues(rowMeta, batch.insertRows.get(i), statement);
+        statement.executeUpdate();
+        batch.writtenRows.add(row);
+      } catch (SQLException | HopDatabaseException e) {
+        batch.errorRows.add(row);
+        batch.errorMessages.add(e.toString());
+      }
+    }
+    database.commit(true);
+  }
+
+  private static void clearBatch(PreparedStatement statement) {
+    try {
+      statement.clearBatch();
+    } catch (SQLException e) {
+      // The statement is reused for the next rows, a real problem shows up there
+    }
+  }
+
+  private static void rollback(Database database) {
+    try {
+      database.rollback(true);
+    } catch (HopDatabaseException e) {
+      // The connection is broken, the transform reports the original error
+    }
+  }
+
+  private void checkWriters() throws HopException {
+    if (writerException != null) {
+      throw new HopException("Error writing a batch of rows", writerException);
+    }
+  }
+
+  /** Stop the writer threads, roll back what isn't committed and disconnect the databases. */
+  @Override
+  public void close() {
+    for (Thread thread : threads) {
+      thread.interrupt();
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    threads.clear();
+    pendingBatches.clear();
+    for (PreparedStatement statement : statements) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // Closing the connection closes the statement as well
+      }
+    }
+    statements.clear();
+    for (Database database : databases) {
+      rollback(database);
+      database.disconnect();
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -60,12 +61,16 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
   @Override
   public boolean processRow() throws HopException {
 
-    Object[] r = getRow(); // this also waits for a previous transform to be finished.
-    if (r == null) { // no more input to be expected...
+    // this also waits for a previous transform to be finished.
+    Object[][] rows = getRows(NR_OF_ROWS_IN_BATCH);
+    if (rows == null) { // no more input to be expected...
       // truncate the table if there are no rows at all coming into this transform
       if (first && meta.isTruncateTable()) {
         truncateTable();
       }
+      if (data.asyncWriter != null) {
+        return writeAsync(null);
+      }
       return false;
     }
 
@@ -114,16 +119,29 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       }
     }
 
+    if (data.nrWriterConnections > 0) {
+      return writeAsync(rows);
+    }
+
+    Object[][] outputRows = new Object[rows.length][];
+    int nrOutputRows = 0;
+    long lineNr = getLinesRead() - rows.length;
+
     try {
-      Object[] outputRowData = writeToTable(getInputRowMeta(), r);
-      if (outputRowData != null) {
-        putRow(data.outputRowMeta, outputRowData); // in case we want it go further...
-        incrementLinesOutput();
-      }
+      for (Object[] r : rows) {
+        lineNr++;
+
+        Object[] outputRowData = writeToTable(getInputRowMeta(), r);
+        if (outputRowData != null) {
+          outputRows[nrOutputRows++] = outputRowData; // in case we want it go further...
+          incrementLinesOutput();
+        }
 
-      if (checkFeedback(getLinesRead()) && log.isBasic()) {
-        logBasic("linenr " + getLinesRead());
+        if (checkFeedback(lineNr) && log.isBasic()) {
+          logBasic("linenr " + lineNr);
+        }
       }
+      putRows(data.outputRowMeta, outputRows, nrOutputRows);
     } catch (HopException e) {
       logError("Because of an error, this transform can't continue: ", e);
       setErrors(1);
@@ -135,6 +153,122 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return true;
   }
 
+  /**
+   * Hand the rows over to the writer connections in batches of the commit size and pass on the
+   * rows of the batches they wrote. Without rows the last batch is written and the writers stop.
+   *
+   * @param rows the rows to write or null if there are no more rows
+   * @return true if more rows are expected
+   */
+  private boolean writeAsync(Object[][] rows) {
+    try {
+      if (rows == null) {
+        writeAsyncBatch();
+        data.asyncWriter.finish();
+      } else {
+        if (data.asyncWriter == null) {
+          startAsyncWriter();
+        }
+        long lineNr = getLinesRead() - rows.length;
+        for (Object[] r : rows) {
+          lineNr++;
+          data.asyncBatch.add(r, getInsertRowData(r));
+          if (data.asyncBatch.size() >= data.commitSize) {
+            writeAsyncBatch();
+          }
+          if (checkFeedback(lineNr) && log.isBasic()) {
+            logBasic("linenr " + lineNr);
+          }
+        }
+      }
+      putWrittenRows();
+    } catch (HopException e) {
+      logError("Because of an error, this transform can't continue: ", e);
+      setErrors(1);
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    return rows != null;
+  }
+
+  private void startAsyncWriter() throws HopException {
+    String sql =
+        data.db.getInsertStatement(
+            resolve(meta.getSchemaName()), data.tableName, data.insertRowMeta);
+    if (log.isDetailed()) {
+      logDetailed(
+          "Writing batches over "
+              + data.nrWriterConnections
+              + " connections with prepared statement : "
+              + sql);
+    }
+    List<Database> databases = new ArrayList<>();
+    try {
+      for (int i = 0; i < data.nrWriterConnections; i++) {
+        Database db = new Database(this, this, data.databaseMeta);
+        databases.add(db);
+        db.connect();
+        db.setCommit(data.commitSize);
+      }
+      AsyncBatchWriter asyncWriter =
+          new AsyncBatchWriter(
+              getTransformName(),
+              data.insertRowMeta,
+              sql,
+              databases,
+              data.maxPendingBatches,
+              getTransformMeta().isDoingErrorHandling());
+      asyncWriter.start();
+      data.asyncWriter = asyncWriter;
+      data.asyncBatch = new AsyncBatchWriter.Batch();
+    } catch (HopException e) {
+      for (Database db : databases) {
+        db.disconnect();
+      }
+      throw e;
+    }
+  }
+
+  private Object[] getInsertRowData(Object[] r) {
+    if (!meta.isSpecifyFields()) {
+      return r;
+    }
+    Object[] insertRowData = new Object[data.valuenrs.length];
+    for (int idx = 0; idx < data.valuenrs.length; idx++) {
+      insertRowData[idx] = r[data.valuenrs[idx]];
+    }
+    return insertRowData;
+  }
+
+  private void writeAsyncBatch() throws HopException {
+    if (data.asyncBatch.size() > 0) {
+      data.asyncWriter.write(data.asyncBatch);
+      data.asyncBatch = new AsyncBatchWriter.Batch();
+    }
+  }
+
+  /** Pass on the rows of the batches written so far, the failing rows go to the error handling. */
+  private void putWrittenRows() throws HopException {
+    AsyncBatchWriter.Batch batch = data.asyncWriter.nextWrittenBatch();
+    while (batch != null) {
+      for (Object[] row : batch.getWrittenRows()) {
+        putRow(data.outputRowMeta, row);
+        incrementLinesOutput();
+      }
+      for (int i = 0; i < batch.getErrorRows().size(); i++) {
+        putError(
+            getInputRowMeta(),
+            batch.getErrorRows().get(i),
+            1L,
+            batch.getErrorMessages().get(i),
+            null,
+            "TOP001");
+      }
+      batch = data.asyncWriter.nextWrittenBatch();
+    }
+  }
+
   protected Object[] writeToTable(IRowMeta rowMeta, Object[] r) throws HopException {
 
     if (r == null) { // Stop: last line or error encountered
@@ -546,6 +680,14 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.tableName = resolve(meta.getTableName());
         }
 
+        data.nrWriterConnections = Const.toInt(resolve(meta.getWriterConnections()), 0);
+        if (data.nrWriterConnections > 0 && !isAsyncWriterSupported()) {
+          logBasic(BaseMessages.getString(PKG, "TableOutput.Log.WriterConnections.NotUsed"));
+          data.nrWriterConnections = 0;
+        }
+        data.maxPendingBatches =
+            Const.toInt(resolve(meta.getMaxPendingBatches()), data.nrWriterConnections);
+
         return true;
       } catch (HopException e) {
         logError("An error occurred initializing this transform: " + e.getMessage());
@@ -556,6 +698,17 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return false;
   }
 
+  /**
+   * The writer connections only handle batches for a single table, every batch is committed on its
+   * own. A pipeline running as a single transaction has to stick to one connection.
+   */
+  private boolean isAsyncWriterSupported() {
+    return data.batchMode
+        && !meta.isPartitioningEnabled()
+        && !meta.isTableNameInField()
+        && Utils.isEmpty(data.db.getConnectionGroup());
+  }
+
   void truncateTable() throws HopDatabaseException {
     if (!meta.isPartitioningEnabled() && !meta.isTableNameInField()) {
       // Only the first one truncates in a non-partitioned transform copy
@@ -569,6 +722,12 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
   @Override
   public void dispose() {
 
+    if (data.asyncWriter != null) {
+      data.asyncWriter.close();
+      data.asyncWriter = null;
+      data.asyncBatch = null;
+    }
+
     if (data.db != null) {
       try {
         emptyAndCommitBatchBuffers(true);
@@ -591,6 +750,11 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
   //
   @Override
   public void batchComplete() throws HopException {
+    if (data.asyncWriter != null) {
+      writeAsyncBatch();
+      data.asyncWriter.waitForBatches();
+      putWrittenRows();
+    }
     emptyAndCommitBatchBuffers(false);
   }
 
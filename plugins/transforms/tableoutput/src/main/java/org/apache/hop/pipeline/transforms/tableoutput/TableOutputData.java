@@ -65,6 +65,17 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** The number of connections writing batches at the same time, 0 to write on {@link #db} */
+  public int nrWriterConnections;
+
+  public int maxPendingBatches;
+
+  /** Writes the batches over the writer connections */
+  public AsyncBatchWriter asyncWriter;
+
+  /** The batch being filled for the writer connections */
+  public AsyncBatchWriter.Batch asyncBatch;
+
   public TableOutputData() {
     super();
 
@@ -79,6 +79,12 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlWriterConnections;
+  private TextVar wWriterConnections;
+
+  private Label wlMaxPendingBatches;
+  private TextVar wMaxPendingBatches;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -496,13 +502,53 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
           }
         });
 
+    // Writer connections
+    wlWriterConnections = new Label(wMainComp, SWT.RIGHT);
+    wlWriterConnections.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.WriterConnections.Label"));
+    wlWriterConnections.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.WriterConnections.Tooltip"));
+    props.setLook(wlWriterConnections);
+    FormData fdlWriterConnections = new FormData();
+    fdlWriterConnections.left = new FormAttachment(0, 0);
+    fdlWriterConnections.top = new FormAttachment(wBatch, margin);
+    fdlWriterConnections.right = new FormAttachment(middle, -margin);
+    wlWriterConnections.setLayoutData(fdlWriterConnections);
+    wWriterConnections = new TextVar(variables, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wWriterConnections);
+    wWriterConnections.addModifyListener(lsMod);
+    FormData fdWriterConnections = new FormData();
+    fdWriterConnections.left = new FormAttachment(middle, 0);
+    fdWriterConnections.top = new FormAttachment(wlWriterConnections, 0, SWT.CENTER);
+    fdWriterConnections.right = new FormAttachment(100, 0);
+    wWriterConnections.setLayoutData(fdWriterConnections);
+
+    // Maximum pending batches
+    wlMaxPendingBatches = new Label(wMainComp, SWT.RIGHT);
+    wlMaxPendingBatches.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.MaxPendingBatches.Label"));
+    props.setLook(wlMaxPendingBatches);
+    FormData fdlMaxPendingBatches = new FormData();
+    fdlMaxPendingBatches.left = new FormAttachment(0, 0);
+    fdlMaxPendingBatches.top = new FormAttachment(wWriterConnections, margin);
+    fdlMaxPendingBatches.right = new FormAttachment(middle, -margin);
+    wlMaxPendingBatches.setLayoutData(fdlMaxPendingBatches);
+    wMaxPendingBatches = new TextVar(variables, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wMaxPendingBatches);
+    wMaxPendingBatches.addModifyListener(lsMod);
+    FormData fdMaxPendingBatches = new FormData();
+    fdMaxPendingBatches.left = new FormAttachment(middle, 0);
+    fdMaxPendingBatches.top = new FormAttachment(wlMaxPendingBatches, 0, SWT.CENTER);
+    fdMaxPendingBatches.right = new FormAttachment(100, 0);
+    wMaxPendingBatches.setLayoutData(fdMaxPendingBatches);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     props.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wMaxPendingBatches, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1170,6 +1216,13 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wlBatch.setEnabled(enableBatch);
     wBatch.setEnabled(enableBatch);
 
+    // The writer connections write batches of a single table
+    boolean enableWriters = useBatch && !usePartitioning && !isTableNameInField;
+    wlWriterConnections.setEnabled(enableWriters);
+    wWriterConnections.setEnabled(enableWriters);
+    wlMaxPendingBatches.setEnabled(enableWriters);
+    wMaxPendingBatches.setEnabled(enableWriters);
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled(specifyFields);
     wGetFields.setEnabled(specifyFields);
@@ -1215,6 +1268,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     wBatch.setSelection(input.isUseBatchUpdate());
 
     wCommit.setText(input.getCommitSize());
+    wWriterConnections.setText(Const.NVL(input.getWriterConnections(), ""));
+    wMaxPendingBatches.setText(Const.NVL(input.getMaxPendingBatches(), ""));
 
     wUsePart.setSelection(input.isPartitioningEnabled());
     wPartDaily.setSelection(input.isPartitioningDaily());
@@ -1268,6 +1323,8 @@ public class TableOutputDialog extends BaseTransformDialog implements ITransform
     info.setTruncateTable(wTruncate.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setWriterConnections(wWriterConnections.getText());
+    info.setMaxPendingBatches(wMaxPendingBatches.getText());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
@@ -99,6 +99,20 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  /** The number of connections writing batches at the same time, empty or 0 for none */
+  @HopMetadataProperty(
+      key = "writer_connections",
+      injectionKey = "WRITER_CONNECTIONS",
+      injectionKeyDescription = "TableOutputMeta.Injection.WriterConnections.Field")
+  private String writerConnections;
+
+  /** The number of full batches which can wait for a writer connection */
+  @HopMetadataProperty(
+      key = "max_pending_batches",
+      injectionKey = "MAX_PENDING_BATCHES",
+      injectionKeyDescription = "TableOutputMeta.Injection.MaxPendingBatches.Field")
+  private String maxPendingBatches;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -370,6 +384,26 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     return useBatchUpdate;
   }
 
+  /** @return the number of connections writing batches at the same time */
+  public String getWriterConnections() {
+    return writerConnections;
+  }
+
+  /** @param writerConnections the number of connections writing batches at the same time */
+  public void setWriterConnections(String writerConnections) {
+    this.writerConnections = writerConnections;
+  }
+
+  /** @return the number of full batches which can wait for a writer connection */
+  public String getMaxPendingBatches() {
+    return maxPendingBatches;
+  }
+
+  /** @param maxPendingBatches the number of full batches which can wait for a writer connection */
+  public void setMaxPendingBatches(String maxPendingBatches) {
+    this.maxPendingBatches = maxPendingBatches;
+  }
+
   @Override
   public void setDefault() {
     tableName = "";
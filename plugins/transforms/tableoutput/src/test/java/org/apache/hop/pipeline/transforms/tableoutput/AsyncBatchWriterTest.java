@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncBatchWriterTest {
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    return rowMeta;
+  }
+
+  private static Database mockDatabase(PreparedStatement statement) throws Exception {
+    Database database = mock(Database.class);
+    doReturn(statement).when(database).prepareSql(anyString());
+    return database;
+  }
+
+  private static AsyncBatchWriter.Batch createBatch(int firstId, int size) {
+    AsyncBatchWriter.Batch batch = new AsyncBatchWriter.Batch();
+    for (int i = firstId; i < firstId + size; i++) {
+      Object[] row = new Object[] {(long) i};
+      batch.add(row, row);
+    }
+    return batch;
+  }
+
+  @Test
+  public void testWritesBatchesOverAllConnections() throws Exception {
+    AtomicInteger nrExecuted = new AtomicInteger();
+    List<Database> databases = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      PreparedStatement statement = mock(PreparedStatement.class);
+      when(statement.executeBatch())
+          .thenAnswer(
+              invocation -> {
+                nrExecuted.incrementAndGet();
+                return new int[] {1, 1, 1, 1, 1};
+              });
+      databases.add(mockDatabase(statement));
+    }
+
+    AsyncBatchWriter writer =
+        new AsyncBatchWriter("test", createRowMeta(), "INSERT", databases, 2, false);
+    writer.start();
+    for (int i = 0; i < 20; i++) {
+      writer.write(createBatch(i * 5, 5));
+    }
+    writer.finish();
+
+    long sum = 0;
+    int nrRows = 0;
+    AsyncBatchWriter.Batch batch = writer.nextWrittenBatch();
+    while (batch != null) {
+      assertEquals(0, batch.getErrorRows().size());
+      for (Object[] row : batch.getWrittenRows()) {
+        sum += (Long) row[0];
+        nrRows++;
+      }
+      batch = writer.nextWrittenBatch();
+    }
+    assertEquals(100, nrRows);
+    assertEquals(99 * 100 / 2, sum);
+
+    // Every batch is executed once, on one of the connections
+    assertEquals(20, nrExecuted.get());
+    for (Database database : databases) {
+      verify(database, atLeastOnce()).prepareSql("INSERT");
+    }
+
+    writer.close();
+    for (Database database : databases) {
+      verify(database).disconnect();
+    }
+  }
+
+  @Test
+  public void testFailedBatchRetriesRowsOneAtATime() throws Exception {
+    PreparedStatement statement = mock(PreparedStatement.class);
+    // The first row is inserted, the database gives up on the others
+    when(statement.executeBatch())
+        .thenThrow(new BatchUpdateException(new int[] {1, Statement.EXECUTE_FAILED}, null));
+    when(statement.executeUpdate()).thenThrow(new SQLException("duplicate key")).thenReturn(1);
+    Database database = mockDatabase(statement);
+
+    AsyncBatchWriter writer =
+        new AsyncBatchWriter("test", createRowMeta(), "INSERT", Arrays.asList(database), 1, true);
+    writer.start();
+    AsyncBatchWriter.Batch batch = createBatch(0, 3);
+    writer.write(batch);
+    writer.finish();
+
+    assertSame(batch, writer.nextWrittenBatch());
+    assertEquals(2, batch.getWrittenRows().size());
+    assertEquals(0L, batch.getWrittenRows().get(0)[0]);
+    assertEquals(2L, batch.getWrittenRows().get(1)[0]);
+    assertEquals(1, batch.getErrorRows().size());
+    assertEquals(1L, batch.getErrorRows().get(0)[0]);
+    verify(statement, times(2)).executeUpdate();
+    verify(database).commit(true);
+    writer.close();
+  }
+
+  @Test
+  public void testFailedBatchWithoutErrorHandlingStopsWriting() throws Exception {
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(statement.executeBatch()).thenThrow(new BatchUpdateException("constraint", null));
+    Database database = mockDatabase(statement);
+
+    AsyncBatchWriter writer =
+        new AsyncBatchWriter("test", createRowMeta(), "INSERT", Arrays.asList(database), 1, false);
+    writer.start();
+    writer.write(createBatch(0, 3));
+    try {
+      writer.finish();
+      fail("The failed batch should stop the writer");
+    } catch (HopException e) {
+      // expected
+    }
+    verify(database, atLeastOnce()).rollback(true);
+    writer.close();
+  }
+}
@@ -360,25 +360,31 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         if (data.bytesToSkipInFirstFile > 0) {
           data.fc.position(data.bytesToSkipInFirstFile);
 
-          // evaluate whether there is a need to skip a row
-          if (needToSkipRow()) {
+          if (meta.isNewlinePossibleInFields() && data.enclosure != null) {
+            // New lines can be part of an enclosed field so we need to figure out where the next
+            // record really starts.
+            //
+            if (!skipToQuotedRecordStart()) {
+              logBasic(
+                  BaseMessages.getString(
+                      PKG,
+                      "CsvInput.Log.NoRecordStartFound",
+                      Long.toString(data.bytesToSkipInFirstFile)));
+              data.fc.position(data.bytesToSkipInFirstFile);
+              if (needToSkipRow()) {
+                skipToNextLine();
+              }
+            }
+          } else if (needToSkipRow()) {
             // when reading in parallel, the previous code would introduce additional rows and / or
             // invalid data in the output.
-            // in parallel mode we don't support new lines inside field data so it's safe to fast
+            // without new lines inside field data (or enclosures to put them in) it's safe to fast
             // forward until we find a new line.
             // when a newline is found we need to check for an additional new line character, while
             // in unix systems it's just a single '\n',
             // on windows systems, it's a sequence of '\r' and '\n'. finally we set the start of the
             // buffer to the end buffer position.
-            while (!data.newLineFound()) {
-              data.moveEndBufferPointer();
-            }
-
-            data.moveEndBufferPointer();
-
-            if (data.newLineFound()) {
-              data.moveEndBufferPointer();
-            }
+            skipToNextLine();
           }
 
           data.setStartBuffer(data.getEndBuffer());
@@ -431,6 +437,41 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
     }
   }
 
+  private void skipToNextLine() throws IOException {
+    while (!data.newLineFound()) {
+      data.moveEndBufferPointer();
+    }
+
+    data.moveEndBufferPointer();
+
+    if (data.newLineFound()) {
+      data.moveEndBufferPointer();
+    }
+  }
+
+  /**
+   * Position the file channel at the start of the first record at or after the position where this
+   * transform copy starts reading. The skipped bytes are counted as read by this copy.
+   *
+   * @return false if the start of the next record couldn't be determined
+   */
+  private boolean skipToQuotedRecordStart() throws IOException {
+    QuotedRecordBoundaryFinder finder =
+        new QuotedRecordBoundaryFinder(
+            data.delimiter,
+            data.enclosure,
+            data.crLfMatcher,
+            data.encodingType.getLength(),
+            data.fieldsMapping.size());
+    long recordStart = finder.findRecordStart(data.fc, data.bytesToSkipInFirstFile);
+    if (recordStart < 0) {
+      return false;
+    }
+    data.fc.position(recordStart);
+    data.totalBytesRead += recordStart - data.bytesToSkipInFirstFile;
+    return true;
+  }
+
   protected int getBOMSize(String vfsFilename) throws Exception {
     int bomSize = 0;
     try (FileInputStream fis = new FileInputStream(vfsFilename);
@@ -689,6 +730,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
               enclosureFound = true;
               boolean keepGoing;
               do {
+                data.skipOrdinaryBytes();
                 if (data.moveEndBufferPointer()) {
                   enclosureFound = false;
                   break;
@@ -725,6 +767,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
               ignoreEnclosuresInField = true;
             }
           } else {
+            data.skipOrdinaryBytes();
             if (data.moveEndBufferPointer()) {
               endOfBuffer = true;
               break;
@@ -929,6 +972,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
       }
 
       data.isAddingRowNumber = !Utils.isEmpty(meta.getRowNumField());
+      data.memoryMapped = meta.isMemoryMapped();
 
       // Handle parallel reading capabilities...
       //
@@ -966,6 +1010,14 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         }
       }
 
+      // Skip over ordinary bytes 8 at a time if the special characters are single bytes
+      //
+      if (data.encodingType.getLength() == 1 && data.delimiter.length > 0) {
+        data.byteScanner = new SpecialByteScanner(data.delimiter, data.enclosure);
+      } else {
+        data.byteScanner = null;
+      }
+
       switch (data.encodingType) {
         case DOUBLE_BIG_ENDIAN:
           data.crLfMatcher = new MultiByteBigCrLfMatcher();
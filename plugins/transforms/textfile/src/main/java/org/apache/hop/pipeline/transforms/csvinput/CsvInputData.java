@@ -26,10 +26,14 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.List;
 
 public class CsvInputData extends BaseTransformData implements ITransformData {
+  /** The size of the regions of a file which are mapped into memory at once */
+  static final int MAPPED_REGION_SIZE = 64 * 1024 * 1024;
+
   public FileChannel fc;
   public ByteBuffer bb;
   public IRowMeta convertRowMeta;
@@ -74,6 +78,15 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
 
   public IFieldsMapping fieldsMapping;
 
+  /** Read the files through a memory mapping instead of through the direct byte buffer */
+  public boolean memoryMapped;
+
+  private MappedByteBuffer mappedBuffer;
+  private long mappedBufferStart;
+
+  /** Skips over bytes which can't be special to the parser, null if not applicable */
+  SpecialByteScanner byteScanner;
+
   /**
    * Data class for CsvInput transform
    *
@@ -110,6 +123,10 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
   }
 
   private int readBufferFromFile() throws IOException {
+    if (memoryMapped) {
+      return readBufferFromMappedFile();
+    }
+
     // See if the line is not longer than the buffer.
     // In that case we need to increase the size of the byte buffer.
     // Since this method doesn't get called every other character, I'm sure we can spend a bit of
@@ -145,6 +162,41 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
     return n;
   }
 
+  /**
+   * Copy the next block of data straight from the mapped file into the byte array, without going
+   * through the direct byte buffer. The position of the file channel is kept up to date as if we
+   * read from it, the parallel reading logic relies on it.
+   */
+  private int readBufferFromMappedFile() throws IOException {
+    long position = fc.position();
+    long size = fc.size();
+    if (position >= size) {
+      return -1;
+    }
+    if (mappedBuffer == null
+        || position < mappedBufferStart
+        || position >= mappedBufferStart + mappedBuffer.capacity()) {
+      long length = Math.min(MAPPED_REGION_SIZE, size - position);
+      mappedBuffer = fc.map(FileChannel.MapMode.READ_ONLY, position, length);
+      mappedBufferStart = position;
+    }
+    int offset = (int) (position - mappedBufferStart);
+    int n = Math.min(Math.max(preferredBufferSize, 1), mappedBuffer.capacity() - offset);
+
+    bufferSize = endBuffer + n;
+    if (byteBuffer.length < bufferSize) {
+      byte[] newByteBuffer = new byte[bufferSize];
+      System.arraycopy(byteBuffer, 0, newByteBuffer, 0, byteBuffer.length);
+      byteBuffer = newByteBuffer;
+    }
+
+    mappedBuffer.position(offset);
+    mappedBuffer.get(byteBuffer, endBuffer, n);
+    fc.position(position + n);
+
+    return n;
+  }
+
   private void resizeByteBuffer(int newSize) {
     ByteBuffer newBuffer = ByteBuffer.allocateDirect(newSize); // Increase by 50%
     newBuffer.position(0);
@@ -198,6 +250,20 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
     }
   }
 
+  /**
+   * Moves the endBuffer pointer to the last byte before the next byte that could be a delimiter,
+   * an enclosure or a new line in the data which is already in the buffer. The pointer doesn't move
+   * if the next byte is such a byte or if there is no byte scanner.
+   */
+  void skipOrdinaryBytes() {
+    if (byteScanner == null || endBuffer + 1 >= bufferSize) {
+      return;
+    }
+    int special = byteScanner.indexOfSpecialByte(byteBuffer, endBuffer + 1, bufferSize);
+    totalBytesRead += special - 1 - endBuffer;
+    endBuffer = special - 1;
+  }
+
   /**
    * This method should be used very carefully. Moving pointer without increasing number of written
    * bytes can lead to data corruption.
@@ -261,6 +327,7 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
   }
 
   void closeFile() throws HopException {
+    mappedBuffer = null;
     try {
       if (fc != null) {
         fc.close();
@@ -100,6 +100,7 @@ public class CsvInputDialog extends BaseTransformDialog
   private boolean isReceivingInput;
   private Button wRunningInParallel;
   private Button wNewlinePossible;
+  private Button wMemoryMapped;
   private ComboVar wEncoding;
 
   private boolean gotEncodings = false;
@@ -303,6 +304,7 @@ public class CsvInputDialog extends BaseTransformDialog
     fdEnclosure.right = new FormAttachment(100, 0);
     wEnclosure.setLayoutData(fdEnclosure);
     wEnclosure.addModifyListener(lsContent);
+    wEnclosure.addModifyListener(e -> setFlags());
     lastControl = wEnclosure;
 
     // bufferSize
@@ -451,6 +453,24 @@ public class CsvInputDialog extends BaseTransformDialog
         });
     lastControl = wlNewlinePossible;
 
+    // Read the file through a memory mapping?
+    //
+    Label wlMemoryMapped = new Label(shell, SWT.RIGHT);
+    wlMemoryMapped.setText(BaseMessages.getString(PKG, "CsvInputDialog.MemoryMapped.Label"));
+    props.setLook(wlMemoryMapped);
+    FormData fdlMemoryMapped = new FormData();
+    fdlMemoryMapped.top = new FormAttachment(lastControl, margin);
+    fdlMemoryMapped.left = new FormAttachment(0, 0);
+    fdlMemoryMapped.right = new FormAttachment(middle, -margin);
+    wlMemoryMapped.setLayoutData(fdlMemoryMapped);
+    wMemoryMapped = new Button(shell, SWT.CHECK);
+    props.setLook(wMemoryMapped);
+    FormData fdMemoryMapped = new FormData();
+    fdMemoryMapped.top = new FormAttachment(wlMemoryMapped, 0, SWT.CENTER);
+    fdMemoryMapped.left = new FormAttachment(middle, 0);
+    wMemoryMapped.setLayoutData(fdMemoryMapped);
+    lastControl = wlMemoryMapped;
+
     // Encoding
     Label wlEncoding = new Label(shell, SWT.RIGHT);
     wlEncoding.setText(BaseMessages.getString(PKG, "CsvInputDialog.Encoding.Label"));
@@ -623,9 +643,11 @@ public class CsvInputDialog extends BaseTransformDialog
   }
 
   protected void setFlags() {
-    // In case there are newlines in fields, we can't load data in parallel
+    // In case there are newlines in fields, we can only load data in parallel if they are
+    // enclosed: that allows us to find out where the records start.
     //
-    boolean parallelPossible = !wNewlinePossible.getSelection();
+    boolean parallelPossible =
+        !wNewlinePossible.getSelection() || !Utils.isEmpty(wEnclosure.getText());
     wlRunningInParallel.setEnabled(parallelPossible);
     wRunningInParallel.setEnabled(parallelPossible);
     if (!parallelPossible) {
@@ -694,6 +716,7 @@ public class CsvInputDialog extends BaseTransformDialog
     wHeaderPresent.setSelection(inputMeta.isHeaderPresent());
     wRunningInParallel.setSelection(inputMeta.isRunningInParallel());
     wNewlinePossible.setSelection(inputMeta.isNewlinePossibleInFields());
+    wMemoryMapped.setSelection(inputMeta.isMemoryMapped());
     wRowNumField.setText(Const.NVL(inputMeta.getRowNumField(), ""));
     wAddResult.setSelection(inputMeta.isAddResultFile());
     wEncoding.setText(Const.NVL(inputMeta.getEncoding(), ""));
@@ -755,6 +778,7 @@ public class CsvInputDialog extends BaseTransformDialog
     inputMeta.setAddResultFile(wAddResult.getSelection());
     inputMeta.setRunningInParallel(wRunningInParallel.getSelection());
     inputMeta.setNewlinePossibleInFields(wNewlinePossible.getSelection());
+    inputMeta.setMemoryMapped(wMemoryMapped.getSelection());
     inputMeta.setEncoding(wEncoding.getText());
 
     int nrNonEmptyFields = wFields.nrNonEmpty();
@@ -116,6 +116,9 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
   @Injection(name = "NEWLINES_IN_FIELDS")
   private boolean newlinePossibleInFields;
 
+  @Injection(name = "MEMORY_MAPPED")
+  private boolean memoryMapped;
+
   public CsvInputMeta() {
     super();
     allocate(0);
@@ -173,6 +176,7 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
       } else {
         newlinePossibleInFields = "Y".equalsIgnoreCase(nlp);
       }
+      memoryMapped = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "memory_mapped"));
       encoding = XmlHandler.getTagValue(transformNode, "encoding");
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
@@ -224,6 +228,7 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
     retval
         .append("    ")
         .append(XmlHandler.addTagValue("newline_possible", newlinePossibleInFields));
+    retval.append("    ").append(XmlHandler.addTagValue("memory_mapped", memoryMapped));
     retval.append("    ").append(XmlHandler.addTagValue("encoding", encoding));
 
     retval.append("    ").append(XmlHandler.openTag("fields")).append(Const.CR);
@@ -657,6 +662,16 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData> impl
     this.newlinePossibleInFields = newlinePossibleInFields;
   }
 
+  /** @return true if the files are read through a memory mapping instead of buffered reads */
+  public boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  /** @param memoryMapped true to read the files through a memory mapping */
+  public void setMemoryMapped(boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
+  }
+
   @Override
   public FileObject getHeaderFileObject(final IVariables variables) {
     final String filename = variables.resolve(getFilename());
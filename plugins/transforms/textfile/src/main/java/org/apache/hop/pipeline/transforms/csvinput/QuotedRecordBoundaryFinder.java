@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Finds the start of the first record after an arbitrary position in a file in which enclosed
+ * fields can contain new lines. This is what a transform copy reading a part of a file in parallel
+ * needs to do: looking for the next new line isn't good enough since it could be part of an
+ * enclosed field.
+ *
+ * <p>From a position in the middle of a file there is no way to tell for sure whether or not we're
+ * inside an enclosed field. So we try all possibilities: at the start of a field, in a field which
+ * is not enclosed or inside an enclosed field. For each of them we look for the end of the current
+ * record and then parse the next few records. The possibility followed by the longest run of well
+ * formed records with the expected number of fields wins. On a tie the earlier possibility in the
+ * list above is used.
+ *
+ * <p>The parsing rules are the ones of the CSV file input transform: an enclosure only opens an
+ * enclosed field at the start of a field and a doubled enclosure inside an enclosed field is an
+ * escaped enclosure.
+ *
+ * <p>This class is not thread-safe.
+ */
+final class QuotedRecordBoundaryFinder {
+
+  /** The number of records parsed after a candidate record start to validate it */
+  static final int SAMPLE_RECORDS = 16;
+
+  /** The number of consistent records we want to see before trusting a candidate record start */
+  static final int MIN_CONSISTENT_RECORDS = 2;
+
+  static final int INITIAL_WINDOW_SIZE = 1024 * 1024;
+  static final int MAX_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private static final int FIELD_START = 0;
+  private static final int UNQUOTED = 1;
+  private static final int QUOTED = 2;
+  private static final int AFTER_QUOTE = 3;
+
+  private final byte[] delimiter;
+  private final byte[] enclosure;
+  private final ICrLfMatcher crLfMatcher;
+  private final int newlineLength;
+  private final int expectedFields;
+
+  /** The number of fields of the last scanned record */
+  private int fieldCount;
+
+  /** false if the last scanned record had data after the closing enclosure of a field */
+  private boolean wellFormed;
+
+  /** The number of consecutive consistent records after the last found record start */
+  private int score;
+
+  /**
+   * @param delimiter the field delimiter
+   * @param enclosure the enclosure or null if fields are not enclosed
+   * @param crLfMatcher the matcher for carriage returns and line feeds in the file encoding
+   * @param newlineLength the number of bytes of a carriage return or line feed
+   * @param expectedFields the number of fields of a record in the file
+   */
+  QuotedRecordBoundaryFinder(
+      byte[] delimiter,
+      byte[] enclosure,
+      ICrLfMatcher crLfMatcher,
+      int newlineLength,
+      int expectedFields) {
+    this.delimiter = delimiter;
+    this.enclosure = enclosure;
+    this.crLfMatcher = crLfMatcher;
+    this.newlineLength = newlineLength;
+    this.expectedFields = expectedFields;
+  }
+
+  /**
+   * Find the start of the first record starting at or after the given position in a file.
+   *
+   * @param fileChannel the file to look in, its position is not changed
+   * @param position the position of the first byte which can be the start of a record, larger than
+   *     0
+   * @return the position of the first record start or -1 if the records in the file don't give a
+   *     clear answer in the first {@link #MAX_WINDOW_SIZE} bytes
+   * @throws IOException in case of a read error
+   */
+  long findRecordStart(FileChannel fileChannel, long position) throws IOException {
+    // The byte before the position tells us whether a record starts right at the position
+    //
+    long windowStart = position - 1;
+    long fileSize = fileChannel.size();
+    int windowSize = INITIAL_WINDOW_SIZE;
+    while (true) {
+      int length = (int) Math.min(windowSize, fileSize - windowStart);
+      byte[] window = new byte[length];
+      ByteBuffer buffer = ByteBuffer.wrap(window);
+      while (buffer.hasRemaining()) {
+        if (fileChannel.read(buffer, windowStart + buffer.position()) < 0) {
+          break;
+        }
+      }
+      length = buffer.position();
+      boolean endOfFile = windowStart + length >= fileSize;
+      boolean lastWindow = endOfFile || windowSize >= MAX_WINDOW_SIZE;
+
+      int recordStart = findRecordStart(window, length, endOfFile);
+      if (recordStart >= 0 && (score >= MIN_CONSISTENT_RECORDS || lastWindow)) {
+        return windowStart + recordStart;
+      }
+      if (lastWindow) {
+        return -1L;
+      }
+      windowSize *= 2;
+    }
+  }
+
+  /**
+   * Find the start of the first record in a window of bytes.
+   *
+   * @param window the bytes of the file, starting one byte before the first possible record start
+   * @param length the number of bytes in the window
+   * @param endOfFile true if the window ends at the end of the file
+   * @return the index of the first record start in the window, 1 or higher, or -1 if no record end
+   *     was found at all
+   */
+  int findRecordStart(byte[] window, int length, boolean endOfFile) {
+    int best = -1;
+    int bestScore = -1;
+    for (int state : new int[] {FIELD_START, UNQUOTED, QUOTED}) {
+      if (enclosure == null && state != UNQUOTED) {
+        continue;
+      }
+      int recordStart = scanRecord(window, length, 0, state, endOfFile);
+      if (recordStart < 0) {
+        continue;
+      }
+      // A well formed end of the current record is a tie breaker
+      //
+      int candidateScore = wellFormed ? 1 : 0;
+      candidateScore += 2 * countConsistentRecords(window, length, recordStart, endOfFile);
+      if (candidateScore > bestScore) {
+        best = recordStart;
+        bestScore = candidateScore;
+      }
+    }
+    score = Math.max(bestScore / 2, 0);
+    return best;
+  }
+
+  private int countConsistentRecords(byte[] window, int length, int position, boolean endOfFile) {
+    int consistent = 0;
+    for (int i = 0; i < SAMPLE_RECORDS; i++) {
+      if (position >= length) {
+        // All records up to the end of the file are consistent, that's as good as it gets
+        //
+        return endOfFile ? SAMPLE_RECORDS : consistent;
+      }
+      int next = scanRecord(window, length, position, FIELD_START, endOfFile);
+      if (next < 0) {
+        break;
+      }
+      if (!wellFormed || fieldCount != expectedFields) {
+        break;
+      }
+      consistent++;
+      position = next;
+    }
+    return consistent;
+  }
+
+  /**
+   * Scan the window from the given position and state up to the end of the record.
+   *
+   * @return the index of the start of the next record or -1 if the end of the record isn't in the
+   *     window. At the end of the file the length of the window is returned.
+   */
+  private int scanRecord(byte[] window, int length, int position, int state, boolean endOfFile) {
+    fieldCount = 1;
+    wellFormed = true;
+    int i = position;
+    while (i < length) {
+      if (state == QUOTED) {
+        if (matches(window, length, i, enclosure)) {
+          int next = i + enclosure.length;
+          if (next >= length && !endOfFile) {
+            // We can't tell whether or not this enclosure is escaped
+            return -1;
+          }
+          if (matches(window, length, next, enclosure)) {
+            i = next + enclosure.length;
+          } else {
+            state = AFTER_QUOTE;
+            i = next;
+          }
+        } else {
+          i++;
+        }
+        continue;
+      }
+      if (state == FIELD_START) {
+        if (enclosure != null && matches(window, length, i, enclosure)) {
+          state = QUOTED;
+          i += enclosure.length;
+          continue;
+        }
+        state = UNQUOTED;
+      }
+      if (matches(window, length, i, delimiter)) {
+        fieldCount++;
+        state = FIELD_START;
+        i += delimiter.length;
+      } else if (isNewline(window, length, i)) {
+        // Like the transform, a \r\n pair is a single record end
+        //
+        int next = i + newlineLength;
+        if (next >= length && !endOfFile) {
+          return -1;
+        }
+        if (isNewline(window, length, next)) {
+          next += newlineLength;
+        }
+        return next;
+      } else {
+        // Data after a closing enclosure or an enclosure in the middle of a field is allowed but
+        // unusual: CSV writers enclose the whole field. It's a hint that we're off track.
+        //
+        if (state == AFTER_QUOTE
+            || (enclosure != null && matches(window, length, i, enclosure))) {
+          wellFormed = false;
+        }
+        i++;
+      }
+    }
+    return endOfFile ? length : -1;
+  }
+
+  private boolean isNewline(byte[] window, int length, int i) {
+    return i + newlineLength <= length
+        && (crLfMatcher.isReturn(window, i) || crLfMatcher.isLineFeed(window, i));
+  }
+
+  private static boolean matches(byte[] window, int length, int i, byte[] pattern) {
+    if (pattern.length == 0 || i + pattern.length > length) {
+      return false;
+    }
+    for (int p = 0; p < pattern.length; p++) {
+      if (window[i + p] != pattern[p]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Looks for the next byte which can be the start of a delimiter, an enclosure, a carriage return or
+ * a line feed. The bytes in between don't need to be looked at one by one by the parser.
+ *
+ * <p>The buffer is scanned 8 bytes at a time: every long read from the buffer is compared to the
+ * special bytes at once (SIMD within a register). This only works for encodings where these
+ * characters are single bytes.
+ */
+final class SpecialByteScanner {
+
+  private static final VarHandle LONG_VIEW =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+
+  private final byte[] specialBytes;
+  private final long[] patterns;
+
+  /**
+   * @param delimiter the delimiter, the first byte is used
+   * @param enclosure the enclosure or null, the first byte is used
+   */
+  SpecialByteScanner(byte[] delimiter, byte[] enclosure) {
+    if (enclosure == null || enclosure.length == 0) {
+      specialBytes = new byte[] {'\r', '\n', delimiter[0]};
+    } else {
+      specialBytes = new byte[] {'\r', '\n', delimiter[0], enclosure[0]};
+    }
+    patterns = new long[specialBytes.length];
+    for (int i = 0; i < specialBytes.length; i++) {
+      patterns[i] = ONES * (specialBytes[i] & 0xFF);
+    }
+  }
+
+  /**
+   * Find the first special byte in a part of a buffer.
+   *
+   * @param buffer the buffer to scan
+   * @param from the index of the first byte to look at
+   * @param to the index after the last byte to look at
+   * @return the index of the first special byte or to if there is none
+   */
+  int indexOfSpecialByte(byte[] buffer, int from, int to) {
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      long word = (long) LONG_VIEW.get(buffer, i);
+      long found = 0L;
+      for (long pattern : patterns) {
+        found |= zeroBytes(word ^ pattern);
+      }
+      if (found != 0L) {
+        // The lowest flagged byte is exact, higher ones can be false positives
+        //
+        return i + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < to; i++) {
+      if (isSpecial(buffer[i])) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /** @return the high bit set in every byte of the word which is zero (and possibly above those) */
+  private static long zeroBytes(long word) {
+    return (word - ONES) & ~word & HIGH_BITS;
+  }
+
+  private boolean isSpecial(byte b) {
+    for (byte specialByte : specialBytes) {
+      if (b == specialByte) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -359,7 +359,12 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
       }
 
       writeRow(data.outputRowMeta, row);
-      putRow(data.outputRowMeta, row); // in case we want it to go further...
+      if (data.outputRows != null && data.nrOutputRows < data.outputRows.length) {
+        // Passed on with the rest of the batch in processRow()
+        data.outputRows[data.nrOutputRows++] = row;
+      } else {
+        putRow(data.outputRowMeta, row); // in case we want it to go further...
+      }
 
       if (checkFeedback(getLinesOutput())) {
         logBasic("linenr " + getLinesOutput());
@@ -414,7 +419,9 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
       meta.setEncoding(CharsetToolkit.getDefaultSystemCharset().name());
     }
 
-    Object[] row = getRow(); // This also waits for a row to be finished.
+    // This also waits for a row to be finished.
+    Object[][] rows = getRows(NR_OF_ROWS_IN_BATCH);
+    Object[] row = rows == null ? null : rows[0];
 
     if (row != null && first) {
       data.outputRowMeta = getInputRowMeta().clone();
@@ -430,7 +437,22 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
         }
       }
     }
-    return writeRowTo(row);
+    if (rows == null) {
+      return writeRowTo(null);
+    }
+
+    data.outputRows = new Object[rows.length][];
+    data.nrOutputRows = 0;
+    try {
+      for (Object[] r : rows) {
+        writeRowTo(r);
+      }
+      // in case we want it to go further...
+      putRows(data.outputRowMeta, data.outputRows, data.nrOutputRows);
+    } finally {
+      data.outputRows = null;
+    }
+    return true;
   }
 
   protected boolean writeRowTo(Object[] row) throws HopException {
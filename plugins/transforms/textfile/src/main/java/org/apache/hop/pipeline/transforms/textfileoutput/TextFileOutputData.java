@@ -437,6 +437,11 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
 
   public int splitEvery;
 
+  /** The written rows which still need to be passed on to the next transforms */
+  public Object[][] outputRows;
+
+  public int nrOutputRows;
+
   public TextFileOutputData() {
     super();
 
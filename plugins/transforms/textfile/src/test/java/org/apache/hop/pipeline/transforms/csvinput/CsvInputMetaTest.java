@@ -83,6 +83,7 @@ public class CsvInputMetaTest implements IInitializer<ITransformMeta> {
             "includingFilename",
             "lazyConversionActive",
             "newlinePossibleInFields",
+            "memoryMapped",
             "runningInParallel");
 
     Map<String, String> getterMap =
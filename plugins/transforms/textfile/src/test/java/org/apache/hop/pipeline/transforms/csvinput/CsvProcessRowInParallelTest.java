@@ -30,6 +30,9 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 
@@ -242,6 +245,68 @@ public class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
     assertEquals(11, t1 + t2 + t3 + t4);
   }
 
+  @Test
+  public void newLinesInEnclosedFields_manyThreads() throws Exception {
+    final String fileContent =
+        "a;\"1\n1\"\n"
+            + "b;\"2\r\n2\"\r\n"
+            + "c;\"3;\n3\"\n"
+            + "d;\"4\"\"\n4\"\n"
+            + "e;5\n"
+            + "f;\"6\n6\n6\"\n";
+
+    File sharedFile = createTestFile("UTF-8", fileContent);
+
+    for (boolean memoryMapped : new boolean[] {false, true}) {
+      for (int totalNumberOfTransforms = 1;
+          totalNumberOfTransforms <= 8;
+          totalNumberOfTransforms++) {
+        List<String> values = new ArrayList<>();
+        for (int transformNr = 0; transformNr < totalNumberOfTransforms; transformNr++) {
+          TransformMetaDataCombi combi = createBaseCombi(sharedFile, false, ";", true, memoryMapped);
+          configureData((CsvInputData) combi.data, transformNr, totalNumberOfTransforms);
+          values.addAll(processRowValues(combi));
+        }
+        assertEquals(
+            Arrays.asList("1\n1", "2\r\n2", "3;\n3", "4\"\n4", "5", "6\n6\n6"), values);
+      }
+    }
+  }
+
+  @Test
+  public void memoryMapped_2Threads() throws Exception {
+    final String fileContent = "a;1\r\n" + "b;2\r\n" + "c;3\r\n" + "d;4\r\n";
+
+    File sharedFile = createTestFile("UTF-8", fileContent);
+
+    for (int transformNr = 0; transformNr < 2; transformNr++) {
+      TransformMetaDataCombi combi = createBaseCombi(sharedFile, false, ";", false, true);
+      configureData((CsvInputData) combi.data, transformNr, 2);
+      assertEquals(2, processRows(combi));
+    }
+  }
+
+  /** Process all rows and return the values of the second field. */
+  private List<String> processRowValues(TransformMetaDataCombi combi) throws Exception {
+    CsvInput csvInput = (CsvInput) combi.transform;
+    final List<String> values = new ArrayList<>();
+
+    csvInput.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+            values.add((String) row[1]);
+          }
+        });
+
+    while (csvInput.processRow()) {
+      // keep reading
+    }
+    csvInput.dispose();
+
+    return values;
+  }
+
   /**
    * So as not to heap up list of taken parameters, we are passing combi, but we expect to see
    * CsvInput class instances in it's content.
@@ -302,6 +367,15 @@ public class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
 
   private TransformMetaDataCombi createBaseCombi(
       File sharedFile, boolean headerPresent, String delimiter) {
+    return createBaseCombi(sharedFile, headerPresent, delimiter, false, false);
+  }
+
+  private TransformMetaDataCombi createBaseCombi(
+      File sharedFile,
+      boolean headerPresent,
+      String delimiter,
+      boolean newlinePossible,
+      boolean memoryMapped) {
 
     TransformMetaDataCombi combi = new TransformMetaDataCombi();
 
@@ -309,6 +383,8 @@ public class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
     CsvInputMeta meta =
         createMeta(
             sharedFile, createInputFileFields("Field_000", "Field_001"), headerPresent, delimiter);
+    meta.setNewlinePossibleInFields(newlinePossible);
+    meta.setMemoryMapped(memoryMapped);
 
     CsvInput csvInput = createCsvInput(meta, data);
     csvInput.init();
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class QuotedRecordBoundaryFinderTest {
+
+  private static final String RECORD = "1,\"first line\nsecond line\",x\n";
+
+  private final QuotedRecordBoundaryFinder finder =
+      new QuotedRecordBoundaryFinder(
+          new byte[] {','}, new byte[] {'"'}, new SingleByteCrLfMatcher(), 1, 3);
+
+  @Test
+  public void testRecordStartsRightAfterPosition() {
+    String data = repeat(RECORD, 5);
+    // The window starts at the new line at the end of the first record
+    assertEquals(1, findRecordStart(data, RECORD.length() - 1));
+  }
+
+  @Test
+  public void testPositionInsideEnclosedField() {
+    String data = repeat(RECORD, 5);
+    // Start in "first line", before the enclosed new line
+    int windowStart = RECORD.indexOf("line");
+    assertEquals(RECORD.length() - windowStart, findRecordStart(data, windowStart));
+  }
+
+  @Test
+  public void testPositionAfterEnclosedNewLine() {
+    String data = repeat(RECORD, 5);
+    // Start in "second line", a plain new line search would pick the wrong position
+    int windowStart = RECORD.indexOf("second") + 2;
+    assertEquals(RECORD.length() - windowStart, findRecordStart(data, windowStart));
+  }
+
+  @Test
+  public void testEscapedEnclosures() {
+    String record = "1,\"say \"\"hi\"\"\nagain\",x\n";
+    String data = repeat(record, 5);
+    int windowStart = record.indexOf("hi");
+    assertEquals(record.length() - windowStart, findRecordStart(data, windowStart));
+  }
+
+  @Test
+  public void testWindowsLineEnds() {
+    String record = "1,\"a\r\nb\",x\r\n";
+    String data = repeat(record, 5);
+    // Between the \r and \n at the end of the first record
+    assertEquals(2, findRecordStart(data, record.length() - 2));
+  }
+
+  @Test
+  public void testNoRecordStartInWindow() {
+    String data = "1,\"a long enclosed field without an end";
+    byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+    assertEquals(-1, finder.findRecordStart(bytes, bytes.length, false));
+    // At the end of the file the rest of the data belongs to the previous record
+    assertEquals(bytes.length, finder.findRecordStart(bytes, bytes.length, true));
+  }
+
+  private int findRecordStart(String data, int windowStart) {
+    byte[] bytes = data.substring(windowStart).getBytes(StandardCharsets.UTF_8);
+    return finder.findRecordStart(bytes, bytes.length, true);
+  }
+
+  private static String repeat(String string, int times) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(string);
+    }
+    return builder.toString();
+  }
+}
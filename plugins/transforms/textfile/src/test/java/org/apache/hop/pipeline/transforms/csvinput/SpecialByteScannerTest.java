@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpecialByteScannerTest {
+
+  @Test
+  public void testFindsSpecialBytes() {
+    SpecialByteScanner scanner = new SpecialByteScanner(new byte[] {';'}, new byte[] {'"'});
+    byte[] buffer = "abcdefghijklmnop;qrstuvwxyz\"0123456789\r\nend".getBytes();
+
+    assertEquals(16, scanner.indexOfSpecialByte(buffer, 0, buffer.length));
+    assertEquals(27, scanner.indexOfSpecialByte(buffer, 17, buffer.length));
+    assertEquals(38, scanner.indexOfSpecialByte(buffer, 28, buffer.length));
+    assertEquals(39, scanner.indexOfSpecialByte(buffer, 39, buffer.length));
+    assertEquals(buffer.length, scanner.indexOfSpecialByte(buffer, 40, buffer.length));
+    // Don't look beyond the end
+    assertEquals(10, scanner.indexOfSpecialByte(buffer, 0, 10));
+  }
+
+  @Test
+  public void testWithoutEnclosure() {
+    SpecialByteScanner scanner = new SpecialByteScanner(new byte[] {','}, null);
+    byte[] buffer = "\"abcdefghijkl\",".getBytes();
+
+    assertEquals(14, scanner.indexOfSpecialByte(buffer, 0, buffer.length));
+  }
+
+  @Test
+  public void testSameResultAsByteByByteScan() {
+    byte[] specials = {'\t', '\'', '\r', '\n'};
+    SpecialByteScanner scanner = new SpecialByteScanner(new byte[] {'\t'}, new byte[] {'\''});
+    Random random = new Random(42);
+    byte[] buffer = new byte[4096];
+    for (int i = 0; i < 200; i++) {
+      random.nextBytes(buffer);
+      // Vary the density of the special bytes
+      for (int j = 0; j < i; j++) {
+        buffer[random.nextInt(buffer.length)] = specials[random.nextInt(specials.length)];
+      }
+      int from = random.nextInt(64);
+      int to = buffer.length - random.nextInt(64);
+      while (from < to) {
+        int expected = from;
+        while (expected < to && !isSpecial(buffer[expected], specials)) {
+          expected++;
+        }
+        int actual = scanner.indexOfSpecialByte(buffer, from, to);
+        assertEquals(expected, actual);
+        from = actual + 1;
+      }
+    }
+  }
+
+  private static boolean isSpecial(byte b, byte[] specials) {
+    for (byte special : specials) {
+      if (b == special) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
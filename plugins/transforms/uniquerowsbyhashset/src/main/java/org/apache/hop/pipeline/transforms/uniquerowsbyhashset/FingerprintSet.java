@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import org.apache.hop.core.exception.HopException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A set of 128-bit key fingerprints, kept as pairs of longs in a single array with open
+ * addressing. It takes 16 bytes per slot and no objects per key, where a set of row keys takes an
+ * object, a boxed copy of the key values and a hash set entry per key.
+ *
+ * <p>An all zero pair marks an empty slot, the all zero fingerprint is stored as if its last bit
+ * were set.
+ */
+class FingerprintSet {
+
+  /** The number of bytes of a slot */
+  static final int SLOT_SIZE = 16;
+
+  private static final float LOAD_FACTOR = 0.7f;
+
+  /** The largest number of slots, two longs each still fit in an array */
+  private static final int MAX_CAPACITY = 1 << 29;
+
+  private long[] slots;
+  private int size;
+  private int resizeThreshold;
+
+  /** @param capacity the initial number of slots, rounded up to a power of 2 */
+  FingerprintSet(int capacity) {
+    int powerOf2 = 16;
+    while (powerOf2 < capacity && powerOf2 < MAX_CAPACITY) {
+      powerOf2 <<= 1;
+    }
+    allocate(powerOf2);
+  }
+
+  private void allocate(int capacity) {
+    slots = new long[capacity * 2];
+    resizeThreshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * Add a fingerprint. The set grows when it's full, check {@link #isFull()} first to account for
+   * the memory.
+   *
+   * @param high the first 8 bytes of the fingerprint
+   * @param low the last 8 bytes of the fingerprint
+   * @return true if the fingerprint is new, false if it was in the set already
+   * @throws HopException if the set can't grow any further
+   */
+  boolean add(long high, long low) throws HopException {
+    if (high == 0L && low == 0L) {
+      low = 1L;
+    }
+    if (isFull()) {
+      resize();
+    }
+    int mask = (slots.length >>> 1) - 1;
+    int slot = (int) low & mask;
+    while (true) {
+      int index = slot << 1;
+      long slotHigh = slots[index];
+      long slotLow = slots[index + 1];
+      if (slotHigh == 0L && slotLow == 0L) {
+        slots[index] = high;
+        slots[index + 1] = low;
+        size++;
+        return true;
+      }
+      if (slotHigh == high && slotLow == low) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /** @return true if the next fingerprint doubles the memory of the set */
+  boolean isFull() {
+    return size >= resizeThreshold;
+  }
+
+  private void resize() throws HopException {
+    int capacity = slots.length >>> 1;
+    if (capacity >= MAX_CAPACITY) {
+      throw new HopException("Unable to keep more than " + size + " key fingerprints in memory");
+    }
+    long[] oldSlots = slots;
+    allocate(capacity * 2);
+    int mask = (slots.length >>> 1) - 1;
+    for (int i = 0; i < oldSlots.length; i += 2) {
+      long high = oldSlots[i];
+      long low = oldSlots[i + 1];
+      if (high != 0L || low != 0L) {
+        int slot = (int) low & mask;
+        while (slots[slot << 1] != 0L || slots[(slot << 1) + 1] != 0L) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot << 1] = high;
+        slots[(slot << 1) + 1] = low;
+      }
+    }
+  }
+
+  /** @return the number of fingerprints */
+  int size() {
+    return size;
+  }
+
+  /** @return the number of bytes of the slots */
+  long getMemorySize() {
+    return slots.length * 8L;
+  }
+
+  /**
+   * Write the fingerprints, they can be read back with {@link #readFrom(DataInputStream)}.
+   *
+   * @param outputStream the stream to write to
+   * @throws IOException if the fingerprints can't be written
+   */
+  void writeTo(DataOutputStream outputStream) throws IOException {
+    outputStream.writeInt(size);
+    for (int i = 0; i < slots.length; i += 2) {
+      if (slots[i] != 0L || slots[i + 1] != 0L) {
+        outputStream.writeLong(slots[i]);
+        outputStream.writeLong(slots[i + 1]);
+      }
+    }
+  }
+
+  /**
+   * Read fingerprints written by {@link #writeTo(DataOutputStream)}.
+   *
+   * @param inputStream the stream to read from
+   * @return a set with the fingerprints
+   * @throws IOException if the fingerprints can't be read
+   * @throws HopException if the fingerprints don't fit in a set
+   */
+  static FingerprintSet readFrom(DataInputStream inputStream) throws IOException, HopException {
+    int size = inputStream.readInt();
+    FingerprintSet set = new FingerprintSet((int) Math.min(size / LOAD_FACTOR + 1, MAX_CAPACITY));
+    for (int i = 0; i < size; i++) {
+      set.add(inputStream.readLong(), inputStream.readLong());
+    }
+    return set;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.PrimitiveSink;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Feeds the key fields of a row to a hash function. Each value is preceded by its kind and values
+ * of variable length by their length, so different keys don't feed the same bytes.
+ */
+class KeyFunnel implements Funnel<Object[]> {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+
+  private final int[] keyNrs;
+
+  /** @param keyNrs the indexes of the key fields in the rows */
+  KeyFunnel(int[] keyNrs) {
+    this.keyNrs = keyNrs;
+  }
+
+  @Override
+  public void funnel(Object[] row, PrimitiveSink into) {
+    for (int keyNr : keyNrs) {
+      funnelValue(row[keyNr], into);
+    }
+  }
+
+  private static void funnelValue(Object value, PrimitiveSink into) {
+    if (value == null) {
+      into.putByte((byte) 0);
+    } else if (value instanceof String) {
+      String string = (String) value;
+      into.putByte((byte) 1).putInt(string.length()).putUnencodedChars(string);
+    } else if (value instanceof Long) {
+      into.putByte((byte) 2).putLong((Long) value);
+    } else if (value instanceof Double) {
+      into.putByte((byte) 3).putDouble((Double) value);
+    } else if (value instanceof Timestamp) {
+      Timestamp timestamp = (Timestamp) value;
+      into.putByte((byte) 4).putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+    } else if (value instanceof Date) {
+      into.putByte((byte) 5).putLong(((Date) value).getTime());
+    } else if (value instanceof BigDecimal) {
+      String string = value.toString();
+      into.putByte((byte) 6).putInt(string.length()).putUnencodedChars(string);
+    } else if (value instanceof Boolean) {
+      into.putByte((byte) 7).putBoolean((Boolean) value);
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      into.putByte((byte) 8).putInt(bytes.length).putBytes(bytes);
+    } else {
+      String string = value.toString();
+      into.putByte((byte) 9).putInt(string.length()).putUnencodedChars(string);
+    }
+  }
+
+  /**
+   * Calculate the 128-bit fingerprint of the key of a row.
+   *
+   * @param row the row
+   * @return the fingerprint, the first 8 bytes of which are returned by {@link HashCode#asLong()}
+   */
+  HashCode fingerprint(Object[] row) {
+    return FINGERPRINT_FUNCTION.hashObject(row, this);
+  }
+
+  /**
+   * @param fingerprint a 128-bit fingerprint
+   * @return the last 8 bytes of the fingerprint
+   */
+  static long getLowBits(HashCode fingerprint) {
+    byte[] bytes = fingerprint.asBytes();
+    long low = 0L;
+    for (int i = 15; i >= 8; i--) {
+      low = (low << 8) | (bytes[i] & 0xFFL);
+    }
+    return low;
+  }
+}
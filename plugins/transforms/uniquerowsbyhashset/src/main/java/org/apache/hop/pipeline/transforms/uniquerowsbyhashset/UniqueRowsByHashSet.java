@@ -17,18 +17,40 @@
 
 package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.HashCode;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.hash.RowHashIndex;
+import org.apache.hop.core.memory.SpillFile;
+import org.apache.hop.core.memory.SpillMemoryManager;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.uniquerowsbyhashset.UniqueRowsByHashSetMeta.KeyStorage;
+
+import java.io.IOException;
 
 public class UniqueRowsByHashSet
     extends BaseTransform<UniqueRowsByHashSetMeta, UniqueRowsByHashSetData> {
   private static final Class<?> PKG = UniqueRowsByHashSetMeta.class; // For Translator
 
+  /** The number of bits of a fingerprint which pick its partition */
+  static final int PARTITION_BITS = 6;
+
+  static final int NR_PARTITIONS = 1 << PARTITION_BITS;
+
+  /** Below this number of fingerprints in memory the budget is overdrawn instead of spilling */
+  private static final int MIN_FINGERPRINTS_IN_MEMORY = 100000;
+
+  private static final Object[] EMPTY_VALUE = new Object[0];
+
   public UniqueRowsByHashSet(
       TransformMeta transformMeta,
       UniqueRowsByHashSetMeta meta,
@@ -39,8 +61,170 @@ public class UniqueRowsByHashSet
     super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
   }
 
-  private boolean isUniqueRow(Object[] row) {
-    return data.seen.add(new RowKey(row, data));
+  private boolean isUniqueRow(Object[] row) throws HopException {
+    switch (data.keyStorage) {
+      case BLOOM_FILTER:
+        // Unchanged bits mean the key was probably seen before
+        return data.bloomFilter.put(row);
+      case FINGERPRINTS:
+        for (int i = 0; i < data.keyData.length; i++) {
+          data.keyData[i] = row[data.fieldnrs[i]];
+        }
+        if (data.keyIndex.get(data.keyData) != null) {
+          return false;
+        }
+        data.keyIndex.put(data.keyData, EMPTY_VALUE);
+        return true;
+      default:
+        return data.seen.add(new RowKey(row, data));
+    }
+  }
+
+  /**
+   * Check the fingerprint of the key of a row against the fingerprints seen so far. The rows of a
+   * partition which was spilled to disk are checked once all input is read.
+   */
+  private void addFingerprint(Object[] row) throws HopException {
+    HashCode fingerprint = data.keyFunnel.fingerprint(row);
+    long high = fingerprint.asLong();
+    int partitionNr = getPartitionNr(high);
+
+    FingerprintSet set = data.fingerprintSets[partitionNr];
+    if (set != null && set.isFull() && !reserveGrowth(partitionNr)) {
+      set = null;
+    }
+    if (set == null) {
+      data.spillPartitions[partitionNr].writeRow(data.inputRowMeta, row);
+      return;
+    }
+    passRow(row, set.add(high, KeyFunnel.getLowBits(fingerprint)));
+  }
+
+  /**
+   * @param high the first 8 bytes of a fingerprint
+   * @return the partition of the fingerprint
+   */
+  static int getPartitionNr(long high) {
+    return (int) (high >>> (Long.SIZE - PARTITION_BITS));
+  }
+
+  /**
+   * Reserve the memory a set of fingerprints needs to grow. When the memory budget is exhausted
+   * the largest partitions in memory are spilled to disk until it fits or the set itself is
+   * spilled.
+   *
+   * @param partitionNr the partition of the set which grows
+   * @return true if the set can grow, false if it was spilled to disk
+   */
+  private boolean reserveGrowth(int partitionNr) throws HopException {
+    long growth = data.fingerprintSets[partitionNr].getMemorySize();
+    if (data.memoryBudget == null) {
+      return true;
+    }
+    long inMemory = 0L;
+    for (FingerprintSet set : data.fingerprintSets) {
+      inMemory += set == null ? 0 : set.size();
+    }
+    if (inMemory < MIN_FINGERPRINTS_IN_MEMORY) {
+      data.memoryBudget.forceReserve(growth);
+      return true;
+    }
+    while (!data.memoryBudget.tryReserve(growth)) {
+      int largest = partitionNr;
+      for (int i = 0; i < NR_PARTITIONS; i++) {
+        FingerprintSet set = data.fingerprintSets[i];
+        if (set != null && set.size() > data.fingerprintSets[largest].size()) {
+          largest = i;
+        }
+      }
+      spillPartition(largest);
+      if (largest == partitionNr) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void spillPartition(int partitionNr) throws HopException {
+    FingerprintSet set = data.fingerprintSets[partitionNr];
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "UniqueRowsByHashSet.Log.SpillingPartition", partitionNr, set.size()));
+    }
+    // The file starts with the fingerprints seen so far, followed by the rows which come in later
+    SpillFile partition = new SpillFile(resolve(meta.getDirectory()), resolve(meta.getPrefix()), 0);
+    try {
+      set.writeTo(partition.getOutputStream());
+    } catch (IOException e) {
+      partition.delete();
+      throw new HopFileException(e);
+    }
+    data.spillPartitions[partitionNr] = partition;
+    data.fingerprintSets[partitionNr] = null;
+    data.memoryBudget.release(set.getMemorySize());
+  }
+
+  /**
+   * Check the rows of the partitions which were spilled to disk, one partition at a time. The
+   * fingerprints seen before a partition was spilled are read back first.
+   */
+  private void checkSpilledRows() throws HopException {
+    data.fingerprintSets = null;
+    data.memoryBudget.releaseAll();
+
+    for (int i = 0; i < NR_PARTITIONS && !isStopped(); i++) {
+      SpillFile partition = data.spillPartitions[i];
+      if (partition == null) {
+        continue;
+      }
+      partition.finishWriting();
+      if (log.isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "UniqueRowsByHashSet.Log.CheckingSpilledRows", partition.getRowCount(), i));
+      }
+      FingerprintSet set;
+      try {
+        set = FingerprintSet.readFrom(partition.getInputStream());
+      } catch (IOException e) {
+        throw new HopFileException(e);
+      }
+      data.memoryBudget.forceReserve(set.getMemorySize());
+
+      Object[] row = partition.readRow(data.inputRowMeta);
+      while (row != null && !isStopped()) {
+        HashCode fingerprint = data.keyFunnel.fingerprint(row);
+        if (set.isFull()) {
+          // The rows of a single partition are checked in memory, whatever it takes
+          data.memoryBudget.forceReserve(set.getMemorySize());
+        }
+        passRow(row, set.add(fingerprint.asLong(), KeyFunnel.getLowBits(fingerprint)));
+        row = partition.readRow(data.inputRowMeta);
+      }
+
+      partition.delete();
+      data.spillPartitions[i] = null;
+      data.memoryBudget.releaseAll();
+    }
+  }
+
+  private void passRow(Object[] r, boolean unique) throws HopException {
+    if (unique) {
+      putRow(data.outputRowMeta, r);
+    } else {
+      incrementLinesRejected();
+      if (data.sendDuplicateRows) {
+        // Simply add this row to the error row
+        putError(
+            getInputRowMeta(),
+            r,
+            1,
+            data.realErrorDescription,
+            Utils.isEmpty(data.compareFields) ? null : data.compareFields,
+            "UNRH001");
+      }
+    }
   }
 
   @Override
@@ -49,6 +233,9 @@ public class UniqueRowsByHashSet
     Object[] r = getRow(); // get row!
     if (r == null) { // no more input to be expected...
 
+      if (data.spillPartitions != null) {
+        checkSpilledRows();
+      }
       data.clearHashSet();
       setOutputDone();
       return false;
@@ -88,22 +275,18 @@ public class UniqueRowsByHashSet
       if (data.sendDuplicateRows && !Utils.isEmpty(meta.getErrorDescription())) {
         data.realErrorDescription = resolve(meta.getErrorDescription());
       }
+
+      if (!initKeyStorage()) {
+        setErrors(1);
+        stopAll();
+        return false;
+      }
     }
 
-    if (isUniqueRow(r)) {
-      putRow(data.outputRowMeta, r);
+    if (data.fingerprintSets != null) {
+      addFingerprint(r);
     } else {
-      incrementLinesRejected();
-      if (data.sendDuplicateRows) {
-        // Simply add this row to the error row
-        putError(
-            getInputRowMeta(),
-            r,
-            1,
-            data.realErrorDescription,
-            Utils.isEmpty(data.compareFields) ? null : data.compareFields,
-            "UNRH001");
-      }
+      passRow(r, isUniqueRow(r));
     }
 
     if (checkFeedback(getLinesRead())) {
@@ -116,6 +299,81 @@ public class UniqueRowsByHashSet
     return true;
   }
 
+  /**
+   * Set up the structure which keeps the keys seen so far, now that the layout of the rows is
+   * known.
+   *
+   * @return false if the settings are invalid
+   */
+  private boolean initKeyStorage() throws HopException {
+    data.keyStorage = meta.getKeyStorage() == null ? KeyStorage.OBJECTS : meta.getKeyStorage();
+    if (data.keyStorage == KeyStorage.OBJECTS) {
+      return true;
+    }
+
+    // The new key storage compares the key fields only, all fields when none are given
+    //
+    int[] keyNrs = data.fieldnrs;
+    if (keyNrs.length == 0) {
+      keyNrs = new int[data.inputRowMeta.size()];
+      for (int i = 0; i < keyNrs.length; i++) {
+        keyNrs[i] = i;
+      }
+      data.fieldnrs = keyNrs;
+    }
+    data.keyFunnel = new KeyFunnel(keyNrs);
+
+    if (data.keyStorage == KeyStorage.BLOOM_FILTER) {
+      long expectedRows = Const.toLong(resolve(meta.getExpectedRows()), -1L);
+      double falsePositiveRate = Const.toDouble(resolve(meta.getFalsePositiveRate()), -1.0);
+      if (expectedRows <= 0L || falsePositiveRate <= 0.0 || falsePositiveRate >= 1.0) {
+        logError(
+            BaseMessages.getString(
+                PKG,
+                "UniqueRowsByHashSet.Log.InvalidBloomFilterSettings",
+                resolve(meta.getExpectedRows()),
+                resolve(meta.getFalsePositiveRate())));
+        return false;
+      }
+      data.bloomFilter = BloomFilter.create(data.keyFunnel, expectedRows, falsePositiveRate);
+      return true;
+    }
+
+    if (data.storeValues) {
+      // Verify keys on their values: keep them serialized rather than as objects
+      //
+      boolean normalStorage = true;
+      data.keyMeta = new RowMeta();
+      for (int keyNr : keyNrs) {
+        IValueMeta valueMeta = data.inputRowMeta.getValueMeta(keyNr);
+        normalStorage &= valueMeta.isStorageNormal();
+        data.keyMeta.addValueMeta(valueMeta.clone());
+      }
+      if (normalStorage && RowHashIndex.isSupported(data.keyMeta)) {
+        data.keyIndex = new RowHashIndex(data.keyMeta, new RowMeta());
+        data.keyData = new Object[keyNrs.length];
+      } else {
+        logBasic(BaseMessages.getString(PKG, "UniqueRowsByHashSet.Log.StoringKeysAsObjects"));
+        data.keyStorage = KeyStorage.OBJECTS;
+      }
+      return true;
+    }
+
+    data.fingerprintSets = new FingerprintSet[NR_PARTITIONS];
+    for (int i = 0; i < NR_PARTITIONS; i++) {
+      data.fingerprintSets[i] = new FingerprintSet(1024);
+    }
+    if (meta.isSpillingToDisk()) {
+      data.memoryBudget =
+          SpillMemoryManager.getInstance().createBudgetMb(resolve(meta.getMemoryLimit()));
+      for (FingerprintSet set : data.fingerprintSets) {
+        data.memoryBudget.forceReserve(set.getMemorySize());
+      }
+      data.spillPartitions = new SpillFile[NR_PARTITIONS];
+    }
+    return true;
+  }
+
   @Override
   public boolean init() {
 
@@ -127,4 +385,28 @@ public class UniqueRowsByHashSet
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if (data.spillPartitions != null) {
+      for (SpillFile partition : data.spillPartitions) {
+        if (partition != null) {
+          partition.delete();
+        }
+      }
+      data.spillPartitions = null;
+    }
+    if (data.memoryBudget != null) {
+      data.memoryBudget.close();
+      data.memoryBudget = null;
+    }
+    if (data.keyIndex != null) {
+      data.keyIndex.close();
+      data.keyIndex = null;
+    }
+    data.fingerprintSets = null;
+    data.bloomFilter = null;
+    data.seen.clear();
+    super.dispose();
+  }
 }
@@ -17,6 +17,10 @@
 
 package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
+import com.google.common.hash.BloomFilter;
+import org.apache.hop.core.hash.RowHashIndex;
+import org.apache.hop.core.memory.MemoryBudget;
+import org.apache.hop.core.memory.SpillFile;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -34,6 +38,25 @@ public class UniqueRowsByHashSetData extends BaseTransformData implements ITrans
 
   public HashSet<RowKey> seen = new HashSet<>();
 
+  public UniqueRowsByHashSetMeta.KeyStorage keyStorage;
+  KeyFunnel keyFunnel;
+
+  /** The fingerprints in memory per partition, null for a partition spilled to disk */
+  FingerprintSet[] fingerprintSets;
+
+  /** The partitions spilled to disk, null when spilling is disabled */
+  SpillFile[] spillPartitions;
+
+  public MemoryBudget memoryBudget;
+
+  /** The serialized key values when fingerprints are verified with the stored values */
+  public RowHashIndex keyIndex;
+
+  public IRowMeta keyMeta;
+  public Object[] keyData;
+
+  public BloomFilter<Object[]> bloomFilter;
+
   public UniqueRowsByHashSetData() {
     super();
   }
@@ -33,7 +33,9 @@ import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
+import org.apache.hop.pipeline.transforms.uniquerowsbyhashset.UniqueRowsByHashSetMeta.KeyStorage;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.ModifyListener;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -63,6 +65,26 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
   private Label wlErrorDesc;
   private TextVar wErrorDesc;
 
+  private CCombo wKeyStorage;
+
+  private Label wlExpectedRows;
+  private TextVar wExpectedRows;
+
+  private Label wlFalsePositiveRate;
+  private TextVar wFalsePositiveRate;
+
+  private Label wlSpillToDisk;
+  private Button wSpillToDisk;
+
+  private Label wlDirectory;
+  private TextVar wDirectory;
+
+  private Label wlPrefix;
+  private TextVar wPrefix;
+
+  private Label wlMemoryLimit;
+  private TextVar wMemoryLimit;
+
   public UniqueRowsByHashSetDialog(
       Shell parent, IVariables variables, Object in, PipelineMeta pipelineMeta, String sname) {
     super(parent, variables, (BaseTransformMeta) in, pipelineMeta, sname);
@@ -193,6 +215,151 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     fdErrorDesc.right = new FormAttachment(100, 0);
     wErrorDesc.setLayoutData(fdErrorDesc);
 
+    Label wlKeyStorage = new Label(wSettings, SWT.RIGHT);
+    wlKeyStorage.setText(BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.KeyStorage.Label"));
+    props.setLook(wlKeyStorage);
+    FormData fdlKeyStorage = new FormData();
+    fdlKeyStorage.left = new FormAttachment(0, 0);
+    fdlKeyStorage.top = new FormAttachment(wErrorDesc, margin);
+    fdlKeyStorage.right = new FormAttachment(middle, -margin);
+    wlKeyStorage.setLayoutData(fdlKeyStorage);
+    wKeyStorage = new CCombo(wSettings, SWT.SINGLE | SWT.READ_ONLY | SWT.BORDER);
+    wKeyStorage.setItems(KeyStorage.getDescriptions());
+    wKeyStorage.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.KeyStorage.ToolTip"));
+    props.setLook(wKeyStorage);
+    FormData fdKeyStorage = new FormData();
+    fdKeyStorage.left = new FormAttachment(middle, 0);
+    fdKeyStorage.top = new FormAttachment(wlKeyStorage, 0, SWT.CENTER);
+    fdKeyStorage.right = new FormAttachment(100, 0);
+    wKeyStorage.setLayoutData(fdKeyStorage);
+    wKeyStorage.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            setKeyStorage();
+          }
+        });
+
+    wlExpectedRows = new Label(wSettings, SWT.RIGHT);
+    wlExpectedRows.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.ExpectedRows.Label"));
+    props.setLook(wlExpectedRows);
+    FormData fdlExpectedRows = new FormData();
+    fdlExpectedRows.left = new FormAttachment(0, 0);
+    fdlExpectedRows.top = new FormAttachment(wKeyStorage, margin);
+    fdlExpectedRows.right = new FormAttachment(middle, -margin);
+    wlExpectedRows.setLayoutData(fdlExpectedRows);
+    wExpectedRows = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wExpectedRows);
+    wExpectedRows.addModifyListener(lsMod);
+    FormData fdExpectedRows = new FormData();
+    fdExpectedRows.left = new FormAttachment(middle, 0);
+    fdExpectedRows.top = new FormAttachment(wlExpectedRows, 0, SWT.CENTER);
+    fdExpectedRows.right = new FormAttachment(100, 0);
+    wExpectedRows.setLayoutData(fdExpectedRows);
+
+    wlFalsePositiveRate = new Label(wSettings, SWT.RIGHT);
+    wlFalsePositiveRate.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FalsePositiveRate.Label"));
+    props.setLook(wlFalsePositiveRate);
+    FormData fdlFalsePositiveRate = new FormData();
+    fdlFalsePositiveRate.left = new FormAttachment(0, 0);
+    fdlFalsePositiveRate.top = new FormAttachment(wExpectedRows, margin);
+    fdlFalsePositiveRate.right = new FormAttachment(middle, -margin);
+    wlFalsePositiveRate.setLayoutData(fdlFalsePositiveRate);
+    wFalsePositiveRate = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFalsePositiveRate.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FalsePositiveRate.ToolTip"));
+    props.setLook(wFalsePositiveRate);
+    wFalsePositiveRate.addModifyListener(lsMod);
+    FormData fdFalsePositiveRate = new FormData();
+    fdFalsePositiveRate.left = new FormAttachment(middle, 0);
+    fdFalsePositiveRate.top = new FormAttachment(wlFalsePositiveRate, 0, SWT.CENTER);
+    fdFalsePositiveRate.right = new FormAttachment(100, 0);
+    wFalsePositiveRate.setLayoutData(fdFalsePositiveRate);
+
+    wlSpillToDisk = new Label(wSettings, SWT.RIGHT);
+    wlSpillToDisk.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.SpillToDisk.Label"));
+    props.setLook(wlSpillToDisk);
+    FormData fdlSpillToDisk = new FormData();
+    fdlSpillToDisk.left = new FormAttachment(0, 0);
+    fdlSpillToDisk.top = new FormAttachment(wFalsePositiveRate, margin);
+    fdlSpillToDisk.right = new FormAttachment(middle, -margin);
+    wlSpillToDisk.setLayoutData(fdlSpillToDisk);
+    wSpillToDisk = new Button(wSettings, SWT.CHECK);
+    wSpillToDisk.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.SpillToDisk.ToolTip"));
+    props.setLook(wSpillToDisk);
+    FormData fdSpillToDisk = new FormData();
+    fdSpillToDisk.left = new FormAttachment(middle, 0);
+    fdSpillToDisk.top = new FormAttachment(wlSpillToDisk, 0, SWT.CENTER);
+    wSpillToDisk.setLayoutData(fdSpillToDisk);
+    wSpillToDisk.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            setKeyStorage();
+          }
+        });
+
+    wlDirectory = new Label(wSettings, SWT.RIGHT);
+    wlDirectory.setText(BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.Directory.Label"));
+    props.setLook(wlDirectory);
+    FormData fdlDirectory = new FormData();
+    fdlDirectory.left = new FormAttachment(0, 0);
+    fdlDirectory.top = new FormAttachment(wSpillToDisk, margin);
+    fdlDirectory.right = new FormAttachment(middle, -margin);
+    wlDirectory.setLayoutData(fdlDirectory);
+    wDirectory = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wDirectory);
+    wDirectory.addModifyListener(lsMod);
+    FormData fdDirectory = new FormData();
+    fdDirectory.left = new FormAttachment(middle, 0);
+    fdDirectory.top = new FormAttachment(wlDirectory, 0, SWT.CENTER);
+    fdDirectory.right = new FormAttachment(100, 0);
+    wDirectory.setLayoutData(fdDirectory);
+
+    wlPrefix = new Label(wSettings, SWT.RIGHT);
+    wlPrefix.setText(BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.FilePrefix.Label"));
+    props.setLook(wlPrefix);
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment(0, 0);
+    fdlPrefix.top = new FormAttachment(wDirectory, margin);
+    fdlPrefix.right = new FormAttachment(middle, -margin);
+    wlPrefix.setLayoutData(fdlPrefix);
+    wPrefix = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wPrefix);
+    wPrefix.addModifyListener(lsMod);
+    FormData fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment(middle, 0);
+    fdPrefix.top = new FormAttachment(wlPrefix, 0, SWT.CENTER);
+    fdPrefix.right = new FormAttachment(100, 0);
+    wPrefix.setLayoutData(fdPrefix);
+
+    wlMemoryLimit = new Label(wSettings, SWT.RIGHT);
+    wlMemoryLimit.setText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.MemoryLimit.Label"));
+    props.setLook(wlMemoryLimit);
+    FormData fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment(0, 0);
+    fdlMemoryLimit.top = new FormAttachment(wPrefix, margin);
+    fdlMemoryLimit.right = new FormAttachment(middle, -margin);
+    wlMemoryLimit.setLayoutData(fdlMemoryLimit);
+    wMemoryLimit = new TextVar(variables, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetDialog.MemoryLimit.ToolTip"));
+    props.setLook(wMemoryLimit);
+    wMemoryLimit.addModifyListener(lsMod);
+    FormData fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment(middle, 0);
+    fdMemoryLimit.top = new FormAttachment(wlMemoryLimit, 0, SWT.CENTER);
+    fdMemoryLimit.right = new FormAttachment(100, 0);
+    wMemoryLimit.setLayoutData(fdMemoryLimit);
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment(0, margin);
     fdSettings.top = new FormAttachment(wTransformName, margin);
@@ -277,6 +444,7 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
 
     getData();
     setErrorDesc();
+    setKeyStorage();
     input.setChanged(changed);
 
     BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
@@ -289,6 +457,26 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     wErrorDesc.setEnabled(wRejectDuplicateRow.getSelection());
   }
 
+  private void setKeyStorage() {
+    KeyStorage keyStorage = KeyStorage.getKeyStorageFromDescription(wKeyStorage.getText());
+    boolean bloomFilter = keyStorage == KeyStorage.BLOOM_FILTER;
+    wlExpectedRows.setEnabled(bloomFilter);
+    wExpectedRows.setEnabled(bloomFilter);
+    wlFalsePositiveRate.setEnabled(bloomFilter);
+    wFalsePositiveRate.setEnabled(bloomFilter);
+
+    boolean fingerprints = keyStorage == KeyStorage.FINGERPRINTS;
+    wlSpillToDisk.setEnabled(fingerprints);
+    wSpillToDisk.setEnabled(fingerprints);
+    boolean spilling = fingerprints && wSpillToDisk.getSelection();
+    wlDirectory.setEnabled(spilling);
+    wDirectory.setEnabled(spilling);
+    wlPrefix.setEnabled(spilling);
+    wPrefix.setEnabled(spilling);
+    wlMemoryLimit.setEnabled(spilling);
+    wMemoryLimit.setEnabled(spilling);
+  }
+
   protected void setComboBoxes() {
     // Something was changed in the row.
     //
@@ -313,6 +501,15 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     if (input.getErrorDescription() != null) {
       wErrorDesc.setText(input.getErrorDescription());
     }
+    KeyStorage keyStorage =
+        input.getKeyStorage() == null ? KeyStorage.OBJECTS : input.getKeyStorage();
+    wKeyStorage.setText(keyStorage.getDescription());
+    wExpectedRows.setText(Const.NVL(input.getExpectedRows(), ""));
+    wFalsePositiveRate.setText(Const.NVL(input.getFalsePositiveRate(), ""));
+    wSpillToDisk.setSelection(input.isSpillingToDisk());
+    wDirectory.setText(Const.NVL(input.getDirectory(), ""));
+    wPrefix.setText(Const.NVL(input.getPrefix(), ""));
+    wMemoryLimit.setText(Const.NVL(input.getMemoryLimit(), ""));
     for (int i = 0; i < input.getCompareFields().length; i++) {
       TableItem item = wFields.table.getItem(i);
       if (input.getCompareFields()[i] != null) {
@@ -350,6 +547,13 @@ public class UniqueRowsByHashSetDialog extends BaseTransformDialog implements IT
     input.setStoreValues(wStoreValues.getSelection());
     input.setRejectDuplicateRow(wRejectDuplicateRow.getSelection());
     input.setErrorDescription(wErrorDesc.getText());
+    input.setKeyStorage(KeyStorage.getKeyStorageFromDescription(wKeyStorage.getText()));
+    input.setExpectedRows(wExpectedRows.getText());
+    input.setFalsePositiveRate(wFalsePositiveRate.getText());
+    input.setSpillingToDisk(wSpillToDisk.getSelection());
+    input.setDirectory(wDirectory.getText());
+    input.setPrefix(wPrefix.getText());
+    input.setMemoryLimit(wMemoryLimit.getText());
     dispose();
   }
 
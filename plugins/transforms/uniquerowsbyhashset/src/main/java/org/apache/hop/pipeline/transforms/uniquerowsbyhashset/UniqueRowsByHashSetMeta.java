@@ -18,11 +18,13 @@
 package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
 
 import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.annotations.Transform;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopXmlException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.xml.XmlHandler;
 import org.apache.hop.i18n.BaseMessages;
@@ -45,6 +47,70 @@ import java.util.List;
 public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashSet, UniqueRowsByHashSetData> {
   private static final Class<?> PKG = UniqueRowsByHashSetMeta.class; // For Translator
 
+  public static final String DEFAULT_DIRECTORY = "${java.io.tmpdir}";
+  public static final String DEFAULT_PREFIX = "unique";
+  public static final String DEFAULT_EXPECTED_ROWS = "10000000";
+  public static final String DEFAULT_FALSE_POSITIVE_RATE = "0.001";
+
+  /** How the keys of the rows seen so far are kept */
+  public enum KeyStorage {
+    /** The key values or their hash codes in a set of objects */
+    OBJECTS("OBJECTS", BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.KeyStorage.Objects")),
+    /** 128-bit fingerprints of the keys in a set of primitives, or the serialized key values */
+    FINGERPRINTS(
+        "FINGERPRINTS",
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.KeyStorage.Fingerprints")),
+    /** A Bloom filter: fixed memory, but some unique rows are taken for duplicates */
+    BLOOM_FILTER(
+        "BLOOM_FILTER",
+        BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.KeyStorage.BloomFilter")),
+    ;
+
+    private final String code;
+    private final String description;
+
+    KeyStorage(String code, String description) {
+      this.code = code;
+      this.description = description;
+    }
+
+    public static KeyStorage getKeyStorageFromCode(String code) {
+      for (KeyStorage keyStorage : values()) {
+        if (keyStorage.code.equalsIgnoreCase(code)) {
+          return keyStorage;
+        }
+      }
+      return OBJECTS;
+    }
+
+    public static KeyStorage getKeyStorageFromDescription(String description) {
+      for (KeyStorage keyStorage : values()) {
+        if (keyStorage.description.equals(description)) {
+          return keyStorage;
+        }
+      }
+      return OBJECTS;
+    }
+
+    public static String[] getDescriptions() {
+      String[] descriptions = new String[values().length];
+      for (int i = 0; i < values().length; i++) {
+        descriptions[i] = values()[i].description;
+      }
+      return descriptions;
+    }
+
+    /** @return the code used in the XML of the transform */
+    public String getCode() {
+      return code;
+    }
+
+    /** @return the description shown in the dialog */
+    public String getDescription() {
+      return description;
+    }
+  }
+
   /**
    * Whether to compare strictly by hash value or to store the row values for strict equality
    * checking
@@ -57,6 +123,27 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
   private boolean rejectDuplicateRow;
   private String errorDescription;
 
+  /** How the keys of the rows seen so far are kept */
+  private KeyStorage keyStorage;
+
+  /** The number of unique keys the Bloom filter is sized for */
+  private String expectedRows;
+
+  /** The chance the Bloom filter takes a unique row for a duplicate at the expected rows */
+  private String falsePositiveRate;
+
+  /** Write the fingerprints which don't fit in memory to temp files */
+  private boolean spillingToDisk;
+
+  /** The directory of the temp files */
+  private String directory;
+
+  /** The prefix of the temp files */
+  private String prefix;
+
+  /** The maximum memory in MB to keep fingerprints in, empty for no limit of its own */
+  private String memoryLimit;
+
   public UniqueRowsByHashSetMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -103,6 +190,76 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
     return errorDescription;
   }
 
+  /** @return how the keys of the rows seen so far are kept */
+  public KeyStorage getKeyStorage() {
+    return keyStorage;
+  }
+
+  /** @param keyStorage how to keep the keys of the rows seen so far */
+  public void setKeyStorage(KeyStorage keyStorage) {
+    this.keyStorage = keyStorage;
+  }
+
+  /** @return the number of unique keys the Bloom filter is sized for */
+  public String getExpectedRows() {
+    return expectedRows;
+  }
+
+  /** @param expectedRows the number of unique keys to size the Bloom filter for */
+  public void setExpectedRows(String expectedRows) {
+    this.expectedRows = expectedRows;
+  }
+
+  /** @return the chance the Bloom filter takes a unique row for a duplicate */
+  public String getFalsePositiveRate() {
+    return falsePositiveRate;
+  }
+
+  /** @param falsePositiveRate the chance the Bloom filter takes a unique row for a duplicate */
+  public void setFalsePositiveRate(String falsePositiveRate) {
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /** @return true if fingerprints which don't fit in memory are written to temp files */
+  public boolean isSpillingToDisk() {
+    return spillingToDisk;
+  }
+
+  /** @param spillingToDisk true to write fingerprints which don't fit in memory to temp files */
+  public void setSpillingToDisk(boolean spillingToDisk) {
+    this.spillingToDisk = spillingToDisk;
+  }
+
+  /** @return the directory of the temp files */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /** @param directory the directory of the temp files */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /** @return the prefix of the temp files */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /** @param prefix the prefix of the temp files */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /** @return the maximum memory in MB to keep fingerprints in */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /** @param memoryLimit the maximum memory in MB to keep fingerprints in */
+  public void setMemoryLimit(String memoryLimit) {
+    this.memoryLimit = memoryLimit;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -127,6 +284,18 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
       rejectDuplicateRow =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "reject_duplicate_row"));
       errorDescription = XmlHandler.getTagValue(transformNode, "error_description");
+      keyStorage =
+          KeyStorage.getKeyStorageFromCode(XmlHandler.getTagValue(transformNode, "key_storage"));
+      expectedRows =
+          Const.NVL(XmlHandler.getTagValue(transformNode, "expected_rows"), DEFAULT_EXPECTED_ROWS);
+      falsePositiveRate =
+          Const.NVL(
+              XmlHandler.getTagValue(transformNode, "false_positive_rate"),
+              DEFAULT_FALSE_POSITIVE_RATE);
+      spillingToDisk = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "spill_to_disk"));
+      directory = Const.NVL(XmlHandler.getTagValue(transformNode, "directory"), DEFAULT_DIRECTORY);
+      prefix = Const.NVL(XmlHandler.getTagValue(transformNode, "prefix"), DEFAULT_PREFIX);
+      memoryLimit = XmlHandler.getTagValue(transformNode, "memory_limit");
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
       int nrFields = XmlHandler.countNodes(fields, "field");
@@ -151,6 +320,13 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
   public void setDefault() {
     rejectDuplicateRow = false;
     errorDescription = null;
+    keyStorage = KeyStorage.OBJECTS;
+    expectedRows = DEFAULT_EXPECTED_ROWS;
+    falsePositiveRate = DEFAULT_FALSE_POSITIVE_RATE;
+    spillingToDisk = false;
+    directory = DEFAULT_DIRECTORY;
+    prefix = DEFAULT_PREFIX;
+    memoryLimit = null;
     int nrFields = 0;
 
     allocate(nrFields);
@@ -177,6 +353,16 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
     retval.append("      " + XmlHandler.addTagValue("store_values", storeValues));
     retval.append("      " + XmlHandler.addTagValue("reject_duplicate_row", rejectDuplicateRow));
     retval.append("      " + XmlHandler.addTagValue("error_description", errorDescription));
+    retval.append(
+        "      "
+            + XmlHandler.addTagValue(
+                "key_storage", keyStorage == null ? null : keyStorage.getCode()));
+    retval.append("      " + XmlHandler.addTagValue("expected_rows", expectedRows));
+    retval.append("      " + XmlHandler.addTagValue("false_positive_rate", falsePositiveRate));
+    retval.append("      " + XmlHandler.addTagValue("spill_to_disk", spillingToDisk));
+    retval.append("      " + XmlHandler.addTagValue("directory", directory));
+    retval.append("      " + XmlHandler.addTagValue("prefix", prefix));
+    retval.append("      " + XmlHandler.addTagValue("memory_limit", memoryLimit));
     retval.append("    <fields>");
     for (int i = 0; i < compareFields.length; i++) {
       retval.append("      <field>");
@@ -219,6 +405,35 @@ public class UniqueRowsByHashSetMeta extends BaseTransformMeta<UniqueRowsByHashS
               transformMeta);
       remarks.add(cr);
     }
+
+    if (keyStorage == KeyStorage.BLOOM_FILTER) {
+      double rate = Const.toDouble(variables.resolve(falsePositiveRate), -1.0);
+      if (Const.toLong(variables.resolve(expectedRows), -1L) <= 0L || rate <= 0.0 || rate >= 1.0) {
+        cr =
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_ERROR,
+                BaseMessages.getString(
+                    PKG, "UniqueRowsByHashSetMeta.CheckResult.InvalidBloomFilterSettings"),
+                transformMeta);
+        remarks.add(cr);
+      } else {
+        cr =
+            new CheckResult(
+                ICheckResult.TYPE_RESULT_WARNING,
+                BaseMessages.getString(
+                    PKG, "UniqueRowsByHashSetMeta.CheckResult.BloomFilterIsApproximate"),
+                transformMeta);
+        remarks.add(cr);
+      }
+    }
+    if (keyStorage == KeyStorage.FINGERPRINTS && spillingToDisk && Utils.isEmpty(directory)) {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "UniqueRowsByHashSetMeta.CheckResult.NoSpillDirectory"),
+              transformMeta);
+      remarks.add(cr);
+    }
   }
 
   @Override
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.uniquerowsbyhashset;
+
+import com.google.common.hash.HashCode;
+import org.apache.hop.core.exception.HopException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FingerprintSetTest {
+
+  @Test
+  public void testAddGrowsAndFindsDuplicates() throws HopException {
+    FingerprintSet set = new FingerprintSet(16);
+    long memorySize = set.getMemorySize();
+    for (long i = 0; i < 100000; i++) {
+      assertTrue(set.add(i * 31, i));
+    }
+    assertEquals(100000, set.size());
+    assertTrue(set.getMemorySize() > memorySize);
+    for (long i = 0; i < 100000; i++) {
+      assertFalse(set.add(i * 31, i));
+    }
+    // Same low bits, different high bits
+    assertTrue(set.add(1L, 1L));
+    assertEquals(100001, set.size());
+  }
+
+  @Test
+  public void testWriteAndReadBack() throws HopException, IOException {
+    FingerprintSet set = new FingerprintSet(16);
+    for (long i = 0; i < 1000; i++) {
+      set.add(i, -i);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream outputStream = new DataOutputStream(bytes)) {
+      set.writeTo(outputStream);
+    }
+    FingerprintSet readBack =
+        FingerprintSet.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(1000, readBack.size());
+    for (long i = 0; i < 1000; i++) {
+      assertFalse(readBack.add(i, -i));
+    }
+    assertTrue(readBack.add(1000L, -1000L));
+  }
+
+  @Test
+  public void testFingerprintsOfKeyFields() {
+    KeyFunnel funnel = new KeyFunnel(new int[] {0, 2});
+    HashCode fingerprint = funnel.fingerprint(new Object[] {"a", 1L, 2L});
+    assertEquals(fingerprint, funnel.fingerprint(new Object[] {"a", 99L, 2L}));
+    assertNotEquals(fingerprint, funnel.fingerprint(new Object[] {"a", 1L, 3L}));
+    assertNotEquals(fingerprint, funnel.fingerprint(new Object[] {null, 1L, 2L}));
+    // The length of a value is part of the fingerprint
+    assertNotEquals(
+        new KeyFunnel(new int[] {0, 1}).fingerprint(new Object[] {"ab", "c"}),
+        new KeyFunnel(new int[] {0, 1}).fingerprint(new Object[] {"a", "bc"}));
+  }
+
+  @Test
+  public void testPartitionsAreSpread() {
+    KeyFunnel funnel = new KeyFunnel(new int[] {0});
+    Set<Integer> partitions = new HashSet<>();
+    for (long i = 0; i < 10000; i++) {
+      long high = funnel.fingerprint(new Object[] {i}).asLong();
+      int partitionNr = UniqueRowsByHashSet.getPartitionNr(high);
+      assertTrue(partitionNr >= 0 && partitionNr < UniqueRowsByHashSet.NR_PARTITIONS);
+      partitions.add(partitionNr);
+    }
+    assertEquals(UniqueRowsByHashSet.NR_PARTITIONS, partitions.size());
+  }
+}
@@ -86,6 +86,11 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
 
   private TableView wOptions;
 
+  private Button wUsePool;
+  private TextVar wInitialPoolSize;
+  private TextVar wMaximumPoolSize;
+  private TableView wPoolParameters;
+
   private PropsUi props;
   private int middle;
   private int margin;
@@ -174,6 +179,7 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     addGeneralTab();
     addAdvancedTab();
     addOptionsTab();
+    addPoolingTab();
 
     // Select the general tab
     //
@@ -211,6 +217,11 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wPreferredSchema.addListener(SWT.Modify, modifyListener);
     wSqlStatements.addListener(SWT.Modify, modifyListener);
     wOptions.addListener(SWT.Modify, modifyListener);
+    wUsePool.addListener(SWT.Selection, modifyListener);
+    wUsePool.addListener(SWT.Selection, event -> enableFields());
+    wInitialPoolSize.addListener(SWT.Modify, modifyListener);
+    wMaximumPoolSize.addListener(SWT.Modify, modifyListener);
+    wPoolParameters.addListener(SWT.Modify, modifyListener);
   }
 
   private void addGeneralTab() {
@@ -691,6 +702,141 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptionsTab.setControl(wOptionsComp);
   }
 
+  private void addPoolingTab() {
+
+    CTabItem wPoolingTab = new CTabItem(wTabFolder, SWT.NONE);
+    wPoolingTab.setText(
+        "   " + BaseMessages.getString(PKG, "DatabaseDialog.PoolingTab.title") + "   ");
+
+    Composite wPoolingComp = new Composite(wTabFolder, SWT.NONE);
+    props.setLook(wPoolingComp);
+
+    FormLayout poolingLayout = new FormLayout();
+    poolingLayout.marginWidth = Const.FORM_MARGIN * 2;
+    poolingLayout.marginHeight = Const.FORM_MARGIN * 2;
+    wPoolingComp.setLayout(poolingLayout);
+
+    // Use a connection pool?
+    //
+    Label wlUsePool = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlUsePool);
+    wlUsePool.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.UseConnectionPool"));
+    FormData fdlUsePool = new FormData();
+    fdlUsePool.top = new FormAttachment(0, 0);
+    fdlUsePool.left = new FormAttachment(0, 0); // First one in the left top corner
+    fdlUsePool.right = new FormAttachment(middle, 0);
+    wlUsePool.setLayoutData(fdlUsePool);
+    wUsePool = new Button(wPoolingComp, SWT.CHECK | SWT.LEFT);
+    props.setLook(wUsePool);
+    FormData fdUsePool = new FormData();
+    fdUsePool.top = new FormAttachment(wlUsePool, 0, SWT.CENTER);
+    fdUsePool.left = new FormAttachment(middle, margin); // To the right of the label
+    fdUsePool.right = new FormAttachment(100, 0);
+    wUsePool.setLayoutData(fdUsePool);
+    Control lastControl = wUsePool;
+
+    // The initial pool size
+    //
+    Label wlInitialPoolSize = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlInitialPoolSize);
+    wlInitialPoolSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolSizeInitial"));
+    FormData fdlInitialPoolSize = new FormData();
+    fdlInitialPoolSize.top = new FormAttachment(lastControl, margin);
+    fdlInitialPoolSize.left = new FormAttachment(0, 0);
+    fdlInitialPoolSize.right = new FormAttachment(middle, 0);
+    wlInitialPoolSize.setLayoutData(fdlInitialPoolSize);
+    wInitialPoolSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wInitialPoolSize);
+    FormData fdInitialPoolSize = new FormData();
+    fdInitialPoolSize.top = new FormAttachment(wlInitialPoolSize, 0, SWT.CENTER);
+    fdInitialPoolSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdInitialPoolSize.right = new FormAttachment(100, 0);
+    wInitialPoolSize.setLayoutData(fdInitialPoolSize);
+    lastControl = wInitialPoolSize;
+
+    // The maximum pool size
+    //
+    Label wlMaximumPoolSize = new Label(wPoolingComp, SWT.RIGHT);
+    props.setLook(wlMaximumPoolSize);
+    wlMaximumPoolSize.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolSizeMaximum"));
+    FormData fdlMaximumPoolSize = new FormData();
+    fdlMaximumPoolSize.top = new FormAttachment(lastControl, margin);
+    fdlMaximumPoolSize.left = new FormAttachment(0, 0);
+    fdlMaximumPoolSize.right = new FormAttachment(middle, 0);
+    wlMaximumPoolSize.setLayoutData(fdlMaximumPoolSize);
+    wMaximumPoolSize =
+        new TextVar(manager.getVariables(), wPoolingComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    props.setLook(wMaximumPoolSize);
+    FormData fdMaximumPoolSize = new FormData();
+    fdMaximumPoolSize.top = new FormAttachment(wlMaximumPoolSize, 0, SWT.CENTER);
+    fdMaximumPoolSize.left = new FormAttachment(middle, margin); // To the right of the label
+    fdMaximumPoolSize.right = new FormAttachment(100, 0);
+    wMaximumPoolSize.setLayoutData(fdMaximumPoolSize);
+    lastControl = wMaximumPoolSize;
+
+    // The parameters of the pool, every known parameter gets a row
+    //
+    ColumnInfo[] poolColumns =
+        new ColumnInfo[] {
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Parameter"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Value"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Default"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "DatabaseDialog.column.Description"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              true),
+        };
+    poolColumns[1].setUsingVariables(true);
+
+    Label wlPoolParameters = new Label(wPoolingComp, SWT.LEFT);
+    props.setLook(wlPoolParameters);
+    wlPoolParameters.setText(BaseMessages.getString(PKG, "DatabaseDialog.label.PoolParameters"));
+    FormData fdlPoolParameters = new FormData();
+    fdlPoolParameters.top = new FormAttachment(lastControl, margin * 2);
+    fdlPoolParameters.left = new FormAttachment(0, 0);
+    fdlPoolParameters.right = new FormAttachment(100, 0);
+    wlPoolParameters.setLayoutData(fdlPoolParameters);
+    wPoolParameters =
+        new TableView(
+            manager.getVariables(),
+            wPoolingComp,
+            SWT.BORDER,
+            poolColumns,
+            BaseDatabaseMeta.poolingParameters.length,
+            event -> setChanged(),
+            props);
+    props.setLook(wPoolParameters);
+    FormData fdPoolParameters = new FormData();
+    fdPoolParameters.top = new FormAttachment(wlPoolParameters, margin * 2);
+    fdPoolParameters.bottom = new FormAttachment(100, 0);
+    fdPoolParameters.left = new FormAttachment(0, 0);
+    fdPoolParameters.right = new FormAttachment(100, 0);
+    wPoolParameters.setLayoutData(fdPoolParameters);
+
+    FormData fdPoolingComp = new FormData();
+    fdPoolingComp.left = new FormAttachment(0, 0);
+    fdPoolingComp.top = new FormAttachment(0, 0);
+    fdPoolingComp.right = new FormAttachment(100, 0);
+    fdPoolingComp.bottom = new FormAttachment(100, 0);
+    wPoolingComp.setLayoutData(fdPoolingComp);
+
+    wPoolingComp.layout();
+    wPoolingTab.setControl(wPoolingComp);
+  }
+
   private void enableFields() {
     boolean manualUrl =
         StringUtils.isNotEmpty(wManualUrl.getText())
@@ -700,6 +846,11 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     //
     guiCompositeWidgets.enableWidgets(
         getMetadata().getIDatabase(), DatabaseMeta.GUI_PLUGIN_ELEMENT_PARENT_ID, !manualUrl);
+
+    boolean usePool = wUsePool.getSelection();
+    wInitialPoolSize.setEnabled(usePool);
+    wMaximumPoolSize.setEnabled(usePool);
+    wPoolParameters.setEnabled(usePool);
   }
 
   private void test() {
@@ -776,6 +927,22 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
     wOptions.setRowNums();
     wOptions.optWidth(true);
 
+    wUsePool.setSelection(databaseMeta.isUsingConnectionPool());
+    wInitialPoolSize.setText(Const.NVL(databaseMeta.getInitialPoolSizeString(), ""));
+    wMaximumPoolSize.setText(Const.NVL(databaseMeta.getMaximumPoolSizeString(), ""));
+    wPoolParameters.clearAll(false);
+    Map<String, String> poolProperties = databaseMeta.getConnectionPoolingProperties();
+    for (DatabaseConnectionPoolParameter parameter : BaseDatabaseMeta.poolingParameters) {
+      TableItem item = new TableItem(wPoolParameters.table, SWT.NONE);
+      item.setText(1, parameter.getParameter());
+      item.setText(2, Const.NVL(poolProperties.get(parameter.getParameter()), ""));
+      item.setText(3, Const.NVL(parameter.getDefaultValue(), ""));
+      item.setText(4, Const.NVL(parameter.getDescription(), ""));
+    }
+    wPoolParameters.removeEmptyRows();
+    wPoolParameters.setRowNums();
+    wPoolParameters.optWidth(true);
+
     enableFields();
   }
 
@@ -810,6 +977,19 @@ public class DatabaseMetaEditor extends MetadataEditor<DatabaseMeta> {
       String value = item.getText(2);
       meta.addExtraOption(meta.getPluginId(), option, value);
     }
+
+    meta.setUsingConnectionPool(wUsePool.getSelection());
+    meta.setInitialPoolSizeString(wInitialPoolSize.getText());
+    meta.setMaximumPoolSizeString(wMaximumPoolSize.getText());
+    Map<String, String> poolProperties = new HashMap<>();
+    for (TableItem item : wPoolParameters.table.getItems()) {
+      String parameter = item.getText(1);
+      String value = item.getText(2);
+      if (StringUtils.isNotEmpty(parameter) && StringUtils.isNotEmpty(value)) {
+        poolProperties.put(parameter, value);
+      }
+    }
+    meta.setConnectionPoolingProperties(poolProperties);
   }
 
   /** Test the database connection */